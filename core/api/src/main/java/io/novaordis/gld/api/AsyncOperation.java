@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.api;
+
+import io.novaordis.gld.api.service.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An operation that can be performed asynchronously against services that support it.
+ *
+ * @see Operation
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/13/17
+ */
+public interface AsyncOperation extends Operation {
+
+    /**
+     * @return true if the operation can be performed asynchronously against the given service instance.
+     */
+    boolean supportsAsync(Service s);
+
+    /**
+     * Initiates the operation and returns without waiting for its completion. The same restrictions that apply to
+     * perform() apply: everything that is irrelevant to what we measure must be performed outside this method.
+     *
+     * @return a future that completes when the operation completes, or exceptionally if the operation fails. The
+     * operation state (wasSuccessful(), the operation's result) is updated before the future completes.
+     *
+     * @exception IllegalArgumentException if the service instance does not support asynchronous operations.
+     *
+     * @see Operation#perform(Service)
+     * @see AsyncOperation#supportsAsync(Service)
+     */
+    CompletableFuture<Void> performAsync(Service s) throws Exception;
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api;
+
+/**
+ * An operation that accesses several keys in a single call to the target service, such as a bulk read or a bulk
+ * write. The sampler counts the operation once, but it also accumulates the number of keys, so the statistics can be
+ * reported both in operations per second and in keys per second.
+ *
+ * @see io.novaordis.gld.api.sampler.Counter#update(long, long, long, long, int, Throwable...)
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public interface BatchOperation extends Operation {
+
+    /**
+     * @return the number of keys accessed by this operation. Always positive.
+     */
+    int getKeyCount();
+
+}
@@ -95,6 +95,43 @@ public interface LoadStrategy {
     void setService(Service s) throws IllegalArgumentException;
 
     /**
+     * Forks a new per-thread context from this configured strategy. Each thread that produces operations must obtain
+     * its own context, and pass it to all its next() invocations. Creating a context is cheap.
+     *
+     * @see LoadStrategyContext
+     */
+    LoadStrategyContext newContext();
+
+    /**
+     * @return the next operation to be sent into the service, factoring in the last operation that has been sent into
+     * the service. The strategy keeps its per-thread state in the given context, so the operations produced for a
+     * context form a deterministic sequence (the configured read/write series, for example), regardless of how many
+     * other threads use the same strategy concurrently.
+     *
+     * @param context a context obtained from this strategy's newContext(), used by the calling thread only.
+     *
+     * @param last the last operation that has been sent into the service. It may be null (which means that no operation
+     *             was yet sent into the service..
+     *
+     * @param lastWrittenKey last successfully written key - the method should be prepared for the situation the key
+     *        is null.
+     *
+     * @param shuttingDown - true if the load driver is in process of shutting down and this is the last operation to
+     *                     be sent into the service, false otherwise. This gives the load strategy a chance to send a
+     *                            "cleanup" operation, if needed.
+     *
+     * @exception java.lang.IllegalStateException if the strategy was not properly initialized before the first next()
+     * invocation.
+     *
+     * @exception java.lang.IllegalArgumentException if the context was not forked from this strategy.
+     */
+    Operation next(LoadStrategyContext context, Operation last, String lastWrittenKey, boolean shuttingDown)
+            throws Exception;
+
+    /**
+     * Equivalent to next(LoadStrategyContext, ...) invoked with a context that is implicitly associated with the
+     * calling thread. Convenient for callers that do not manage contexts; runners should use the explicit variant.
+     *
      * @return the next operation to be sent into the service, factoring in the last operation that has been sent into
      * the service.
      *
@@ -161,4 +198,13 @@ public interface LoadStrategy {
      */
     String computeValue();
 
+    /**
+     * The byte[] equivalent of computeValue(), for services that accept byte payloads. The bytes are generated
+     * directly, without an intermediate String.
+     *
+     * @return the reused value, if the load strategy was configured to reuse values, or computes a new one. The reused
+     * value is shared, so the caller must not modify the returned array.
+     */
+    byte[] computeValueBytes();
+
 }
@@ -24,6 +24,7 @@ import io.novaordis.utilities.UserErrorException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
@@ -51,14 +52,19 @@ public abstract class LoadStrategyBase implements LoadStrategy {
 
     private Boolean reuseValue;
     private String reusedValue;
+    private byte[] reusedValueBytes;
 
     private int valueSize;
 
+    // the contexts of the threads that invoke next() without an explicit context
+    private final ThreadLocal<LoadStrategyContext> implicitContexts;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     protected LoadStrategyBase() {
 
         this.valueGenerator = new RandomContentGenerator();
+        this.implicitContexts = ThreadLocal.withInitial(this::newContext);
 
         //
         // by default, unlimited operations
@@ -228,12 +234,34 @@ public abstract class LoadStrategyBase implements LoadStrategy {
         return service;
     }
 
+    /**
+     * The default context carries no state. Strategies that need per-thread state must override this method and
+     * return their own LoadStrategyContext sub-class.
+     */
+    @Override
+    public LoadStrategyContext newContext() {
+
+        return new LoadStrategyContext(this);
+    }
+
     @Override
     public Operation next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown) throws Exception {
 
+        return next(implicitContexts.get(), last, lastWrittenKey, runtimeShuttingDown);
+    }
+
+    @Override
+    public Operation next(LoadStrategyContext context, Operation last, String lastWrittenKey,
+                          boolean runtimeShuttingDown) throws Exception {
+
+        if (context == null || context.getLoadStrategy() != this) {
+
+            throw new IllegalArgumentException(context + " was not forked from " + this);
+        }
+
         if (remainingOperation == null) {
 
-            return nextInternal(last, lastWrittenKey, runtimeShuttingDown);
+            return nextInternal(context, last, lastWrittenKey, runtimeShuttingDown);
         }
 
         long remaining = remainingOperation.getAndDecrement();
@@ -252,7 +280,7 @@ public abstract class LoadStrategyBase implements LoadStrategy {
         // there are operations to be produced, message the sub-class
         //
 
-        return nextInternal(last, lastWrittenKey, runtimeShuttingDown);
+        return nextInternal(context, last, lastWrittenKey, runtimeShuttingDown);
     }
 
     @Override
@@ -318,6 +346,26 @@ public abstract class LoadStrategyBase implements LoadStrategy {
         return s;
     }
 
+    @Override
+    public byte[] computeValueBytes() {
+
+        if (reuseValue) {
+
+            byte[] b = reusedValueBytes;
+
+            if (b == null) {
+
+                String s = getReusedValue();
+                b = s.getBytes(StandardCharsets.US_ASCII);
+                reusedValueBytes = b;
+            }
+
+            return b;
+        }
+
+        return getValueGenerator().getRandomBytes(ThreadLocalRandom.current(), getValueSize());
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     // Package protected -----------------------------------------------------------------------------------------------
@@ -377,9 +425,13 @@ public abstract class LoadStrategyBase implements LoadStrategy {
             ServiceConfiguration sc, Map<String, Object> loadStrategyRawConfig, LoadConfiguration lc) throws Exception;
 
     /**
-     * @see LoadStrategy#next(Operation, String, boolean)
+     * @param context the context of the calling thread, forked from this instance with newContext(). Sub-classes that
+     *                override newContext() may cast it to their own context type.
+     *
+     * @see LoadStrategy#next(LoadStrategyContext, Operation, String, boolean)
      */
-    protected abstract Operation nextInternal(Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+    protected abstract Operation nextInternal(
+            LoadStrategyContext context, Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
             throws Exception;
 
     protected void setValueSize(int i) {
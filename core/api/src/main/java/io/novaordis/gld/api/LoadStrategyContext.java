@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api;
+
+/**
+ * The per-thread state of a load strategy. A LoadStrategy instance is configured once and shared by all runners, so
+ * it must not keep any mutable per-operation state. Each runner forks its own context from the shared strategy with
+ * LoadStrategy.newContext() and passes it to every next() invocation, and the strategy keeps its sequencing state (the
+ * position in a read/write series, for example) in the context. Strategies that need per-thread state extend this
+ * class.
+ *
+ * A context is confined to the thread that uses it, so it is not thread-safe, and it does not need to be.
+ *
+ * @see LoadStrategy#newContext()
+ * @see LoadStrategy#next(LoadStrategyContext, Operation, String, boolean)
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class LoadStrategyContext {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final LoadStrategy loadStrategy;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param loadStrategy the load strategy this context was forked from.
+     */
+    public LoadStrategyContext(LoadStrategy loadStrategy) {
+
+        if (loadStrategy == null) {
+
+            throw new IllegalArgumentException("null load strategy");
+        }
+
+        this.loadStrategy = loadStrategy;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the load strategy this context was forked from.
+     */
+    public LoadStrategy getLoadStrategy() {
+
+        return loadStrategy;
+    }
+
+    @Override
+    public String toString() {
+
+        return "context of " + loadStrategy;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
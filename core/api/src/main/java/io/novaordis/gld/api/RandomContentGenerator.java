@@ -17,8 +17,18 @@
 package io.novaordis.gld.api;
 
 import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * Generates random alphanumeric content, as strings or as byte arrays.
+ *
+ * The content is generated into per-thread reusable buffers, by indexing a character table with random numbers, so
+ * the only allocation per generated string is the string itself. Byte content can be generated directly into a
+ * caller-provided buffer, without any allocation. The total number of characters/bytes generated by all instances
+ * is available as getGeneratedByteCount() - the content is ASCII, so one character is one byte. Instances created
+ * with counted == false do not contribute to the count, they are meant for content that is not sent to the target
+ * service, such as a pre-generated key space.
+ *
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 12/7/16
  */
@@ -26,18 +36,105 @@ public class RandomContentGenerator {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
+    //
+    // per-thread buffers larger than this are not retained between invocations
+    //
+    public static final int MAX_RETAINED_BUFFER_LENGTH = 64 * 1024;
+
+    private static final int TABLE_LENGTH = 122;
+
+    private static final char[] CHARACTERS = new char[TABLE_LENGTH];
+    private static final byte[] BYTES = new byte[TABLE_LENGTH];
+
+    static {
+
+        //
+        // maps [0, 122) on digits and letters - some letters are more frequent than others
+        //
+
+        for(int i = 0; i < TABLE_LENGTH; i ++) {
+
+            int c = i;
+
+            if (c <= 25) {
+                c += 65;
+            }
+            else if (c <= 47) {
+                c += 71;
+            }
+            else if (c >= 58 && c <= 64) {
+                c += 10;
+            }
+            else if (c >= 91 && c <= 96) {
+                c += 10;
+            }
+
+            CHARACTERS[i] = (char)c;
+            BYTES[i] = (byte)c;
+        }
+    }
+
     // Static ----------------------------------------------------------------------------------------------------------
 
+    private static final ThreadLocal<char[]> buffers = new ThreadLocal<>();
+
+    private static final LongAdder generatedByteCount = new LongAdder();
+
+    /**
+     * @return the total number of characters/bytes generated by all RandomContentGenerator instances since the class
+     * was loaded.
+     */
+    public static long getGeneratedByteCount() {
+
+        return generatedByteCount.sum();
+    }
+
+    /**
+     * @return the length of the random section used by getRandomString(Random, int) and getRandomBytes(Random, int)
+     * for content of the given length.
+     */
+    public static int getDefaultRandomSequenceLength(int length) {
+
+        if (length <= 10) {
+
+            return length;
+        }
+        else if (length <= 1024) {
+
+            return 20;
+        }
+        else {
+
+            return 50;
+        }
+    }
+
     // Attributes ------------------------------------------------------------------------------------------------------
 
+    private final boolean counted;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
+    public RandomContentGenerator() {
+
+        this(true);
+    }
+
+    /**
+     * @param counted whether the content generated by this instance is added to the generated byte count.
+     *
+     * @see RandomContentGenerator#getGeneratedByteCount()
+     */
+    public RandomContentGenerator(boolean counted) {
+
+        this.counted = counted;
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     /**
      * Assembles a random string by generating a shorter random sequence of 'randomSequenceLength' and then copying
-     * the sequence for as many times as necessary to build the desired 'length' string. The implementation is naive,
-     * come up with something smarter.
+     * the sequence for as many times as necessary to build the desired 'length' string.
      *
      * @param random - the Random instance to use while generated the content. We are exposing it externally to give
      *        the caller a chance to provide an efficient Random (such as ThreadLocalRandom, which should be used in
@@ -51,57 +148,23 @@ public class RandomContentGenerator {
      */
     public String getRandomString(Random random, int length, int randomSequenceLength) {
 
-        String randomSection = "";
-
-        int r;
+        randomSequenceLength = validate(length, randomSequenceLength);
 
-        if (length < randomSequenceLength) {
-            randomSequenceLength = length;
-        }
+        char[] buffer = buffers.get();
 
-        if (randomSequenceLength <= 0) {
-            throw new IllegalArgumentException("invalid length " + randomSequenceLength);
-        }
+        if (buffer == null || buffer.length < length) {
 
-        for (int i = 0; i < randomSequenceLength; i ++) {
+            buffer = new char[length];
 
-            r = random.nextInt(122);
+            if (length <= MAX_RETAINED_BUFFER_LENGTH) {
 
-            if (r >=0 && r <= 25) {
-                r += 65;
-            }
-            else if (r >=26 && r <= 47) {
-                r += 71;
+                buffers.set(buffer);
             }
-            else if (r >= 58 && r <= 64) {
-                r += 10;
-            }
-            else if (r >= 91 && r <= 96) {
-                r += 10;
-            }
-
-            randomSection += ((char)r);
         }
 
-        if (length == randomSequenceLength) {
-            return randomSection;
-        }
-        else if (length > randomSequenceLength) {
+        fill(random, buffer, 0, length, randomSequenceLength);
 
-            char[] src = randomSection.toCharArray();
-            int sections = length / randomSequenceLength;
-            char[] buffer = new char[length];
-            for(int i = 0; i < sections; i ++) {
-                System.arraycopy(src, 0, buffer, i * randomSequenceLength, randomSequenceLength);
-            }
-            int rest = length - sections * randomSequenceLength;
-            System.arraycopy(src, 0, buffer, sections * randomSequenceLength, rest);
-            return new String(buffer);
-        }
-        else {
-
-            throw new RuntimeException("NOT YET IMPLEMENTED getRandomString()");
-        }
+        return new String(buffer, 0, length);
     }
 
     /**
@@ -118,17 +181,88 @@ public class RandomContentGenerator {
             throw new IllegalArgumentException("invalid length " + length);
         }
 
-        if (length <= 10) {
+        return getRandomString(random, length, getDefaultRandomSequenceLength(length));
+    }
+
+    /**
+     * The byte equivalent of getRandomString(Random, int, int): the content consists of the ASCII codes of the
+     * characters getRandomString() would generate.
+     *
+     * @return a new array. The caller owns it.
+     *
+     * @see RandomContentGenerator#getRandomString(Random, int, int)
+     */
+    public byte[] getRandomBytes(Random random, int length, int randomSequenceLength) {
+
+        randomSequenceLength = validate(length, randomSequenceLength);
 
-            return getRandomString(random, length, length);
+        byte[] result = new byte[length];
+        fill(random, result, 0, length, randomSequenceLength);
+        return result;
+    }
+
+    /**
+     * @return a new array. The caller owns it.
+     *
+     * @see RandomContentGenerator#getRandomString(Random, int)
+     */
+    public byte[] getRandomBytes(Random random, int length) {
+
+        if (length <= 0) {
+
+            throw new IllegalArgumentException("invalid length " + length);
         }
-        else if (length <= 1024) {
 
-            return getRandomString(random, length, 20);
+        return getRandomBytes(random, length, getDefaultRandomSequenceLength(length));
+    }
+
+    /**
+     * Fills 'length' characters of the buffer, starting with 'offset', with random content. Does not allocate.
+     *
+     * @see RandomContentGenerator#getRandomString(Random, int, int)
+     *
+     * @throws IllegalArgumentException on invalid length or if the buffer is not large enough.
+     */
+    public void fill(Random random, char[] buffer, int offset, int length, int randomSequenceLength) {
+
+        randomSequenceLength = validate(length, randomSequenceLength);
+        checkBounds(buffer.length, offset, length);
+
+        for (int i = offset; i < offset + randomSequenceLength; i ++) {
+
+            buffer[i] = CHARACTERS[random.nextInt(TABLE_LENGTH)];
         }
-        else {
 
-            return getRandomString(random, length, 50);
+        repeat(buffer, offset, length, randomSequenceLength);
+
+        if (counted) {
+
+            generatedByteCount.add(length);
+        }
+    }
+
+    /**
+     * Fills 'length' bytes of the buffer, starting with 'offset', with random content. Does not allocate.
+     *
+     * @see RandomContentGenerator#getRandomBytes(Random, int, int)
+     *
+     * @throws IllegalArgumentException on invalid length or if the buffer is not large enough.
+     */
+    public void fill(Random random, byte[] buffer, int offset, int length, int randomSequenceLength) {
+
+        randomSequenceLength = validate(length, randomSequenceLength);
+        checkBounds(buffer.length, offset, length);
+
+        for (int i = offset; i < offset + randomSequenceLength; i ++) {
+
+            buffer[i] = BYTES[random.nextInt(TABLE_LENGTH)];
+        }
+
+        repeat(buffer, offset, length, randomSequenceLength);
+
+        if (counted) {
+
+            generatedByteCount.add(length);
         }
     }
 
@@ -138,6 +272,49 @@ public class RandomContentGenerator {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return the effective random sequence length.
+     */
+    private static int validate(int length, int randomSequenceLength) {
+
+        if (length < randomSequenceLength) {
+            randomSequenceLength = length;
+        }
+
+        if (randomSequenceLength <= 0) {
+            throw new IllegalArgumentException("invalid length " + randomSequenceLength);
+        }
+
+        return randomSequenceLength;
+    }
+
+    private static void checkBounds(int bufferLength, int offset, int length) {
+
+        if (offset < 0 || offset + length > bufferLength) {
+
+            throw new IllegalArgumentException(
+                    "buffer too small (" + bufferLength + ") for " + length + " elements starting at " + offset);
+        }
+    }
+
+    /**
+     * Copies the random section that starts at 'offset' until 'length' elements are filled, doubling the copied
+     * region at each step.
+     *
+     * @param buffer a char[] or a byte[]
+     */
+    private static void repeat(Object buffer, int offset, int length, int randomSequenceLength) {
+
+        int filled = randomSequenceLength;
+
+        while(filled < length) {
+
+            int n = Math.min(filled, length - filled);
+            System.arraycopy(buffer, offset, buffer, offset + filled, n);
+            filled += n;
+        }
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
 }
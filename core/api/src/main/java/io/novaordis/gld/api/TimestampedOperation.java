@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api;
+
+/**
+ * An operation whose response time is measured from an origin that precedes the moment the operation started, and
+ * that is only known after the operation is performed. For example, the delivery of a JMS message, whose response
+ * time is the time the message spent in flight, measured from the moment the producer sent it.
+ *
+ * The runners record the origin as the operation's intended start, so the sampler reports the time elapsed since the
+ * origin as the response time, while the service time is still measured from the moment the operation started. An
+ * origin that is later than the moment the operation started (a message sent while the consumer was already waiting
+ * for it, whose send time is only known with millisecond resolution) is recorded as the start of the operation.
+ *
+ * @see io.novaordis.gld.api.sampler.Sampler#record(long, long, long, long, Operation, Throwable...)
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public interface TimestampedOperation extends Operation {
+
+    /**
+     * @return the origin of the operation, in System.nanoTime() units, or null if the origin is not known (the
+     * operation was not performed, or it did not carry an origin timestamp).
+     */
+    Long getOriginNano();
+
+}
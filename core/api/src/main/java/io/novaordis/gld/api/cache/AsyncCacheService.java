@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.api.cache;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A cache service that can perform operations asynchronously: the methods initiate the operation and return
+ * immediately, without waiting for the round trip to the cache. This allows a single load driver thread to keep
+ * several operations in flight.
+ *
+ * An implementation that has no native asynchronous client API is not supposed to implement this interface, the load
+ * driver will perform the operations synchronously.
+ *
+ * @see io.novaordis.gld.api.AsyncOperation
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/13/17
+ */
+public interface AsyncCacheService extends CacheService {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return a future that completes with the value associated with the key (null on cache miss), or exceptionally if
+     * the operation fails.
+     *
+     * @throws IllegalStateException if the service was not started (or if the start attempt failed)
+     */
+    CompletableFuture<String> getAsync(String key) throws Exception;
+
+    /**
+     * @return a future that completes when the value was written, or exceptionally if the operation fails.
+     *
+     * @throws IllegalStateException if the service was not started (or if the start attempt failed)
+     */
+    CompletableFuture<Void> putAsync(String key, String value) throws Exception;
+
+    /**
+     * @return a future that completes when the key was removed, or exceptionally if the operation fails.
+     *
+     * @throws IllegalStateException if the service was not started (or if the start attempt failed)
+     */
+    CompletableFuture<Void> removeAsync(String key) throws Exception;
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A cache service that can read and write several keys in a single call (getAll()/putAll()). A single bulk call
+ * usually amortizes the network round trip over the whole batch, so the keys per second rate is higher than the rate
+ * obtained by accessing the keys one by one.
+ *
+ * An implementation that does not support bulk access natively may still implement this interface by iterating over
+ * the keys, but the results are then only comparable in terms of keys per second.
+ *
+ * @see io.novaordis.gld.api.cache.operation.BulkRead
+ * @see io.novaordis.gld.api.cache.operation.BulkWrite
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public interface BulkCacheService extends CacheService {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the values associated with the given keys. The keys that are not present in the cache are not present in
+     * the map either. May return an empty map, but never null.
+     *
+     * @throws IllegalStateException if the service was not started (or if the start attempt failed)
+     */
+    Map<String, String> getAll(Set<String> keys) throws Exception;
+
+    /**
+     * @throws IllegalStateException if the service was not started (or if the start attempt failed)
+     */
+    void putAll(Map<String, String> entries) throws Exception;
+
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.embedded;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache that holds at most a fixed number of entries, and evicts entries according to an eviction policy once it is
+ * full. The cache is split into independently locked segments, selected by the key hash, so the threads accessing
+ * different segments do not contend. Each segment applies the eviction policy to its own entries, so for large
+ * capacities the eviction order is an approximation of the global order, as in most production caches. Small caches
+ * have a single segment, and an exact eviction order.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BoundedCache {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int MAX_SEGMENTS = 16;
+
+    //
+    // the cache is not split into segments smaller than this
+    //
+    public static final int MIN_SEGMENT_CAPACITY = 1024;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private int capacity;
+
+    private EvictionPolicy evictionPolicy;
+
+    private Segment[] segments;
+
+    private LongAdder evictions;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public BoundedCache(int capacity, EvictionPolicy evictionPolicy) {
+
+        if (capacity < 1) {
+
+            throw new IllegalArgumentException("invalid capacity " + capacity);
+        }
+
+        if (evictionPolicy == null) {
+
+            throw new IllegalArgumentException("null eviction policy");
+        }
+
+        this.capacity = capacity;
+        this.evictionPolicy = evictionPolicy;
+        this.evictions = new LongAdder();
+
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY));
+
+        this.segments = new Segment[segmentCount];
+
+        for(int i = 0; i < segmentCount; i ++) {
+
+            //
+            // the remainder is spread over the first segments, so the segment capacities add up to the capacity
+            //
+
+            int segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+
+            segments[i] = EvictionPolicy.LFU.equals(evictionPolicy) ?
+                    new LfuSegment(segmentCapacity, evictions) : new LruSegment(segmentCapacity, evictions);
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return null on cache miss.
+     */
+    public String get(String key) {
+
+        return segmentFor(key).get(key);
+    }
+
+    public void put(String key, String value) {
+
+        segmentFor(key).put(key, value);
+    }
+
+    public void remove(String key) {
+
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * @return a snapshot of the keys.
+     */
+    public Set<String> keys() {
+
+        Set<String> keys = new HashSet<>();
+
+        for(Segment s: segments) {
+
+            s.addKeysTo(keys);
+        }
+
+        return keys;
+    }
+
+    public int size() {
+
+        int size = 0;
+
+        for(Segment s: segments) {
+
+            size += s.size();
+        }
+
+        return size;
+    }
+
+    public void clear() {
+
+        for(Segment s: segments) {
+
+            s.clear();
+        }
+    }
+
+    /**
+     * @return the number of entries evicted so far.
+     */
+    public long getEvictionCount() {
+
+        return evictions.sum();
+    }
+
+    public int getCapacity() {
+
+        return capacity;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+
+        return evictionPolicy;
+    }
+
+    public int getSegmentCount() {
+
+        return segments.length;
+    }
+
+    @Override
+    public String toString() {
+
+        return "BoundedCache[" + evictionPolicy.getLabel() + ", " + capacity + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private Segment segmentFor(String key) {
+
+        if (segments.length == 1) {
+
+            return segments[0];
+        }
+
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+
+        return segments[Math.floorMod(h, segments.length)];
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    private interface Segment {
+
+        String get(String key);
+
+        void put(String key, String value);
+
+        void remove(String key);
+
+        void addKeysTo(Set<String> keys);
+
+        int size();
+
+        void clear();
+    }
+
+    /**
+     * A LinkedHashMap in access order, which evicts its eldest entry, the least recently accessed, when full.
+     */
+    private static class LruSegment implements Segment {
+
+        private final Map<String, String> entries;
+
+        LruSegment(int capacity, LongAdder evictions) {
+
+            this.entries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+
+                    if (size() <= capacity) {
+
+                        return false;
+                    }
+
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        public synchronized String get(String key) {
+
+            return entries.get(key);
+        }
+
+        @Override
+        public synchronized void put(String key, String value) {
+
+            entries.put(key, value);
+        }
+
+        @Override
+        public synchronized void remove(String key) {
+
+            entries.remove(key);
+        }
+
+        @Override
+        public synchronized void addKeysTo(Set<String> keys) {
+
+            keys.addAll(entries.keySet());
+        }
+
+        @Override
+        public synchronized int size() {
+
+            return entries.size();
+        }
+
+        @Override
+        public synchronized void clear() {
+
+            entries.clear();
+        }
+    }
+
+    /**
+     * Constant time LFU: the entries are grouped by access frequency, each group in access order, and the lowest
+     * frequency is tracked as the entries are accessed.
+     */
+    private static class LfuSegment implements Segment {
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        private final Map<String, LfuEntry> entries;
+
+        // the keys of each access frequency, least recently accessed first
+        private final Map<Long, LinkedHashSet<String>> frequencies;
+
+        // the lowest access frequency, may be stale after a removal, in which case it is recomputed on eviction
+        private long minFrequency;
+
+        LfuSegment(int capacity, LongAdder evictions) {
+
+            this.capacity = capacity;
+            this.evictions = evictions;
+            this.entries = new HashMap<>();
+            this.frequencies = new HashMap<>();
+        }
+
+        @Override
+        public synchronized String get(String key) {
+
+            LfuEntry e = entries.get(key);
+
+            if (e == null) {
+
+                return null;
+            }
+
+            touch(key, e);
+            return e.value;
+        }
+
+        @Override
+        public synchronized void put(String key, String value) {
+
+            LfuEntry e = entries.get(key);
+
+            if (e != null) {
+
+                e.value = value;
+                touch(key, e);
+                return;
+            }
+
+            if (entries.size() >= capacity) {
+
+                evict();
+            }
+
+            entries.put(key, new LfuEntry(value));
+            frequencies.computeIfAbsent(1L, f -> new LinkedHashSet<>()).add(key);
+            minFrequency = 1L;
+        }
+
+        @Override
+        public synchronized void remove(String key) {
+
+            LfuEntry e = entries.remove(key);
+
+            if (e != null) {
+
+                removeFromFrequency(key, e.frequency);
+            }
+        }
+
+        @Override
+        public synchronized void addKeysTo(Set<String> keys) {
+
+            keys.addAll(entries.keySet());
+        }
+
+        @Override
+        public synchronized int size() {
+
+            return entries.size();
+        }
+
+        @Override
+        public synchronized void clear() {
+
+            entries.clear();
+            frequencies.clear();
+            minFrequency = 0L;
+        }
+
+        private void touch(String key, LfuEntry e) {
+
+            removeFromFrequency(key, e.frequency);
+
+            if (minFrequency == e.frequency && !frequencies.containsKey(e.frequency)) {
+
+                minFrequency ++;
+            }
+
+            e.frequency ++;
+            frequencies.computeIfAbsent(e.frequency, f -> new LinkedHashSet<>()).add(key);
+        }
+
+        private void evict() {
+
+            LinkedHashSet<String> keys = frequencies.get(minFrequency);
+
+            if (keys == null) {
+
+                minFrequency = Long.MAX_VALUE;
+
+                for(Long f: frequencies.keySet()) {
+
+                    minFrequency = Math.min(minFrequency, f);
+                }
+
+                keys = frequencies.get(minFrequency);
+            }
+
+            String victim = keys.iterator().next();
+
+            removeFromFrequency(victim, minFrequency);
+            entries.remove(victim);
+            evictions.increment();
+        }
+
+        private void removeFromFrequency(String key, long frequency) {
+
+            LinkedHashSet<String> keys = frequencies.get(frequency);
+            keys.remove(key);
+
+            if (keys.isEmpty()) {
+
+                frequencies.remove(frequency);
+            }
+        }
+    }
+
+    private static class LfuEntry {
+
+        private String value;
+        private long frequency;
+
+        LfuEntry(String value) {
+
+            this.value = value;
+            this.frequency = 1L;
+        }
+    }
+
+}
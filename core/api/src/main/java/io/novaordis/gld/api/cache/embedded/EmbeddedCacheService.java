@@ -16,33 +16,105 @@
 
 package io.novaordis.gld.api.cache.embedded;
 
+import io.novaordis.gld.api.configuration.LoadStage;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.service.ServiceType;
+import io.novaordis.gld.api.cache.BulkCacheService;
 import io.novaordis.gld.api.cache.CacheServiceBase;
 import io.novaordis.utilities.UserErrorException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A very simple cache service collocated with the load driver.
+ * A cache service collocated with the load driver, which can stand in for a real cache with known behavior, so the
+ * load driver's measurements can be checked against it. By default, the cache is unbounded and it responds
+ * immediately. All behaviors are optional:
+ *
+ * implementation:
+ *   name: embedded
+ *   capacity: 100000                    # maximum number of entries, unbounded by default
+ *   eviction: lru                       # lru (default) | lfu
+ *   latency: 500us                      # mean latency injected into each operation, "us", "ms", "s" ...
+ *   latency-distribution: exponential   # constant (default) | uniform | exponential | lognormal
+ *   latency-sigma: 0.5                  # lognormal only, default 0.5
+ *   stall-interval: 30s                 # all operations stall for "stall-duration" at the end of each interval
+ *   stall-duration: 500ms
+ *   failure-rate: 0.01                  # the fraction of operations that fail
+ *   failure-type: java.io.IOException   # the exception the failed operations throw, the default
+ *
+ * The latency is injected before the operation is applied, and the failed operations do not modify the cache. A bulk
+ * operation (getAll(), putAll()) is subject to latency, stalls and failures once per call, not once per key.
  *
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 12/2/16
  */
-public class EmbeddedCacheService extends CacheServiceBase {
+public class EmbeddedCacheService extends CacheServiceBase implements BulkCacheService {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
     private static final Logger log = LoggerFactory.getLogger(EmbeddedCacheService.class);
 
+    public static final String CAPACITY_LABEL = "capacity";
+    public static final String EVICTION_LABEL = "eviction";
+    public static final String LATENCY_LABEL = "latency";
+    public static final String LATENCY_DISTRIBUTION_LABEL = "latency-distribution";
+    public static final String LATENCY_SIGMA_LABEL = "latency-sigma";
+    public static final String STALL_INTERVAL_LABEL = "stall-interval";
+    public static final String STALL_DURATION_LABEL = "stall-duration";
+    public static final String FAILURE_RATE_LABEL = "failure-rate";
+    public static final String FAILURE_TYPE_LABEL = "failure-type";
+
+    public static final double DEFAULT_LATENCY_SIGMA = 0.5d;
+
+    public static final String INJECTED_FAILURE_MESSAGE = "injected failure";
+
     // Static ----------------------------------------------------------------------------------------------------------
 
+    /**
+     * @param elapsedNanos the time elapsed since the service started.
+     *
+     * @return the time left until the end of the stall in progress, or 0 if there is no stall in progress. The stall
+     * occupies the last "duration" nanoseconds of each interval.
+     */
+    static long stallRemainingNanos(long elapsedNanos, long intervalNanos, long durationNanos) {
+
+        long phase = elapsedNanos % intervalNanos;
+
+        return phase < intervalNanos - durationNanos ? 0L : intervalNanos - phase;
+    }
+
     // Attributes ------------------------------------------------------------------------------------------------------
 
+    //
+    // exactly one of the two is non-null, depending on whether the cache is bounded
+    //
     private ConcurrentHashMap<String, String> cache;
+    private BoundedCache boundedCache;
+
+    private long latencyNanos;
+    private LatencyDistribution latencyDistribution;
+    private double latencySigma;
+
+    private long stallIntervalNanos;
+    private long stallDurationNanos;
+
+    private double failureRate;
+    private Constructor<? extends Exception> failureConstructor;
+
+    // the origin of the stall intervals
+    private volatile long startNanos;
+
+    private LongAdder injectedFailures;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
@@ -52,6 +124,9 @@ public class EmbeddedCacheService extends CacheServiceBase {
     @SuppressWarnings("unused")
     public EmbeddedCacheService() {
         this.cache = new ConcurrentHashMap<>();
+        this.latencyDistribution = LatencyDistribution.CONSTANT;
+        this.latencySigma = DEFAULT_LATENCY_SIGMA;
+        this.injectedFailures = new LongAdder();
     }
 
     // Service implementation ------------------------------------------------------------------------------------------
@@ -59,13 +134,114 @@ public class EmbeddedCacheService extends CacheServiceBase {
     @Override
     public void configure(ServiceConfiguration serviceConfiguration) throws UserErrorException {
 
-        log.info(this + " was mock configured");
+        Object capacity = getImplementationOption(serviceConfiguration, CAPACITY_LABEL);
+        Object eviction = getImplementationOption(serviceConfiguration, EVICTION_LABEL);
+
+        if (capacity == null) {
+
+            if (eviction != null) {
+
+                throw new UserErrorException("'" + EVICTION_LABEL + "' requires '" + CAPACITY_LABEL + "'");
+            }
+        }
+        else {
+
+            if (!(capacity instanceof Integer) || (Integer)capacity < 1) {
+
+                throw new UserErrorException(
+                        "invalid '" + CAPACITY_LABEL + "' value: " + capacity + ", must be a positive integer");
+            }
+
+            EvictionPolicy policy = eviction == null ? EvictionPolicy.LRU : EvictionPolicy.fromString("" + eviction);
+
+            boundedCache = new BoundedCache((Integer)capacity, policy);
+            cache = null;
+        }
+
+        latencyNanos = toNanos(LATENCY_LABEL, getImplementationOption(serviceConfiguration, LATENCY_LABEL));
+
+        Object distribution = getImplementationOption(serviceConfiguration, LATENCY_DISTRIBUTION_LABEL);
+        Object sigma = getImplementationOption(serviceConfiguration, LATENCY_SIGMA_LABEL);
+
+        if ((distribution != null || sigma != null) && latencyNanos == 0L) {
+
+            throw new UserErrorException(
+                    "'" + (distribution != null ? LATENCY_DISTRIBUTION_LABEL : LATENCY_SIGMA_LABEL) +
+                            "' requires '" + LATENCY_LABEL + "'");
+        }
+
+        if (distribution != null) {
+
+            latencyDistribution = LatencyDistribution.fromString("" + distribution);
+        }
+
+        if (sigma != null) {
+
+            if (!LatencyDistribution.LOGNORMAL.equals(latencyDistribution)) {
+
+                throw new UserErrorException("'" + LATENCY_SIGMA_LABEL + "' only applies to the '" +
+                        LatencyDistribution.LOGNORMAL.getLabel() + "' latency distribution");
+            }
+
+            if (!(sigma instanceof Number) || ((Number)sigma).doubleValue() <= 0d) {
+
+                throw new UserErrorException(
+                        "invalid '" + LATENCY_SIGMA_LABEL + "' value: " + sigma + ", must be a positive number");
+            }
+
+            latencySigma = ((Number)sigma).doubleValue();
+        }
+
+        stallIntervalNanos = toNanos(
+                STALL_INTERVAL_LABEL, getImplementationOption(serviceConfiguration, STALL_INTERVAL_LABEL));
+        stallDurationNanos = toNanos(
+                STALL_DURATION_LABEL, getImplementationOption(serviceConfiguration, STALL_DURATION_LABEL));
+
+        if ((stallIntervalNanos == 0L) != (stallDurationNanos == 0L)) {
+
+            throw new UserErrorException(
+                    "'" + STALL_INTERVAL_LABEL + "' and '" + STALL_DURATION_LABEL + "' must be specified together");
+        }
+
+        if (stallDurationNanos >= stallIntervalNanos && stallIntervalNanos > 0L) {
+
+            throw new UserErrorException(
+                    "'" + STALL_DURATION_LABEL + "' must be shorter than '" + STALL_INTERVAL_LABEL + "'");
+        }
+
+        Object rate = getImplementationOption(serviceConfiguration, FAILURE_RATE_LABEL);
+        Object type = getImplementationOption(serviceConfiguration, FAILURE_TYPE_LABEL);
+
+        if (rate != null) {
+
+            if (!(rate instanceof Number) ||
+                    ((Number)rate).doubleValue() < 0d || ((Number)rate).doubleValue() > 1d) {
+
+                throw new UserErrorException(
+                        "invalid '" + FAILURE_RATE_LABEL + "' value: " + rate + ", must be between 0 and 1");
+            }
+
+            failureRate = ((Number)rate).doubleValue();
+        }
+        else if (type != null) {
+
+            throw new UserErrorException("'" + FAILURE_TYPE_LABEL + "' requires '" + FAILURE_RATE_LABEL + "'");
+        }
+
+        if (failureRate > 0d) {
+
+            failureConstructor = toFailureConstructor(type == null ? IOException.class.getName() : "" + type);
+        }
+
+        log.info(this + " configured");
     }
 
     @Override
     public void start() throws Exception {
 
         super.start();
+
+        startNanos = System.nanoTime();
     }
 
     @Override
@@ -78,7 +254,15 @@ public class EmbeddedCacheService extends CacheServiceBase {
 
         super.stop();
 
-        cache.clear();
+        if (boundedCache != null) {
+
+            log.info(this + " evicted " + boundedCache.getEvictionCount() + " entries");
+            boundedCache.clear();
+        }
+        else {
+
+            cache.clear();
+        }
     }
 
     @Override
@@ -92,29 +276,146 @@ public class EmbeddedCacheService extends CacheServiceBase {
     @Override
     public String get(String key) throws Exception {
 
-        return cache.get(key);
+        injectBehavior();
+
+        return boundedCache != null ? boundedCache.get(key) : cache.get(key);
     }
 
     @Override
     public void put(String key, String value) throws Exception {
 
-        cache.put(key, value);
+        injectBehavior();
+
+        if (boundedCache != null) {
+
+            boundedCache.put(key, value);
+        }
+        else {
+
+            cache.put(key, value);
+        }
     }
 
     @Override
     public void remove(String key) throws Exception {
 
-        cache.remove(key);
+        injectBehavior();
+
+        if (boundedCache != null) {
+
+            boundedCache.remove(key);
+        }
+        else {
+
+            cache.remove(key);
+        }
     }
 
     @Override
     public Set<String> keys() throws Exception {
 
-        return cache.keySet();
+        return boundedCache != null ? boundedCache.keys() : cache.keySet();
+    }
+
+    // BulkCacheService implementation ---------------------------------------------------------------------------------
+
+    @Override
+    public Map<String, String> getAll(Set<String> keys) throws Exception {
+
+        injectBehavior();
+
+        Map<String, String> result = new HashMap<>();
+
+        for(String key: keys) {
+
+            String value = boundedCache != null ? boundedCache.get(key) : cache.get(key);
+
+            if (value != null) {
+
+                result.put(key, value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) throws Exception {
+
+        injectBehavior();
+
+        if (boundedCache != null) {
+
+            for(Map.Entry<String, String> e: entries.entrySet()) {
+
+                boundedCache.put(e.getKey(), e.getValue());
+            }
+        }
+        else {
+
+            cache.putAll(entries);
+        }
     }
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return the bounded cache, or null if the cache is unbounded.
+     */
+    public BoundedCache getBoundedCache() {
+
+        return boundedCache;
+    }
+
+    /**
+     * @return the mean injected latency, 0 if no latency is injected.
+     */
+    public long getLatencyNanos() {
+
+        return latencyNanos;
+    }
+
+    public LatencyDistribution getLatencyDistribution() {
+
+        return latencyDistribution;
+    }
+
+    public double getLatencySigma() {
+
+        return latencySigma;
+    }
+
+    public long getStallIntervalNanos() {
+
+        return stallIntervalNanos;
+    }
+
+    public long getStallDurationNanos() {
+
+        return stallDurationNanos;
+    }
+
+    public double getFailureRate() {
+
+        return failureRate;
+    }
+
+    /**
+     * @return the type of the exception thrown by the failed operations, or null if no failures are injected.
+     */
+    public Class<? extends Exception> getFailureType() {
+
+        return failureConstructor == null ? null : failureConstructor.getDeclaringClass();
+    }
+
+    /**
+     * @return the number of failures injected so far.
+     */
+    public long getInjectedFailureCount() {
+
+        return injectedFailures.sum();
+    }
+
     @Override
     public String toString() {
 
@@ -127,6 +428,143 @@ public class EmbeddedCacheService extends CacheServiceBase {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    /**
+     * Waits for the stall in progress, if any, then for the injected latency, then fails the operation, if it was
+     * selected to fail.
+     */
+    private void injectBehavior() throws Exception {
+
+        if (stallIntervalNanos > 0L) {
+
+            pause(stallRemainingNanos(System.nanoTime() - startNanos, stallIntervalNanos, stallDurationNanos));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (latencyNanos > 0L) {
+
+            pause(latencyDistribution.sample(latencyNanos, latencySigma, random));
+        }
+
+        if (failureRate > 0d && random.nextDouble() < failureRate) {
+
+            injectedFailures.increment();
+            throw failureConstructor.newInstance(INJECTED_FAILURE_MESSAGE);
+        }
+    }
+
+    private static void pause(long nanos) {
+
+        if (nanos <= 0L) {
+
+            return;
+        }
+
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+
+        while(remaining > 0L) {
+
+            LockSupport.parkNanos(remaining);
+
+            if (Thread.currentThread().isInterrupted()) {
+
+                return;
+            }
+
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    private static Object getImplementationOption(ServiceConfiguration sc, String label) throws UserErrorException {
+
+        try {
+
+            return sc.get(Object.class, ServiceConfiguration.IMPLEMENTATION_CONFIGURATION_LABEL, label);
+        }
+        catch(IllegalStateException e) {
+
+            throw new UserErrorException(e);
+        }
+    }
+
+    /**
+     * @param o a duration as accepted by LoadStage.parseDuration(), or a number of microseconds followed by "us".
+     *
+     * @return 0 if o is null.
+     */
+    private static long toNanos(String label, Object o) throws UserErrorException {
+
+        if (o == null) {
+
+            return 0L;
+        }
+
+        if (o instanceof String && ((String)o).trim().endsWith("us")) {
+
+            String s = ((String)o).trim();
+
+            try {
+
+                long micros = Long.parseLong(s.substring(0, s.length() - 2).trim());
+
+                if (micros > 0) {
+
+                    return micros * 1000L;
+                }
+            }
+            catch(NumberFormatException e) {
+
+                // fall through
+            }
+
+            throw new UserErrorException("invalid '" + label + "': invalid duration: " + o);
+        }
+
+        try {
+
+            return LoadStage.parseDuration(o) * 1000000L;
+        }
+        catch(UserErrorException e) {
+
+            throw new UserErrorException("invalid '" + label + "': " + e.getMessage());
+        }
+    }
+
+    private static Constructor<? extends Exception> toFailureConstructor(String className) throws UserErrorException {
+
+        Class<?> c;
+
+        try {
+
+            c = Class.forName(className);
+        }
+        catch(ClassNotFoundException e) {
+
+            throw new UserErrorException("invalid '" + FAILURE_TYPE_LABEL + "': class " + className + " not found");
+        }
+
+        if (!Exception.class.isAssignableFrom(c)) {
+
+            throw new UserErrorException(
+                    "invalid '" + FAILURE_TYPE_LABEL + "': " + className + " is not an exception");
+        }
+
+        try {
+
+            @SuppressWarnings("unchecked")
+            Constructor<? extends Exception> constructor =
+                    ((Class<? extends Exception>)c).getConstructor(String.class);
+
+            return constructor;
+        }
+        catch(NoSuchMethodException e) {
+
+            throw new UserErrorException(
+                    "invalid '" + FAILURE_TYPE_LABEL + "': " + className + " has no public String constructor");
+        }
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
 }
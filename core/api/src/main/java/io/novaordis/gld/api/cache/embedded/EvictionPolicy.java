@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.embedded;
+
+import io.novaordis.utilities.UserErrorException;
+
+/**
+ * The policies a bounded embedded cache evicts entries with, once it is full.
+ *
+ * @see BoundedCache
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public enum EvictionPolicy {
+
+    //
+    // the least recently accessed entry is evicted
+    //
+    LRU("lru"),
+
+    //
+    // the least frequently accessed entry is evicted, the least recently accessed among equally frequent entries
+    //
+    LFU("lfu"),
+
+    ;
+
+    public static EvictionPolicy fromString(String s) throws UserErrorException {
+
+        EvictionPolicy[] values = EvictionPolicy.values();
+        String msg = "";
+
+        for(int i = 0; i < values.length; i ++) {
+
+            EvictionPolicy p = values[i];
+
+            if (p.getLabel().equals(s)) {
+
+                return p;
+            }
+
+            msg += "'" + p.getLabel() + "'";
+
+            if (i < values.length - 1) {
+
+                msg += ", ";
+            }
+        }
+
+        msg = "invalid eviction policy '" + s + "', valid options: " + msg;
+        throw new UserErrorException(msg);
+    }
+
+    private String label;
+
+    EvictionPolicy(String label) {
+
+        this.label = label;
+    }
+
+    public String getLabel() {
+
+        return label;
+    }
+}
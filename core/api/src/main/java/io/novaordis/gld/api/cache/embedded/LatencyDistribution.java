@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.embedded;
+
+import io.novaordis.utilities.UserErrorException;
+
+import java.util.Random;
+
+/**
+ * The distributions the latency injected by the embedded cache is drawn from. All distributions are parameterized by
+ * their mean, so the expected response time of an operation is known regardless of the distribution.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public enum LatencyDistribution {
+
+    //
+    // every operation takes the mean latency
+    //
+    CONSTANT("constant") {
+
+        @Override
+        public long sample(long meanNanos, double sigma, Random random) {
+
+            return meanNanos;
+        }
+    },
+
+    //
+    // uniformly distributed between 0 and twice the mean
+    //
+    UNIFORM("uniform") {
+
+        @Override
+        public long sample(long meanNanos, double sigma, Random random) {
+
+            return (long)(random.nextDouble() * 2d * meanNanos);
+        }
+    },
+
+    //
+    // exponentially distributed, the latency of a server whose requests arrive and complete at random
+    //
+    EXPONENTIAL("exponential") {
+
+        @Override
+        public long sample(long meanNanos, double sigma, Random random) {
+
+            return (long)(-meanNanos * Math.log(1d - random.nextDouble()));
+        }
+    },
+
+    //
+    // log-normally distributed, with a long tail whose weight is controlled by sigma
+    //
+    LOGNORMAL("lognormal") {
+
+        @Override
+        public long sample(long meanNanos, double sigma, Random random) {
+
+            return (long)(meanNanos * Math.exp(sigma * random.nextGaussian() - sigma * sigma / 2d));
+        }
+    },
+
+    ;
+
+    public static LatencyDistribution fromString(String s) throws UserErrorException {
+
+        LatencyDistribution[] values = LatencyDistribution.values();
+        String msg = "";
+
+        for(int i = 0; i < values.length; i ++) {
+
+            LatencyDistribution d = values[i];
+
+            if (d.getLabel().equals(s)) {
+
+                return d;
+            }
+
+            msg += "'" + d.getLabel() + "'";
+
+            if (i < values.length - 1) {
+
+                msg += ", ";
+            }
+        }
+
+        msg = "invalid latency distribution '" + s + "', valid options: " + msg;
+        throw new UserErrorException(msg);
+    }
+
+    private String label;
+
+    LatencyDistribution(String label) {
+
+        this.label = label;
+    }
+
+    public String getLabel() {
+
+        return label;
+    }
+
+    /**
+     * @param sigma the standard deviation of the underlying normal distribution, only used by LOGNORMAL.
+     *
+     * @return a latency, in nanoseconds.
+     */
+    public abstract long sample(long meanNanos, double sigma, Random random);
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.load;
+
+import io.novaordis.gld.api.KeyProvider;
+import io.novaordis.gld.api.LoadStrategyBase;
+import io.novaordis.gld.api.LoadStrategyContext;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.CacheServiceConfiguration;
+import io.novaordis.gld.api.cache.operation.BulkRead;
+import io.novaordis.gld.api.cache.operation.BulkWrite;
+import io.novaordis.gld.api.configuration.LoadConfiguration;
+import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.gld.api.provider.KeySpaceKeyProvider;
+import io.novaordis.gld.api.service.ServiceType;
+import io.novaordis.utilities.UserErrorException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A load strategy that accesses the cache in batches: each operation is either a bulk read (getAll()) or a bulk write
+ * (putAll()) of several keys. The target service must be a BulkCacheService.
+ *
+ * The batch size is either constant ("batch-size: 10") or uniformly distributed over a closed interval
+ * ("batch-size: 5-50"). The keys of a batch are drawn from the configured key provider, so the usual key distributions
+ * apply; a batch may contain fewer keys than drawn if the distribution repeats a key within the batch. Bulk writes
+ * obtain their keys with KeySpaceKeyProvider.nextToWrite(), so they advance the insertion point of a "latest" key
+ * distribution. When the key provider runs out of keys, the last batch is smaller than the configured size.
+ *
+ * The proportion of bulk reads and bulk writes is specified with "read-to-write" or "write-to-read", as for
+ * write-then-read, but the operations are mixed randomly instead of being generated in series. The strategy keeps no
+ * state between invocations, so it is thread-safe.
+ *
+ * @see io.novaordis.gld.api.cache.BulkCacheService
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BulkLoadStrategy extends LoadStrategyBase {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Set<Class<? extends Operation>> OPERATION_TYPES;
+
+    static {
+
+        Set<Class<? extends Operation>> s = new HashSet<>();
+        s.add(BulkRead.class);
+        s.add(BulkWrite.class);
+        OPERATION_TYPES = Collections.unmodifiableSet(s);
+    }
+
+    public static final String NAME = "bulk";
+
+    public static final String BATCH_SIZE_LABEL = "batch-size";
+
+    public static final int DEFAULT_BATCH_SIZE = 10;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Accepts an integer (constant) or a "<min>-<max>" string (uniformly distributed over the closed interval).
+     *
+     * @return a two-element array containing the minimum and the maximum.
+     */
+    static int[] parseInterval(String label, Object o) throws UserErrorException {
+
+        int min;
+        int max;
+
+        if (o instanceof Integer) {
+
+            min = (Integer)o;
+            max = min;
+        }
+        else if (o instanceof String) {
+
+            String s = ((String)o).trim();
+            int i = s.indexOf('-');
+
+            try {
+
+                if (i == -1) {
+
+                    min = Integer.parseInt(s);
+                    max = min;
+                }
+                else {
+
+                    min = Integer.parseInt(s.substring(0, i).trim());
+                    max = Integer.parseInt(s.substring(i + 1).trim());
+                }
+            }
+            catch(NumberFormatException e) {
+
+                throw new UserErrorException("invalid '" + label + "' value \"" + s + "\"");
+            }
+        }
+        else {
+
+            throw new UserErrorException("illegal '" + label + "' " + o.getClass().getSimpleName() + " value");
+        }
+
+        if (min < 1) {
+
+            throw new UserErrorException("'" + label + "' must be positive, but it is " + min);
+        }
+
+        if (max < min) {
+
+            throw new UserErrorException(
+                    "invalid '" + label + "' interval " + min + "-" + max + ": maximum below minimum");
+        }
+
+        return new int[] { min, max };
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private int minBatchSize;
+    private int maxBatchSize;
+
+    // the probability that the next operation is a bulk read
+    private double readProbability;
+
+    private ReadWriteRatio readWriteRatio;
+
+    private volatile boolean initialized;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public BulkLoadStrategy() {
+
+        super();
+
+        this.minBatchSize = DEFAULT_BATCH_SIZE;
+        this.maxBatchSize = DEFAULT_BATCH_SIZE;
+
+        //
+        // set the default value size, it will be overridden when init() is called
+        //
+        setValueSize(ServiceType.cache.getDefaultValueSize());
+    }
+
+    // LoadStrategy implementation -------------------------------------------------------------------------------------
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public ServiceType getServiceType() {
+
+        return ServiceType.cache;
+    }
+
+    @Override
+    public Set<Class<? extends Operation>> getOperationTypes() {
+
+        return OPERATION_TYPES;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public int getMinBatchSize() {
+
+        return minBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+
+        return maxBatchSize;
+    }
+
+    public double getReadProbability() {
+
+        return readProbability;
+    }
+
+    @Override
+    public String toString() {
+
+        String batchSize = minBatchSize == maxBatchSize ? "" + minBatchSize : minBatchSize + "-" + maxBatchSize;
+        return getName() + " (" + batchSize + " keys, " + readWriteRatio + ")";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected void init(ServiceConfiguration sc, Map<String, Object> loadStrategyRawConfig, LoadConfiguration lc)
+            throws Exception {
+
+        if (!(sc instanceof CacheServiceConfiguration)) {
+
+            throw new IllegalArgumentException(sc + " not a CacheServiceConfiguration");
+        }
+
+        Object o = loadStrategyRawConfig.remove(BATCH_SIZE_LABEL);
+
+        if (o != null) {
+
+            int[] interval = parseInterval(BATCH_SIZE_LABEL, o);
+            minBatchSize = interval[0];
+            maxBatchSize = interval[1];
+        }
+
+        Integer rtw = removeInteger(loadStrategyRawConfig, WriteThenReadLoadStrategy.READ_TO_WRITE_LABEL);
+        Integer wtr = removeInteger(loadStrategyRawConfig, WriteThenReadLoadStrategy.WRITE_TO_READ_LABEL);
+
+        readWriteRatio = new ReadWriteRatio(rtw, wtr);
+
+        //
+        // convert the read/write series into a read probability: "a write followed by n reads" means n reads out of
+        // n + 1 operations
+        //
+
+        int n = readWriteRatio.getFollowUpSeriesSize();
+        readProbability = readWriteRatio.isWrite() ? ((double)n) / (n + 1) : 1d / (n + 1);
+
+        //
+        // create and configure the key provider
+        //
+
+        KeyProvider keyProvider = KeyProviderFactory.build(loadStrategyRawConfig, lc);
+
+        //
+        // install the provider ...
+        //
+        setKeyProvider(keyProvider);
+
+        //
+        // ... and start it
+        //
+
+        keyProvider.start();
+        initialized = true;
+    }
+
+    @Override
+    protected Operation nextInternal(
+            LoadStrategyContext context, Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+            throws Exception {
+
+        if (!initialized) {
+
+            throw new IllegalStateException(this + " was not initialized");
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int batchSize = minBatchSize == maxBatchSize ? minBatchSize : random.nextInt(minBatchSize, maxBatchSize + 1);
+
+        boolean read = readProbability == 1d || (readProbability != 0d && random.nextDouble() < readProbability);
+
+        KeyProvider keyProvider = getKeyProvider();
+
+        List<String> keys = new ArrayList<>(batchSize);
+
+        for(int i = 0; i < batchSize; i ++) {
+
+            //
+            // some distributions select write keys differently
+            //
+
+            String key = read || !(keyProvider instanceof KeySpaceKeyProvider) ?
+                    keyProvider.next() : ((KeySpaceKeyProvider)keyProvider).nextToWrite();
+
+            if (key == null) {
+
+                //
+                // the key provider ran out of keys
+                //
+                break;
+            }
+
+            keys.add(key);
+        }
+
+        if (keys.isEmpty()) {
+
+            return null;
+        }
+
+        if (read) {
+
+            return new BulkRead(keys);
+        }
+
+        Map<String, String> entries = new LinkedHashMap<>();
+
+        for(String key: keys) {
+
+            entries.put(key, computeValue());
+        }
+
+        return new BulkWrite(entries);
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static Integer removeInteger(Map<String, Object> m, String label) throws UserErrorException {
+
+        Object o = m.remove(label);
+
+        if (o == null) {
+
+            return null;
+        }
+
+        if (!(o instanceof Integer)) {
+
+            throw new UserErrorException("illegal '" + label + "' " + o.getClass().getSimpleName() + " value");
+        }
+
+        return (Integer)o;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
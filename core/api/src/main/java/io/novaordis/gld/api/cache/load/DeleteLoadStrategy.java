@@ -18,6 +18,7 @@ package io.novaordis.gld.api.cache.load;
 
 import io.novaordis.gld.api.KeyProvider;
 import io.novaordis.gld.api.LoadStrategyBase;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.gld.api.cache.CacheServiceConfiguration;
@@ -26,6 +27,7 @@ import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.provider.SetKeyProvider;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -38,6 +40,9 @@ public class DeleteLoadStrategy extends LoadStrategyBase {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
+    private static final Set<Class<? extends Operation>> OPERATION_TYPES =
+            Collections.<Class<? extends Operation>>singleton(Delete.class);
+
     /**
      * Just one key to limit the damage in case this load strategy is used improperly.
      */
@@ -87,7 +92,7 @@ public class DeleteLoadStrategy extends LoadStrategyBase {
     @Override
     public Set<Class<? extends Operation>> getOperationTypes() {
 
-        throw new RuntimeException("getOperationTypes() NOT YET IMPLEMENTED");
+        return OPERATION_TYPES;
     }
 
     // Public ----------------------------------------------------------------------------------------------------------
@@ -157,7 +162,8 @@ public class DeleteLoadStrategy extends LoadStrategyBase {
     }
 
     @Override
-    protected Operation nextInternal(Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+    protected Operation nextInternal(
+            LoadStrategyContext context, Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
             throws Exception {
 
         if (!initialized) {
@@ -0,0 +1,662 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.load;
+
+import io.novaordis.gld.api.KeyProvider;
+import io.novaordis.gld.api.LoadStrategyBase;
+import io.novaordis.gld.api.LoadStrategyContext;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.CacheServiceConfiguration;
+import io.novaordis.gld.api.cache.operation.BulkRead;
+import io.novaordis.gld.api.cache.operation.BulkWrite;
+import io.novaordis.gld.api.cache.operation.ConditionalWrite;
+import io.novaordis.gld.api.cache.operation.Delete;
+import io.novaordis.gld.api.cache.operation.Read;
+import io.novaordis.gld.api.cache.operation.Write;
+import io.novaordis.gld.api.configuration.LoadConfiguration;
+import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.gld.api.provider.KeySpaceKeyProvider;
+import io.novaordis.gld.api.service.ServiceType;
+import io.novaordis.utilities.UserErrorException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A load strategy that generates a random mix of cache operations, in configurable proportions:
+ *
+ * load-strategy:
+ *   name: mix
+ *   workload: b                  # optional, YCSB-equivalent preset a - f, see WorkloadPreset
+ *   key-distribution: zipfian    # the default key selection, see KeyProviderFactory
+ *   key-space-size: 100000
+ *   read: 90                     # a weight, or a map
+ *   write:
+ *     weight: 8
+ *     value-size: 100-2000       # constant or uniformly distributed, default "load.value-size"
+ *   delete: 1
+ *   bulk-read:
+ *     weight: 1
+ *     batch-size: 5-50           # as for the "bulk" load strategy
+ *     key-distribution: uniform  # a key selection specific to this operation type
+ *   bulk-write: 0
+ *   conditional: 0               # read-modify-write
+ *
+ * Each operation type is either configured with a number (its weight) or with a map that contains its weight and,
+ * optionally, its own value size, its own key distribution and, for bulk operations, its batch size. Operation types
+ * without a key distribution use the default key selection. The explicitly configured operation types and key
+ * selection options replace those of the workload preset. Without any weight and without a workload, the strategy
+ * generates 50% reads and 50% writes.
+ *
+ * Writes obtain their keys with KeySpaceKeyProvider.nextToWrite(), so reads and writes that share a "latest" key
+ * selection behave as YCSB inserts and reads. If any of the key providers runs out of keys, the strategy stops
+ * producing operations.
+ *
+ * The operation type is selected by comparing a ThreadLocalRandom draw with cumulative probabilities that do not
+ * change after initialization, so the selection is lock-free and does not serialize the runners.
+ *
+ * @see WorkloadPreset
+ * @see KeyProviderFactory
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class MixLoadStrategy extends LoadStrategyBase {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String NAME = "mix";
+
+    public static final String WORKLOAD_LABEL = "workload";
+    public static final String WEIGHT_LABEL = "weight";
+    public static final String VALUE_SIZE_LABEL = "value-size";
+
+    public static final String READ_LABEL = "read";
+    public static final String WRITE_LABEL = "write";
+    public static final String DELETE_LABEL = "delete";
+    public static final String BULK_READ_LABEL = "bulk-read";
+    public static final String BULK_WRITE_LABEL = "bulk-write";
+    public static final String CONDITIONAL_LABEL = "conditional";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private WorkloadPreset workload;
+
+    // the operation types with a positive weight, in the order of their cumulative probabilities
+    private OperationMix[] mix;
+
+    // the key providers specific to an operation type, the default key provider is handled by the superclass
+    private final List<KeyProvider> ownKeyProviders;
+
+    private Set<Class<? extends Operation>> operationTypes;
+
+    private volatile boolean initialized;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public MixLoadStrategy() {
+
+        super();
+
+        this.ownKeyProviders = new ArrayList<>();
+        this.operationTypes = Collections.emptySet();
+
+        //
+        // set the default value size, it will be overridden when init() is called
+        //
+        setValueSize(ServiceType.cache.getDefaultValueSize());
+    }
+
+    // LoadStrategy implementation -------------------------------------------------------------------------------------
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public ServiceType getServiceType() {
+
+        return ServiceType.cache;
+    }
+
+    /**
+     * @return the types of the operations with a positive weight. Empty before initialization.
+     */
+    @Override
+    public Set<Class<? extends Operation>> getOperationTypes() {
+
+        return operationTypes;
+    }
+
+    @Override
+    public void start() throws Exception {
+
+        super.start();
+
+        for(KeyProvider p: ownKeyProviders) {
+
+            p.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+
+        super.stop();
+
+        for(KeyProvider p: ownKeyProviders) {
+
+            p.stop();
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the workload preset, or null if none was configured.
+     */
+    public WorkloadPreset getWorkload() {
+
+        return workload;
+    }
+
+    /**
+     * @param operationLabel one of READ_LABEL, WRITE_LABEL, DELETE_LABEL, BULK_READ_LABEL, BULK_WRITE_LABEL or
+     *                       CONDITIONAL_LABEL.
+     *
+     * @return the probability that the next operation is of the given type.
+     */
+    public double getProbability(String operationLabel) {
+
+        if (mix == null) {
+
+            return 0d;
+        }
+
+        double previous = 0d;
+
+        for(OperationMix m: mix) {
+
+            if (m.label.equals(operationLabel)) {
+
+                return m.cumulativeProbability - previous;
+            }
+
+            previous = m.cumulativeProbability;
+        }
+
+        return 0d;
+    }
+
+    /**
+     * @return the key provider of the given operation type, or null if the operation type has a zero weight.
+     */
+    public KeyProvider getKeyProvider(String operationLabel) {
+
+        if (mix == null) {
+
+            return null;
+        }
+
+        for(OperationMix m: mix) {
+
+            if (m.label.equals(operationLabel)) {
+
+                return m.keyProvider == null ? getKeyProvider() : m.keyProvider;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString() {
+
+        String s = getName() + " (";
+
+        if (workload != null) {
+
+            s += "workload " + workload.getLabel() + ", ";
+        }
+
+        if (mix != null) {
+
+            for(int i = 0; i < mix.length; i ++) {
+
+                s += mix[i].label + " " + String.format("%.2f", getProbability(mix[i].label));
+
+                if (i < mix.length - 1) {
+
+                    s += ", ";
+                }
+            }
+        }
+
+        return s + ")";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected void init(ServiceConfiguration sc, Map<String, Object> loadStrategyRawConfig, LoadConfiguration lc)
+            throws Exception {
+
+        if (!(sc instanceof CacheServiceConfiguration)) {
+
+            throw new IllegalArgumentException(sc + " not a CacheServiceConfiguration");
+        }
+
+        Object o = loadStrategyRawConfig.remove(WORKLOAD_LABEL);
+
+        if (o != null) {
+
+            if (!(o instanceof String)) {
+
+                throw new UserErrorException("'" + WORKLOAD_LABEL + "' not a string");
+            }
+
+            workload = WorkloadPreset.fromString((String)o);
+
+            for(Map.Entry<String, Object> e: workload.getConfiguration().entrySet()) {
+
+                loadStrategyRawConfig.putIfAbsent(e.getKey(), e.getValue());
+            }
+        }
+
+        String[] labels = {
+                READ_LABEL, WRITE_LABEL, DELETE_LABEL, BULK_READ_LABEL, BULK_WRITE_LABEL, CONDITIONAL_LABEL };
+
+        List<OperationMix> configured = new ArrayList<>();
+        boolean weightsConfigured = false;
+        double totalWeight = 0d;
+
+        for(String label: labels) {
+
+            o = loadStrategyRawConfig.remove(label);
+            weightsConfigured |= o != null;
+
+            OperationMix m = parseOperation(label, o, lc);
+
+            if (m != null) {
+
+                configured.add(m);
+                totalWeight += m.weight;
+            }
+        }
+
+        if (configured.isEmpty()) {
+
+            if (weightsConfigured) {
+
+                throw new UserErrorException("no operation type with a positive weight");
+            }
+
+            configured.add(new OperationMix(READ_LABEL, 1d));
+            configured.add(new OperationMix(WRITE_LABEL, 1d));
+            totalWeight = 2d;
+        }
+
+        //
+        // convert the weights into cumulative probabilities
+        //
+
+        Set<Class<? extends Operation>> types = new HashSet<>();
+        double cumulativeWeight = 0d;
+
+        for(OperationMix m: configured) {
+
+            cumulativeWeight += m.weight;
+            m.cumulativeProbability = cumulativeWeight / totalWeight;
+            types.add(m.getOperationType());
+        }
+
+        //
+        // absorb the floating point error, so a draw from [0, 1) always selects an operation
+        //
+
+        configured.get(configured.size() - 1).cumulativeProbability = 1d;
+
+        //
+        // create and configure the default key provider
+        //
+
+        KeyProvider keyProvider = KeyProviderFactory.build(loadStrategyRawConfig, lc);
+
+        //
+        // install the provider ...
+        //
+        setKeyProvider(keyProvider);
+
+        //
+        // ... and start it, along with the operation type specific providers
+        //
+
+        keyProvider.start();
+
+        for(KeyProvider p: ownKeyProviders) {
+
+            p.start();
+        }
+
+        this.mix = configured.toArray(new OperationMix[configured.size()]);
+        this.operationTypes = Collections.unmodifiableSet(types);
+        this.initialized = true;
+    }
+
+    @Override
+    protected Operation nextInternal(
+            LoadStrategyContext context, Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+            throws Exception {
+
+        if (!initialized) {
+
+            throw new IllegalStateException(this + " was not initialized");
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        OperationMix m = select(random.nextDouble());
+        KeyProvider kp = m.keyProvider == null ? getKeyProvider() : m.keyProvider;
+
+        switch (m.label) {
+
+            case READ_LABEL: {
+
+                String key = kp.next();
+                return key == null ? null : new Read(key);
+            }
+            case WRITE_LABEL: {
+
+                String key = nextToWrite(kp);
+                return key == null ? null : new Write(key, computeValue(m, random));
+            }
+            case DELETE_LABEL: {
+
+                String key = kp.next();
+                return key == null ? null : new Delete(key);
+            }
+            case CONDITIONAL_LABEL: {
+
+                String key = kp.next();
+                return key == null ? null : new ConditionalWrite(key, computeValue(m, random));
+            }
+            case BULK_READ_LABEL: {
+
+                List<String> keys = new ArrayList<>();
+
+                for(int i = batchSize(m, random); i > 0; i --) {
+
+                    String key = kp.next();
+
+                    if (key == null) {
+
+                        break;
+                    }
+
+                    keys.add(key);
+                }
+
+                return keys.isEmpty() ? null : new BulkRead(keys);
+            }
+            case BULK_WRITE_LABEL: {
+
+                Map<String, String> entries = new LinkedHashMap<>();
+
+                for(int i = batchSize(m, random); i > 0; i --) {
+
+                    String key = nextToWrite(kp);
+
+                    if (key == null) {
+
+                        break;
+                    }
+
+                    entries.put(key, computeValue(m, random));
+                }
+
+                return entries.isEmpty() ? null : new BulkWrite(entries);
+            }
+            default:
+
+                throw new IllegalStateException("unsupported operation type " + m.label);
+        }
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param o a weight or an operation type configuration map, may be null.
+     *
+     * @return null if the operation type is not configured, or its weight is zero.
+     */
+    private OperationMix parseOperation(String label, Object o, LoadConfiguration lc) throws Exception {
+
+        if (o == null) {
+
+            return null;
+        }
+
+        Map<String, Object> c;
+
+        if (o instanceof Map) {
+
+            //noinspection unchecked
+            c = (Map<String, Object>)o;
+            o = c.remove(WEIGHT_LABEL);
+
+            if (o == null) {
+
+                throw new UserErrorException("missing '" + label + "' " + WEIGHT_LABEL);
+            }
+        }
+        else {
+
+            c = Collections.emptyMap();
+        }
+
+        if (!(o instanceof Number)) {
+
+            throw new UserErrorException("illegal '" + label + "' weight " + o.getClass().getSimpleName() + " value");
+        }
+
+        double weight = ((Number)o).doubleValue();
+
+        if (weight < 0d) {
+
+            throw new UserErrorException("'" + label + "' weight must not be negative, but it is " + o);
+        }
+
+        if (weight == 0d) {
+
+            return null;
+        }
+
+        OperationMix m = new OperationMix(label, weight);
+
+        if (c.isEmpty()) {
+
+            return m;
+        }
+
+        o = c.remove(VALUE_SIZE_LABEL);
+
+        if (o != null) {
+
+            int[] interval = BulkLoadStrategy.parseInterval(VALUE_SIZE_LABEL, o);
+            m.minValueSize = interval[0];
+            m.maxValueSize = interval[1];
+        }
+
+        if (BULK_READ_LABEL.equals(label) || BULK_WRITE_LABEL.equals(label)) {
+
+            o = c.remove(BulkLoadStrategy.BATCH_SIZE_LABEL);
+
+            if (o != null) {
+
+                int[] interval = BulkLoadStrategy.parseInterval(BulkLoadStrategy.BATCH_SIZE_LABEL, o);
+                m.minBatchSize = interval[0];
+                m.maxBatchSize = interval[1];
+            }
+        }
+
+        if (c.containsKey(KeyProviderFactory.KEY_DISTRIBUTION_LABEL)) {
+
+            m.keyProvider = KeyProviderFactory.build(c, lc);
+            ownKeyProviders.add(m.keyProvider);
+        }
+
+        if (!c.isEmpty()) {
+
+            String msg = "unknown '" + label + "' configuration option(s): ";
+
+            for(Iterator<String> ki = c.keySet().iterator(); ki.hasNext(); ) {
+
+                msg += "\"" + ki.next() + "\"";
+
+                if (ki.hasNext()) {
+
+                    msg += ", ";
+                }
+            }
+
+            throw new UserErrorException(msg);
+        }
+
+        return m;
+    }
+
+    private OperationMix select(double draw) {
+
+        for(OperationMix m: mix) {
+
+            if (draw < m.cumulativeProbability) {
+
+                return m;
+            }
+        }
+
+        return mix[mix.length - 1];
+    }
+
+    private String computeValue(OperationMix m, ThreadLocalRandom random) {
+
+        if (m.minValueSize == 0) {
+
+            return computeValue();
+        }
+
+        int size = m.minValueSize == m.maxValueSize ?
+                m.minValueSize : random.nextInt(m.minValueSize, m.maxValueSize + 1);
+
+        if (!isReuseValue()) {
+
+            return getValueGenerator().getRandomString(random, size);
+        }
+
+        //
+        // reuse a maximum size value and its prefixes; not fully thread safe, we may end up with a few reused values
+        //
+
+        String s = m.reusedValue;
+
+        if (s == null) {
+
+            s = getValueGenerator().getRandomString(random, m.maxValueSize);
+            m.reusedValue = s;
+        }
+
+        return size == s.length() ? s : s.substring(0, size);
+    }
+
+    private static int batchSize(OperationMix m, ThreadLocalRandom random) {
+
+        return m.minBatchSize == m.maxBatchSize ? m.minBatchSize : random.nextInt(m.minBatchSize, m.maxBatchSize + 1);
+    }
+
+    private static String nextToWrite(KeyProvider kp) {
+
+        return kp instanceof KeySpaceKeyProvider ? ((KeySpaceKeyProvider)kp).nextToWrite() : kp.next();
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    /**
+     * The configuration of an operation type. Not modified after initialization.
+     */
+    private static class OperationMix {
+
+        private final String label;
+        private final double weight;
+
+        private double cumulativeProbability;
+
+        // null means the default key provider
+        private KeyProvider keyProvider;
+
+        // 0 means the load strategy value size
+        private int minValueSize;
+        private int maxValueSize;
+
+        private int minBatchSize;
+        private int maxBatchSize;
+
+        private volatile String reusedValue;
+
+        private OperationMix(String label, double weight) {
+
+            this.label = label;
+            this.weight = weight;
+            this.minBatchSize = BulkLoadStrategy.DEFAULT_BATCH_SIZE;
+            this.maxBatchSize = BulkLoadStrategy.DEFAULT_BATCH_SIZE;
+        }
+
+        private Class<? extends Operation> getOperationType() {
+
+            switch (label) {
+
+                case READ_LABEL:
+                    return Read.class;
+                case WRITE_LABEL:
+                    return Write.class;
+                case DELETE_LABEL:
+                    return Delete.class;
+                case BULK_READ_LABEL:
+                    return BulkRead.class;
+                case BULK_WRITE_LABEL:
+                    return BulkWrite.class;
+                case CONDITIONAL_LABEL:
+                    return ConditionalWrite.class;
+                default:
+                    throw new IllegalStateException("unsupported operation type " + label);
+            }
+        }
+    }
+}
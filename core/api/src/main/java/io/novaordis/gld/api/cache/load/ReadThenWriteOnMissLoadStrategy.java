@@ -16,15 +16,20 @@
 
 package io.novaordis.gld.api.cache.load;
 
+import io.novaordis.gld.api.KeyProvider;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.LoadStrategyBase;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.gld.api.cache.CacheServiceConfiguration;
 import io.novaordis.gld.api.cache.operation.Read;
 import io.novaordis.gld.api.cache.operation.Write;
-import io.novaordis.gld.api.provider.RandomKeyProvider;
+import io.novaordis.gld.api.provider.KeyDistribution;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.gld.api.provider.LatestKeyProvider;
+import io.novaordis.utilities.UserErrorException;
 
 import java.util.Collections;
 import java.util.HashSet;
@@ -127,12 +132,17 @@ public class ReadThenWriteOnMissLoadStrategy extends LoadStrategyBase {
         // create and configure the key provider
         //
 
-        Integer keySize = lc.getKeySize();
-        keySize = keySize == null ? ServiceType.cache.getDefaultKeySize() : keySize;
-        RandomKeyProvider keyProvider = new RandomKeyProvider(keySize);
+        KeyProvider keyProvider = KeyProviderFactory.build(loadStrategyRawConfig, lc);
 
-        Long keyCount = lc.getOperations();
-        keyProvider.setKeyCount(keyCount);
+        if (keyProvider instanceof LatestKeyProvider) {
+
+            //
+            // the keys are written on miss, in the order they are read, so there is no "latest written" key sequence
+            //
+
+            throw new UserErrorException(
+                    "'" + KeyDistribution.LATEST.getLabel() + "' key distribution not supported by " + getName());
+        }
 
         //
         // install the provider ...
@@ -148,7 +158,8 @@ public class ReadThenWriteOnMissLoadStrategy extends LoadStrategyBase {
     }
 
     @Override
-    protected Operation nextInternal(Operation lastOperation, String lastWrittenKey, boolean runtimeShuttingDown)
+    protected Operation nextInternal(
+            LoadStrategyContext context, Operation lastOperation, String lastWrittenKey, boolean runtimeShuttingDown)
             throws Exception {
 
         if (!initialized) {
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.load;
+
+import io.novaordis.gld.api.provider.KeyDistribution;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.utilities.UserErrorException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The operation mix presets of the "mix" load strategy, equivalent to the YCSB core workloads A-F. YCSB operations
+ * that have no cache equivalent are approximated: inserts are writes of keys obtained with nextToWrite(), scans are
+ * bulk reads of 1 to 100 keys, and read-modify-writes are conditional writes.
+ *
+ * @see MixLoadStrategy
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public enum WorkloadPreset {
+
+    //
+    // update heavy: 50% reads, 50% writes, zipfian
+    //
+    A("a"),
+
+    //
+    // read mostly: 95% reads, 5% writes, zipfian
+    //
+    B("b"),
+
+    //
+    // read only: 100% reads, zipfian
+    //
+    C("c"),
+
+    //
+    // read latest: 95% reads, 5% inserts, reads favor the most recently inserted keys
+    //
+    D("d"),
+
+    //
+    // short ranges: 95% bulk reads of 1 to 100 keys, 5% inserts, zipfian
+    //
+    E("e"),
+
+    //
+    // read-modify-write: 50% reads, 50% conditional writes, zipfian
+    //
+    F("f"),
+    ;
+
+    public static WorkloadPreset fromString(String s) throws UserErrorException {
+
+        WorkloadPreset[] values = WorkloadPreset.values();
+        String msg = "";
+
+        for(int i = 0; i < values.length; i ++) {
+
+            WorkloadPreset p = values[i];
+
+            if (p.getLabel().equalsIgnoreCase(s)) {
+
+                return p;
+            }
+
+            msg += "'" + p.getLabel() + "'";
+
+            if (i < values.length - 1) {
+
+                msg += ", ";
+            }
+        }
+
+        msg = "invalid workload '" + s + "', valid options: " + msg;
+        throw new UserErrorException(msg);
+    }
+
+    private String label;
+
+    WorkloadPreset(String label) {
+
+        this.label = label;
+    }
+
+    public String getLabel() {
+
+        return label;
+    }
+
+    /**
+     * @return a new mutable "mix" load strategy configuration map that contains the operation weights and the key
+     * distribution of the workload.
+     */
+    public Map<String, Object> getConfiguration() {
+
+        Map<String, Object> c = new HashMap<>();
+
+        String distribution = KeyDistribution.ZIPFIAN.getLabel();
+
+        switch (this) {
+
+            case A:
+
+                c.put(MixLoadStrategy.READ_LABEL, 50);
+                c.put(MixLoadStrategy.WRITE_LABEL, 50);
+                break;
+
+            case B:
+
+                c.put(MixLoadStrategy.READ_LABEL, 95);
+                c.put(MixLoadStrategy.WRITE_LABEL, 5);
+                break;
+
+            case C:
+
+                c.put(MixLoadStrategy.READ_LABEL, 100);
+                break;
+
+            case D:
+
+                c.put(MixLoadStrategy.READ_LABEL, 95);
+                c.put(MixLoadStrategy.WRITE_LABEL, 5);
+                distribution = KeyDistribution.LATEST.getLabel();
+                break;
+
+            case E:
+
+                Map<String, Object> scan = new HashMap<>();
+                scan.put(MixLoadStrategy.WEIGHT_LABEL, 95);
+                scan.put(BulkLoadStrategy.BATCH_SIZE_LABEL, "1-100");
+                c.put(MixLoadStrategy.BULK_READ_LABEL, scan);
+                c.put(MixLoadStrategy.WRITE_LABEL, 5);
+                break;
+
+            case F:
+
+                c.put(MixLoadStrategy.READ_LABEL, 50);
+                c.put(MixLoadStrategy.CONDITIONAL_LABEL, 50);
+                break;
+
+            default:
+
+                throw new IllegalStateException("unsupported workload " + this);
+        }
+
+        c.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, distribution);
+
+        return c;
+    }
+}
@@ -18,6 +18,7 @@ package io.novaordis.gld.api.cache.load;
 
 import io.novaordis.gld.api.KeyProvider;
 import io.novaordis.gld.api.LoadStrategyBase;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.gld.api.cache.CacheServiceConfiguration;
@@ -25,7 +26,8 @@ import io.novaordis.gld.api.cache.operation.Read;
 import io.novaordis.gld.api.cache.operation.Write;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
-import io.novaordis.gld.api.provider.RandomKeyProvider;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.gld.api.provider.KeySpaceKeyProvider;
 import io.novaordis.utilities.UserErrorException;
 
 import java.util.Collections;
@@ -38,10 +40,8 @@ import java.util.Set;
  * read it back from the cache. The strategy generates writes and reads in series: one write followed by a constant
  * number of reads (or vice-versa), depending on the configured read-to-write or write-to-read ratio.
  *
- * This load strategy is designed to be operated on a single thread, without any interaction and synchronization with
- * other load strategy instances that may be operating on other threads. An instance of such a load strategy may be
- * accessed by a thread and one thread only; if this constraint is not observed, the instance may throw
- * ConcurrentModificationException.
+ * The instance is shared by all runners, but the position in the series is kept in a per-thread SeriesContext, so each
+ * thread generates the exact configured series, without writing any shared state.
  *
  * Configuration documentation:
  *
@@ -75,7 +75,6 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
 
     private boolean read;
     private int seriesSize;
-    private int indexInSeries;
     private volatile boolean initialized;
     private ReadWriteRatio readWriteRatio;
 
@@ -85,8 +84,6 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
 
         super();
 
-        this.indexInSeries = -1;
-
         //
         // set the default value size, it will be overridden when init() is called
         //
@@ -113,6 +110,12 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
         return OPERATION_TYPES;
     }
 
+    @Override
+    public SeriesContext newContext() {
+
+        return new SeriesContext(this);
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     public ReadWriteRatio getReadWriteRatio() {
@@ -176,12 +179,7 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
         // create and configure the key provider
         //
 
-        Integer keySize = lc.getKeySize();
-        keySize = keySize == null ? ServiceType.cache.getDefaultKeySize() : keySize;
-        RandomKeyProvider keyProvider = new RandomKeyProvider(keySize);
-
-        Long keyCount = lc.getOperations();
-        keyProvider.setKeyCount(keyCount);
+        KeyProvider keyProvider = KeyProviderFactory.build(loadStrategyRawConfig, lc);
 
         //
         // install the provider ...
@@ -196,12 +194,12 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
 
         this.read = readWriteRatio.isRead();
         this.seriesSize = readWriteRatio.getFollowUpSeriesSize();
-        this.indexInSeries = 0;
         this.initialized = true;
     }
 
     @Override
-    protected Operation nextInternal(Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+    protected Operation nextInternal(
+            LoadStrategyContext context, Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
             throws Exception {
 
         if (!initialized) {
@@ -209,9 +207,8 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
             throw new IllegalStateException(this + " was not initialized");
         }
 
-        if (indexInSeries == -1) {
-            throw new IllegalStateException(this + " not properly configured");
-        }
+        SeriesContext c = (SeriesContext)context;
+        int indexInSeries = c.indexInSeries;
 
         // we ignore the last operation, the result come in pre-determined series
 
@@ -254,7 +251,18 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
         else //noinspection ConstantConditions
             if (keyType == WRITE) {
 
-                key = keyProvider.next();
+                if (keyProvider instanceof KeySpaceKeyProvider) {
+
+                    //
+                    // some distributions select write keys differently
+                    //
+
+                    key = ((KeySpaceKeyProvider)keyProvider).nextToWrite();
+                }
+                else {
+
+                    key = keyProvider.next();
+                }
 
                 if (key == null) {
 
@@ -288,7 +296,7 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
                 throw new IllegalArgumentException("unknown key type " +keyType);
             }
 
-        indexInSeries = (indexInSeries + 1) % (seriesSize + 1);
+        c.indexInSeries = (indexInSeries + 1) % (seriesSize + 1);
 
         return o;
     }
@@ -297,4 +305,25 @@ public class WriteThenReadLoadStrategy extends LoadStrategyBase {
 
     // Inner classes ---------------------------------------------------------------------------------------------------
 
+    /**
+     * The position of a thread in the read/write series.
+     */
+    public static class SeriesContext extends LoadStrategyContext {
+
+        private int indexInSeries;
+
+        private SeriesContext(WriteThenReadLoadStrategy s) {
+
+            super(s);
+        }
+
+        /**
+         * @return the index of the next operation in the series; the first operation of the series has the index 0.
+         */
+        public int getIndexInSeries() {
+
+            return indexInSeries;
+        }
+    }
+
 }
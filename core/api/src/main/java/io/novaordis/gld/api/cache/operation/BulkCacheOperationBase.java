@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.operation;
+
+import io.novaordis.gld.api.BatchOperation;
+import io.novaordis.gld.api.OperationBase;
+import io.novaordis.gld.api.cache.BulkCacheService;
+import io.novaordis.gld.api.service.Service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * The base of the cache operations that access several keys in a single call. The operation's key, as returned by
+ * getKey(), is the first key of the batch.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public abstract class BulkCacheOperationBase extends OperationBase implements BatchOperation {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @throws IllegalArgumentException on null or empty key collection.
+     */
+    protected BulkCacheOperationBase(Collection<String> keys) {
+
+        super(firstKey(keys));
+    }
+
+    // BatchOperation implementation -----------------------------------------------------------------------------------
+
+    @Override
+    public int getKeyCount() {
+
+        return getKeys().size();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the keys, in the order they were specified.
+     */
+    public abstract Set<String> getKeys();
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    protected BulkCacheService insureBulkCacheService(Service s) {
+
+        if (!(s instanceof BulkCacheService)) {
+
+            throw new IllegalArgumentException(s + " not a BulkCacheService");
+        }
+
+        return (BulkCacheService)s;
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static String firstKey(Collection<String> keys) {
+
+        if (keys == null || keys.isEmpty()) {
+
+            throw new IllegalArgumentException("null or empty key collection");
+        }
+
+        return keys.iterator().next();
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
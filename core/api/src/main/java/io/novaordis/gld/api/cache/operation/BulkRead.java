@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.operation;
+
+import io.novaordis.gld.api.cache.BulkCacheService;
+import io.novaordis.gld.api.service.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads several keys in a single getAll() call.
+ *
+ * @see BulkCacheService#getAll(Set)
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BulkRead extends BulkCacheOperationBase {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private Set<String> keys;
+
+    private volatile Map<String, String> values;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param keys duplicate keys are read only once.
+     *
+     * @throws IllegalArgumentException on null or empty key collection.
+     */
+    public BulkRead(Collection<String> keys) {
+
+        super(keys);
+        this.keys = Collections.unmodifiableSet(new LinkedHashSet<>(keys));
+    }
+
+    // Operation implementation ----------------------------------------------------------------------------------------
+
+    @Override
+    public void perform(Service s) throws Exception {
+
+        BulkCacheService cs = insureBulkCacheService(s);
+
+        setPerformed(true);
+
+        Map<String, String> result = cs.getAll(keys);
+
+        setSuccessful(true);
+
+        values = result == null ? Collections.emptyMap() : result;
+    }
+
+    // BulkCacheOperationBase overrides --------------------------------------------------------------------------------
+
+    @Override
+    public Set<String> getKeys() {
+
+        return keys;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the values read from the cache, keyed by their keys. The keys that were missing from the cache are not
+     * present in the map. Returns null if the operation was not performed successfully yet.
+     */
+    public Map<String, String> getValues() {
+
+        return values;
+    }
+
+    /**
+     * @return the number of keys that were found in the cache. Returns 0 if the operation was not performed
+     * successfully yet.
+     */
+    public int getHitCount() {
+
+        Map<String, String> v = values;
+        return v == null ? 0 : v.size();
+    }
+
+    @Override
+    public String toString() {
+
+        return keys.size() + " keys" + (!wasPerformed() ? "" : " (" + getHitCount() + " hits)");
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.operation;
+
+import io.novaordis.gld.api.cache.BulkCacheService;
+import io.novaordis.gld.api.service.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes several key/value pairs in a single putAll() call.
+ *
+ * @see BulkCacheService#putAll(Map)
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BulkWrite extends BulkCacheOperationBase {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private Map<String, String> entries;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @throws IllegalArgumentException on null or empty entry map.
+     */
+    public BulkWrite(Map<String, String> entries) {
+
+        super(entries == null ? null : entries.keySet());
+        this.entries = Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+    }
+
+    // Operation implementation ----------------------------------------------------------------------------------------
+
+    @Override
+    public void perform(Service s) throws Exception {
+
+        BulkCacheService cs = insureBulkCacheService(s);
+
+        setPerformed(true);
+
+        cs.putAll(entries);
+
+        setSuccessful(true);
+    }
+
+    // BulkCacheOperationBase overrides --------------------------------------------------------------------------------
+
+    @Override
+    public Set<String> getKeys() {
+
+        return entries.keySet();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the key/value pairs to be written, in the order they were specified.
+     */
+    public Map<String, String> getEntries() {
+
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+
+        return entries.size() + " keys";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -16,7 +16,9 @@
 
 package io.novaordis.gld.api.cache.operation;
 
+import io.novaordis.gld.api.AsyncOperation;
 import io.novaordis.gld.api.OperationBase;
+import io.novaordis.gld.api.cache.AsyncCacheService;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.api.cache.CacheService;
 
@@ -24,7 +26,7 @@ import io.novaordis.gld.api.cache.CacheService;
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 12/7/16
  */
-public abstract class CacheOperationBase extends OperationBase implements CacheOperation {
+public abstract class CacheOperationBase extends OperationBase implements CacheOperation, AsyncOperation {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
@@ -32,7 +34,8 @@ public abstract class CacheOperationBase extends OperationBase implements CacheO
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
-    private String value;
+    // may be set on the thread that completes an asynchronous operation
+    private volatile String value;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
@@ -49,6 +52,14 @@ public abstract class CacheOperationBase extends OperationBase implements CacheO
         return value;
     }
 
+    // AsyncOperation implementation -----------------------------------------------------------------------------------
+
+    @Override
+    public boolean supportsAsync(Service s) {
+
+        return s instanceof AsyncCacheService;
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     // Package protected -----------------------------------------------------------------------------------------------
@@ -70,6 +81,16 @@ public abstract class CacheOperationBase extends OperationBase implements CacheO
         return (CacheService)s;
     }
 
+    protected AsyncCacheService insureAsyncCacheService(Service s) {
+
+        if (!(s instanceof AsyncCacheService)) {
+
+            throw new IllegalArgumentException(s + " not an AsyncCacheService");
+        }
+
+        return (AsyncCacheService)s;
+    }
+
     // Private ---------------------------------------------------------------------------------------------------------
 
     // Inner classes ---------------------------------------------------------------------------------------------------
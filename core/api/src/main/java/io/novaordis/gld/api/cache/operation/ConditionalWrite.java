@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.operation;
+
+import io.novaordis.gld.api.Util;
+import io.novaordis.gld.api.cache.AsyncCacheService;
+import io.novaordis.gld.api.cache.CacheService;
+import io.novaordis.gld.api.service.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A read-modify-write: reads the key and, only if the key is present in the cache, overwrites it with a new value. A
+ * miss leaves the cache unchanged. The read and the write are two separate, non-atomic service invocations, and their
+ * cumulated duration is recorded as the duration of a single operation.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class ConditionalWrite extends CacheOperationBase {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // may be set on the thread that completes an asynchronous operation
+    private volatile String previousValue;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param value the value to write if the key is present.
+     */
+    public ConditionalWrite(String key, String value) {
+
+        super(key);
+        setValue(value);
+    }
+
+    // Operation implementation ----------------------------------------------------------------------------------------
+
+    @Override
+    public void perform(Service s) throws Exception {
+
+        CacheService cs = insureCacheService(s);
+
+        String key = getKey();
+
+        setPerformed(true);
+
+        String v = cs.get(key);
+
+        previousValue = v;
+
+        if (v != null) {
+
+            cs.put(key, getValue());
+        }
+
+        setSuccessful(true);
+    }
+
+    // AsyncOperation implementation -----------------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<Void> performAsync(Service s) throws Exception {
+
+        AsyncCacheService cs = insureAsyncCacheService(s);
+
+        String key = getKey();
+
+        setPerformed(true);
+
+        return cs.getAsync(key).thenCompose(v -> {
+
+            previousValue = v;
+
+            if (v == null) {
+
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+
+            try {
+
+                return cs.putAsync(key, getValue());
+            }
+            catch(Exception e) {
+
+                CompletableFuture<Void> f = new CompletableFuture<>();
+                f.completeExceptionally(e);
+                return f;
+            }
+
+        }).thenRun(() -> setSuccessful(true));
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the value read from the cache, or null if the key was not present, or the operation was not performed.
+     */
+    public String getPreviousValue() {
+
+        return previousValue;
+    }
+
+    /**
+     * @return true if the key was present, so the new value was written.
+     */
+    public boolean wasWritten() {
+
+        return wasPerformed() && previousValue != null;
+    }
+
+    @Override
+    public String toString() {
+
+        String s = Util.firstCharacters(getKey(), 12);
+
+        if (!wasPerformed()) {
+
+            return s;
+        }
+
+        return s + (previousValue == null ? " miss" : " hit, overwritten with " + Util.firstCharacters(getValue(), 12));
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -16,9 +16,12 @@
 
 package io.novaordis.gld.api.cache.operation;
 
+import io.novaordis.gld.api.cache.AsyncCacheService;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.api.cache.CacheService;
 
+import java.util.concurrent.CompletableFuture;
+
 public class Delete extends CacheOperationBase {
 
     // Constants -------------------------------------------------------------------------------------------------------
@@ -57,6 +60,18 @@ public class Delete extends CacheOperationBase {
         }
     }
 
+    // AsyncOperation implementation -----------------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<Void> performAsync(Service s) throws Exception {
+
+        AsyncCacheService cs = insureAsyncCacheService(s);
+
+        setPerformed(true);
+
+        return cs.removeAsync(getKey()).thenRun(() -> setSuccessful(true));
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     @Override
@@ -16,9 +16,12 @@
 
 package io.novaordis.gld.api.cache.operation;
 
+import io.novaordis.gld.api.cache.AsyncCacheService;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.api.cache.CacheService;
 
+import java.util.concurrent.CompletableFuture;
+
 public class Read extends CacheOperationBase {
 
     // Constants -------------------------------------------------------------------------------------------------------
@@ -60,6 +63,22 @@ public class Read extends CacheOperationBase {
         }
     }
 
+    // AsyncOperation implementation -----------------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<Void> performAsync(Service s) throws Exception {
+
+        AsyncCacheService cs = insureAsyncCacheService(s);
+
+        setPerformed(true);
+
+        return cs.getAsync(getKey()).thenAccept(value -> {
+
+            setValue(value);
+            setSuccessful(true);
+        });
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     public void setResult(String s) {
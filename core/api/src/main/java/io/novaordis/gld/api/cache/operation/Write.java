@@ -18,9 +18,12 @@ package io.novaordis.gld.api.cache.operation;
 
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.Util;
+import io.novaordis.gld.api.cache.AsyncCacheService;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.api.cache.CacheService;
 
+import java.util.concurrent.CompletableFuture;
+
 public class Write extends CacheOperationBase {
 
     // Constants -------------------------------------------------------------------------------------------------------
@@ -64,6 +67,18 @@ public class Write extends CacheOperationBase {
         }
     }
 
+    // AsyncOperation implementation -----------------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<Void> performAsync(Service s) throws Exception {
+
+        AsyncCacheService cs = insureAsyncCacheService(s);
+
+        setPerformed(true);
+
+        return cs.putAsync(getKey(), getValue()).thenRun(() -> setSuccessful(true));
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     @Override
@@ -0,0 +1,511 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.configuration;
+
+import io.novaordis.utilities.UserErrorException;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The configuration of the automated capacity search mode ('capacity-search' in the load configuration section). In
+ * this mode, the load driver runs a sequence of short open-loop trials at different arrival rates, searching for the
+ * highest rate at which the target service still complies with the configured service level agreement (SLA).
+ *
+ * Configuration example:
+ *
+ * capacity-search:
+ *   initial-rate: 1000
+ *   max-rate: 200000
+ *   trial-duration: 30s
+ *   warm-up: 5s
+ *   resolution: 0.02
+ *   max-trials: 20
+ *   curve-file: ./capacity.csv
+ *   sla:
+ *     p99: 5ms
+ *     p99.9: 20ms
+ *     error-rate: 0.1%
+ *
+ * The SLA latency thresholds apply to the response time (measured from the intended start of the operation) at the
+ * given percentile. A threshold is a number of milliseconds, or a number followed by one of the "us", "ms" or "s" units.
+ * The error rate is a fraction, or a percentage.
+ *
+ * Immutable.
+ *
+ * @see LoadConfiguration#getCapacitySearch()
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class CapacitySearchConfiguration {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String INITIAL_RATE_LABEL = "initial-rate";
+    public static final String MAX_RATE_LABEL = "max-rate";
+    public static final String TRIAL_DURATION_LABEL = "trial-duration";
+    public static final String WARM_UP_LABEL = "warm-up";
+    public static final String RESOLUTION_LABEL = "resolution";
+    public static final String MAX_TRIALS_LABEL = "max-trials";
+    public static final String CURVE_FILE_LABEL = "curve-file";
+    public static final String SLA_LABEL = "sla";
+    public static final String ERROR_RATE_LABEL = "error-rate";
+
+    public static final long DEFAULT_TRIAL_DURATION_MS = 30000L;
+    public static final long DEFAULT_WARM_UP_MS = 0L;
+    public static final double DEFAULT_RESOLUTION = 0.02d;
+    public static final int DEFAULT_MAX_TRIALS = 20;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param o a Number (milliseconds) or a String: a number followed by "us", "ms" or "s".
+     *
+     * @return the latency in nanoseconds.
+     *
+     * @exception UserErrorException on invalid or non-positive latencies.
+     */
+    public static long parseLatency(Object o) throws UserErrorException {
+
+        double value;
+        double multiplier = 1000000d;
+
+        if (o instanceof Number) {
+
+            value = ((Number)o).doubleValue();
+        }
+        else if (o instanceof String) {
+
+            String s = ((String)o).trim();
+            String number = s;
+
+            if (s.endsWith("us")) {
+
+                multiplier = 1000d;
+                number = s.substring(0, s.length() - 2);
+            }
+            else if (s.endsWith("ms")) {
+
+                number = s.substring(0, s.length() - 2);
+            }
+            else if (s.endsWith("s")) {
+
+                multiplier = 1000000000d;
+                number = s.substring(0, s.length() - 1);
+            }
+
+            try {
+
+                value = Double.parseDouble(number.trim());
+            }
+            catch(NumberFormatException e) {
+
+                throw new UserErrorException("invalid latency: " + o);
+            }
+        }
+        else {
+
+            throw new UserErrorException("invalid latency: " + o);
+        }
+
+        long nanos = Math.round(value * multiplier);
+
+        if (nanos <= 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+
+            throw new UserErrorException("invalid latency: " + o);
+        }
+
+        return nanos;
+    }
+
+    /**
+     * @param o a Number (a fraction between 0 and 1) or a String, either a fraction or a percentage ("0.1%").
+     *
+     * @exception UserErrorException on invalid values.
+     */
+    public static double parseErrorRate(Object o) throws UserErrorException {
+
+        double value;
+
+        if (o instanceof Number) {
+
+            value = ((Number)o).doubleValue();
+        }
+        else if (o instanceof String) {
+
+            String s = ((String)o).trim();
+            boolean percentage = s.endsWith("%");
+
+            try {
+
+                value = Double.parseDouble(percentage ? s.substring(0, s.length() - 1).trim() : s);
+            }
+            catch(NumberFormatException e) {
+
+                throw new UserErrorException("invalid error rate: " + o);
+            }
+
+            if (percentage) {
+
+                value = value / 100;
+            }
+        }
+        else {
+
+            throw new UserErrorException("invalid error rate: " + o);
+        }
+
+        if (value < 0 || value > 1 || Double.isNaN(value)) {
+
+            throw new UserErrorException("invalid error rate: " + o);
+        }
+
+        return value;
+    }
+
+    /**
+     * @param raw the raw 'capacity-search' map.
+     * @param configurationDirectory used to resolve a relative curve file path.
+     *
+     * @exception UserErrorException on invalid configuration.
+     */
+    static CapacitySearchConfiguration parse(Map raw, File configurationDirectory) throws UserErrorException {
+
+        for(Object key: raw.keySet()) {
+
+            if (!INITIAL_RATE_LABEL.equals(key) && !MAX_RATE_LABEL.equals(key) &&
+                    !TRIAL_DURATION_LABEL.equals(key) && !WARM_UP_LABEL.equals(key) &&
+                    !RESOLUTION_LABEL.equals(key) && !MAX_TRIALS_LABEL.equals(key) &&
+                    !CURVE_FILE_LABEL.equals(key) && !SLA_LABEL.equals(key)) {
+
+                throw new UserErrorException("unknown configuration element '" + key + "'");
+            }
+        }
+
+        Object o = raw.get(INITIAL_RATE_LABEL);
+
+        if (o == null) {
+
+            throw new UserErrorException("missing '" + INITIAL_RATE_LABEL + "'");
+        }
+
+        double initialRate = toPositiveDouble(INITIAL_RATE_LABEL, o);
+
+        o = raw.get(MAX_RATE_LABEL);
+        Double maxRate = o == null ? null : toPositiveDouble(MAX_RATE_LABEL, o);
+
+        if (maxRate != null && maxRate < initialRate) {
+
+            throw new UserErrorException(
+                    "'" + MAX_RATE_LABEL + "' (" + maxRate + ") smaller than '" + INITIAL_RATE_LABEL + "' (" +
+                            initialRate + ")");
+        }
+
+        o = raw.get(TRIAL_DURATION_LABEL);
+        long trialDurationMs = o == null ? DEFAULT_TRIAL_DURATION_MS : LoadStage.parseDuration(o);
+
+        o = raw.get(WARM_UP_LABEL);
+        long warmUpMs = o == null ? DEFAULT_WARM_UP_MS : LoadStage.parseDuration(o);
+
+        if (warmUpMs >= trialDurationMs) {
+
+            throw new UserErrorException(
+                    "'" + WARM_UP_LABEL + "' must be shorter than '" + TRIAL_DURATION_LABEL + "'");
+        }
+
+        o = raw.get(RESOLUTION_LABEL);
+        double resolution = o == null ? DEFAULT_RESOLUTION : toPositiveDouble(RESOLUTION_LABEL, o);
+
+        if (resolution >= 1) {
+
+            throw new UserErrorException("invalid '" + RESOLUTION_LABEL + "' value: " + o);
+        }
+
+        o = raw.get(MAX_TRIALS_LABEL);
+        int maxTrials = DEFAULT_MAX_TRIALS;
+
+        if (o != null) {
+
+            if (!(o instanceof Integer) || (Integer)o < 1) {
+
+                throw new UserErrorException("invalid '" + MAX_TRIALS_LABEL + "' value: " + o);
+            }
+
+            maxTrials = (Integer)o;
+        }
+
+        o = raw.get(CURVE_FILE_LABEL);
+        File curveFile = null;
+
+        if (o != null) {
+
+            if (!(o instanceof String)) {
+
+                throw new UserErrorException("'" + CURVE_FILE_LABEL + "' not a string");
+            }
+
+            curveFile = new File((String)o);
+
+            if (!curveFile.isAbsolute() && configurationDirectory != null) {
+
+                curveFile = new File(configurationDirectory, (String)o);
+            }
+        }
+
+        o = raw.get(SLA_LABEL);
+
+        if (o == null) {
+
+            throw new UserErrorException("missing '" + SLA_LABEL + "'");
+        }
+
+        if (!(o instanceof Map)) {
+
+            throw new UserErrorException("'" + SLA_LABEL + "' not a map");
+        }
+
+        Map sla = (Map)o;
+
+        TreeMap<Double, Long> thresholds = new TreeMap<>();
+        Double maxErrorRate = null;
+
+        for(Object key: sla.keySet()) {
+
+            Object value = sla.get(key);
+
+            if (ERROR_RATE_LABEL.equals(key)) {
+
+                maxErrorRate = parseErrorRate(value);
+                continue;
+            }
+
+            String s = String.valueOf(key);
+
+            double percentile;
+
+            try {
+
+                if (!s.startsWith("p")) {
+
+                    throw new NumberFormatException();
+                }
+
+                percentile = Double.parseDouble(s.substring(1));
+            }
+            catch(NumberFormatException e) {
+
+                throw new UserErrorException("unknown " + SLA_LABEL + " criterion '" + key + "'");
+            }
+
+            if (percentile <= 0 || percentile > 100) {
+
+                throw new UserErrorException("invalid " + SLA_LABEL + " percentile '" + key + "'");
+            }
+
+            thresholds.put(percentile, parseLatency(value));
+        }
+
+        if (thresholds.isEmpty() && maxErrorRate == null) {
+
+            throw new UserErrorException("empty '" + SLA_LABEL + "'");
+        }
+
+        return new CapacitySearchConfiguration(
+                initialRate, maxRate, trialDurationMs, warmUpMs, resolution, maxTrials, curveFile,
+                thresholds, maxErrorRate);
+    }
+
+    private static double toPositiveDouble(String label, Object o) throws UserErrorException {
+
+        if (!(o instanceof Number)) {
+
+            throw new UserErrorException("'" + label + "' not a number");
+        }
+
+        double d = ((Number)o).doubleValue();
+
+        if (d <= 0 || Double.isNaN(d) || Double.isInfinite(d)) {
+
+            throw new UserErrorException("invalid '" + label + "' value: " + o);
+        }
+
+        return d;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final double initialRate;
+    private final Double maxRate;
+    private final long trialDurationMs;
+    private final long warmUpMs;
+    private final double resolution;
+    private final int maxTrials;
+    private final File curveFile;
+    private final Map<Double, Long> latencyThresholdsNano;
+    private final Double maxErrorRate;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param maxRate null means no upper bound.
+     * @param curveFile null means the latency-versus-throughput curve is not written to a file.
+     * @param latencyThresholdsNano percentile (0-100] - maximum response time, in nanoseconds, at that percentile.
+     * @param maxErrorRate null means errors are not part of the SLA.
+     */
+    public CapacitySearchConfiguration(double initialRate, Double maxRate, long trialDurationMs, long warmUpMs,
+                                       double resolution, int maxTrials, File curveFile,
+                                       Map<Double, Long> latencyThresholdsNano, Double maxErrorRate) {
+
+        if (initialRate <= 0) {
+
+            throw new IllegalArgumentException("invalid initial rate " + initialRate);
+        }
+
+        if (trialDurationMs <= 0 || warmUpMs < 0 || warmUpMs >= trialDurationMs) {
+
+            throw new IllegalArgumentException(
+                    "invalid trial duration/warm-up " + trialDurationMs + "/" + warmUpMs + " ms");
+        }
+
+        if (resolution <= 0 || resolution >= 1) {
+
+            throw new IllegalArgumentException("invalid resolution " + resolution);
+        }
+
+        if (maxTrials < 1) {
+
+            throw new IllegalArgumentException("invalid maximum trial count " + maxTrials);
+        }
+
+        this.initialRate = initialRate;
+        this.maxRate = maxRate;
+        this.trialDurationMs = trialDurationMs;
+        this.warmUpMs = warmUpMs;
+        this.resolution = resolution;
+        this.maxTrials = maxTrials;
+        this.curveFile = curveFile;
+        this.latencyThresholdsNano =
+                Collections.unmodifiableMap(new TreeMap<>(
+                        latencyThresholdsNano == null ? Collections.emptyMap() : latencyThresholdsNano));
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the arrival rate of the first trial, in operations per second.
+     */
+    public double getInitialRate() {
+
+        return initialRate;
+    }
+
+    /**
+     * @return the highest arrival rate to try, in operations per second, or null if there is no upper bound.
+     */
+    public Double getMaxRate() {
+
+        return maxRate;
+    }
+
+    public long getTrialDurationMs() {
+
+        return trialDurationMs;
+    }
+
+    /**
+     * @return the initial part of each trial that is not taken into account when the SLA is evaluated.
+     */
+    public long getWarmUpMs() {
+
+        return warmUpMs;
+    }
+
+    /**
+     * @return the relative width of the compliant/non-compliant rate interval at which the search stops.
+     */
+    public double getResolution() {
+
+        return resolution;
+    }
+
+    public int getMaxTrials() {
+
+        return maxTrials;
+    }
+
+    /**
+     * @return the file to write the latency-versus-throughput curve to, as CSV, or null.
+     */
+    public File getCurveFile() {
+
+        return curveFile;
+    }
+
+    /**
+     * @return percentile (0-100] - maximum response time, in nanoseconds, at that percentile. Sorted by percentile. May
+     * be empty, never null.
+     */
+    public Map<Double, Long> getLatencyThresholdsNano() {
+
+        return latencyThresholdsNano;
+    }
+
+    /**
+     * @return the maximum acceptable fraction of failed operations, or null if errors are not part of the SLA.
+     */
+    public Double getMaxErrorRate() {
+
+        return maxErrorRate;
+    }
+
+    @Override
+    public String toString() {
+
+        String s = "";
+
+        for(Map.Entry<Double, Long> e: latencyThresholdsNano.entrySet()) {
+
+            s += (s.isEmpty() ? "" : ", ") + "p" + formatPercentile(e.getKey()) + " <= " +
+                    (e.getValue() / 1000000d) + " ms";
+        }
+
+        if (maxErrorRate != null) {
+
+            s += (s.isEmpty() ? "" : ", ") + "error rate <= " + (maxErrorRate * 100) + "%";
+        }
+
+        return s;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static String formatPercentile(double p) {
+
+        return p == Math.rint(p) ? Long.toString((long)p) : Double.toString(p);
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -19,6 +19,8 @@ package io.novaordis.gld.api.configuration;
 import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.utilities.UserErrorException;
 
+import java.util.List;
+
 /**
  * Typed access to the configuration that specifies the load characteristics (number of threads, duration, number
  * of requests/operations/messages), key size, value size, message size, etc.
@@ -48,6 +50,17 @@ public interface LoadConfiguration extends LowLevelConfiguration {
     String VALUE_SIZE_LABEL = "value-size";
     String MESSAGE_SIZE_LABEL = "message-size";
 
+    String RATE_LABEL = "rate";
+
+    String VIRTUAL_THREADS_LABEL = "virtual-threads";
+
+    String IN_FLIGHT_LABEL = "in-flight";
+    int DEFAULT_IN_FLIGHT = 1;
+
+    String PROFILE_LABEL = "profile";
+
+    String CAPACITY_SEARCH_LABEL = "capacity-search";
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Public ----------------------------------------------------------------------------------------------------------
@@ -116,6 +129,51 @@ public interface LoadConfiguration extends LowLevelConfiguration {
      */
     Integer getMessageSize() throws UserErrorException;
 
+    /**
+     * @return the target arrival rate, in operations per second, for the whole load driver instance (all threads). The
+     * configuration value is optional: if not present, the method returns null and the load driver runs in closed-loop
+     * mode, where each thread starts a new operation as soon as the previous one completes. If present, the operations
+     * are scheduled on a fixed timeline (open-loop), independently of how fast the target service responds.
+     */
+    Double getRate() throws UserErrorException;
+
+    /**
+     * @return true if the load should be generated by virtual threads instead of platform threads. Virtual threads
+     * require Java 21 or newer, and allow running a very large number of concurrent threads (see getThreadCount()).
+     * The configuration value is optional, the default is false.
+     */
+    boolean isVirtualThreads() throws UserErrorException;
+
+    /**
+     * @return the maximum number of operations each thread keeps in flight. 1 (the default) means each thread performs
+     * its operations synchronously, one after another. A larger value means each thread issues operations
+     * asynchronously, without waiting for the previous ones to complete, as long as the number of incomplete
+     * operations does not exceed the limit. Only services that support asynchronous operations (for example,
+     * AsyncCacheService implementations) can be driven asynchronously; the operations against other services are
+     * performed synchronously.
+     */
+    int getInFlight() throws UserErrorException;
+
+    /**
+     * @return the staged load profile: the timeline of stages the load run goes through, in order, each stage with its
+     * own duration, arrival rate (possibly ramping) and active thread count. The configuration value is optional: if
+     * not present, the method returns an empty list and the load is applied uniformly for the whole run. The profile
+     * cannot be combined with a global 'rate'.
+     *
+     * @see LoadStage
+     */
+    List<LoadStage> getProfile() throws UserErrorException;
+
+    /**
+     * @return the capacity search configuration, or null if the load driver is not configured to run in capacity
+     * search mode. In capacity search mode, the load driver runs a sequence of short open-loop trials to find the
+     * highest arrival rate the target service can sustain without breaching the configured SLA. The capacity search
+     * cannot be combined with a 'profile'. The search controls the arrival rate, so 'rate', if present, is ignored.
+     *
+     * @see CapacitySearchConfiguration
+     */
+    CapacitySearchConfiguration getCapacitySearch() throws UserErrorException;
+
     // Untyped Access --------------------------------------------------------------------------------------------------
 
 }
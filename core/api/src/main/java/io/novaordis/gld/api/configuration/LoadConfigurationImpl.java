@@ -20,7 +20,10 @@ import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.utilities.UserErrorException;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -198,6 +201,168 @@ public class LoadConfigurationImpl extends LowLevelConfigurationBase
         return getValueSize();
     }
 
+    @Override
+    public Double getRate() throws UserErrorException {
+
+        String label = LoadConfiguration.RATE_LABEL;
+
+        Number n;
+
+        try {
+
+            n = get(Number.class, label);
+        }
+        catch(IllegalStateException e) {
+
+            throw new UserErrorException("'" + label + "' not a number", e);
+        }
+
+        if (n == null) {
+
+            return null;
+        }
+
+        double d = n.doubleValue();
+
+        if (d <= 0 || Double.isNaN(d) || Double.isInfinite(d)) {
+
+            throw new UserErrorException("invalid '" + label + "' value: " + n);
+        }
+
+        return d;
+    }
+
+    @Override
+    public boolean isVirtualThreads() throws UserErrorException {
+
+        String label = LoadConfiguration.VIRTUAL_THREADS_LABEL;
+
+        Boolean b;
+
+        try {
+
+            b = get(Boolean.class, label);
+        }
+        catch(IllegalStateException e) {
+
+            throw new UserErrorException("'" + label + "' not a boolean", e);
+        }
+
+        return b != null && b;
+    }
+
+    @Override
+    public int getInFlight() throws UserErrorException {
+
+        String label = LoadConfiguration.IN_FLIGHT_LABEL;
+
+        Integer i;
+
+        try {
+
+            i = get(Integer.class, label);
+        }
+        catch(IllegalStateException e) {
+
+            throw new UserErrorException("'" + label + "' not an integer", e);
+        }
+
+        if (i == null) {
+
+            return LoadConfiguration.DEFAULT_IN_FLIGHT;
+        }
+
+        if (i < 1) {
+
+            throw new UserErrorException("invalid '" + label + "' value: " + i);
+        }
+
+        return i;
+    }
+
+    @Override
+    public List<LoadStage> getProfile() throws UserErrorException {
+
+        String label = LoadConfiguration.PROFILE_LABEL;
+
+        List<Object> raw;
+
+        try {
+
+            raw = getList(label);
+        }
+        catch(IllegalStateException e) {
+
+            throw new UserErrorException("'" + label + "' not a list", e);
+        }
+
+        if (raw.isEmpty()) {
+
+            return Collections.emptyList();
+        }
+
+        if (getRate() != null) {
+
+            throw new UserErrorException(
+                    "'" + LoadConfiguration.RATE_LABEL + "' and '" + label + "' cannot be used together");
+        }
+
+        int threadCount = getThreadCount();
+
+        List<LoadStage> profile = new ArrayList<>();
+
+        for(int i = 0; i < raw.size(); i ++) {
+
+            try {
+
+                profile.add(LoadStage.parse(i, raw.get(i), threadCount));
+            }
+            catch(UserErrorException e) {
+
+                throw new UserErrorException("invalid '" + label + "': " + e.getMessage());
+            }
+        }
+
+        return Collections.unmodifiableList(profile);
+    }
+
+    @Override
+    public CapacitySearchConfiguration getCapacitySearch() throws UserErrorException {
+
+        String label = LoadConfiguration.CAPACITY_SEARCH_LABEL;
+
+        Map<String, Object> raw;
+
+        try {
+
+            raw = get(label);
+        }
+        catch(IllegalStateException e) {
+
+            throw new UserErrorException("'" + label + "' not a map", e);
+        }
+
+        if (raw.isEmpty()) {
+
+            return null;
+        }
+
+        if (!getProfile().isEmpty()) {
+
+            throw new UserErrorException(
+                    "'" + LoadConfiguration.PROFILE_LABEL + "' and '" + label + "' cannot be used together");
+        }
+
+        try {
+
+            return CapacitySearchConfiguration.parse(raw, getConfigurationDirectory());
+        }
+        catch(UserErrorException e) {
+
+            throw new UserErrorException("invalid '" + label + "': " + e.getMessage());
+        }
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     // Package protected -----------------------------------------------------------------------------------------------
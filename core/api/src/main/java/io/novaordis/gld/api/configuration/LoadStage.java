@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.configuration;
+
+import io.novaordis.utilities.UserErrorException;
+
+import java.util.Map;
+
+/**
+ * A stage of a staged load profile ('profile' in the load configuration section). A stage lasts for the given duration
+ * and it is run with the given arrival rate and active thread count. If a target rate is specified, the arrival rate
+ * changes linearly from the rate to the target rate over the duration of the stage (a ramp). If no rate is specified,
+ * the stage is run in closed-loop mode, and only the active thread count is controlled. If no thread count is
+ * specified, all the load driver's threads are active.
+ *
+ * Configuration example:
+ *
+ * profile:
+ *   - name: ramp-up
+ *     rate: 1000
+ *     target-rate: 50000
+ *     duration: 5m
+ *   - name: soak
+ *     rate: 50000
+ *     duration: 30m
+ *   - name: spike
+ *     rate: 100000
+ *     duration: 10s
+ *   - name: step-down
+ *     rate: 20000
+ *     threads: 50
+ *     duration: 10m
+ *
+ * The duration is either an integer number of seconds, or a number followed by one of the "ms", "s", "m" or "h" units.
+ *
+ * Immutable.
+ *
+ * @see LoadConfiguration#getProfile()
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class LoadStage {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String NAME_LABEL = "name";
+    public static final String DURATION_LABEL = "duration";
+    public static final String RATE_LABEL = "rate";
+    public static final String TARGET_RATE_LABEL = "target-rate";
+    public static final String THREADS_LABEL = "threads";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param o an Integer (seconds) or a String: a number followed by "ms", "s", "m" or "h".
+     *
+     * @return the duration in milliseconds.
+     *
+     * @exception UserErrorException on invalid or non-positive durations.
+     */
+    public static long parseDuration(Object o) throws UserErrorException {
+
+        if (o instanceof Integer || o instanceof Long) {
+
+            long seconds = ((Number)o).longValue();
+
+            if (seconds <= 0) {
+
+                throw new UserErrorException("invalid duration: " + o);
+            }
+
+            return seconds * 1000L;
+        }
+
+        if (!(o instanceof String)) {
+
+            throw new UserErrorException("invalid duration: " + o);
+        }
+
+        String s = ((String)o).trim();
+
+        long multiplier;
+        String number;
+
+        if (s.endsWith("ms")) {
+
+            multiplier = 1L;
+            number = s.substring(0, s.length() - 2);
+        }
+        else if (s.endsWith("s")) {
+
+            multiplier = 1000L;
+            number = s.substring(0, s.length() - 1);
+        }
+        else if (s.endsWith("m")) {
+
+            multiplier = 60L * 1000;
+            number = s.substring(0, s.length() - 1);
+        }
+        else if (s.endsWith("h")) {
+
+            multiplier = 3600L * 1000;
+            number = s.substring(0, s.length() - 1);
+        }
+        else {
+
+            multiplier = 1000L;
+            number = s;
+        }
+
+        long value;
+
+        try {
+
+            value = Long.parseLong(number.trim());
+        }
+        catch(NumberFormatException e) {
+
+            throw new UserErrorException("invalid duration: " + o);
+        }
+
+        if (value <= 0) {
+
+            throw new UserErrorException("invalid duration: " + o);
+        }
+
+        return value * multiplier;
+    }
+
+    /**
+     * @param index the 0-based position of the stage in the profile, used for default names and error messages.
+     * @param raw the stage's raw configuration.
+     * @param maxThreadCount the load driver's thread count, the stage's active thread count cannot exceed it.
+     *
+     * @exception UserErrorException on invalid configuration.
+     */
+    static LoadStage parse(int index, Object raw, int maxThreadCount) throws UserErrorException {
+
+        String label = "stage " + index;
+
+        if (!(raw instanceof Map)) {
+
+            throw new UserErrorException(label + ": expected a map, got \"" + raw + "\"");
+        }
+
+        Map m = (Map)raw;
+
+        Object o = m.get(NAME_LABEL);
+        String name = o == null ? label : o.toString();
+
+        o = m.get(DURATION_LABEL);
+
+        if (o == null) {
+
+            throw new UserErrorException(name + ": missing '" + DURATION_LABEL + "'");
+        }
+
+        long durationMs;
+
+        try {
+
+            durationMs = parseDuration(o);
+        }
+        catch(UserErrorException e) {
+
+            throw new UserErrorException(name + ": " + e.getMessage());
+        }
+
+        Double rate = toRate(name, RATE_LABEL, m.get(RATE_LABEL));
+        Double targetRate = toRate(name, TARGET_RATE_LABEL, m.get(TARGET_RATE_LABEL));
+
+        if (targetRate != null && rate == null) {
+
+            throw new UserErrorException(name + ": '" + TARGET_RATE_LABEL + "' requires '" + RATE_LABEL + "'");
+        }
+
+        o = m.get(THREADS_LABEL);
+        Integer threads = null;
+
+        if (o != null) {
+
+            if (!(o instanceof Integer)) {
+
+                throw new UserErrorException(name + ": '" + THREADS_LABEL + "' not an integer");
+            }
+
+            threads = (Integer)o;
+
+            if (threads < 1 || threads > maxThreadCount) {
+
+                throw new UserErrorException(
+                        name + ": invalid '" + THREADS_LABEL + "' value " + threads + ", must be between 1 and " +
+                                "the load driver's thread count (" + maxThreadCount + ")");
+            }
+        }
+
+        for(Object key: m.keySet()) {
+
+            if (!NAME_LABEL.equals(key) && !DURATION_LABEL.equals(key) && !RATE_LABEL.equals(key) &&
+                    !TARGET_RATE_LABEL.equals(key) && !THREADS_LABEL.equals(key)) {
+
+                throw new UserErrorException(name + ": unknown stage configuration element '" + key + "'");
+            }
+        }
+
+        return new LoadStage(name, durationMs, rate, targetRate, threads);
+    }
+
+    private static Double toRate(String name, String label, Object o) throws UserErrorException {
+
+        if (o == null) {
+
+            return null;
+        }
+
+        if (!(o instanceof Number)) {
+
+            throw new UserErrorException(name + ": '" + label + "' not a number");
+        }
+
+        double d = ((Number)o).doubleValue();
+
+        if (d <= 0 || Double.isNaN(d) || Double.isInfinite(d)) {
+
+            throw new UserErrorException(name + ": invalid '" + label + "' value: " + o);
+        }
+
+        return d;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final String name;
+    private final long durationMs;
+    private final Double rate;
+    private final Double targetRate;
+    private final Integer threadCount;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param rate the arrival rate at the beginning of the stage, in operations per second. null means closed-loop.
+     * @param targetRate the arrival rate at the end of the stage. null means constant rate.
+     * @param threadCount the active thread count. null means all threads.
+     */
+    public LoadStage(String name, long durationMs, Double rate, Double targetRate, Integer threadCount) {
+
+        if (durationMs <= 0) {
+
+            throw new IllegalArgumentException("invalid duration " + durationMs + " ms");
+        }
+
+        if (rate != null && rate <= 0) {
+
+            throw new IllegalArgumentException("invalid rate " + rate);
+        }
+
+        if (targetRate != null && (rate == null || targetRate <= 0)) {
+
+            throw new IllegalArgumentException("invalid target rate " + targetRate);
+        }
+
+        if (threadCount != null && threadCount < 1) {
+
+            throw new IllegalArgumentException("invalid thread count " + threadCount);
+        }
+
+        this.name = name;
+        this.durationMs = durationMs;
+        this.rate = rate;
+        this.targetRate = targetRate;
+        this.threadCount = threadCount;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public String getName() {
+
+        return name;
+    }
+
+    public long getDurationMs() {
+
+        return durationMs;
+    }
+
+    /**
+     * @return the arrival rate at the beginning of the stage, in operations per second, or null if the stage is run in
+     * closed-loop mode.
+     */
+    public Double getRate() {
+
+        return rate;
+    }
+
+    /**
+     * @return the arrival rate at the end of the stage, in operations per second. Same as getRate() if the rate is
+     * constant.
+     */
+    public Double getTargetRate() {
+
+        return targetRate == null ? rate : targetRate;
+    }
+
+    /**
+     * @return the active thread count, or null if all threads are active.
+     */
+    public Integer getThreadCount() {
+
+        return threadCount;
+    }
+
+    @Override
+    public String toString() {
+
+        String s = name + ": ";
+
+        if (rate == null) {
+
+            s += "closed-loop";
+        }
+        else if (targetRate == null) {
+
+            s += rate + " ops/s";
+        }
+        else {
+
+            s += rate + " -> " + targetRate + " ops/s";
+        }
+
+        if (threadCount != null) {
+
+            s += ", " + threadCount + " thread(s)";
+        }
+
+        return s + ", " + durationMs + " ms";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
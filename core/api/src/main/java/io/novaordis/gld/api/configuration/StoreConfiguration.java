@@ -42,8 +42,8 @@ public interface StoreConfiguration extends LowLevelConfiguration {
     // Typed Access ----------------------------------------------------------------------------------------------------
 
     /**
-     * A well-known store type ("in-memory", "hierarchical", etc.) or a fully qualified class name that can be
-     * instantiated by reflection.
+     * A well-known store type ("in-memory", "hierarchical", "segment-log", etc.) or a fully qualified class name that
+     * can be instantiated by reflection.
      *
      * May return null.
      */
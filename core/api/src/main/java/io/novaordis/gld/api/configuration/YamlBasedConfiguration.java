@@ -102,56 +102,7 @@ public class YamlBasedConfiguration implements Configuration {
 
             is = new BufferedInputStream(new FileInputStream(file));
 
-            Yaml yaml = new Yaml();
-
-            Object content = yaml.load(is);
-
-            if (content == null) {
-
-                throw new UserErrorException("empty configuration file " + f);
-            }
-            else if (!(content instanceof Map)) {
-
-                throw new UserErrorException("invalid configuration file " + f);
-            }
-
-            Map topLevelConfigurationMap = (Map)content;
-
-            Map<String, Object> serviceConfigurationMap = null;
-            Map<String, Object> loadConfigurationMap = null;
-            Map<String, Object> storeConfigurationMap = null;
-            Map<String, Object> outputConfigurationMap = null;
-
-            //noinspection ConstantConditions
-            if (topLevelConfigurationMap != null) {
-
-                //noinspection unchecked
-                serviceConfigurationMap = (Map<String, Object>)topLevelConfigurationMap.get(SERVICE_SECTION_LABEL);
-
-                //noinspection unchecked
-                loadConfigurationMap = (Map<String, Object>)topLevelConfigurationMap.get(LOAD_SECTION_LABEL);
-
-                //noinspection unchecked
-                storeConfigurationMap = (Map<String, Object>)topLevelConfigurationMap.get(STORE_SECTION_LABEL);
-
-                //noinspection unchecked
-                outputConfigurationMap = (Map<String, Object>)topLevelConfigurationMap.get(OUTPUT_SECTION_LABEL);
-            }
-
-            if (serviceConfigurationMap == null) {
-
-                throw new UserErrorException(
-                        "'" + SERVICE_SECTION_LABEL + "' section empty or missing from configuration file " + file);
-            }
-
-            serviceConfiguration = buildServiceConfiguration(serviceConfigurationMap, configurationDirectory);
-
-            ServiceType st = serviceConfiguration.getType();
-
-            loadConfiguration = new LoadConfigurationImpl(st, loadConfigurationMap, configurationDirectory);
-            storeConfiguration = new StoreConfigurationImpl(storeConfigurationMap, configurationDirectory);
-            outputConfiguration = new OutputConfigurationImpl(outputConfigurationMap, configurationDirectory);
-
+            load(is, configurationDirectory, "configuration file " + f);
         }
         finally {
 
@@ -162,6 +113,22 @@ public class YamlBasedConfiguration implements Configuration {
         }
     }
 
+    /**
+     * Loads the configuration from the specified stream, which is not closed. Used when the configuration content does
+     * not come from a local file, for example when it is received over the network by a cluster agent.
+     *
+     * @param configurationDirectory the directory relative paths are resolved against.
+     */
+    public void load(InputStream is, File configurationDirectory) throws Exception {
+
+        if (configurationDirectory == null) {
+
+            throw new IllegalArgumentException("null configuration directory");
+        }
+
+        load(is, configurationDirectory, "configuration");
+    }
+
     @Override
     public String toString() {
 
@@ -182,6 +149,58 @@ public class YamlBasedConfiguration implements Configuration {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    /**
+     * @param origin used in error messages.
+     */
+    private void load(InputStream is, File configurationDirectory, String origin) throws Exception {
+
+        this.configurationDirectory = configurationDirectory;
+
+        Yaml yaml = new Yaml();
+
+        Object content = yaml.load(is);
+
+        if (content == null) {
+
+            throw new UserErrorException("empty " + origin);
+        }
+        else if (!(content instanceof Map)) {
+
+            throw new UserErrorException("invalid " + origin);
+        }
+
+        Map topLevelConfigurationMap = (Map)content;
+
+        //noinspection unchecked
+        Map<String, Object> serviceConfigurationMap =
+                (Map<String, Object>)topLevelConfigurationMap.get(SERVICE_SECTION_LABEL);
+
+        //noinspection unchecked
+        Map<String, Object> loadConfigurationMap = (Map<String, Object>)topLevelConfigurationMap.get(LOAD_SECTION_LABEL);
+
+        //noinspection unchecked
+        Map<String, Object> storeConfigurationMap =
+                (Map<String, Object>)topLevelConfigurationMap.get(STORE_SECTION_LABEL);
+
+        //noinspection unchecked
+        Map<String, Object> outputConfigurationMap =
+                (Map<String, Object>)topLevelConfigurationMap.get(OUTPUT_SECTION_LABEL);
+
+        if (serviceConfigurationMap == null) {
+
+            throw new UserErrorException(
+                    "'" + SERVICE_SECTION_LABEL + "' section empty or missing from " + origin);
+        }
+
+        serviceConfiguration = buildServiceConfiguration(serviceConfigurationMap, configurationDirectory);
+
+        ServiceType st = serviceConfiguration.getType();
+
+        loadConfiguration = new LoadConfigurationImpl(st, loadConfigurationMap, configurationDirectory);
+        storeConfiguration = new StoreConfigurationImpl(storeConfigurationMap, configurationDirectory);
+        outputConfiguration = new OutputConfigurationImpl(outputConfigurationMap, configurationDirectory);
+    }
+
     private static ServiceType extractServiceType(Map<String, Object> serviceConfigurationMap)
             throws UserErrorException {
 
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms;
+
+import javax.jms.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection counters maintained by the JMS service: the number of threads that use the connection and the number
+ * of operations performed over it, from which the connection's throughput is derived. They show how evenly the load is
+ * spread across the connections of a pool, and whether a single connection is saturated.
+ *
+ * Thread safe.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class ConnectionStatistics {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final int index;
+
+    private final Connection connection;
+
+    private final long createdMs;
+
+    private final AtomicInteger threadCount;
+
+    private final AtomicLong operationCount;
+
+    private volatile long closedMs;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param index the position of the connection in the order the service created its connections.
+     */
+    public ConnectionStatistics(int index, Connection connection) {
+
+        this.index = index;
+        this.connection = connection;
+        this.createdMs = System.currentTimeMillis();
+        this.threadCount = new AtomicInteger();
+        this.operationCount = new AtomicLong();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public int getIndex() {
+
+        return index;
+    }
+
+    public Connection getConnection() {
+
+        return connection;
+    }
+
+    /**
+     * @return the number of threads the connection was assigned to. Not relevant for per-run connections, which are
+     * shared by all threads without an explicit assignment.
+     */
+    public int getThreadCount() {
+
+        return threadCount.get();
+    }
+
+    /**
+     * @return the number of operations performed over the connection.
+     */
+    public long getOperationCount() {
+
+        return operationCount.get();
+    }
+
+    /**
+     * @return the number of operations per second performed over the connection, from the moment it was created until
+     * it was closed, or until now, if it is still open.
+     */
+    public double getThroughput() {
+
+        long end = closedMs == 0 ? System.currentTimeMillis() : closedMs;
+
+        long elapsedMs = end - createdMs;
+
+        if (elapsedMs <= 0) {
+
+            return 0d;
+        }
+
+        return operationCount.get() * 1000d / elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("connection %d: %d thread(s), %d operations, %.1f operations/sec",
+                index, threadCount.get(), operationCount.get(), getThroughput());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    void threadAssigned() {
+
+        threadCount.incrementAndGet();
+    }
+
+    void operationPerformed() {
+
+        operationCount.incrementAndGet();
+    }
+
+    void closed() {
+
+        closedMs = System.currentTimeMillis();
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -44,6 +44,36 @@ abstract class DestinationBase implements Destination {
         return name;
     }
 
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Two destinations are equal if they are of the same type (queue or topic) and have the same name. Allows
+     * destinations to be used as keys when caching destination-bound JMS resources.
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+
+        if (o == null || !getClass().equals(o.getClass()))
+        {
+            return false;
+        }
+
+        DestinationBase that = (DestinationBase)o;
+
+        return name != null && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return name == null ? 0 : name.hashCode();
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
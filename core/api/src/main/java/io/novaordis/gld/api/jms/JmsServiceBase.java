@@ -20,8 +20,13 @@ import io.novaordis.gld.api.ErrorCodes;
 import io.novaordis.gld.api.LoadStrategy;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.jms.load.ConnectionPolicy;
+import io.novaordis.gld.api.jms.load.ConsumerPolicy;
 import io.novaordis.gld.api.jms.load.JMSLoadStrategy;
+import io.novaordis.gld.api.jms.load.ProducerPolicy;
+import io.novaordis.gld.api.jms.load.ReceiveLoadStrategy;
 import io.novaordis.gld.api.jms.load.SessionPolicy;
+import io.novaordis.gld.api.jms.operation.Commit;
+import io.novaordis.gld.api.jms.operation.Deliver;
 import io.novaordis.gld.api.jms.operation.JmsOperation;
 import io.novaordis.gld.api.jms.operation.Receive;
 import io.novaordis.gld.api.jms.operation.Send;
@@ -33,11 +38,18 @@ import org.slf4j.LoggerFactory;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
+import javax.jms.DeliveryMode;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageProducer;
 import javax.jms.Session;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A base implementation of a JMS service. Most JMS Service implementations, unless they have special needs, should
@@ -57,7 +69,26 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
     // Attributes ------------------------------------------------------------------------------------------------------
 
     private ConnectionPolicy connectionPolicy;
+
+    // the number of connections, if the connection policy is ConnectionPolicy.CONNECTION_POOL
+    private int connectionPoolSize = 1;
+
     private SessionPolicy sessionPolicy;
+    private ProducerPolicy producerPolicy;
+    private ConsumerPolicy consumerPolicy;
+
+    //
+    // if true, the sessions are transacted and the transactions are committed by Commit operations
+    //
+    private boolean transacted;
+
+    private int deliveryMode = DeliveryMode.PERSISTENT;
+
+    //
+    // the acknowledgment mode of non-transacted sessions, or Session.SESSION_TRANSACTED if the message listeners
+    // acknowledge by committing
+    //
+    private int acknowledgeMode = Session.AUTO_ACKNOWLEDGE;
 
     private String connectionFactoryName;
 
@@ -65,10 +96,39 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
     private char[] password; // may be null
 
     //
-    // the only connection per service when the connection policy is ConnectionPolicy.CONNECTION_PER_RUN
+    // the only connection per service when the connection policy is ConnectionPolicy.CONNECTION_PER_RUN. For the other
+    // policies, this is the first connection, created when the service is started. Non-null means "started".
     //
     private Connection connection;
 
+    //
+    // the connection factory, resolved when the service is started
+    //
+    private ConnectionFactory connectionFactory;
+
+    //
+    // ConnectionPolicy.CONNECTION_POOL: the connections, created when the service is started and assigned to threads
+    // round robin on first use
+    //
+    private Connection[] connectionPool;
+    private final AtomicInteger nextPooledConnection = new AtomicInteger();
+
+    //
+    // ConnectionPolicy.CONNECTION_PER_THREAD: the connection created on start, not yet claimed by a thread
+    //
+    private final AtomicReference<Connection> unassignedConnection = new AtomicReference<>();
+
+    //
+    // the connections assigned to threads, for ConnectionPolicy.CONNECTION_POOL and CONNECTION_PER_THREAD
+    //
+    private final Map<Thread, Connection> threadsToConnections = new ConcurrentHashMap<>();
+
+    //
+    // all the connections created or installed since the service was last started, in creation order
+    //
+    private final List<ConnectionStatistics> connectionStatistics = new CopyOnWriteArrayList<>();
+    private final Map<Connection, ConnectionStatistics> connectionsToStatistics = new ConcurrentHashMap<>();
+
     //
     // the structures that associate sessions to threads, if SessionPolicy.SESSION_PER_THREAD is in effect; will
     // be initialized by setSessionPolicy();
@@ -77,6 +137,19 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
     private Map<Thread, Session> threadsToSessions;
     private Map<Session, Thread> sessionsToThreads;
 
+    //
+    // the JMS destinations, resolved (possibly looked up in JNDI) once per destination and then reused
+    //
+    private final Map<Destination, javax.jms.Destination> resolvedDestinations = new ConcurrentHashMap<>();
+
+    //
+    // the producers and consumers cached per thread and destination, if ProducerPolicy.PRODUCER_PER_THREAD or
+    // ConsumerPolicy.CONSUMER_PER_THREAD are in effect. Listeners are always cached. A thread's inner map is only
+    // accessed by that thread, with the exception of stop().
+    //
+    private final Map<Thread, Map<Destination, JMSEndpoint>> threadsToProducers = new ConcurrentHashMap<>();
+    private final Map<Thread, Map<Destination, JMSEndpoint>> threadsToConsumers = new ConcurrentHashMap<>();
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     // JMSService implementation and overrides -------------------------------------------------------------------------
@@ -117,7 +190,13 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
         JMSLoadStrategy jmsLoadStrategy = (JMSLoadStrategy)s;
 
         setConnectionPolicy(jmsLoadStrategy.getConnectionPolicy());
+        setConnectionPoolSize(jmsLoadStrategy.getConnectionPoolSize());
         setSessionPolicy(jmsLoadStrategy.getSessionPolicy());
+        setProducerPolicy(jmsLoadStrategy.getProducerPolicy());
+        setConsumerPolicy(jmsLoadStrategy.getConsumerPolicy());
+        setTransacted(jmsLoadStrategy.isTransacted());
+        setDeliveryMode(jmsLoadStrategy.getDeliveryMode());
+        setAcknowledgeMode(jmsLoadStrategy.getAcknowledgeMode());
         setConnectionFactoryName(jmsLoadStrategy.getConnectionFactoryName());
         setUsername(jmsLoadStrategy.getUsername());
         setPassword(jmsLoadStrategy.getPassword());
@@ -138,11 +217,39 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
                 throw new IllegalStateException("load strategy not installed");
             }
 
-            if (!ConnectionPolicy.CONNECTION_PER_RUN.equals(connectionPolicy)) {
+            if (ConnectionPolicy.CONNECTION_PER_OPERATION.equals(connectionPolicy)) {
 
                 throw new RuntimeException("WE DON'T KNOW HOW TO HANDLE " + connectionPolicy);
             }
 
+            //
+            // the cached producers and consumers would not survive the closing of their sessions, a transaction
+            // spans several operations of the same thread, and a message listener owns its session
+            //
+
+            if (!SessionPolicy.SESSION_PER_THREAD.equals(sessionPolicy)) {
+
+                if (isListenerMode()) {
+
+                    throw new IllegalStateException("message listeners require " + SessionPolicy.SESSION_PER_THREAD);
+                }
+
+                if (transacted) {
+
+                    throw new IllegalStateException("transacted sessions require " + SessionPolicy.SESSION_PER_THREAD);
+                }
+
+                if (ProducerPolicy.PRODUCER_PER_THREAD.equals(producerPolicy)) {
+
+                    throw new IllegalStateException(producerPolicy + " requires " + SessionPolicy.SESSION_PER_THREAD);
+                }
+
+                if (ConsumerPolicy.CONSUMER_PER_THREAD.equals(consumerPolicy)) {
+
+                    throw new IllegalStateException(consumerPolicy + " requires " + SessionPolicy.SESSION_PER_THREAD);
+                }
+            }
+
             if (connection != null) {
 
                 //
@@ -164,33 +271,42 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
             // look up the ConnectionFactory
             //
 
-            ConnectionFactory connectionFactory = resolveConnectionFactory(connectionFactoryName);
+            ConnectionFactory cf = resolveConnectionFactory(connectionFactoryName);
 
-            if (connectionFactory == null) {
+            if (cf == null) {
 
                 throw new UserErrorException("connection factory " + connectionFactoryName + " not bound in JNDI");
             }
 
-            Connection c;
-
-            String username = getUsername();
+            connectionFactory = cf;
+            connectionStatistics.clear();
+            connectionsToStatistics.clear();
 
             try {
 
-                if (username != null) {
+                //
+                // the first connection is always created on start, so configuration and authentication problems
+                // surface early
+                //
 
-                    c = connectionFactory.createConnection(username, getPassword());
-                }
-                else {
+                Connection c = createConnection();
 
-                    c = connectionFactory.createConnection();
-                }
+                if (ConnectionPolicy.CONNECTION_POOL.equals(connectionPolicy)) {
 
-                log.debug("connection " + c + " created");
+                    Connection[] pool = new Connection[connectionPoolSize];
+                    pool[0] = c;
 
-                c.start();
+                    for(int i = 1; i < pool.length; i ++) {
 
-                log.debug("connection " + c + " started");
+                        pool[i] = createConnection();
+                    }
+
+                    connectionPool = pool;
+                }
+                else if (ConnectionPolicy.CONNECTION_PER_THREAD.equals(connectionPolicy)) {
+
+                    unassignedConnection.set(c);
+                }
 
                 setConnection(c);
             }
@@ -216,49 +332,101 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
 
         synchronized (this) {
 
-            //
-            // TODO this implies ConnectionPolicy.CONNECTION_PER_RUN, this code will need to be reviewed
-            //
-
             if (connection == null) {
 
                 return;
             }
 
-            try {
+            closeCachedEndpoints(threadsToProducers);
+            closeCachedEndpoints(threadsToConsumers);
 
-                connection.close();
+            if (transacted) {
+
+                commitOpenTransactions();
             }
-            catch(Exception e) {
+            resolvedDestinations.clear();
+
+            for(ConnectionStatistics cs: connectionStatistics) {
+
+                try {
 
-                log.warn("failed to close connection", e);
+                    cs.getConnection().close();
+                }
+                catch(Exception e) {
 
+                    log.warn("failed to close connection", e);
+
+                }
+
+                cs.closed();
+
+                log.info(cs.toString());
             }
 
             connection = null;
+            connectionFactory = null;
+            connectionPool = null;
+            unassignedConnection.set(null);
+            threadsToConnections.clear();
         }
     }
 
     @Override
     public JMSEndpoint checkOut(JmsOperation jmsOperation) throws JMSServiceException {
 
+        Destination d = jmsOperation.getDestination();
+
+        //
+        // if the producers/consumers are cached per thread, reuse the one previously created by this thread for this
+        // destination, if any
+        //
+
+        Map<Destination, JMSEndpoint> cachedEndpoints = getCachedEndpoints(jmsOperation);
+
+        JMSEndpoint endpoint = cachedEndpoints == null ? null : cachedEndpoints.get(d);
+
+        if (endpoint != null) {
+
+            //
+            // the operation is counted against the connection the cached endpoint was created on
+            //
+
+            operationPerformed(((JMSEndpointBase)endpoint).getConnection());
+
+            return endpoint;
+        }
+
         Connection connection = getConnection();
 
+        operationPerformed(connection);
+
         Session session = getSession(connection);
 
-        JMSEndpoint endpoint;
+        if (jmsOperation instanceof Commit) {
 
-        Destination d = jmsOperation.getDestination();
+            //
+            // commits act on the session only
+            //
 
-        javax.jms.Destination jmsDestination = resolveDestination(d);
+            return new SessionEndpoint(session, connection);
+        }
 
-        //
-        // insure the destination exists
-        //
+        javax.jms.Destination jmsDestination = resolvedDestinations.get(d);
 
         if (jmsDestination == null) {
 
-            throw new JMSServiceException("destination not found: " + d);
+            jmsDestination = resolveDestination(d);
+
+            //
+            // insure the destination exists
+            //
+
+            if (jmsDestination == null) {
+
+                throw new JMSServiceException("destination not found: " + d);
+            }
+
+            resolvedDestinations.put(d, jmsDestination);
         }
 
         if (jmsOperation instanceof Send) {
@@ -268,6 +436,11 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
             try {
 
                 jmsProducer = session.createProducer(jmsDestination);
+
+                if (deliveryMode != DeliveryMode.PERSISTENT) {
+
+                    jmsProducer.setDeliveryMode(deliveryMode);
+                }
             }
             catch (Exception e) {
 
@@ -290,12 +463,42 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
             }
             endpoint = new Consumer(jmsConsumer, session, connection);
         }
+        else if (jmsOperation instanceof Deliver) {
+
+            ReceiveLoadStrategy rls = (ReceiveLoadStrategy)jmsOperation.getLoadStrategy();
+
+            try {
+
+                MessageConsumer jmsConsumer = session.createConsumer(jmsDestination);
+
+                Listener listener = new Listener(jmsConsumer, session, connection,
+                        rls.getPrefetch(), acknowledgeMode, rls.getAcknowledgeBatchSize());
+
+                jmsConsumer.setMessageListener(listener);
+
+                endpoint = listener;
+            }
+            catch(Exception e) {
+
+                throw new JMSServiceException(e);
+            }
+        }
         else {
 
             throw new IllegalArgumentException("unknown JMS operation " + jmsOperation);
         }
 
-        log.debug("created " + endpoint);
+        if (cachedEndpoints != null) {
+
+            cachedEndpoints.put(d, endpoint);
+
+            log.debug("created " + endpoint + " and associated it with " + Thread.currentThread());
+        }
+        else {
+
+            log.debug("created " + endpoint);
+        }
+
         return endpoint;
     }
 
@@ -368,9 +571,15 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
                 }
 
                 //
-                // session match, we're good, leave the session alone but close the endpoint
+                // session match, we're good, leave the session alone but close the endpoint, unless it is cached
+                // for reuse by this thread
                 //
 
+                if (isCached(endpoint)) {
+
+                    return;
+                }
+
                 try {
 
                     endpoint.close();
@@ -389,8 +598,21 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return the counters of the connections created since the service was last started, in creation order. The
+     * counters are kept after the service is stopped, until it is started again.
+     */
+    public List<ConnectionStatistics> getConnectionStatistics() {
+
+        return new ArrayList<>(connectionStatistics);
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
+    /**
+     * @return the calling thread's connection, according to the connection policy, or null if the service is not
+     * started.
+     */
     Connection getConnection() throws JMSServiceException {
 
         if (ConnectionPolicy.CONNECTION_PER_RUN.equals(connectionPolicy)) {
@@ -401,10 +623,63 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
 
             return connection;
         }
+
+        if (connection == null) {
+
+            return null;
+        }
+
+        Thread thread = Thread.currentThread();
+
+        //
+        // only the thread itself associates a connection with the thread, so there is no race on the association
+        //
+
+        Connection c = threadsToConnections.get(thread);
+
+        if (c != null) {
+
+            return c;
+        }
+
+        if (ConnectionPolicy.CONNECTION_POOL.equals(connectionPolicy)) {
+
+            Connection[] pool = connectionPool;
+            c = pool[Math.floorMod(nextPooledConnection.getAndIncrement(), pool.length)];
+        }
+        else if (ConnectionPolicy.CONNECTION_PER_THREAD.equals(connectionPolicy)) {
+
+            c = unassignedConnection.getAndSet(null);
+
+            if (c == null) {
+
+                try {
+
+                    c = createConnection();
+                }
+                catch(Exception e) {
+
+                    throw new JMSServiceException(e);
+                }
+            }
+        }
         else {
 
             throw new RuntimeException("WE DON'T KNOW HOW TO HANDLE " + connectionPolicy);
         }
+
+        threadsToConnections.put(thread, c);
+
+        ConnectionStatistics cs = connectionsToStatistics.get(c);
+
+        if (cs != null) {
+
+            cs.threadAssigned();
+        }
+
+        log.debug(c + " associated with " + thread);
+
+        return c;
     }
 
     Session getSession(Connection connection) throws JMSServiceException {
@@ -459,13 +734,18 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
     }
 
     /**
-     * Always creates a new session.
+     * Always creates a new session, transacted if the load strategy requires it.
      */
     Session createSession(Connection connection) throws JMSServiceException {
 
         try {
 
-            return connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            if (transacted || acknowledgeMode == Session.SESSION_TRANSACTED) {
+
+                return connection.createSession(true, Session.SESSION_TRANSACTED);
+            }
+
+            return connection.createSession(false, acknowledgeMode);
         }
         catch(Exception e) {
 
@@ -473,6 +753,32 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
         }
     }
 
+    /**
+     * @return the calling thread's producers or consumers, keyed by destination, if the producer, respectively the
+     * consumer policy requires per-thread caching, or the operation is consuming from a message listener, or null
+     * otherwise.
+     */
+    Map<Destination, JMSEndpoint> getCachedEndpoints(JmsOperation jmsOperation) {
+
+        Map<Thread, Map<Destination, JMSEndpoint>> m;
+
+        if (jmsOperation instanceof Send && ProducerPolicy.PRODUCER_PER_THREAD.equals(producerPolicy)) {
+
+            m = threadsToProducers;
+        }
+        else if (jmsOperation instanceof Receive && ConsumerPolicy.CONSUMER_PER_THREAD.equals(consumerPolicy) ||
+                jmsOperation instanceof Deliver) {
+
+            m = threadsToConsumers;
+        }
+        else {
+
+            return null;
+        }
+
+        return m.computeIfAbsent(Thread.currentThread(), t -> new HashMap<>());
+    }
+
     String getConnectionFactoryName() {
 
         return connectionFactoryName;
@@ -487,6 +793,16 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
         log.debug(this + " installed " + this.connectionPolicy);
     }
 
+    protected int getConnectionPoolSize() {
+
+        return connectionPoolSize;
+    }
+
+    protected void setConnectionPoolSize(int connectionPoolSize) {
+
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
     protected void setUsername(String username) {
 
         this.username = username;
@@ -538,10 +854,71 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
         }
     }
 
+    protected ProducerPolicy getProducerPolicy() {
+
+        return producerPolicy;
+    }
+
+    protected void setProducerPolicy(ProducerPolicy pp) {
+
+        this.producerPolicy = pp;
+    }
+
+    protected ConsumerPolicy getConsumerPolicy() {
+
+        return consumerPolicy;
+    }
+
+    protected void setConsumerPolicy(ConsumerPolicy cp) {
+
+        this.consumerPolicy = cp;
+    }
+
+    protected boolean isTransacted() {
+
+        return transacted;
+    }
+
+    protected void setTransacted(boolean b) {
+
+        this.transacted = b;
+    }
+
+    /**
+     * @return one of the javax.jms.DeliveryMode constants.
+     */
+    protected int getDeliveryMode() {
+
+        return deliveryMode;
+    }
+
+    protected void setDeliveryMode(int deliveryMode) {
+
+        this.deliveryMode = deliveryMode;
+    }
+
+    /**
+     * @return one of the javax.jms.Session acknowledgment modes.
+     */
+    protected int getAcknowledgeMode() {
+
+        return acknowledgeMode;
+    }
+
+    protected void setAcknowledgeMode(int acknowledgeMode) {
+
+        this.acknowledgeMode = acknowledgeMode;
+    }
+
     protected void setConnection(Connection c) {
 
         this.connection = c;
 
+        if (c != null) {
+
+            register(c);
+        }
+
         log.debug(this + " installed connection " + c);
     }
 
@@ -553,6 +930,116 @@ public abstract class JMSServiceBase extends ServiceBase implements JMSService {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    /**
+     * Creates and starts a new connection, and registers it with the per-connection counters.
+     */
+    private Connection createConnection() throws Exception {
+
+        Connection c;
+
+        String username = getUsername();
+
+        if (username != null) {
+
+            c = connectionFactory.createConnection(username, getPassword());
+        }
+        else {
+
+            c = connectionFactory.createConnection();
+        }
+
+        log.debug("connection " + c + " created");
+
+        c.start();
+
+        log.debug("connection " + c + " started");
+
+        register(c);
+
+        return c;
+    }
+
+    private synchronized void register(Connection c) {
+
+        connectionsToStatistics.computeIfAbsent(c, k -> {
+
+            ConnectionStatistics cs = new ConnectionStatistics(connectionStatistics.size(), k);
+            connectionStatistics.add(cs);
+            return cs;
+        });
+    }
+
+    private void operationPerformed(Connection c) {
+
+        ConnectionStatistics cs = c == null ? null : connectionsToStatistics.get(c);
+
+        if (cs != null) {
+
+            cs.operationPerformed();
+        }
+    }
+
+    private boolean isCached(JMSEndpoint endpoint) {
+
+        return endpoint instanceof Producer && ProducerPolicy.PRODUCER_PER_THREAD.equals(producerPolicy) ||
+                endpoint instanceof Consumer && ConsumerPolicy.CONSUMER_PER_THREAD.equals(consumerPolicy) ||
+                endpoint instanceof Listener;
+    }
+
+    private boolean isListenerMode() {
+
+        LoadStrategy s = getLoadStrategy();
+
+        return s instanceof ReceiveLoadStrategy && ((ReceiveLoadStrategy)s).isListenerMode();
+    }
+
+    private void closeCachedEndpoints(Map<Thread, Map<Destination, JMSEndpoint>> threadsToEndpoints) {
+
+        for(Map<Destination, JMSEndpoint> endpoints: threadsToEndpoints.values()) {
+
+            for(JMSEndpoint e: endpoints.values()) {
+
+                try {
+
+                    e.close();
+                }
+                catch(Exception ex) {
+
+                    log.warn("failed to close " + e, ex);
+                }
+            }
+        }
+
+        threadsToEndpoints.clear();
+    }
+
+    /**
+     * Commits the per-thread sessions' last transactions, which would be otherwise rolled back when the connection is
+     * closed. Must be called after the threads stopped using their sessions.
+     */
+    private void commitOpenTransactions() {
+
+        synchronized (sessionMutex) {
+
+            if (threadsToSessions == null) {
+
+                return;
+            }
+
+            for(Session s: threadsToSessions.values()) {
+
+                try {
+
+                    s.commit();
+                }
+                catch(Exception e) {
+
+                    log.warn("failed to commit the last transaction of " + s, e);
+                }
+            }
+        }
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
 }
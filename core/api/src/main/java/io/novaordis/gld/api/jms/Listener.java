@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A consumer endpoint whose messages are pushed by the JMS provider into a MessageListener, instead of being pulled
+ * with receive(). The listener hands the messages over to the load driver thread that owns the endpoint through a
+ * bounded buffer: the buffer capacity is the number of messages the listener accepts ahead of the load driver thread
+ * (the prefetch). Once the buffer is full, the listener blocks the provider's delivery thread, pushing the back
+ * pressure into the provider.
+ *
+ * With CLIENT_ACKNOWLEDGE and transacted sessions, the listener acknowledges, respectively commits, every
+ * "acknowledge batch size" messages. This happens on the provider's delivery thread, which owns the session while a
+ * message listener is installed. An acknowledgment covers all the messages delivered to the session, so when a batch
+ * is due, the listener waits until the load driver thread took all the buffered messages: only messages handed over
+ * to Deliver are acknowledged or committed, at the price of draining the prefetch buffer once per batch.
+ *
+ * When the endpoint is closed, the remaining messages are acknowledged, respectively committed, if all of them were
+ * taken. Otherwise, the session is recovered, respectively rolled back, so the messages that were never taken are
+ * redelivered instead of being lost; the taken but not yet acknowledged messages are redelivered as well. With
+ * AUTO_ACKNOWLEDGE and DUPS_OK_ACKNOWLEDGE, the provider already acknowledged the buffered messages, so the messages
+ * that were never taken are lost. In all cases, they are counted and reported.
+ *
+ * @see io.novaordis.gld.api.jms.operation.Deliver
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class Listener extends JMSEndpointBase implements MessageListener {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(Listener.class);
+
+    //
+    // the interval at which the threads waiting on the buffer without a timeout check whether the endpoint was closed
+    //
+    public static final long CLOSE_CHECK_INTERVAL_MS = 100L;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private MessageConsumer consumer;
+
+    private BlockingQueue<Message> buffer;
+
+    // one of the javax.jms.Session acknowledgment modes
+    private int acknowledgeMode;
+    private int acknowledgeBatchSize;
+
+    //
+    // only accessed from the provider's delivery thread, and on close, after the delivery stopped
+    //
+    private int unacknowledgedCount;
+    private Message lastUnacknowledged;
+
+    // signaled by the load driver thread when it empties the buffer
+    private final Object drained;
+
+    private volatile boolean closed;
+
+    private int untakenCount;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Does not install itself as the consumer's message listener, the caller must do it.
+     *
+     * @param prefetch the capacity of the buffer between the listener and the load driver thread.
+     * @param acknowledgeMode one of the javax.jms.Session acknowledgment modes.
+     * @param acknowledgeBatchSize the number of messages acknowledged (or committed) at once, for CLIENT_ACKNOWLEDGE and
+     *                             transacted sessions.
+     */
+    public Listener(MessageConsumer consumer, Session session, Connection connection,
+                    int prefetch, int acknowledgeMode, int acknowledgeBatchSize) {
+
+        super(session, connection);
+
+        if (prefetch < 1) {
+
+            throw new IllegalArgumentException("invalid prefetch " + prefetch);
+        }
+
+        if (acknowledgeBatchSize < 1) {
+
+            throw new IllegalArgumentException("invalid acknowledge batch size " + acknowledgeBatchSize);
+        }
+
+        this.consumer = consumer;
+        this.buffer = new ArrayBlockingQueue<>(prefetch);
+        this.acknowledgeMode = acknowledgeMode;
+        this.acknowledgeBatchSize = acknowledgeBatchSize;
+        this.drained = new Object();
+    }
+
+    // MessageListener implementation ----------------------------------------------------------------------------------
+
+    @Override
+    public void onMessage(Message message) {
+
+        try {
+
+            //
+            // block while the buffer is full, but give up if the endpoint is closed, otherwise the closing thread,
+            // which waits for the listener to complete, would deadlock; the message will be redelivered
+            //
+
+            while(!buffer.offer(message, CLOSE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+
+                if (closed) {
+
+                    return;
+                }
+            }
+
+            if (!isAcknowledgedByListener()) {
+
+                return;
+            }
+
+            lastUnacknowledged = message;
+
+            if (++ unacknowledgedCount < acknowledgeBatchSize) {
+
+                return;
+            }
+
+            //
+            // the acknowledgment covers all the messages delivered so far, including the buffered ones, so wait
+            // until the load driver thread took them; if the endpoint is closed, close() sorts out the rest
+            //
+
+            synchronized (drained) {
+
+                while(!buffer.isEmpty()) {
+
+                    if (closed) {
+
+                        return;
+                    }
+
+                    drained.wait(CLOSE_CHECK_INTERVAL_MS);
+                }
+            }
+
+            acknowledge();
+        }
+        catch(InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+        catch(Exception e) {
+
+            log.warn(this + " failed to process " + message, e);
+        }
+    }
+
+    // JMSEndpoint implementation --------------------------------------------------------------------------------------
+
+    /**
+     * @see JMSEndpoint#close()
+     */
+    @Override
+    public void close() throws Exception {
+
+        // do not close the session, it may be reused
+
+        closed = true;
+
+        //
+        // close() blocks until a message listener in progress completes, so we can acknowledge, or recover, the
+        // remaining messages from this thread
+        //
+
+        consumer.close();
+
+        int untaken = buffer.size();
+
+        if (untaken == 0) {
+
+            if (unacknowledgedCount > 0) {
+
+                acknowledge();
+            }
+
+            return;
+        }
+
+        buffer.clear();
+        untakenCount += untaken;
+
+        if (acknowledgeMode == Session.SESSION_TRANSACTED) {
+
+            getSession().rollback();
+            log.warn(this + " rolled back " + untaken + " message(s) that were not taken, they will be redelivered");
+        }
+        else if (acknowledgeMode == Session.CLIENT_ACKNOWLEDGE) {
+
+            getSession().recover();
+            log.warn(this + " recovered " + untaken + " message(s) that were not taken, they will be redelivered");
+        }
+        else {
+
+            log.warn(this + " discarded " + untaken + " acknowledged message(s) that were not taken");
+        }
+
+        unacknowledgedCount = 0;
+        lastUnacknowledged = null;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Waits for the next message delivered by the provider.
+     *
+     * @param timeoutMs 0 means wait until a message arrives or the endpoint is closed.
+     *
+     * @return the next message, or null if no message arrived before the timeout expired or the endpoint was closed.
+     */
+    public Message take(long timeoutMs) throws InterruptedException {
+
+        Message m = null;
+
+        if (timeoutMs > 0) {
+
+            m = buffer.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        else {
+
+            while(m == null && !closed) {
+
+                m = buffer.poll(CLOSE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (m != null && isAcknowledgedByListener() && buffer.isEmpty()) {
+
+            synchronized (drained) {
+
+                drained.notifyAll();
+            }
+        }
+
+        return m;
+    }
+
+    public MessageConsumer getConsumer() {
+
+        return consumer;
+    }
+
+    public int getPrefetch() {
+
+        return buffer.size() + buffer.remainingCapacity();
+    }
+
+    /**
+     * @return the number of delivered messages that were not yet taken by the load driver thread.
+     */
+    public int getBufferedCount() {
+
+        return buffer.size();
+    }
+
+    /**
+     * @return the number of delivered messages that were never taken by the load driver thread, because the endpoint
+     * was closed first.
+     */
+    public int getUntakenCount() {
+
+        return untakenCount;
+    }
+
+    public int getAcknowledgeMode() {
+
+        return acknowledgeMode;
+    }
+
+    public int getAcknowledgeBatchSize() {
+
+        return acknowledgeBatchSize;
+    }
+
+    public boolean isClosed() {
+
+        return closed;
+    }
+
+    @Override
+    public String toString() {
+
+        return "Listener[" + consumer + ", " + getSession() + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the listener acknowledges, or commits, the messages itself, false if the provider does.
+     */
+    private boolean isAcknowledgedByListener() {
+
+        return acknowledgeMode == Session.CLIENT_ACKNOWLEDGE || acknowledgeMode == Session.SESSION_TRANSACTED;
+    }
+
+    private void acknowledge() throws Exception {
+
+        if (acknowledgeMode == Session.SESSION_TRANSACTED) {
+
+            getSession().commit();
+        }
+        else {
+
+            //
+            // acknowledging a message acknowledges all the messages consumed by the session
+            //
+
+            lastUnacknowledged.acknowledge();
+        }
+
+        unacknowledgedCount = 0;
+        lastUnacknowledged = null;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -37,10 +37,10 @@ public class EmbeddedConnection implements Connection, TestableConnection {
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
-    private boolean started;
+    private volatile boolean started;
 
     // a closed connection cannot be reused
-    private boolean closed;
+    private volatile boolean closed;
 
     private List<EmbeddedSession> createdSessions;
 
@@ -88,7 +88,7 @@ public class EmbeddedConnection implements Connection, TestableConnection {
     // Connection implementation ---------------------------------------------------------------------------------------
 
     @Override
-    public Session createSession(boolean b, int i) throws JMSException {
+    public synchronized Session createSession(boolean b, int i) throws JMSException {
 
         EmbeddedSession s = new EmbeddedSession(this, sessionCounter++, b, i);
         createdSessions.add(s);
@@ -17,39 +17,72 @@
 package io.novaordis.gld.api.jms.embedded;
 
 import javax.jms.Message;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
-public class EmbeddedDestination implements javax.jms.Destination, TestableDestination {
+/**
+ * A destination of the in-process broker. Messages sent to a destination are routed to its subscriptions, from where
+ * they are delivered to consumers.
+ *
+ * A destination may be bounded, in which case the senders block while the destination is full, and it may simulate
+ * the latency of a real broker: the send latency holds the producer for the duration of a synchronous send round trip,
+ * and the delivery latency keeps a sent message invisible to the consumers for the time it would spend in flight.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public abstract class EmbeddedDestination implements javax.jms.Destination, TestableDestination {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
     private String name;
 
-    private Queue<Message> messages;
-    private List<Message> messagesSent;
+    private int capacity;
+
+    private volatile long sendLatencyMs;
+    private volatile long deliveryLatencyMs;
+
+    private MessageHistory messagesSent;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public EmbeddedDestination(String name) {
 
+        this(name, UNBOUNDED);
+    }
+
+    /**
+     * @param capacity the maximum number of messages pending delivery, or delivered but not yet acknowledged, per
+     *                 subscription. UNBOUNDED for no limit.
+     */
+    public EmbeddedDestination(String name, int capacity) {
+
+        if (capacity < 1) {
+
+            throw new IllegalArgumentException("invalid capacity " + capacity);
+        }
+
         this.name = name;
-        this.messages = new ConcurrentLinkedQueue<>();
-        this.messagesSent = new ArrayList<>();
+        this.capacity = capacity;
+        this.messagesSent = new MessageHistory();
     }
 
     // TestableDestination implementation ------------------------------------------------------------------------------
 
+    /**
+     * @return a snapshot of the most recent messages sent to this destination, at most MessageHistory.DEFAULT_CAPACITY.
+     *
+     * @see EmbeddedDestination#getSentCount()
+     */
     @Override
     public List<Message> getMessagesSent() {
 
-        return messagesSent;
+        return messagesSent.getMessages();
     }
 
     // Public ----------------------------------------------------------------------------------------------------------
@@ -59,41 +92,72 @@ public class EmbeddedDestination implements javax.jms.Destination, TestableDesti
         return name;
     }
 
+    /**
+     * Routes the message to the subscriptions, blocking while any of them is full. Does not simulate the send
+     * latency, which is the producer's responsibility.
+     */
     public void add(Message m) {
 
-        messages.add(m);
         messagesSent.add(m);
+
+        long latencyMs = deliveryLatencyMs;
+        long availableAtNanos = latencyMs == 0L ? 0L : System.nanoTime() + latencyMs * 1000000L;
+
+        try {
+
+            route(m, availableAtNanos);
+        }
+        catch(InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while sending to " + this, e);
+        }
     }
 
-    public Message get(long timeoutMs) {
+    /**
+     * @return the total number of messages sent to this destination.
+     */
+    public long getSentCount() {
+
+        return messagesSent.getCount();
+    }
 
-        Message m = messages.poll();
+    /**
+     * @return UNBOUNDED if the destination is not bounded.
+     */
+    public int getCapacity() {
 
-        if (m == null) {
+        return capacity;
+    }
 
-            //
-            // simulate timeout
-            //
+    public long getSendLatencyMs() {
 
-            if (timeoutMs > 0) {
+        return sendLatencyMs;
+    }
 
-                try {
+    public void setSendLatencyMs(long sendLatencyMs) {
 
-                    Thread.sleep(timeoutMs);
-                }
-                catch(Exception e) {
+        if (sendLatencyMs < 0) {
 
-                    throw new IllegalArgumentException(e);
-                }
-            }
+            throw new IllegalArgumentException("invalid send latency " + sendLatencyMs);
         }
 
-        return m;
+        this.sendLatencyMs = sendLatencyMs;
     }
 
-    public boolean isEmpty() {
+    public long getDeliveryLatencyMs() {
 
-        return messages.isEmpty();
+        return deliveryLatencyMs;
+    }
+
+    public void setDeliveryLatencyMs(long deliveryLatencyMs) {
+
+        if (deliveryLatencyMs < 0) {
+
+            throw new IllegalArgumentException("invalid delivery latency " + deliveryLatencyMs);
+        }
+
+        this.deliveryLatencyMs = deliveryLatencyMs;
     }
 
     @Override
@@ -103,8 +167,20 @@ public class EmbeddedDestination implements javax.jms.Destination, TestableDesti
 
     // Package protected -----------------------------------------------------------------------------------------------
 
+    /**
+     * @return the subscription a new consumer of this destination receives its messages from.
+     */
+    abstract EmbeddedSubscription subscribe();
+
+    /**
+     * Invoked when the consumer closes.
+     */
+    abstract void unsubscribe(EmbeddedSubscription s);
+
     // Protected -------------------------------------------------------------------------------------------------------
 
+    protected abstract void route(Message m, long availableAtNanos) throws InterruptedException;
+
     // Private ---------------------------------------------------------------------------------------------------------
 
     // Inner classes ---------------------------------------------------------------------------------------------------
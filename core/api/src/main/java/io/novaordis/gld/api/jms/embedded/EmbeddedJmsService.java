@@ -16,6 +16,7 @@
 
 package io.novaordis.gld.api.jms.embedded;
 
+import io.novaordis.gld.api.configuration.LoadStage;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.jms.Destination;
 import io.novaordis.gld.api.jms.JMSServiceBase;
@@ -29,8 +30,19 @@ import javax.jms.Queue;
 import javax.jms.Topic;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * A JMS service backed by an in-process broker, which allows exercising the JMS load strategies without an external
+ * broker. Configuration:
+ *
+ * implementation:
+ *    name: embedded
+ *    destination-capacity: 10000     # optional, unbounded by default
+ *    send-latency: 2ms               # optional, simulates the round trip of a synchronous send
+ *    delivery-latency: 5ms           # optional, simulates the time a message spends in flight
+ *    auto-create-destinations: true  # optional, true by default
+ *
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 1/25/17
  */
@@ -46,6 +58,11 @@ public class EmbeddedJMSService extends JMSServiceBase {
     public static final char[] DEFAULT_AUTHORIZED_PASSWORD_AS_CHAR_ARRAY = new char[] {'m', 'o', 'c', 'k'};
     public static final String DEFAULT_AUTHORIZED_PASSWORD = new String(DEFAULT_AUTHORIZED_PASSWORD_AS_CHAR_ARRAY);
 
+    public static final String DESTINATION_CAPACITY_LABEL = "destination-capacity";
+    public static final String SEND_LATENCY_LABEL = "send-latency";
+    public static final String DELIVERY_LATENCY_LABEL = "delivery-latency";
+    public static final String AUTO_CREATE_DESTINATIONS_LABEL = "auto-create-destinations";
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
@@ -53,6 +70,18 @@ public class EmbeddedJMSService extends JMSServiceBase {
     private Map<String, EmbeddedConnectionFactory> connectionFactories;
     private Map<String, EmbeddedDestination> destinations;
 
+    // applied to the destinations created by this service
+    private int destinationCapacity;
+    private long sendLatencyMs;
+    private long deliveryLatencyMs;
+
+    //
+    // if true, unknown destinations are created when resolved. The destinations of a programmatically created service
+    // must be created explicitly, while a configured service creates them by default, as there is no other way to
+    // declare them
+    //
+    private boolean autoCreateDestinations;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public EmbeddedJMSService() {
@@ -68,7 +97,8 @@ public class EmbeddedJMSService extends JMSServiceBase {
 
         connectionFactories.put(DEFAULT_CONNECTION_FACTORY_NAME, cf);
 
-        this.destinations = new HashMap<>();
+        this.destinations = new ConcurrentHashMap<>();
+        this.destinationCapacity = EmbeddedDestination.UNBOUNDED;
     }
 
     // JMSService implementation ---------------------------------------------------------------------------------------
@@ -78,13 +108,50 @@ public class EmbeddedJMSService extends JMSServiceBase {
 
         super.configure(serviceConfiguration);
 
+        Object capacity;
+        Object sendLatency;
+        Object deliveryLatency;
+        Boolean autoCreate;
+
+        try {
+
+            capacity = getImplementationOption(serviceConfiguration, DESTINATION_CAPACITY_LABEL);
+            sendLatency = getImplementationOption(serviceConfiguration, SEND_LATENCY_LABEL);
+            deliveryLatency = getImplementationOption(serviceConfiguration, DELIVERY_LATENCY_LABEL);
+            autoCreate = serviceConfiguration.get(
+                    Boolean.class, ServiceConfiguration.IMPLEMENTATION_CONFIGURATION_LABEL,
+                    AUTO_CREATE_DESTINATIONS_LABEL);
+        }
+        catch(IllegalStateException e) {
+
+            throw new UserErrorException(e);
+        }
+
+        if (capacity != null) {
+
+            if (!(capacity instanceof Integer) || (Integer)capacity < 1) {
+
+                throw new UserErrorException(
+                        "invalid '" + DESTINATION_CAPACITY_LABEL + "' value: " + capacity +
+                                ", must be a positive integer");
+            }
+
+            destinationCapacity = (Integer)capacity;
+        }
+
+        sendLatencyMs = toLatencyMs(SEND_LATENCY_LABEL, sendLatency);
+        deliveryLatencyMs = toLatencyMs(DELIVERY_LATENCY_LABEL, deliveryLatency);
+        autoCreateDestinations = autoCreate == null || autoCreate;
+
         log.debug(this + " configured");
     }
 
     @Override
     public javax.jms.Destination resolveDestination(Destination d) {
 
-        EmbeddedDestination ed = destinations.get(d.getName());
+        EmbeddedDestination ed = autoCreateDestinations ?
+                destinations.computeIfAbsent(d.getName(), n -> newDestination(n, d.isQueue())) :
+                destinations.get(d.getName());
 
         if (ed != null) {
 
@@ -122,7 +189,7 @@ public class EmbeddedJMSService extends JMSServiceBase {
 
         if (d == null) {
 
-            d = queue ? new EmbeddedQueue(name) : new EmbeddedTopic(name);
+            d = newDestination(name, queue);
             destinations.put(name, d);
 
         }
@@ -145,8 +212,7 @@ public class EmbeddedJMSService extends JMSServiceBase {
 
     public void createDestination(Destination d) throws Exception {
 
-        EmbeddedDestination ed = d.isQueue() ? new EmbeddedQueue(d.getName()) : new EmbeddedTopic(d.getName());
-        destinations.put(d.getName(), ed);
+        destinations.put(d.getName(), newDestination(d.getName(), d.isQueue()));
     }
 
     public void removeDestination(String jndiName) throws Exception {
@@ -154,6 +220,26 @@ public class EmbeddedJMSService extends JMSServiceBase {
         destinations.remove(jndiName);
     }
 
+    public int getDestinationCapacity() {
+
+        return destinationCapacity;
+    }
+
+    public long getSendLatencyMs() {
+
+        return sendLatencyMs;
+    }
+
+    public long getDeliveryLatencyMs() {
+
+        return deliveryLatencyMs;
+    }
+
+    public boolean isAutoCreateDestinations() {
+
+        return autoCreateDestinations;
+    }
+
     @Override
     public String toString() {
 
@@ -167,6 +253,39 @@ public class EmbeddedJMSService extends JMSServiceBase {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private EmbeddedDestination newDestination(String name, boolean queue) {
+
+        EmbeddedDestination d =
+                queue ? new EmbeddedQueue(name, destinationCapacity) : new EmbeddedTopic(name, destinationCapacity);
+
+        d.setSendLatencyMs(sendLatencyMs);
+        d.setDeliveryLatencyMs(deliveryLatencyMs);
+
+        return d;
+    }
+
+    private static Object getImplementationOption(ServiceConfiguration sc, String label) {
+
+        return sc.get(Object.class, ServiceConfiguration.IMPLEMENTATION_CONFIGURATION_LABEL, label);
+    }
+
+    private static long toLatencyMs(String label, Object o) throws UserErrorException {
+
+        if (o == null) {
+
+            return 0L;
+        }
+
+        try {
+
+            return LoadStage.parseDuration(o);
+        }
+        catch(UserErrorException e) {
+
+            throw new UserErrorException("invalid '" + label + "': " + e.getMessage());
+        }
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
 }
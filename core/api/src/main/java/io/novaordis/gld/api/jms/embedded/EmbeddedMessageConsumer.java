@@ -16,6 +16,9 @@
 
 package io.novaordis.gld.api.jms.embedded;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -27,21 +30,37 @@ public class EmbeddedMessageConsumer implements MessageConsumer {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedMessageConsumer.class);
+
+    //
+    // the interval at which the delivery thread and the threads blocked in receive() without a timeout check whether
+    // the consumer was closed, or the connection stopped
+    //
+    public static final long DELIVERY_POLL_INTERVAL_MS = 10L;
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
     private EmbeddedDestination destination;
 
-    private boolean closed;
+    private EmbeddedSubscription subscription;
+
+    private volatile boolean closed;
 
     private EmbeddedSession session;
 
+    private volatile MessageListener listener;
+
+    // delivers the messages to the listener, if one is installed
+    private Thread deliveryThread;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public EmbeddedMessageConsumer(EmbeddedSession session, Destination destination) {
 
         this.destination = (EmbeddedDestination)destination;
+        this.subscription = this.destination.subscribe();
         this.closed = false;
         this.session = session;
     }
@@ -57,29 +76,59 @@ public class EmbeddedMessageConsumer implements MessageConsumer {
     @Override
     public MessageListener getMessageListener() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        return listener;
     }
 
     @Override
-    public void setMessageListener(MessageListener messageListener) throws JMSException {
+    public synchronized void setMessageListener(MessageListener messageListener) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        this.listener = messageListener;
+
+        if (messageListener == null || deliveryThread != null) {
+
+            return;
+        }
+
+        deliveryThread = new Thread(this::deliver, "embedded delivery " + destination);
+        deliveryThread.setDaemon(true);
+        deliveryThread.start();
     }
 
+    /**
+     * Blocks until a message arrives, or the consumer is closed.
+     */
     @Override
     public Message receive() throws JMSException {
 
         checkConnectionStarted();
 
-        return new EmbeddedTextMessage("TEST");
+        while(!closed) {
+
+            Message m = next(DELIVERY_POLL_INTERVAL_MS);
+
+            if (m != null) {
+
+                return m;
+            }
+        }
+
+        return null;
     }
 
+    /**
+     * @param timeoutMs 0 means wait until a message arrives, or the consumer is closed.
+     */
     @Override
     public Message receive(long timeoutMs) throws JMSException {
 
+        if (timeoutMs == 0L) {
+
+            return receive();
+        }
+
         checkConnectionStarted();
 
-        return destination.get(timeoutMs);
+        return next(timeoutMs);
     }
 
     @Override
@@ -87,13 +136,46 @@ public class EmbeddedMessageConsumer implements MessageConsumer {
 
         checkConnectionStarted();
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        return next(0L);
     }
 
     @Override
     public void close() throws JMSException {
 
+        if (closed) {
+
+            return;
+        }
+
         closed = true;
+
+        Thread t;
+
+        synchronized (this) {
+
+            t = deliveryThread;
+        }
+
+        if (t == null || t == Thread.currentThread()) {
+
+            destination.unsubscribe(subscription);
+            return;
+        }
+
+        //
+        // as required by the JMS specification, wait for the message listener in progress to complete
+        //
+
+        try {
+
+            t.join();
+        }
+        catch(InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+
+        destination.unsubscribe(subscription);
     }
 
     // Public ----------------------------------------------------------------------------------------------------------
@@ -114,6 +196,100 @@ public class EmbeddedMessageConsumer implements MessageConsumer {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private void deliver() {
+
+        while(!closed) {
+
+            MessageListener ml = listener;
+
+            if (ml == null || !session.getConnection().isStarted()) {
+
+                try {
+
+                    Thread.sleep(DELIVERY_POLL_INTERVAL_MS);
+                }
+                catch(InterruptedException e) {
+
+                    return;
+                }
+
+                continue;
+            }
+
+            EmbeddedSubscription.Delivery d;
+            Message m;
+
+            try {
+
+                d = subscription.poll(DELIVERY_POLL_INTERVAL_MS);
+
+                if (d == null) {
+
+                    continue;
+                }
+
+                m = session.deliver(d);
+            }
+            catch(InterruptedException e) {
+
+                return;
+            }
+            catch(JMSException e) {
+
+                log.warn(this + " failed to deliver", e);
+                continue;
+            }
+
+            try {
+
+                ml.onMessage(m);
+            }
+            catch(RuntimeException e) {
+
+                //
+                // there is no dead letter destination, so the message is not redelivered, it would fail again
+                //
+
+                log.warn(ml + " failed to process " + m, e);
+            }
+
+            //
+            // in automatic acknowledgment modes, the message is acknowledged after the message listener returns
+            //
+
+            session.autoAcknowledge(d);
+        }
+    }
+
+    /**
+     * @param timeoutMs 0 means do not wait.
+     *
+     * @return null if no message arrived before the timeout expired.
+     */
+    private Message next(long timeoutMs) throws JMSException {
+
+        EmbeddedSubscription.Delivery d;
+
+        try {
+
+            d = subscription.poll(timeoutMs);
+        }
+        catch(InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        if (d == null) {
+
+            return null;
+        }
+
+        Message m = session.deliver(d);
+        session.autoAcknowledge(d);
+        return m;
+    }
+
     private void checkConnectionStarted() {
 
         EmbeddedConnection c = session.getConnection();
@@ -16,11 +16,11 @@
 
 package io.novaordis.gld.api.jms.embedded;
 
+import javax.jms.DeliveryMode;
 import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageProducer;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -32,17 +32,31 @@ public class EmbeddedMessageProducer implements MessageProducer, TestableMessage
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
+    // may be null, in which case the messages are sent outside a session
+    private EmbeddedSession session;
+
     private Destination destination;
     private boolean closed;
-    private List<Message> messagesSentByThisProducer;
+    private int deliveryMode;
+    private MessageHistory messagesSentByThisProducer;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public EmbeddedMessageProducer(Destination destination) {
 
+        this(null, destination);
+    }
+
+    /**
+     * @param session may be null, in which case the messages are sent outside a session, as if it was not transacted.
+     */
+    public EmbeddedMessageProducer(EmbeddedSession session, Destination destination) {
+
+        this.session = session;
         this.destination = destination;
         this.closed = false;
-        this.messagesSentByThisProducer = new ArrayList<>();
+        this.deliveryMode = DeliveryMode.PERSISTENT;
+        this.messagesSentByThisProducer = new MessageHistory();
     }
 
     // MessageProducer implementation ----------------------------------------------------------------------------------
@@ -74,13 +88,13 @@ public class EmbeddedMessageProducer implements MessageProducer, TestableMessage
     @Override
     public void setDeliveryMode(int i) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        this.deliveryMode = i;
     }
 
     @Override
     public int getDeliveryMode() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        return deliveryMode;
     }
 
     @Override
@@ -128,11 +142,39 @@ public class EmbeddedMessageProducer implements MessageProducer, TestableMessage
 
         messagesSentByThisProducer.add(message);
 
-        if (destination != null) {
+        if (destination == null) {
+
+            return;
+        }
+
+        EmbeddedDestination ed = (EmbeddedDestination)destination;
+
+        long latencyMs = ed.getSendLatencyMs();
+
+        if (latencyMs > 0) {
+
+            //
+            // simulate the round trip of a synchronous send
+            //
+
+            try {
+
+                Thread.sleep(latencyMs);
+            }
+            catch(InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (session == null) {
 
-            EmbeddedDestination ed = (EmbeddedDestination)destination;
             ed.add(message);
         }
+        else {
+
+            session.send(ed, message);
+        }
     }
 
     @Override
@@ -166,9 +208,12 @@ public class EmbeddedMessageProducer implements MessageProducer, TestableMessage
         return closed;
     }
 
+    /**
+     * @return a snapshot of the most recent messages sent by this producer, at most MessageHistory.DEFAULT_CAPACITY.
+     */
     public List<Message> getMessagesSentByThisProducer() {
 
-        return messagesSentByThisProducer;
+        return messagesSentByThisProducer.getMessages();
     }
 
     // Package protected -----------------------------------------------------------------------------------------------
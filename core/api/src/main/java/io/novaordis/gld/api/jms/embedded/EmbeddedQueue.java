@@ -17,6 +17,7 @@
 package io.novaordis.gld.api.jms.embedded;
 
 import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.Queue;
 
 public class EmbeddedQueue extends EmbeddedDestination implements Queue, TestableQueue {
@@ -27,11 +28,20 @@ public class EmbeddedQueue extends EmbeddedDestination implements Queue, Testabl
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
+    // shared by all the competing consumers of the queue
+    private EmbeddedSubscription subscription;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public EmbeddedQueue(String name) {
 
-        super(name);
+        this(name, UNBOUNDED);
+    }
+
+    public EmbeddedQueue(String name, int capacity) {
+
+        super(name, capacity);
+        this.subscription = new EmbeddedSubscription(this);
     }
 
     // Queue implementation --------------------------------------------------------------------------------------------
@@ -44,10 +54,71 @@ public class EmbeddedQueue extends EmbeddedDestination implements Queue, Testabl
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    /**
+     * Removes the next message from the queue, bypassing the consumers and the acknowledgment.
+     *
+     * @param timeoutMs 0 means do not wait.
+     *
+     * @return the next message, or null if no message arrived before the timeout expired.
+     */
+    public Message get(long timeoutMs) {
+
+        EmbeddedSubscription.Delivery d;
+
+        try {
+
+            d = subscription.poll(timeoutMs);
+        }
+        catch(InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        if (d == null) {
+
+            return null;
+        }
+
+        d.acknowledge();
+        return d.getMessage();
+    }
+
+    public boolean isEmpty() {
+
+        return subscription.size() == 0;
+    }
+
+    /**
+     * @return the number of messages pending delivery.
+     */
+    public int size() {
+
+        return subscription.size();
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
+    @Override
+    EmbeddedSubscription subscribe() {
+
+        return subscription;
+    }
+
+    @Override
+    void unsubscribe(EmbeddedSubscription s) {
+
+        // the messages stay in the queue
+    }
+
     // Protected -------------------------------------------------------------------------------------------------------
 
+    @Override
+    protected void route(Message m, long availableAtNanos) throws InterruptedException {
+
+        subscription.put(m, availableAtNanos);
+    }
+
     // Private ---------------------------------------------------------------------------------------------------------
 
     // Inner classes ---------------------------------------------------------------------------------------------------
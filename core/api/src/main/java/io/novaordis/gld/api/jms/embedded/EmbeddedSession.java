@@ -38,6 +38,16 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Consumed messages are acknowledged on delivery in AUTO_ACKNOWLEDGE and DUPS_OK_ACKNOWLEDGE mode, by
+ * Message.acknowledge() in CLIENT_ACKNOWLEDGE mode and by commit() in transacted sessions. The messages delivered but
+ * not acknowledged are redelivered by recover(), rollback() and close().
+ *
+ * The messages sent in a transacted session are buffered, and they only reach their destinations on commit().
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
 public class EmbeddedSession implements Session, TestableSession {
 
     // Constants -------------------------------------------------------------------------------------------------------
@@ -49,10 +59,22 @@ public class EmbeddedSession implements Session, TestableSession {
     private boolean transacted;
     private int acknowledgment;
     private boolean closed;
+    private int commitCount;
 
     private List<EmbeddedMessageProducer> createdProducers;
     private List<EmbeddedMessageConsumer> createdConsumers;
 
+    //
+    // the session is used by its owner thread, and by the delivery threads of its consumers' message listeners, so
+    // the following lists are guarded by the session's lock
+    //
+
+    // delivered, but not yet acknowledged, in the order of delivery
+    private List<EmbeddedSubscription.Delivery> unacknowledged;
+
+    // sent in the current transaction
+    private List<PendingSend> pendingSends;
+
     private int sessionId;
 
     private EmbeddedConnection connection;
@@ -68,6 +90,8 @@ public class EmbeddedSession implements Session, TestableSession {
         this.closed = false;
         this.createdProducers = new ArrayList<>();
         this.createdConsumers = new ArrayList<>();
+        this.unacknowledged = new ArrayList<>();
+        this.pendingSends = new ArrayList<>();
     }
 
     // TestableSession ------------------------------------------------------------------------------------------------
@@ -154,13 +178,42 @@ public class EmbeddedSession implements Session, TestableSession {
     @Override
     public void commit() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        if (!transacted) {
+
+            throw new javax.jms.IllegalStateException("session not transacted");
+        }
+
+        List<PendingSend> sends;
+
+        synchronized (this) {
+
+            sends = pendingSends;
+            pendingSends = new ArrayList<>();
+            commitCount ++;
+        }
+
+        for(PendingSend ps: sends) {
+
+            ps.destination.add(ps.message);
+        }
+
+        acknowledgeAll();
     }
 
     @Override
     public void rollback() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        if (!transacted) {
+
+            throw new javax.jms.IllegalStateException("session not transacted");
+        }
+
+        synchronized (this) {
+
+            pendingSends.clear();
+        }
+
+        redeliver();
     }
 
     @Override
@@ -178,13 +231,29 @@ public class EmbeddedSession implements Session, TestableSession {
             p.close();
         }
 
+        //
+        // the open transaction is rolled back, and the unacknowledged messages are redelivered
+        //
+
+        synchronized (this) {
+
+            pendingSends.clear();
+        }
+
+        redeliver();
+
         this.closed = true;
     }
 
     @Override
     public void recover() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        if (transacted) {
+
+            throw new javax.jms.IllegalStateException("session is transacted");
+        }
+
+        redeliver();
     }
 
     @Override
@@ -208,7 +277,7 @@ public class EmbeddedSession implements Session, TestableSession {
     @Override
     public MessageProducer createProducer(Destination destination) throws JMSException {
 
-        EmbeddedMessageProducer p = new EmbeddedMessageProducer(destination);
+        EmbeddedMessageProducer p = new EmbeddedMessageProducer(this, destination);
         createdProducers.add(p);
         return p;
     }
@@ -289,6 +358,14 @@ public class EmbeddedSession implements Session, TestableSession {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return the number of times the session was committed.
+     */
+    public int getCommitCount() {
+
+        return commitCount;
+    }
+
     public List<EmbeddedMessageConsumer> getCreatedConsumers() {
 
         return createdConsumers;
@@ -335,10 +412,135 @@ public class EmbeddedSession implements Session, TestableSession {
 
     // Package protected -----------------------------------------------------------------------------------------------
 
+    /**
+     * Sends the message, or buffers it until commit if the session is transacted.
+     */
+    void send(EmbeddedDestination destination, Message message) {
+
+        if (!transacted) {
+
+            destination.add(message);
+            return;
+        }
+
+        synchronized (this) {
+
+            pendingSends.add(new PendingSend(destination, message));
+        }
+    }
+
+    /**
+     * Hands over a message to one of the session's consumers. In CLIENT_ACKNOWLEDGE mode and in transacted sessions,
+     * the message is kept until it is acknowledged, respectively committed.
+     *
+     * @return the message to be handed over to the application.
+     */
+    Message deliver(EmbeddedSubscription.Delivery d) throws JMSException {
+
+        Message m = d.getMessage();
+
+        if (m instanceof EmbeddedTextMessage) {
+
+            EmbeddedTextMessage etm = (EmbeddedTextMessage)m;
+            etm.setJMSRedelivered(d.isRedelivered());
+            etm.setSession(this);
+        }
+
+        if (transacted || acknowledgment == Session.CLIENT_ACKNOWLEDGE) {
+
+            synchronized (this) {
+
+                unacknowledged.add(d);
+            }
+        }
+
+        return m;
+    }
+
+    /**
+     * Acknowledges a delivered message in AUTO_ACKNOWLEDGE and DUPS_OK_ACKNOWLEDGE mode, and it is a noop otherwise.
+     * Invoked by receive() before returning, and after the message listener returns.
+     */
+    void autoAcknowledge(EmbeddedSubscription.Delivery d) {
+
+        if (!transacted && acknowledgment != Session.CLIENT_ACKNOWLEDGE) {
+
+            d.acknowledge();
+        }
+    }
+
+    /**
+     * Invoked by Message.acknowledge(): acknowledges all the messages consumed by the session so far, in
+     * CLIENT_ACKNOWLEDGE mode, and it is a noop otherwise.
+     */
+    void acknowledge() {
+
+        if (!transacted && acknowledgment == Session.CLIENT_ACKNOWLEDGE) {
+
+            acknowledgeAll();
+        }
+    }
+
+    /**
+     * @return the number of messages delivered but not yet acknowledged.
+     */
+    synchronized int getUnacknowledgedCount() {
+
+        return unacknowledged.size();
+    }
+
     // Protected -------------------------------------------------------------------------------------------------------
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private void acknowledgeAll() {
+
+        List<EmbeddedSubscription.Delivery> deliveries;
+
+        synchronized (this) {
+
+            deliveries = unacknowledged;
+            unacknowledged = new ArrayList<>();
+        }
+
+        for(EmbeddedSubscription.Delivery d: deliveries) {
+
+            d.acknowledge();
+        }
+    }
+
+    private void redeliver() {
+
+        List<EmbeddedSubscription.Delivery> deliveries;
+
+        synchronized (this) {
+
+            deliveries = unacknowledged;
+            unacknowledged = new ArrayList<>();
+        }
+
+        //
+        // each message goes back to the head of its subscription, so we walk the list backwards to preserve the order
+        //
+
+        for(int i = deliveries.size() - 1; i >= 0; i --) {
+
+            deliveries.get(i).redeliver();
+        }
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
+    private static class PendingSend {
+
+        private final EmbeddedDestination destination;
+        private final Message message;
+
+        PendingSend(EmbeddedDestination destination, Message message) {
+
+            this.destination = destination;
+            this.message = message;
+        }
+    }
+
 }
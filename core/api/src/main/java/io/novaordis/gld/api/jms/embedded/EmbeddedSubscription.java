@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.embedded;
+
+import javax.jms.Message;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The messages pending delivery to the consumers of a destination. A queue has one subscription, shared by its
+ * competing consumers, while a topic has one subscription per consumer.
+ *
+ * The capacity of a bounded subscription counts the messages that were delivered but not yet acknowledged, the same
+ * way a broker keeps a message until it is acknowledged, so a redelivered message never overflows the subscription.
+ * Senders block while the subscription is full.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+class EmbeddedSubscription {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final EmbeddedDestination destination;
+
+    private final BlockingDeque<Delivery> deliveries;
+
+    // null if the subscription is unbounded
+    private final Semaphore capacity;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    EmbeddedSubscription(EmbeddedDestination destination) {
+
+        this.destination = destination;
+        this.deliveries = new LinkedBlockingDeque<>();
+
+        int c = destination.getCapacity();
+        this.capacity = c == EmbeddedDestination.UNBOUNDED ? null : new Semaphore(c);
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "EmbeddedSubscription[" + destination + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * Blocks while the subscription is full.
+     *
+     * @param availableAtNanos the System.nanoTime() moment the message becomes available to consumers, or 0 if it is
+     *                         available immediately.
+     */
+    void put(Message m, long availableAtNanos) throws InterruptedException {
+
+        if (capacity != null) {
+
+            capacity.acquire();
+        }
+
+        deliveries.putLast(new Delivery(this, m, availableAtNanos));
+    }
+
+    /**
+     * @param timeoutMs 0 means do not wait.
+     *
+     * @return the next delivery, once it is available, or null if no message arrived before the timeout expired.
+     */
+    Delivery poll(long timeoutMs) throws InterruptedException {
+
+        Delivery d = timeoutMs <= 0 ? deliveries.pollFirst() : deliveries.pollFirst(timeoutMs, TimeUnit.MILLISECONDS);
+
+        if (d == null) {
+
+            return null;
+        }
+
+        try {
+
+            d.awaitAvailability();
+        }
+        catch(InterruptedException e) {
+
+            // the message was not delivered, put it back where it was
+            deliveries.offerFirst(d);
+            throw e;
+        }
+
+        return d;
+    }
+
+    /**
+     * @return the number of messages pending delivery, not counting the delivered but unacknowledged messages.
+     */
+    int size() {
+
+        return deliveries.size();
+    }
+
+    EmbeddedDestination getDestination() {
+
+        return destination;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    /**
+     * A message on its way to a consumer. Once delivered, it must be either acknowledged, which removes it from the
+     * subscription, or redelivered.
+     */
+    static class Delivery {
+
+        private final EmbeddedSubscription subscription;
+        private final Message message;
+        private final long availableAtNanos;
+
+        private volatile boolean redelivered;
+
+        Delivery(EmbeddedSubscription subscription, Message message, long availableAtNanos) {
+
+            this.subscription = subscription;
+            this.message = message;
+            this.availableAtNanos = availableAtNanos;
+        }
+
+        Message getMessage() {
+
+            return message;
+        }
+
+        boolean isRedelivered() {
+
+            return redelivered;
+        }
+
+        void acknowledge() {
+
+            if (subscription.capacity != null) {
+
+                subscription.capacity.release();
+            }
+        }
+
+        /**
+         * Places the message back at the head of the subscription, ahead of the messages that were not delivered yet.
+         */
+        void redeliver() {
+
+            redelivered = true;
+            subscription.deliveries.offerFirst(this);
+        }
+
+        /**
+         * Simulates the time the message spends in flight, by holding the consumer until the message is available.
+         */
+        private void awaitAvailability() throws InterruptedException {
+
+            if (availableAtNanos == 0L || redelivered) {
+
+                return;
+            }
+
+            long remaining;
+
+            while((remaining = availableAtNanos - System.nanoTime()) > 0) {
+
+                LockSupport.parkNanos(remaining);
+
+                if (Thread.interrupted()) {
+
+                    throw new InterruptedException();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+
+            return "Delivery[" + message + (redelivered ? ", redelivered" : "") + "]";
+        }
+    }
+
+}
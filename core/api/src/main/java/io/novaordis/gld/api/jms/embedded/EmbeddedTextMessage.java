@@ -19,7 +19,10 @@ package io.novaordis.gld.api.jms.embedded;
 import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.TextMessage;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
 
 public class EmbeddedTextMessage implements TextMessage {
 
@@ -32,6 +35,15 @@ public class EmbeddedTextMessage implements TextMessage {
     private String text;
     private String id;
 
+    private Map<String, Object> properties;
+
+    private volatile boolean redelivered;
+
+    private int acknowledgeCount;
+
+    // the session that consumed the message, null if the message was not consumed
+    private volatile EmbeddedSession session;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public EmbeddedTextMessage() {
@@ -42,6 +54,7 @@ public class EmbeddedTextMessage implements TextMessage {
 
         this.text = text;
         this.id = null;
+        this.properties = new HashMap<>();
     }
 
     // TextMessage implementation --------------------------------------------------------------------------------------
@@ -147,13 +160,13 @@ public class EmbeddedTextMessage implements TextMessage {
     @Override
     public boolean getJMSRedelivered() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        return redelivered;
     }
 
     @Override
     public void setJMSRedelivered(boolean b) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        this.redelivered = b;
     }
 
     @Override
@@ -195,13 +208,13 @@ public class EmbeddedTextMessage implements TextMessage {
     @Override
     public void clearProperties() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        properties.clear();
     }
 
     @Override
     public boolean propertyExists(String s) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        return properties.containsKey(s);
     }
 
     @Override
@@ -225,13 +238,17 @@ public class EmbeddedTextMessage implements TextMessage {
     @Override
     public int getIntProperty(String s) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        Object o = properties.get(s);
+
+        return o instanceof Number ? ((Number)o).intValue() : Integer.valueOf((String)o);
     }
 
     @Override
     public long getLongProperty(String s) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        Object o = properties.get(s);
+
+        return o instanceof Number ? ((Number)o).longValue() : Long.valueOf((String)o);
     }
 
     @Override
@@ -249,19 +266,21 @@ public class EmbeddedTextMessage implements TextMessage {
     @Override
     public String getStringProperty(String s) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        Object o = properties.get(s);
+
+        return o == null ? null : o.toString();
     }
 
     @Override
     public Object getObjectProperty(String s) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        return properties.get(s);
     }
 
     @Override
     public Enumeration getPropertyNames() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        return Collections.enumeration(properties.keySet());
     }
 
     @Override
@@ -285,13 +304,13 @@ public class EmbeddedTextMessage implements TextMessage {
     @Override
     public void setIntProperty(String s, int i) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        properties.put(s, i);
     }
 
     @Override
     public void setLongProperty(String s, long l) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        properties.put(s, l);
     }
 
     @Override
@@ -309,19 +328,30 @@ public class EmbeddedTextMessage implements TextMessage {
     @Override
     public void setStringProperty(String s, String s1) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        properties.put(s, s1);
     }
 
     @Override
     public void setObjectProperty(String s, Object o) throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        properties.put(s, o);
     }
 
     @Override
     public void acknowledge() throws JMSException {
 
-        throw new RuntimeException("NOT YET IMPLEMENTED");
+        acknowledgeCount ++;
+
+        EmbeddedSession s = session;
+
+        if (s != null) {
+
+            //
+            // acknowledges all the messages consumed by the session
+            //
+
+            s.acknowledge();
+        }
     }
 
     @Override
@@ -332,8 +362,32 @@ public class EmbeddedTextMessage implements TextMessage {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    /**
+     * @return the number of times acknowledge() was invoked on this message.
+     */
+    public int getAcknowledgeCount() {
+
+        return acknowledgeCount;
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
+    void setSession(EmbeddedSession session) {
+
+        this.session = session;
+    }
+
+    /**
+     * @return a copy of the message, as sent, without any consumer state.
+     */
+    EmbeddedTextMessage copy() {
+
+        EmbeddedTextMessage copy = new EmbeddedTextMessage(text);
+        copy.id = id;
+        copy.properties = new HashMap<>(properties);
+        return copy;
+    }
+
     // Protected -------------------------------------------------------------------------------------------------------
 
     // Private ---------------------------------------------------------------------------------------------------------
@@ -17,8 +17,18 @@
 package io.novaordis.gld.api.jms.embedded;
 
 import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.Topic;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * A non-durable topic: each consumer has its own subscription, and receives a copy of every message sent while it is
+ * subscribed. The messages sent while the topic has no subscribers are dropped.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
 public class EmbeddedTopic extends EmbeddedDestination implements Topic, TestableTopic {
 
     // Constants -------------------------------------------------------------------------------------------------------
@@ -27,14 +37,22 @@ public class EmbeddedTopic extends EmbeddedDestination implements Topic, Testabl
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
+    private List<EmbeddedSubscription> subscriptions;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public EmbeddedTopic(String name) {
 
-        super(name);
+        this(name, UNBOUNDED);
+    }
+
+    public EmbeddedTopic(String name, int capacity) {
+
+        super(name, capacity);
+        this.subscriptions = new CopyOnWriteArrayList<>();
     }
 
-    // Queue implementation --------------------------------------------------------------------------------------------
+    // Topic implementation --------------------------------------------------------------------------------------------
 
     @Override
     public String getTopicName() throws JMSException {
@@ -44,10 +62,46 @@ public class EmbeddedTopic extends EmbeddedDestination implements Topic, Testabl
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    public int getSubscriptionCount() {
+
+        return subscriptions.size();
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
+    @Override
+    EmbeddedSubscription subscribe() {
+
+        EmbeddedSubscription s = new EmbeddedSubscription(this);
+        subscriptions.add(s);
+        return s;
+    }
+
+    @Override
+    void unsubscribe(EmbeddedSubscription s) {
+
+        subscriptions.remove(s);
+    }
+
     // Protected -------------------------------------------------------------------------------------------------------
 
+    @Override
+    protected void route(Message m, long availableAtNanos) throws InterruptedException {
+
+        boolean first = true;
+
+        for(EmbeddedSubscription s: subscriptions) {
+
+            //
+            // the subscribers acknowledge independently, so each of them gets its own copy of the message
+            //
+
+            Message copy = first || !(m instanceof EmbeddedTextMessage) ? m : ((EmbeddedTextMessage)m).copy();
+            first = false;
+            s.put(copy, availableAtNanos);
+        }
+    }
+
     // Private ---------------------------------------------------------------------------------------------------------
 
     // Inner classes ---------------------------------------------------------------------------------------------------
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.embedded;
+
+import javax.jms.Message;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The most recent messages sent to a destination, or by a producer, kept for inspection. The history is bounded, so
+ * a broker that moves millions of messages does not hold on to all of them. Thread safe.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+class MessageHistory {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final int capacity;
+
+    private final Deque<Message> messages;
+
+    // the total number of messages added to the history, including those evicted
+    private long count;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    MessageHistory() {
+
+        this(DEFAULT_CAPACITY);
+    }
+
+    MessageHistory(int capacity) {
+
+        if (capacity < 0) {
+
+            throw new IllegalArgumentException("invalid message history capacity " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.messages = new ArrayDeque<>();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "MessageHistory[" + capacity + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    synchronized void add(Message m) {
+
+        count ++;
+
+        if (capacity == 0) {
+
+            return;
+        }
+
+        if (messages.size() == capacity) {
+
+            messages.removeFirst();
+        }
+
+        messages.addLast(m);
+    }
+
+    /**
+     * @return a snapshot of the most recent messages, in the order they were added.
+     */
+    synchronized List<Message> getMessages() {
+
+        return new ArrayList<>(messages);
+    }
+
+    synchronized long getCount() {
+
+        return count;
+    }
+
+    int getCapacity() {
+
+        return capacity;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
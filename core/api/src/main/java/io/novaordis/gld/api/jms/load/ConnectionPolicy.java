@@ -25,8 +25,21 @@ public enum ConnectionPolicy {
     // (this is the default in absence of an explicitly configured session policy)
     //
     CONNECTION_PER_RUN("connection-per-run"),
+
+    //
+    // Each thread creates its own connection on first use, and uses it until the end of the load run
+    //
     CONNECTION_PER_THREAD("connection-per-thread"),
+
+    //
+    // Not supported
+    //
     CONNECTION_PER_OPERATION("connection-per-operation"),
+
+    //
+    // A fixed number of connections is created at the beginning of the load run, and the threads are assigned to them
+    // round robin, on first use. Configured as "connection-pool-<size>".
+    //
     CONNECTION_POOL("connection-pool"),
     ;
 
@@ -32,6 +32,11 @@ public interface JMSLoadStrategy extends LoadStrategy {
     String CONNECTION_FACTORY_LABEL = "connection-factory";
     String CONNECTION_POLICY_LABEL = "connection-policy";
     String SESSION_POLICY_LABEL = "session-policy";
+    String PRODUCER_POLICY_LABEL = "producer-policy";
+    String CONSUMER_POLICY_LABEL = "consumer-policy";
+    String TRANSACTION_SIZE_LABEL = "transaction-size";
+    String TRANSACTION_INTERVAL_LABEL = "transaction-interval";
+    String DELIVERY_MODE_LABEL = "delivery-mode";
     String USERNAME_LABEL = "user";
     String PASSWORD_LABEL = "password";
 
@@ -59,10 +64,61 @@ public interface JMSLoadStrategy extends LoadStrategy {
      */
     ConnectionPolicy getConnectionPolicy();
 
+    /**
+     * @return the number of connections the threads are spread across, if the connection policy is CONNECTION_POOL,
+     * configured as "connection-pool-<size>". Not relevant for other connection policies.
+     */
+    int getConnectionPoolSize();
+
     /**
      * @return the session policy employed by this load strategy. The default is SESSION_PER_OPERATION, which means
      * that one session is created for each operation, and then discarded.
      */
     SessionPolicy getSessionPolicy();
 
+    /**
+     * @return the producer policy employed by this load strategy. The default is PRODUCER_PER_OPERATION, which means
+     * that one producer is created for each send operation, and then closed.
+     */
+    ProducerPolicy getProducerPolicy();
+
+    /**
+     * @return the consumer policy employed by this load strategy. The default is CONSUMER_PER_OPERATION, which means
+     * that one consumer is created for each receive operation, and then closed.
+     */
+    ConsumerPolicy getConsumerPolicy();
+
+    /**
+     * @return true if the operations are performed in transacted sessions and periodically committed.
+     *
+     * @see JMSLoadStrategy#getTransactionSize()
+     * @see JMSLoadStrategy#getTransactionIntervalMs()
+     */
+    boolean isTransacted();
+
+    /**
+     * @return the maximum number of messages sent or received in a transaction, before the transaction is committed.
+     * null means no limit.
+     */
+    Integer getTransactionSize();
+
+    /**
+     * @return the maximum time, in milliseconds, between the first message sent or received in a transaction and the
+     * transaction commit. null means no limit.
+     */
+    Long getTransactionIntervalMs();
+
+    /**
+     * @return the delivery mode of the sent messages, one of javax.jms.DeliveryMode constants. The default is
+     * DeliveryMode.PERSISTENT.
+     */
+    int getDeliveryMode();
+
+    /**
+     * @return the acknowledgment mode of the non-transacted sessions, one of javax.jms.Session acknowledgment modes,
+     * or Session.SESSION_TRANSACTED if the messages are acknowledged by committing the session. The default is
+     * Session.AUTO_ACKNOWLEDGE.
+     */
+    int getAcknowledgeMode();
+
 }
@@ -17,19 +17,34 @@
 package io.novaordis.gld.api.jms.load;
 
 import io.novaordis.gld.api.LoadStrategyBase;
+import io.novaordis.gld.api.LoadStrategyContext;
+import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
+import io.novaordis.gld.api.configuration.LoadStage;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.jms.Destination;
 import io.novaordis.gld.api.jms.JMSServiceConfiguration;
 import io.novaordis.gld.api.jms.Queue;
 import io.novaordis.gld.api.jms.Topic;
+import io.novaordis.gld.api.jms.operation.Commit;
+import io.novaordis.gld.api.jms.operation.JmsOperationBase;
 import io.novaordis.gld.api.provider.NoopKeyProvider;
 import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.utilities.UserErrorException;
 
+import javax.jms.DeliveryMode;
+import javax.jms.Session;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
+ * In transacted mode, the operations produced by the sub-classes are interleaved with Commit operations: a thread's
+ * transaction is committed when it reaches the transaction size, or when the transaction interval elapsed since its
+ * first operation, whichever comes first. A thread's operations are chained through the "last operation" argument of
+ * next(), so the transaction state travels with the operations and the load strategy, which is shared by all threads,
+ * does not need to keep per-thread state.
+ *
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 1/22/17
  */
@@ -37,6 +52,10 @@ public abstract class JMSLoadStrategyBase extends LoadStrategyBase implements JM
 
     // Constants -------------------------------------------------------------------------------------------------------
 
+    // "connection-pool-<size>"
+    public static final Pattern CONNECTION_POOL_PATTERN =
+            Pattern.compile(ConnectionPolicy.CONNECTION_POOL.getLabel() + "-(\\d+)");
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
@@ -46,14 +65,26 @@ public abstract class JMSLoadStrategyBase extends LoadStrategyBase implements JM
     private String username;
     private char[] password;
     private ConnectionPolicy connectionPolicy;
+    private int connectionPoolSize;
     private SessionPolicy sessionPolicy;
+    private ProducerPolicy producerPolicy;
+    private ConsumerPolicy consumerPolicy;
+    private Integer transactionSize;
+    private Long transactionIntervalMs;
+    private int deliveryMode;
+    private int acknowledgeMode;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public JMSLoadStrategyBase() {
 
         setConnectionPolicy(ConnectionPolicy.CONNECTION_PER_RUN);
+        this.connectionPoolSize = 1;
         setSessionPolicy(SessionPolicy.SESSION_PER_OPERATION);
+        setProducerPolicy(ProducerPolicy.PRODUCER_PER_OPERATION);
+        setConsumerPolicy(ConsumerPolicy.CONSUMER_PER_OPERATION);
+        this.deliveryMode = DeliveryMode.PERSISTENT;
+        this.acknowledgeMode = Session.AUTO_ACKNOWLEDGE;
 
         //
         // set the default value size, it will be overridden when init() is called
@@ -142,7 +173,31 @@ public abstract class JMSLoadStrategyBase extends LoadStrategyBase implements JM
         String cps = jmsSc.remove(String.class,
                 ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.CONNECTION_POLICY_LABEL);
 
-        connectionPolicy = cps != null ? ConnectionPolicy.fromString(cps) : connectionPolicy;
+        if (cps != null) {
+
+            Matcher m = CONNECTION_POOL_PATTERN.matcher(cps);
+
+            if (m.matches()) {
+
+                connectionPolicy = ConnectionPolicy.CONNECTION_POOL;
+                connectionPoolSize = toConnectionPoolSize(m.group(1));
+            }
+            else {
+
+                connectionPolicy = ConnectionPolicy.fromString(cps);
+
+                if (ConnectionPolicy.CONNECTION_POOL.equals(connectionPolicy)) {
+
+                    throw new UserErrorException(
+                            "connection policy '" + cps + "' requires a pool size, for example '" + cps + "-4'");
+                }
+
+                if (ConnectionPolicy.CONNECTION_PER_OPERATION.equals(connectionPolicy)) {
+
+                    throw new UserErrorException("connection policy '" + cps + "' is not supported");
+                }
+            }
+        }
 
         //
         // optional session policy
@@ -153,6 +208,108 @@ public abstract class JMSLoadStrategyBase extends LoadStrategyBase implements JM
 
         sessionPolicy = sps != null ? SessionPolicy.fromString(sps) : sessionPolicy;
 
+        //
+        // optional producer and consumer policies; the per-thread producers and consumers belong to the thread's
+        // session, so they can only be cached if the session is
+        //
+
+        String pps = jmsSc.remove(String.class,
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.PRODUCER_POLICY_LABEL);
+
+        producerPolicy = pps != null ? ProducerPolicy.fromString(pps) : producerPolicy;
+
+        if (ProducerPolicy.PRODUCER_PER_THREAD.equals(producerPolicy) &&
+                !SessionPolicy.SESSION_PER_THREAD.equals(sessionPolicy)) {
+
+            throw new UserErrorException(
+                    "producer policy '" + producerPolicy.getLabel() + "' requires session policy '" +
+                            SessionPolicy.SESSION_PER_THREAD.getLabel() + "'");
+        }
+
+        String cops = jmsSc.remove(String.class,
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.CONSUMER_POLICY_LABEL);
+
+        consumerPolicy = cops != null ? ConsumerPolicy.fromString(cops) : consumerPolicy;
+
+        if (ConsumerPolicy.CONSUMER_PER_THREAD.equals(consumerPolicy) &&
+                !SessionPolicy.SESSION_PER_THREAD.equals(sessionPolicy)) {
+
+            throw new UserErrorException(
+                    "consumer policy '" + consumerPolicy.getLabel() + "' requires session policy '" +
+                            SessionPolicy.SESSION_PER_THREAD.getLabel() + "'");
+        }
+
+        //
+        // optional transaction size and interval, any of them turns on transacted sessions
+        //
+
+        Object o = jmsSc.remove(Object.class,
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_SIZE_LABEL);
+
+        if (o != null) {
+
+            if (!(o instanceof Integer) || (Integer)o < 1) {
+
+                throw new UserErrorException(
+                        "invalid '" + JMSLoadStrategy.TRANSACTION_SIZE_LABEL + "' value: " + o +
+                                ", must be a positive integer");
+            }
+
+            transactionSize = (Integer)o;
+        }
+
+        o = jmsSc.remove(Object.class,
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_INTERVAL_LABEL);
+
+        if (o != null) {
+
+            try {
+
+                transactionIntervalMs = LoadStage.parseDuration(o);
+            }
+            catch(UserErrorException e) {
+
+                throw new UserErrorException(
+                        "invalid '" + JMSLoadStrategy.TRANSACTION_INTERVAL_LABEL + "': " + e.getMessage());
+            }
+        }
+
+        if (isTransacted() && !SessionPolicy.SESSION_PER_THREAD.equals(sessionPolicy)) {
+
+            //
+            // a transaction spans several operations of the same thread
+            //
+
+            throw new UserErrorException(
+                    "transacted sessions ('" + JMSLoadStrategy.TRANSACTION_SIZE_LABEL + "', '" +
+                            JMSLoadStrategy.TRANSACTION_INTERVAL_LABEL + "') require session policy '" +
+                            SessionPolicy.SESSION_PER_THREAD.getLabel() + "'");
+        }
+
+        //
+        // optional delivery mode
+        //
+
+        String dms = jmsSc.remove(String.class,
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.DELIVERY_MODE_LABEL);
+
+        if (dms != null) {
+
+            if ("persistent".equals(dms)) {
+
+                deliveryMode = DeliveryMode.PERSISTENT;
+            }
+            else if ("non-persistent".equals(dms)) {
+
+                deliveryMode = DeliveryMode.NON_PERSISTENT;
+            }
+            else {
+
+                throw new UserErrorException(
+                        "invalid delivery mode '" + dms + "', valid options: 'persistent', 'non-persistent'");
+            }
+        }
+
         //
         // optional username
         //
@@ -205,6 +362,44 @@ public abstract class JMSLoadStrategyBase extends LoadStrategyBase implements JM
         keyProvider.start();
     }
 
+    /**
+     * In transacted mode, commits the thread's transaction when due, and, once the operations run out, commits the
+     * last transaction before returning null. The commits do not count against the number of operations. The
+     * three-argument next() delegates to this method, so both the runners and the direct callers get the commits.
+     */
+    @Override
+    public Operation next(LoadStrategyContext context, Operation last, String lastWrittenKey,
+                          boolean runtimeShuttingDown) throws Exception {
+
+        if (!isTransacted()) {
+
+            return super.next(context, last, lastWrittenKey, runtimeShuttingDown);
+        }
+
+        //
+        // null if the thread does not have an open transaction
+        //
+
+        JmsOperationBase lastInTransaction =
+                last instanceof JmsOperationBase && !(last instanceof Commit) ? (JmsOperationBase)last : null;
+
+        if (lastInTransaction != null && isCommitDue(lastInTransaction, System.nanoTime())) {
+
+            return new Commit(this, lastInTransaction);
+        }
+
+        Operation next = super.next(context, last, lastWrittenKey, runtimeShuttingDown);
+
+        if (next == null) {
+
+            return lastInTransaction == null ? null : new Commit(this, lastInTransaction);
+        }
+
+        ((JmsOperationBase)next).joinTransaction(lastInTransaction);
+
+        return next;
+    }
+
     @Override
     public Destination getDestination() {
 
@@ -223,12 +418,60 @@ public abstract class JMSLoadStrategyBase extends LoadStrategyBase implements JM
         return connectionPolicy;
     }
 
+    @Override
+    public int getConnectionPoolSize() {
+
+        return connectionPoolSize;
+    }
+
     @Override
     public SessionPolicy getSessionPolicy() {
 
         return sessionPolicy;
     }
 
+    @Override
+    public ProducerPolicy getProducerPolicy() {
+
+        return producerPolicy;
+    }
+
+    @Override
+    public ConsumerPolicy getConsumerPolicy() {
+
+        return consumerPolicy;
+    }
+
+    @Override
+    public boolean isTransacted() {
+
+        return transactionSize != null || transactionIntervalMs != null;
+    }
+
+    @Override
+    public Integer getTransactionSize() {
+
+        return transactionSize;
+    }
+
+    @Override
+    public Long getTransactionIntervalMs() {
+
+        return transactionIntervalMs;
+    }
+
+    @Override
+    public int getDeliveryMode() {
+
+        return deliveryMode;
+    }
+
+    @Override
+    public int getAcknowledgeMode() {
+
+        return acknowledgeMode;
+    }
+
     @Override
     public String getUsername() {
 
@@ -265,6 +508,31 @@ public abstract class JMSLoadStrategyBase extends LoadStrategyBase implements JM
         this.sessionPolicy = sp;
     }
 
+    void setProducerPolicy(ProducerPolicy pp) {
+
+        this.producerPolicy = pp;
+    }
+
+    void setConsumerPolicy(ConsumerPolicy cp) {
+
+        this.consumerPolicy = cp;
+    }
+
+    void setAcknowledgeMode(int acknowledgeMode) {
+
+        this.acknowledgeMode = acknowledgeMode;
+    }
+
+    /**
+     * @param op the last operation of a thread's open transaction.
+     */
+    boolean isCommitDue(JmsOperationBase op, long nowNano) {
+
+        return transactionSize != null && op.getTransactionMessageCount() >= transactionSize ||
+                transactionIntervalMs != null &&
+                        nowNano - op.getTransactionStartNano() >= transactionIntervalMs * 1000000L;
+    }
+
     // Protected -------------------------------------------------------------------------------------------------------
 
     /**
@@ -278,6 +546,27 @@ public abstract class JMSLoadStrategyBase extends LoadStrategyBase implements JM
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private static int toConnectionPoolSize(String s) throws UserErrorException {
+
+        int size;
+
+        try {
+
+            size = Integer.parseInt(s);
+        }
+        catch(NumberFormatException e) {
+
+            size = 0;
+        }
+
+        if (size < 1) {
+
+            throw new UserErrorException("invalid connection pool size: " + s + ", must be a positive integer");
+        }
+
+        return size;
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.load;
+
+import io.novaordis.utilities.UserErrorException;
+
+public enum ProducerPolicy {
+
+    //
+    // A producer is created every time an operation is about to be executed against the server, used to execute the
+    // operation and then closed and discarded (this is the default in absence of an explicitly configured producer
+    // policy)
+    //
+    PRODUCER_PER_OPERATION("producer-per-operation"),
+
+    //
+    // A producer is created the first time a thread executes an operation against a destination, and it is reused by all
+    // subsequent operations executed by the same thread against the same destination. The producer is closed when the
+    // service is stopped. Requires SESSION_PER_THREAD, as the producer belongs to the thread's session.
+    //
+    PRODUCER_PER_THREAD("producer-per-thread"),
+    ;
+
+    static ProducerPolicy fromString(String s) throws UserErrorException {
+
+        ProducerPolicy[] values = ProducerPolicy.values();
+        String msg = "";
+
+        for(int i = 0; i < values.length; i ++) {
+
+            ProducerPolicy p = values[i];
+
+            if (p.getLabel().equals(s)) {
+
+                return p;
+            }
+
+            msg += "'" + p.getLabel() + "'";
+
+            if (i < values.length - 1) {
+
+                msg += ", ";
+            }
+        }
+
+        msg = "invalid producer policy '" + s + "', valid options: " + msg;
+        throw new UserErrorException(msg);
+    }
+
+    private String label;
+
+    ProducerPolicy(String label) {
+
+        this.label = label;
+    }
+
+    public String getLabel() {
+
+        return label;
+    }
+}
@@ -16,16 +16,45 @@
 
 package io.novaordis.gld.api.jms.load;
 
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.jms.Topic;
+import io.novaordis.gld.api.jms.operation.Commit;
+import io.novaordis.gld.api.jms.operation.Deliver;
 import io.novaordis.gld.api.jms.operation.Receive;
+import io.novaordis.utilities.UserErrorException;
 
+import javax.jms.Session;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 /**
+ * Receives messages in one of two consumer modes:
+ *
+ * 1. "receive" (default) - each Receive operation pulls a message with MessageConsumer.receive(). The operation
+ *    measures how long the pull took.
+ *
+ * 2. "listener" - the messages are pushed by the provider into a per-thread MessageListener and handed over to Deliver
+ *    operations, which measure the producer-to-consumer latency and detect lost or reordered messages. The mode
+ *    accepts a prefetch (the number of messages the listener accepts ahead of the load driver thread) and an
+ *    acknowledgment strategy:
+ *
+ *    consumer-mode: listener
+ *    session-policy: session-per-thread
+ *    prefetch: 100
+ *    acknowledge: client          # auto (default), dups-ok, client, transacted
+ *    acknowledge-batch-size: 10   # client and transacted only: acknowledge, respectively commit, every 10 messages
+ *
+ *    Each consumer thread checks the sequence of the messages it receives in its own ConsumerContext. Every
+ *    subscriber of a topic receives all the messages, so gaps and reorders are detected. The consumers of a queue
+ *    compete for the messages, so gaps are only detected if there is a single consumer thread, and each consumer only
+ *    checks the order of the messages it receives.
+ *
+ * @see io.novaordis.gld.api.jms.Listener
+ *
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 1/22/17
  */
@@ -35,12 +64,30 @@ public class ReceiveLoadStrategy extends JMSLoadStrategyBase {
 
     public static final String NAME = "receive";
 
+    public static final String CONSUMER_MODE_LABEL = "consumer-mode";
+    public static final String PREFETCH_LABEL = "prefetch";
+    public static final String ACKNOWLEDGE_LABEL = "acknowledge";
+    public static final String ACKNOWLEDGE_BATCH_SIZE_LABEL = "acknowledge-batch-size";
+
+    public static final String RECEIVE_CONSUMER_MODE = "receive";
+    public static final String LISTENER_CONSUMER_MODE = "listener";
+
+    public static final int DEFAULT_PREFETCH = 100;
+
     private static final Set<Class<? extends Operation>> OPERATION_TYPES;
+    private static final Set<Class<? extends Operation>> TRANSACTED_OPERATION_TYPES;
+    private static final Set<Class<? extends Operation>> LISTENER_OPERATION_TYPES;
 
     static {
 
         OPERATION_TYPES = new HashSet<>();
         OPERATION_TYPES.add(Receive.class);
+
+        TRANSACTED_OPERATION_TYPES = new HashSet<>(OPERATION_TYPES);
+        TRANSACTED_OPERATION_TYPES.add(Commit.class);
+
+        LISTENER_OPERATION_TYPES = new HashSet<>();
+        LISTENER_OPERATION_TYPES.add(Deliver.class);
     }
 
     // Static ----------------------------------------------------------------------------------------------------------
@@ -52,8 +99,21 @@ public class ReceiveLoadStrategy extends JMSLoadStrategyBase {
 
     private long timeoutMs;
 
+    private boolean listenerMode;
+    private int prefetch;
+    private int acknowledgeBatchSize;
+
+    // whether the consumer threads see all the messages sent by the producers, only used in listener mode
+    private boolean gapDetection;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
+    public ReceiveLoadStrategy() {
+
+        this.prefetch = DEFAULT_PREFETCH;
+        this.acknowledgeBatchSize = 1;
+    }
+
     // JMSLoadStrategyBase overrides -----------------------------------------------------------------------------------
 
     @Override
@@ -65,17 +125,23 @@ public class ReceiveLoadStrategy extends JMSLoadStrategyBase {
     @Override
     public Set<Class<? extends Operation>> getOperationTypes() {
 
-        return OPERATION_TYPES;
+        if (listenerMode) {
+
+            return LISTENER_OPERATION_TYPES;
+        }
+
+        return isTransacted() ? TRANSACTED_OPERATION_TYPES : OPERATION_TYPES;
     }
 
     @Override
-    public Receive next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown) throws Exception {
+    public ConsumerContext newContext() {
 
-        return (Receive)super.next(last, lastWrittenKey, runtimeShuttingDown);
+        return new ConsumerContext(this);
     }
 
     @Override
-    protected Operation nextInternal(Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+    protected Operation nextInternal(
+            LoadStrategyContext context, Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
             throws Exception {
 
         if (!initialized) {
@@ -83,9 +149,14 @@ public class ReceiveLoadStrategy extends JMSLoadStrategyBase {
             throw new IllegalStateException(this + " was not initialized");
         }
 
-        return new Receive(this);
+        if (!listenerMode) {
 
+            return new Receive(this);
+        }
+
+        return new Deliver(this, ((ConsumerContext)context).getSequenceTracker());
     }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     public long getTimeoutMs() {
@@ -98,6 +169,42 @@ public class ReceiveLoadStrategy extends JMSLoadStrategyBase {
         this.timeoutMs = timeoutMs;
     }
 
+    /**
+     * @return true if the messages are pushed by the provider into message listeners and consumed by Deliver
+     * operations, false if they are pulled by Receive operations.
+     */
+    public boolean isListenerMode() {
+
+        return listenerMode;
+    }
+
+    /**
+     * @return the number of messages a listener accepts ahead of its load driver thread. Only relevant in listener
+     * mode.
+     */
+    public int getPrefetch() {
+
+        return prefetch;
+    }
+
+    /**
+     * @return the number of messages acknowledged, or committed, at once by a listener, for client acknowledgment and
+     * transacted sessions. Only relevant in listener mode.
+     */
+    public int getAcknowledgeBatchSize() {
+
+        return acknowledgeBatchSize;
+    }
+
+    /**
+     * @return true if the consumer threads detect gaps in the producers' message sequences, in addition to reorders.
+     * Only relevant in listener mode.
+     */
+    public boolean isGapDetection() {
+
+        return gapDetection;
+    }
+
     @Override
     public String toString() {
 
@@ -115,6 +222,102 @@ public class ReceiveLoadStrategy extends JMSLoadStrategyBase {
     protected void initInternal(
             ServiceConfiguration sc, Map<String, Object> loadStrategyRawConfig, LoadConfiguration lc) throws Exception {
 
+        //
+        // optional consumer mode
+        //
+
+        String mode = sc.remove(
+                String.class, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, CONSUMER_MODE_LABEL);
+
+        if (mode != null) {
+
+            if (LISTENER_CONSUMER_MODE.equals(mode)) {
+
+                listenerMode = true;
+            }
+            else if (!RECEIVE_CONSUMER_MODE.equals(mode)) {
+
+                throw new UserErrorException(
+                        "invalid consumer mode '" + mode + "', valid options: '" + RECEIVE_CONSUMER_MODE + "', '" +
+                                LISTENER_CONSUMER_MODE + "'");
+            }
+        }
+
+        //
+        // optional listener mode configuration
+        //
+
+        Object prefetchValue = sc.remove(
+                Object.class, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, PREFETCH_LABEL);
+        String ack = sc.remove(
+                String.class, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, ACKNOWLEDGE_LABEL);
+        Object batchValue = sc.remove(
+                Object.class, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, ACKNOWLEDGE_BATCH_SIZE_LABEL);
+
+        if (!listenerMode) {
+
+            String label = prefetchValue != null ? PREFETCH_LABEL :
+                    ack != null ? ACKNOWLEDGE_LABEL :
+                            batchValue != null ? ACKNOWLEDGE_BATCH_SIZE_LABEL : null;
+
+            if (label != null) {
+
+                throw new UserErrorException(
+                        "'" + label + "' requires '" + CONSUMER_MODE_LABEL + ": " + LISTENER_CONSUMER_MODE + "'");
+            }
+
+            initialized = true;
+            return;
+        }
+
+        //
+        // listener mode: a message listener owns its session, and it acknowledges or commits the messages itself
+        //
+
+        if (!SessionPolicy.SESSION_PER_THREAD.equals(getSessionPolicy())) {
+
+            throw new UserErrorException(
+                    "consumer mode '" + LISTENER_CONSUMER_MODE + "' requires session policy '" +
+                            SessionPolicy.SESSION_PER_THREAD.getLabel() + "'");
+        }
+
+        if (isTransacted()) {
+
+            throw new UserErrorException(
+                    "'" + JMSLoadStrategy.TRANSACTION_SIZE_LABEL + "' and '" +
+                            JMSLoadStrategy.TRANSACTION_INTERVAL_LABEL + "' cannot be used in consumer mode '" +
+                            LISTENER_CONSUMER_MODE + "', use '" + ACKNOWLEDGE_LABEL + ": transacted' instead");
+        }
+
+        if (prefetchValue != null) {
+
+            prefetch = toPositiveInteger(PREFETCH_LABEL, prefetchValue);
+        }
+
+        if (ack != null) {
+
+            setAcknowledgeMode(toAcknowledgeMode(ack));
+        }
+
+        if (batchValue != null) {
+
+            if (getAcknowledgeMode() != Session.CLIENT_ACKNOWLEDGE &&
+                    getAcknowledgeMode() != Session.SESSION_TRANSACTED) {
+
+                throw new UserErrorException(
+                        "'" + ACKNOWLEDGE_BATCH_SIZE_LABEL + "' requires '" + ACKNOWLEDGE_LABEL +
+                                ": client' or '" + ACKNOWLEDGE_LABEL + ": transacted'");
+            }
+
+            acknowledgeBatchSize = toPositiveInteger(ACKNOWLEDGE_BATCH_SIZE_LABEL, batchValue);
+        }
+
+        //
+        // a consumer only sees all the messages if it subscribes to a topic, or it is the only consumer of a queue
+        //
+
+        gapDetection = getDestination() instanceof Topic || lc.getThreadCount() == 1;
+
         initialized = true;
     }
 
@@ -122,6 +325,62 @@ public class ReceiveLoadStrategy extends JMSLoadStrategyBase {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private static int toPositiveInteger(String label, Object o) throws UserErrorException {
+
+        if (!(o instanceof Integer) || (Integer)o < 1) {
+
+            throw new UserErrorException("invalid '" + label + "' value: " + o + ", must be a positive integer");
+        }
+
+        return (Integer)o;
+    }
+
+    private static int toAcknowledgeMode(String s) throws UserErrorException {
+
+        if ("auto".equals(s)) {
+
+            return Session.AUTO_ACKNOWLEDGE;
+        }
+        else if ("dups-ok".equals(s)) {
+
+            return Session.DUPS_OK_ACKNOWLEDGE;
+        }
+        else if ("client".equals(s)) {
+
+            return Session.CLIENT_ACKNOWLEDGE;
+        }
+        else if ("transacted".equals(s)) {
+
+            return Session.SESSION_TRANSACTED;
+        }
+
+        throw new UserErrorException(
+                "invalid acknowledge mode '" + s + "', valid options: 'auto', 'dups-ok', 'client', 'transacted'");
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
+    /**
+     * The per-thread sequence tracker.
+     */
+    public static class ConsumerContext extends LoadStrategyContext {
+
+        private final SequenceTracker sequenceTracker;
+
+        private ConsumerContext(ReceiveLoadStrategy s) {
+
+            super(s);
+
+            this.sequenceTracker = new SequenceTracker(s.isGapDetection());
+        }
+
+        /**
+         * @return the tracker that checks the sequence of the messages received by the thread.
+         */
+        public SequenceTracker getSequenceTracker() {
+
+            return sequenceTracker;
+        }
+    }
+
 }
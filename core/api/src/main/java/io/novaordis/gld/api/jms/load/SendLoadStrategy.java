@@ -16,9 +16,11 @@
 
 package io.novaordis.gld.api.jms.load;
 
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.jms.operation.Commit;
 import io.novaordis.gld.api.jms.operation.Send;
 
 import java.util.HashSet;
@@ -36,11 +38,15 @@ public class SendLoadStrategy extends JMSLoadStrategyBase {
     public static final String NAME = "send";
 
     private static final Set<Class<? extends Operation>> OPERATION_TYPES;
+    private static final Set<Class<? extends Operation>> TRANSACTED_OPERATION_TYPES;
 
     static {
 
         OPERATION_TYPES = new HashSet<>();
         OPERATION_TYPES.add(Send.class);
+
+        TRANSACTED_OPERATION_TYPES = new HashSet<>(OPERATION_TYPES);
+        TRANSACTED_OPERATION_TYPES.add(Commit.class);
     }
 
     // Static ----------------------------------------------------------------------------------------------------------
@@ -63,17 +69,12 @@ public class SendLoadStrategy extends JMSLoadStrategyBase {
     @Override
     public Set<Class<? extends Operation>> getOperationTypes() {
 
-        return OPERATION_TYPES;
+        return isTransacted() ? TRANSACTED_OPERATION_TYPES : OPERATION_TYPES;
     }
 
     @Override
-    public Send next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown) throws Exception {
-
-        return (Send)super.next(last, lastWrittenKey, runtimeShuttingDown);
-    }
-
-    @Override
-    protected Send nextInternal(Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+    protected Send nextInternal(
+            LoadStrategyContext context, Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
             throws Exception {
 
         if (!initialized) {
@@ -81,7 +82,13 @@ public class SendLoadStrategy extends JMSLoadStrategyBase {
             throw new IllegalStateException(this + " was not initialized");
         }
 
-        return new Send(this);
+        //
+        // continue the thread's message sequence; in transacted mode, the previous Send may precede a Commit
+        //
+
+        Operation previous = last instanceof Commit ? ((Commit)last).getLast() : last;
+
+        return new Send(this, previous instanceof Send ? (Send)previous : null);
     }
 
     // Public ----------------------------------------------------------------------------------------------------------
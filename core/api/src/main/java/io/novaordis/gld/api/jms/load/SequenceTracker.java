@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of the sequence numbers of the messages received from each producer, and detects gaps (messages that
+ * skip ahead in their producer's sequence, so some messages were lost or are yet to come) and reorders (messages that
+ * arrive after a message with a higher sequence number, because they were reordered or redelivered).
+ *
+ * The first message received from a producer is the start of that producer's sequence, so consumers that join an
+ * ongoing stream do not report spurious gaps. Gap detection is only meaningful if the tracker sees all the messages
+ * sent by the producers, which is the case for a topic subscriber, but not for one of several competing consumers of
+ * a queue, so it can be turned off. Reorder detection only relies on the order in which a consumer receives its own
+ * messages, so it stays on.
+ *
+ * Not thread safe: each consumer thread keeps its own tracker, in its load strategy context.
+ *
+ * @see io.novaordis.gld.api.jms.operation.Send#SEQUENCE_PROPERTY
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class SequenceTracker {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final long REORDERED = -1L;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // the highest sequence number received from each producer
+    private final Map<String, long[]> highestSequences;
+
+    private final boolean gapDetection;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Detects gaps and reorders.
+     */
+    public SequenceTracker() {
+
+        this(true);
+    }
+
+    /**
+     * @param gapDetection false if the tracker does not see all the messages sent by the producers, so it should only
+     *                     detect reorders.
+     */
+    public SequenceTracker(boolean gapDetection) {
+
+        this.highestSequences = new HashMap<>();
+        this.gapDetection = gapDetection;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return 0 if the message is the next message in its producer's sequence (or the first message received from the
+     * producer), the number of skipped messages if the message skips ahead in the sequence, or REORDERED if a message
+     * with a higher or equal sequence number was already received from the same producer. Always returns 0 for a
+     * message that skips ahead if gap detection is turned off.
+     */
+    public long track(String producerId, long sequence) {
+
+        if (producerId == null) {
+
+            throw new IllegalArgumentException("null producer ID");
+        }
+
+        long[] highest = highestSequences.computeIfAbsent(producerId, p -> new long[] { sequence - 1 });
+
+        if (sequence <= highest[0]) {
+
+            return REORDERED;
+        }
+
+        long skipped = sequence - highest[0] - 1;
+
+        highest[0] = sequence;
+
+        return gapDetection ? skipped : 0L;
+    }
+
+    public boolean isGapDetection() {
+
+        return gapDetection;
+    }
+
+    /**
+     * @return the number of producers seen so far.
+     */
+    public int getProducerCount() {
+
+        return highestSequences.size();
+    }
+
+    @Override
+    public String toString() {
+
+        return "SequenceTracker[" + highestSequences.size() + " producer(s)" + (gapDetection ? "" : ", no gaps") + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.operation;
+
+import io.novaordis.gld.api.jms.JMSEndpoint;
+import io.novaordis.gld.api.jms.load.JMSLoadStrategy;
+
+/**
+ * Commits the current transaction of the thread's transacted session. Issued by transacted load strategies after a
+ * batch of sends or receives, and timed independently, so the commit latency is reported separately from the
+ * per-message latency.
+ *
+ * @see JMSLoadStrategy#isTransacted()
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class Commit extends JmsOperationBase {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private JmsOperationBase last;
+    private int messageCount;
+
+    private boolean performed;
+    private boolean successful;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param last the last operation of the transaction to be committed.
+     */
+    public Commit(JMSLoadStrategy loadStrategy, JmsOperationBase last) {
+
+        super(loadStrategy);
+
+        this.last = last;
+        this.messageCount = last == null ? 0 : last.getTransactionMessageCount();
+    }
+
+    // JmsOperation implementation -------------------------------------------------------------------------------------
+
+    @Override
+    public boolean wasPerformed() {
+
+        return performed;
+    }
+
+    @Override
+    public boolean wasSuccessful() {
+
+        return successful;
+    }
+
+    @Override
+    public void perform(JMSEndpoint endpoint) throws Exception {
+
+        performed = true;
+
+        endpoint.getSession().commit();
+
+        successful = true;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the last operation of the committed transaction. May return null.
+     */
+    public JmsOperationBase getLast() {
+
+        return last;
+    }
+
+    /**
+     * @return the number of messages sent or received in the committed transaction.
+     */
+    public int getMessageCount() {
+
+        return messageCount;
+    }
+
+    @Override
+    public String toString() {
+
+        return "Commit[" + messageCount + " message(s)]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.operation;
+
+import io.novaordis.gld.api.TimestampedOperation;
+import io.novaordis.gld.api.jms.JMSEndpoint;
+import io.novaordis.gld.api.jms.Listener;
+import io.novaordis.gld.api.jms.MessageGapException;
+import io.novaordis.gld.api.jms.MessageReorderedException;
+import io.novaordis.gld.api.jms.load.JMSLoadStrategy;
+import io.novaordis.gld.api.jms.load.ReceiveLoadStrategy;
+import io.novaordis.gld.api.jms.load.SequenceTracker;
+
+import javax.jms.Message;
+import javax.jms.TextMessage;
+
+/**
+ * Takes the next message pushed by the JMS provider into the thread's Listener. The response time of the operation is
+ * the producer-to-consumer latency: the time elapsed between the moment the producer sent the message, as stamped by
+ * Send, and the moment the message was handed over to the load driver thread, including the time the message spent
+ * in the listener's prefetch buffer. The send time is a wall-clock timestamp with millisecond resolution, so the
+ * latency is only accurate if the producer and consumer clocks are synchronized.
+ *
+ * The message's position in its producer's sequence is checked against the sequence tracker of the thread: a gap fails
+ * the operation with a MessageGapException, and a reordered or redelivered message fails it with a
+ * MessageReorderedException, so the sampler counts them as distinct failure types of this operation.
+ *
+ * @see Send
+ * @see Listener
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class Deliver extends JmsOperationBase implements TimestampedOperation {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private long timeoutMs;
+
+    private SequenceTracker sequenceTracker;
+
+    private Message message;
+
+    private Long originNano;
+
+    private boolean performed;
+    private boolean successful;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Does not check the message sequence.
+     */
+    public Deliver(JMSLoadStrategy ls) {
+
+        this(ls, null);
+    }
+
+    /**
+     * @param sequenceTracker the tracker of the thread that performs the operation. May be null, in which case the
+     *                        message sequence is not checked.
+     */
+    public Deliver(JMSLoadStrategy ls, SequenceTracker sequenceTracker) {
+
+        super(ls);
+
+        this.timeoutMs = ((ReceiveLoadStrategy)ls).getTimeoutMs();
+        this.sequenceTracker = sequenceTracker;
+    }
+
+    // TimestampedOperation implementation -----------------------------------------------------------------------------
+
+    /**
+     * @return the moment the message was sent, translated into System.nanoTime() units, or null if no message was
+     * delivered, or the message was not stamped by a Send.
+     */
+    @Override
+    public Long getOriginNano() {
+
+        return originNano;
+    }
+
+    // JmsOperationBase overrides --------------------------------------------------------------------------------------
+
+    @Override
+    public void perform(JMSEndpoint endpoint) throws Exception {
+
+        performed = true;
+
+        message = ((Listener)endpoint).take(timeoutMs);
+
+        if (message == null) {
+
+            successful = true;
+            return;
+        }
+
+        long nowNano = System.nanoTime();
+        long nowMs = System.currentTimeMillis();
+
+        setId(message.getJMSMessageID());
+
+        if (message.propertyExists(Send.SEND_TIME_PROPERTY)) {
+
+            //
+            // a skewed producer clock may place the send time in the future
+            //
+
+            long latencyMs = Math.max(0L, nowMs - message.getLongProperty(Send.SEND_TIME_PROPERTY));
+            originNano = nowNano - latencyMs * 1000000L;
+        }
+
+        if (sequenceTracker != null && message.propertyExists(Send.PRODUCER_ID_PROPERTY)) {
+
+            String producerId = message.getStringProperty(Send.PRODUCER_ID_PROPERTY);
+            long sequence = message.getLongProperty(Send.SEQUENCE_PROPERTY);
+
+            long skipped = sequenceTracker.track(producerId, sequence);
+
+            if (skipped == SequenceTracker.REORDERED) {
+
+                throw new MessageReorderedException(
+                        "message " + sequence + " from producer " + producerId + " arrived out of order");
+            }
+
+            if (skipped > 0) {
+
+                throw new MessageGapException(
+                        skipped + " message(s) from producer " + producerId + " missing before message " + sequence);
+            }
+        }
+
+        successful = true;
+    }
+
+    @Override
+    public boolean wasPerformed() {
+
+        return performed;
+    }
+
+    @Override
+    public boolean wasSuccessful() {
+
+        return successful;
+    }
+
+    @Override
+    public String getPayload() {
+
+        if (!(message instanceof TextMessage)) {
+
+            return null;
+        }
+
+        try {
+
+            return ((TextMessage)message).getText();
+        }
+        catch(Exception e) {
+
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the delivered message, or null if no message was delivered before the timeout expired.
+     */
+    public Message getMessage() {
+
+        return message;
+    }
+
+    public long getTimeoutMs() {
+
+        return timeoutMs;
+    }
+
+    @Override
+    public String toString() {
+
+        JMSLoadStrategy ls = getLoadStrategy();
+
+        if (ls == null) {
+
+            return "uninitialized";
+        }
+
+        return "Deliver[" + ls.getDestination() + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -39,6 +39,13 @@ public abstract class JmsOperationBase implements JmsOperation {
     private String id;
     private String payload;
 
+    //
+    // the position of this operation in its thread's transaction (1 for the first operation), and the moment the
+    // transaction started, in System.nanoTime() units; only relevant for transacted load strategies
+    //
+    private int transactionMessageCount;
+    private long transactionStartNano;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     protected JmsOperationBase(JMSLoadStrategy loadStrategy) {
@@ -126,6 +133,40 @@ public abstract class JmsOperationBase implements JmsOperation {
         this.id = id;
     }
 
+    /**
+     * Places this operation in the transaction the given operation belongs to, or starts a new transaction.
+     *
+     * @param previous the previous operation of the same thread's open transaction, or null if this operation
+     *                 starts a new transaction.
+     */
+    public void joinTransaction(JmsOperationBase previous) {
+
+        if (previous == null) {
+
+            transactionMessageCount = 1;
+            transactionStartNano = System.nanoTime();
+        }
+        else {
+
+            transactionMessageCount = previous.getTransactionMessageCount() + 1;
+            transactionStartNano = previous.getTransactionStartNano();
+        }
+    }
+
+    /**
+     * @return the number of operations of the thread's transaction up to and including this one, or 0 if the
+     * operation is not performed in a transaction.
+     */
+    public int getTransactionMessageCount() {
+
+        return transactionMessageCount;
+    }
+
+    public long getTransactionStartNano() {
+
+        return transactionStartNano;
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
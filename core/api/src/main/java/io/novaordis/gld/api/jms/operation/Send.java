@@ -25,8 +25,16 @@ import org.slf4j.LoggerFactory;
 import javax.jms.MessageProducer;
 import javax.jms.Session;
 import javax.jms.TextMessage;
+import java.util.UUID;
 
 /**
+ * Each message is stamped with the moment it was sent (SEND_TIME_PROPERTY, wall-clock milliseconds), the identity of
+ * the producing thread (PRODUCER_ID_PROPERTY) and a per-producer sequence number (SEQUENCE_PROPERTY), so a consumer
+ * can measure the producer-to-consumer latency and detect lost or reordered messages. A thread's sends form a
+ * sequence: the sequence state travels from one Send to the next through the load strategy's "last operation".
+ *
+ * @see Deliver
+ *
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 1/23/17
  */
@@ -37,14 +45,42 @@ public class Send extends JmsOperationBase {
     private static final Logger log = LoggerFactory.getLogger(Send.class);
     private static final boolean trace = log.isTraceEnabled();
 
+    public static final String SEND_TIME_PROPERTY = "gldSendTime";
+    public static final String PRODUCER_ID_PROPERTY = "gldProducerId";
+    public static final String SEQUENCE_PROPERTY = "gldSequence";
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
+    private String producerId;
+    private long sequence;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
     public Send(JMSLoadStrategy loadStrategy) {
 
+        this(loadStrategy, null);
+    }
+
+    /**
+     * @param previous the previous Send of the same thread, or null if this Send starts a new sequence.
+     */
+    public Send(JMSLoadStrategy loadStrategy, Send previous) {
+
         super(loadStrategy);
 
+        if (previous == null) {
+
+            this.producerId = UUID.randomUUID().toString();
+            this.sequence = 0L;
+        }
+        else {
+
+            this.producerId = previous.getProducerId();
+            this.sequence = previous.getSequence() + 1;
+        }
+
         // create the payload outside perform() method to influence as little as possible the execution duration;
         // in this specific case we reuse the message created by the strategy (and presumably cached), because we
         // are not interested creating distinct message bodies, we're only interested in the payload length
@@ -53,8 +89,6 @@ public class Send extends JmsOperationBase {
         setPayload(v);
     }
 
-    // Constructors ----------------------------------------------------------------------------------------------------
-
     // JmsOperation implementation -------------------------------------------------------------------------------------
 
     @Override
@@ -75,8 +109,13 @@ public class Send extends JmsOperationBase {
         String payload = getPayload();
         TextMessage m = jmsSession.createTextMessage(payload);
 
+        m.setStringProperty(PRODUCER_ID_PROPERTY, producerId);
+        m.setLongProperty(SEQUENCE_PROPERTY, sequence);
+
         if (trace) { log.trace("sending message with payload \"" + payload + "\""); }
 
+        m.setLongProperty(SEND_TIME_PROPERTY, System.currentTimeMillis());
+
         jmsProducer.send(m);
 
         //
@@ -87,6 +126,19 @@ public class Send extends JmsOperationBase {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    public String getProducerId() {
+
+        return producerId;
+    }
+
+    /**
+     * @return the position of the message in its producer's sequence, starting with 0.
+     */
+    public long getSequence() {
+
+        return sequence;
+    }
+
     @Override
     public String toString() {
 
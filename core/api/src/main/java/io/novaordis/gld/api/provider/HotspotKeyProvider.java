@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Divides the key space in a hot set (the keys with the lowest indices) and a cold set. A configurable percentage of
+ * the operations selects keys from the hot set, the rest select keys from the cold set. The keys are selected uniformly
+ * within each set. For example, with 20% hot keys and 80% hot operations, 80% of the operations access 20% of the keys.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class HotspotKeyProvider extends KeySpaceKeyProvider {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final double DEFAULT_HOT_KEY_PERCENTAGE = 20d;
+    public static final double DEFAULT_HOT_OPERATION_PERCENTAGE = 80d;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final double hotKeyPercentage;
+    private final double hotOperationFraction;
+    private final int hotKeyCount;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param hotKeyPercentage the percentage of the keys that belong to the hot set, in the (0, 100] interval. The hot
+     *                         set contains at least one key.
+     * @param hotOperationPercentage the percentage of the operations that access the hot set, in the [0, 100] interval.
+     */
+    public HotspotKeyProvider(int keySpaceSize, int keySize, double hotKeyPercentage, double hotOperationPercentage) {
+
+        super(keySpaceSize, keySize);
+
+        if (hotKeyPercentage <= 0d || hotKeyPercentage > 100d) {
+
+            throw new IllegalArgumentException("invalid hot key percentage " + hotKeyPercentage);
+        }
+
+        if (hotOperationPercentage < 0d || hotOperationPercentage > 100d) {
+
+            throw new IllegalArgumentException("invalid hot operation percentage " + hotOperationPercentage);
+        }
+
+        this.hotKeyPercentage = hotKeyPercentage;
+        this.hotOperationFraction = hotOperationPercentage / 100d;
+        this.hotKeyCount = Math.max(1, (int)Math.round(keySpaceSize * hotKeyPercentage / 100d));
+    }
+
+    // KeySpaceKeyProvider overrides -----------------------------------------------------------------------------------
+
+    @Override
+    public KeyDistribution getDistribution() {
+
+        return KeyDistribution.HOTSPOT;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public double getHotKeyPercentage() {
+
+        return hotKeyPercentage;
+    }
+
+    public double getHotOperationPercentage() {
+
+        return hotOperationFraction * 100d;
+    }
+
+    /**
+     * @return the number of keys in the hot set.
+     */
+    public int getHotKeyCount() {
+
+        return hotKeyCount;
+    }
+
+    @Override
+    public String toString() {
+
+        return super.toString() + ", " + hotKeyCount + " hot keys";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    @Override
+    int nextIndex() {
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int coldKeyCount = getKeySpaceSize() - hotKeyCount;
+
+        if (coldKeyCount == 0 || random.nextDouble() < hotOperationFraction) {
+
+            return random.nextInt(hotKeyCount);
+        }
+
+        return hotKeyCount + random.nextInt(coldKeyCount);
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
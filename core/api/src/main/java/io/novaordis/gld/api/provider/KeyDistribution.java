@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import io.novaordis.utilities.UserErrorException;
+
+/**
+ * The distributions a KeySpaceKeyProvider can draw keys with.
+ *
+ * @see KeySpaceKeyProvider
+ * @see KeyProviderFactory
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public enum KeyDistribution {
+
+    //
+    // all keys are equally likely
+    //
+    UNIFORM("uniform"),
+
+    //
+    // the key popularity follows a Zipf distribution with a configurable skew (theta)
+    //
+    ZIPFIAN("zipfian"),
+
+    //
+    // a configurable percentage of the operations go to a configurable percentage of the keys (the hot set), the rest
+    // go to the cold set, uniformly within each set
+    //
+    HOTSPOT("hotspot"),
+
+    //
+    // keys are written in sequence, and reads favor the most recently written keys, with a Zipf-distributed age
+    //
+    LATEST("latest"),
+    ;
+
+    public static KeyDistribution fromString(String s) throws UserErrorException {
+
+        KeyDistribution[] values = KeyDistribution.values();
+        String msg = "";
+
+        for(int i = 0; i < values.length; i ++) {
+
+            KeyDistribution d = values[i];
+
+            if (d.getLabel().equals(s)) {
+
+                return d;
+            }
+
+            msg += "'" + d.getLabel() + "'";
+
+            if (i < values.length - 1) {
+
+                msg += ", ";
+            }
+        }
+
+        msg = "invalid key distribution '" + s + "', valid options: " + msg;
+        throw new UserErrorException(msg);
+    }
+
+    private String label;
+
+    KeyDistribution(String label) {
+
+        this.label = label;
+    }
+
+    public String getLabel() {
+
+        return label;
+    }
+}
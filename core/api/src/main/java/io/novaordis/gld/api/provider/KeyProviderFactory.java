@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import io.novaordis.gld.api.KeyProvider;
+import io.novaordis.gld.api.configuration.LoadConfiguration;
+import io.novaordis.gld.api.service.ServiceType;
+import io.novaordis.utilities.UserErrorException;
+
+import java.util.Map;
+
+/**
+ * Builds the key provider of a cache load strategy from the load strategy configuration:
+ *
+ * load-strategy:
+ *   name: write-then-read
+ *   key-distribution: zipfian     # uniform | zipfian | hotspot | latest
+ *   key-space-size: 1000000       # default 100000
+ *   theta: 0.99                   # zipfian and latest only, default 0.99
+ *   hot-keys: 20                  # hotspot only, percentage of keys in the hot set, default 20
+ *   hot-operations: 80            # hotspot only, percentage of operations that access the hot set, default 80
+ *
+ * If "key-distribution" is not specified, the load strategy generates new random keys for each operation, over an
+ * unbounded key space.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class KeyProviderFactory {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String KEY_DISTRIBUTION_LABEL = "key-distribution";
+    public static final String KEY_SPACE_SIZE_LABEL = "key-space-size";
+    public static final String THETA_LABEL = "theta";
+    public static final String HOT_KEYS_LABEL = "hot-keys";
+    public static final String HOT_OPERATIONS_LABEL = "hot-operations";
+
+    public static final int DEFAULT_KEY_SPACE_SIZE = 100000;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Removes the key provider configuration elements from the load strategy raw configuration map, and builds an
+     * unstarted key provider. The configuration elements that do not apply to the configured distribution are not
+     * removed, so they will be reported as unknown by the load strategy.
+     *
+     * @param loadStrategyRawConfig the load strategy configuration map.
+     */
+    public static KeyProvider build(Map<String, Object> loadStrategyRawConfig, LoadConfiguration lc)
+            throws UserErrorException {
+
+        Integer ks = lc.getKeySize();
+        int keySize = ks == null ? ServiceType.cache.getDefaultKeySize() : ks;
+        Long keyCount = lc.getOperations();
+
+        Object o = loadStrategyRawConfig.remove(KEY_DISTRIBUTION_LABEL);
+
+        if (o == null) {
+
+            RandomKeyProvider p = new RandomKeyProvider(keySize);
+            p.setKeyCount(keyCount);
+            return p;
+        }
+
+        if (!(o instanceof String)) {
+
+            throw new UserErrorException("'" + KEY_DISTRIBUTION_LABEL + "' not a string");
+        }
+
+        KeyDistribution distribution = KeyDistribution.fromString((String)o);
+
+        Number n = removeNumber(loadStrategyRawConfig, KEY_SPACE_SIZE_LABEL);
+
+        int keySpaceSize;
+
+        if (n == null) {
+
+            keySpaceSize = DEFAULT_KEY_SPACE_SIZE;
+        }
+        else if (!(n instanceof Integer) || n.intValue() <= 0) {
+
+            throw new UserErrorException("invalid '" + KEY_SPACE_SIZE_LABEL + "' value: " + n);
+        }
+        else {
+
+            keySpaceSize = n.intValue();
+        }
+
+        KeySpaceKeyProvider p;
+
+        try {
+
+            if (KeyDistribution.UNIFORM.equals(distribution)) {
+
+                p = new UniformKeyProvider(keySpaceSize, keySize);
+            }
+            else if (KeyDistribution.ZIPFIAN.equals(distribution) || KeyDistribution.LATEST.equals(distribution)) {
+
+                n = removeNumber(loadStrategyRawConfig, THETA_LABEL);
+                double theta = n == null ? ZipfianKeyProvider.DEFAULT_THETA : n.doubleValue();
+
+                if (theta <= 0d || theta >= 1d) {
+
+                    throw new UserErrorException(
+                            "invalid '" + THETA_LABEL + "' value: " + n + ", must be larger than 0 and smaller than 1");
+                }
+
+                if (KeyDistribution.ZIPFIAN.equals(distribution)) {
+
+                    p = new ZipfianKeyProvider(keySpaceSize, keySize, theta);
+                }
+                else {
+
+                    p = new LatestKeyProvider(keySpaceSize, keySize, theta);
+                }
+            }
+            else if (KeyDistribution.HOTSPOT.equals(distribution)) {
+
+                n = removeNumber(loadStrategyRawConfig, HOT_KEYS_LABEL);
+                double hotKeys = n == null ? HotspotKeyProvider.DEFAULT_HOT_KEY_PERCENTAGE : n.doubleValue();
+
+                if (hotKeys <= 0d || hotKeys > 100d) {
+
+                    throw new UserErrorException("invalid '" + HOT_KEYS_LABEL + "' value: " + n);
+                }
+
+                n = removeNumber(loadStrategyRawConfig, HOT_OPERATIONS_LABEL);
+                double hotOperations = n == null ? HotspotKeyProvider.DEFAULT_HOT_OPERATION_PERCENTAGE : n.doubleValue();
+
+                if (hotOperations < 0d || hotOperations > 100d) {
+
+                    throw new UserErrorException("invalid '" + HOT_OPERATIONS_LABEL + "' value: " + n);
+                }
+
+                p = new HotspotKeyProvider(keySpaceSize, keySize, hotKeys, hotOperations);
+            }
+            else {
+
+                throw new IllegalStateException("unsupported key distribution " + distribution);
+            }
+        }
+        catch(IllegalArgumentException e) {
+
+            //
+            // key size too small for the key space
+            //
+
+            throw new UserErrorException(e.getMessage(), e);
+        }
+
+        p.setKeyCount(keyCount);
+        return p;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    private KeyProviderFactory() {
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static Number removeNumber(Map<String, Object> m, String label) throws UserErrorException {
+
+        Object o = m.remove(label);
+
+        if (o == null) {
+
+            return null;
+        }
+
+        if (!(o instanceof Number)) {
+
+            throw new UserErrorException("'" + label + "' not a number");
+        }
+
+        return (Number)o;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import io.novaordis.gld.api.KeyProvider;
+import io.novaordis.gld.api.RandomContentGenerator;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A key provider that draws keys from a fixed key space of N keys, according to a distribution implemented by
+ * sub-classes. Repeatedly drawing from a bounded key space makes reads hit keys that were previously written, so the
+ * cache hit ratio and eviction behavior can be measured realistically.
+ *
+ * The keys are generated when the provider starts, so next() does not allocate: it selects an index in O(1) and
+ * returns the corresponding pre-generated key. The keys are deterministic: the same key space size and key size
+ * produce the same keys on every run, so a run can read keys written by a previous run. Each key consists of a
+ * pseudo-random alphanumeric section followed by the base-62 representation of its index, which guarantees uniqueness.
+ * The key space takes approximately N * (key size * 2 + 40) bytes of heap.
+ *
+ * Thread-safe after start().
+ *
+ * @see KeyDistribution
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public abstract class KeySpaceKeyProvider implements KeyProvider {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final char[] BASE_62 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the number of base-62 digits needed to represent all indices of a key space of the given size.
+     */
+    static int indexDigits(int keySpaceSize) {
+
+        int digits = 1;
+
+        for(long l = 62; l < keySpaceSize; l *= 62) {
+
+            digits ++;
+        }
+
+        return digits;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private volatile boolean started;
+
+    private final int keySpaceSize;
+
+    private final int keySize;
+
+    private AtomicLong remainingKeyCount;
+
+    private String[] keys;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @throws IllegalArgumentException if the key space size is not positive, or the key size is too small to
+     * accommodate the key space.
+     */
+    protected KeySpaceKeyProvider(int keySpaceSize, int keySize) {
+
+        if (keySpaceSize <= 0) {
+
+            throw new IllegalArgumentException("invalid key space size " + keySpaceSize);
+        }
+
+        if (keySize < indexDigits(keySpaceSize)) {
+
+            throw new IllegalArgumentException(
+                    "key size " + keySize + " too small for a key space of " + keySpaceSize + " keys, it must be at least "
+                            + indexDigits(keySpaceSize));
+        }
+
+        this.keySpaceSize = keySpaceSize;
+        this.keySize = keySize;
+    }
+
+    // KeyProvider implementation --------------------------------------------------------------------------------------
+
+    // lifecycle -------------------------------------------------------------------------------------------------------
+
+    @Override
+    public synchronized void start() throws Exception {
+
+        if (started) {
+
+            return;
+        }
+
+        if (keys == null) {
+
+            keys = generateKeys(keySpaceSize, keySize);
+        }
+
+        initializeDistribution();
+
+        started = true;
+    }
+
+    @Override
+    public void stop() {
+
+        if (!started) {
+
+            return;
+        }
+
+        started = false;
+    }
+
+    @Override
+    public boolean isStarted() {
+
+        return started;
+    }
+
+    @Override
+    public Long getRemainingKeyCount() {
+
+        if (remainingKeyCount == null) {
+
+            return null;
+        }
+
+        long l = remainingKeyCount.get();
+        return l < 0 ? 0 : l;
+    }
+
+    /**
+     * @return a key selected according to the distribution, or null if the key count was exhausted.
+     */
+    @Override
+    public String next() {
+
+        if (!consumeKey()) {
+
+            return null;
+        }
+
+        return keys[nextIndex()];
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the key to be written next, or null if the key count was exhausted. Unless a sub-class has a
+     * write-specific behavior, the key is selected with the same distribution as next().
+     */
+    public String nextToWrite() {
+
+        if (!consumeKey()) {
+
+            return null;
+        }
+
+        return keys[nextWriteIndex()];
+    }
+
+    /**
+     * Sets the number of keys to be generated by this provider. null (the default) means unlimited.
+     *
+     * @exception IllegalStateException if the instance was started when the method was invoked.
+     */
+    public void setKeyCount(Long l) {
+
+        if (started) {
+
+            throw new IllegalStateException("cannot configure a started instance");
+        }
+
+        remainingKeyCount = l == null ? null : new AtomicLong(l);
+    }
+
+    public int getKeySpaceSize() {
+
+        return keySpaceSize;
+    }
+
+    public int getKeySize() {
+
+        return keySize;
+    }
+
+    /**
+     * @return the key corresponding to the given index in the key space.
+     *
+     * @exception IllegalStateException if the instance was never started.
+     */
+    public String getKey(int index) {
+
+        if (keys == null) {
+
+            throw new IllegalStateException(this + " was not started");
+        }
+
+        return keys[index];
+    }
+
+    public abstract KeyDistribution getDistribution();
+
+    @Override
+    public String toString() {
+
+        return getDistribution().getLabel() + " key provider (" + keySpaceSize + " keys)";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * Must return a value in the [0, key space size) interval. Invoked concurrently, must be thread-safe and should not
+     * allocate.
+     */
+    abstract int nextIndex();
+
+    /**
+     * The write equivalent of nextIndex(). The default implementation delegates to nextIndex().
+     */
+    int nextWriteIndex() {
+
+        return nextIndex();
+    }
+
+    /**
+     * Invoked on start(), after the keys have been generated, before any nextIndex() invocation. Sub-classes that need
+     * to pre-compute distribution constants should override it.
+     */
+    void initializeDistribution() {
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return false if the key count was exhausted.
+     */
+    private boolean consumeKey() {
+
+        if (!started) {
+
+            throw new IllegalStateException(this + " not started");
+        }
+
+        if (remainingKeyCount != null && remainingKeyCount.getAndDecrement() <= 0) {
+
+            remainingKeyCount.set(0);
+            return false;
+        }
+
+        return true;
+    }
+
+    private static String[] generateKeys(int keySpaceSize, int keySize) {
+
+        //
+        // the key space is not sent to the service as it is generated, so it does not count as generated content
+        //
+
+        RandomContentGenerator generator = new RandomContentGenerator(false);
+        Random random = new Random(keySpaceSize * 31L + keySize);
+
+        int digits = indexDigits(keySpaceSize);
+        int randomSectionLength = keySize - digits;
+        char[] buffer = new char[keySize];
+        String[] keys = new String[keySpaceSize];
+
+        for(int i = 0; i < keySpaceSize; i ++) {
+
+            if (randomSectionLength > 0) {
+
+                generator.fill(random, buffer, 0, randomSectionLength, randomSectionLength);
+            }
+
+            int index = i;
+
+            for(int j = keySize - 1; j >= randomSectionLength; j --) {
+
+                buffer[j] = BASE_62[index % 62];
+                index /= 62;
+            }
+
+            keys[i] = new String(buffer);
+        }
+
+        return keys;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes keys in sequence, wrapping around at the end of the key space, and reads recently written keys: the age of a
+ * read key, in writes, is Zipf-distributed, so the most recently written key is the most likely to be read. This
+ * models workloads where new records are the most popular.
+ *
+ * The strategy must obtain its write keys with nextToWrite(). Until the first write, reads favor the keys with the
+ * highest indices.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class LatestKeyProvider extends KeySpaceKeyProvider {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final double theta;
+
+    private volatile ZipfianGenerator generator;
+
+    // the number of keys handed over for writing
+    private final AtomicLong writeCount;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param theta the skew of the age distribution, must be in the (0, 1) interval.
+     */
+    public LatestKeyProvider(int keySpaceSize, int keySize, double theta) {
+
+        super(keySpaceSize, keySize);
+
+        if (theta <= 0d || theta >= 1d) {
+
+            throw new IllegalArgumentException("invalid theta " + theta + ", must be larger than 0 and smaller than 1");
+        }
+
+        this.theta = theta;
+        this.writeCount = new AtomicLong(0L);
+    }
+
+    // KeySpaceKeyProvider overrides -----------------------------------------------------------------------------------
+
+    @Override
+    public KeyDistribution getDistribution() {
+
+        return KeyDistribution.LATEST;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public double getTheta() {
+
+        return theta;
+    }
+
+    /**
+     * @return the number of keys handed over by nextToWrite() so far.
+     */
+    public long getWriteCount() {
+
+        return writeCount.get();
+    }
+
+    @Override
+    public String toString() {
+
+        return super.toString() + ", theta " + theta;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    @Override
+    void initializeDistribution() {
+
+        if (generator == null) {
+
+            generator = new ZipfianGenerator(getKeySpaceSize(), theta);
+        }
+    }
+
+    @Override
+    int nextIndex() {
+
+        int n = getKeySpaceSize();
+        long latest = writeCount.get() - 1;
+        int age = generator.next(ThreadLocalRandom.current().nextDouble());
+
+        return (int)Math.floorMod(latest - age, (long)n);
+    }
+
+    @Override
+    int nextWriteIndex() {
+
+        return (int)(writeCount.getAndIncrement() % getKeySpaceSize());
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
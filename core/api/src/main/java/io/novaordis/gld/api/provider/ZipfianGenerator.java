@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+/**
+ * Generates Zipf-distributed integers in the [0, n) interval: 0 is the most likely value, followed by 1, etc. The
+ * probability of value i is proportional to 1/(i + 1)^theta.
+ *
+ * Uses the algorithm described in Gray et al., "Quickly Generating Billion-Record Synthetic Databases" (SIGMOD 1994):
+ * the zeta constant is computed once, in O(n), and each value is then generated in O(1), without allocation.
+ *
+ * Immutable and thread-safe; the caller provides the uniformly distributed random number.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+class ZipfianGenerator {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    static double zeta(long n, double theta) {
+
+        double sum = 0d;
+
+        for(long i = 1; i <= n; i ++) {
+
+            sum += 1d / Math.pow(i, theta);
+        }
+
+        return sum;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final int n;
+    private final double theta;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+    private final double secondValueThreshold;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param theta must be in the (0, 1) interval. The larger the value, the more skewed the distribution.
+     */
+    ZipfianGenerator(int n, double theta) {
+
+        if (n <= 0) {
+
+            throw new IllegalArgumentException("invalid item count " + n);
+        }
+
+        if (theta <= 0d || theta >= 1d) {
+
+            throw new IllegalArgumentException("invalid theta " + theta + ", must be larger than 0 and smaller than 1");
+        }
+
+        this.n = n;
+        this.theta = theta;
+        this.zetaN = zeta(n, theta);
+        this.alpha = 1d / (1d - theta);
+        this.secondValueThreshold = 1d + Math.pow(0.5d, theta);
+
+        if (n > 2) {
+
+            double zeta2 = zeta(2, theta);
+            this.eta = (1d - Math.pow(2d / n, 1d - theta)) / (1d - zeta2 / zetaN);
+        }
+        else {
+
+            //
+            // not used, all values are generated by the first two branches
+            //
+            this.eta = 0d;
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param u a uniformly distributed random number in the [0, 1) interval.
+     *
+     * @return a value in the [0, n) interval.
+     */
+    int next(double u) {
+
+        double uz = u * zetaN;
+
+        if (uz < 1d || n == 1) {
+
+            return 0;
+        }
+
+        if (uz < secondValueThreshold || n == 2) {
+
+            return 1;
+        }
+
+        int i = (int)(n * Math.pow(eta * u - eta + 1d, alpha));
+
+        return i >= n ? n - 1 : i;
+    }
+
+    int getN() {
+
+        return n;
+    }
+
+    double getTheta() {
+
+        return theta;
+    }
+
+    @Override
+    public String toString() {
+
+        return "ZipfianGenerator[n=" + n + ", theta=" + theta + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
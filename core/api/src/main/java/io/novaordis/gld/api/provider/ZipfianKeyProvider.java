@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Selects keys with a Zipf distribution: the key with index 0 is the most popular, followed by the key with index 1,
+ * etc. The skew is controlled by theta: values close to 1 concentrate most accesses on a small number of keys, values
+ * close to 0 approach a uniform distribution. The default theta (0.99) is the value commonly used to model cache
+ * access patterns.
+ *
+ * The distribution constants are computed on start(), in O(N).
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class ZipfianKeyProvider extends KeySpaceKeyProvider {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final double DEFAULT_THETA = 0.99d;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final double theta;
+
+    private volatile ZipfianGenerator generator;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param theta must be in the (0, 1) interval.
+     */
+    public ZipfianKeyProvider(int keySpaceSize, int keySize, double theta) {
+
+        super(keySpaceSize, keySize);
+
+        if (theta <= 0d || theta >= 1d) {
+
+            throw new IllegalArgumentException("invalid theta " + theta + ", must be larger than 0 and smaller than 1");
+        }
+
+        this.theta = theta;
+    }
+
+    // KeySpaceKeyProvider overrides -----------------------------------------------------------------------------------
+
+    @Override
+    public KeyDistribution getDistribution() {
+
+        return KeyDistribution.ZIPFIAN;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public double getTheta() {
+
+        return theta;
+    }
+
+    @Override
+    public String toString() {
+
+        return super.toString() + ", theta " + theta;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    @Override
+    void initializeDistribution() {
+
+        if (generator == null) {
+
+            generator = new ZipfianGenerator(getKeySpaceSize(), theta);
+        }
+    }
+
+    @Override
+    int nextIndex() {
+
+        return generator.next(ThreadLocalRandom.current().nextDouble());
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
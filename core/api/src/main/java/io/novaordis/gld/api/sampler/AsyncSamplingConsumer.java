@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decouples the production of sampling intervals from their consumption. The sampling thread hands the intervals over
+ * to a bounded queue and returns immediately; the wrapped consumer processes them in order on its own thread. A slow
+ * consumer (for example, one that writes to a slow disk) cannot delay the sampling thread, and thus cannot distort the
+ * measurements.
+ *
+ * If the queue is full, the intervals being handed over are dropped and counted, the sampling thread never blocks.
+ *
+ * The dispatch lag (the time between the hand-off and the moment the wrapped consumer is done with the intervals) and
+ * the dropped interval count are maintained per instance. The sampler aggregates them over its own consumers, and
+ * reports them with the SamplingConsumerLag and DroppedSamplingIntervals metrics.
+ *
+ * @see io.novaordis.gld.api.sampler.metrics.SamplingConsumerLag
+ * @see io.novaordis.gld.api.sampler.metrics.DroppedSamplingIntervals
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class AsyncSamplingConsumer implements SamplingConsumer {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncSamplingConsumer.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    public static final long DEFAULT_STOP_TIMEOUT_MS = 10000L;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    private static final AtomicInteger threadCounter = new AtomicInteger(0);
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final SamplingConsumer delegate;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong droppedIntervalCount;
+    private final AtomicLong maxLagNano;
+
+    private long stopTimeoutMs;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public AsyncSamplingConsumer(SamplingConsumer delegate) {
+
+        this(delegate, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param queueCapacity the maximum number of pending hand-offs. Must be positive.
+     */
+    public AsyncSamplingConsumer(SamplingConsumer delegate, int queueCapacity) {
+
+        if (delegate == null) {
+
+            throw new IllegalArgumentException("null delegate");
+        }
+
+        if (queueCapacity <= 0) {
+
+            throw new IllegalArgumentException("invalid queue capacity " + queueCapacity);
+        }
+
+        this.delegate = delegate;
+        this.queueCapacity = queueCapacity;
+        this.stopTimeoutMs = DEFAULT_STOP_TIMEOUT_MS;
+        this.droppedIntervalCount = new AtomicLong(0L);
+        this.maxLagNano = new AtomicLong(0L);
+
+        this.executor = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity),
+                r -> {
+
+                    Thread t = new Thread(r, "Sampling Consumer " + threadCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new DroppingPolicy());
+    }
+
+    // SamplingConsumer implementation ---------------------------------------------------------------------------------
+
+    /**
+     * Hands the sampling intervals over to the consumer thread and returns immediately. Never blocks.
+     */
+    @Override
+    public void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+        if (samplingIntervals == null || samplingIntervals.length == 0) {
+
+            return;
+        }
+
+        executor.execute(new Delivery(samplingIntervals, System.nanoTime()));
+    }
+
+    /**
+     * Waits until the pending intervals are consumed (but not longer than the stop timeout) and then stops the wrapped
+     * consumer. The intervals that could not be consumed within the timeout are dropped.
+     */
+    @Override
+    public void stop() {
+
+        executor.shutdown();
+
+        try {
+
+            if (!executor.awaitTermination(stopTimeoutMs, TimeUnit.MILLISECONDS)) {
+
+                int pending = executor.shutdownNow().size();
+
+                log.warn(delegate + " did not consume the pending sampling intervals in " + stopTimeoutMs +
+                        " ms, " + pending + " hand-off(s) dropped");
+            }
+        }
+        catch(InterruptedException e) {
+
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        delegate.stop();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public SamplingConsumer getDelegate() {
+
+        return delegate;
+    }
+
+    public int getQueueCapacity() {
+
+        return queueCapacity;
+    }
+
+    /**
+     * @return the number of hand-offs not yet processed by the wrapped consumer.
+     */
+    public int getPendingCount() {
+
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of sampling intervals dropped by this instance because its queue was full.
+     */
+    public long getDroppedIntervalCount() {
+
+        return droppedIntervalCount.get();
+    }
+
+    /**
+     * @return the maximum dispatch lag, in nanoseconds, observed by this instance since the previous invocation, or 0
+     * if no intervals were consumed in the mean time.
+     */
+    public long getMaxLagNanoAndReset() {
+
+        return maxLagNano.getAndSet(0L);
+    }
+
+    public void setStopTimeoutMs(long stopTimeoutMs) {
+
+        this.stopTimeoutMs = stopTimeoutMs;
+    }
+
+    public long getStopTimeoutMs() {
+
+        return stopTimeoutMs;
+    }
+
+    @Override
+    public String toString() {
+
+        return "AsyncSamplingConsumer[" + delegate + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private void updateMaxLag(long lagNano) {
+
+        long max;
+
+        while((max = maxLagNano.get()) < lagNano) {
+
+            if (maxLagNano.compareAndSet(max, lagNano)) {
+
+                return;
+            }
+        }
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    private class Delivery implements Runnable {
+
+        private final SamplingInterval[] samplingIntervals;
+        private final long handOffNano;
+
+        private Delivery(SamplingInterval[] samplingIntervals, long handOffNano) {
+
+            this.samplingIntervals = samplingIntervals;
+            this.handOffNano = handOffNano;
+        }
+
+        @Override
+        public void run() {
+
+            try {
+
+                delegate.consume(samplingIntervals);
+            }
+            catch(Throwable t) {
+
+                //
+                // protect the consumer thread against malfunctioning consumers
+                //
+
+                log.warn("sampling consumer " + delegate + " failed to handle a sampling interval instance", t);
+            }
+
+            updateMaxLag(System.nanoTime() - handOffNano);
+        }
+    }
+
+    private class DroppingPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+
+            if (executor.isShutdown()) {
+
+                throw new RejectedExecutionException("sampling consumer stopped");
+            }
+
+            int count = ((Delivery)r).samplingIntervals.length;
+
+            droppedIntervalCount.addAndGet(count);
+
+            log.warn("sampling consumer queue full, " + count + " sampling interval(s) dropped");
+        }
+    }
+}
@@ -45,6 +45,39 @@ public interface Counter
      */
     void update(long t0Ms, long t0Nano, long t1Nano, Throwable... t);
 
+    /**
+     * Update the corresponding counter with an operation whose intended start time differs from the actual start time.
+     * This is the case when the load is generated on a fixed timeline (open-loop), and the operation could not be
+     * started when it was scheduled because the runner was still waiting for a previous, slower operation. The interval
+     * between intendedT0Nano and t1Nano is the operation's "response time", as experienced by an user that issued the
+     * operation at the intended time. The interval between t0Nano and t1Nano is the operation's "service time". Using
+     * only the service time leads to "coordinated omission": a target service stall is reflected in one slow
+     * operation instead of all operations that should have been started during the stall.
+     *
+     * @param intendedT0Nano - the time (in nanoseconds) when the operation should have started. Must not be later than
+     *                       t0Nano. For closed-loop load, it is the same as t0Nano.
+     *
+     * @throws java.lang.IllegalArgumentException if t0Nano precedes intendedT0Nano.
+     *
+     * @see Counter#update(long, long, long, Throwable...)
+     * @see Sampler#record(long, long, long, long, Operation, Throwable...)
+     */
+    void update(long t0Ms, long intendedT0Nano, long t0Nano, long t1Nano, Throwable... t);
+
+    /**
+     * Update the corresponding counter with an operation that accessed more than one key in a single call (a bulk
+     * operation). The operation is counted once, as any other operation, while the keys are accumulated separately,
+     * so the statistics can be reported both in operations per second and in keys per second.
+     *
+     * @param keyCount the number of keys accessed by the operation. Must be positive.
+     *
+     * @throws java.lang.IllegalArgumentException on invalid key count.
+     *
+     * @see Counter#update(long, long, long, long, Throwable...)
+     * @see io.novaordis.gld.api.BatchOperation
+     */
+    void update(long t0Ms, long intendedT0Nano, long t0Nano, long t1Nano, int keyCount, Throwable... t);
+
     Class<? extends Operation> getOperationType();
 
     /**
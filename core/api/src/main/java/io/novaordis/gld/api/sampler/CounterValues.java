@@ -29,12 +29,55 @@ public interface CounterValues
      */
     long getSuccessCount();
 
+    /**
+     * @return the number of keys accessed by the successful operations accumulated since the counter was last reset.
+     * For operations that access a single key, it is the same as the success count. For bulk operations, it is the sum
+     * of the batch sizes.
+     *
+     * @see Counter#update(long, long, long, long, int, Throwable...)
+     */
+    long getSuccessKeyCount();
+
     /**
      * @return the cumulated duration (in nanoseconds) for all successful operations counted since the counter was
      * last reset.
      */
     long getSuccessCumulatedDurationNano();
 
+    /**
+     * @return the cumulated response time (in nanoseconds) for all successful operations counted since the counter was
+     * last reset. The response time is measured from the moment the operation was intended to start, as opposed to
+     * the moment it actually started, so it includes the time the operation spent waiting behind slower operations.
+     * For closed-loop load, the response time is the same as the duration (service time).
+     *
+     * @see CounterValues#getSuccessCumulatedDurationNano()
+     * @see Counter#update(long, long, long, long, Throwable...)
+     */
+    long getSuccessCumulatedResponseTimeNano();
+
+    /**
+     * @param percentile a value between 0 and 100, for example 99.9.
+     *
+     * @return the response time (in nanoseconds) below which the given percentage of the successful operations counted
+     * since the counter was last reset fall, with a precision better than 1.6%. Returns 0 if no latency distribution was
+     * recorded.
+     *
+     * @see LatencyHistogram#getValueAtPercentile(double)
+     */
+    long getSuccessResponseTimePercentileNano(double percentile);
+
+    /**
+     * @return the maximum response time (in nanoseconds) for all successful operations counted since the counter was
+     * last reset. Returns 0 if no latency distribution was recorded.
+     */
+    long getSuccessMaxResponseTimeNano();
+
+    /**
+     * @return the response time distribution for the successful operations counted since the counter was last reset.
+     * May return null, if the distribution was not recorded. The returned instance must not be modified.
+     */
+    LatencyHistogram getSuccessResponseTimeHistogram();
+
     /**
      * The failure types seen since the counter was last reset.
      *
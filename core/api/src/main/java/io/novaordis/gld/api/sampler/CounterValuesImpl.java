@@ -32,7 +32,12 @@ public class CounterValuesImpl implements CounterValues
     // Attributes ------------------------------------------------------------------------------------------------------
 
     private long successCount;
+    private long successKeyCount;
     private long successCumulatedDurationNano;
+    private long successCumulatedResponseTimeNano;
+
+    // null if the distribution was not recorded
+    private LatencyHistogram successResponseTimeHistogram;
 
     private Map<Class<? extends Throwable>, ImmutableFailureCounter> failureCounters;
 
@@ -65,8 +70,58 @@ public class CounterValuesImpl implements CounterValues
     public CounterValuesImpl(long successCount, long successCumulatedDurationNano,
                              Map<Class<? extends Throwable>, ImmutableFailureCounter> failureCounters)
     {
+        this(successCount, successCumulatedDurationNano, successCumulatedDurationNano, null, failureCounters);
+    }
+
+    /**
+     * @param successCumulatedResponseTimeNano the cumulated response time, measured from the intended start time.
+     *
+     * @see CounterValues#getSuccessCumulatedResponseTimeNano()
+     */
+    public CounterValuesImpl(long successCount, long successCumulatedDurationNano,
+                             long successCumulatedResponseTimeNano,
+                             Map<Class<? extends Throwable>, ImmutableFailureCounter> failureCounters)
+    {
+        this(successCount, successCumulatedDurationNano, successCumulatedResponseTimeNano, null, failureCounters);
+    }
+
+    /**
+     * @param successResponseTimeHistogram the response time distribution. May be null. The instance will be owned by
+     *                                     this CounterValues instance and it must not be modified by the caller.
+     *
+     * @see CounterValues#getSuccessResponseTimeHistogram()
+     */
+    public CounterValuesImpl(long successCount, long successCumulatedDurationNano,
+                             long successCumulatedResponseTimeNano, LatencyHistogram successResponseTimeHistogram,
+                             Map<Class<? extends Throwable>, ImmutableFailureCounter> failureCounters)
+    {
+        this(successCount, successCount, successCumulatedDurationNano, successCumulatedResponseTimeNano,
+            successResponseTimeHistogram, failureCounters);
+    }
+
+    /**
+     * @param successKeyCount the number of keys accessed by the successful operations. Must not be smaller than the
+     *                        success count.
+     *
+     * @see CounterValues#getSuccessKeyCount()
+     *
+     * @throws IllegalArgumentException on invalid key count.
+     */
+    public CounterValuesImpl(long successCount, long successKeyCount, long successCumulatedDurationNano,
+                             long successCumulatedResponseTimeNano, LatencyHistogram successResponseTimeHistogram,
+                             Map<Class<? extends Throwable>, ImmutableFailureCounter> failureCounters)
+    {
+        if (successKeyCount < successCount)
+        {
+            throw new IllegalArgumentException(
+                "key count " + successKeyCount + " smaller than success count " + successCount);
+        }
+
         this.successCount = successCount;
+        this.successKeyCount = successKeyCount;
         this.successCumulatedDurationNano = successCumulatedDurationNano;
+        this.successCumulatedResponseTimeNano = successCumulatedResponseTimeNano;
+        this.successResponseTimeHistogram = successResponseTimeHistogram;
 
         if (failureCounters == null)
         {
@@ -86,12 +141,52 @@ public class CounterValuesImpl implements CounterValues
         return successCount;
     }
 
+    @Override
+    public long getSuccessKeyCount()
+    {
+        return successKeyCount;
+    }
+
     @Override
     public long getSuccessCumulatedDurationNano()
     {
         return successCumulatedDurationNano;
     }
 
+    @Override
+    public long getSuccessCumulatedResponseTimeNano()
+    {
+        return successCumulatedResponseTimeNano;
+    }
+
+    @Override
+    public long getSuccessResponseTimePercentileNano(double percentile)
+    {
+        if (successResponseTimeHistogram == null)
+        {
+            return 0L;
+        }
+
+        return successResponseTimeHistogram.getValueAtPercentile(percentile);
+    }
+
+    @Override
+    public long getSuccessMaxResponseTimeNano()
+    {
+        if (successResponseTimeHistogram == null)
+        {
+            return 0L;
+        }
+
+        return successResponseTimeHistogram.getMaxValue();
+    }
+
+    @Override
+    public LatencyHistogram getSuccessResponseTimeHistogram()
+    {
+        return successResponseTimeHistogram;
+    }
+
     @Override
     public Set<Class<? extends Throwable>> getFailureTypes()
     {
@@ -189,7 +284,23 @@ public class CounterValuesImpl implements CounterValues
     public void incrementWith(CounterValues other)
     {
         successCount += other.getSuccessCount();
+        successKeyCount += other.getSuccessKeyCount();
         successCumulatedDurationNano += other.getSuccessCumulatedDurationNano();
+        successCumulatedResponseTimeNano += other.getSuccessCumulatedResponseTimeNano();
+
+        LatencyHistogram otherHistogram = other.getSuccessResponseTimeHistogram();
+
+        if (otherHistogram != null)
+        {
+            if (successResponseTimeHistogram == null)
+            {
+                successResponseTimeHistogram = otherHistogram.copy();
+            }
+            else
+            {
+                successResponseTimeHistogram.add(otherHistogram);
+            }
+        }
 
         Set<Class<? extends Throwable>> otherFailureTypes = other.getFailureTypes();
 
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-footprint latency histogram with HDR (High Dynamic Range) bucket layout: values are grouped in exponentially
+ * growing buckets, and each bucket is divided in SUB_BUCKET_COUNT/2 linear sub-buckets, so the relative error of any
+ * recorded value is bounded (under 1/64, or about 1.6%) over the whole trackable range, from 1 ns to
+ * HIGHEST_TRACKABLE_VALUE. Values larger than HIGHEST_TRACKABLE_VALUE are counted in the highest sub-bucket, but the
+ * maximum is maintained exactly.
+ *
+ * Recording is O(1) and allocation-free.
+ *
+ * NOT thread safe. An instance is supposed to be written by a single thread, and read only after the writer has been
+ * excluded by external means.
+ *
+ * @see LatencyRecorder
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/11/17
+ */
+public class LatencyHistogram {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int SUB_BUCKET_COUNT_MAGNITUDE = 7;
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_COUNT_MAGNITUDE;
+
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = SUB_BUCKET_COUNT_MAGNITUDE - 1;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    // ~18 minutes, in nanoseconds
+    public static final long HIGHEST_TRACKABLE_VALUE = (1L << 40) - 1;
+
+    private static final int COUNTS_LENGTH = countsIndex(HIGHEST_TRACKABLE_VALUE) + 1;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    static int countsIndex(long value) {
+
+        int bucketIndex = 64 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - SUB_BUCKET_COUNT_MAGNITUDE;
+        int subBucketIndex = (int)(value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    /**
+     * @return the lowest value that is counted in the same sub-bucket as the value corresponding to the given index.
+     */
+    static long lowestEquivalentValue(int countsIndex) {
+
+        int bucketIndex = (countsIndex >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (countsIndex & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+
+        if (bucketIndex < 0) {
+
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+
+        return ((long)subBucketIndex) << bucketIndex;
+    }
+
+    /**
+     * @return the highest value that is counted in the same sub-bucket as the value corresponding to the given index.
+     */
+    static long highestEquivalentValue(int countsIndex) {
+
+        int bucketIndex = (countsIndex >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+
+        if (bucketIndex < 0) {
+
+            bucketIndex = 0;
+        }
+
+        return lowestEquivalentValue(countsIndex) + (1L << bucketIndex) - 1;
+    }
+
+    /**
+     * Rebuilds a histogram from its bucket counts, as produced by nextNonZeroIndex() and getCountAtIndex(). Used to
+     * read back histograms from storage. The total value and the maximum are not derivable from the buckets with exact
+     * precision, so they must be provided.
+     *
+     * @param indexes the bucket indexes, only the first 'length' elements are used.
+     * @param bucketCounts the corresponding counts.
+     *
+     * @throws IllegalArgumentException on invalid bucket index.
+     */
+    public static LatencyHistogram fromBucketCounts(
+            int[] indexes, long[] bucketCounts, int length, long totalValue, long maxValue) {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        for(int i = 0; i < length; i ++) {
+
+            int index = indexes[i];
+
+            if (index < 0 || index >= COUNTS_LENGTH) {
+
+                throw new IllegalArgumentException("invalid bucket index " + index);
+            }
+
+            h.counts[index] += bucketCounts[i];
+            h.totalCount += bucketCounts[i];
+        }
+
+        h.totalValue = totalValue;
+        h.maxValue = maxValue;
+
+        return h;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final long[] counts;
+    private long totalCount;
+    private long totalValue;
+    private long maxValue;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public LatencyHistogram() {
+
+        this.counts = new long[COUNTS_LENGTH];
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param value the value to record, in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long value) {
+
+        if (value < 0) {
+
+            value = 0;
+        }
+
+        if (value > maxValue) {
+
+            maxValue = value;
+        }
+
+        counts[countsIndex(value > HIGHEST_TRACKABLE_VALUE ? HIGHEST_TRACKABLE_VALUE : value)] ++;
+        totalCount ++;
+        totalValue += value;
+    }
+
+    /**
+     * Adds the content of the given histogram to this histogram. The argument is not modified.
+     */
+    public void add(LatencyHistogram other) {
+
+        if (other == null || other.totalCount == 0) {
+
+            return;
+        }
+
+        long[] otherCounts = other.counts;
+
+        for(int i = 0; i < counts.length; i ++) {
+
+            counts[i] += otherCounts[i];
+        }
+
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+
+        if (other.maxValue > maxValue) {
+
+            maxValue = other.maxValue;
+        }
+    }
+
+    public void reset() {
+
+        if (totalCount == 0) {
+
+            return;
+        }
+
+        Arrays.fill(counts, 0L);
+        totalCount = 0L;
+        totalValue = 0L;
+        maxValue = 0L;
+    }
+
+    public LatencyHistogram copy() {
+
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    public long getTotalCount() {
+
+        return totalCount;
+    }
+
+    /**
+     * @return the exact sum of all recorded values (not affected by the sub-bucket precision).
+     */
+    public long getTotalValue() {
+
+        return totalValue;
+    }
+
+    /**
+     * @return the exact maximum recorded value, or 0 if nothing was recorded.
+     */
+    public long getMaxValue() {
+
+        return maxValue;
+    }
+
+    /**
+     * @param percentile a value between 0 and 100, for example 99.9.
+     *
+     * @return the value below (or at) which the given percentage of the recorded values fall. The value is reported
+     * with the precision of the sub-bucket it falls in, but it never exceeds the exact maximum. Returns 0 if nothing was
+     * recorded.
+     *
+     * @throws IllegalArgumentException if the percentile is not within [0, 100].
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        if (percentile < 0 || percentile > 100) {
+
+            throw new IllegalArgumentException("invalid percentile " + percentile);
+        }
+
+        if (totalCount == 0) {
+
+            return 0L;
+        }
+
+        long countAtPercentile = (long)Math.ceil((percentile / 100) * totalCount);
+
+        if (countAtPercentile < 1) {
+
+            countAtPercentile = 1;
+        }
+
+        long cumulated = 0L;
+
+        for(int i = 0; i < counts.length; i ++) {
+
+            cumulated += counts[i];
+
+            if (cumulated >= countAtPercentile) {
+
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+
+        return maxValue;
+    }
+
+    /**
+     * Bucket iteration support, used to store histograms in a compact form.
+     *
+     * @return the index of the first bucket with a non-zero count, at or after the given index, or -1 if there is no
+     * such bucket.
+     *
+     * @see LatencyHistogram#fromBucketCounts(int[], long[], int, long, long)
+     */
+    public int nextNonZeroIndex(int from) {
+
+        for(int i = Math.max(from, 0); i < counts.length; i ++) {
+
+            if (counts[i] != 0) {
+
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return the count of the bucket with the given index.
+     *
+     * @see LatencyHistogram#nextNonZeroIndex(int)
+     */
+    public long getCountAtIndex(int index) {
+
+        return counts[index];
+    }
+
+    /**
+     * @return the number of buckets with a non-zero count.
+     */
+    public int getNonZeroBucketCount() {
+
+        int n = 0;
+
+        for(long c: counts) {
+
+            if (c != 0) {
+
+                n ++;
+            }
+        }
+
+        return n;
+    }
+
+    @Override
+    public String toString() {
+
+        return "LatencyHistogram[" + totalCount + " values, max " + maxValue + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
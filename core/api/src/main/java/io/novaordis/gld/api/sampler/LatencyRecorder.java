@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Non-blocking, striped latency recording. The recorder maintains a fixed number of slots, each with its own
+ * LatencyHistogram and its own cumulated duration, and each recording thread has a preferred slot, derived from its
+ * thread ID. A writer claims its preferred slot with a single compare-and-set, records into the slot's histogram and
+ * releases the slot. If the slot is claimed by another writer, it moves on to the next slot instead of waiting. With
+ * no more recording threads than slots, each thread practically writes into its own histogram and threads do not
+ * contend with each other. The slots are padded, so the claim flag and the cumulated duration of a slot do not share
+ * a cache line with those of the neighbouring slots.
+ *
+ * The number of slots does not depend on the number of recording threads, so the memory footprint stays bounded when
+ * the load is generated by a very large number of (virtual) threads.
+ *
+ * The sampling thread periodically claims each slot in turn, swaps its active histogram with an empty one and
+ * aggregates the swapped-out histograms into an interval histogram. The count and the sum of the recorded values are
+ * maintained by the histograms, so a recording is a single slot claim, with no shared counters to update.
+ *
+ * @see LatencyHistogram
+ * @see NonBlockingCounter
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/11/17
+ */
+public class LatencyRecorder {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int DEFAULT_SLOT_COUNT = slotCountFor(Runtime.getRuntime().availableProcessors());
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the smallest power of two that is larger or equal to four times the given processor count.
+     */
+    static int slotCountFor(int processors) {
+
+        int n = Math.max(4 * processors, 2);
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final WriterSlot[] slots;
+    private final int mask;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public LatencyRecorder() {
+
+        this(DEFAULT_SLOT_COUNT);
+    }
+
+    /**
+     * @param slotCount must be a power of two.
+     */
+    public LatencyRecorder(int slotCount) {
+
+        if (slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+
+            throw new IllegalArgumentException("invalid slot count " + slotCount + ", must be a power of two");
+        }
+
+        this.slots = new WriterSlot[slotCount];
+
+        for(int i = 0; i < slotCount; i ++) {
+
+            slots[i] = new WriterSlot();
+        }
+
+        this.mask = slotCount - 1;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Records the value into one of the slot histograms. Non-blocking, allocation-free after the slot's first use.
+     */
+    public void record(long valueNano) {
+
+        record(valueNano, 0L);
+    }
+
+    /**
+     * Records the value into one of the slot histograms, and adds the duration to the slot's cumulated duration. The
+     * duration distribution is not maintained. NonBlockingCounter records the response time as value and the service
+     * time as duration. Non-blocking, allocation-free after the slot's first use.
+     */
+    public void record(long valueNano, long durationNano) {
+
+        //
+        // spread consecutive thread IDs over the slots
+        //
+
+        int i = (int)((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+
+        while(true) {
+
+            WriterSlot slot = slots[i];
+
+            if (slot.tryAcquire()) {
+
+                try {
+
+                    if (slot.active == null) {
+
+                        slot.active = new LatencyHistogram();
+                    }
+
+                    slot.active.record(valueNano);
+                    slot.cumulatedDurationNano += durationNano;
+                }
+                finally {
+
+                    slot.release();
+                }
+
+                return;
+            }
+
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * @return a new histogram instance, never null. The caller owns it.
+     *
+     * @see LatencyRecorder#getIntervalAndReset()
+     */
+    public LatencyHistogram getIntervalHistogramAndReset() {
+
+        return getIntervalAndReset().getHistogram();
+    }
+
+    /**
+     * Swaps all slots' active histograms with empty histograms and returns the aggregation of the values recorded
+     * since the previous invocation. This method is designed to be called periodically, always from the same thread -
+     * the thread that manages counter statistics.
+     *
+     * @return a new instance, never null. The caller owns it.
+     */
+    public synchronized Interval getIntervalAndReset() {
+
+        LatencyHistogram result = new LatencyHistogram();
+        long cumulatedDurationNano = 0L;
+
+        for(WriterSlot slot: slots) {
+
+            LatencyHistogram previous;
+
+            while(!slot.tryAcquire()) {
+
+                Thread.yield();
+            }
+
+            try {
+
+                previous = slot.active;
+
+                if (previous == null) {
+
+                    //
+                    // the slot was never used
+                    //
+
+                    continue;
+                }
+
+                slot.active = slot.spare == null ? new LatencyHistogram() : slot.spare;
+                cumulatedDurationNano += slot.cumulatedDurationNano;
+                slot.cumulatedDurationNano = 0L;
+            }
+            finally {
+
+                slot.release();
+            }
+
+            result.add(previous);
+            previous.reset();
+            slot.spare = previous;
+        }
+
+        return new Interval(result, cumulatedDurationNano);
+    }
+
+    public int getSlotCount() {
+
+        return slots.length;
+    }
+
+    @Override
+    public String toString() {
+
+        return "LatencyRecorder[" + slots.length + " slots]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    /**
+     * The values recorded since the previous getIntervalAndReset() invocation.
+     */
+    public static class Interval {
+
+        private final LatencyHistogram histogram;
+        private final long cumulatedDurationNano;
+
+        Interval(LatencyHistogram histogram, long cumulatedDurationNano) {
+
+            this.histogram = histogram;
+            this.cumulatedDurationNano = cumulatedDurationNano;
+        }
+
+        /**
+         * @return the distribution of the recorded values. Also carries their count and their exact sum.
+         */
+        public LatencyHistogram getHistogram() {
+
+            return histogram;
+        }
+
+        public long getCumulatedDurationNano() {
+
+            return cumulatedDurationNano;
+        }
+    }
+
+    /**
+     * 64 bytes (a cache line on most processors) of padding preceding the slot's hot fields. The JVM lays out the
+     * fields of a superclass before those of its subclasses, so the padding is introduced through the class hierarchy.
+     * The int fills the gap the object header may leave, which the JVM would otherwise fill with a subclass field.
+     */
+    private static class LeftPadding {
+
+        int p00;
+        long p01, p02, p03, p04, p05, p06, p07, p08;
+    }
+
+    private static class WriterSlotFields extends LeftPadding {
+
+        static final AtomicIntegerFieldUpdater<WriterSlotFields> CLAIMED =
+                AtomicIntegerFieldUpdater.newUpdater(WriterSlotFields.class, "claimed");
+
+        volatile int claimed;
+
+        // guarded by the slot's "claimed" state
+        LatencyHistogram active;
+        long cumulatedDurationNano;
+
+        // only accessed by the reader
+        LatencyHistogram spare;
+    }
+
+    /**
+     * 64 bytes of padding following the slot's hot fields, so the next slot allocated in memory starts on a different
+     * cache line.
+     */
+    private static class WriterSlot extends WriterSlotFields {
+
+        long p11, p12, p13, p14, p15, p16, p17, p18;
+
+        private boolean tryAcquire() {
+
+            return claimed == 0 && CLAIMED.compareAndSet(this, 0, 1);
+        }
+
+        private void release() {
+
+            claimed = 0;
+        }
+    }
+}
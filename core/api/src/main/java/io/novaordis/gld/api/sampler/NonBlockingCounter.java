@@ -25,12 +25,16 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A non-blocking counter implementation. It relies on compare-ans-set non-blocking java.util.concurrent.atomic objects.
  * Provides thread safety for produced CounterValues instances.
  *
+ * Successes are recorded in a striped LatencyRecorder, so concurrent runner threads do not contend on shared counters;
+ * the per-stripe values are aggregated only when getCounterValuesAndReset() is invoked.
+ *
+ * @see LatencyRecorder
  * @see CounterValues
  */
 public class NonBlockingCounter implements Counter {
@@ -45,8 +49,14 @@ public class NonBlockingCounter implements Counter {
 
     private Class<? extends Operation> operationType;
 
-    private AtomicLong successCount;
-    private AtomicLong cumulatedSuccessTimeNano;
+    // success count, cumulated duration, cumulated response time and response time distribution
+    private LatencyRecorder successRecorder;
+
+    // the keys accessed by successful bulk operations, in excess of one key per operation; single-key operations do not
+    // touch it, so the key count is derived from the success count
+    private LongAdder successExtraKeys;
+
+    // read with a lock-free get() on the failure path, written only when a new failure type is encountered
     private ConcurrentMap<Class<? extends Throwable>, NonBlockingFailureCounter> failureCounters;
 
     // Constructors ----------------------------------------------------------------------------------------------------
@@ -54,8 +64,8 @@ public class NonBlockingCounter implements Counter {
     public NonBlockingCounter(Class<? extends Operation> operationType) {
 
         this.operationType = operationType;
-        this.successCount = new AtomicLong(0L);
-        this.cumulatedSuccessTimeNano = new AtomicLong(0L);
+        this.successRecorder = new LatencyRecorder();
+        this.successExtraKeys = new LongAdder();
         this.failureCounters = new ConcurrentHashMap<>();
 
         log.debug(this + " created");
@@ -71,6 +81,18 @@ public class NonBlockingCounter implements Counter {
     @Override
     public void update(long t0Ms, long t0Nano, long t1Nano, Throwable... t) {
 
+        update(t0Ms, t0Nano, t0Nano, t1Nano, t);
+    }
+
+    @Override
+    public void update(long t0Ms, long intendedT0Nano, long t0Nano, long t1Nano, Throwable... t) {
+
+        update(t0Ms, intendedT0Nano, t0Nano, t1Nano, 1, t);
+    }
+
+    @Override
+    public void update(long t0Ms, long intendedT0Nano, long t0Nano, long t1Nano, int keyCount, Throwable... t) {
+
         long duration = t1Nano - t0Nano;
 
         if (duration < 0) {
@@ -78,14 +100,28 @@ public class NonBlockingCounter implements Counter {
             throw new IllegalArgumentException("t1 " + t1Nano + " precedes t0 " + t0Nano);
         }
 
+        if (t0Nano < intendedT0Nano) {
+
+            throw new IllegalArgumentException("t0 " + t0Nano + " precedes intended t0 " + intendedT0Nano);
+        }
+
+        if (keyCount < 1) {
+
+            throw new IllegalArgumentException("invalid key count " + keyCount);
+        }
+
         if (t == null || t.length == 0 || (t[0] == null)) {
 
             //
             // success
             //
 
-            successCount.incrementAndGet();
-            cumulatedSuccessTimeNano.addAndGet(duration);
+            successRecorder.record(t1Nano - intendedT0Nano, duration);
+
+            if (keyCount != 1) {
+
+                successExtraKeys.add(keyCount - 1);
+            }
         }
         else if (t.length > 1) {
 
@@ -109,10 +145,16 @@ public class NonBlockingCounter implements Counter {
 
                 //
                 // only create the instance if it is *not* in the map - there's a slight change a FailureCounter
-                // instance will be created unnecessarily but that is an unlikely, rare and ultimately harmless event
+                // instance will be created unnecessarily but that is an unlikely, rare and ultimately harmless
+                // event
                 //
-                failureCounter = new NonBlockingFailureCounter();
-                failureCounters.putIfAbsent(failureType, failureCounter);
+                NonBlockingFailureCounter c = new NonBlockingFailureCounter();
+                failureCounter = failureCounters.putIfAbsent(failureType, c);
+
+                if (failureCounter == null) {
+
+                    failureCounter = c;
+                }
             }
 
             failureCounter.increment(duration);
@@ -122,8 +164,17 @@ public class NonBlockingCounter implements Counter {
     @Override
     public CounterValues getCounterValuesAndReset() {
 
-        long sc = successCount.getAndSet(0L);
-        long cstn = cumulatedSuccessTimeNano.getAndSet(0L);
+        LatencyRecorder.Interval successes = successRecorder.getIntervalAndReset();
+        LatencyHistogram srth = successes.getHistogram();
+        long sc = srth.getTotalCount();
+        long cstn = successes.getCumulatedDurationNano();
+        long csrtn = srth.getTotalValue();
+
+        //
+        // the extra keys are not reset atomically with the recorder, a bulk operation that completes in between is
+        // accounted for in the next interval
+        //
+        long skc = sc + successExtraKeys.sumThenReset();
 
         // TODO:
         //       This is not exactly atomic, the key set may change (grow) between running keySet() and acquiring
@@ -139,7 +190,7 @@ public class NonBlockingCounter implements Counter {
             failureCounterSnapshot.put(failureType, ifc);
         }
 
-        return new CounterValuesImpl(sc, cstn, failureCounterSnapshot);
+        return new CounterValuesImpl(sc, skc, cstn, csrtn, srth, failureCounterSnapshot);
     }
 
     // Public ----------------------------------------------------------------------------------------------------------
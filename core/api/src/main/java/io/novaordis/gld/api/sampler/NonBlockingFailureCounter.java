@@ -16,8 +16,12 @@
 
 package io.novaordis.gld.api.sampler;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Failures are typically much rarer than successes, but they may come in bursts from many threads at the same time
+ * (for example, when the target service becomes unavailable), so the counter is striped.
+ */
 public class NonBlockingFailureCounter implements FailureCounter
 {
     // Constants -------------------------------------------------------------------------------------------------------
@@ -26,15 +30,15 @@ public class NonBlockingFailureCounter implements FailureCounter
 
     // Attributes ------------------------------------------------------------------------------------------------------
 
-    private AtomicLong count;
-    private AtomicLong cumulatedFailureDurationNano;
+    private LongAdder count;
+    private LongAdder cumulatedFailureDurationNano;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public NonBlockingFailureCounter()
     {
-        this.count = new AtomicLong();
-        this.cumulatedFailureDurationNano = new AtomicLong();
+        this.count = new LongAdder();
+        this.cumulatedFailureDurationNano = new LongAdder();
     }
 
     // FailureCounter implementation -----------------------------------------------------------------------------------
@@ -42,13 +46,13 @@ public class NonBlockingFailureCounter implements FailureCounter
     @Override
     public long getCount()
     {
-        return count.get();
+        return count.sum();
     }
 
     @Override
     public long getCumulatedDurationNano()
     {
-        return cumulatedFailureDurationNano.get();
+        return cumulatedFailureDurationNano.sum();
     }
 
     // Public ----------------------------------------------------------------------------------------------------------
@@ -58,13 +62,13 @@ public class NonBlockingFailureCounter implements FailureCounter
      */
     public void increment(long durationNano)
     {
-        count.incrementAndGet();
-        cumulatedFailureDurationNano.addAndGet(durationNano);
+        count.increment();
+        cumulatedFailureDurationNano.add(durationNano);
     }
 
     public ImmutableFailureCounter getFailureCounterSnapshotAndReset()
     {
-        return new ImmutableFailureCounter(count.getAndSet(0), cumulatedFailureDurationNano.getAndSet(0));
+        return new ImmutableFailureCounter(count.sumThenReset(), cumulatedFailureDurationNano.sumThenReset());
     }
 
     // Package protected -----------------------------------------------------------------------------------------------
@@ -150,6 +150,22 @@ public interface Sampler {
      */
     void record(long t0Ms, long t0Nano, long t1Nano, Operation op, Throwable... t);
 
+    /**
+     * Presents the operation to the sampler, specifying both the time the operation was intended to start and the time
+     * it actually started. Open-loop runners must use this method, so the sampler can account for the time operations
+     * spent waiting behind a stalled target service (coordinated omission correction). The sampler maintains both the
+     * service time (t1Nano - t0Nano) and the response time (t1Nano - intendedT0Nano).
+     *
+     * Same performance requirements as for record(long, long, long, Operation, Throwable...) apply.
+     *
+     * @param intendedT0Nano - the time (in nanoseconds) when the operation was scheduled to start. Must not be later
+     *        than t0Nano.
+     *
+     * @see Sampler#record(long, long, long, Operation, java.lang.Throwable...)
+     * @see Counter#update(long, long, long, long, Throwable...)
+     */
+    void record(long t0Ms, long intendedT0Nano, long t0Nano, long t1Nano, Operation op, Throwable... t);
+
     /**
      * Sets the sampling interval. Implementations may accept or not changing the sampling interval after the
      * sampler was started. The documentation should describe the behavior.
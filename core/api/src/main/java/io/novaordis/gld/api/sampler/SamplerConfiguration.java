@@ -35,6 +35,7 @@ public interface SamplerConfiguration extends LowLevelConfiguration {
 
     String FORMAT_LABEL = "format";
     String DEFAULT_FORMAT = "csv";
+    String BINARY_FORMAT = "binary";
 
     String FILE_LABEL = "file";
 
@@ -51,7 +52,9 @@ public interface SamplerConfiguration extends LowLevelConfiguration {
     // Public ----------------------------------------------------------------------------------------------------------
 
     /**
-     * The output format. By default, if not specified is "csv" (comma-separated value).
+     * The output format. By default, if not specified is "csv" (comma-separated value). "binary" selects the compact
+     * binary sampling log, which preserves the histograms and the per-failure type counters, and can be converted to
+     * CSV or JSON after the run with the "convert" command.
      *
      * https://kb.novaordis.com/index.php/Gld_Configuration#format
      * @return
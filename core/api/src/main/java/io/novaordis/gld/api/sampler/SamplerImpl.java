@@ -16,15 +16,21 @@
 
 package io.novaordis.gld.api.sampler;
 
+import io.novaordis.gld.api.BatchOperation;
 import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.metrics.DroppedSamplingIntervals;
 import io.novaordis.gld.api.sampler.metrics.Metric;
+import io.novaordis.gld.api.sampler.metrics.SamplingConsumerLag;
+import io.novaordis.gld.api.statistics.BinaryFormatter;
 import io.novaordis.gld.api.statistics.CSVFormatter;
 import io.novaordis.utilities.NotYetImplementedException;
 import io.novaordis.utilities.UserErrorException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -63,6 +69,12 @@ public class SamplerImpl extends TimerTask implements Sampler {
 
     private List<SamplingConsumer> consumers;
 
+    // the consumers as seen by the sampling thread: asynchronous wrappers, or the consumers themselves if dispatching
+    // synchronously. Built on start().
+    private List<SamplingConsumer> dispatchers;
+
+    private int consumerQueueCapacity;
+
     private long lastRunTimestamp;
 
     private SamplingIntervalImpl current;
@@ -82,6 +94,8 @@ public class SamplerImpl extends TimerTask implements Sampler {
         this.samplingIntervalMs = samplingIntervalMs;
         this.samplingTaskRunIntervalMs = samplingTaskRunIntervalMs;
         this.consumers = new ArrayList<>();
+        this.dispatchers = new CopyOnWriteArrayList<>();
+        this.consumerQueueCapacity = AsyncSamplingConsumer.DEFAULT_QUEUE_CAPACITY;
         this.started = false;
         this.counters = new HashMap<>();
         this.annotations = new CopyOnWriteArrayList<>();
@@ -104,7 +118,9 @@ public class SamplerImpl extends TimerTask implements Sampler {
 
         String format = sc.getFormat();
 
-        if (!"csv".equals(format)) {
+        boolean binary = SamplerConfiguration.BINARY_FORMAT.equals(format);
+
+        if (!SamplerConfiguration.DEFAULT_FORMAT.equals(format) && !binary) {
 
             throw new NotYetImplementedException("DO NOT KNOW HOW TO HANDLE " + format + " SAMPLER FORMAT");
         }
@@ -113,11 +129,19 @@ public class SamplerImpl extends TimerTask implements Sampler {
         setSamplingIntervalMs(sc.getSamplingInterval());
 
         File outputFile = sc.getFile();
-        PrintWriter filePrintWriter;
+        SamplingConsumer fileWriter;
 
         try {
 
-            filePrintWriter = new PrintWriter(new FileWriter(outputFile));
+            if (binary) {
+
+                fileWriter = new BinaryFormatter(new BufferedOutputStream(new FileOutputStream(outputFile)));
+            }
+            else {
+
+                fileWriter = new CSVFormatter(new PrintWriter(new FileWriter(outputFile)));
+            }
+
             log.debug("successfully created writer to file " + outputFile);
         }
         catch(IOException e) {
@@ -126,8 +150,7 @@ public class SamplerImpl extends TimerTask implements Sampler {
                     "cannot write file " + outputFile + ", it is either a directory or wrong permissions are in place", e);
         }
 
-        SamplingConsumer csvFileWriter = new CSVFormatter(filePrintWriter);
-        registerConsumer(csvFileWriter);
+        registerConsumer(fileWriter);
 
         List<String> metrics = sc.getMetrics();
 
@@ -175,6 +198,16 @@ public class SamplerImpl extends TimerTask implements Sampler {
             throw new IllegalStateException("no operations were registered with " + this);
         }
 
+        dispatchers.clear();
+
+        if (consumers != null) {
+
+            for(SamplingConsumer c: consumers) {
+
+                dispatchers.add(toDispatcher(c));
+            }
+        }
+
         // execute an initial sampling run to initialize the state
 
         run();
@@ -295,7 +328,14 @@ public class SamplerImpl extends TimerTask implements Sampler {
     @Override
     public synchronized boolean registerConsumer(SamplingConsumer consumer) {
 
-        return consumers.add(consumer);
+        boolean added = consumers.add(consumer);
+
+        if (added && started) {
+
+            dispatchers.add(toDispatcher(consumer));
+        }
+
+        return added;
     }
 
     @Override
@@ -330,6 +370,12 @@ public class SamplerImpl extends TimerTask implements Sampler {
     @Override
     public void record(long t0Ms, long t0Nano, long t1Nano, Operation op, Throwable... t) {
 
+        record(t0Ms, t0Nano, t0Nano, t1Nano, op, t);
+    }
+
+    @Override
+    public void record(long t0Ms, long intendedT0Nano, long t0Nano, long t1Nano, Operation op, Throwable... t) {
+
         if (!started) {
 
             throw new IllegalStateException(this + " not started");
@@ -348,7 +394,14 @@ public class SamplerImpl extends TimerTask implements Sampler {
                     "no operation of type " + op.getClass() + " was registered with this sampler before startup");
         }
 
-        counter.update(t0Ms, t0Nano, t1Nano, t);
+        if (op instanceof BatchOperation) {
+
+            counter.update(t0Ms, intendedT0Nano, t0Nano, t1Nano, ((BatchOperation)op).getKeyCount(), t);
+        }
+        else {
+
+            counter.update(t0Ms, intendedT0Nano, t0Nano, t1Nano, t);
+        }
     }
 
     // TimerTask implementation ----------------------------------------------------------------------------------------
@@ -399,7 +452,7 @@ public class SamplerImpl extends TimerTask implements Sampler {
             // we're right on the edge of the sampling interval, we went beyond it or we're stopping
             //
 
-            current.setMetrics(SamplingIntervalUtil.snapshotMetrics(metricTypes));
+            current.setMetrics(snapshotMetrics());
 
             SamplingInterval last = current;
 
@@ -468,6 +521,74 @@ public class SamplerImpl extends TimerTask implements Sampler {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    /**
+     * Sets the capacity of the bounded queue each consumer is fed from. Each consumer processes the sampling intervals
+     * on its own thread, so a slow consumer cannot hold the sampling thread. If the queue is full, the sampling
+     * intervals are dropped and counted.
+     *
+     * @param capacity a positive value, or 0 to dispatch the sampling intervals to consumers synchronously, on the
+     *                 sampling thread.
+     *
+     * @see AsyncSamplingConsumer
+     */
+    public void setConsumerQueueCapacity(int capacity) {
+
+        if (started) {
+
+            throw new IllegalStateException("can't modify the consumer queue capacity after the sampler was started");
+        }
+
+        if (capacity < 0) {
+
+            throw new IllegalArgumentException("invalid consumer queue capacity " + capacity);
+        }
+
+        this.consumerQueueCapacity = capacity;
+    }
+
+    public int getConsumerQueueCapacity() {
+
+        return consumerQueueCapacity;
+    }
+
+    /**
+     * @return the number of sampling intervals dropped by this sampler's consumers, since the sampler was started,
+     * because their queues were full.
+     */
+    public long getDroppedIntervalCount() {
+
+        long count = 0L;
+
+        for(SamplingConsumer c: dispatchers) {
+
+            if (c instanceof AsyncSamplingConsumer) {
+
+                count += ((AsyncSamplingConsumer)c).getDroppedIntervalCount();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the maximum dispatch lag, in nanoseconds, observed by this sampler's consumers since the previous
+     * invocation, or 0 if no intervals were consumed in the mean time.
+     */
+    public long getMaxConsumerLagNanoAndReset() {
+
+        long max = 0L;
+
+        for(SamplingConsumer c: dispatchers) {
+
+            if (c instanceof AsyncSamplingConsumer) {
+
+                max = Math.max(max, ((AsyncSamplingConsumer)c).getMaxLagNanoAndReset());
+            }
+        }
+
+        return max;
+    }
+
     @Override
     public String toString()
     {
@@ -534,6 +655,30 @@ public class SamplerImpl extends TimerTask implements Sampler {
         }
     }
 
+    private Set<Metric> snapshotMetrics() {
+
+        Set<Metric> metrics = SamplingIntervalUtil.snapshotMetrics(metricTypes);
+
+        //
+        // the consumer lag and the dropped interval count are maintained by this sampler's consumers, so they are not
+        // available to the generic snapshot
+        //
+
+        if (metricTypes.contains(SamplingConsumerLag.class)) {
+
+            metrics.removeIf(m -> m instanceof SamplingConsumerLag);
+            metrics.add(new SamplingConsumerLag(getMaxConsumerLagNanoAndReset() / 1000000d));
+        }
+
+        if (metricTypes.contains(DroppedSamplingIntervals.class)) {
+
+            metrics.removeIf(m -> m instanceof DroppedSamplingIntervals);
+            metrics.add(new DroppedSamplingIntervals(getDroppedIntervalCount()));
+        }
+
+        return metrics;
+    }
+
     private void sendSamplingIntervalsToConsumers(SamplingInterval... sis)
     {
         // null insensitive - we need to be that way because this method might be called before the current sample
@@ -543,12 +688,7 @@ public class SamplerImpl extends TimerTask implements Sampler {
             return;
         }
 
-        if (consumers == null)
-        {
-            return;
-        }
-
-        for (SamplingConsumer c : consumers)
+        for (SamplingConsumer c : dispatchers)
         {
             try
             {
@@ -578,11 +718,11 @@ public class SamplerImpl extends TimerTask implements Sampler {
 
     private void stopConsumers() {
 
-        if (consumers == null) {
-            return;
-        }
+        //
+        // asynchronous dispatchers wait until their pending sampling intervals are consumed
+        //
 
-        for (SamplingConsumer c : consumers) {
+        for (SamplingConsumer c : dispatchers) {
 
             try {
 
@@ -595,6 +735,18 @@ public class SamplerImpl extends TimerTask implements Sampler {
                 log.warn("sampling consumer " + c + " failed to handle stop gracefully", t);
             }
         }
+
+        dispatchers.clear();
+    }
+
+    private SamplingConsumer toDispatcher(SamplingConsumer c) {
+
+        if (consumerQueueCapacity == 0) {
+
+            return c;
+        }
+
+        return new AsyncSamplingConsumer(c, consumerQueueCapacity);
     }
 
     // Inner classes ---------------------------------------------------------------------------------------------------
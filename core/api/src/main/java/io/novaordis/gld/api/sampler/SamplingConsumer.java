@@ -19,7 +19,10 @@ package io.novaordis.gld.api.sampler;
 public interface SamplingConsumer
 {
     /**
-     * Consumers must be fast and don't block, otherwise they'll be holding the sampling thread.
+     * SamplerImpl invokes consumers on their own threads, fed from a bounded queue (see AsyncSamplingConsumer), so a
+     * slow consumer does not hold the sampling thread. However, a consumer that cannot keep up with the sampling rate
+     * will eventually cause sampling intervals to be dropped. If the sampler is configured to dispatch synchronously,
+     * consumers are invoked on the sampling thread and must be fast and not block.
      *
      * @param samplingIntervals if multiple intervals are sent, they are guaranteed to be successive identical
      *                          intervals. The implementation should throw IllegalArgumentException if they are not.
@@ -77,7 +77,9 @@ public class SamplingIntervalUtil {
             CounterValues valuesToBeDistributed = recorded.getCounterValues(ot);
 
             long successCount = 0L;
+            long successKeyCount = 0L;
             long successCumulatedDuration = 0L;
+            long successCumulatedResponseTime = 0L;
 
             Set<Class<? extends Throwable>> failureTypes = valuesToBeDistributed.getFailureTypes();
             Map<Class<? extends Throwable>, Long> failureCount = zeroInitializedFailureCounterMap(failureTypes);
@@ -106,7 +108,9 @@ public class SamplingIntervalUtil {
                 }
 
                 long sc;
+                long skc;
                 long scd = 0L;
+                long scrt = 0L;
                 Map<Class<? extends Throwable>, Long> fc = zeroInitializedFailureCounterMap(failureTypes);
                 Map<Class<? extends Throwable>, Long> fcd = zeroInitializedFailureCounterMap(failureTypes);
 
@@ -114,11 +118,15 @@ public class SamplingIntervalUtil {
 
                     sc = valuesToBeDistributed.getSuccessCount() / n;
                     successCount += sc;
+                    skc = valuesToBeDistributed.getSuccessKeyCount() / n;
+                    successKeyCount += skc;
 
                     if (sc != 0) {
 
                         scd = valuesToBeDistributed.getSuccessCumulatedDurationNano() / n;
                         successCumulatedDuration += scd;
+                        scrt = valuesToBeDistributed.getSuccessCumulatedResponseTimeNano() / n;
+                        successCumulatedResponseTime += scrt;
                     }
 
                     for(Class<? extends Throwable> ft: failureTypes) {
@@ -138,7 +146,9 @@ public class SamplingIntervalUtil {
                     // last sampling interval
 
                     sc = valuesToBeDistributed.getSuccessCount() - successCount;
+                    skc = valuesToBeDistributed.getSuccessKeyCount() - successKeyCount;
                     scd = valuesToBeDistributed.getSuccessCumulatedDurationNano() - successCumulatedDuration;
+                    scrt = valuesToBeDistributed.getSuccessCumulatedResponseTimeNano() - successCumulatedResponseTime;
 
                     for(Class<? extends Throwable> ft: failureTypes) {
                         fc.put(ft, valuesToBeDistributed.getFailureCount(ft) - failureCount.get(ft));
@@ -154,7 +164,14 @@ public class SamplingIntervalUtil {
                     failures.put(ft, ifc);
                 }
 
-                CounterValuesImpl cv = new CounterValuesImpl(sc, scd, failures);
+                //
+                // percentiles can't be distributed, each interval that gets operations gets the whole distribution
+                //
+
+                LatencyHistogram h = valuesToBeDistributed.getSuccessResponseTimeHistogram();
+                h = (h == null || sc == 0) ? null : h.copy();
+
+                CounterValuesImpl cv = new CounterValuesImpl(sc, skc, scd, scrt, h, failures);
                 si.setCounterValues(ot, cv);
             }
         }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler.metrics;
+
+import io.novaordis.gld.api.sampler.AsyncSamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplerImpl;
+
+/**
+ * The total number of sampling intervals the sampler's consumers dropped because they could not keep up with the
+ * sampling rate. Any non-zero value means the output is missing intervals, but the measurements themselves were not
+ * affected.
+ *
+ * The value belongs to a sampler, so the metric is built by the sampler with the value constructor. The no-argument
+ * constructor, used by the generic metric snapshot, reports 0.
+ *
+ * @see SamplerImpl#getDroppedIntervalCount()
+ * @see AsyncSamplingConsumer#getDroppedIntervalCount()
+ * @see SamplingConsumerLag
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class DroppedSamplingIntervals implements Metric
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int DISPLAY_RANK = 50200;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private Number value;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("UnusedDeclaration")
+    public DroppedSamplingIntervals()
+    {
+        this(0L);
+    }
+
+    public DroppedSamplingIntervals(long value)
+    {
+        this.value = value;
+    }
+
+    // Comparable implementation ---------------------------------------------------------------------------------------
+
+    /**
+     * @see Comparable#compareTo(Object)
+     */
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public int compareTo(Metric o)
+    {
+        return getDisplayRank() - o.getDisplayRank();
+    }
+
+    // Metric implementation ------------------------------------------------------------------------------------------
+
+    @Override
+    public Number getValue()
+    {
+        return value;
+    }
+
+    @Override
+    public String getLabel()
+    {
+        return "Dropped Sampling Intervals";
+    }
+
+    /**
+     * Not a memory metric, the value is a count.
+     */
+    @Override
+    public MetricType getMetricType()
+    {
+        return null;
+    }
+
+    /**
+     * A count has no measure unit.
+     * @return null.
+     */
+    @Override
+    public MeasureUnit getMeasureUnit()
+    {
+        return null;
+    }
+
+    @Override
+    public int getDisplayRank()
+    {
+        return DISPLAY_RANK;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        Number n = getValue();
+        return n == null ? "null" : n.toString();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
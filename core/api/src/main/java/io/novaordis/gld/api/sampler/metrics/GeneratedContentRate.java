@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler.metrics;
+
+import io.novaordis.gld.api.RandomContentGenerator;
+
+/**
+ * The rate at which the load driver generates random keys and values, in bytes per second, since the previous
+ * snapshot. The sampler instantiates a new metric at the end of each sampling interval, so the rate is computed over
+ * the sampling interval. Useful to verify that content generation is not a significant fraction of the work done by
+ * the load driver.
+ *
+ * @see RandomContentGenerator#getGeneratedByteCount()
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+public class GeneratedContentRate implements Metric
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int DISPLAY_RANK = 50000;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    private static long previousByteCount = RandomContentGenerator.getGeneratedByteCount();
+    private static long previousNano = System.nanoTime();
+
+    /**
+     * @return the rate, in bytes per second, since the previous invocation (or since the class was loaded).
+     */
+    private static synchronized double snapshotRate()
+    {
+        long byteCount = RandomContentGenerator.getGeneratedByteCount();
+        long nano = System.nanoTime();
+
+        long bytes = byteCount - previousByteCount;
+        long elapsedNano = nano - previousNano;
+
+        previousByteCount = byteCount;
+        previousNano = nano;
+
+        if (elapsedNano <= 0)
+        {
+            return 0d;
+        }
+
+        return bytes * 1000000000d / elapsedNano;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private Number value;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("UnusedDeclaration")
+    public GeneratedContentRate()
+    {
+        this(snapshotRate());
+    }
+
+    public GeneratedContentRate(double value)
+    {
+        this.value = value;
+    }
+
+    // Comparable implementation ---------------------------------------------------------------------------------------
+
+    /**
+     * @see Comparable#compareTo(Object)
+     */
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public int compareTo(Metric o)
+    {
+        return getDisplayRank() - o.getDisplayRank();
+    }
+
+    // Metric implementation ------------------------------------------------------------------------------------------
+
+    @Override
+    public Number getValue()
+    {
+        return value;
+    }
+
+    @Override
+    public String getLabel()
+    {
+        return "Generated Content (bytes/sec)";
+    }
+
+    /**
+     * Not a memory metric, the value is a rate, so it is not converted to the output memory unit.
+     */
+    @Override
+    public MetricType getMetricType()
+    {
+        return null;
+    }
+
+    /**
+     * The measure unit is part of the label.
+     * @return null.
+     */
+    @Override
+    public MeasureUnit getMeasureUnit()
+    {
+        return null;
+    }
+
+    @Override
+    public int getDisplayRank()
+    {
+        return DISPLAY_RANK;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        Number n = getValue();
+        return n == null ? "null" : n.toString();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler.metrics;
+
+import io.novaordis.gld.api.sampler.AsyncSamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplerImpl;
+
+/**
+ * The maximum time, in milliseconds, it took the sampler's consumers to process the sampling intervals handed over to
+ * them since the previous snapshot. The sampler instantiates a new metric at the end of each sampling interval, so the
+ * value usually reflects the consumption of the previous intervals. A value that keeps growing indicates consumers
+ * that cannot keep up with the sampling rate, and that will eventually drop intervals.
+ *
+ * The value belongs to a sampler, so the metric is built by the sampler with the value constructor. The no-argument
+ * constructor, used by the generic metric snapshot, reports 0.
+ *
+ * @see SamplerImpl#getMaxConsumerLagNanoAndReset()
+ * @see AsyncSamplingConsumer#getMaxLagNanoAndReset()
+ * @see DroppedSamplingIntervals
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class SamplingConsumerLag implements Metric
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int DISPLAY_RANK = 50100;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private Number value;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("UnusedDeclaration")
+    public SamplingConsumerLag()
+    {
+        this(0d);
+    }
+
+    public SamplingConsumerLag(double value)
+    {
+        this.value = value;
+    }
+
+    // Comparable implementation ---------------------------------------------------------------------------------------
+
+    /**
+     * @see Comparable#compareTo(Object)
+     */
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public int compareTo(Metric o)
+    {
+        return getDisplayRank() - o.getDisplayRank();
+    }
+
+    // Metric implementation ------------------------------------------------------------------------------------------
+
+    @Override
+    public Number getValue()
+    {
+        return value;
+    }
+
+    @Override
+    public String getLabel()
+    {
+        return "Sampling Consumer Lag (ms)";
+    }
+
+    /**
+     * Not a memory metric, the value is a duration, so it is not converted to the output memory unit.
+     */
+    @Override
+    public MetricType getMetricType()
+    {
+        return null;
+    }
+
+    /**
+     * The measure unit is part of the label.
+     * @return null.
+     */
+    @Override
+    public MeasureUnit getMeasureUnit()
+    {
+        return null;
+    }
+
+    @Override
+    public int getDisplayRank()
+    {
+        return DISPLAY_RANK;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString()
+    {
+        Number n = getValue();
+        return n == null ? "null" : n.toString();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.statistics;
+
+import io.novaordis.gld.api.sampler.metrics.MeasureUnit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * The layout of the binary sampling log, and the low level encoding utilities shared by BinaryFormatter and
+ * BinaryLogReader.
+ *
+ * The log starts with a header (int MAGIC, short VERSION), followed by records. Each record starts with a type byte
+ * and the varint-encoded length of its payload, so readers can skip record types they do not know, and detect a
+ * truncated last record (for example, if the load driver was killed while writing).
+ *
+ * DEFINITION record: varint id, byte kind, UTF class name. Metric definitions also carry the presentation attributes:
+ * UTF label, varint display rank, UTF measure unit, UTF metric type (empty strings stand for null). Ids are assigned
+ * when a type is first seen and are referred to by the subsequent interval records.
+ *
+ * INTERVAL record:
+ *
+ *  varlong start timestamp (ms), delta from the previous interval's start, zig-zag encoded
+ *  varlong duration (ms)
+ *  varint operation type count, and for each operation type:
+ *      varint operation type id
+ *      varlong success count, extra key count (version 2 and up: the keys accessed by bulk operations in excess
+ *      of one key per operation), cumulated duration (ns), cumulated response time (ns)
+ *      byte histogram flag; if 1:
+ *          varint non-zero bucket count, varlong total value (ns), varlong max value (ns)
+ *          for each non-zero bucket: varint index delta from the previous non-zero bucket, varlong count
+ *      varint failure type count, and for each failure type: varint failure type id, varlong count, varlong
+ *      cumulated duration (ns)
+ *  varint metric count, and for each metric: varint metric id, byte value tag, value (zig-zag varlong for integral
+ *  values, IEEE 754 double for the others, nothing for null)
+ *  varint annotation count, and for each annotation: UTF
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+final class BinaryFormat {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // "GLDS"
+    static final int MAGIC = 0x474C4453;
+
+    static final short VERSION = 2;
+
+    // the oldest version the reader still understands; version 1 logs do not carry key counts
+    static final short MIN_VERSION = 1;
+
+    static final byte DEFINITION_RECORD = 1;
+    static final byte INTERVAL_RECORD = 2;
+
+    static final byte OPERATION_TYPE = 1;
+    static final byte FAILURE_TYPE = 2;
+    static final byte METRIC_TYPE = 3;
+
+    static final byte NULL_VALUE = 0;
+    static final byte LONG_VALUE = 1;
+    static final byte DOUBLE_VALUE = 2;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    static void writeVarLong(DataOutput out, long v) throws IOException {
+
+        while((v & ~0x7FL) != 0) {
+
+            out.writeByte((int)((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+
+        out.writeByte((int)v);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+
+        long v = 0L;
+
+        for(int shift = 0; shift < 64; shift += 7) {
+
+            byte b = in.readByte();
+            v |= (long)(b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+
+                return v;
+            }
+        }
+
+        throw new IOException("malformed variable length value");
+    }
+
+    static void writeVarInt(DataOutput out, int v) throws IOException {
+
+        writeVarLong(out, v & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+
+        long v = readVarLong(in);
+
+        if (v < 0 || v > Integer.MAX_VALUE) {
+
+            throw new IOException("variable length value out of range: " + v);
+        }
+
+        return (int)v;
+    }
+
+    static void writeZigZagLong(DataOutput out, long v) throws IOException {
+
+        writeVarLong(out, (v << 1) ^ (v >> 63));
+    }
+
+    static long readZigZagLong(DataInput in) throws IOException {
+
+        long v = readVarLong(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * @return the name of the MeasureUnit constant, or an empty string for null or non-standard units.
+     */
+    static String toMeasureUnitName(MeasureUnit mu) {
+
+        if (mu == null) {
+
+            return "";
+        }
+
+        for(Field f: MeasureUnit.class.getFields()) {
+
+            try {
+
+                if (Modifier.isStatic(f.getModifiers()) && f.get(null) == mu) {
+
+                    return f.getName();
+                }
+            }
+            catch(IllegalAccessException e) {
+
+                // not accessible, skip
+            }
+        }
+
+        return "";
+    }
+
+    /**
+     * @return the MeasureUnit constant with the given name, or null.
+     */
+    static MeasureUnit toMeasureUnit(String name) {
+
+        if (name == null || name.isEmpty()) {
+
+            return null;
+        }
+
+        try {
+
+            return (MeasureUnit)MeasureUnit.class.getField(name).get(null);
+        }
+        catch(Exception e) {
+
+            return null;
+        }
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    private BinaryFormat() {
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.statistics;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.CounterValues;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.gld.api.sampler.metrics.Metric;
+import io.novaordis.gld.api.sampler.metrics.MetricType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes sampling intervals into a compact, append-only binary log. Unlike the CSV output, the binary log preserves
+ * everything the sampling intervals carry: the raw counter values, the response time histograms, the per-failure type
+ * counters, the metrics and the annotations. The log can be converted to CSV or JSON after the run.
+ *
+ * @see BinaryFormat
+ * @see BinaryLogReader
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BinaryFormatter implements SamplingConsumer {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryFormatter.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private DataOutputStream out;
+
+    // the record payload is assembled here, so its length can be written before the payload
+    private ByteArrayOutputStream payloadBytes;
+    private DataOutputStream payload;
+
+    private boolean headerWritten;
+
+    // class name -> definition id
+    private Map<String, Integer> definitions;
+
+    private long previousStartMs;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param os the stream is owned by the formatter and it will be closed on stop(). It should be buffered.
+     */
+    public BinaryFormatter(OutputStream os) {
+
+        if (os == null) {
+
+            throw new IllegalArgumentException("null output stream");
+        }
+
+        this.out = new DataOutputStream(os);
+        this.payloadBytes = new ByteArrayOutputStream(1024);
+        this.payload = new DataOutputStream(payloadBytes);
+        this.definitions = new HashMap<>();
+        this.headerWritten = false;
+        this.previousStartMs = 0L;
+    }
+
+    // SamplingConsumer implementation ---------------------------------------------------------------------------------
+
+    /**
+     * @see SamplingConsumer#consume(SamplingInterval...)
+     */
+    @Override
+    public void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+        if (!headerWritten) {
+
+            out.writeInt(BinaryFormat.MAGIC);
+            out.writeShort(BinaryFormat.VERSION);
+            headerWritten = true;
+        }
+
+        for(SamplingInterval si: samplingIntervals) {
+
+            write(si);
+        }
+
+        //
+        // flush once per hand-off
+        //
+
+        out.flush();
+    }
+
+    @Override
+    public void stop() {
+
+        try {
+
+            out.close();
+        }
+        catch(IOException e) {
+
+            log.warn(this + " failed to close the underlying stream", e);
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "BinaryFormatter[" + Integer.toHexString(System.identityHashCode(this)) + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private void write(SamplingInterval si) throws IOException {
+
+        //
+        // encode the operation, failure and metric types first, their definitions must precede the interval record
+        //
+
+        Set<Class<? extends Operation>> operationTypes = si.getOperationTypes();
+
+        for(Class<? extends Operation> ot: operationTypes) {
+
+            define(ot.getName(), BinaryFormat.OPERATION_TYPE, null);
+
+            for(Class<? extends Throwable> ft: si.getCounterValues(ot).getFailureTypes()) {
+
+                define(ft.getName(), BinaryFormat.FAILURE_TYPE, null);
+            }
+        }
+
+        Set<Metric> metrics = si.getMetrics();
+
+        if (metrics != null) {
+
+            for(Metric m: metrics) {
+
+                define(m.getClass().getName(), BinaryFormat.METRIC_TYPE, m);
+            }
+        }
+
+        //
+        // the interval record
+        //
+
+        payloadBytes.reset();
+
+        long startMs = si.getStartMs();
+        BinaryFormat.writeZigZagLong(payload, startMs - previousStartMs);
+        previousStartMs = startMs;
+        BinaryFormat.writeVarLong(payload, si.getDurationMs());
+
+        BinaryFormat.writeVarInt(payload, operationTypes.size());
+
+        for(Class<? extends Operation> ot: operationTypes) {
+
+            BinaryFormat.writeVarInt(payload, definitions.get(ot.getName()));
+            writeCounterValues(si.getCounterValues(ot));
+        }
+
+        if (metrics == null) {
+
+            BinaryFormat.writeVarInt(payload, 0);
+        }
+        else {
+
+            BinaryFormat.writeVarInt(payload, metrics.size());
+
+            for(Metric m: metrics) {
+
+                BinaryFormat.writeVarInt(payload, definitions.get(m.getClass().getName()));
+                writeValue(m.getValue());
+            }
+        }
+
+        List<String> annotations = si.getAnnotations();
+
+        if (annotations == null) {
+
+            BinaryFormat.writeVarInt(payload, 0);
+        }
+        else {
+
+            BinaryFormat.writeVarInt(payload, annotations.size());
+
+            for(String a: annotations) {
+
+                payload.writeUTF(a);
+            }
+        }
+
+        writeRecord(BinaryFormat.INTERVAL_RECORD);
+    }
+
+    private void writeCounterValues(CounterValues v) throws IOException {
+
+        BinaryFormat.writeVarLong(payload, v.getSuccessCount());
+        BinaryFormat.writeVarLong(payload, v.getSuccessKeyCount() - v.getSuccessCount());
+        BinaryFormat.writeVarLong(payload, v.getSuccessCumulatedDurationNano());
+        BinaryFormat.writeVarLong(payload, v.getSuccessCumulatedResponseTimeNano());
+
+        LatencyHistogram h = v.getSuccessResponseTimeHistogram();
+
+        if (h == null) {
+
+            payload.writeByte(0);
+        }
+        else {
+
+            payload.writeByte(1);
+            BinaryFormat.writeVarInt(payload, h.getNonZeroBucketCount());
+            BinaryFormat.writeVarLong(payload, h.getTotalValue());
+            BinaryFormat.writeVarLong(payload, h.getMaxValue());
+
+            //
+            // the populated buckets are usually clustered, so the index deltas are small
+            //
+
+            int previous = 0;
+
+            for(int i = h.nextNonZeroIndex(0); i != -1; i = h.nextNonZeroIndex(i + 1)) {
+
+                BinaryFormat.writeVarInt(payload, i - previous);
+                BinaryFormat.writeVarLong(payload, h.getCountAtIndex(i));
+                previous = i;
+            }
+        }
+
+        Set<Class<? extends Throwable>> failureTypes = v.getFailureTypes();
+
+        BinaryFormat.writeVarInt(payload, failureTypes.size());
+
+        for(Class<? extends Throwable> ft: failureTypes) {
+
+            BinaryFormat.writeVarInt(payload, definitions.get(ft.getName()));
+            BinaryFormat.writeVarLong(payload, v.getFailureCount(ft));
+            BinaryFormat.writeVarLong(payload, v.getFailureCumulatedDurationNano(ft));
+        }
+    }
+
+    private void writeValue(Number n) throws IOException {
+
+        if (n == null) {
+
+            payload.writeByte(BinaryFormat.NULL_VALUE);
+        }
+        else if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+
+            payload.writeByte(BinaryFormat.LONG_VALUE);
+            BinaryFormat.writeZigZagLong(payload, n.longValue());
+        }
+        else {
+
+            payload.writeByte(BinaryFormat.DOUBLE_VALUE);
+            payload.writeDouble(n.doubleValue());
+        }
+    }
+
+    /**
+     * Writes a definition record, if the type was not already defined.
+     *
+     * @param metric the metric instance to extract presentation attributes from. Null for other kinds of types.
+     */
+    private void define(String className, byte kind, Metric metric) throws IOException {
+
+        if (definitions.containsKey(className)) {
+
+            return;
+        }
+
+        int id = definitions.size();
+        definitions.put(className, id);
+
+        payloadBytes.reset();
+
+        BinaryFormat.writeVarInt(payload, id);
+        payload.writeByte(kind);
+        payload.writeUTF(className);
+
+        if (metric != null) {
+
+            String label = metric.getLabel();
+            MetricType mt = metric.getMetricType();
+
+            payload.writeUTF(label == null ? "" : label);
+            BinaryFormat.writeZigZagLong(payload, metric.getDisplayRank());
+            payload.writeUTF(BinaryFormat.toMeasureUnitName(metric.getMeasureUnit()));
+            payload.writeUTF(mt == null ? "" : mt.name());
+        }
+
+        writeRecord(BinaryFormat.DEFINITION_RECORD);
+    }
+
+    private void writeRecord(byte type) throws IOException {
+
+        payload.flush();
+
+        out.writeByte(type);
+        BinaryFormat.writeVarInt(out, payloadBytes.size());
+        payloadBytes.writeTo(out);
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.statistics;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.ImmutableFailureCounter;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.gld.api.sampler.SamplingIntervalImpl;
+import io.novaordis.gld.api.sampler.metrics.Metric;
+import io.novaordis.gld.api.sampler.metrics.MetricType;
+import io.novaordis.utilities.UserErrorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads back the sampling intervals written by a BinaryFormatter.
+ *
+ * A truncated last record (the load driver was killed while writing) is not an error: the reader logs a warning and
+ * reports the end of the log.
+ *
+ * @see BinaryFormatter
+ * @see BinaryFormat
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BinaryLogReader implements Closeable {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryLogReader.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private DataInputStream in;
+
+    private Map<Integer, Definition> definitions;
+
+    private long previousStartMs;
+
+    private short version;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param is the stream is owned by the reader and it will be closed on close(). It should be buffered.
+     *
+     * @exception UserErrorException if the stream does not contain a binary sampling log, or the log was written by an
+     * incompatible version.
+     */
+    public BinaryLogReader(InputStream is) throws IOException, UserErrorException {
+
+        if (is == null) {
+
+            throw new IllegalArgumentException("null input stream");
+        }
+
+        this.in = new DataInputStream(is);
+        this.definitions = new HashMap<>();
+        this.previousStartMs = 0L;
+
+        int magic;
+
+        try {
+
+            magic = in.readInt();
+            version = in.readShort();
+        }
+        catch(EOFException e) {
+
+            throw new UserErrorException("not a binary sampling log: missing header");
+        }
+
+        if (magic != BinaryFormat.MAGIC) {
+
+            throw new UserErrorException("not a binary sampling log");
+        }
+
+        if (version < BinaryFormat.MIN_VERSION || version > BinaryFormat.VERSION) {
+
+            throw new UserErrorException("unsupported binary sampling log version " + version);
+        }
+    }
+
+    // Closeable implementation ----------------------------------------------------------------------------------------
+
+    @Override
+    public void close() throws IOException {
+
+        in.close();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the next sampling interval, or null if the end of the log was reached.
+     *
+     * @exception UserErrorException if the log refers to operation types that are not available in the class path.
+     */
+    public SamplingInterval next() throws IOException, UserErrorException {
+
+        while(true) {
+
+            int type = in.read();
+
+            if (type == -1) {
+
+                return null;
+            }
+
+            byte[] record;
+
+            try {
+
+                int length = BinaryFormat.readVarInt(in);
+                record = new byte[length];
+                in.readFully(record);
+            }
+            catch(EOFException e) {
+
+                log.warn("the last record of the binary sampling log is truncated, ignoring it");
+                return null;
+            }
+
+            DataInputStream payload = new DataInputStream(new ByteArrayInputStream(record));
+
+            if (type == BinaryFormat.DEFINITION_RECORD) {
+
+                readDefinition(payload);
+            }
+            else if (type == BinaryFormat.INTERVAL_RECORD) {
+
+                return readInterval(payload);
+            }
+            else {
+
+                log.debug("skipping unknown record type " + type);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return "BinaryLogReader[" + Integer.toHexString(System.identityHashCode(this)) + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private void readDefinition(DataInputStream payload) throws IOException {
+
+        Definition d = new Definition();
+
+        int id = BinaryFormat.readVarInt(payload);
+        d.kind = payload.readByte();
+        d.className = payload.readUTF();
+
+        if (d.kind == BinaryFormat.METRIC_TYPE) {
+
+            d.label = payload.readUTF();
+            d.displayRank = (int)BinaryFormat.readZigZagLong(payload);
+            d.measureUnit = payload.readUTF();
+            String mt = payload.readUTF();
+            d.metricType = mt.isEmpty() ? null : MetricType.valueOf(mt);
+        }
+
+        definitions.put(id, d);
+    }
+
+    private SamplingInterval readInterval(DataInputStream payload) throws IOException, UserErrorException {
+
+        long startMs = previousStartMs + BinaryFormat.readZigZagLong(payload);
+        previousStartMs = startMs;
+        long durationMs = BinaryFormat.readVarLong(payload);
+
+        int operationTypeCount = BinaryFormat.readVarInt(payload);
+
+        Map<Class<? extends Operation>, CounterValuesImpl> values = new LinkedHashMap<>();
+
+        for(int i = 0; i < operationTypeCount; i ++) {
+
+            Class<? extends Operation> ot = toOperationType(getDefinition(BinaryFormat.readVarInt(payload)));
+            values.put(ot, readCounterValues(payload));
+        }
+
+        SamplingIntervalImpl si = new SamplingIntervalImpl(startMs, durationMs, values.keySet());
+
+        for(Map.Entry<Class<? extends Operation>, CounterValuesImpl> e: values.entrySet()) {
+
+            si.setCounterValues(e.getKey(), e.getValue());
+        }
+
+        int metricCount = BinaryFormat.readVarInt(payload);
+
+        if (metricCount > 0) {
+
+            Set<Metric> metrics = new HashSet<>();
+
+            for(int i = 0; i < metricCount; i ++) {
+
+                Definition d = getDefinition(BinaryFormat.readVarInt(payload));
+                Number value = readValue(payload);
+
+                metrics.add(new RecordedMetric(
+                        d.className, value, d.label, BinaryFormat.toMeasureUnit(d.measureUnit), d.metricType,
+                        d.displayRank));
+            }
+
+            si.setMetrics(metrics);
+        }
+
+        int annotationCount = BinaryFormat.readVarInt(payload);
+
+        for(int i = 0; i < annotationCount; i ++) {
+
+            si.addAnnotation(payload.readUTF());
+        }
+
+        return si;
+    }
+
+    private CounterValuesImpl readCounterValues(DataInputStream payload) throws IOException {
+
+        long successCount = BinaryFormat.readVarLong(payload);
+        long successKeyCount = successCount;
+
+        if (version >= 2) {
+
+            successKeyCount += BinaryFormat.readVarLong(payload);
+        }
+
+        long successCumulatedDurationNano = BinaryFormat.readVarLong(payload);
+        long successCumulatedResponseTimeNano = BinaryFormat.readVarLong(payload);
+
+        LatencyHistogram h = null;
+
+        if (payload.readByte() != 0) {
+
+            int n = BinaryFormat.readVarInt(payload);
+            long totalValue = BinaryFormat.readVarLong(payload);
+            long maxValue = BinaryFormat.readVarLong(payload);
+
+            int[] indexes = new int[n];
+            long[] counts = new long[n];
+            int index = 0;
+
+            for(int i = 0; i < n; i ++) {
+
+                index += BinaryFormat.readVarInt(payload);
+                indexes[i] = index;
+                counts[i] = BinaryFormat.readVarLong(payload);
+            }
+
+            try {
+
+                h = LatencyHistogram.fromBucketCounts(indexes, counts, n, totalValue, maxValue);
+            }
+            catch(IllegalArgumentException e) {
+
+                throw new IOException("corrupted histogram: " + e.getMessage());
+            }
+        }
+
+        int failureTypeCount = BinaryFormat.readVarInt(payload);
+
+        Map<Class<? extends Throwable>, ImmutableFailureCounter> failureCounters = new HashMap<>();
+
+        for(int i = 0; i < failureTypeCount; i ++) {
+
+            Class<? extends Throwable> ft = toFailureType(getDefinition(BinaryFormat.readVarInt(payload)));
+            long count = BinaryFormat.readVarLong(payload);
+            long cumulatedDurationNano = BinaryFormat.readVarLong(payload);
+
+            ImmutableFailureCounter previous = failureCounters.get(ft);
+
+            if (previous != null) {
+
+                //
+                // failure types not available in the class path are aggregated under Throwable
+                //
+
+                count += previous.getCount();
+                cumulatedDurationNano += previous.getCumulatedDurationNano();
+            }
+
+            failureCounters.put(ft, new ImmutableFailureCounter(count, cumulatedDurationNano));
+        }
+
+        return new CounterValuesImpl(
+                successCount, successKeyCount, successCumulatedDurationNano, successCumulatedResponseTimeNano, h,
+                failureCounters);
+    }
+
+    private Number readValue(DataInputStream payload) throws IOException {
+
+        byte tag = payload.readByte();
+
+        if (tag == BinaryFormat.NULL_VALUE) {
+
+            return null;
+        }
+        else if (tag == BinaryFormat.LONG_VALUE) {
+
+            return BinaryFormat.readZigZagLong(payload);
+        }
+        else if (tag == BinaryFormat.DOUBLE_VALUE) {
+
+            return payload.readDouble();
+        }
+
+        throw new IOException("unknown metric value tag " + tag);
+    }
+
+    private Definition getDefinition(int id) throws IOException {
+
+        Definition d = definitions.get(id);
+
+        if (d == null) {
+
+            throw new IOException("undefined type id " + id);
+        }
+
+        return d;
+    }
+
+    private Class<? extends Operation> toOperationType(Definition d) throws UserErrorException {
+
+        if (d.operationType == null) {
+
+            try {
+
+                d.operationType = Class.forName(d.className).asSubclass(Operation.class);
+            }
+            catch(ClassNotFoundException | ClassCastException e) {
+
+                throw new UserErrorException(
+                        "operation type " + d.className + " not available, is the corresponding extension installed?");
+            }
+        }
+
+        return d.operationType;
+    }
+
+    private Class<? extends Throwable> toFailureType(Definition d) {
+
+        if (d.failureType == null) {
+
+            try {
+
+                d.failureType = Class.forName(d.className).asSubclass(Throwable.class);
+            }
+            catch(ClassNotFoundException | ClassCastException e) {
+
+                log.warn("failure type " + d.className + " not available, it will be counted as " +
+                        Throwable.class.getName());
+                d.failureType = Throwable.class;
+            }
+        }
+
+        return d.failureType;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    private static class Definition {
+
+        private byte kind;
+        private String className;
+
+        // metric presentation attributes
+        private String label;
+        private int displayRank;
+        private String measureUnit;
+        private MetricType metricType;
+
+        // resolved lazily
+        private Class<? extends Operation> operationType;
+        private Class<? extends Throwable> failureType;
+    }
+}
@@ -24,6 +24,7 @@ import io.novaordis.gld.api.sampler.metrics.Metric;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -43,6 +44,11 @@ public class CSVFormat implements Format
 
     public static final java.text.Format FLOATING_POINT_FORMAT = new DecimalFormat("#0.0#");
 
+    public static final java.text.Format PERCENTILE_FORMAT = new DecimalFormat("#0.###");
+
+    public static final List<Double> DEFAULT_RESPONSE_TIME_PERCENTILES =
+        Collections.unmodifiableList(Arrays.asList(50d, 90d, 99d, 99.9d));
+
     public static final String TIMESTAMP_HEADER_LABEL = "Time";
     public static final String NOTES_HEADER_LABEL = "Notes";
 
@@ -52,6 +58,7 @@ public class CSVFormat implements Format
 
     private MeasureUnit averageOperationDurationTimeUnit;
     private MeasureUnit memoryUnit;
+    private List<Double> responseTimePercentiles;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
@@ -59,6 +66,7 @@ public class CSVFormat implements Format
     {
         this.averageOperationDurationTimeUnit = MeasureUnit.MILLISECOND;
         this.memoryUnit = MeasureUnit.MEGABYTE;
+        this.responseTimePercentiles = DEFAULT_RESPONSE_TIME_PERCENTILES;
     }
 
     // Format implementation -------------------------------------------------------------------------------------------
@@ -137,6 +145,18 @@ public class CSVFormat implements Format
         return operationType.getSimpleName() + " Success Rate (ops/sec)";
     }
 
+    @Override
+    public String getSuccessKeyRateHeader(Class<? extends Operation> operationType)
+    {
+        if (operationType == null)
+        {
+            throw new IllegalArgumentException("null operation type");
+        }
+
+        // TODO parametrize "sec"
+        return operationType.getSimpleName() + " Success Rate (keys/sec)";
+    }
+
     @Override
     public String getFailureRateHeader(Class<? extends Operation> operationType)
     {
@@ -162,6 +182,51 @@ public class CSVFormat implements Format
                 averageOperationDurationTimeUnit.abbreviation() + ")";
     }
 
+    @Override
+    public String getSuccessAverageResponseTimeHeader(Class<? extends Operation> operationType)
+    {
+        if (operationType == null)
+        {
+            throw new IllegalArgumentException("null operation type");
+        }
+
+        return
+            operationType.getSimpleName() + " Average Response Time (" +
+                averageOperationDurationTimeUnit.abbreviation() + ")";
+    }
+
+    @Override
+    public List<Double> getResponseTimePercentiles()
+    {
+        return responseTimePercentiles;
+    }
+
+    @Override
+    public String getSuccessResponseTimePercentileHeader(Class<? extends Operation> operationType, double percentile)
+    {
+        if (operationType == null)
+        {
+            throw new IllegalArgumentException("null operation type");
+        }
+
+        return
+            operationType.getSimpleName() + " Response Time p" + PERCENTILE_FORMAT.format(percentile) + " (" +
+                averageOperationDurationTimeUnit.abbreviation() + ")";
+    }
+
+    @Override
+    public String getSuccessMaxResponseTimeHeader(Class<? extends Operation> operationType)
+    {
+        if (operationType == null)
+        {
+            throw new IllegalArgumentException("null operation type");
+        }
+
+        return
+            operationType.getSimpleName() + " Response Time Max (" +
+                averageOperationDurationTimeUnit.abbreviation() + ")";
+    }
+
     /**
      * @see Format#formatRate(double, MeasureUnit)
      */
@@ -270,6 +335,15 @@ public class CSVFormat implements Format
         return averageOperationDurationTimeUnit;
     }
 
+    /**
+     * @param percentiles values between 0 and 100. Empty list or null means no percentile columns.
+     */
+    public void setResponseTimePercentiles(List<Double> percentiles)
+    {
+        this.responseTimePercentiles =
+            percentiles == null ? Collections.<Double>emptyList() : Collections.unmodifiableList(percentiles);
+    }
+
     public void setMemoryUnit(MeasureUnit memoryUnit)
     {
         this.memoryUnit = memoryUnit;
@@ -16,6 +16,7 @@
 
 package io.novaordis.gld.api.statistics;
 
+import io.novaordis.gld.api.BatchOperation;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.sampler.CounterValues;
 import io.novaordis.gld.api.sampler.SamplingConsumer;
@@ -59,28 +60,44 @@ public class CSVFormatter implements SamplingConsumer {
      */
     public static String toLine(SamplingInterval si, Format csvFormat, boolean headers) {
 
-        String s = "";
+        StringBuilder s = new StringBuilder();
 
         if (headers) {
 
-            s += csvFormat.getTimestampLabel();
+            s.append(csvFormat.getTimestampLabel());
         }
         else {
 
-            s += csvFormat.formatTimestamp(si.getStartMs());
+            s.append(csvFormat.formatTimestamp(si.getStartMs()));
         }
 
-        s += ", ";
+        s.append(", ");
 
         List<Class<? extends Operation>> orderedOperationTypes = csvFormat.orderOperationTypes(si.getOperationTypes());
 
         for(Class<? extends Operation> ot: orderedOperationTypes) {
 
+            boolean batch = BatchOperation.class.isAssignableFrom(ot);
+
             if (headers) {
 
-                s += csvFormat.getSuccessRateHeader(ot) + ", ";
-                s += csvFormat.getSuccessAverageDurationHeader(ot) + ", ";
-                s += csvFormat.getFailureRateHeader(ot) + ", ";
+                s.append(csvFormat.getSuccessRateHeader(ot)).append(", ");
+
+                if (batch) {
+
+                    s.append(csvFormat.getSuccessKeyRateHeader(ot)).append(", ");
+                }
+
+                s.append(csvFormat.getSuccessAverageDurationHeader(ot)).append(", ");
+                s.append(csvFormat.getSuccessAverageResponseTimeHeader(ot)).append(", ");
+
+                for(double p: csvFormat.getResponseTimePercentiles()) {
+
+                    s.append(csvFormat.getSuccessResponseTimePercentileHeader(ot, p)).append(", ");
+                }
+
+                s.append(csvFormat.getSuccessMaxResponseTimeHeader(ot)).append(", ");
+                s.append(csvFormat.getFailureRateHeader(ot)).append(", ");
             }
             else {
 
@@ -90,13 +107,33 @@ public class CSVFormatter implements SamplingConsumer {
                 long scdNano = v.getSuccessCumulatedDurationNano();
                 double sr = Statistics.calculateRate(sc, si.getDurationMs(), MeasureUnit.MILLISECOND, MeasureUnit.SECOND);
                 double adMs = Statistics.calculateAverageDuration(sc, scdNano, MeasureUnit.NANOSECOND, MeasureUnit.MILLISECOND);
+                long scrtNano = v.getSuccessCumulatedResponseTimeNano();
+                double artMs = Statistics.calculateAverageDuration(sc, scrtNano, MeasureUnit.NANOSECOND, MeasureUnit.MILLISECOND);
 
                 long fc = v.getFailureCount();
                 double fr = Statistics.calculateRate(fc, si.getDurationMs(), MeasureUnit.MILLISECOND, MeasureUnit.SECOND);
 
-                s += csvFormat.formatRate(sr, MeasureUnit.SECOND) + ", ";
-                s += csvFormat.formatAverageDuration(adMs, MeasureUnit.MILLISECOND) + ", ";
-                s += csvFormat.formatRate(fr, MeasureUnit.SECOND) + ", ";
+                s.append(csvFormat.formatRate(sr, MeasureUnit.SECOND)).append(", ");
+
+                if (batch) {
+
+                    double skr = Statistics.calculateRate(
+                            v.getSuccessKeyCount(), si.getDurationMs(), MeasureUnit.MILLISECOND, MeasureUnit.SECOND);
+                    s.append(csvFormat.formatRate(skr, MeasureUnit.SECOND)).append(", ");
+                }
+
+                s.append(csvFormat.formatAverageDuration(adMs, MeasureUnit.MILLISECOND)).append(", ");
+                s.append(csvFormat.formatAverageDuration(artMs, MeasureUnit.MILLISECOND)).append(", ");
+
+                for(double p: csvFormat.getResponseTimePercentiles()) {
+
+                    long pNano = v.getSuccessResponseTimePercentileNano(p);
+                    s.append(csvFormat.formatAverageDuration(pNano, MeasureUnit.NANOSECOND)).append(", ");
+                }
+
+                long maxNano = v.getSuccessMaxResponseTimeNano();
+                s.append(csvFormat.formatAverageDuration(maxNano, MeasureUnit.NANOSECOND)).append(", ");
+                s.append(csvFormat.formatRate(fr, MeasureUnit.SECOND)).append(", ");
             }
         }
 
@@ -106,19 +143,19 @@ public class CSVFormatter implements SamplingConsumer {
             List<Metric> orderedMetrics = csvFormat.orderMetrics(metrics);
             for (Metric m : orderedMetrics)
             {
-                s += headers ? csvFormat.getMetricHeader(m) : csvFormat.formatMetric(m);
-                s += ", ";
+                s.append(headers ? csvFormat.getMetricHeader(m) : csvFormat.formatMetric(m));
+                s.append(", ");
             }
         }
 
         if (headers) {
 
-            s += csvFormat.getNotesHeader();
+            s.append(csvFormat.getNotesHeader());
         }
         else {
 
             List<String> notes = si.getAnnotations();
-            s += csvFormat.formatNotes(notes);
+            s.append(csvFormat.formatNotes(notes));
         }
 
 
@@ -132,7 +169,7 @@ public class CSVFormatter implements SamplingConsumer {
 
 
 
-        return s;
+        return s.toString();
     }
 
 
@@ -169,10 +206,16 @@ public class CSVFormatter implements SamplingConsumer {
             writeHeaders(samplingIntervals[0], csvFormat, w);
         }
 
+        //
+        // flush once per hand-off, not once per line
+        //
+
         for(SamplingInterval si: samplingIntervals) {
 
-            writeLine(si, csvFormat, w);
+            w.write(toLine(si, csvFormat, false) + "\n");
         }
+
+        w.flush();
     }
 
     @Override
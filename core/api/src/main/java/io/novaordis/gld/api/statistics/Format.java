@@ -42,8 +42,35 @@ public interface Format {
     String getSuccessRateHeader(Class<? extends Operation> operationType);
     String getFailureRateHeader(Class<? extends Operation> operationType);
 
+    /**
+     * The header of the keys per second column, present only for the operations that access several keys in a single
+     * call.
+     *
+     * @see io.novaordis.gld.api.BatchOperation
+     * @see io.novaordis.gld.api.sampler.CounterValues#getSuccessKeyCount()
+     */
+    String getSuccessKeyRateHeader(Class<? extends Operation> operationType);
+
     String getSuccessAverageDurationHeader(Class<? extends Operation> operationType);
 
+    /**
+     * The header of the average response time column. The response time is measured from the moment the operation was
+     * intended to start, so it is corrected for coordinated omission.
+     *
+     * @see io.novaordis.gld.api.sampler.CounterValues#getSuccessCumulatedResponseTimeNano()
+     */
+    String getSuccessAverageResponseTimeHeader(Class<? extends Operation> operationType);
+
+    /**
+     * @return the response time percentiles to be reported for each operation type, in the order in which they should
+     * be displayed. Values between 0 and 100. May be empty, but never null.
+     */
+    List<Double> getResponseTimePercentiles();
+
+    String getSuccessResponseTimePercentileHeader(Class<? extends Operation> operationType, double percentile);
+
+    String getSuccessMaxResponseTimeHeader(Class<? extends Operation> operationType);
+
     /**
      * Displays operation rates per time unit. Even if rate is float, the display will always show integral values.
      */
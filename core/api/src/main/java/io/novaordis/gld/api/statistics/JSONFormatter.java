@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.statistics;
+
+import io.novaordis.gld.api.BatchOperation;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.CounterValues;
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.gld.api.sampler.metrics.Metric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes sampling intervals as JSON, one object per line (JSON Lines), so the output can be processed as a stream.
+ * Operation types are keyed by their simple name, failure types by their fully qualified class name and metrics by
+ * their label. All durations are expressed in nanoseconds, timestamps in milliseconds.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class JSONFormatter implements SamplingConsumer {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(JSONFormatter.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    public static String toLine(SamplingInterval si) {
+
+        StringBuilder s = new StringBuilder(512);
+
+        s.append("{\"start\": ").append(si.getStartMs());
+        s.append(", \"duration\": ").append(si.getDurationMs());
+        s.append(", \"operations\": {");
+
+        List<Class<? extends Operation>> operationTypes = new ArrayList<>(si.getOperationTypes());
+        operationTypes.sort((a, b) -> a.getName().compareTo(b.getName()));
+
+        boolean first = true;
+
+        for(Class<? extends Operation> ot: operationTypes) {
+
+            if (!first) {
+
+                s.append(", ");
+            }
+
+            first = false;
+
+            CounterValues v = si.getCounterValues(ot);
+
+            appendString(s, ot.getSimpleName()).append(": {");
+            s.append("\"success-count\": ").append(v.getSuccessCount());
+
+            if (BatchOperation.class.isAssignableFrom(ot)) {
+
+                s.append(", \"success-key-count\": ").append(v.getSuccessKeyCount());
+            }
+
+            s.append(", \"success-cumulated-duration\": ").append(v.getSuccessCumulatedDurationNano());
+            s.append(", \"success-cumulated-response-time\": ").append(v.getSuccessCumulatedResponseTimeNano());
+
+            if (v.getSuccessResponseTimeHistogram() != null) {
+
+                s.append(", \"success-response-time-percentiles\": {");
+
+                boolean firstPercentile = true;
+
+                for(Double p: CSVFormat.DEFAULT_RESPONSE_TIME_PERCENTILES) {
+
+                    if (!firstPercentile) {
+
+                        s.append(", ");
+                    }
+
+                    firstPercentile = false;
+
+                    appendString(s, p.toString()).append(": ").append(v.getSuccessResponseTimePercentileNano(p));
+                }
+
+                s.append("}");
+                s.append(", \"success-max-response-time\": ").append(v.getSuccessMaxResponseTimeNano());
+            }
+
+            s.append(", \"failure-count\": ").append(v.getFailureCount());
+            s.append(", \"failure-cumulated-duration\": ").append(v.getFailureCumulatedDurationNano());
+            s.append(", \"failures\": {");
+
+            boolean firstFailure = true;
+
+            for(Class<? extends Throwable> ft: v.getFailureTypes()) {
+
+                if (!firstFailure) {
+
+                    s.append(", ");
+                }
+
+                firstFailure = false;
+
+                appendString(s, ft.getName()).append(": {");
+                s.append("\"count\": ").append(v.getFailureCount(ft));
+                s.append(", \"cumulated-duration\": ").append(v.getFailureCumulatedDurationNano(ft));
+                s.append("}");
+            }
+
+            s.append("}}");
+        }
+
+        s.append("}, \"metrics\": {");
+
+        Set<Metric> metrics = si.getMetrics();
+
+        if (metrics != null) {
+
+            List<Metric> ordered = new ArrayList<>(metrics);
+            Collections.sort(ordered);
+
+            first = true;
+
+            for(Metric m: ordered) {
+
+                if (!first) {
+
+                    s.append(", ");
+                }
+
+                first = false;
+
+                Number value = m.getValue();
+                appendString(s, m.getLabel()).append(": ").append(toJSONNumber(value));
+            }
+        }
+
+        s.append("}, \"annotations\": [");
+
+        List<String> annotations = si.getAnnotations();
+
+        if (annotations != null) {
+
+            for(int i = 0; i < annotations.size(); i ++) {
+
+                if (i > 0) {
+
+                    s.append(", ");
+                }
+
+                appendString(s, annotations.get(i));
+            }
+        }
+
+        s.append("]}");
+
+        return s.toString();
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private Writer w;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param w the writer is owned by the formatter and it will be closed on stop().
+     */
+    public JSONFormatter(Writer w) {
+
+        if (w == null) {
+
+            throw new IllegalArgumentException("null writer");
+        }
+
+        this.w = w;
+    }
+
+    // SamplingConsumer implementation ---------------------------------------------------------------------------------
+
+    /**
+     * @see SamplingConsumer#consume(SamplingInterval...)
+     */
+    @Override
+    public void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+        for(SamplingInterval si: samplingIntervals) {
+
+            w.write(toLine(si));
+            w.write('\n');
+        }
+
+        w.flush();
+    }
+
+    @Override
+    public void stop() {
+
+        try {
+
+            w.close();
+        }
+        catch(IOException e) {
+
+            log.warn(this + " failed to close the underlying writer", e);
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static String toJSONNumber(Number n) {
+
+        if (n == null) {
+
+            return "null";
+        }
+
+        double d = n.doubleValue();
+
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+
+            return "null";
+        }
+
+        return n.toString();
+    }
+
+    private static StringBuilder appendString(StringBuilder s, String value) {
+
+        if (value == null) {
+
+            return s.append("null");
+        }
+
+        s.append('"');
+
+        for(int i = 0; i < value.length(); i ++) {
+
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+
+                s.append('\\').append(c);
+            }
+            else if (c == '\n') {
+
+                s.append("\\n");
+            }
+            else if (c == '\r') {
+
+                s.append("\\r");
+            }
+            else if (c == '\t') {
+
+                s.append("\\t");
+            }
+            else if (c < 0x20) {
+
+                s.append(String.format("\\u%04x", (int)c));
+            }
+            else {
+
+                s.append(c);
+            }
+        }
+
+        return s.append('"');
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.statistics;
+
+import io.novaordis.gld.api.sampler.metrics.MeasureUnit;
+import io.novaordis.gld.api.sampler.metrics.Metric;
+import io.novaordis.gld.api.sampler.metrics.MetricType;
+
+/**
+ * A metric value read back from a binary sampling log. It carries the presentation attributes of the original metric,
+ * so it can be formatted without instantiating the original metric class (which would sample the current system).
+ *
+ * @see BinaryLogReader
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class RecordedMetric implements Metric
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private String metricClassName;
+    private Number value;
+    private String label;
+    private MeasureUnit measureUnit;
+    private MetricType metricType;
+    private int displayRank;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public RecordedMetric(String metricClassName, Number value, String label, MeasureUnit measureUnit,
+                          MetricType metricType, int displayRank)
+    {
+        this.metricClassName = metricClassName;
+        this.value = value;
+        this.label = label;
+        this.measureUnit = measureUnit;
+        this.metricType = metricType;
+        this.displayRank = displayRank;
+    }
+
+    // Comparable implementation ---------------------------------------------------------------------------------------
+
+    /**
+     * @see Comparable#compareTo(Object)
+     */
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public int compareTo(Metric o)
+    {
+        return getDisplayRank() - o.getDisplayRank();
+    }
+
+    // Metric implementation ------------------------------------------------------------------------------------------
+
+    @Override
+    public Number getValue()
+    {
+        return value;
+    }
+
+    @Override
+    public String getLabel()
+    {
+        return label;
+    }
+
+    @Override
+    public MetricType getMetricType()
+    {
+        return metricType;
+    }
+
+    @Override
+    public MeasureUnit getMeasureUnit()
+    {
+        return measureUnit;
+    }
+
+    @Override
+    public int getDisplayRank()
+    {
+        return displayRank;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the fully qualified name of the class of the original metric.
+     */
+    public String getMetricClassName()
+    {
+        return metricClassName;
+    }
+
+    @Override
+    public String toString()
+    {
+        Number n = getValue();
+        return n == null ? "null" : n.toString();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -72,6 +72,46 @@ public class KeyStoreFactory {
 
             return new HierarchicalStore(directory);
         }
+        else if (SegmentLogStore.STORY_TYPE_LABEL.equals(type)) {
+
+            //
+            // 'segment-log'
+            //
+
+            File directory = sc.getFile(SegmentLogStore.DIRECTORY_CONFIGURATION_LABEL);
+
+            if (directory == null) {
+
+                throw new UserErrorException(
+                        "missing \"" + SegmentLogStore.DIRECTORY_CONFIGURATION_LABEL +
+                                "\" segment log key store configuration element");
+            }
+
+            Integer segmentSize;
+
+            try {
+
+                segmentSize = sc.get(Integer.class, SegmentLogStore.SEGMENT_SIZE_CONFIGURATION_LABEL);
+            }
+            catch(IllegalStateException e) {
+
+                throw new UserErrorException(
+                        "'" + SegmentLogStore.SEGMENT_SIZE_CONFIGURATION_LABEL + "' not an integer", e);
+            }
+
+            if (segmentSize == null) {
+
+                return new SegmentLogStore(directory);
+            }
+
+            if (segmentSize < LogSegment.HEADER_LENGTH) {
+
+                throw new UserErrorException(
+                        "invalid '" + SegmentLogStore.SEGMENT_SIZE_CONFIGURATION_LABEL + "' value: " + segmentSize);
+            }
+
+            return new SegmentLogStore(directory, segmentSize);
+        }
         else {
 
             //
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed-size, memory-mapped segment file of a SegmentLogStore. Records are appended and never modified.
+ *
+ * Record layout (big endian):
+ *
+ * int     record length (header included) - written last, 0 means the record is not (completely) written
+ * int     key length
+ * int     value length, or VALUE_NULL, or VALUE_NOT_STORED
+ * byte[]  UTF-8 key
+ * byte[]  value
+ *
+ * Space is reserved with a compare-and-set on the write position, so concurrent writers do not block each other, and
+ * each writer copies its record into its own region of the mapping.
+ *
+ * @see SegmentLogStore
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+class LogSegment {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    static final int HEADER_LENGTH = 12;
+
+    static final int VALUE_NULL = -1;
+    static final int VALUE_NOT_STORED = -2;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    static int recordLength(int keyLength, int valueLength) {
+
+        return HEADER_LENGTH + keyLength + (valueLength < 0 ? 0 : valueLength);
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final int index;
+    private final File file;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean readOnly;
+
+    // the offset of the first unreserved byte
+    private final AtomicInteger position;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Opens (and creates, if necessary) the segment file, and maps it in memory.
+     *
+     * @param capacity the size of a new segment file. An existing file is mapped with its own size. Ignored for
+     *                 read-only segments.
+     */
+    LogSegment(int index, File file, int capacity, boolean readOnly) throws IOException {
+
+        this.index = index;
+        this.file = file;
+        this.readOnly = readOnly;
+        this.raf = new RandomAccessFile(file, readOnly ? "r" : "rw");
+
+        try {
+
+            long length = raf.length();
+
+            if (!readOnly && length == 0) {
+
+                raf.setLength(capacity);
+                length = capacity;
+            }
+
+            if (length > Integer.MAX_VALUE) {
+
+                throw new IOException(file + " too large (" + length + " bytes)");
+            }
+
+            this.capacity = (int)length;
+            this.buffer = raf.getChannel().map(
+                    readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+        catch(IOException e) {
+
+            raf.close();
+            throw e;
+        }
+
+        this.position = new AtomicInteger(0);
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return file.getName() + "[" + position.get() + "/" + capacity + "]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    int getIndex() {
+
+        return index;
+    }
+
+    File getFile() {
+
+        return file;
+    }
+
+    int getCapacity() {
+
+        return capacity;
+    }
+
+    int getPosition() {
+
+        return position.get();
+    }
+
+    /**
+     * Reserves space for a record. Lock-free.
+     *
+     * @return the offset of the reserved space, or -1 if the segment does not have enough space left.
+     */
+    int reserve(int recordLength) {
+
+        while(true) {
+
+            int p = position.get();
+
+            if (capacity - p < recordLength) {
+
+                return -1;
+            }
+
+            if (position.compareAndSet(p, p + recordLength)) {
+
+                return p;
+            }
+        }
+    }
+
+    /**
+     * Writes the record into previously reserved space. The record length is written last, so a scan never sees a
+     * partially written record as complete.
+     *
+     * @param valueLength the value length, or VALUE_NULL, or VALUE_NOT_STORED.
+     */
+    void write(int offset, byte[] key, byte[] value, int valueLength) {
+
+        ByteBuffer b = buffer.duplicate();
+        b.position(offset + 4);
+        b.putInt(key.length);
+        b.putInt(valueLength);
+        b.put(key);
+
+        if (valueLength > 0) {
+
+            b.put(value);
+        }
+
+        buffer.putInt(offset, recordLength(key.length, valueLength));
+    }
+
+    /**
+     * @return the length of the record starting at the given offset, or 0 if there is no complete record at that
+     * offset (end of the written data, or a record that is being written).
+     */
+    int getRecordLength(int offset) {
+
+        if (capacity - offset < HEADER_LENGTH) {
+
+            return 0;
+        }
+
+        int length = buffer.getInt(offset);
+
+        if (length < HEADER_LENGTH || length > capacity - offset) {
+
+            return 0;
+        }
+
+        return length;
+    }
+
+    int getKeyLength(int offset) {
+
+        return buffer.getInt(offset + 4);
+    }
+
+    /**
+     * Copies the key of the record starting at the given offset into the given array, which must be large enough.
+     */
+    void readKey(int offset, byte[] dest) {
+
+        int keyLength = getKeyLength(offset);
+        ByteBuffer b = buffer.duplicate();
+        b.position(offset + HEADER_LENGTH);
+        b.get(dest, 0, keyLength);
+    }
+
+    /**
+     * @return true if the key of the record starting at the given offset is equal with the given key. Does not
+     * allocate.
+     */
+    boolean keyEquals(int offset, byte[] key) {
+
+        if (getKeyLength(offset) != key.length) {
+
+            return false;
+        }
+
+        int start = offset + HEADER_LENGTH;
+
+        for(int i = 0; i < key.length; i ++) {
+
+            if (buffer.get(start + i) != key[i]) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    StoredValue readValue(int offset) {
+
+        int keyLength = getKeyLength(offset);
+        int valueLength = buffer.getInt(offset + 8);
+
+        if (valueLength == VALUE_NULL) {
+
+            return Null.INSTANCE;
+        }
+
+        if (valueLength == VALUE_NOT_STORED) {
+
+            return NotStored.INSTANCE;
+        }
+
+        byte[] value = new byte[valueLength];
+        ByteBuffer b = buffer.duplicate();
+        b.position(offset + HEADER_LENGTH + keyLength);
+        b.get(value);
+        return StoredValue.getInstance(value);
+    }
+
+    /**
+     * Sets the write position after the last complete record. Used when an existing segment is re-opened.
+     *
+     * @return the number of complete records.
+     */
+    int recover() {
+
+        int offset = 0;
+        int records = 0;
+        int length;
+
+        while((length = getRecordLength(offset)) > 0) {
+
+            offset += length;
+            records ++;
+        }
+
+        position.set(offset);
+        return records;
+    }
+
+    void close() throws IOException {
+
+        if (!readOnly) {
+
+            buffer.force();
+        }
+
+        raf.close();
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
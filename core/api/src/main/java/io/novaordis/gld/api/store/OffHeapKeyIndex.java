@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An off-heap hash index that maps keys to the location of their latest record in a SegmentLogStore. The index does
+ * not hold the keys: each entry holds the key hash and the record location, and the keys are compared with the key
+ * bytes stored in the log, so the heap footprint does not depend on the number of keys.
+ *
+ * The index is split into stripes selected by the high bits of the key hash. Each stripe is an open addressing
+ * (linear probing) table in its own direct buffer, guarded by its own lock, and it doubles its capacity independently
+ * when its load factor exceeds MAX_LOAD_FACTOR. Lookups and insertions are O(1).
+ *
+ * Entry layout: long location (0 means empty slot), int hash, int unused.
+ *
+ * @see SegmentLogStore
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+class OffHeapKeyIndex {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    static final int STRIPE_COUNT_MAGNITUDE = 6;
+    static final int STRIPE_COUNT = 1 << STRIPE_COUNT_MAGNITUDE;
+
+    static final int ENTRY_LENGTH = 16;
+
+    static final int INITIAL_STRIPE_CAPACITY = 1024;
+
+    // 1 GB of entries per stripe, direct buffers cannot exceed 2 GB
+    static final int MAX_STRIPE_CAPACITY = 1 << 26;
+
+    static final double MAX_LOAD_FACTOR = 0.75d;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return a well-spread hash of the given key bytes (the murmur3 finalizer applied on the array hash code).
+     */
+    static int hash(byte[] key) {
+
+        int h = 1;
+
+        for(byte b: key) {
+
+            h = 31 * h + b;
+        }
+
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final LocationResolver resolver;
+    private final Stripe[] stripes;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    OffHeapKeyIndex(LocationResolver resolver) {
+
+        this.resolver = resolver;
+        this.stripes = new Stripe[STRIPE_COUNT];
+
+        for(int i = 0; i < STRIPE_COUNT; i ++) {
+
+            stripes[i] = new Stripe(INITIAL_STRIPE_CAPACITY);
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "OffHeapKeyIndex[" + size() + " keys]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * Associates the key with the given location, replacing the previous location, if any.
+     *
+     * @param location must not be 0.
+     *
+     * @return true if the key was not previously indexed.
+     *
+     * @exception IllegalStateException if the stripe is full and cannot grow.
+     */
+    boolean put(byte[] key, int hash, long location) {
+
+        Stripe s = stripes[hash >>> (32 - STRIPE_COUNT_MAGNITUDE)];
+
+        synchronized (s) {
+
+            if (s.size + 1 > s.capacity * MAX_LOAD_FACTOR && s.capacity < MAX_STRIPE_CAPACITY) {
+
+                s.grow();
+            }
+
+            int mask = s.capacity - 1;
+
+            for(int slot = hash & mask, probes = 0; probes < s.capacity; slot = (slot + 1) & mask, probes ++) {
+
+                int entry = slot * ENTRY_LENGTH;
+                long l = s.table.getLong(entry);
+
+                if (l == 0L) {
+
+                    s.table.putLong(entry, location);
+                    s.table.putInt(entry + 8, hash);
+                    s.size ++;
+                    return true;
+                }
+
+                if (s.table.getInt(entry + 8) == hash && resolver.keyEquals(l, key)) {
+
+                    s.table.putLong(entry, location);
+                    return false;
+                }
+            }
+
+            throw new IllegalStateException("index stripe full (" + s.capacity + " entries)");
+        }
+    }
+
+    /**
+     * @return the location of the latest record of the key, or 0 if the key is not indexed.
+     */
+    long get(byte[] key, int hash) {
+
+        Stripe s = stripes[hash >>> (32 - STRIPE_COUNT_MAGNITUDE)];
+
+        synchronized (s) {
+
+            int mask = s.capacity - 1;
+
+            for(int slot = hash & mask, probes = 0; probes < s.capacity; slot = (slot + 1) & mask, probes ++) {
+
+                int entry = slot * ENTRY_LENGTH;
+                long l = s.table.getLong(entry);
+
+                if (l == 0L) {
+
+                    return 0L;
+                }
+
+                if (s.table.getInt(entry + 8) == hash && resolver.keyEquals(l, key)) {
+
+                    return l;
+                }
+            }
+
+            return 0L;
+        }
+    }
+
+    /**
+     * @return the number of distinct keys.
+     */
+    long size() {
+
+        long size = 0L;
+
+        for(Stripe s: stripes) {
+
+            synchronized (s) {
+
+                size += s.size;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * @return the off-heap memory used by the index, in bytes.
+     */
+    long getMemoryFootprint() {
+
+        long footprint = 0L;
+
+        for(Stripe s: stripes) {
+
+            synchronized (s) {
+
+                footprint += (long)s.capacity * ENTRY_LENGTH;
+            }
+        }
+
+        return footprint;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    /**
+     * Resolves record locations to the keys stored in the log.
+     */
+    interface LocationResolver {
+
+        boolean keyEquals(long location, byte[] key);
+    }
+
+    private static class Stripe {
+
+        // guarded by the stripe's monitor
+        private ByteBuffer table;
+        private int capacity;
+        private int size;
+
+        private Stripe(int capacity) {
+
+            this.capacity = capacity;
+            this.table = ByteBuffer.allocateDirect(capacity * ENTRY_LENGTH);
+        }
+
+        /**
+         * Doubles the capacity. The entries hold the key hashes, so the keys are not read during re-hashing.
+         */
+        private void grow() {
+
+            int newCapacity = capacity << 1;
+            ByteBuffer newTable = ByteBuffer.allocateDirect(newCapacity * ENTRY_LENGTH);
+            int mask = newCapacity - 1;
+
+            for(int i = 0; i < capacity; i ++) {
+
+                long location = table.getLong(i * ENTRY_LENGTH);
+
+                if (location == 0L) {
+
+                    continue;
+                }
+
+                int hash = table.getInt(i * ENTRY_LENGTH + 8);
+                int slot = hash & mask;
+
+                while(newTable.getLong(slot * ENTRY_LENGTH) != 0L) {
+
+                    slot = (slot + 1) & mask;
+                }
+
+                newTable.putLong(slot * ENTRY_LENGTH, location);
+                newTable.putInt(slot * ENTRY_LENGTH + 8, hash);
+            }
+
+            table = newTable;
+            capacity = newCapacity;
+        }
+    }
+}
@@ -0,0 +1,640 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.store;
+
+import io.novaordis.gld.api.KeyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A store that appends the key/value pairs to a log of fixed-size, memory-mapped segment files, and maintains an
+ * off-heap hash index that maps each key to its latest record. Compared with HierarchicalStore, it uses a handful of
+ * large files instead of one file per key, so it does not exhaust inodes, and the keys are reloaded with a sequential
+ * scan of the segments instead of walking a directory tree.
+ *
+ * - store() is lock-free with respect to the log: each writer reserves space in the active segment with a
+ *   compare-and-set, and copies its record into the mapping. Only the index insertion, and the occasional segment
+ *   roll, take a (striped) lock.
+ * - retrieve() is an O(1) index lookup followed by a read from the mapping.
+ * - getKeys() scans the segments sequentially. Storing a key again appends a new record, so the latest value wins.
+ *
+ * If the directory contains segments when the store is started, the segments are re-opened, the index is rebuilt
+ * from them and new records are appended - unless the store is configured to overwrite, in which case the existing
+ * segments are deleted. A record that was not completely written when the previous process exited ends the segment.
+ *
+ * Configuration:
+ *
+ * store:
+ *   type: segment-log
+ *   directory: /tmp/gld-keys
+ *   segment-size: 67108864   # optional, bytes, default 64 MB
+ *
+ * @see LogSegment
+ * @see OffHeapKeyIndex
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class SegmentLogStore implements KeyStore, OffHeapKeyIndex.LocationResolver {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String STORY_TYPE_LABEL = "segment-log";
+    public static final String DIRECTORY_CONFIGURATION_LABEL = "directory";
+    public static final String SEGMENT_SIZE_CONFIGURATION_LABEL = "segment-size";
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final Pattern SEGMENT_FILE_NAME = Pattern.compile("segment-(\\d{8})\\.log");
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentLogStore.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    static String getSegmentFileName(int index) {
+
+        return String.format("segment-%08d.log", index);
+    }
+
+    static long toLocation(int segmentIndex, int offset) {
+
+        return ((long)(segmentIndex + 1) << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    static int toSegmentIndex(long location) {
+
+        return (int)(location >>> 32) - 1;
+    }
+
+    static int toOffset(long location) {
+
+        return (int)location;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final File directory;
+
+    private final int segmentSize;
+
+    private boolean overwrite;
+
+    private volatile boolean started;
+
+    // copied on segment roll, the index of a segment is its position in the array
+    private volatile LogSegment[] segments;
+
+    private volatile LogSegment active;
+
+    private volatile OffHeapKeyIndex index;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param directory it is OK if the directory does not exist, the instance will create it at start() time, as
+     *                  long as its parent exists. It cannot be null.
+     *
+     * @exception IllegalArgumentException
+     */
+    public SegmentLogStore(File directory) {
+
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize the size of a segment file, in bytes. A record must fit in a segment.
+     *
+     * @exception IllegalArgumentException
+     */
+    public SegmentLogStore(File directory, int segmentSize) {
+
+        if (directory == null) {
+
+            throw new IllegalArgumentException("null directory");
+        }
+
+        if (segmentSize < LogSegment.HEADER_LENGTH) {
+
+            throw new IllegalArgumentException("invalid segment size " + segmentSize);
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.overwrite = false;
+    }
+
+    // KeyStore implementation -----------------------------------------------------------------------------------------
+
+    @Override
+    public synchronized void start() throws KeyStoreException {
+
+        if (started) {
+
+            return;
+        }
+
+        if (directory.isFile()) {
+
+            throw new KeyStoreException(directory + " is a file, it should have been a directory");
+        }
+
+        if (!directory.isDirectory()) {
+
+            File parent = directory.getParentFile();
+
+            if (parent != null && !parent.isDirectory()) {
+
+                throw new KeyStoreException("parent directory " + parent + " does not exist");
+            }
+
+            if (!directory.mkdir()) {
+
+                throw new KeyStoreException("failed to create directory " + directory);
+            }
+
+            log.debug(directory + " created");
+        }
+
+        List<File> existing = getSegmentFiles(directory);
+
+        if (overwrite) {
+
+            for(File f: existing) {
+
+                if (!f.delete()) {
+
+                    throw new KeyStoreException("failed to delete " + f);
+                }
+            }
+
+            existing.clear();
+        }
+
+        OffHeapKeyIndex index = new OffHeapKeyIndex(this);
+        LogSegment[] segments;
+
+        try {
+
+            segments = openSegments(existing, segmentSize, false);
+        }
+        catch(IOException e) {
+
+            throw new KeyStoreException(e);
+        }
+
+        this.segments = segments;
+        this.index = index;
+
+        try {
+
+            long t0 = System.currentTimeMillis();
+            long records = 0L;
+
+            for(LogSegment s: segments) {
+
+                records += s.recover();
+                rebuildIndex(s, index);
+            }
+
+            if (segments.length > 0) {
+
+                log.info(records + " records from " + segments.length + " segment(s) recovered in " +
+                        (System.currentTimeMillis() - t0) + " ms, " + index.size() + " distinct keys");
+
+                active = segments[segments.length - 1];
+            }
+            else {
+
+                active = roll(null);
+            }
+        }
+        catch(KeyStoreException e) {
+
+            closeSegments();
+            throw e;
+        }
+
+        started = true;
+
+        log.debug(this + " started");
+    }
+
+    @Override
+    public synchronized void stop() throws KeyStoreException {
+
+        if (!started) {
+
+            return;
+        }
+
+        started = false;
+
+        closeSegments();
+
+        log.debug(this + " stopped");
+    }
+
+    @Override
+    public boolean isStarted() {
+
+        return started;
+    }
+
+    @Override
+    public void store(String key, byte[]... v) throws KeyStoreException {
+
+        if (key == null) {
+
+            throw new IllegalArgumentException("null key");
+        }
+
+        byte[] value;
+        int valueLength;
+
+        if (v == null) {
+
+            value = null;
+            valueLength = LogSegment.VALUE_NULL;
+        }
+        else if (v.length > 1) {
+
+            throw new IllegalArgumentException("invalid multiple arguments");
+        }
+        else if (v.length == 1) {
+
+            value = v[0];
+            valueLength = value == null ? LogSegment.VALUE_NULL : value.length;
+        }
+        else {
+
+            value = null;
+            valueLength = LogSegment.VALUE_NOT_STORED;
+        }
+
+        if (!started) {
+
+            throw new IllegalStateException(this + " not started");
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int recordLength = LogSegment.recordLength(keyBytes.length, valueLength);
+
+        if (recordLength > segmentSize) {
+
+            throw new KeyStoreException(
+                    "the record for key " + key + " (" + recordLength + " bytes) does not fit in a " + segmentSize +
+                            " byte segment");
+        }
+
+        LogSegment s = active;
+        int offset;
+
+        while((offset = s.reserve(recordLength)) < 0) {
+
+            s = roll(s);
+        }
+
+        s.write(offset, keyBytes, value, valueLength);
+
+        try {
+
+            index.put(keyBytes, OffHeapKeyIndex.hash(keyBytes), toLocation(s.getIndex(), offset));
+        }
+        catch(IllegalStateException e) {
+
+            throw new KeyStoreException(e);
+        }
+    }
+
+    @Override
+    public StoredValue retrieve(String key) throws KeyStoreException {
+
+        if (!started) {
+
+            throw new IllegalStateException(this + " not started");
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long location = index.get(keyBytes, OffHeapKeyIndex.hash(keyBytes));
+
+        if (location == 0L) {
+
+            return Null.INSTANCE;
+        }
+
+        return segments[toSegmentIndex(location)].readValue(toOffset(location));
+    }
+
+    /**
+     * Scans the segments sequentially. If the store is not started, the segments found in the directory are scanned
+     * read-only. Keys that are being stored concurrently with the scan may or may not be included.
+     */
+    @Override
+    public Set<String> getKeys() throws KeyStoreException {
+
+        if (started) {
+
+            return scan(segments);
+        }
+
+        LogSegment[] readOnly;
+
+        try {
+
+            readOnly = openSegments(getSegmentFiles(directory), 0, true);
+        }
+        catch(IOException e) {
+
+            throw new KeyStoreException(e);
+        }
+
+        try {
+
+            return scan(readOnly);
+        }
+        finally {
+
+            close(readOnly);
+        }
+    }
+
+    /**
+     * O(1) if the store is started, it requires a scan otherwise.
+     */
+    @Override
+    public long getKeyCount() throws KeyStoreException {
+
+        if (started) {
+
+            return index.size();
+        }
+
+        return getKeys().size();
+    }
+
+    // OffHeapKeyIndex.LocationResolver implementation -----------------------------------------------------------------
+
+    @Override
+    public boolean keyEquals(long location, byte[] key) {
+
+        return segments[toSegmentIndex(location)].keyEquals(toOffset(location), key);
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public File getDirectory() {
+
+        return directory;
+    }
+
+    public int getSegmentSize() {
+
+        return segmentSize;
+    }
+
+    /**
+     * @return the number of segments, 0 if the store is not started.
+     */
+    public int getSegmentCount() {
+
+        LogSegment[] s = segments;
+        return started && s != null ? s.length : 0;
+    }
+
+    /**
+     * @return true if the store deletes the existing segments at startup. If false, the existing segments are
+     * re-opened and appended to.
+     */
+    public boolean isOverwrite() {
+
+        return overwrite;
+    }
+
+    /**
+     * @see SegmentLogStore#isOverwrite()
+     */
+    public void setOverwrite(boolean b) {
+
+        this.overwrite = b;
+    }
+
+    @Override
+    public String toString() {
+
+        return "segment log store " + directory;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * @return the segment files found in the directory, sorted by index.
+     *
+     * @exception KeyStoreException if the segment indices are not contiguous, starting with 0.
+     */
+    static List<File> getSegmentFiles(File directory) throws KeyStoreException {
+
+        List<File> result = new ArrayList<>();
+
+        File[] files = directory.listFiles();
+
+        if (files == null) {
+
+            return result;
+        }
+
+        Arrays.sort(files);
+
+        for(File f: files) {
+
+            Matcher m = SEGMENT_FILE_NAME.matcher(f.getName());
+
+            if (!m.matches()) {
+
+                continue;
+            }
+
+            if (Integer.parseInt(m.group(1)) != result.size()) {
+
+                throw new KeyStoreException("missing segment " + getSegmentFileName(result.size()) + " in " + directory);
+            }
+
+            result.add(f);
+        }
+
+        return result;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Replaces the full segment with a new active segment, unless another thread already did it.
+     *
+     * @param full null when the first segment is created.
+     *
+     * @return the active segment.
+     */
+    private synchronized LogSegment roll(LogSegment full) throws KeyStoreException {
+
+        if (full != null && active != full) {
+
+            return active;
+        }
+
+        LogSegment[] current = segments;
+        int i = current.length;
+        LogSegment s;
+
+        try {
+
+            s = new LogSegment(i, new File(directory, getSegmentFileName(i)), segmentSize, false);
+        }
+        catch(IOException e) {
+
+            throw new KeyStoreException(e);
+        }
+
+        LogSegment[] extended = Arrays.copyOf(current, i + 1);
+        extended[i] = s;
+        segments = extended;
+        active = s;
+
+        log.debug("rolled to " + s);
+
+        return s;
+    }
+
+    private void rebuildIndex(LogSegment s, OffHeapKeyIndex index) throws KeyStoreException {
+
+        int end = s.getPosition();
+
+        for(int offset = 0; offset < end; offset += s.getRecordLength(offset)) {
+
+            byte[] key = new byte[s.getKeyLength(offset)];
+            s.readKey(offset, key);
+
+            try {
+
+                index.put(key, OffHeapKeyIndex.hash(key), toLocation(s.getIndex(), offset));
+            }
+            catch(IllegalStateException e) {
+
+                throw new KeyStoreException(e);
+            }
+        }
+    }
+
+    private void closeSegments() {
+
+        LogSegment[] s = segments;
+
+        if (s != null) {
+
+            close(s);
+        }
+
+        segments = null;
+        active = null;
+        index = null;
+    }
+
+    /**
+     * @param capacity the capacity of an empty segment file. Existing segments are mapped with their own size.
+     */
+    private static LogSegment[] openSegments(List<File> files, int capacity, boolean readOnly) throws IOException {
+
+        LogSegment[] result = new LogSegment[files.size()];
+
+        try {
+
+            for(int i = 0; i < result.length; i ++) {
+
+                result[i] = new LogSegment(i, files.get(i), capacity, readOnly);
+            }
+        }
+        catch(IOException e) {
+
+            close(result);
+            throw e;
+        }
+
+        return result;
+    }
+
+    private static void close(LogSegment[] segments) {
+
+        for(LogSegment s: segments) {
+
+            if (s == null) {
+
+                continue;
+            }
+
+            try {
+
+                s.close();
+            }
+            catch(IOException e) {
+
+                log.warn("failed to close " + s.getFile(), e);
+            }
+        }
+    }
+
+    private static Set<String> scan(LogSegment[] segments) {
+
+        Set<String> keys = new HashSet<>();
+        byte[] key = new byte[64];
+
+        for(LogSegment s: segments) {
+
+            int offset = 0;
+            int length;
+
+            while((length = s.getRecordLength(offset)) > 0) {
+
+                int keyLength = s.getKeyLength(offset);
+
+                if (key.length < keyLength) {
+
+                    key = new byte[keyLength];
+                }
+
+                s.readKey(offset, key);
+                keys.add(new String(key, 0, keyLength, StandardCharsets.UTF_8));
+                offset += length;
+            }
+        }
+
+        return keys;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
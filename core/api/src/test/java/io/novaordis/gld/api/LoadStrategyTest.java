@@ -27,6 +27,7 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -36,7 +37,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -397,6 +400,79 @@ public abstract class LoadStrategyTest {
         }
     }
 
+    @Test
+    public void next_ExplicitContext() throws Exception {
+
+        MockServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        LoadStrategy ls = getLoadStrategyToTest();
+        initialize(ls, msc);
+
+        LoadStrategyContext c = ls.newContext();
+
+        Operation o = ls.next(c, null, null, false);
+        assertNotNull(o);
+
+        Operation o2 = ls.next(c, o, null, false);
+        assertNotNull(o2);
+    }
+
+    @Test
+    public void next_ContextNotForkedFromTheStrategy() throws Exception {
+
+        MockServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        LoadStrategy ls = getLoadStrategyToTest();
+        initialize(ls, msc);
+
+        LoadStrategyContext foreign = getLoadStrategyToTest().newContext();
+
+        try {
+
+            ls.next(foreign, null, null, false);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("was not forked from"));
+        }
+    }
+
+    @Test
+    public void next_NullContext() throws Exception {
+
+        MockServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        LoadStrategy ls = getLoadStrategyToTest();
+        initialize(ls, msc);
+
+        try {
+
+            ls.next(null, null, null, false);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("was not forked from"));
+        }
+    }
+
+    // newContext() ----------------------------------------------------------------------------------------------------
+
+    @Test
+    public void newContext() throws Exception {
+
+        LoadStrategy ls = getLoadStrategyToTest();
+
+        LoadStrategyContext c = ls.newContext();
+        LoadStrategyContext c2 = ls.newContext();
+
+        assertSame(ls, c.getLoadStrategy());
+        assertSame(ls, c2.getLoadStrategy());
+        assertNotSame(c, c2);
+    }
+
     // maxOperations()/remainingOperations() ---------------------------------------------------------------------------
 
     @Test
@@ -619,6 +695,35 @@ public abstract class LoadStrategyTest {
         assertNotEquals(s, s2);
     }
 
+    @Test
+    public void computeValueBytes_ReuseValue() throws Exception {
+
+        LoadStrategyBase ls = (LoadStrategyBase)getLoadStrategyToTest();
+        assertTrue(ls.isReuseValue());
+
+        byte[] b = ls.computeValueBytes();
+        assertEquals(ls.getValueSize(), b.length);
+        assertEquals(ls.computeValue(), new String(b, "US-ASCII"));
+
+        byte[] b2 = ls.computeValueBytes();
+        assertTrue(b == b2);
+    }
+
+    @Test
+    public void computeValueBytes_DoNotReuseValue() throws Exception {
+
+        LoadStrategyBase slb = (LoadStrategyBase)getLoadStrategyToTest();
+        slb.setReuseValue(false);
+
+        byte[] b = slb.computeValueBytes();
+        assertEquals(slb.getValueSize(), b.length);
+
+        byte[] b2 = slb.computeValueBytes();
+        assertEquals(slb.getValueSize(), b2.length);
+
+        assertFalse(Arrays.equals(b, b2));
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -237,6 +237,178 @@ public class RandomContentGeneratorTest {
         assertEquals(2000, s.length());
     }
 
+    @Test
+    public void getRandomString_LongerThanRetainedBuffer() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+        Random r = new Random();
+
+        String s = g.getRandomString(r, RandomContentGenerator.MAX_RETAINED_BUFFER_LENGTH + 1);
+        assertEquals(RandomContentGenerator.MAX_RETAINED_BUFFER_LENGTH + 1, s.length());
+
+        //
+        // the per-thread buffer is still usable for shorter strings
+        //
+
+        String s2 = g.getRandomString(r, 5);
+        assertEquals(5, s2.length());
+    }
+
+    @Test
+    public void getRandomString_SuccessiveInvocationsProduceIndependentStrings() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+        Random r = new Random(0L);
+
+        String s = g.getRandomString(r, 100, 100);
+        String copy = new String(s.toCharArray());
+
+        //
+        // the second invocation reuses the per-thread buffer, it must not alter the first string
+        //
+
+        String s2 = g.getRandomString(r, 100, 100);
+
+        assertEquals(copy, s);
+        assertTrue(!s.equals(s2));
+    }
+
+    @Test
+    public void getRandomString_Alphanumeric() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+        Random r = new Random();
+
+        String s = g.getRandomString(r, 10000, 10000);
+        assertTrue(s.matches("[0-9a-zA-Z]+"));
+    }
+
+    // getRandomBytes() ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void getRandomBytes_InvalidLength() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+
+        try {
+
+            g.getRandomBytes(new Random(), 0);
+            fail("should fail with IllegalArgumentException");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.matches("invalid length .*"));
+        }
+    }
+
+    @Test
+    public void getRandomBytes() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+
+        byte[] b = g.getRandomBytes(new Random(), 2000);
+
+        assertEquals(2000, b.length);
+
+        String s = new String(b, "US-ASCII");
+        assertTrue(s.matches("[0-9a-zA-Z]+"));
+    }
+
+    @Test
+    public void getRandomBytes_SameContentAsGetRandomString() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+
+        String s = g.getRandomString(new Random(7L), 11, 3);
+        byte[] b = g.getRandomBytes(new Random(7L), 11, 3);
+
+        assertEquals(s, new String(b, "US-ASCII"));
+    }
+
+    // fill() ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void fill_Bytes_Offset() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+
+        byte[] buffer = new byte[12];
+
+        g.fill(new Random(), buffer, 2, 9, 3);
+
+        assertEquals(0, buffer[0]);
+        assertEquals(0, buffer[1]);
+        assertEquals(0, buffer[11]);
+
+        for(int i = 2; i < 11; i ++) {
+
+            assertTrue(buffer[i] != 0);
+        }
+
+        assertEquals(new String(buffer, 2, 3, "US-ASCII"), new String(buffer, 5, 3, "US-ASCII"));
+        assertEquals(new String(buffer, 5, 3, "US-ASCII"), new String(buffer, 8, 3, "US-ASCII"));
+    }
+
+    @Test
+    public void fill_Chars_BufferTooSmall() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+
+        try {
+
+            g.fill(new Random(), new char[10], 5, 6, 6);
+            fail("should fail with IllegalArgumentException");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.startsWith("buffer too small"));
+        }
+    }
+
+    // getGeneratedByteCount() -----------------------------------------------------------------------------------------
+
+    @Test
+    public void getGeneratedByteCount() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator();
+        Random r = new Random();
+
+        long c = RandomContentGenerator.getGeneratedByteCount();
+
+        g.getRandomString(r, 10);
+        g.getRandomBytes(r, 20);
+        g.fill(r, new char[30], 0, 30, 5);
+
+        //
+        // other tests may generate content concurrently
+        //
+
+        assertTrue(RandomContentGenerator.getGeneratedByteCount() - c >= 60);
+    }
+
+    @Test
+    public void getGeneratedByteCount_NotCounted() throws Exception {
+
+        RandomContentGenerator g = new RandomContentGenerator(false);
+        Random r = new Random();
+
+        long c = RandomContentGenerator.getGeneratedByteCount();
+
+        g.fill(r, new char[1000000], 0, 1000000, 20);
+        g.fill(r, new byte[1000000], 0, 1000000, 20);
+        g.getRandomString(r, 1000000);
+
+        //
+        // other tests may generate content concurrently, but not that much
+        //
+
+        assertTrue(RandomContentGenerator.getGeneratedByteCount() - c < 1000000);
+    }
+
 //    @Test
 //    public void getRandomKeyUUID_35() throws Exception
 //    {
@@ -27,7 +27,7 @@ import java.util.Set;
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 12/7/16
  */
-public class MockCacheService extends MockService implements CacheService {
+public class MockCacheService extends MockService implements BulkCacheService {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
@@ -76,6 +76,32 @@ public class MockCacheService extends MockService implements CacheService {
         return entries.keySet();
     }
 
+    // BulkCacheService implementation ---------------------------------------------------------------------------------
+
+    @Override
+    public Map<String, String> getAll(Set<String> keys) throws Exception {
+
+        Map<String, String> result = new HashMap<>();
+
+        for(String key: keys) {
+
+            String value = entries.get(key);
+
+            if (value != null) {
+
+                result.put(key, value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) throws Exception {
+
+        this.entries.putAll(entries);
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     // Package protected -----------------------------------------------------------------------------------------------
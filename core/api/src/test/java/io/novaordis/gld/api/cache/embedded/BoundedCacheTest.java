@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.embedded;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BoundedCacheTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedCacheTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidCapacity() throws Exception {
+
+        try {
+
+            new BoundedCache(0, EvictionPolicy.LRU);
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid capacity 0", msg);
+        }
+    }
+
+    @Test
+    public void segments() throws Exception {
+
+        assertEquals(1, new BoundedCache(1, EvictionPolicy.LRU).getSegmentCount());
+        assertEquals(1, new BoundedCache(BoundedCache.MIN_SEGMENT_CAPACITY * 2 - 1, EvictionPolicy.LRU).
+                getSegmentCount());
+        assertEquals(2, new BoundedCache(BoundedCache.MIN_SEGMENT_CAPACITY * 2, EvictionPolicy.LFU).
+                getSegmentCount());
+        assertEquals(BoundedCache.MAX_SEGMENTS, new BoundedCache(1000000, EvictionPolicy.LRU).getSegmentCount());
+    }
+
+    @Test
+    public void lru_EvictsTheLeastRecentlyUsedEntry() throws Exception {
+
+        BoundedCache c = new BoundedCache(2, EvictionPolicy.LRU);
+
+        c.put("a", "A");
+        c.put("b", "B");
+
+        // "a" becomes the most recently used
+        assertEquals("A", c.get("a"));
+
+        c.put("c", "C");
+
+        assertEquals(2, c.size());
+        assertEquals(1L, c.getEvictionCount());
+        assertNull(c.get("b"));
+        assertEquals("A", c.get("a"));
+        assertEquals("C", c.get("c"));
+    }
+
+    @Test
+    public void lfu_EvictsTheLeastFrequentlyUsedEntry() throws Exception {
+
+        BoundedCache c = new BoundedCache(2, EvictionPolicy.LFU);
+
+        c.put("a", "A");
+        c.put("b", "B");
+
+        c.get("a");
+        c.get("a");
+        c.get("b");
+
+        c.put("c", "C");
+
+        assertEquals(2, c.size());
+        assertEquals(1L, c.getEvictionCount());
+        assertNull(c.get("b"));
+        assertEquals("A", c.get("a"));
+        assertEquals("C", c.get("c"));
+
+        //
+        // "c" is now the least frequently used entry
+        //
+
+        c.put("d", "D");
+
+        assertNull(c.get("c"));
+        assertEquals("A", c.get("a"));
+        assertEquals("D", c.get("d"));
+        assertEquals(2L, c.getEvictionCount());
+    }
+
+    @Test
+    public void lfu_TiesAreBrokenInInsertionOrder() throws Exception {
+
+        BoundedCache c = new BoundedCache(2, EvictionPolicy.LFU);
+
+        c.put("a", "A");
+        c.put("b", "B");
+        c.put("c", "C");
+
+        assertNull(c.get("a"));
+        assertEquals("B", c.get("b"));
+        assertEquals("C", c.get("c"));
+    }
+
+    @Test
+    public void overwriteDoesNotEvict() throws Exception {
+
+        for(EvictionPolicy p: EvictionPolicy.values()) {
+
+            BoundedCache c = new BoundedCache(2, p);
+
+            c.put("a", "A");
+            c.put("b", "B");
+            c.put("a", "A2");
+
+            assertEquals(2, c.size());
+            assertEquals(0L, c.getEvictionCount());
+            assertEquals("A2", c.get("a"));
+        }
+    }
+
+    @Test
+    public void remove() throws Exception {
+
+        for(EvictionPolicy p: EvictionPolicy.values()) {
+
+            BoundedCache c = new BoundedCache(2, p);
+
+            c.put("a", "A");
+            c.put("b", "B");
+            c.remove("a");
+            c.remove("no-such-key");
+
+            assertEquals(1, c.size());
+            assertTrue(c.keys().contains("b"));
+
+            c.put("c", "C");
+
+            assertEquals(0L, c.getEvictionCount());
+        }
+    }
+
+    @Test
+    public void sizeNeverExceedsTheCapacity() throws Exception {
+
+        for(EvictionPolicy p: EvictionPolicy.values()) {
+
+            int capacity = BoundedCache.MIN_SEGMENT_CAPACITY * 4 + 3;
+
+            BoundedCache c = new BoundedCache(capacity, p);
+
+            for(int i = 0; i < capacity * 3; i ++) {
+
+                c.put("key-" + i, "value-" + i);
+            }
+
+            assertTrue(c.size() <= capacity);
+            assertEquals(capacity * 3 - c.size(), c.getEvictionCount());
+            assertEquals(c.size(), c.keys().size());
+
+            c.clear();
+
+            assertEquals(0, c.size());
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -18,8 +18,22 @@ package io.novaordis.gld.api.cache.embedded;
 
 import io.novaordis.gld.api.LoadStrategy;
 import io.novaordis.gld.api.cache.CacheServiceTest;
+import io.novaordis.gld.api.cache.MockCacheServiceConfiguration;
 import io.novaordis.gld.api.cache.load.WriteThenReadLoadStrategy;
 import io.novaordis.gld.api.service.Service;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -29,6 +43,8 @@ public class EmbeddedCacheServiceTest extends CacheServiceTest {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedCacheServiceTest.class);
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
@@ -37,6 +53,362 @@ public class EmbeddedCacheServiceTest extends CacheServiceTest {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void configure_Defaults() throws Exception {
+
+        EmbeddedCacheService s = configured(new HashMap<>());
+
+        assertNull(s.getBoundedCache());
+        assertEquals(0L, s.getLatencyNanos());
+        assertEquals(LatencyDistribution.CONSTANT, s.getLatencyDistribution());
+        assertEquals(0L, s.getStallIntervalNanos());
+        assertEquals(0L, s.getStallDurationNanos());
+        assertEquals(0.0d, s.getFailureRate(), 0.0d);
+        assertNull(s.getFailureType());
+    }
+
+    @Test
+    public void configure_Capacity() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.CAPACITY_LABEL, 2);
+        m.put(EmbeddedCacheService.EVICTION_LABEL, "lfu");
+
+        EmbeddedCacheService s = configured(m);
+
+        BoundedCache c = s.getBoundedCache();
+        assertEquals(2, c.getCapacity());
+        assertEquals(EvictionPolicy.LFU, c.getEvictionPolicy());
+
+        s.start();
+
+        s.put("a", "A");
+        s.put("b", "B");
+        s.put("c", "C");
+
+        assertEquals(2, s.keys().size());
+        assertEquals(1L, c.getEvictionCount());
+
+        s.stop();
+    }
+
+    @Test
+    public void configure_InvalidCapacity() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.CAPACITY_LABEL, -1);
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'capacity' value: -1, must be a positive integer", msg);
+        }
+    }
+
+    @Test
+    public void configure_InvalidEviction() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.CAPACITY_LABEL, 10);
+        m.put(EmbeddedCacheService.EVICTION_LABEL, "fifo");
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.startsWith("invalid eviction policy 'fifo'"));
+        }
+    }
+
+    @Test
+    public void configure_EvictionWithoutCapacity() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.EVICTION_LABEL, "lru");
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("'eviction' requires 'capacity'", msg);
+        }
+    }
+
+    @Test
+    public void configure_Latency() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.LATENCY_LABEL, "20ms");
+
+        EmbeddedCacheService s = configured(m);
+
+        assertEquals(20000000L, s.getLatencyNanos());
+        assertEquals(LatencyDistribution.CONSTANT, s.getLatencyDistribution());
+
+        s.start();
+
+        long t0 = System.nanoTime();
+
+        s.put("a", "A");
+
+        long t1 = System.nanoTime();
+
+        assertEquals("A", s.get("a"));
+        assertTrue(t1 - t0 >= 20000000L);
+
+        s.stop();
+    }
+
+    @Test
+    public void configure_Latency_Microseconds() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.LATENCY_LABEL, "250us");
+        m.put(EmbeddedCacheService.LATENCY_DISTRIBUTION_LABEL, "lognormal");
+        m.put(EmbeddedCacheService.LATENCY_SIGMA_LABEL, 1.5d);
+
+        EmbeddedCacheService s = configured(m);
+
+        assertEquals(250000L, s.getLatencyNanos());
+        assertEquals(LatencyDistribution.LOGNORMAL, s.getLatencyDistribution());
+        assertEquals(1.5d, s.getLatencySigma(), 0.0d);
+    }
+
+    @Test
+    public void configure_InvalidLatency() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.LATENCY_LABEL, "-5us");
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'latency': invalid duration: -5us", msg);
+        }
+    }
+
+    @Test
+    public void configure_SigmaRequiresLognormal() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.LATENCY_LABEL, "1ms");
+        m.put(EmbeddedCacheService.LATENCY_DISTRIBUTION_LABEL, "exponential");
+        m.put(EmbeddedCacheService.LATENCY_SIGMA_LABEL, 0.3d);
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("'latency-sigma' only applies to the 'lognormal' latency distribution", msg);
+        }
+    }
+
+    @Test
+    public void configure_Stall() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.STALL_INTERVAL_LABEL, "10s");
+        m.put(EmbeddedCacheService.STALL_DURATION_LABEL, "500ms");
+
+        EmbeddedCacheService s = configured(m);
+
+        assertEquals(10000000000L, s.getStallIntervalNanos());
+        assertEquals(500000000L, s.getStallDurationNanos());
+    }
+
+    @Test
+    public void configure_StallDurationWithoutInterval() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.STALL_DURATION_LABEL, "500ms");
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("'stall-interval' and 'stall-duration' must be specified together", msg);
+        }
+    }
+
+    @Test
+    public void configure_StallLongerThanTheInterval() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.STALL_INTERVAL_LABEL, "1s");
+        m.put(EmbeddedCacheService.STALL_DURATION_LABEL, "1s");
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("'stall-duration' must be shorter than 'stall-interval'", msg);
+        }
+    }
+
+    @Test
+    public void stallRemainingNanos() throws Exception {
+
+        //
+        // 100 ns interval, the stall occupies the last 30 ns
+        //
+
+        assertEquals(0L, EmbeddedCacheService.stallRemainingNanos(0L, 100L, 30L));
+        assertEquals(0L, EmbeddedCacheService.stallRemainingNanos(69L, 100L, 30L));
+        assertEquals(30L, EmbeddedCacheService.stallRemainingNanos(70L, 100L, 30L));
+        assertEquals(1L, EmbeddedCacheService.stallRemainingNanos(99L, 100L, 30L));
+        assertEquals(0L, EmbeddedCacheService.stallRemainingNanos(100L, 100L, 30L));
+        assertEquals(15L, EmbeddedCacheService.stallRemainingNanos(185L, 100L, 30L));
+    }
+
+    @Test
+    public void configure_FailureInjection() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.FAILURE_RATE_LABEL, 1);
+
+        EmbeddedCacheService s = configured(m);
+
+        assertEquals(1.0d, s.getFailureRate(), 0.0d);
+        assertEquals(IOException.class, s.getFailureType());
+
+        s.start();
+
+        try {
+
+            s.put("a", "A");
+            fail("should throw exception");
+        }
+        catch(IOException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals(EmbeddedCacheService.INJECTED_FAILURE_MESSAGE, msg);
+        }
+
+        //
+        // a failed operation does not modify the cache
+        //
+
+        assertTrue(s.keys().isEmpty());
+        assertEquals(1L, s.getInjectedFailureCount());
+
+        s.stop();
+    }
+
+    @Test
+    public void configure_FailureInjection_Type() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.FAILURE_RATE_LABEL, 0.5d);
+        m.put(EmbeddedCacheService.FAILURE_TYPE_LABEL, IllegalStateException.class.getName());
+
+        EmbeddedCacheService s = configured(m);
+
+        assertEquals(IllegalStateException.class, s.getFailureType());
+
+        s.start();
+
+        int operations = 10000;
+
+        for(int i = 0; i < operations; i ++) {
+
+            try {
+
+                s.get("a");
+            }
+            catch(IllegalStateException e) {
+
+                // expected
+            }
+        }
+
+        long failures = s.getInjectedFailureCount();
+
+        log.info(failures + " failures out of " + operations + " operations");
+
+        assertTrue(failures > operations * 0.4d && failures < operations * 0.6d);
+
+        s.stop();
+    }
+
+    @Test
+    public void configure_InvalidFailureRate() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.FAILURE_RATE_LABEL, 1.5d);
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'failure-rate' value: 1.5, must be between 0 and 1", msg);
+        }
+    }
+
+    @Test
+    public void configure_InvalidFailureType() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedCacheService.FAILURE_RATE_LABEL, 0.1d);
+        m.put(EmbeddedCacheService.FAILURE_TYPE_LABEL, String.class.getName());
+
+        try {
+
+            configured(m);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'failure-type': java.lang.String is not an exception", msg);
+        }
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     @Override
@@ -55,6 +427,18 @@ public class EmbeddedCacheServiceTest extends CacheServiceTest {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private static EmbeddedCacheService configured(Map<String, Object> implementationConfiguration)
+            throws Exception {
+
+        MockCacheServiceConfiguration msc = new MockCacheServiceConfiguration();
+        msc.setImplementationConfigurationMap(implementationConfiguration);
+
+        EmbeddedCacheService s = new EmbeddedCacheService();
+        s.setLoadStrategy(new WriteThenReadLoadStrategy());
+        s.configure(msc);
+        return s;
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
 }
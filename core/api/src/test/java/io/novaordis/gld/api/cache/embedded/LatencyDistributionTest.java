@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.embedded;
+
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class LatencyDistributionTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyDistributionTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void fromString() throws Exception {
+
+        for(LatencyDistribution d: LatencyDistribution.values()) {
+
+            assertEquals(d, LatencyDistribution.fromString(d.getLabel()));
+        }
+    }
+
+    @Test
+    public void fromString_Invalid() throws Exception {
+
+        try {
+
+            LatencyDistribution.fromString("gaussian");
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.startsWith("invalid latency distribution 'gaussian'"));
+        }
+    }
+
+    @Test
+    public void constant() throws Exception {
+
+        Random r = new Random(0L);
+
+        for(int i = 0; i < 10; i ++) {
+
+            assertEquals(1000L, LatencyDistribution.CONSTANT.sample(1000L, 0.5d, r));
+        }
+    }
+
+    @Test
+    public void uniform_Range() throws Exception {
+
+        Random r = new Random(0L);
+
+        for(int i = 0; i < 10000; i ++) {
+
+            long s = LatencyDistribution.UNIFORM.sample(1000L, 0.5d, r);
+            assertTrue(s >= 0L && s <= 2000L);
+        }
+    }
+
+    @Test
+    public void theMeanIsPreserved() throws Exception {
+
+        Random r = new Random(0L);
+
+        long mean = 1000000L;
+        int samples = 200000;
+
+        for(LatencyDistribution d: LatencyDistribution.values()) {
+
+            double sum = 0d;
+
+            for(int i = 0; i < samples; i ++) {
+
+                long s = d.sample(mean, 0.5d, r);
+                assertTrue(s >= 0L);
+                sum += s;
+            }
+
+            double actual = sum / samples;
+
+            log.info(d + " mean: " + actual);
+
+            assertEquals(d.toString(), mean, actual, mean * 0.02d);
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.load;
+
+import io.novaordis.gld.api.BatchOperation;
+import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyTest;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.MockCacheServiceConfiguration;
+import io.novaordis.gld.api.cache.operation.BulkRead;
+import io.novaordis.gld.api.cache.operation.BulkWrite;
+import io.novaordis.gld.api.configuration.MockLoadConfiguration;
+import io.novaordis.gld.api.configuration.MockServiceConfiguration;
+import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.provider.KeyDistribution;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.gld.api.provider.LatestKeyProvider;
+import io.novaordis.gld.api.service.ServiceType;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BulkLoadStrategyTest extends LoadStrategyTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(BulkLoadStrategyTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void identity() throws Exception {
+
+        BulkLoadStrategy s = getLoadStrategyToTest();
+
+        assertEquals("bulk", s.getName());
+        assertEquals(ServiceType.cache, s.getServiceType());
+
+        Set<Class<? extends Operation>> operations = s.getOperationTypes();
+        assertEquals(2, operations.size());
+        assertTrue(operations.contains(BulkRead.class));
+        assertTrue(operations.contains(BulkWrite.class));
+
+        assertEquals(BulkLoadStrategy.DEFAULT_BATCH_SIZE, s.getMinBatchSize());
+        assertEquals(BulkLoadStrategy.DEFAULT_BATCH_SIZE, s.getMaxBatchSize());
+    }
+
+    @Test
+    public void init_Defaults() throws Exception {
+
+        BulkLoadStrategy s = initialized(new HashMap<>());
+
+        assertEquals(BulkLoadStrategy.DEFAULT_BATCH_SIZE, s.getMinBatchSize());
+        assertEquals(BulkLoadStrategy.DEFAULT_BATCH_SIZE, s.getMaxBatchSize());
+
+        //
+        // one write followed by one read
+        //
+
+        assertEquals(0.5d, s.getReadProbability(), 0.00001);
+    }
+
+    @Test
+    public void init_ConstantBatchSize() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(BulkLoadStrategy.BATCH_SIZE_LABEL, 7);
+
+        BulkLoadStrategy s = initialized(rawConfig);
+
+        assertEquals(7, s.getMinBatchSize());
+        assertEquals(7, s.getMaxBatchSize());
+
+        for(int i = 0; i < 10; i ++) {
+
+            Operation o = s.next(null, null, false);
+            assertEquals(7, keyCount(o));
+        }
+    }
+
+    @Test
+    public void init_UniformBatchSize() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(BulkLoadStrategy.BATCH_SIZE_LABEL, "2 - 5");
+
+        BulkLoadStrategy s = initialized(rawConfig);
+
+        assertEquals(2, s.getMinBatchSize());
+        assertEquals(5, s.getMaxBatchSize());
+
+        for(int i = 0; i < 100; i ++) {
+
+            Operation o = s.next(null, null, false);
+            int keyCount = keyCount(o);
+            assertTrue(keyCount >= 2);
+            assertTrue(keyCount <= 5);
+        }
+    }
+
+    @Test
+    public void init_InvalidBatchSize_NotANumber() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(BulkLoadStrategy.BATCH_SIZE_LABEL, "a-5");
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'batch-size' value \"a-5\"", msg);
+        }
+    }
+
+    @Test
+    public void init_InvalidBatchSize_Zero() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(BulkLoadStrategy.BATCH_SIZE_LABEL, 0);
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("'batch-size' must be positive, but it is 0", msg);
+        }
+    }
+
+    @Test
+    public void init_InvalidBatchSize_InvertedInterval() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(BulkLoadStrategy.BATCH_SIZE_LABEL, "5-2");
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'batch-size' interval 5-2: maximum below minimum", msg);
+        }
+    }
+
+    @Test
+    public void init_InvalidBatchSize_WrongType() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(BulkLoadStrategy.BATCH_SIZE_LABEL, 1.5d);
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("illegal 'batch-size' Double value", msg);
+        }
+    }
+
+    @Test
+    public void readToWrite() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(WriteThenReadLoadStrategy.READ_TO_WRITE_LABEL, 3);
+
+        BulkLoadStrategy s = initialized(rawConfig);
+
+        assertEquals(0.75d, s.getReadProbability(), 0.00001);
+    }
+
+    @Test
+    public void writeToRead() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(WriteThenReadLoadStrategy.WRITE_TO_READ_LABEL, 3);
+
+        BulkLoadStrategy s = initialized(rawConfig);
+
+        assertEquals(0.25d, s.getReadProbability(), 0.00001);
+    }
+
+    @Test
+    public void writesOnly() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(WriteThenReadLoadStrategy.READ_TO_WRITE_LABEL, 0);
+
+        BulkLoadStrategy s = initialized(rawConfig);
+
+        for(int i = 0; i < 20; i ++) {
+
+            BulkWrite w = (BulkWrite)s.next(null, null, false);
+
+            for(String value: w.getEntries().values()) {
+
+                assertEquals(ServiceType.cache.getDefaultValueSize(), value.length());
+            }
+        }
+    }
+
+    @Test
+    public void readsOnly() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(WriteThenReadLoadStrategy.WRITE_TO_READ_LABEL, 0);
+
+        BulkLoadStrategy s = initialized(rawConfig);
+
+        for(int i = 0; i < 20; i ++) {
+
+            assertTrue(s.next(null, null, false) instanceof BulkRead);
+        }
+    }
+
+    @Test
+    public void latestKeyDistribution_BulkWritesAreInserts() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(WriteThenReadLoadStrategy.READ_TO_WRITE_LABEL, 1);
+        rawConfig.put(BulkLoadStrategy.BATCH_SIZE_LABEL, 5);
+        rawConfig.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, KeyDistribution.LATEST.getLabel());
+        rawConfig.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, 1000);
+
+        BulkLoadStrategy s = initialized(rawConfig);
+
+        LatestKeyProvider p = (LatestKeyProvider)s.getKeyProvider();
+
+        //
+        // every key of a bulk write advances the insertion point, the keys of a bulk read do not
+        //
+
+        int writtenKeys = 0;
+
+        for(int i = 0; i < 100; i ++) {
+
+            Operation o = s.next(null, null, false);
+
+            if (o instanceof BulkWrite) {
+
+                writtenKeys += 5;
+            }
+        }
+
+        assertTrue(writtenKeys > 0);
+        assertEquals(writtenKeys, p.getWriteCount());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected BulkLoadStrategy getLoadStrategyToTest() throws Exception {
+
+        return new BulkLoadStrategy();
+    }
+
+    @Override
+    protected MockCacheServiceConfiguration getCorrespondingServiceConfiguration() {
+
+        MockCacheServiceConfiguration c = new MockCacheServiceConfiguration();
+        c.set(new HashMap<String, Object>(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL);
+        return c;
+    }
+
+    @Override
+    protected void initialize(LoadStrategy ls, MockServiceConfiguration msc) throws Exception {
+
+        assertTrue(ls instanceof BulkLoadStrategy);
+        assertTrue(msc instanceof MockCacheServiceConfiguration);
+        msc.set(ls.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        ls.init(msc, new MockLoadConfiguration());
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private BulkLoadStrategy initialized(Map<String, Object> rawConfig) throws Exception {
+
+        BulkLoadStrategy s = getLoadStrategyToTest();
+        s.init(new MockCacheServiceConfiguration(), rawConfig, new MockLoadConfiguration());
+        return s;
+    }
+
+    private static int keyCount(Operation o) {
+
+        return ((BatchOperation)o).getKeyCount();
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -19,7 +19,9 @@ package io.novaordis.gld.api.cache.load;
 import io.novaordis.gld.api.LoadStrategy;
 import io.novaordis.gld.api.LoadStrategyFactory;
 import io.novaordis.gld.api.LoadStrategyTest;
+import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.cache.MockCacheServiceConfiguration;
+import io.novaordis.gld.api.cache.operation.Delete;
 import io.novaordis.gld.api.configuration.MockLoadConfiguration;
 import io.novaordis.gld.api.configuration.MockServiceConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
@@ -28,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -201,6 +204,16 @@ public class DeleteLoadStrategyTest extends LoadStrategyTest {
 //        assertNull(dk.next(null, null, false));
 //    }
 
+    @Test
+    public void operationTypes() throws Exception {
+
+        DeleteLoadStrategy s = getLoadStrategyToTest();
+
+        Set<Class<? extends Operation>> types = s.getOperationTypes();
+        assertEquals(1, types.size());
+        assertTrue(types.contains(Delete.class));
+    }
+
     // factory ---------------------------------------------------------------------------------------------------------
 
     @Test
@@ -0,0 +1,557 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.load;
+
+import io.novaordis.gld.api.KeyProvider;
+import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyTest;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.MockCacheServiceConfiguration;
+import io.novaordis.gld.api.cache.operation.BulkRead;
+import io.novaordis.gld.api.cache.operation.BulkWrite;
+import io.novaordis.gld.api.cache.operation.ConditionalWrite;
+import io.novaordis.gld.api.cache.operation.Delete;
+import io.novaordis.gld.api.cache.operation.Read;
+import io.novaordis.gld.api.cache.operation.Write;
+import io.novaordis.gld.api.configuration.MockLoadConfiguration;
+import io.novaordis.gld.api.configuration.MockServiceConfiguration;
+import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.provider.KeyDistribution;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.gld.api.provider.KeySpaceKeyProvider;
+import io.novaordis.gld.api.provider.LatestKeyProvider;
+import io.novaordis.gld.api.provider.RandomKeyProvider;
+import io.novaordis.gld.api.service.ServiceType;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class MixLoadStrategyTest extends LoadStrategyTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(MixLoadStrategyTest.class);
+
+    private static final int KEY_SPACE_SIZE = 1000;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void identity() throws Exception {
+
+        MixLoadStrategy s = getLoadStrategyToTest();
+
+        assertEquals("mix", s.getName());
+        assertEquals(ServiceType.cache, s.getServiceType());
+        assertTrue(s.getOperationTypes().isEmpty());
+        assertNull(s.getWorkload());
+    }
+
+    @Test
+    public void init_Defaults() throws Exception {
+
+        MixLoadStrategy s = initialized(new HashMap<>());
+
+        assertEquals(0.5d, s.getProbability(MixLoadStrategy.READ_LABEL), 0.00001);
+        assertEquals(0.5d, s.getProbability(MixLoadStrategy.WRITE_LABEL), 0.00001);
+        assertEquals(0d, s.getProbability(MixLoadStrategy.DELETE_LABEL), 0.00001);
+
+        Set<Class<? extends Operation>> types = s.getOperationTypes();
+        assertEquals(2, types.size());
+        assertTrue(types.contains(Read.class));
+        assertTrue(types.contains(Write.class));
+
+        //
+        // no key distribution, random keys
+        //
+
+        assertTrue(s.getKeyProvider() instanceof RandomKeyProvider);
+    }
+
+    @Test
+    public void init_Weights() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.READ_LABEL, 6);
+        rawConfig.put(MixLoadStrategy.WRITE_LABEL, 2);
+        rawConfig.put(MixLoadStrategy.DELETE_LABEL, 0);
+        rawConfig.put(MixLoadStrategy.BULK_READ_LABEL, 0.5d);
+        rawConfig.put(MixLoadStrategy.BULK_WRITE_LABEL, 0.5d);
+        rawConfig.put(MixLoadStrategy.CONDITIONAL_LABEL, 1);
+
+        MixLoadStrategy s = initialized(rawConfig);
+
+        assertEquals(0.6d, s.getProbability(MixLoadStrategy.READ_LABEL), 0.00001);
+        assertEquals(0.2d, s.getProbability(MixLoadStrategy.WRITE_LABEL), 0.00001);
+        assertEquals(0d, s.getProbability(MixLoadStrategy.DELETE_LABEL), 0.00001);
+        assertEquals(0.05d, s.getProbability(MixLoadStrategy.BULK_READ_LABEL), 0.00001);
+        assertEquals(0.05d, s.getProbability(MixLoadStrategy.BULK_WRITE_LABEL), 0.00001);
+        assertEquals(0.1d, s.getProbability(MixLoadStrategy.CONDITIONAL_LABEL), 0.00001);
+
+        //
+        // zero weight operation types are not reported
+        //
+
+        Set<Class<? extends Operation>> types = s.getOperationTypes();
+        assertEquals(5, types.size());
+        assertFalse(types.contains(Delete.class));
+        assertTrue(types.contains(ConditionalWrite.class));
+        assertTrue(types.contains(BulkRead.class));
+        assertTrue(types.contains(BulkWrite.class));
+    }
+
+    @Test
+    public void init_NoPositiveWeight() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.READ_LABEL, 0);
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("no operation type with a positive weight", msg);
+        }
+    }
+
+    @Test
+    public void init_NegativeWeight() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.DELETE_LABEL, -1);
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("'delete' weight must not be negative, but it is -1", msg);
+        }
+    }
+
+    @Test
+    public void init_IllegalWeight() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.READ_LABEL, "a lot");
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("illegal 'read' weight String value", msg);
+        }
+    }
+
+    @Test
+    public void init_MissingWeight() throws Exception {
+
+        Map<String, Object> write = new HashMap<>();
+        write.put(MixLoadStrategy.VALUE_SIZE_LABEL, 10);
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.WRITE_LABEL, write);
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("missing 'write' weight", msg);
+        }
+    }
+
+    @Test
+    public void init_UnknownOperationOption() throws Exception {
+
+        Map<String, Object> read = new HashMap<>();
+        read.put(MixLoadStrategy.WEIGHT_LABEL, 1);
+        read.put(BulkLoadStrategy.BATCH_SIZE_LABEL, 5);
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.READ_LABEL, read);
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("unknown 'read' configuration option(s): \"batch-size\"", msg);
+        }
+    }
+
+    @Test
+    public void valueSize() throws Exception {
+
+        Map<String, Object> write = new HashMap<>();
+        write.put(MixLoadStrategy.WEIGHT_LABEL, 1);
+        write.put(MixLoadStrategy.VALUE_SIZE_LABEL, "10-20");
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.WRITE_LABEL, write);
+
+        MixLoadStrategy s = initialized(rawConfig);
+
+        assertEquals(1d, s.getProbability(MixLoadStrategy.WRITE_LABEL), 0.00001);
+
+        boolean variable = false;
+        int previous = -1;
+
+        for(int i = 0; i < 100; i ++) {
+
+            Write w = (Write)s.next(null, null, false);
+            int size = w.getValue().length();
+            assertTrue(size >= 10);
+            assertTrue(size <= 20);
+            variable |= previous != -1 && previous != size;
+            previous = size;
+        }
+
+        assertTrue(variable);
+    }
+
+    @Test
+    public void valueSize_Invalid() throws Exception {
+
+        Map<String, Object> write = new HashMap<>();
+        write.put(MixLoadStrategy.WEIGHT_LABEL, 1);
+        write.put(MixLoadStrategy.VALUE_SIZE_LABEL, 0);
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.WRITE_LABEL, write);
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("'value-size' must be positive, but it is 0", msg);
+        }
+    }
+
+    @Test
+    public void operationTypeSpecificKeyDistribution() throws Exception {
+
+        Map<String, Object> bulkRead = new HashMap<>();
+        bulkRead.put(MixLoadStrategy.WEIGHT_LABEL, 1);
+        bulkRead.put(BulkLoadStrategy.BATCH_SIZE_LABEL, 3);
+        bulkRead.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, KeyDistribution.UNIFORM.getLabel());
+        bulkRead.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, 10);
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.READ_LABEL, 1);
+        rawConfig.put(MixLoadStrategy.BULK_READ_LABEL, bulkRead);
+        rawConfig.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, KeyDistribution.ZIPFIAN.getLabel());
+        rawConfig.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, KEY_SPACE_SIZE);
+
+        MixLoadStrategy s = initialized(rawConfig);
+
+        KeySpaceKeyProvider p = (KeySpaceKeyProvider)s.getKeyProvider(MixLoadStrategy.READ_LABEL);
+        KeySpaceKeyProvider p2 = (KeySpaceKeyProvider)s.getKeyProvider(MixLoadStrategy.BULK_READ_LABEL);
+
+        assertEquals(s.getKeyProvider(), p);
+        assertNotSame(p, p2);
+        assertEquals(KeyDistribution.ZIPFIAN, p.getDistribution());
+        assertEquals(KEY_SPACE_SIZE, p.getKeySpaceSize());
+        assertEquals(KeyDistribution.UNIFORM, p2.getDistribution());
+        assertEquals(10, p2.getKeySpaceSize());
+
+        for(int i = 0; i < 100; i ++) {
+
+            Operation o = s.next(null, null, false);
+
+            if (o instanceof BulkRead) {
+
+                assertTrue(((BulkRead)o).getKeyCount() <= 3);
+            }
+        }
+
+        s.start();
+
+        assertTrue(p.isStarted());
+        assertTrue(p2.isStarted());
+
+        s.stop();
+
+        assertFalse(p.isStarted());
+        assertFalse(p2.isStarted());
+    }
+
+    @Test
+    public void selection() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.READ_LABEL, 9);
+        rawConfig.put(MixLoadStrategy.DELETE_LABEL, 1);
+
+        MixLoadStrategy s = initialized(rawConfig);
+
+        int total = 20000;
+        int reads = 0;
+
+        for(int i = 0; i < total; i ++) {
+
+            Operation o = s.next(null, null, false);
+
+            if (o instanceof Read) {
+
+                reads ++;
+            }
+            else {
+
+                assertTrue(o instanceof Delete);
+            }
+        }
+
+        double readFraction = ((double)reads) / total;
+        log.info("read fraction " + readFraction);
+        assertEquals(0.9d, readFraction, 0.02d);
+    }
+
+    // workloads -------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void workload_Invalid() throws Exception {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.WORKLOAD_LABEL, "g");
+
+        try {
+
+            initialized(rawConfig);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid workload 'g', valid options: 'a', 'b', 'c', 'd', 'e', 'f'", msg);
+        }
+    }
+
+    @Test
+    public void workloadA() throws Exception {
+
+        MixLoadStrategy s = initialized(workload("A"));
+
+        assertEquals(WorkloadPreset.A, s.getWorkload());
+        assertEquals(0.5d, s.getProbability(MixLoadStrategy.READ_LABEL), 0.00001);
+        assertEquals(0.5d, s.getProbability(MixLoadStrategy.WRITE_LABEL), 0.00001);
+        assertDistribution(s, KeyDistribution.ZIPFIAN);
+    }
+
+    @Test
+    public void workloadB() throws Exception {
+
+        MixLoadStrategy s = initialized(workload("b"));
+
+        assertEquals(0.95d, s.getProbability(MixLoadStrategy.READ_LABEL), 0.00001);
+        assertEquals(0.05d, s.getProbability(MixLoadStrategy.WRITE_LABEL), 0.00001);
+        assertDistribution(s, KeyDistribution.ZIPFIAN);
+    }
+
+    @Test
+    public void workloadC() throws Exception {
+
+        MixLoadStrategy s = initialized(workload("c"));
+
+        assertEquals(1d, s.getProbability(MixLoadStrategy.READ_LABEL), 0.00001);
+        assertEquals(1, s.getOperationTypes().size());
+        assertDistribution(s, KeyDistribution.ZIPFIAN);
+    }
+
+    @Test
+    public void workloadD() throws Exception {
+
+        MixLoadStrategy s = initialized(workload("d"));
+
+        assertEquals(0.95d, s.getProbability(MixLoadStrategy.READ_LABEL), 0.00001);
+        assertEquals(0.05d, s.getProbability(MixLoadStrategy.WRITE_LABEL), 0.00001);
+        assertDistribution(s, KeyDistribution.LATEST);
+
+        //
+        // writes are inserts
+        //
+
+        LatestKeyProvider p = (LatestKeyProvider)s.getKeyProvider();
+
+        int writes = 0;
+
+        for(int i = 0; i < 1000; i ++) {
+
+            if (s.next(null, null, false) instanceof Write) {
+
+                writes ++;
+            }
+        }
+
+        assertEquals(writes, p.getWriteCount());
+    }
+
+    @Test
+    public void workloadE() throws Exception {
+
+        MixLoadStrategy s = initialized(workload("e"));
+
+        assertEquals(0.95d, s.getProbability(MixLoadStrategy.BULK_READ_LABEL), 0.00001);
+        assertEquals(0.05d, s.getProbability(MixLoadStrategy.WRITE_LABEL), 0.00001);
+        assertDistribution(s, KeyDistribution.ZIPFIAN);
+
+        for(int i = 0; i < 100; i ++) {
+
+            Operation o = s.next(null, null, false);
+
+            if (o instanceof BulkRead) {
+
+                int keyCount = ((BulkRead)o).getKeyCount();
+                assertTrue(keyCount >= 1);
+                assertTrue(keyCount <= 100);
+            }
+        }
+    }
+
+    @Test
+    public void workloadF() throws Exception {
+
+        MixLoadStrategy s = initialized(workload("f"));
+
+        assertEquals(0.5d, s.getProbability(MixLoadStrategy.READ_LABEL), 0.00001);
+        assertEquals(0.5d, s.getProbability(MixLoadStrategy.CONDITIONAL_LABEL), 0.00001);
+        assertTrue(s.getOperationTypes().contains(ConditionalWrite.class));
+        assertDistribution(s, KeyDistribution.ZIPFIAN);
+    }
+
+    @Test
+    public void workload_ExplicitConfigurationTakesPrecedence() throws Exception {
+
+        Map<String, Object> rawConfig = workload("b");
+        rawConfig.put(MixLoadStrategy.READ_LABEL, 45);
+        rawConfig.put(MixLoadStrategy.DELETE_LABEL, 50);
+        rawConfig.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, KeyDistribution.UNIFORM.getLabel());
+
+        MixLoadStrategy s = initialized(rawConfig);
+
+        assertEquals(0.45d, s.getProbability(MixLoadStrategy.READ_LABEL), 0.00001);
+        assertEquals(0.05d, s.getProbability(MixLoadStrategy.WRITE_LABEL), 0.00001);
+        assertEquals(0.5d, s.getProbability(MixLoadStrategy.DELETE_LABEL), 0.00001);
+        assertDistribution(s, KeyDistribution.UNIFORM);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected MixLoadStrategy getLoadStrategyToTest() throws Exception {
+
+        return new MixLoadStrategy();
+    }
+
+    @Override
+    protected MockCacheServiceConfiguration getCorrespondingServiceConfiguration() {
+
+        MockCacheServiceConfiguration c = new MockCacheServiceConfiguration();
+        c.set(new HashMap<String, Object>(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL);
+        return c;
+    }
+
+    @Override
+    protected void initialize(LoadStrategy ls, MockServiceConfiguration msc) throws Exception {
+
+        assertTrue(ls instanceof MixLoadStrategy);
+        assertTrue(msc instanceof MockCacheServiceConfiguration);
+        msc.set(ls.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        ls.init(msc, new MockLoadConfiguration());
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private MixLoadStrategy initialized(Map<String, Object> rawConfig) throws Exception {
+
+        MixLoadStrategy s = getLoadStrategyToTest();
+        s.init(new MockCacheServiceConfiguration(), rawConfig, new MockLoadConfiguration());
+        return s;
+    }
+
+    private static Map<String, Object> workload(String label) {
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(MixLoadStrategy.WORKLOAD_LABEL, label);
+        rawConfig.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, KEY_SPACE_SIZE);
+        return rawConfig;
+    }
+
+    private static void assertDistribution(MixLoadStrategy s, KeyDistribution expected) {
+
+        KeyProvider p = s.getKeyProvider();
+        assertTrue(p instanceof KeySpaceKeyProvider);
+        assertEquals(expected, ((KeySpaceKeyProvider)p).getDistribution());
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
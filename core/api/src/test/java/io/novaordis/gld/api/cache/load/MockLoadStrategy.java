@@ -20,6 +20,7 @@ import io.novaordis.gld.api.KeyProvider;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.service.ServiceType;
@@ -142,6 +143,19 @@ public class MockLoadStrategy implements LoadStrategy {
         started = false;
     }
 
+    @Override
+    public LoadStrategyContext newContext() {
+
+        return new LoadStrategyContext(this);
+    }
+
+    @Override
+    public Operation next(LoadStrategyContext context, Operation last, String lastWrittenKey,
+                          boolean runtimeShuttingDown) throws Exception {
+
+        return next(last, lastWrittenKey, runtimeShuttingDown);
+    }
+
     @Override
     public Operation next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown) throws Exception {
         throw new RuntimeException("next() NOT YET IMPLEMENTED");
@@ -182,6 +196,11 @@ public class MockLoadStrategy implements LoadStrategy {
         throw new RuntimeException("computeValue() NOT YET IMPLEMENTED");
     }
 
+    @Override
+    public byte[] computeValueBytes() {
+        throw new RuntimeException("computeValueBytes() NOT YET IMPLEMENTED");
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     @Override
@@ -27,6 +27,9 @@ import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.gld.api.cache.MockCacheServiceConfiguration;
 import io.novaordis.gld.api.cache.operation.Read;
 import io.novaordis.gld.api.cache.operation.Write;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.gld.api.provider.ZipfianKeyProvider;
+import io.novaordis.utilities.UserErrorException;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +43,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ReadThenWriteOnMissLoadStrategyTest extends LoadStrategyTest {
 
@@ -116,6 +120,46 @@ public class ReadThenWriteOnMissLoadStrategyTest extends LoadStrategyTest {
         }
     }
 
+    @Test
+    public void init_LatestKeyDistributionNotSupported() throws Exception {
+
+        ReadThenWriteOnMissLoadStrategy s = getLoadStrategyToTest();
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+        MockCacheServiceConfiguration sc = getCorrespondingServiceConfiguration();
+        sc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        sc.set("latest", ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL,
+                KeyProviderFactory.KEY_DISTRIBUTION_LABEL);
+
+        try {
+
+            s.init(sc, mlc);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("'latest' key distribution not supported"));
+        }
+    }
+
+    @Test
+    public void init_ZipfianKeyDistribution() throws Exception {
+
+        ReadThenWriteOnMissLoadStrategy s = getLoadStrategyToTest();
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+        MockCacheServiceConfiguration sc = getCorrespondingServiceConfiguration();
+        sc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        sc.set("zipfian", ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL,
+                KeyProviderFactory.KEY_DISTRIBUTION_LABEL);
+        sc.set(100, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, KeyProviderFactory.KEY_SPACE_SIZE_LABEL);
+
+        s.init(sc, mlc);
+
+        ZipfianKeyProvider p = (ZipfianKeyProvider)s.getKeyProvider();
+        assertEquals(100, p.getKeySpaceSize());
+    }
+
 //    @Test
 //    public void hit_noKeyStore() throws Exception {
 //
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.load;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class WorkloadPresetTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void fromString() throws Exception {
+
+        for(WorkloadPreset p: WorkloadPreset.values()) {
+
+            assertEquals(p, WorkloadPreset.fromString(p.getLabel()));
+            assertEquals(p, WorkloadPreset.fromString(p.getLabel().toUpperCase()));
+        }
+    }
+
+    @Test
+    public void getConfiguration_ReturnsANewMapOnEachInvocation() throws Exception {
+
+        Map<String, Object> c = WorkloadPreset.A.getConfiguration();
+        Map<String, Object> c2 = WorkloadPreset.A.getConfiguration();
+
+        assertNotSame(c, c2);
+        assertEquals(c, c2);
+
+        c.clear();
+
+        assertEquals(3, WorkloadPreset.A.getConfiguration().size());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
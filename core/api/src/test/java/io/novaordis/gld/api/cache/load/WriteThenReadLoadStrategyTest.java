@@ -17,6 +17,7 @@
 package io.novaordis.gld.api.cache.load;
 
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.LoadStrategyFactory;
 import io.novaordis.gld.api.LoadStrategyTest;
 import io.novaordis.gld.api.Operation;
@@ -26,6 +27,9 @@ import io.novaordis.gld.api.cache.operation.Write;
 import io.novaordis.gld.api.configuration.MockLoadConfiguration;
 import io.novaordis.gld.api.configuration.MockServiceConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.provider.KeyProviderFactory;
+import io.novaordis.gld.api.provider.LatestKeyProvider;
+import io.novaordis.utilities.UserErrorException;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,7 +39,9 @@ import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class WriteThenReadLoadStrategyTest extends LoadStrategyTest {
 
@@ -482,6 +488,172 @@ public class WriteThenReadLoadStrategyTest extends LoadStrategyTest {
         assertTrue(o instanceof Read);
     }
 
+    // per-thread contexts ---------------------------------------------------------------------------------------------
+
+    @Test
+    public void contextsKeepIndependentSeries() throws Exception {
+
+        WriteThenReadLoadStrategy ls = getLoadStrategyToTest();
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(WriteThenReadLoadStrategy.READ_TO_WRITE_LABEL, 2);
+
+        ls.init(new MockCacheServiceConfiguration(), rawConfig, new MockLoadConfiguration());
+
+        WriteThenReadLoadStrategy.SeriesContext c = ls.newContext();
+        WriteThenReadLoadStrategy.SeriesContext c2 = ls.newContext();
+
+        assertEquals(0, c.getIndexInSeries());
+
+        assertTrue(ls.next(c, null, null, false) instanceof Write);
+        assertTrue(ls.next(c, null, null, false) instanceof Read);
+
+        assertEquals(2, c.getIndexInSeries());
+
+        //
+        // the second context starts its own series
+        //
+
+        assertEquals(0, c2.getIndexInSeries());
+        assertTrue(ls.next(c2, null, null, false) instanceof Write);
+
+        assertTrue(ls.next(c, null, null, false) instanceof Read);
+        assertTrue(ls.next(c, null, null, false) instanceof Write);
+
+        assertTrue(ls.next(c2, null, null, false) instanceof Read);
+        assertTrue(ls.next(c2, null, null, false) instanceof Read);
+        assertTrue(ls.next(c2, null, null, false) instanceof Write);
+    }
+
+    @Test
+    public void contexts_ExactRatioUnderConcurrency() throws Exception {
+
+        WriteThenReadLoadStrategy ls = getLoadStrategyToTest();
+
+        Map<String, Object> rawConfig = new HashMap<>();
+        rawConfig.put(WriteThenReadLoadStrategy.READ_TO_WRITE_LABEL, 3);
+
+        ls.init(new MockCacheServiceConfiguration(), rawConfig, new MockLoadConfiguration());
+
+        int threadCount = 8;
+        int seriesPerThread = 10000;
+        int[] writes = new int[threadCount];
+        int[] reads = new int[threadCount];
+        Exception[] exceptions = new Exception[threadCount];
+        Thread[] threads = new Thread[threadCount];
+
+        for(int i = 0; i < threadCount; i ++) {
+
+            final int index = i;
+
+            threads[i] = new Thread(() -> {
+
+                try {
+
+                    LoadStrategyContext c = ls.newContext();
+
+                    for(int j = 0; j < seriesPerThread * 4; j ++) {
+
+                        Operation o = ls.next(c, null, null, false);
+
+                        if (o instanceof Write) {
+
+                            writes[index] ++;
+                        }
+                        else {
+
+                            reads[index] ++;
+                        }
+                    }
+                }
+                catch(Exception e) {
+
+                    exceptions[index] = e;
+                }
+            });
+
+            threads[i].start();
+        }
+
+        for(int i = 0; i < threadCount; i ++) {
+
+            threads[i].join();
+            assertNull(exceptions[i]);
+
+            //
+            // each thread gets exactly the configured series
+            //
+
+            assertEquals(seriesPerThread, writes[i]);
+            assertEquals(3 * seriesPerThread, reads[i]);
+        }
+    }
+
+    // key distribution ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void keyDistribution_Latest() throws Exception {
+
+        WriteThenReadLoadStrategy ls = getLoadStrategyToTest();
+
+        MockCacheServiceConfiguration msc = new MockCacheServiceConfiguration();
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+        Map<String, Object> rawConfig = new HashMap<>();
+
+        rawConfig.put(WriteThenReadLoadStrategy.READ_TO_WRITE_LABEL, 1);
+        rawConfig.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "latest");
+        rawConfig.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, 10);
+
+        ls.init(msc, rawConfig, mlc);
+
+        LatestKeyProvider p = (LatestKeyProvider)ls.getKeyProvider();
+        assertEquals(10, p.getKeySpaceSize());
+
+        //
+        // the keys are written in sequence, wrapping around at the end of the key space
+        //
+
+        int writes = 0;
+
+        for(int i = 0; i < 40; i ++) {
+
+            Operation o = ls.next(null, null, false);
+
+            if (o instanceof Write) {
+
+                assertEquals(p.getKey(writes % 10), o.getKey());
+                writes ++;
+            }
+        }
+
+        assertTrue(writes > 10);
+        assertEquals(writes, p.getWriteCount());
+    }
+
+    @Test
+    public void keyDistribution_Invalid() throws Exception {
+
+        WriteThenReadLoadStrategy ls = getLoadStrategyToTest();
+
+        MockCacheServiceConfiguration msc = new MockCacheServiceConfiguration();
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+        Map<String, Object> rawConfig = new HashMap<>();
+
+        rawConfig.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "no-such-distribution");
+
+        try {
+
+            ls.init(msc, rawConfig, mlc);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("no-such-distribution"));
+        }
+    }
+
     // factory ---------------------------------------------------------------------------------------------------------
 
     @Test
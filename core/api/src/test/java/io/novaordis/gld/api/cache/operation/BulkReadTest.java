@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.operation;
+
+import io.novaordis.gld.api.MockService;
+import io.novaordis.gld.api.cache.MockCacheService;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BulkReadTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(BulkReadTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_EmptyKeyCollection() throws Exception {
+
+        try {
+
+            new BulkRead(new ArrayList<>());
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("null or empty key collection", msg);
+        }
+    }
+
+    @Test
+    public void constructor_DuplicateKeysAreReadOnce() throws Exception {
+
+        BulkRead r = new BulkRead(Arrays.asList("k2", "k1", "k2"));
+
+        assertEquals("k2", r.getKey());
+        assertEquals(2, r.getKeyCount());
+        assertEquals(Arrays.asList("k2", "k1"), new ArrayList<>(r.getKeys()));
+    }
+
+    @Test
+    public void lifecycle() throws Exception {
+
+        BulkRead r = new BulkRead(Arrays.asList("k1", "k2", "k3"));
+
+        assertFalse(r.wasPerformed());
+        assertFalse(r.wasSuccessful());
+        assertNull(r.getValues());
+        assertEquals(0, r.getHitCount());
+
+        MockCacheService ms = new MockCacheService();
+        ms.put("k1", "v1");
+        ms.put("k3", "v3");
+
+        r.perform(ms);
+
+        assertTrue(r.wasPerformed());
+        assertTrue(r.wasSuccessful());
+
+        Map<String, String> values = r.getValues();
+        assertEquals(2, values.size());
+        assertEquals("v1", values.get("k1"));
+        assertEquals("v3", values.get("k3"));
+        assertEquals(2, r.getHitCount());
+        assertEquals(3, r.getKeyCount());
+    }
+
+    @Test
+    public void perform_NotABulkCacheService() throws Exception {
+
+        BulkRead r = new BulkRead(Collections.singletonList("k1"));
+
+        try {
+
+            r.perform(new MockService());
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.endsWith("not a BulkCacheService"));
+        }
+
+        assertFalse(r.wasPerformed());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
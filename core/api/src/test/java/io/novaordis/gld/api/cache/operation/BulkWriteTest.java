@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.operation;
+
+import io.novaordis.gld.api.cache.MockCacheService;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BulkWriteTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(BulkWriteTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_EmptyEntryMap() throws Exception {
+
+        try {
+
+            new BulkWrite(new HashMap<>());
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("null or empty key collection", msg);
+        }
+    }
+
+    @Test
+    public void lifecycle() throws Exception {
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("k2", "v2");
+        entries.put("k1", "v1");
+
+        BulkWrite w = new BulkWrite(entries);
+
+        //
+        // the operation keeps its own copy of the entries
+        //
+
+        entries.clear();
+
+        assertEquals("k2", w.getKey());
+        assertEquals(2, w.getKeyCount());
+        assertEquals(Arrays.asList("k2", "k1"), new ArrayList<>(w.getKeys()));
+
+        assertFalse(w.wasPerformed());
+        assertFalse(w.wasSuccessful());
+
+        MockCacheService ms = new MockCacheService();
+
+        w.perform(ms);
+
+        assertTrue(w.wasPerformed());
+        assertTrue(w.wasSuccessful());
+
+        assertEquals("v1", ms.get("k1"));
+        assertEquals("v2", ms.get("k2"));
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.cache.operation;
+
+import io.novaordis.gld.api.cache.MockCacheService;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class ConditionalWriteTest extends CacheOperationTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(ConditionalWriteTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void hit() throws Exception {
+
+        ConditionalWrite w = getOperationToTest("test-key");
+
+        assertFalse(w.wasPerformed());
+        assertFalse(w.wasSuccessful());
+        assertFalse(w.wasWritten());
+        assertEquals("test-value", w.getValue());
+
+        MockCacheService ms = new MockCacheService();
+        ms.put("test-key", "old-value");
+
+        w.perform(ms);
+
+        assertTrue(w.wasPerformed());
+        assertTrue(w.wasSuccessful());
+        assertTrue(w.wasWritten());
+        assertEquals("old-value", w.getPreviousValue());
+        assertEquals("test-value", ms.get("test-key"));
+
+        log.info(w.toString());
+    }
+
+    @Test
+    public void miss_TheCacheIsNotModified() throws Exception {
+
+        ConditionalWrite w = getOperationToTest("test-key");
+
+        MockCacheService ms = new MockCacheService();
+
+        w.perform(ms);
+
+        assertTrue(w.wasPerformed());
+        assertTrue(w.wasSuccessful());
+        assertFalse(w.wasWritten());
+        assertNull(w.getPreviousValue());
+        assertNull(ms.get("test-key"));
+
+        log.info(w.toString());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected ConditionalWrite getOperationToTest(String key) throws Exception {
+
+        return new ConditionalWrite(key, "test-value");
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.configuration;
+
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class CapacitySearchConfigurationTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(CapacitySearchConfigurationTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidResolution() throws Exception {
+
+        try {
+
+            new CapacitySearchConfiguration(1d, null, 1000L, 0L, 1d, 1, null, null, 0d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_WarmUpLongerThanTrial() throws Exception {
+
+        try {
+
+            new CapacitySearchConfiguration(1d, null, 1000L, 1000L, 0.1d, 1, null, null, 0d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseLatency() throws Exception {
+
+        assertEquals(5000000L, CapacitySearchConfiguration.parseLatency(5));
+        assertEquals(500000L, CapacitySearchConfiguration.parseLatency(0.5));
+        assertEquals(5000000L, CapacitySearchConfiguration.parseLatency("5ms"));
+        assertEquals(250000L, CapacitySearchConfiguration.parseLatency("250us"));
+        assertEquals(2000000000L, CapacitySearchConfiguration.parseLatency("2s"));
+        assertEquals(1500000L, CapacitySearchConfiguration.parseLatency(" 1.5 "));
+    }
+
+    @Test
+    public void parseLatency_Invalid() throws Exception {
+
+        Object[] invalid = new Object[] { 0, -1, "blah", "5m", "", true };
+
+        for(Object o: invalid) {
+
+            try {
+
+                CapacitySearchConfiguration.parseLatency(o);
+                fail("should have thrown exception on " + o);
+            }
+            catch(UserErrorException e) {
+
+                log.info(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void parseErrorRate() throws Exception {
+
+        assertEquals(0.001d, CapacitySearchConfiguration.parseErrorRate("0.1%"), 0.0000001d);
+        assertEquals(0.001d, CapacitySearchConfiguration.parseErrorRate(0.001), 0.0000001d);
+        assertEquals(0d, CapacitySearchConfiguration.parseErrorRate(0), 0.0000001d);
+        assertEquals(0.5d, CapacitySearchConfiguration.parseErrorRate("0.5"), 0.0000001d);
+    }
+
+    @Test
+    public void parseErrorRate_Invalid() throws Exception {
+
+        Object[] invalid = new Object[] { -0.1, 1.1, "200%", "blah", true };
+
+        for(Object o: invalid) {
+
+            try {
+
+                CapacitySearchConfiguration.parseErrorRate(o);
+                fail("should have thrown exception on " + o);
+            }
+            catch(UserErrorException e) {
+
+                log.info(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void toStringTest() throws Exception {
+
+        Map<Double, Long> thresholds = new TreeMap<>();
+        thresholds.put(99.9d, 20000000L);
+        thresholds.put(99d, 5000000L);
+
+        CapacitySearchConfiguration c =
+                new CapacitySearchConfiguration(1d, null, 1000L, 0L, 0.1d, 1, null, thresholds, 0.001d);
+
+        assertEquals("p99 <= 5.0 ms, p99.9 <= 20.0 ms, error rate <= 0.1%", c.toString());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
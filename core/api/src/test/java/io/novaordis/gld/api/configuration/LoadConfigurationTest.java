@@ -22,10 +22,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -335,6 +339,580 @@ public abstract class LoadConfigurationTest extends LowLevelConfigurationTest {
         assertNull(lc.getKeySize());
     }
 
+    // rate ------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void rate_Default() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertNull(lc.getRate());
+    }
+
+    @Test
+    public void rate_Integer() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.RATE_LABEL, 100000);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertEquals(100000d, lc.getRate(), 0.0d);
+    }
+
+    @Test
+    public void rate_Fractional() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.RATE_LABEL, 0.5d);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertEquals(0.5d, lc.getRate(), 0.0d);
+    }
+
+    @Test
+    public void rate_NotANumber() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.RATE_LABEL, "blah");
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getRate();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("'" + LoadConfiguration.RATE_LABEL + "' not a number"));
+        }
+    }
+
+    @Test
+    public void rate_Zero() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.RATE_LABEL, 0);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getRate();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("invalid '" + LoadConfiguration.RATE_LABEL + "' value: 0"));
+        }
+    }
+
+    @Test
+    public void rate_Negative() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.RATE_LABEL, -10);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getRate();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("invalid '" + LoadConfiguration.RATE_LABEL + "' value: -10"));
+        }
+    }
+
+    // virtual threads -------------------------------------------------------------------------------------------------
+
+    @Test
+    public void virtualThreads_Default() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertFalse(lc.isVirtualThreads());
+    }
+
+    @Test
+    public void virtualThreads() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.VIRTUAL_THREADS_LABEL, true);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertTrue(lc.isVirtualThreads());
+    }
+
+    @Test
+    public void virtualThreads_NotABoolean() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.VIRTUAL_THREADS_LABEL, "blah");
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.isVirtualThreads();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("'" + LoadConfiguration.VIRTUAL_THREADS_LABEL + "' not a boolean"));
+        }
+    }
+
+    @Test
+    public void inFlight_Default() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertEquals(LoadConfiguration.DEFAULT_IN_FLIGHT, lc.getInFlight());
+    }
+
+    @Test
+    public void inFlight() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.IN_FLIGHT_LABEL, 16);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertEquals(16, lc.getInFlight());
+    }
+
+    @Test
+    public void inFlight_NotAnInteger() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.IN_FLIGHT_LABEL, "blah");
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getInFlight();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("'" + LoadConfiguration.IN_FLIGHT_LABEL + "' not an integer"));
+        }
+    }
+
+    @Test
+    public void inFlight_InvalidValue() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.IN_FLIGHT_LABEL, 0);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getInFlight();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("invalid '" + LoadConfiguration.IN_FLIGHT_LABEL + "' value: 0"));
+        }
+    }
+
+    @Test
+    public void profile_Default() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertTrue(lc.getProfile().isEmpty());
+    }
+
+    @Test
+    public void profile() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.THREAD_COUNT_LABEL, 10);
+
+        List<Object> profile = new ArrayList<>();
+
+        Map<String, Object> stage = new HashMap<>();
+        stage.put(LoadStage.NAME_LABEL, "ramp-up");
+        stage.put(LoadStage.RATE_LABEL, 1000);
+        stage.put(LoadStage.TARGET_RATE_LABEL, 50000);
+        stage.put(LoadStage.DURATION_LABEL, "5m");
+        profile.add(stage);
+
+        stage = new HashMap<>();
+        stage.put(LoadStage.RATE_LABEL, 2.5);
+        stage.put(LoadStage.THREADS_LABEL, 5);
+        stage.put(LoadStage.DURATION_LABEL, 10);
+        profile.add(stage);
+
+        stage = new HashMap<>();
+        stage.put(LoadStage.NAME_LABEL, "closed-loop");
+        stage.put(LoadStage.DURATION_LABEL, "500ms");
+        profile.add(stage);
+
+        raw.put(LoadConfiguration.PROFILE_LABEL, profile);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        List<LoadStage> stages = lc.getProfile();
+
+        assertEquals(3, stages.size());
+
+        LoadStage s = stages.get(0);
+        assertEquals("ramp-up", s.getName());
+        assertEquals(1000d, s.getRate(), 0.0001);
+        assertEquals(50000d, s.getTargetRate(), 0.0001);
+        assertEquals(5 * 60 * 1000L, s.getDurationMs());
+        assertNull(s.getThreadCount());
+
+        s = stages.get(1);
+        assertEquals("stage 1", s.getName());
+        assertEquals(2.5d, s.getRate(), 0.0001);
+        assertEquals(2.5d, s.getTargetRate(), 0.0001);
+        assertEquals(10000L, s.getDurationMs());
+        assertEquals(5, s.getThreadCount().intValue());
+
+        s = stages.get(2);
+        assertEquals("closed-loop", s.getName());
+        assertNull(s.getRate());
+        assertNull(s.getTargetRate());
+        assertEquals(500L, s.getDurationMs());
+    }
+
+    @Test
+    public void profile_NotAList() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.PROFILE_LABEL, "blah");
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getProfile();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("'" + LoadConfiguration.PROFILE_LABEL + "' not a list"));
+        }
+    }
+
+    @Test
+    public void profile_CannotBeCombinedWithRate() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.RATE_LABEL, 100);
+
+        Map<String, Object> stage = new HashMap<>();
+        stage.put(LoadStage.DURATION_LABEL, 10);
+        raw.put(LoadConfiguration.PROFILE_LABEL, Collections.singletonList(stage));
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getProfile();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("cannot be used together"));
+        }
+    }
+
+    @Test
+    public void profile_MissingDuration() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        Map<String, Object> stage = new HashMap<>();
+        stage.put(LoadStage.NAME_LABEL, "soak");
+        stage.put(LoadStage.RATE_LABEL, 100);
+        raw.put(LoadConfiguration.PROFILE_LABEL, Collections.singletonList(stage));
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getProfile();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("soak: missing '" + LoadStage.DURATION_LABEL + "'"));
+        }
+    }
+
+    @Test
+    public void profile_TargetRateWithoutRate() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        Map<String, Object> stage = new HashMap<>();
+        stage.put(LoadStage.TARGET_RATE_LABEL, 100);
+        stage.put(LoadStage.DURATION_LABEL, 10);
+        raw.put(LoadConfiguration.PROFILE_LABEL, Collections.singletonList(stage));
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getProfile();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("'" + LoadStage.TARGET_RATE_LABEL + "' requires '" + LoadStage.RATE_LABEL + "'"));
+        }
+    }
+
+    @Test
+    public void profile_MoreThreadsThanTheLoadDriverHas() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put(LoadConfiguration.THREAD_COUNT_LABEL, 2);
+
+        Map<String, Object> stage = new HashMap<>();
+        stage.put(LoadStage.THREADS_LABEL, 3);
+        stage.put(LoadStage.DURATION_LABEL, 10);
+        raw.put(LoadConfiguration.PROFILE_LABEL, Collections.singletonList(stage));
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getProfile();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("invalid '" + LoadStage.THREADS_LABEL + "' value 3"));
+        }
+    }
+
+    @Test
+    public void profile_UnknownStageElement() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        Map<String, Object> stage = new HashMap<>();
+        stage.put(LoadStage.DURATION_LABEL, 10);
+        stage.put("blah", 1);
+        raw.put(LoadConfiguration.PROFILE_LABEL, Collections.singletonList(stage));
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getProfile();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("unknown stage configuration element 'blah'"));
+        }
+    }
+
+    @Test
+    public void capacitySearch_Default() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        assertNull(lc.getCapacitySearch());
+    }
+
+    @Test
+    public void capacitySearch() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        Map<String, Object> sla = new HashMap<>();
+        sla.put("p99", "5ms");
+        sla.put("p99.9", 20);
+        sla.put(CapacitySearchConfiguration.ERROR_RATE_LABEL, "0.1%");
+
+        Map<String, Object> search = new HashMap<>();
+        search.put(CapacitySearchConfiguration.INITIAL_RATE_LABEL, 1000);
+        search.put(CapacitySearchConfiguration.MAX_RATE_LABEL, 200000);
+        search.put(CapacitySearchConfiguration.TRIAL_DURATION_LABEL, "10s");
+        search.put(CapacitySearchConfiguration.WARM_UP_LABEL, 2);
+        search.put(CapacitySearchConfiguration.RESOLUTION_LABEL, 0.05);
+        search.put(CapacitySearchConfiguration.MAX_TRIALS_LABEL, 7);
+        search.put(CapacitySearchConfiguration.CURVE_FILE_LABEL, "capacity.csv");
+        search.put(CapacitySearchConfiguration.SLA_LABEL, sla);
+
+        raw.put(LoadConfiguration.CAPACITY_SEARCH_LABEL, search);
+
+        File configurationDirectory = new File(System.getProperty("basedir"));
+
+        LoadConfiguration lc = getConfigurationToTest(raw, configurationDirectory);
+
+        CapacitySearchConfiguration c = lc.getCapacitySearch();
+
+        assertEquals(1000d, c.getInitialRate(), 0.0001);
+        assertEquals(200000d, c.getMaxRate(), 0.0001);
+        assertEquals(10000L, c.getTrialDurationMs());
+        assertEquals(2000L, c.getWarmUpMs());
+        assertEquals(0.05d, c.getResolution(), 0.0001);
+        assertEquals(7, c.getMaxTrials());
+        assertEquals(new File(configurationDirectory, "capacity.csv"), c.getCurveFile());
+        assertEquals(0.001d, c.getMaxErrorRate(), 0.000001);
+
+        Map<Double, Long> thresholds = c.getLatencyThresholdsNano();
+        assertEquals(2, thresholds.size());
+        assertEquals(5000000L, thresholds.get(99d).longValue());
+        assertEquals(20000000L, thresholds.get(99.9d).longValue());
+    }
+
+    @Test
+    public void capacitySearch_Defaults() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        Map<String, Object> search = new HashMap<>();
+        search.put(CapacitySearchConfiguration.INITIAL_RATE_LABEL, 10);
+        search.put(CapacitySearchConfiguration.SLA_LABEL,
+                Collections.singletonMap(CapacitySearchConfiguration.ERROR_RATE_LABEL, 0.01));
+
+        raw.put(LoadConfiguration.CAPACITY_SEARCH_LABEL, search);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        CapacitySearchConfiguration c = lc.getCapacitySearch();
+
+        assertEquals(10d, c.getInitialRate(), 0.0001);
+        assertNull(c.getMaxRate());
+        assertEquals(CapacitySearchConfiguration.DEFAULT_TRIAL_DURATION_MS, c.getTrialDurationMs());
+        assertEquals(CapacitySearchConfiguration.DEFAULT_WARM_UP_MS, c.getWarmUpMs());
+        assertEquals(CapacitySearchConfiguration.DEFAULT_RESOLUTION, c.getResolution(), 0.0001);
+        assertEquals(CapacitySearchConfiguration.DEFAULT_MAX_TRIALS, c.getMaxTrials());
+        assertNull(c.getCurveFile());
+        assertTrue(c.getLatencyThresholdsNano().isEmpty());
+        assertEquals(0.01d, c.getMaxErrorRate(), 0.000001);
+    }
+
+    @Test
+    public void capacitySearch_MissingSLA() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        Map<String, Object> search = new HashMap<>();
+        search.put(CapacitySearchConfiguration.INITIAL_RATE_LABEL, 10);
+        raw.put(LoadConfiguration.CAPACITY_SEARCH_LABEL, search);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getCapacitySearch();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("missing '" + CapacitySearchConfiguration.SLA_LABEL + "'"));
+        }
+    }
+
+    @Test
+    public void capacitySearch_UnknownSLACriterion() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        Map<String, Object> search = new HashMap<>();
+        search.put(CapacitySearchConfiguration.INITIAL_RATE_LABEL, 10);
+        search.put(CapacitySearchConfiguration.SLA_LABEL, Collections.singletonMap("average", "5ms"));
+        raw.put(LoadConfiguration.CAPACITY_SEARCH_LABEL, search);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getCapacitySearch();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("unknown " + CapacitySearchConfiguration.SLA_LABEL + " criterion 'average'"));
+        }
+    }
+
+    @Test
+    public void capacitySearch_CannotBeCombinedWithProfile() throws Exception {
+
+        Map<String, Object> raw = new HashMap<>();
+
+        Map<String, Object> stage = new HashMap<>();
+        stage.put(LoadStage.DURATION_LABEL, 10);
+        raw.put(LoadConfiguration.PROFILE_LABEL, Collections.singletonList(stage));
+
+        Map<String, Object> search = new HashMap<>();
+        search.put(CapacitySearchConfiguration.INITIAL_RATE_LABEL, 10);
+        search.put(CapacitySearchConfiguration.SLA_LABEL, Collections.singletonMap("p99", 5));
+        raw.put(LoadConfiguration.CAPACITY_SEARCH_LABEL, search);
+
+        LoadConfiguration lc = getConfigurationToTest(raw, new File("."));
+
+        try {
+
+            lc.getCapacitySearch();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("cannot be used together"));
+        }
+    }
+
     // post-refactoring tests ------------------------------------------------------------------------------------------
 
     @Test
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.configuration;
+
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class LoadStageTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(LoadStageTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidDuration() throws Exception {
+
+        try {
+
+            new LoadStage("test", 0, null, null, null);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_TargetRateWithoutRate() throws Exception {
+
+        try {
+
+            new LoadStage("test", 1000, null, 10d, null);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseDuration() throws Exception {
+
+        assertEquals(10000L, LoadStage.parseDuration(10));
+        assertEquals(10000L, LoadStage.parseDuration("10"));
+        assertEquals(500L, LoadStage.parseDuration("500ms"));
+        assertEquals(10000L, LoadStage.parseDuration("10s"));
+        assertEquals(5 * 60 * 1000L, LoadStage.parseDuration("5m"));
+        assertEquals(2 * 3600 * 1000L, LoadStage.parseDuration(" 2h "));
+    }
+
+    @Test
+    public void parseDuration_Invalid() throws Exception {
+
+        Object[] invalid = new Object[] { 0, -1, "0s", "blah", "10d", "", 1.5 };
+
+        for(Object o: invalid) {
+
+            try {
+
+                LoadStage.parseDuration(o);
+                fail("should have thrown exception on " + o);
+            }
+            catch(UserErrorException e) {
+
+                String msg = e.getMessage();
+                log.info(msg);
+                assertTrue(msg.contains("invalid duration"));
+            }
+        }
+    }
+
+    @Test
+    public void toStringTest() throws Exception {
+
+        assertEquals("ramp-up: 1000.0 -> 50000.0 ops/s, 300000 ms",
+                new LoadStage("ramp-up", 300000, 1000d, 50000d, null).toString());
+        assertEquals("step-down: 20000.0 ops/s, 20 thread(s), 600000 ms",
+                new LoadStage("step-down", 600000, 20000d, null, 20).toString());
+        assertEquals("idle: closed-loop, 1000 ms", new LoadStage("idle", 1000, null, null, null).toString());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -20,7 +20,9 @@ import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.utilities.UserErrorException;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,6 +42,7 @@ public class MockLoadConfiguration extends LowLevelConfigurationBase implements
 
     private Long operations;
     private Integer valueSize;
+    private int threadCount;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
@@ -58,6 +61,8 @@ public class MockLoadConfiguration extends LowLevelConfigurationBase implements
         this.operations = null;
 
         this.valueSize = DEFAULT_VALUE_SIZE;
+
+        this.threadCount = 1;
     }
 
     // LoadConfiguration implementation --------------------------------------------------------------------------------
@@ -69,7 +74,8 @@ public class MockLoadConfiguration extends LowLevelConfigurationBase implements
 
     @Override
     public int getThreadCount() {
-        throw new RuntimeException("getThreadCount() NOT YET IMPLEMENTED");
+
+        return threadCount;
     }
 
     @Override
@@ -109,6 +115,36 @@ public class MockLoadConfiguration extends LowLevelConfigurationBase implements
         return getValueSize();
     }
 
+    @Override
+    public Double getRate() throws UserErrorException {
+
+        return null;
+    }
+
+    @Override
+    public boolean isVirtualThreads() throws UserErrorException {
+
+        return false;
+    }
+
+    @Override
+    public int getInFlight() throws UserErrorException {
+
+        return LoadConfiguration.DEFAULT_IN_FLIGHT;
+    }
+
+    @Override
+    public List<LoadStage> getProfile() throws UserErrorException {
+
+        return Collections.emptyList();
+    }
+
+    @Override
+    public CapacitySearchConfiguration getCapacitySearch() throws UserErrorException {
+
+        return null;
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     public void setValueSize(Integer i) {
@@ -116,6 +152,16 @@ public class MockLoadConfiguration extends LowLevelConfigurationBase implements
         this.valueSize = i;
     }
 
+    public void setOperations(Long l) {
+
+        this.operations = l;
+    }
+
+    public void setThreadCount(int i) {
+
+        this.threadCount = i;
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -372,6 +372,45 @@ public class YamlBasedConfigurationTest extends ConfigurationTest {
         }
     }
 
+    @Test
+    public void load_InputStream() throws Exception {
+
+        String content =
+                "service:\n" +
+                        "  type: cache\n" +
+                        "load:\n" +
+                        "  threads: 3\n" +
+                        "output:\n" +
+                        "  statistics:\n" +
+                        "    file: test.csv\n";
+
+        YamlBasedConfiguration c = new YamlBasedConfiguration();
+        c.load(new ByteArrayInputStream(content.getBytes("UTF-8")), scratchDirectory);
+
+        assertEquals(scratchDirectory, c.getConfigurationDirectory());
+        assertEquals(3, c.getLoadConfiguration().getThreadCount());
+        assertNotNull(c.getOutputConfiguration().getSamplerConfiguration());
+        assertEquals("null", c.toString());
+    }
+
+    @Test
+    public void load_InputStream_RandomContent() throws Exception {
+
+        YamlBasedConfiguration c = new YamlBasedConfiguration();
+
+        try {
+
+            c.load(new ByteArrayInputStream("some random content\n".getBytes()), scratchDirectory);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid configuration", msg);
+        }
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     @Override
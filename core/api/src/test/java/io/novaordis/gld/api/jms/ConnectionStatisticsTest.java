@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms;
+
+import io.novaordis.gld.api.jms.embedded.EmbeddedConnection;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class ConnectionStatisticsTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void counters() throws Exception {
+
+        EmbeddedConnection c = new EmbeddedConnection();
+
+        ConnectionStatistics cs = new ConnectionStatistics(3, c);
+
+        assertEquals(3, cs.getIndex());
+        assertEquals(c, cs.getConnection());
+        assertEquals(0, cs.getThreadCount());
+        assertEquals(0L, cs.getOperationCount());
+
+        cs.threadAssigned();
+        cs.operationPerformed();
+        cs.operationPerformed();
+
+        assertEquals(1, cs.getThreadCount());
+        assertEquals(2L, cs.getOperationCount());
+    }
+
+    @Test
+    public void throughput() throws Exception {
+
+        ConnectionStatistics cs = new ConnectionStatistics(0, new EmbeddedConnection());
+
+        for(int i = 0; i < 100; i ++) {
+
+            cs.operationPerformed();
+        }
+
+        Thread.sleep(50L);
+
+        cs.closed();
+
+        double throughput = cs.getThroughput();
+
+        //
+        // 100 operations in at least 50 ms
+        //
+
+        assertTrue(throughput > 0d);
+        assertTrue(throughput <= 2000d);
+
+        //
+        // the throughput of a closed connection does not decay
+        //
+
+        Thread.sleep(20L);
+
+        assertEquals(throughput, cs.getThroughput(), 0d);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
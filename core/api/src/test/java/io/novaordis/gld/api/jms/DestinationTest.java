@@ -19,6 +19,8 @@ package io.novaordis.gld.api.jms;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -47,6 +49,29 @@ public abstract class DestinationTest {
         assertTrue(d.isQueue() || d.isTopic());
     }
 
+    @Test
+    public void equalsAndHashCode() throws Exception {
+
+        Destination d = getDestinationToTest("test");
+        Destination d2 = getDestinationToTest("test");
+        Destination d3 = getDestinationToTest("test2");
+
+        assertEquals(d, d2);
+        assertEquals(d.hashCode(), d2.hashCode());
+        assertNotEquals(d, d3);
+    }
+
+    @Test
+    public void equals_QueueAndTopicWithTheSameName() throws Exception {
+
+        Destination d = getDestinationToTest("test");
+
+        Destination other = d.isQueue() ? new Topic("test") : new Queue("test");
+
+        assertFalse(d.equals(other));
+        assertFalse(other.equals(d));
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -30,13 +30,17 @@ import io.novaordis.gld.api.jms.embedded.TestableMessageProducer;
 import io.novaordis.gld.api.jms.embedded.TestableQueue;
 import io.novaordis.gld.api.jms.embedded.TestableSession;
 import io.novaordis.gld.api.jms.load.ConnectionPolicy;
+import io.novaordis.gld.api.jms.load.ConsumerPolicy;
 import io.novaordis.gld.api.jms.load.JMSLoadStrategy;
 import io.novaordis.gld.api.jms.load.JMSLoadStrategyBase;
+import io.novaordis.gld.api.jms.load.ProducerPolicy;
 import io.novaordis.gld.api.jms.load.ReceiveLoadStrategy;
 import io.novaordis.gld.api.jms.load.SendLoadStrategy;
 import io.novaordis.gld.api.jms.load.SessionPolicy;
+import io.novaordis.gld.api.jms.operation.Commit;
 import io.novaordis.gld.api.jms.operation.JmsOperation;
 import io.novaordis.gld.api.jms.operation.MockSend;
+import io.novaordis.gld.api.jms.operation.Receive;
 import io.novaordis.gld.api.jms.operation.Send;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.api.service.ServiceTest;
@@ -63,6 +67,7 @@ import java.util.concurrent.CountDownLatch;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -203,6 +208,152 @@ public abstract class JMSServiceTest extends ServiceTest {
         assertTrue(c == c2);
     }
 
+    //
+    // ConnectionPolicy.CONNECTION_POOL --------------------------------------------------------------------------------
+    //
+
+    @Test
+    public void ConnectionPolicy_CONNECTION_POOL_ThreadsAreSpreadAcrossConnections() throws Exception {
+
+        JMSService s = getServiceToTest();
+
+        JMSLoadStrategy ls = getMatchingLoadStrategyToTest(s);
+
+        s.setLoadStrategy(ls);
+
+        JMSServiceBase sb = (JMSServiceBase)s;
+
+        sb.setConnectionPolicy(ConnectionPolicy.CONNECTION_POOL);
+        sb.setConnectionPoolSize(2);
+
+        assertNull(sb.getConnection());
+
+        s.start();
+
+        //
+        // the whole pool is created on start
+        //
+
+        assertEquals(2, sb.getConnectionStatistics().size());
+
+        Connection c = sb.getConnection();
+        assertTrue(c == sb.getConnection());
+
+        Connection[] others = new Connection[2];
+
+        for(int i = 0; i < others.length; i ++) {
+
+            int index = i;
+
+            Thread t = new Thread(() -> {
+
+                try {
+
+                    others[index] = sb.getConnection();
+                }
+                catch(Exception e) {
+
+                    log.error("failed to get connection", e);
+                }
+            });
+
+            t.start();
+            t.join();
+        }
+
+        //
+        // round robin
+        //
+
+        assertNotEquals(c, others[0]);
+        assertEquals(c, others[1]);
+
+        new MockSend(ls).perform(s);
+        new MockSend(ls).perform(s);
+
+        List<ConnectionStatistics> stats = sb.getConnectionStatistics();
+        assertEquals(2, stats.size());
+
+        ConnectionStatistics cs = stats.get(0);
+        assertEquals(c, cs.getConnection());
+        assertEquals(2, cs.getThreadCount());
+        assertEquals(2L, cs.getOperationCount());
+
+        ConnectionStatistics cs2 = stats.get(1);
+        assertEquals(others[0], cs2.getConnection());
+        assertEquals(1, cs2.getThreadCount());
+        assertEquals(0L, cs2.getOperationCount());
+
+        s.stop();
+
+        assertNull(sb.getConnection());
+
+        //
+        // the statistics survive the stop
+        //
+
+        assertEquals(2, sb.getConnectionStatistics().size());
+    }
+
+    //
+    // ConnectionPolicy.CONNECTION_PER_THREAD --------------------------------------------------------------------------
+    //
+
+    @Test
+    public void ConnectionPolicy_CONNECTION_PER_THREAD() throws Exception {
+
+        JMSService s = getServiceToTest();
+
+        JMSLoadStrategy ls = getMatchingLoadStrategyToTest(s);
+
+        s.setLoadStrategy(ls);
+
+        JMSServiceBase sb = (JMSServiceBase)s;
+
+        sb.setConnectionPolicy(ConnectionPolicy.CONNECTION_PER_THREAD);
+
+        s.start();
+
+        //
+        // the first connection is created on start, and claimed by the first thread
+        //
+
+        assertEquals(1, sb.getConnectionStatistics().size());
+
+        Connection c = sb.getConnection();
+        assertTrue(c == sb.getConnection());
+        assertEquals(1, sb.getConnectionStatistics().size());
+
+        Connection[] other = new Connection[1];
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                other[0] = sb.getConnection();
+            }
+            catch(Exception e) {
+
+                log.error("failed to get connection", e);
+            }
+        });
+
+        t.start();
+        t.join();
+
+        assertNotNull(other[0]);
+        assertNotEquals(c, other[0]);
+
+        List<ConnectionStatistics> stats = sb.getConnectionStatistics();
+        assertEquals(2, stats.size());
+        assertEquals(1, stats.get(0).getThreadCount());
+        assertEquals(1, stats.get(1).getThreadCount());
+
+        s.stop();
+
+        assertNull(sb.getConnection());
+    }
+
     //
     // SessionPolicy.SESSION_PER_OPERATION -----------------------------------------------------------------------------
     //
@@ -739,6 +890,282 @@ public abstract class JMSServiceTest extends ServiceTest {
         }
     }
 
+    //
+    // ProducerPolicy and ConsumerPolicy -------------------------------------------------------------------------------
+    //
+
+    @Test
+    public void ProducerPolicy_PRODUCER_PER_THREAD_BehaviorOnCheckInCheckOut() throws Exception {
+
+        final JMSService s = getServiceToTest();
+
+        JMSLoadStrategy ls = getMatchingLoadStrategyToTest(s);
+
+        s.setLoadStrategy(ls);
+
+        final JMSServiceBase sb = (JMSServiceBase)s;
+
+        sb.setSessionPolicy(SessionPolicy.SESSION_PER_THREAD);
+        sb.setProducerPolicy(ProducerPolicy.PRODUCER_PER_THREAD);
+
+        s.start();
+
+        //
+        // the first check out creates the producer
+        //
+
+        Producer endpoint = (Producer)s.checkOut(new Send(ls));
+
+        TestableConnection c = (TestableConnection)sb.getConnection();
+        List<TestableSession> cs = c.getCreatedSessions();
+        assertEquals(1, cs.size());
+        assertEquals(1, cs.get(0).getCreatedProducers().size());
+
+        //
+        // check in leaves the producer open
+        //
+
+        s.checkIn(endpoint);
+
+        TestableMessageProducer p = (TestableMessageProducer)endpoint.getProducer();
+        assertFalse(p.isClosed());
+
+        //
+        // subsequent check outs on the same thread reuse the producer
+        //
+
+        Producer endpoint2 = (Producer)s.checkOut(new Send(ls));
+        assertTrue(endpoint == endpoint2);
+        s.checkIn(endpoint2);
+
+        cs = c.getCreatedSessions();
+        assertEquals(1, cs.size());
+        assertEquals(1, cs.get(0).getCreatedProducers().size());
+
+        //
+        // a different thread gets its own producer
+        //
+
+        final JMSEndpoint[] jmsEndpoints = new JMSEndpoint[1];
+        final Exception[] exceptions = new Exception[1];
+        final CountDownLatch threadDone = new CountDownLatch(1);
+
+        new Thread(() -> {
+
+            try {
+
+                JMSEndpoint e = s.checkOut(new Send(ls));
+                s.checkIn(e);
+                jmsEndpoints[0] = e;
+            }
+            catch(Exception e) {
+
+                exceptions[0] = e;
+            }
+            finally {
+
+                threadDone.countDown();
+            }
+        }, "producer getter").start();
+
+        threadDone.await();
+
+        if (exceptions[0] != null) {
+
+            fail("producer getter thread produced exception " + exceptions[0]);
+        }
+
+        Producer endpoint3 = (Producer)jmsEndpoints[0];
+        assertNotEquals(endpoint.getProducer(), endpoint3.getProducer());
+
+        TestableMessageProducer p3 = (TestableMessageProducer)endpoint3.getProducer();
+        assertFalse(p3.isClosed());
+
+        cs = c.getCreatedSessions();
+        assertEquals(2, cs.size());
+
+        //
+        // stopping the service closes the cached producers
+        //
+
+        s.stop();
+
+        assertTrue(p.isClosed());
+        assertTrue(p3.isClosed());
+    }
+
+    @Test
+    public void ProducerPolicy_PRODUCER_PER_THREAD_EveryOperationIsCountedAgainstTheConnection() throws Exception {
+
+        JMSService s = getServiceToTest();
+
+        JMSLoadStrategy ls = getMatchingLoadStrategyToTest(s);
+
+        s.setLoadStrategy(ls);
+
+        JMSServiceBase sb = (JMSServiceBase)s;
+
+        sb.setSessionPolicy(SessionPolicy.SESSION_PER_THREAD);
+        sb.setProducerPolicy(ProducerPolicy.PRODUCER_PER_THREAD);
+
+        s.start();
+
+        int sends = 10;
+
+        for(int i = 0; i < sends; i ++) {
+
+            JMSEndpoint e = s.checkOut(new Send(ls));
+            s.checkIn(e);
+        }
+
+        //
+        // the producer is created once and then reused, but each send is counted
+        //
+
+        TestableConnection c = (TestableConnection)sb.getConnection();
+        assertEquals(1, c.getCreatedSessions().get(0).getCreatedProducers().size());
+
+        List<ConnectionStatistics> stats = sb.getConnectionStatistics();
+        assertEquals(1, stats.size());
+        assertEquals(sends, stats.get(0).getOperationCount());
+
+        s.stop();
+    }
+
+    @Test
+    public void ConsumerPolicy_CONSUMER_PER_THREAD_BehaviorOnCheckInCheckOut() throws Exception {
+
+        final JMSService s = getServiceToTest();
+
+        JMSLoadStrategy ls = getMatchingJMSLoadStrategyToTest(
+                s,
+                ReceiveLoadStrategy.NAME,
+                "/TestQueue",
+                "/TestConnectionFactory",
+                ConnectionPolicy.CONNECTION_PER_RUN,
+                SessionPolicy.SESSION_PER_THREAD,
+                "test-user",
+                "test-password");
+
+        s.setLoadStrategy(ls);
+
+        final JMSServiceBase sb = (JMSServiceBase)s;
+
+        sb.setConsumerPolicy(ConsumerPolicy.CONSUMER_PER_THREAD);
+
+        s.start();
+
+        Consumer endpoint = (Consumer)s.checkOut(new Receive(ls));
+        s.checkIn(endpoint);
+
+        Consumer endpoint2 = (Consumer)s.checkOut(new Receive(ls));
+        s.checkIn(endpoint2);
+
+        //
+        // the consumer is reused, and it is created only once
+        //
+
+        assertTrue(endpoint == endpoint2);
+
+        TestableConnection c = (TestableConnection)sb.getConnection();
+        List<TestableSession> cs = c.getCreatedSessions();
+        assertEquals(1, cs.size());
+    }
+
+    @Test
+    public void ProducerPolicy_PRODUCER_PER_THREAD_RequiresSessionPerThread() throws Exception {
+
+        JMSService s = getServiceToTest();
+
+        JMSLoadStrategy ls = getMatchingLoadStrategyToTest(s);
+
+        s.setLoadStrategy(ls);
+
+        JMSServiceBase sb = (JMSServiceBase)s;
+
+        sb.setSessionPolicy(SessionPolicy.SESSION_PER_OPERATION);
+        sb.setProducerPolicy(ProducerPolicy.PRODUCER_PER_THREAD);
+
+        try {
+
+            s.start();
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("PRODUCER_PER_THREAD requires SESSION_PER_THREAD", msg);
+        }
+    }
+
+    //
+    // transacted sessions ---------------------------------------------------------------------------------------------
+    //
+
+    @Test
+    public void transacted_BehaviorOnCheckInCheckOut() throws Exception {
+
+        JMSService s = getServiceToTest();
+
+        JMSLoadStrategy ls = getMatchingLoadStrategyToTest(s);
+
+        s.setLoadStrategy(ls);
+
+        JMSServiceBase sb = (JMSServiceBase)s;
+
+        sb.setSessionPolicy(SessionPolicy.SESSION_PER_THREAD);
+        sb.setTransacted(true);
+
+        s.start();
+
+        new Send(ls).perform(s);
+        new Send(ls).perform(s);
+
+        Commit c = new Commit(ls, null);
+        c.perform(s);
+
+        assertTrue(c.wasSuccessful());
+
+        //
+        // the sends and the commit were performed in the thread's transacted session, which is still open
+        //
+
+        TestableConnection tc = (TestableConnection)sb.getConnection();
+        List<TestableSession> cs = tc.getCreatedSessions();
+        assertEquals(1, cs.size());
+
+        assertTrue(((Session)cs.get(0)).getTransacted());
+        assertFalse(cs.get(0).isClosed());
+    }
+
+    @Test
+    public void transacted_RequiresSessionPerThread() throws Exception {
+
+        JMSService s = getServiceToTest();
+
+        JMSLoadStrategy ls = getMatchingLoadStrategyToTest(s);
+
+        s.setLoadStrategy(ls);
+
+        JMSServiceBase sb = (JMSServiceBase)s;
+
+        sb.setSessionPolicy(SessionPolicy.SESSION_PER_OPERATION);
+        sb.setTransacted(true);
+
+        try {
+
+            s.start();
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("transacted sessions require SESSION_PER_THREAD", msg);
+        }
+    }
+
     // start() ---------------------------------------------------------------------------------------------------------
 
     @Test
@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms;
+
+import io.novaordis.gld.api.jms.embedded.EmbeddedConnection;
+import io.novaordis.gld.api.jms.embedded.EmbeddedMessageConsumer;
+import io.novaordis.gld.api.jms.embedded.EmbeddedQueue;
+import io.novaordis.gld.api.jms.embedded.EmbeddedSession;
+import io.novaordis.gld.api.jms.embedded.EmbeddedTextMessage;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class ListenerTest extends JMSEndpointTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidPrefetch() throws Exception {
+
+        try {
+
+            new Listener(null, null, null, 0, Session.AUTO_ACKNOWLEDGE, 1);
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid prefetch 0", msg);
+        }
+    }
+
+    @Test
+    public void constructor_InvalidAcknowledgeBatchSize() throws Exception {
+
+        try {
+
+            new Listener(null, null, null, 1, Session.CLIENT_ACKNOWLEDGE, 0);
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid acknowledge batch size 0", msg);
+        }
+    }
+
+    @Test
+    public void onMessageAndTake() throws Exception {
+
+        Listener l = new Listener(null, null, null, 10, Session.AUTO_ACKNOWLEDGE, 1);
+
+        assertEquals(10, l.getPrefetch());
+        assertEquals(0, l.getBufferedCount());
+
+        MockTextMessage m = new MockTextMessage("A");
+        MockTextMessage m2 = new MockTextMessage("B");
+
+        l.onMessage(m);
+        l.onMessage(m2);
+
+        assertEquals(2, l.getBufferedCount());
+        assertEquals(10, l.getPrefetch());
+
+        assertEquals(m, l.take(10L));
+        assertEquals(m2, l.take(10L));
+        assertNull(l.take(10L));
+
+        //
+        // auto-acknowledge, the provider acknowledges
+        //
+
+        assertEquals(0, m.getAcknowledgeCount());
+        assertEquals(0, m2.getAcknowledgeCount());
+    }
+
+    @Test
+    public void take_Timeout() throws Exception {
+
+        Listener l = new Listener(null, null, null, 10, Session.AUTO_ACKNOWLEDGE, 1);
+
+        long t0 = System.currentTimeMillis();
+
+        assertNull(l.take(20L));
+
+        long t1 = System.currentTimeMillis();
+
+        assertTrue(t1 - t0 >= 20L);
+    }
+
+    @Test
+    public void prefetchBlocksTheDeliveryThread() throws Exception {
+
+        Listener l = new Listener(null, null, null, 1, Session.AUTO_ACKNOWLEDGE, 1);
+
+        l.onMessage(new MockTextMessage("A"));
+
+        CountDownLatch delivered = new CountDownLatch(1);
+
+        Thread t = new Thread(() -> {
+
+            l.onMessage(new MockTextMessage("B"));
+            delivered.countDown();
+        });
+
+        t.start();
+
+        //
+        // the buffer is full, the second delivery blocks
+        //
+
+        assertFalse(delivered.await(200L, TimeUnit.MILLISECONDS));
+
+        assertEquals("A", ((TextMessage)l.take(10L)).getText());
+
+        assertTrue(delivered.await(1000L, TimeUnit.MILLISECONDS));
+
+        assertEquals("B", ((TextMessage)l.take(10L)).getText());
+
+        t.join();
+    }
+
+    @Test
+    public void clientAcknowledge_Batch() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        EmbeddedSession session = new EmbeddedSession(connection, 0, false, Session.CLIENT_ACKNOWLEDGE);
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer consumer = session.createConsumer(queue);
+
+        Listener l = new Listener(consumer, session, connection, 10, Session.CLIENT_ACKNOWLEDGE, 3);
+
+        MockTextMessage[] messages = new MockTextMessage[5];
+
+        for(int i = 0; i < messages.length; i ++) {
+
+            messages[i] = new MockTextMessage("" + i);
+        }
+
+        Thread t = deliver(l, messages);
+
+        for(int i = 0; i < messages.length; i ++) {
+
+            assertEquals(messages[i], l.take(1000L));
+        }
+
+        t.join(1000L);
+        assertFalse(t.isAlive());
+
+        //
+        // the third message acknowledges the first three
+        //
+
+        assertEquals(0, messages[0].getAcknowledgeCount());
+        assertEquals(0, messages[1].getAcknowledgeCount());
+        assertEquals(1, messages[2].getAcknowledgeCount());
+        assertEquals(0, messages[3].getAcknowledgeCount());
+        assertEquals(0, messages[4].getAcknowledgeCount());
+
+        //
+        // the remainder was taken, so it is acknowledged on close
+        //
+
+        l.close();
+
+        assertEquals(1, messages[2].getAcknowledgeCount());
+        assertEquals(0, messages[3].getAcknowledgeCount());
+        assertEquals(1, messages[4].getAcknowledgeCount());
+        assertEquals(0, l.getUntakenCount());
+    }
+
+    @Test
+    public void clientAcknowledge_OnlyTakenMessagesAreAcknowledged() throws Exception {
+
+        Listener l = new Listener(null, null, null, 10, Session.CLIENT_ACKNOWLEDGE, 2);
+
+        MockTextMessage m = new MockTextMessage("A");
+        MockTextMessage m2 = new MockTextMessage("B");
+
+        l.onMessage(m);
+
+        CountDownLatch delivered = new CountDownLatch(1);
+
+        Thread t = new Thread(() -> {
+
+            l.onMessage(m2);
+            delivered.countDown();
+        });
+
+        t.start();
+
+        //
+        // the batch is due, but the messages were not taken yet, so the delivery waits
+        //
+
+        assertFalse(delivered.await(200L, TimeUnit.MILLISECONDS));
+        assertEquals(0, m2.getAcknowledgeCount());
+
+        assertEquals(m, l.take(10L));
+
+        assertFalse(delivered.await(200L, TimeUnit.MILLISECONDS));
+        assertEquals(0, m2.getAcknowledgeCount());
+
+        assertEquals(m2, l.take(10L));
+
+        assertTrue(delivered.await(1000L, TimeUnit.MILLISECONDS));
+        assertEquals(1, m2.getAcknowledgeCount());
+
+        t.join();
+    }
+
+    @Test
+    public void transacted_Batch() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        EmbeddedSession session = new EmbeddedSession(connection, 0, true, Session.SESSION_TRANSACTED);
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer consumer = session.createConsumer(queue);
+
+        Listener l = new Listener(consumer, session, connection, 10, Session.SESSION_TRANSACTED, 2);
+
+        MockTextMessage[] messages = new MockTextMessage[5];
+
+        for(int i = 0; i < messages.length; i ++) {
+
+            messages[i] = new MockTextMessage("" + i);
+        }
+
+        Thread t = deliver(l, messages);
+
+        for(int i = 0; i < messages.length; i ++) {
+
+            assertEquals(messages[i], l.take(1000L));
+        }
+
+        t.join(1000L);
+        assertFalse(t.isAlive());
+
+        assertEquals(2, session.getCommitCount());
+
+        l.close();
+
+        assertEquals(3, session.getCommitCount());
+
+        //
+        // nothing left to commit
+        //
+
+        l.close();
+
+        assertEquals(3, session.getCommitCount());
+    }
+
+    @Test
+    public void close_UntakenMessagesAreRecovered() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        EmbeddedSession session = new EmbeddedSession(connection, 0, false, Session.CLIENT_ACKNOWLEDGE);
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer consumer = session.createConsumer(queue);
+
+        Listener l = new Listener(consumer, session, connection, 10, Session.CLIENT_ACKNOWLEDGE, 10);
+        consumer.setMessageListener(l);
+
+        queue.add(new EmbeddedTextMessage("A"));
+        queue.add(new EmbeddedTextMessage("B"));
+
+        connection.start();
+
+        assertEquals("A", ((TextMessage)l.take(1000L)).getText());
+
+        waitForBufferedCount(l, 1);
+
+        l.close();
+
+        assertEquals(1, l.getUntakenCount());
+        assertEquals(0, l.getBufferedCount());
+
+        //
+        // the message that was not taken is redelivered, and so is the taken, but not acknowledged, message
+        //
+
+        MessageConsumer consumer2 = session.createConsumer(queue);
+
+        assertEquals("A", ((TextMessage)consumer2.receive(1000L)).getText());
+        assertEquals("B", ((TextMessage)consumer2.receive(1000L)).getText());
+    }
+
+    @Test
+    public void close_UntakenMessagesAreRolledBack() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        EmbeddedSession session = new EmbeddedSession(connection, 0, true, Session.SESSION_TRANSACTED);
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer consumer = session.createConsumer(queue);
+
+        Listener l = new Listener(consumer, session, connection, 10, Session.SESSION_TRANSACTED, 10);
+        consumer.setMessageListener(l);
+
+        queue.add(new EmbeddedTextMessage("A"));
+        queue.add(new EmbeddedTextMessage("B"));
+
+        connection.start();
+
+        waitForBufferedCount(l, 2);
+
+        l.close();
+
+        assertEquals(2, l.getUntakenCount());
+        assertEquals(0, session.getCommitCount());
+
+        MessageConsumer consumer2 = session.createConsumer(queue);
+
+        Message m = consumer2.receive(1000L);
+        assertEquals("A", ((TextMessage)m).getText());
+        assertTrue(m.getJMSRedelivered());
+        assertEquals("B", ((TextMessage)consumer2.receive(1000L)).getText());
+    }
+
+    @Test
+    public void close_UntakenAutoAcknowledgedMessagesAreCounted() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        EmbeddedSession session = new EmbeddedSession(connection, 0, false, Session.AUTO_ACKNOWLEDGE);
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer consumer = session.createConsumer(queue);
+
+        Listener l = new Listener(consumer, session, connection, 10, Session.AUTO_ACKNOWLEDGE, 1);
+
+        l.onMessage(new MockTextMessage("A"));
+        l.onMessage(new MockTextMessage("B"));
+
+        assertEquals("A", ((TextMessage)l.take(10L)).getText());
+
+        l.close();
+
+        assertEquals(1, l.getUntakenCount());
+        assertEquals(0, l.getBufferedCount());
+    }
+
+    @Test
+    public void close_UnblocksTake() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        EmbeddedSession session = new EmbeddedSession(connection, 0, false, Session.AUTO_ACKNOWLEDGE);
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer consumer = session.createConsumer(queue);
+
+        Listener l = new Listener(consumer, session, connection, 10, Session.AUTO_ACKNOWLEDGE, 1);
+
+        Message[] taken = new Message[] { new MockTextMessage("placeholder") };
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                taken[0] = l.take(0L);
+            }
+            catch(InterruptedException e) {
+
+                log.warn("interrupted", e);
+            }
+        });
+
+        t.start();
+
+        Thread.sleep(50L);
+
+        assertTrue(t.isAlive());
+
+        l.close();
+
+        assertTrue(l.isClosed());
+
+        t.join(1000L);
+
+        assertFalse(t.isAlive());
+        assertNull(taken[0]);
+    }
+
+    @Test
+    public void deliveryByTheProvider() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        EmbeddedSession session = new EmbeddedSession(connection, 0, false, Session.AUTO_ACKNOWLEDGE);
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer consumer = session.createConsumer(queue);
+
+        Listener l = new Listener(consumer, session, connection, 10, Session.AUTO_ACKNOWLEDGE, 1);
+        consumer.setMessageListener(l);
+
+        queue.add(new EmbeddedTextMessage("A"));
+
+        //
+        // the connection is not started, nothing is delivered
+        //
+
+        assertNull(l.take(50L));
+
+        connection.start();
+
+        Message m = l.take(1000L);
+
+        assertEquals("A", ((TextMessage)m).getText());
+
+        l.close();
+
+        assertTrue(((EmbeddedMessageConsumer)consumer).isClosed());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected Listener getEndpointToTest(javax.jms.Destination jmsDestination, Session session, Connection connection)
+            throws Exception {
+
+        MessageConsumer c = session.createConsumer(jmsDestination);
+        return new Listener(c, session, connection, 10, Session.AUTO_ACKNOWLEDGE, 1);
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Delivers the messages to the listener on a separate thread, the way the provider's delivery thread does.
+     */
+    private static Thread deliver(Listener l, Message... messages) {
+
+        Thread t = new Thread(() -> {
+
+            for(Message m: messages) {
+
+                l.onMessage(m);
+            }
+        });
+
+        t.start();
+
+        return t;
+    }
+
+    private static void waitForBufferedCount(Listener l, int count) throws Exception {
+
+        long t0 = System.currentTimeMillis();
+
+        while(l.getBufferedCount() < count) {
+
+            if (System.currentTimeMillis() - t0 > 1000L) {
+
+                fail("the listener did not buffer " + count + " message(s)");
+            }
+
+            Thread.sleep(10L);
+        }
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -78,7 +78,7 @@ public class MockConnection implements Connection, TestableConnection {
     @Override
     public Session createSession(boolean transacted, int acknowledgeMode) throws JMSException {
 
-        MockSession s = new MockSession();
+        MockSession s = new MockSession(transacted);
         createdSessions.add(s);
         return s;
     }
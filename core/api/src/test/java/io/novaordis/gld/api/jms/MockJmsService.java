@@ -113,6 +113,11 @@ public class MockJMSService extends JMSServiceBase {
         super.setSessionPolicy(sp);
     }
 
+    public void setTransacted(boolean b) {
+
+        super.setTransacted(b);
+    }
+
     public void setConnection(Connection connection) {
 
         super.setConnection(connection);
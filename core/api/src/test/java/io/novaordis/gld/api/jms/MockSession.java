@@ -58,6 +58,8 @@ public class MockSession implements Session, TestableSession {
     // Attributes ------------------------------------------------------------------------------------------------------
 
     private boolean closed;
+    private boolean transacted;
+    private int commitCount;
 
     private List<MockMessageProducer> createdProducers;
 
@@ -65,7 +67,13 @@ public class MockSession implements Session, TestableSession {
 
     public MockSession() {
 
+        this(false);
+    }
+
+    public MockSession(boolean transacted) {
+
         this.closed = false;
+        this.transacted = transacted;
 
         this.createdProducers = new ArrayList<>();
     }
@@ -136,7 +144,8 @@ public class MockSession implements Session, TestableSession {
 
     @Override
     public boolean getTransacted() throws JMSException {
-        throw new RuntimeException("getTransacted() NOT YET IMPLEMENTED");
+
+        return transacted;
     }
 
     @Override
@@ -146,7 +155,13 @@ public class MockSession implements Session, TestableSession {
 
     @Override
     public void commit() throws JMSException {
-        throw new RuntimeException("commit() NOT YET IMPLEMENTED");
+
+        if (!transacted) {
+
+            throw new javax.jms.IllegalStateException("session not transacted");
+        }
+
+        commitCount ++;
     }
 
     @Override
@@ -259,6 +274,11 @@ public class MockSession implements Session, TestableSession {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    public int getCommitCount() {
+
+        return commitCount;
+    }
+
     @Override
     public String toString() {
 
@@ -20,6 +20,8 @@ import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.TextMessage;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -35,11 +37,16 @@ public class MockTextMessage implements TextMessage {
 
     private String text;
 
+    private Map<String, Object> properties;
+
+    private int acknowledgeCount;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     public MockTextMessage(String text) {
 
         this.text = text;
+        this.properties = new HashMap<>();
     }
 
     // TextMessage implementation --------------------------------------------------------------------------------------
@@ -176,7 +183,8 @@ public class MockTextMessage implements TextMessage {
 
     @Override
     public boolean propertyExists(String name) throws JMSException {
-        throw new RuntimeException("propertyExists() NOT YET IMPLEMENTED");
+
+        return properties.containsKey(name);
     }
 
     @Override
@@ -201,7 +209,8 @@ public class MockTextMessage implements TextMessage {
 
     @Override
     public long getLongProperty(String name) throws JMSException {
-        throw new RuntimeException("getLongProperty() NOT YET IMPLEMENTED");
+
+        return (Long)properties.get(name);
     }
 
     @Override
@@ -216,7 +225,8 @@ public class MockTextMessage implements TextMessage {
 
     @Override
     public String getStringProperty(String name) throws JMSException {
-        throw new RuntimeException("getStringProperty() NOT YET IMPLEMENTED");
+
+        return (String)properties.get(name);
     }
 
     @Override
@@ -251,7 +261,8 @@ public class MockTextMessage implements TextMessage {
 
     @Override
     public void setLongProperty(String name, long value) throws JMSException {
-        throw new RuntimeException("setLongProperty() NOT YET IMPLEMENTED");
+
+        properties.put(name, value);
     }
 
     @Override
@@ -266,7 +277,8 @@ public class MockTextMessage implements TextMessage {
 
     @Override
     public void setStringProperty(String name, String value) throws JMSException {
-        throw new RuntimeException("setStringProperty() NOT YET IMPLEMENTED");
+
+        properties.put(name, value);
     }
 
     @Override
@@ -276,7 +288,8 @@ public class MockTextMessage implements TextMessage {
 
     @Override
     public void acknowledge() throws JMSException {
-        throw new RuntimeException("acknowledge() NOT YET IMPLEMENTED");
+
+        acknowledgeCount ++;
     }
 
     @Override
@@ -286,6 +299,11 @@ public class MockTextMessage implements TextMessage {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    public int getAcknowledgeCount() {
+
+        return acknowledgeCount;
+    }
+
     @Override
     public String toString() {
 
@@ -18,10 +18,26 @@ package io.novaordis.gld.api.jms.embedded;
 
 import io.novaordis.gld.api.jms.JMSService;
 import io.novaordis.gld.api.jms.JMSServiceTest;
+import io.novaordis.gld.api.jms.MockJMSServiceConfiguration;
 import io.novaordis.gld.api.jms.Queue;
+import io.novaordis.gld.api.jms.Topic;
 import io.novaordis.gld.api.jms.load.JMSLoadStrategy;
 import io.novaordis.gld.api.jms.load.MockJMSLoadStrategy;
 import io.novaordis.gld.api.service.Service;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -31,6 +47,8 @@ public class EmbeddedJMSServiceTest extends JMSServiceTest {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedJMSServiceTest.class);
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
@@ -41,6 +59,129 @@ public class EmbeddedJMSServiceTest extends JMSServiceTest {
 
     // Tests -----------------------------------------------------------------------------------------------------------
 
+    @Test
+    public void brokerOptions_Defaults() throws Exception {
+
+        EmbeddedJMSService s = new EmbeddedJMSService();
+
+        assertEquals(EmbeddedDestination.UNBOUNDED, s.getDestinationCapacity());
+        assertEquals(0L, s.getSendLatencyMs());
+        assertEquals(0L, s.getDeliveryLatencyMs());
+
+        //
+        // the destinations of a service that was not configured must be created explicitly
+        //
+
+        assertFalse(s.isAutoCreateDestinations());
+        assertNull(s.resolveDestination(new Queue("/jms/no-such-queue")));
+
+        s.configure(new MockJMSServiceConfiguration());
+
+        assertEquals(EmbeddedDestination.UNBOUNDED, s.getDestinationCapacity());
+        assertEquals(0L, s.getSendLatencyMs());
+        assertEquals(0L, s.getDeliveryLatencyMs());
+        assertTrue(s.isAutoCreateDestinations());
+    }
+
+    @Test
+    public void configure_BrokerOptions() throws Exception {
+
+        EmbeddedJMSService s = new EmbeddedJMSService();
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedJMSService.DESTINATION_CAPACITY_LABEL, 100);
+        m.put(EmbeddedJMSService.SEND_LATENCY_LABEL, "2ms");
+        m.put(EmbeddedJMSService.DELIVERY_LATENCY_LABEL, "5ms");
+
+        MockJMSServiceConfiguration msc = new MockJMSServiceConfiguration();
+        msc.setImplementationConfigurationMap(m);
+
+        s.configure(msc);
+
+        assertEquals(100, s.getDestinationCapacity());
+        assertEquals(2L, s.getSendLatencyMs());
+        assertEquals(5L, s.getDeliveryLatencyMs());
+        assertTrue(s.isAutoCreateDestinations());
+
+        EmbeddedQueue q = (EmbeddedQueue)s.resolveDestination(new Queue("/jms/auto-created-queue"));
+
+        assertEquals("/jms/auto-created-queue", q.getName());
+        assertEquals(100, q.getCapacity());
+        assertEquals(2L, q.getSendLatencyMs());
+        assertEquals(5L, q.getDeliveryLatencyMs());
+
+        assertSame(q, s.resolveDestination(new Queue("/jms/auto-created-queue")));
+
+        EmbeddedTopic t = (EmbeddedTopic)s.resolveDestination(new Topic("/jms/auto-created-topic"));
+
+        assertEquals(100, t.getCapacity());
+    }
+
+    @Test
+    public void configure_AutoCreateDestinationsDisabled() throws Exception {
+
+        EmbeddedJMSService s = new EmbeddedJMSService();
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedJMSService.AUTO_CREATE_DESTINATIONS_LABEL, false);
+
+        MockJMSServiceConfiguration msc = new MockJMSServiceConfiguration();
+        msc.setImplementationConfigurationMap(m);
+
+        s.configure(msc);
+
+        assertFalse(s.isAutoCreateDestinations());
+        assertNull(s.resolveDestination(new Queue("/jms/no-such-queue")));
+    }
+
+    @Test
+    public void configure_InvalidDestinationCapacity() throws Exception {
+
+        EmbeddedJMSService s = new EmbeddedJMSService();
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedJMSService.DESTINATION_CAPACITY_LABEL, 0);
+
+        MockJMSServiceConfiguration msc = new MockJMSServiceConfiguration();
+        msc.setImplementationConfigurationMap(m);
+
+        try {
+
+            s.configure(msc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'destination-capacity' value: 0, must be a positive integer", msg);
+        }
+    }
+
+    @Test
+    public void configure_InvalidLatency() throws Exception {
+
+        EmbeddedJMSService s = new EmbeddedJMSService();
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(EmbeddedJMSService.DELIVERY_LATENCY_LABEL, "blah");
+
+        MockJMSServiceConfiguration msc = new MockJMSServiceConfiguration();
+        msc.setImplementationConfigurationMap(m);
+
+        try {
+
+            s.configure(msc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.startsWith("invalid 'delivery-latency': "));
+        }
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.embedded;
+
+import org.junit.Test;
+
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class EmbeddedMessageConsumerTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void receive_BlocksUntilAMessageArrives() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer c = startedSession().createConsumer(queue);
+
+        Message[] received = new Message[1];
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                received[0] = c.receive();
+            }
+            catch(Exception e) {
+
+                throw new IllegalStateException(e);
+            }
+        });
+
+        t.start();
+
+        Thread.sleep(50L);
+
+        queue.add(new EmbeddedTextMessage("A"));
+
+        t.join(5000L);
+
+        assertFalse(t.isAlive());
+        assertEquals("A", ((TextMessage)received[0]).getText());
+    }
+
+    @Test
+    public void receive_ReturnsNullWhenTheConsumerIsClosed() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer c = startedSession().createConsumer(queue);
+
+        Message[] received = new Message[] { new EmbeddedTextMessage("placeholder") };
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                received[0] = c.receive(0L);
+            }
+            catch(Exception e) {
+
+                throw new IllegalStateException(e);
+            }
+        });
+
+        t.start();
+
+        Thread.sleep(50L);
+
+        c.close();
+
+        t.join(5000L);
+
+        assertFalse(t.isAlive());
+        assertNull(received[0]);
+    }
+
+    @Test
+    public void receiveNoWait() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        MessageConsumer c = startedSession().createConsumer(queue);
+
+        assertNull(c.receiveNoWait());
+
+        queue.add(new EmbeddedTextMessage("A"));
+
+        assertEquals("A", ((TextMessage)c.receiveNoWait()).getText());
+    }
+
+    @Test
+    public void competingConsumers() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        Session session = startedSession();
+        MessageConsumer c = session.createConsumer(queue);
+        MessageConsumer c2 = session.createConsumer(queue);
+
+        queue.add(new EmbeddedTextMessage("A"));
+        queue.add(new EmbeddedTextMessage("B"));
+
+        assertEquals("A", ((TextMessage)c.receiveNoWait()).getText());
+        assertEquals("B", ((TextMessage)c2.receiveNoWait()).getText());
+
+        assertNull(c.receiveNoWait());
+        assertNull(c2.receiveNoWait());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static Session startedSession() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        connection.start();
+        return connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
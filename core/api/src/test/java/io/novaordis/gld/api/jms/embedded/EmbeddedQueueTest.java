@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.embedded;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Message;
+import javax.jms.TextMessage;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class EmbeddedQueueTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedQueueTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidCapacity() throws Exception {
+
+        try {
+
+            new EmbeddedQueue("test", 0);
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid capacity 0", msg);
+        }
+    }
+
+    @Test
+    public void addAndGet() throws Exception {
+
+        EmbeddedQueue q = new EmbeddedQueue("test");
+
+        assertEquals(EmbeddedDestination.UNBOUNDED, q.getCapacity());
+        assertTrue(q.isEmpty());
+
+        q.add(new EmbeddedTextMessage("A"));
+        q.add(new EmbeddedTextMessage("B"));
+
+        assertFalse(q.isEmpty());
+        assertEquals(2, q.size());
+
+        assertEquals("A", ((TextMessage)q.get(0L)).getText());
+        assertEquals("B", ((TextMessage)q.get(0L)).getText());
+
+        assertNull(q.get(0L));
+        assertTrue(q.isEmpty());
+        assertEquals(2L, q.getSentCount());
+    }
+
+    @Test
+    public void get_ReturnsAsSoonAsAMessageArrives() throws Exception {
+
+        EmbeddedQueue q = new EmbeddedQueue("test");
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                Thread.sleep(50L);
+            }
+            catch(InterruptedException e) {
+
+                return;
+            }
+
+            q.add(new EmbeddedTextMessage("A"));
+        });
+
+        t.start();
+
+        long t0 = System.currentTimeMillis();
+
+        Message m = q.get(10000L);
+
+        long t1 = System.currentTimeMillis();
+
+        assertEquals("A", ((TextMessage)m).getText());
+        assertTrue(t1 - t0 < 5000L);
+
+        t.join();
+    }
+
+    @Test
+    public void get_EmptyQueue_WaitsForTheTimeout() throws Exception {
+
+        EmbeddedQueue q = new EmbeddedQueue("test");
+
+        long t0 = System.currentTimeMillis();
+
+        assertNull(q.get(20L));
+
+        long t1 = System.currentTimeMillis();
+
+        assertTrue(t1 - t0 >= 20L);
+    }
+
+    @Test
+    public void boundedQueue_SenderBlocksWhileFull() throws Exception {
+
+        EmbeddedQueue q = new EmbeddedQueue("test", 1);
+
+        q.add(new EmbeddedTextMessage("A"));
+
+        CountDownLatch sent = new CountDownLatch(1);
+
+        Thread t = new Thread(() -> {
+
+            q.add(new EmbeddedTextMessage("B"));
+            sent.countDown();
+        });
+
+        t.start();
+
+        assertFalse(sent.await(50L, TimeUnit.MILLISECONDS));
+
+        assertEquals("A", ((TextMessage)q.get(0L)).getText());
+
+        assertTrue(sent.await(5000L, TimeUnit.MILLISECONDS));
+
+        assertEquals("B", ((TextMessage)q.get(0L)).getText());
+
+        t.join();
+    }
+
+    @Test
+    public void deliveryLatency() throws Exception {
+
+        EmbeddedQueue q = new EmbeddedQueue("test");
+        q.setDeliveryLatencyMs(50L);
+
+        long t0 = System.nanoTime();
+
+        q.add(new EmbeddedTextMessage("A"));
+
+        assertEquals("A", ((TextMessage)q.get(0L)).getText());
+
+        long t1 = System.nanoTime();
+
+        assertTrue(t1 - t0 >= 50000000L);
+    }
+
+    @Test
+    public void getMessagesSent_IsBounded() throws Exception {
+
+        EmbeddedQueue q = new EmbeddedQueue("test");
+
+        int count = MessageHistory.DEFAULT_CAPACITY + 5;
+
+        for(int i = 0; i < count; i ++) {
+
+            q.add(new EmbeddedTextMessage("" + i));
+        }
+
+        List<Message> sent = q.getMessagesSent();
+
+        assertEquals(MessageHistory.DEFAULT_CAPACITY, sent.size());
+        assertEquals("5", ((TextMessage)sent.get(0)).getText());
+        assertEquals("" + (count - 1), ((TextMessage)sent.get(sent.size() - 1)).getText());
+        assertEquals(count, q.getSentCount());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
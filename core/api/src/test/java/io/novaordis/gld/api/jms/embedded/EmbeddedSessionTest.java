@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.embedded;
+
+import org.junit.Test;
+
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class EmbeddedSessionTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void autoAcknowledge() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test", 1);
+        EmbeddedSession session = startedSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageConsumer c = session.createConsumer(queue);
+
+        queue.add(new EmbeddedTextMessage("A"));
+
+        Message m = c.receiveNoWait();
+
+        assertFalse(m.getJMSRedelivered());
+        assertEquals(0, session.getUnacknowledgedCount());
+
+        //
+        // the message was acknowledged, so it does not count against the capacity anymore
+        //
+
+        queue.add(new EmbeddedTextMessage("B"));
+
+        session.close();
+
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void clientAcknowledge() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        EmbeddedSession session = startedSession(false, Session.CLIENT_ACKNOWLEDGE);
+        MessageConsumer c = session.createConsumer(queue);
+
+        queue.add(new EmbeddedTextMessage("A"));
+        queue.add(new EmbeddedTextMessage("B"));
+
+        c.receiveNoWait();
+        Message m = c.receiveNoWait();
+
+        assertEquals(2, session.getUnacknowledgedCount());
+
+        //
+        // acknowledges all the messages consumed by the session
+        //
+
+        m.acknowledge();
+
+        assertEquals(0, session.getUnacknowledgedCount());
+
+        session.close();
+
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void clientAcknowledge_Recover() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        EmbeddedSession session = startedSession(false, Session.CLIENT_ACKNOWLEDGE);
+        MessageConsumer c = session.createConsumer(queue);
+
+        queue.add(new EmbeddedTextMessage("A"));
+        queue.add(new EmbeddedTextMessage("B"));
+        queue.add(new EmbeddedTextMessage("C"));
+
+        c.receiveNoWait();
+        c.receiveNoWait();
+
+        session.recover();
+
+        //
+        // the unacknowledged messages are redelivered in their original order, ahead of the rest
+        //
+
+        Message m = c.receiveNoWait();
+        assertEquals("A", ((TextMessage)m).getText());
+        assertTrue(m.getJMSRedelivered());
+
+        m = c.receiveNoWait();
+        assertEquals("B", ((TextMessage)m).getText());
+        assertTrue(m.getJMSRedelivered());
+
+        m = c.receiveNoWait();
+        assertEquals("C", ((TextMessage)m).getText());
+        assertFalse(m.getJMSRedelivered());
+    }
+
+    @Test
+    public void close_RedeliversTheUnacknowledgedMessages() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        EmbeddedSession session = startedSession(false, Session.CLIENT_ACKNOWLEDGE);
+        MessageConsumer c = session.createConsumer(queue);
+
+        queue.add(new EmbeddedTextMessage("A"));
+
+        c.receiveNoWait();
+
+        assertTrue(queue.isEmpty());
+
+        session.close();
+
+        assertFalse(queue.isEmpty());
+
+        EmbeddedSession session2 = startedSession(false, Session.AUTO_ACKNOWLEDGE);
+        Message m = session2.createConsumer(queue).receiveNoWait();
+
+        assertEquals("A", ((TextMessage)m).getText());
+        assertTrue(m.getJMSRedelivered());
+    }
+
+    @Test
+    public void transacted_SendsAreVisibleOnCommit() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        EmbeddedSession session = startedSession(true, Session.SESSION_TRANSACTED);
+        MessageProducer p = session.createProducer(queue);
+
+        p.send(new EmbeddedTextMessage("A"));
+        p.send(new EmbeddedTextMessage("B"));
+
+        assertTrue(queue.isEmpty());
+
+        session.commit();
+
+        assertEquals(2, queue.size());
+        assertEquals(1, session.getCommitCount());
+    }
+
+    @Test
+    public void transacted_Rollback() throws Exception {
+
+        EmbeddedQueue queue = new EmbeddedQueue("test");
+        EmbeddedQueue queue2 = new EmbeddedQueue("test2");
+        EmbeddedSession session = startedSession(true, Session.SESSION_TRANSACTED);
+        MessageConsumer c = session.createConsumer(queue);
+        MessageProducer p = session.createProducer(queue2);
+
+        queue.add(new EmbeddedTextMessage("A"));
+
+        c.receiveNoWait();
+        p.send(new EmbeddedTextMessage("B"));
+
+        session.rollback();
+
+        //
+        // the send is discarded and the consumed message is redelivered
+        //
+
+        assertTrue(queue2.isEmpty());
+
+        Message m = c.receiveNoWait();
+        assertEquals("A", ((TextMessage)m).getText());
+        assertTrue(m.getJMSRedelivered());
+
+        session.commit();
+
+        assertEquals(0, session.getUnacknowledgedCount());
+        assertNull(c.receiveNoWait());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static EmbeddedSession startedSession(boolean transacted, int acknowledgeMode) throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        connection.start();
+        return (EmbeddedSession)connection.createSession(transacted, acknowledgeMode);
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
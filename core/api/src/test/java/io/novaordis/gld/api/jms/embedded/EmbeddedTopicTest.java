@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.embedded;
+
+import org.junit.Test;
+
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class EmbeddedTopicTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void fanOut() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        connection.start();
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+        EmbeddedTopic topic = new EmbeddedTopic("test");
+
+        MessageConsumer c = session.createConsumer(topic);
+        MessageConsumer c2 = session.createConsumer(topic);
+
+        assertEquals(2, topic.getSubscriptionCount());
+
+        EmbeddedTextMessage m = new EmbeddedTextMessage("A");
+        topic.add(m);
+
+        TextMessage received = (TextMessage)c.receiveNoWait();
+        TextMessage received2 = (TextMessage)c2.receiveNoWait();
+
+        assertEquals("A", received.getText());
+        assertEquals("A", received2.getText());
+
+        //
+        // each subscriber gets its own copy
+        //
+
+        assertNotSame(received, received2);
+
+        assertNull(c.receiveNoWait());
+        assertNull(c2.receiveNoWait());
+    }
+
+    @Test
+    public void noSubscribers_TheMessageIsDropped() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        connection.start();
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+        EmbeddedTopic topic = new EmbeddedTopic("test");
+
+        topic.add(new EmbeddedTextMessage("A"));
+
+        assertEquals(1L, topic.getSentCount());
+
+        MessageConsumer c = session.createConsumer(topic);
+
+        assertNull(c.receiveNoWait());
+
+        topic.add(new EmbeddedTextMessage("B"));
+
+        assertEquals("B", ((TextMessage)c.receiveNoWait()).getText());
+    }
+
+    @Test
+    public void closingTheConsumerUnsubscribes() throws Exception {
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+        EmbeddedTopic topic = new EmbeddedTopic("test");
+
+        MessageConsumer c = session.createConsumer(topic);
+
+        assertEquals(1, topic.getSubscriptionCount());
+
+        c.close();
+
+        assertEquals(0, topic.getSubscriptionCount());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -17,19 +17,26 @@
 package io.novaordis.gld.api.jms.load;
 
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.LoadStrategyTest;
+import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.MockLoadConfiguration;
 import io.novaordis.gld.api.configuration.MockServiceConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.jms.Destination;
 import io.novaordis.gld.api.jms.MockJMSServiceConfiguration;
+import io.novaordis.gld.api.jms.operation.Commit;
+import io.novaordis.gld.api.jms.operation.JmsOperationBase;
 import io.novaordis.gld.api.service.ServiceType;
 import io.novaordis.utilities.UserErrorException;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.jms.DeliveryMode;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -73,6 +80,14 @@ public abstract class JMSLoadStrategyTest extends LoadStrategyTest {
         SessionPolicy sp = ls.getSessionPolicy();
         assertEquals(SessionPolicy.SESSION_PER_OPERATION, sp);
 
+        assertEquals(ProducerPolicy.PRODUCER_PER_OPERATION, ls.getProducerPolicy());
+        assertEquals(ConsumerPolicy.CONSUMER_PER_OPERATION, ls.getConsumerPolicy());
+
+        assertFalse(ls.isTransacted());
+        assertNull(ls.getTransactionSize());
+        assertNull(ls.getTransactionIntervalMs());
+        assertEquals(DeliveryMode.PERSISTENT, ls.getDeliveryMode());
+
         //
         // unlimited operations
         //
@@ -102,6 +117,8 @@ public abstract class JMSLoadStrategyTest extends LoadStrategyTest {
 
         assertEquals(ConnectionPolicy.CONNECTION_PER_RUN, s.getConnectionPolicy());
         assertEquals(SessionPolicy.SESSION_PER_OPERATION, s.getSessionPolicy());
+        assertEquals(ProducerPolicy.PRODUCER_PER_OPERATION, s.getProducerPolicy());
+        assertEquals(ConsumerPolicy.CONSUMER_PER_OPERATION, s.getConsumerPolicy());
 
         assertNull(s.getUsername());
         assertNull(s.getPassword());
@@ -243,6 +260,100 @@ public abstract class JMSLoadStrategyTest extends LoadStrategyTest {
         }
     }
 
+    @Test
+    public void init_ConnectionPool() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("connection-pool-4",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.CONNECTION_POLICY_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        s.init(msc, mlc);
+
+        assertEquals(ConnectionPolicy.CONNECTION_POOL, s.getConnectionPolicy());
+        assertEquals(4, s.getConnectionPoolSize());
+    }
+
+    @Test
+    public void init_ConnectionPoolWithoutSize() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("connection-pool",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.CONNECTION_POLICY_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("connection policy 'connection-pool' requires a pool size, for example 'connection-pool-4'",
+                    msg);
+        }
+    }
+
+    @Test
+    public void init_InvalidConnectionPoolSize() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("connection-pool-0",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.CONNECTION_POLICY_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid connection pool size: 0, must be a positive integer", msg);
+        }
+    }
+
+    @Test
+    public void init_ConnectionPerOperationNotSupported() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("connection-per-operation",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.CONNECTION_POLICY_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("connection policy 'connection-per-operation' is not supported", msg);
+        }
+    }
+
     @Test
     public void init_NonDefaultSessionPolicy() throws Exception {
 
@@ -286,6 +397,349 @@ public abstract class JMSLoadStrategyTest extends LoadStrategyTest {
         }
     }
 
+    @Test
+    public void init_PerThreadProducerAndConsumerPolicies() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("session-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.SESSION_POLICY_LABEL);
+        msc.set("producer-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.PRODUCER_POLICY_LABEL);
+        msc.set("consumer-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.CONSUMER_POLICY_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        s.init(msc, mlc);
+
+        assertEquals(ProducerPolicy.PRODUCER_PER_THREAD, s.getProducerPolicy());
+        assertEquals(ConsumerPolicy.CONSUMER_PER_THREAD, s.getConsumerPolicy());
+    }
+
+    @Test
+    public void init_InvalidProducerPolicy() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("no-such-producer-policy",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.PRODUCER_POLICY_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid producer policy 'no-such-producer-policy', valid options: 'producer-per-operation', 'producer-per-thread'", msg);
+        }
+    }
+
+    @Test
+    public void init_PerThreadProducerPolicyRequiresPerThreadSessionPolicy() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("producer-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.PRODUCER_POLICY_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("producer policy 'producer-per-thread' requires session policy 'session-per-thread'", msg);
+        }
+    }
+
+    @Test
+    public void init_PerThreadConsumerPolicyRequiresPerThreadSessionPolicy() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("consumer-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.CONSUMER_POLICY_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("consumer policy 'consumer-per-thread' requires session policy 'session-per-thread'", msg);
+        }
+    }
+
+    @Test
+    public void init_Transacted() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("session-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.SESSION_POLICY_LABEL);
+        msc.set(100, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_SIZE_LABEL);
+        msc.set("50ms",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_INTERVAL_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        s.init(msc, mlc);
+
+        assertTrue(s.isTransacted());
+        assertEquals(100, s.getTransactionSize().intValue());
+        assertEquals(50L, s.getTransactionIntervalMs().longValue());
+        assertTrue(s.getOperationTypes().contains(Commit.class));
+    }
+
+    @Test
+    public void init_TransactedRequiresPerThreadSessionPolicy() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set(100, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_SIZE_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("transacted sessions ('transaction-size', 'transaction-interval') require session policy " +
+                    "'session-per-thread'", msg);
+        }
+    }
+
+    @Test
+    public void init_InvalidTransactionSize() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set(0, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_SIZE_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'transaction-size' value: 0, must be a positive integer", msg);
+        }
+    }
+
+    @Test
+    public void init_InvalidTransactionInterval() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("blah",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_INTERVAL_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'transaction-interval': invalid duration: blah", msg);
+        }
+    }
+
+    @Test
+    public void init_NonPersistentDeliveryMode() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("non-persistent",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.DELIVERY_MODE_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        s.init(msc, mlc);
+
+        assertEquals(DeliveryMode.NON_PERSISTENT, s.getDeliveryMode());
+    }
+
+    @Test
+    public void init_InvalidDeliveryMode() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        msc.set("sometimes",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.DELIVERY_MODE_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+
+        try {
+
+            s.init(msc, mlc);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid delivery mode 'sometimes', valid options: 'persistent', 'non-persistent'", msg);
+        }
+    }
+
+    // next() ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void next_Transacted_CommitEveryNOperations() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        msc.set("session-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.SESSION_POLICY_LABEL);
+        msc.set(2, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_SIZE_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+        mlc.setOperations(3L);
+
+        s.init(msc, mlc);
+
+        JmsOperationBase o = (JmsOperationBase)s.next(null, null, false);
+        assertFalse(o instanceof Commit);
+        assertEquals(1, o.getTransactionMessageCount());
+
+        JmsOperationBase o2 = (JmsOperationBase)s.next(o, null, false);
+        assertFalse(o2 instanceof Commit);
+        assertEquals(2, o2.getTransactionMessageCount());
+
+        Commit c = (Commit)s.next(o2, null, false);
+        assertEquals(2, c.getMessageCount());
+
+        //
+        // a new transaction starts after the commit; the commits do not count against the number of operations
+        //
+
+        JmsOperationBase o3 = (JmsOperationBase)s.next(c, null, false);
+        assertFalse(o3 instanceof Commit);
+        assertEquals(1, o3.getTransactionMessageCount());
+
+        //
+        // the operations ran out, the last transaction is committed
+        //
+
+        Commit c2 = (Commit)s.next(o3, null, false);
+        assertEquals(1, c2.getMessageCount());
+
+        assertNull(s.next(c2, null, false));
+    }
+
+    @Test
+    public void next_Transacted_Context_CommitEveryNOperations() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategy s = getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        msc.set("session-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.SESSION_POLICY_LABEL);
+        msc.set(2, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_SIZE_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+        mlc.setOperations(5L);
+
+        s.init(msc, mlc);
+
+        //
+        // drive the strategy the way a runner does, with a forked context
+        //
+
+        LoadStrategyContext context = s.newContext();
+
+        //
+        // 'o' for a regular operation, 'C' for a commit
+        //
+
+        StringBuilder sequence = new StringBuilder();
+        Operation last = null;
+
+        while((last = s.next(context, last, null, false)) != null) {
+
+            sequence.append(last instanceof Commit ? 'C' : 'o');
+
+            if (last instanceof Commit) {
+
+                assertEquals(sequence.length() == 8 ? 1 : 2, ((Commit)last).getMessageCount());
+            }
+        }
+
+        assertEquals("ooCooCoC", sequence.toString());
+    }
+
+    @Test
+    public void isCommitDue_TransactionInterval() throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        JMSLoadStrategyBase s = (JMSLoadStrategyBase)getLoadStrategyToTest();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        msc.set("session-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.SESSION_POLICY_LABEL);
+        msc.set("100ms",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.TRANSACTION_INTERVAL_LABEL);
+
+        s.init(msc, new MockLoadConfiguration());
+
+        JmsOperationBase o = (JmsOperationBase)s.next(null, null, false);
+        long t0 = o.getTransactionStartNano();
+
+        assertFalse(s.isCommitDue(o, t0 + 99000000L));
+        assertTrue(s.isCommitDue(o, t0 + 100000000L));
+    }
+
     @Test
     public void init_NonNullUsername() throws Exception {
 
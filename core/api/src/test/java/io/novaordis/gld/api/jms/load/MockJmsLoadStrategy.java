@@ -20,6 +20,9 @@ import io.novaordis.gld.api.jms.Destination;
 import io.novaordis.gld.api.jms.Queue;
 import io.novaordis.gld.api.jms.embedded.EmbeddedJMSService;
 
+import javax.jms.DeliveryMode;
+import javax.jms.Session;
+
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 1/23/17
@@ -35,6 +38,9 @@ public class MockJMSLoadStrategy extends MockLoadStrategy implements JMSLoadStra
     private Destination destination;
 
     private SessionPolicy sessionPolicy;
+    private ProducerPolicy producerPolicy;
+    private ConsumerPolicy consumerPolicy;
+    private Integer transactionSize;
 
     private String username;
     private char[] password;
@@ -57,6 +63,8 @@ public class MockJMSLoadStrategy extends MockLoadStrategy implements JMSLoadStra
         //
 
         this.sessionPolicy = SessionPolicy.SESSION_PER_OPERATION;
+        this.producerPolicy = ProducerPolicy.PRODUCER_PER_OPERATION;
+        this.consumerPolicy = ConsumerPolicy.CONSUMER_PER_OPERATION;
 
         this.connectionFactoryName = EmbeddedJMSService.DEFAULT_CONNECTION_FACTORY_NAME;
     }
@@ -96,12 +104,60 @@ public class MockJMSLoadStrategy extends MockLoadStrategy implements JMSLoadStra
         return ConnectionPolicy.CONNECTION_PER_RUN;
     }
 
+    @Override
+    public int getConnectionPoolSize() {
+
+        return 1;
+    }
+
     @Override
     public SessionPolicy getSessionPolicy() {
 
         return sessionPolicy;
     }
 
+    @Override
+    public ProducerPolicy getProducerPolicy() {
+
+        return producerPolicy;
+    }
+
+    @Override
+    public ConsumerPolicy getConsumerPolicy() {
+
+        return consumerPolicy;
+    }
+
+    @Override
+    public boolean isTransacted() {
+
+        return transactionSize != null;
+    }
+
+    @Override
+    public Integer getTransactionSize() {
+
+        return transactionSize;
+    }
+
+    @Override
+    public Long getTransactionIntervalMs() {
+
+        return null;
+    }
+
+    @Override
+    public int getDeliveryMode() {
+
+        return DeliveryMode.PERSISTENT;
+    }
+
+    @Override
+    public int getAcknowledgeMode() {
+
+        return Session.AUTO_ACKNOWLEDGE;
+    }
+
     @Override
     public Long getRemainingOperations() {
         throw new RuntimeException("getRemainingOperations() NOT YET IMPLEMENTED");
@@ -114,6 +170,21 @@ public class MockJMSLoadStrategy extends MockLoadStrategy implements JMSLoadStra
         this.sessionPolicy = sessionPolicy;
     }
 
+    public void setProducerPolicy(ProducerPolicy producerPolicy) {
+
+        this.producerPolicy = producerPolicy;
+    }
+
+    public void setConsumerPolicy(ConsumerPolicy consumerPolicy) {
+
+        this.consumerPolicy = consumerPolicy;
+    }
+
+    public void setTransactionSize(Integer transactionSize) {
+
+        this.transactionSize = transactionSize;
+    }
+
     public void setConnectionFactoryName(String s) {
 
         this.connectionFactoryName = s;
@@ -18,6 +18,7 @@ package io.novaordis.gld.api.jms.load;
 
 import io.novaordis.gld.api.KeyProvider;
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
@@ -142,6 +143,19 @@ public class MockLoadStrategy implements LoadStrategy {
         started = false;
     }
 
+    @Override
+    public LoadStrategyContext newContext() {
+
+        return new LoadStrategyContext(this);
+    }
+
+    @Override
+    public Operation next(LoadStrategyContext context, Operation last, String lastWrittenKey,
+                          boolean runtimeShuttingDown) throws Exception {
+
+        return next(last, lastWrittenKey, runtimeShuttingDown);
+    }
+
     @Override
     public Operation next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown) throws Exception {
         throw new RuntimeException("next() NOT YET IMPLEMENTED");
@@ -183,6 +197,12 @@ public class MockLoadStrategy implements LoadStrategy {
         return "mock value";
     }
 
+    @Override
+    public byte[] computeValueBytes() {
+
+        return computeValue().getBytes();
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     @Override
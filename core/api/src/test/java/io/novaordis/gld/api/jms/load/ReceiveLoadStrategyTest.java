@@ -16,9 +16,23 @@
 
 package io.novaordis.gld.api.jms.load;
 
+import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.configuration.MockLoadConfiguration;
+import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.jms.MockJMSServiceConfiguration;
+import io.novaordis.gld.api.jms.operation.Deliver;
+import io.novaordis.gld.api.jms.operation.Receive;
+import io.novaordis.utilities.UserErrorException;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Session;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -28,6 +42,8 @@ public class ReceiveLoadStrategyTest extends JMSLoadStrategyTest {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
+    private static final Logger log = LoggerFactory.getLogger(ReceiveLoadStrategyTest.class);
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
@@ -45,6 +61,119 @@ public class ReceiveLoadStrategyTest extends JMSLoadStrategyTest {
         assertEquals(ReceiveLoadStrategy.NAME, s.getName());
     }
 
+    @Test
+    public void init_DefaultConsumerMode() throws Exception {
+
+        ReceiveLoadStrategy s = initialize(null);
+
+        assertFalse(s.isListenerMode());
+        assertTrue(s.getOperationTypes().contains(Receive.class));
+        assertFalse(s.getOperationTypes().contains(Deliver.class));
+        assertTrue(s.next(null, null, false) instanceof Receive);
+    }
+
+    @Test
+    public void init_ListenerMode_Defaults() throws Exception {
+
+        ReceiveLoadStrategy s = initialize("session-per-thread",
+                ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "listener");
+
+        assertTrue(s.isListenerMode());
+        assertEquals(ReceiveLoadStrategy.DEFAULT_PREFETCH, s.getPrefetch());
+        assertEquals(Session.AUTO_ACKNOWLEDGE, s.getAcknowledgeMode());
+        assertEquals(1, s.getAcknowledgeBatchSize());
+        assertEquals(1, s.getOperationTypes().size());
+        assertTrue(s.getOperationTypes().contains(Deliver.class));
+        assertTrue(s.next(null, null, false) instanceof Deliver);
+    }
+
+    @Test
+    public void init_ListenerMode_ClientAcknowledge() throws Exception {
+
+        ReceiveLoadStrategy s = initialize("session-per-thread",
+                ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "listener",
+                ReceiveLoadStrategy.PREFETCH_LABEL, 7,
+                ReceiveLoadStrategy.ACKNOWLEDGE_LABEL, "client",
+                ReceiveLoadStrategy.ACKNOWLEDGE_BATCH_SIZE_LABEL, 5);
+
+        assertEquals(7, s.getPrefetch());
+        assertEquals(Session.CLIENT_ACKNOWLEDGE, s.getAcknowledgeMode());
+        assertEquals(5, s.getAcknowledgeBatchSize());
+    }
+
+    @Test
+    public void init_ListenerMode_Transacted() throws Exception {
+
+        ReceiveLoadStrategy s = initialize("session-per-thread",
+                ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "listener",
+                ReceiveLoadStrategy.ACKNOWLEDGE_LABEL, "transacted",
+                ReceiveLoadStrategy.ACKNOWLEDGE_BATCH_SIZE_LABEL, 10);
+
+        assertEquals(Session.SESSION_TRANSACTED, s.getAcknowledgeMode());
+        assertEquals(10, s.getAcknowledgeBatchSize());
+
+        //
+        // the listener commits, not the load driver
+        //
+
+        assertFalse(s.isTransacted());
+    }
+
+    @Test
+    public void init_InvalidConsumerMode() throws Exception {
+
+        assertInitFails("invalid consumer mode 'push', valid options: 'receive', 'listener'",
+                "session-per-thread", ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "push");
+    }
+
+    @Test
+    public void init_PrefetchRequiresListenerMode() throws Exception {
+
+        assertInitFails("'prefetch' requires 'consumer-mode: listener'",
+                "session-per-thread", ReceiveLoadStrategy.PREFETCH_LABEL, 10);
+    }
+
+    @Test
+    public void init_ListenerModeRequiresPerThreadSessionPolicy() throws Exception {
+
+        assertInitFails("consumer mode 'listener' requires session policy 'session-per-thread'",
+                null, ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "listener");
+    }
+
+    @Test
+    public void init_ListenerModeExcludesTransactionSize() throws Exception {
+
+        assertInitFails("'transaction-size' and 'transaction-interval' cannot be used in consumer mode 'listener', " +
+                        "use 'acknowledge: transacted' instead",
+                "session-per-thread", ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "listener",
+                JMSLoadStrategy.TRANSACTION_SIZE_LABEL, 10);
+    }
+
+    @Test
+    public void init_InvalidPrefetch() throws Exception {
+
+        assertInitFails("invalid 'prefetch' value: 0, must be a positive integer",
+                "session-per-thread", ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "listener",
+                ReceiveLoadStrategy.PREFETCH_LABEL, 0);
+    }
+
+    @Test
+    public void init_InvalidAcknowledgeMode() throws Exception {
+
+        assertInitFails("invalid acknowledge mode 'sometimes', valid options: 'auto', 'dups-ok', 'client', " +
+                        "'transacted'",
+                "session-per-thread", ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "listener",
+                ReceiveLoadStrategy.ACKNOWLEDGE_LABEL, "sometimes");
+    }
+
+    @Test
+    public void init_AcknowledgeBatchSizeRequiresClientOrTransacted() throws Exception {
+
+        assertInitFails("'acknowledge-batch-size' requires 'acknowledge: client' or 'acknowledge: transacted'",
+                "session-per-thread", ReceiveLoadStrategy.CONSUMER_MODE_LABEL, "listener",
+                ReceiveLoadStrategy.ACKNOWLEDGE_BATCH_SIZE_LABEL, 10);
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -57,6 +186,49 @@ public class ReceiveLoadStrategyTest extends JMSLoadStrategyTest {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    /**
+     * @param sessionPolicy may be null.
+     * @param labelsAndValues load strategy configuration label/value pairs.
+     */
+    private ReceiveLoadStrategy initialize(String sessionPolicy, Object... labelsAndValues) throws Exception {
+
+        MockJMSServiceConfiguration msc = getCorrespondingServiceConfiguration();
+        ReceiveLoadStrategy s = new ReceiveLoadStrategy();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+
+        if (sessionPolicy != null) {
+
+            msc.set(sessionPolicy,
+                    ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.SESSION_POLICY_LABEL);
+        }
+
+        for(int i = 0; i < labelsAndValues.length; i += 2) {
+
+            msc.set(labelsAndValues[i + 1],
+                    ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, (String)labelsAndValues[i]);
+        }
+
+        s.init(msc, new MockLoadConfiguration());
+
+        return s;
+    }
+
+    private void assertInitFails(String expectedMessage, String sessionPolicy, Object... labelsAndValues)
+            throws Exception {
+
+        try {
+
+            initialize(sessionPolicy, labelsAndValues);
+            fail("should throw exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals(expectedMessage, msg);
+        }
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.load;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class SequenceTrackerTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceTrackerTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void track_NullProducerId() throws Exception {
+
+        SequenceTracker t = new SequenceTracker();
+
+        try {
+
+            t.track(null, 0L);
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("null producer ID", msg);
+        }
+    }
+
+    @Test
+    public void track_InOrder() throws Exception {
+
+        SequenceTracker t = new SequenceTracker();
+
+        assertEquals(0L, t.track("A", 0L));
+        assertEquals(0L, t.track("A", 1L));
+        assertEquals(0L, t.track("A", 2L));
+        assertEquals(1, t.getProducerCount());
+    }
+
+    @Test
+    public void track_FirstMessageStartsTheSequence() throws Exception {
+
+        SequenceTracker t = new SequenceTracker();
+
+        //
+        // we joined an ongoing stream
+        //
+
+        assertEquals(0L, t.track("A", 10L));
+        assertEquals(0L, t.track("A", 11L));
+    }
+
+    @Test
+    public void track_Gap() throws Exception {
+
+        SequenceTracker t = new SequenceTracker();
+
+        assertEquals(0L, t.track("A", 0L));
+        assertEquals(2L, t.track("A", 3L));
+        assertEquals(0L, t.track("A", 4L));
+    }
+
+    @Test
+    public void track_Reordered() throws Exception {
+
+        SequenceTracker t = new SequenceTracker();
+
+        assertEquals(0L, t.track("A", 0L));
+        assertEquals(1L, t.track("A", 2L));
+        assertEquals(SequenceTracker.REORDERED, t.track("A", 1L));
+
+        //
+        // redelivery
+        //
+
+        assertEquals(SequenceTracker.REORDERED, t.track("A", 2L));
+        assertEquals(0L, t.track("A", 3L));
+    }
+
+    @Test
+    public void track_ProducersAreIndependent() throws Exception {
+
+        SequenceTracker t = new SequenceTracker();
+
+        assertEquals(0L, t.track("A", 0L));
+        assertEquals(0L, t.track("B", 0L));
+        assertEquals(0L, t.track("A", 1L));
+        assertEquals(4L, t.track("B", 5L));
+        assertEquals(2, t.getProducerCount());
+    }
+
+    @Test
+    public void track_NoGapDetection() throws Exception {
+
+        SequenceTracker t = new SequenceTracker(false);
+
+        assertFalse(t.isGapDetection());
+
+        assertEquals(0L, t.track("A", 0L));
+        assertEquals(0L, t.track("A", 3L));
+        assertEquals(0L, t.track("A", 7L));
+
+        //
+        // reorders are still detected
+        //
+
+        assertEquals(SequenceTracker.REORDERED, t.track("A", 5L));
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
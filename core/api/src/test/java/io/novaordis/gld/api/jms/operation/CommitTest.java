@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.operation;
+
+import io.novaordis.gld.api.jms.MockJMSService;
+import io.novaordis.gld.api.jms.embedded.EmbeddedConnection;
+import io.novaordis.gld.api.jms.embedded.EmbeddedSession;
+import io.novaordis.gld.api.jms.embedded.TestableSession;
+import io.novaordis.gld.api.jms.load.ConnectionPolicy;
+import io.novaordis.gld.api.jms.load.MockJMSLoadStrategy;
+import io.novaordis.gld.api.jms.load.SessionPolicy;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class CommitTest extends JmsOperationTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void messageCount() throws Exception {
+
+        MockJMSLoadStrategy ms = new MockJMSLoadStrategy();
+
+        Send s = new Send(ms);
+        s.joinTransaction(null);
+
+        Send s2 = new Send(ms);
+        s2.joinTransaction(s);
+
+        assertEquals(1, s.getTransactionMessageCount());
+        assertEquals(2, s2.getTransactionMessageCount());
+        assertEquals(s.getTransactionStartNano(), s2.getTransactionStartNano());
+
+        Commit c = new Commit(ms, s2);
+        assertEquals(2, c.getMessageCount());
+    }
+
+    @Test
+    public void perform() throws Exception {
+
+        MockJMSLoadStrategy ms = new MockJMSLoadStrategy();
+        ms.setTransactionSize(2);
+
+        MockJMSService service = new MockJMSService();
+        service.setConnectionPolicy(ConnectionPolicy.CONNECTION_PER_RUN);
+        service.setSessionPolicy(SessionPolicy.SESSION_PER_THREAD);
+        service.setTransacted(true);
+
+        EmbeddedConnection connection = new EmbeddedConnection();
+        service.setConnection(connection);
+
+        Send s = new Send(ms);
+        s.joinTransaction(null);
+        s.perform(service);
+
+        Commit c = new Commit(ms, s);
+
+        assertFalse(c.wasPerformed());
+
+        c.perform(service);
+
+        assertTrue(c.wasPerformed());
+        assertTrue(c.wasSuccessful());
+
+        //
+        // the send and the commit were performed in the same transacted session
+        //
+
+        List<TestableSession> sessions = connection.getCreatedSessions();
+        assertEquals(1, sessions.size());
+
+        EmbeddedSession session = (EmbeddedSession)sessions.get(0);
+        assertTrue(session.getTransacted());
+        assertEquals(1, session.getCommitCount());
+        assertFalse(session.isClosed());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected Commit getOperationToTest(String key) throws Exception {
+
+        MockJMSLoadStrategy ms = new MockJMSLoadStrategy();
+        Commit c = new Commit(ms, null);
+        c.setId(key);
+        return c;
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
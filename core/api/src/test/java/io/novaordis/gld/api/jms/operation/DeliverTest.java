@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.jms.operation;
+
+import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.configuration.MockLoadConfiguration;
+import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.jms.Listener;
+import io.novaordis.gld.api.jms.MessageGapException;
+import io.novaordis.gld.api.jms.MessageReorderedException;
+import io.novaordis.gld.api.jms.MockJMSService;
+import io.novaordis.gld.api.jms.MockJMSServiceConfiguration;
+import io.novaordis.gld.api.jms.Queue;
+import io.novaordis.gld.api.jms.embedded.EmbeddedQueue;
+import io.novaordis.gld.api.jms.embedded.EmbeddedTextMessage;
+import io.novaordis.gld.api.jms.load.ConnectionPolicy;
+import io.novaordis.gld.api.jms.load.JMSLoadStrategy;
+import io.novaordis.gld.api.jms.load.MockJMSLoadStrategy;
+import io.novaordis.gld.api.jms.load.MockReceiveLoadStrategy;
+import io.novaordis.gld.api.jms.load.ReceiveLoadStrategy;
+import io.novaordis.gld.api.jms.load.SessionPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Session;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class DeliverTest extends JmsOperationTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(DeliverTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private ReceiveLoadStrategy ls;
+    private MockJMSService service;
+    private EmbeddedQueue queue;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp() throws Exception {
+
+        ls = new ReceiveLoadStrategy();
+        ls.setTimeoutMs(1000L);
+
+        MockJMSServiceConfiguration msc = new MockJMSServiceConfiguration();
+        msc.set(ls.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        msc.set("session-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.SESSION_POLICY_LABEL);
+        msc.set("listener",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, ReceiveLoadStrategy.CONSUMER_MODE_LABEL);
+        ls.init(msc, new MockLoadConfiguration());
+
+        //
+        // installing the load strategy installs its policies, so we override them afterwards
+        //
+
+        service = new MockJMSService();
+        service.setLoadStrategy(new MockJMSLoadStrategy());
+        service.setConnectionPolicy(ConnectionPolicy.CONNECTION_PER_RUN);
+        service.setSessionPolicy(SessionPolicy.SESSION_PER_THREAD);
+        service.start();
+
+        queue = (EmbeddedQueue)service.resolveDestination(new Queue("/jms/test-queue"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        service.stop();
+    }
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void perform() throws Exception {
+
+        queue.add(stampedMessage("b3snB3", System.currentTimeMillis() - 50L, "producer-1", 0L));
+
+        Deliver d = (Deliver)ls.next(null, null, false);
+
+        long t0 = System.nanoTime();
+
+        d.perform(service);
+
+        long t1 = System.nanoTime();
+
+        assertTrue(d.wasPerformed());
+        assertTrue(d.wasSuccessful());
+        assertEquals("b3snB3", d.getPayload());
+        assertNotNull(d.getMessage());
+
+        //
+        // the origin is the send time, translated into nanoTime() units
+        //
+
+        Long origin = d.getOriginNano();
+        assertNotNull(origin);
+        assertTrue(t0 - origin >= 40000000L);
+        assertTrue(origin <= t1);
+    }
+
+    @Test
+    public void perform_NotStamped() throws Exception {
+
+        queue.add(new EmbeddedTextMessage("b3snB3"));
+
+        Deliver d = (Deliver)ls.next(null, null, false);
+
+        d.perform(service);
+
+        assertTrue(d.wasSuccessful());
+        assertEquals("b3snB3", d.getPayload());
+        assertNull(d.getOriginNano());
+    }
+
+    @Test
+    public void perform_Timeout() throws Exception {
+
+        ls.setTimeoutMs(20L);
+
+        Deliver d = (Deliver)ls.next(null, null, false);
+
+        d.perform(service);
+
+        assertTrue(d.wasPerformed());
+        assertTrue(d.wasSuccessful());
+        assertNull(d.getMessage());
+        assertNull(d.getPayload());
+        assertNull(d.getOriginNano());
+    }
+
+    @Test
+    public void perform_Gap() throws Exception {
+
+        long now = System.currentTimeMillis();
+
+        queue.add(stampedMessage("A", now, "producer-1", 0L));
+        queue.add(stampedMessage("B", now, "producer-1", 3L));
+
+        Deliver d = (Deliver)ls.next(null, null, false);
+        d.perform(service);
+        assertTrue(d.wasSuccessful());
+
+        Deliver d2 = (Deliver)ls.next(d, null, false);
+
+        try {
+
+            d2.perform(service);
+            fail("should throw exception");
+        }
+        catch(MessageGapException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("2 message(s) from producer producer-1 missing before message 3", msg);
+        }
+
+        assertTrue(d2.wasPerformed());
+        assertEquals("B", d2.getPayload());
+
+        //
+        // the latency is still recorded
+        //
+
+        assertNotNull(d2.getOriginNano());
+    }
+
+    @Test
+    public void perform_Reordered() throws Exception {
+
+        long now = System.currentTimeMillis();
+
+        queue.add(stampedMessage("A", now, "producer-1", 1L));
+        queue.add(stampedMessage("B", now, "producer-1", 0L));
+
+        Deliver d = (Deliver)ls.next(null, null, false);
+        d.perform(service);
+        assertTrue(d.wasSuccessful());
+
+        Deliver d2 = (Deliver)ls.next(d, null, false);
+
+        try {
+
+            d2.perform(service);
+            fail("should throw exception");
+        }
+        catch(MessageReorderedException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("message 0 from producer producer-1 arrived out of order", msg);
+        }
+    }
+
+    @Test
+    public void theListenerIsReused() throws Exception {
+
+        long now = System.currentTimeMillis();
+
+        queue.add(stampedMessage("A", now, "producer-1", 0L));
+        queue.add(stampedMessage("B", now, "producer-1", 1L));
+
+        Deliver d = (Deliver)ls.next(null, null, false);
+        d.perform(service);
+
+        Deliver d2 = (Deliver)ls.next(d, null, false);
+        d2.perform(service);
+
+        assertEquals("A", d.getPayload());
+        assertEquals("B", d2.getPayload());
+        assertTrue(d2.wasSuccessful());
+    }
+
+    @Test
+    public void topic_SeveralConsumerThreads() throws Exception {
+
+        ReceiveLoadStrategy topicLs = listenerModeLoadStrategy(JMSLoadStrategy.TOPIC_LABEL, 3);
+
+        assertTrue(topicLs.isGapDetection());
+
+        //
+        // every subscriber receives every message, and it is not reported as reordered, or lost
+        //
+
+        List<List<Integer>> sequences = new ArrayList<>();
+
+        for(int i = 0; i < 3; i ++) {
+
+            sequences.add(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        }
+
+        List<Throwable> failures = consume(topicLs, sequences);
+
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void topic_SeveralConsumerThreads_GapDetectedByTheSubscriber() throws Exception {
+
+        ReceiveLoadStrategy topicLs = listenerModeLoadStrategy(JMSLoadStrategy.TOPIC_LABEL, 2);
+
+        List<List<Integer>> sequences = new ArrayList<>();
+        sequences.add(Arrays.asList(0, 1, 2, 3));
+        sequences.add(Arrays.asList(0, 1, 3));
+
+        List<Throwable> failures = consume(topicLs, sequences);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof MessageGapException);
+    }
+
+    @Test
+    public void queue_SeveralCompetingConsumerThreads() throws Exception {
+
+        ReceiveLoadStrategy queueLs = listenerModeLoadStrategy(JMSLoadStrategy.QUEUE_LABEL, 2);
+
+        assertFalse(queueLs.isGapDetection());
+
+        //
+        // the consumers share the messages, so each of them sees "gaps" that are not reported
+        //
+
+        List<List<Integer>> sequences = new ArrayList<>();
+        sequences.add(Arrays.asList(0, 2, 3, 6, 8));
+        sequences.add(Arrays.asList(1, 4, 5, 7, 9));
+
+        List<Throwable> failures = consume(queueLs, sequences);
+
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void queue_SeveralCompetingConsumerThreads_ReorderDetectedByTheConsumer() throws Exception {
+
+        ReceiveLoadStrategy queueLs = listenerModeLoadStrategy(JMSLoadStrategy.QUEUE_LABEL, 2);
+
+        List<List<Integer>> sequences = new ArrayList<>();
+        sequences.add(Arrays.asList(0, 3, 2));
+        sequences.add(Arrays.asList(1, 4));
+
+        List<Throwable> failures = consume(queueLs, sequences);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof MessageReorderedException);
+    }
+
+    @Test
+    public void queue_SingleConsumerThread() throws Exception {
+
+        ReceiveLoadStrategy queueLs = listenerModeLoadStrategy(JMSLoadStrategy.QUEUE_LABEL, 1);
+
+        assertTrue(queueLs.isGapDetection());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected Deliver getOperationToTest(String key) throws Exception {
+
+        MockReceiveLoadStrategy ms = new MockReceiveLoadStrategy();
+
+        Deliver d = new Deliver(ms);
+        d.setId(key);
+
+        return d;
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static ReceiveLoadStrategy listenerModeLoadStrategy(String destinationLabel, int threadCount)
+            throws Exception {
+
+        ReceiveLoadStrategy s = new ReceiveLoadStrategy();
+        s.setTimeoutMs(1000L);
+
+        MockJMSServiceConfiguration msc = new MockJMSServiceConfiguration();
+        msc.set(s.getName(), ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, LoadStrategy.NAME_LABEL);
+        msc.set(null, ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.QUEUE_LABEL);
+        msc.set("/jms/test", ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, destinationLabel);
+        msc.set("session-per-thread",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, JMSLoadStrategy.SESSION_POLICY_LABEL);
+        msc.set("listener",
+                ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, ReceiveLoadStrategy.CONSUMER_MODE_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+        mlc.setThreadCount(threadCount);
+
+        s.init(msc, mlc);
+
+        return s;
+    }
+
+    /**
+     * Each sequence is delivered to its own consumer thread, which forks its own context from the load strategy and
+     * takes the messages with Deliver operations, concurrently with the other threads.
+     *
+     * @return the exceptions thrown by the operations.
+     */
+    private static List<Throwable> consume(ReceiveLoadStrategy s, List<List<Integer>> sequences) throws Exception {
+
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for(List<Integer> sequence: sequences) {
+
+            Thread t = new Thread(() -> {
+
+                try {
+
+                    Listener l = new Listener(null, null, null, sequence.size(), Session.AUTO_ACKNOWLEDGE, 1);
+
+                    for(int i: sequence) {
+
+                        l.onMessage(stampedMessage("" + i, System.currentTimeMillis(), "producer-1", i));
+                    }
+
+                    LoadStrategyContext context = s.newContext();
+
+                    start.await();
+
+                    Operation last = null;
+
+                    for(int i = 0; i < sequence.size(); i ++) {
+
+                        Deliver d = (Deliver)s.next(context, last, null, false);
+
+                        try {
+
+                            d.perform(l);
+                        }
+                        catch(MessageGapException | MessageReorderedException e) {
+
+                            failures.add(e);
+                        }
+
+                        last = d;
+                    }
+                }
+                catch(Exception e) {
+
+                    failures.add(e);
+                }
+            });
+
+            threads.add(t);
+            t.start();
+        }
+
+        start.countDown();
+
+        for(Thread t: threads) {
+
+            t.join(5000L);
+        }
+
+        return failures;
+    }
+
+    private static EmbeddedTextMessage stampedMessage(String text, long sendTime, String producerId, long sequence)
+            throws Exception {
+
+        EmbeddedTextMessage m = new EmbeddedTextMessage(text);
+        m.setLongProperty(Send.SEND_TIME_PROPERTY, sendTime);
+        m.setStringProperty(Send.PRODUCER_ID_PROPERTY, producerId);
+        m.setLongProperty(Send.SEQUENCE_PROPERTY, sequence);
+        return m;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
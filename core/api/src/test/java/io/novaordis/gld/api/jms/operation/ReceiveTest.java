@@ -60,7 +60,7 @@ public class ReceiveTest extends JmsOperationTest {
         msc.setLoadStrategyName(ls.getName());
         ls.init(msc, new MockLoadConfiguration());
 
-        Receive receive = ls.next(null, null, false);
+        Receive receive = (Receive)ls.next(null, null, false);
 
         MockJMSService service = new MockJMSService();
         service.setConnectionPolicy(ConnectionPolicy.CONNECTION_PER_RUN);
@@ -91,7 +91,7 @@ public class ReceiveTest extends JmsOperationTest {
         msc.setLoadStrategyName(ls.getName());
         ls.init(msc, new MockLoadConfiguration());
 
-        Receive receive = ls.next(null, null, false);
+        Receive receive = (Receive)ls.next(null, null, false);
 
         MockJMSService service = new MockJMSService();
         service.setConnectionPolicy(ConnectionPolicy.CONNECTION_PER_RUN);
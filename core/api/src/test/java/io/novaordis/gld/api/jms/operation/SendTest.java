@@ -32,7 +32,9 @@ import javax.jms.TextMessage;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -61,7 +63,7 @@ public class SendTest extends JmsOperationTest {
         msc.setLoadStrategyName(ls.getName());
         ls.init(msc, new MockLoadConfiguration());
 
-        Send send = ls.next(null, null, false);
+        Send send = (Send)ls.next(null, null, false);
 
         assertNull(send.getKey());
 
@@ -84,6 +86,69 @@ public class SendTest extends JmsOperationTest {
         assertEquals(key, id);
     }
 
+    @Test
+    public void perform_MessageIsStamped() throws Exception {
+
+        SendLoadStrategy ls = new SendLoadStrategy();
+        MockJMSServiceConfiguration msc = new MockJMSServiceConfiguration();
+        msc.setLoadStrategyName(ls.getName());
+        ls.init(msc, new MockLoadConfiguration());
+
+        Send send = (Send)ls.next(null, null, false);
+        Send send2 = (Send)ls.next(send, null, false);
+
+        MockJMSService service = new MockJMSService();
+        service.setConnectionPolicy(ConnectionPolicy.CONNECTION_PER_RUN);
+        service.setSessionPolicy(SessionPolicy.SESSION_PER_OPERATION);
+        service.setConnection(new EmbeddedConnection());
+
+        long t0 = System.currentTimeMillis();
+
+        send.perform(service);
+        send2.perform(service);
+
+        long t1 = System.currentTimeMillis();
+
+        EmbeddedQueue q = (EmbeddedQueue)service.resolveDestination(new Queue("/jms/test-queue"));
+
+        TextMessage m = (TextMessage)q.get(0);
+        TextMessage m2 = (TextMessage)q.get(0);
+
+        long sendTime = m.getLongProperty(Send.SEND_TIME_PROPERTY);
+        assertTrue(t0 <= sendTime);
+        assertTrue(sendTime <= t1);
+
+        assertEquals(send.getProducerId(), m.getStringProperty(Send.PRODUCER_ID_PROPERTY));
+        assertEquals(send.getProducerId(), m2.getStringProperty(Send.PRODUCER_ID_PROPERTY));
+        assertEquals(0L, m.getLongProperty(Send.SEQUENCE_PROPERTY));
+        assertEquals(1L, m2.getLongProperty(Send.SEQUENCE_PROPERTY));
+    }
+
+    @Test
+    public void sequence() throws Exception {
+
+        MockJMSLoadStrategy ms = new MockJMSLoadStrategy();
+
+        Send s = new Send(ms);
+        Send s2 = new Send(ms, s);
+        Send s3 = new Send(ms, s2);
+
+        assertNotNull(s.getProducerId());
+        assertEquals(s.getProducerId(), s2.getProducerId());
+        assertEquals(s.getProducerId(), s3.getProducerId());
+        assertEquals(0L, s.getSequence());
+        assertEquals(1L, s2.getSequence());
+        assertEquals(2L, s3.getSequence());
+
+        //
+        // a new sequence
+        //
+
+        Send s4 = new Send(ms);
+        assertNotEquals(s.getProducerId(), s4.getProducerId());
+        assertEquals(0L, s4.getSequence());
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class HotspotKeyProviderTest extends KeySpaceKeyProviderTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(HotspotKeyProviderTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidHotKeyPercentage() throws Exception {
+
+        try {
+
+            new HotspotKeyProvider(KEY_SPACE_SIZE, KEY_SIZE, 0d, 80d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_InvalidHotOperationPercentage() throws Exception {
+
+        try {
+
+            new HotspotKeyProvider(KEY_SPACE_SIZE, KEY_SIZE, 20d, 101d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void hotKeyCount() throws Exception {
+
+        HotspotKeyProvider p = getKeyProviderToTest();
+
+        assertEquals(200, p.getHotKeyCount());
+        assertEquals(HotspotKeyProvider.DEFAULT_HOT_KEY_PERCENTAGE, p.getHotKeyPercentage(), 0.0d);
+        assertEquals(HotspotKeyProvider.DEFAULT_HOT_OPERATION_PERCENTAGE, p.getHotOperationPercentage(), 0.0001d);
+
+        //
+        // the hot set contains at least one key
+        //
+
+        assertEquals(1, new HotspotKeyProvider(10, KEY_SIZE, 0.1d, 50d).getHotKeyCount());
+    }
+
+    @Test
+    public void distribution() throws Exception {
+
+        HotspotKeyProvider p = getKeyProviderToTest();
+
+        assertEquals(KeyDistribution.HOTSPOT, p.getDistribution());
+
+        int invocations = 1000000;
+        int[] counts = histogram(p, invocations);
+
+        int hot = 0;
+
+        for(int i = 0; i < p.getHotKeyCount(); i ++) {
+
+            hot += counts[i];
+        }
+
+        assertEquals(0.8d, (double)hot / invocations, 0.01d);
+
+        //
+        // all cold keys are accessed
+        //
+
+        for(int i = p.getHotKeyCount(); i < KEY_SPACE_SIZE; i ++) {
+
+            assertTrue(counts[i] > 0);
+        }
+    }
+
+    @Test
+    public void distribution_AllKeysHot() throws Exception {
+
+        HotspotKeyProvider p = new HotspotKeyProvider(KEY_SPACE_SIZE, KEY_SIZE, 100d, 10d);
+
+        int[] counts = histogram(p, 100000);
+
+        for(int c: counts) {
+
+            assertTrue(c > 0);
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected HotspotKeyProvider getKeyProviderToTest() throws Exception {
+
+        return new HotspotKeyProvider(
+                KEY_SPACE_SIZE, KEY_SIZE,
+                HotspotKeyProvider.DEFAULT_HOT_KEY_PERCENTAGE, HotspotKeyProvider.DEFAULT_HOT_OPERATION_PERCENTAGE);
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import io.novaordis.gld.api.KeyProvider;
+import io.novaordis.gld.api.configuration.MockLoadConfiguration;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class KeyProviderFactoryTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(KeyProviderFactoryTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void build_NoDistribution() throws Exception {
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration();
+        mlc.setOperations(10L);
+
+        KeyProvider p = KeyProviderFactory.build(new HashMap<>(), mlc);
+
+        RandomKeyProvider rkp = (RandomKeyProvider)p;
+        assertEquals(MockLoadConfiguration.DEFAULT_KEY_SIZE, rkp.getKeySize());
+        assertEquals(10L, rkp.getRemainingKeyCount().longValue());
+        assertFalse(rkp.isStarted());
+    }
+
+    @Test
+    public void build_Uniform_Defaults() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "uniform");
+
+        UniformKeyProvider p = (UniformKeyProvider)KeyProviderFactory.build(m, new MockLoadConfiguration());
+
+        assertEquals(KeyProviderFactory.DEFAULT_KEY_SPACE_SIZE, p.getKeySpaceSize());
+        assertEquals(MockLoadConfiguration.DEFAULT_KEY_SIZE, p.getKeySize());
+        assertFalse(p.isStarted());
+        assertTrue(m.isEmpty());
+    }
+
+    @Test
+    public void build_Zipfian() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "zipfian");
+        m.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, 5000);
+        m.put(KeyProviderFactory.THETA_LABEL, 0.5);
+
+        ZipfianKeyProvider p = (ZipfianKeyProvider)KeyProviderFactory.build(m, new MockLoadConfiguration());
+
+        assertEquals(5000, p.getKeySpaceSize());
+        assertEquals(0.5d, p.getTheta(), 0.0d);
+        assertTrue(m.isEmpty());
+    }
+
+    @Test
+    public void build_Hotspot() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "hotspot");
+        m.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, 100);
+        m.put(KeyProviderFactory.HOT_KEYS_LABEL, 10);
+        m.put(KeyProviderFactory.HOT_OPERATIONS_LABEL, 90);
+
+        HotspotKeyProvider p = (HotspotKeyProvider)KeyProviderFactory.build(m, new MockLoadConfiguration());
+
+        assertEquals(10, p.getHotKeyCount());
+        assertEquals(90d, p.getHotOperationPercentage(), 0.0001d);
+        assertTrue(m.isEmpty());
+    }
+
+    @Test
+    public void build_Latest() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "latest");
+
+        LatestKeyProvider p = (LatestKeyProvider)KeyProviderFactory.build(m, new MockLoadConfiguration());
+
+        assertEquals(ZipfianKeyProvider.DEFAULT_THETA, p.getTheta(), 0.0d);
+    }
+
+    @Test
+    public void build_InapplicableOptionsAreNotConsumed() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "uniform");
+        m.put(KeyProviderFactory.THETA_LABEL, 0.5);
+
+        KeyProviderFactory.build(m, new MockLoadConfiguration());
+
+        assertEquals(1, m.size());
+        assertEquals(0.5, m.get(KeyProviderFactory.THETA_LABEL));
+    }
+
+    @Test
+    public void build_InvalidDistribution() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "something");
+
+        try {
+
+            KeyProviderFactory.build(m, new MockLoadConfiguration());
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("invalid key distribution 'something'"));
+        }
+    }
+
+    @Test
+    public void build_InvalidKeySpaceSize() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "uniform");
+        m.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, -1);
+
+        try {
+
+            KeyProviderFactory.build(m, new MockLoadConfiguration());
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("invalid 'key-space-size' value: -1"));
+        }
+    }
+
+    @Test
+    public void build_InvalidTheta() throws Exception {
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "zipfian");
+        m.put(KeyProviderFactory.THETA_LABEL, "high");
+
+        try {
+
+            KeyProviderFactory.build(m, new MockLoadConfiguration());
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("'theta' not a number", msg);
+        }
+
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "zipfian");
+        m.put(KeyProviderFactory.THETA_LABEL, 1.5);
+
+        try {
+
+            KeyProviderFactory.build(m, new MockLoadConfiguration());
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("invalid 'theta' value: 1.5"));
+        }
+    }
+
+    @Test
+    public void build_KeySizeTooSmallForTheKeySpace() throws Exception {
+
+        //
+        // MockLoadConfiguration keys are 7 characters long, enough for 62^7 keys; a 1-character key cannot
+        // accommodate 100 keys
+        //
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration() {
+
+            @Override
+            public Integer getKeySize() {
+
+                return 1;
+            }
+        };
+
+        Map<String, Object> m = new HashMap<>();
+        m.put(KeyProviderFactory.KEY_DISTRIBUTION_LABEL, "uniform");
+        m.put(KeyProviderFactory.KEY_SPACE_SIZE_LABEL, 100);
+
+        try {
+
+            KeyProviderFactory.build(m, mlc);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("too small"));
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import io.novaordis.gld.api.KeyProviderTest;
+import io.novaordis.gld.api.RandomContentGenerator;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public abstract class KeySpaceKeyProviderTest extends KeyProviderTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(KeySpaceKeyProviderTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    public static final int KEY_SPACE_SIZE = 1000;
+    public static final int KEY_SIZE = 10;
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void indexDigits() throws Exception {
+
+        assertEquals(1, KeySpaceKeyProvider.indexDigits(1));
+        assertEquals(1, KeySpaceKeyProvider.indexDigits(62));
+        assertEquals(2, KeySpaceKeyProvider.indexDigits(63));
+        assertEquals(2, KeySpaceKeyProvider.indexDigits(62 * 62));
+        assertEquals(3, KeySpaceKeyProvider.indexDigits(62 * 62 + 1));
+        assertEquals(6, KeySpaceKeyProvider.indexDigits(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void identity() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+
+        assertEquals(KEY_SPACE_SIZE, p.getKeySpaceSize());
+        assertEquals(KEY_SIZE, p.getKeySize());
+        assertNull(p.getRemainingKeyCount());
+        assertNotNull(p.getDistribution());
+    }
+
+    @Test
+    public void keys_UniqueOfTheRightSize() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+        p.start();
+
+        Set<String> keys = new HashSet<>();
+
+        for(int i = 0; i < KEY_SPACE_SIZE; i ++) {
+
+            String key = p.getKey(i);
+            assertEquals(KEY_SIZE, key.length());
+            keys.add(key);
+        }
+
+        assertEquals(KEY_SPACE_SIZE, keys.size());
+    }
+
+    @Test
+    public void keys_Deterministic() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+        p.start();
+
+        KeySpaceKeyProvider p2 = getKeyProviderToTest();
+        p2.start();
+
+        for(int i = 0; i < KEY_SPACE_SIZE; i ++) {
+
+            assertEquals(p.getKey(i), p2.getKey(i));
+        }
+    }
+
+    @Test
+    public void start_KeySpaceIsNotCountedAsGeneratedContent() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+
+        long before = RandomContentGenerator.getGeneratedByteCount();
+
+        p.start();
+
+        long after = RandomContentGenerator.getGeneratedByteCount();
+
+        //
+        // the random section of each key would have been counted otherwise
+        //
+
+        int randomSectionLength = KEY_SIZE - KeySpaceKeyProvider.indexDigits(KEY_SPACE_SIZE);
+        assertTrue(after - before < KEY_SPACE_SIZE * randomSectionLength);
+    }
+
+    @Test
+    public void getKey_NotStarted() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+
+        try {
+
+            p.getKey(0);
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void next_KeysBelongToTheKeySpace() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+        p.start();
+
+        Set<String> keySpace = new HashSet<>();
+
+        for(int i = 0; i < KEY_SPACE_SIZE; i ++) {
+
+            keySpace.add(p.getKey(i));
+        }
+
+        for(int i = 0; i < 10000; i ++) {
+
+            assertTrue(keySpace.contains(p.next()));
+            assertTrue(keySpace.contains(p.nextToWrite()));
+        }
+    }
+
+    @Test
+    public void setKeyCount() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+        p.setKeyCount(3L);
+        assertEquals(3L, p.getRemainingKeyCount().longValue());
+
+        p.start();
+
+        assertNotNull(p.next());
+        assertNotNull(p.nextToWrite());
+        assertEquals(1L, p.getRemainingKeyCount().longValue());
+        assertNotNull(p.next());
+        assertEquals(0L, p.getRemainingKeyCount().longValue());
+        assertNull(p.next());
+        assertNull(p.nextToWrite());
+        assertEquals(0L, p.getRemainingKeyCount().longValue());
+    }
+
+    @Test
+    public void setKeyCount_InstanceStarted() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+        p.start();
+
+        try {
+
+            p.setKeyCount(1L);
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void nextToWrite_NotStarted() throws Exception {
+
+        KeySpaceKeyProvider p = getKeyProviderToTest();
+
+        try {
+
+            p.nextToWrite();
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected abstract KeySpaceKeyProvider getKeyProviderToTest() throws Exception;
+
+    /**
+     * @return the number of times each index was selected by next(), over the given number of invocations.
+     */
+    protected static int[] histogram(KeySpaceKeyProvider p, int invocations) throws Exception {
+
+        p.start();
+
+        int[] counts = new int[p.getKeySpaceSize()];
+
+        for(int i = 0; i < invocations; i ++) {
+
+            counts[p.nextIndex()] ++;
+        }
+
+        return counts;
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class LatestKeyProviderTest extends KeySpaceKeyProviderTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(LatestKeyProviderTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidTheta() throws Exception {
+
+        try {
+
+            new LatestKeyProvider(KEY_SPACE_SIZE, KEY_SIZE, 0d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void nextToWrite_Sequential() throws Exception {
+
+        LatestKeyProvider p = new LatestKeyProvider(3, KEY_SIZE, ZipfianKeyProvider.DEFAULT_THETA);
+        p.start();
+
+        assertEquals(KeyDistribution.LATEST, p.getDistribution());
+        assertEquals(0L, p.getWriteCount());
+
+        assertEquals(p.getKey(0), p.nextToWrite());
+        assertEquals(p.getKey(1), p.nextToWrite());
+        assertEquals(p.getKey(2), p.nextToWrite());
+
+        //
+        // wrap around
+        //
+
+        assertEquals(p.getKey(0), p.nextToWrite());
+        assertEquals(4L, p.getWriteCount());
+    }
+
+    @Test
+    public void distribution_ReadsFavorTheLatestWrites() throws Exception {
+
+        LatestKeyProvider p = getKeyProviderToTest();
+        p.start();
+
+        for(int i = 0; i < 500; i ++) {
+
+            p.nextToWrite();
+        }
+
+        //
+        // the most recently written key has index 499
+        //
+
+        int invocations = 100000;
+        int[] counts = new int[KEY_SPACE_SIZE];
+
+        for(int i = 0; i < invocations; i ++) {
+
+            counts[p.nextIndex()] ++;
+        }
+
+        assertTrue(counts[499] > counts[498]);
+        assertTrue(counts[498] > counts[400]);
+        assertTrue(counts[499] > counts[500]);
+
+        double expected = invocations / ZipfianGenerator.zeta(KEY_SPACE_SIZE, ZipfianKeyProvider.DEFAULT_THETA);
+        assertEquals(expected, counts[499], expected * 0.1);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected LatestKeyProvider getKeyProviderToTest() throws Exception {
+
+        return new LatestKeyProvider(KEY_SPACE_SIZE, KEY_SIZE, ZipfianKeyProvider.DEFAULT_THETA);
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
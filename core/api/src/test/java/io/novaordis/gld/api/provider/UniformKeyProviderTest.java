@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class UniformKeyProviderTest extends KeySpaceKeyProviderTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(UniformKeyProviderTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidKeySpaceSize() throws Exception {
+
+        try {
+
+            new UniformKeyProvider(0, 10);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_KeySizeTooSmall() throws Exception {
+
+        //
+        // 1000 keys need two base-62 digits
+        //
+
+        try {
+
+            new UniformKeyProvider(1000, 1);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("at least 2"));
+        }
+    }
+
+    @Test
+    public void keySizeEqualsIndexDigits() throws Exception {
+
+        UniformKeyProvider p = new UniformKeyProvider(62, 1);
+        p.start();
+
+        assertEquals("0", p.getKey(0));
+        assertEquals("z", p.getKey(61));
+    }
+
+    @Test
+    public void distribution() throws Exception {
+
+        UniformKeyProvider p = getKeyProviderToTest();
+
+        assertEquals(KeyDistribution.UNIFORM, p.getDistribution());
+
+        int[] counts = histogram(p, 1000000);
+
+        //
+        // the expected count is 1000 for each key
+        //
+
+        for(int c: counts) {
+
+            assertTrue(c > 700);
+            assertTrue(c < 1300);
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected UniformKeyProvider getKeyProviderToTest() throws Exception {
+
+        return new UniformKeyProvider(KEY_SPACE_SIZE, KEY_SIZE);
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
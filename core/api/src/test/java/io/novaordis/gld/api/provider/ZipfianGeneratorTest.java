@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class ZipfianGeneratorTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(ZipfianGeneratorTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void zeta() throws Exception {
+
+        assertEquals(1d, ZipfianGenerator.zeta(1, 0.5d), 0.0d);
+        assertEquals(1d + 1d / Math.sqrt(2d), ZipfianGenerator.zeta(2, 0.5d), 0.000001d);
+    }
+
+    @Test
+    public void constructor_InvalidItemCount() throws Exception {
+
+        try {
+
+            new ZipfianGenerator(0, 0.5d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_InvalidTheta() throws Exception {
+
+        try {
+
+            new ZipfianGenerator(10, 0d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+
+        try {
+
+            new ZipfianGenerator(10, 1d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void next_Boundaries() throws Exception {
+
+        ZipfianGenerator g = new ZipfianGenerator(1000, 0.99d);
+
+        assertEquals(1000, g.getN());
+        assertEquals(0.99d, g.getTheta(), 0.0d);
+
+        assertEquals(0, g.next(0d));
+
+        int last = g.next(Math.nextDown(1d));
+        assertTrue(last >= 0);
+        assertTrue(last < 1000);
+    }
+
+    @Test
+    public void next_SmallItemCounts() throws Exception {
+
+        Random random = new Random(0L);
+
+        ZipfianGenerator one = new ZipfianGenerator(1, 0.5d);
+        ZipfianGenerator two = new ZipfianGenerator(2, 0.5d);
+
+        int[] counts = new int[2];
+        int invocations = 100000;
+
+        for(int i = 0; i < invocations; i ++) {
+
+            assertEquals(0, one.next(random.nextDouble()));
+            counts[two.next(random.nextDouble())] ++;
+        }
+
+        //
+        // p(0) = 1 / (1 + 1/sqrt(2))
+        //
+
+        double expected = invocations / ZipfianGenerator.zeta(2, 0.5d);
+        assertEquals(expected, counts[0], expected * 0.02);
+    }
+
+    @Test
+    public void next_Distribution() throws Exception {
+
+        Random random = new Random(0L);
+
+        int n = 100;
+        double theta = 0.8d;
+        ZipfianGenerator g = new ZipfianGenerator(n, theta);
+
+        int[] counts = new int[n];
+        int invocations = 1000000;
+
+        for(int i = 0; i < invocations; i ++) {
+
+            counts[g.next(random.nextDouble())] ++;
+        }
+
+        double zetaN = ZipfianGenerator.zeta(n, theta);
+
+        //
+        // the algorithm is exact for the first two values, and approximate for the rest
+        //
+
+        for(int i = 0; i < 2; i ++) {
+
+            double expected = invocations / Math.pow(i + 1, theta) / zetaN;
+            assertEquals(expected, counts[i], expected * 0.02);
+        }
+
+        for(int i = 1; i < 10; i ++) {
+
+            assertTrue(counts[i - 1] > counts[i]);
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.provider;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class ZipfianKeyProviderTest extends KeySpaceKeyProviderTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(ZipfianKeyProviderTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidTheta() throws Exception {
+
+        try {
+
+            new ZipfianKeyProvider(KEY_SPACE_SIZE, KEY_SIZE, 1d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void distribution() throws Exception {
+
+        ZipfianKeyProvider p = getKeyProviderToTest();
+
+        assertEquals(KeyDistribution.ZIPFIAN, p.getDistribution());
+        assertEquals(ZipfianKeyProvider.DEFAULT_THETA, p.getTheta(), 0.0d);
+
+        int invocations = 1000000;
+        int[] counts = histogram(p, invocations);
+
+        //
+        // the most popular key gets 1/zeta(n, theta) of the operations
+        //
+
+        double expected = invocations / ZipfianGenerator.zeta(KEY_SPACE_SIZE, ZipfianKeyProvider.DEFAULT_THETA);
+        assertEquals(expected, counts[0], expected * 0.05);
+
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[10]);
+        assertTrue(counts[10] > counts[500]);
+
+        //
+        // the first 10% of the keys get the majority of the operations
+        //
+
+        int head = 0;
+
+        for(int i = 0; i < KEY_SPACE_SIZE / 10; i ++) {
+
+            head += counts[i];
+        }
+
+        assertTrue(head > invocations / 2);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    @Override
+    protected ZipfianKeyProvider getKeyProviderToTest() throws Exception {
+
+        return new ZipfianKeyProvider(KEY_SPACE_SIZE, KEY_SIZE, ZipfianKeyProvider.DEFAULT_THETA);
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler;
+
+import io.novaordis.gld.api.MockSamplerOperation;
+import io.novaordis.gld.api.Operation;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class AsyncSamplingConsumerTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncSamplingConsumerTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_NullDelegate() throws Exception {
+
+        try {
+
+            new AsyncSamplingConsumer(null);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_InvalidQueueCapacity() throws Exception {
+
+        try {
+
+            new AsyncSamplingConsumer(new MockSamplingConsumer(), 0);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void consume_DeliveredInOrder_StopDrainsAndStopsTheDelegate() throws Exception {
+
+        MockSamplingConsumer msc = new MockSamplingConsumer();
+        AsyncSamplingConsumer c = new AsyncSamplingConsumer(msc);
+
+        assertEquals(AsyncSamplingConsumer.DEFAULT_QUEUE_CAPACITY, c.getQueueCapacity());
+
+        SamplingInterval si = samplingInterval(1000L);
+        SamplingInterval si2 = samplingInterval(2000L);
+        SamplingInterval si3 = samplingInterval(3000L);
+
+        c.consume(si);
+        c.consume(si2, si3);
+
+        c.stop();
+
+        List<SamplingInterval> delivered = msc.getSamplingIntervals();
+
+        assertEquals(3, delivered.size());
+        assertEquals(si, delivered.get(0));
+        assertEquals(si2, delivered.get(1));
+        assertEquals(si3, delivered.get(2));
+        assertTrue(msc.wasStopped());
+    }
+
+    @Test
+    public void consume_DoesNotBlock_DropsWhenQueueIsFull() throws Exception {
+
+        BlockingSamplingConsumer bsc = new BlockingSamplingConsumer();
+        AsyncSamplingConsumer c = new AsyncSamplingConsumer(bsc, 1);
+
+        // occupies the consumer thread
+        c.consume(samplingInterval(1000L));
+        assertTrue(bsc.consuming.await(5, TimeUnit.SECONDS));
+
+        // fills the queue
+        c.consume(samplingInterval(2000L));
+        assertEquals(1, c.getPendingCount());
+
+        // dropped, does not block
+        c.consume(samplingInterval(3000L), samplingInterval(4000L));
+
+        assertEquals(2L, c.getDroppedIntervalCount());
+
+        bsc.release.countDown();
+
+        c.stop();
+
+        assertEquals(2, bsc.consumed.size());
+        assertEquals(1000L, bsc.consumed.get(0).getStartMs());
+        assertEquals(2000L, bsc.consumed.get(1).getStartMs());
+        assertTrue(bsc.stopped);
+    }
+
+    @Test
+    public void lag() throws Exception {
+
+        BlockingSamplingConsumer bsc = new BlockingSamplingConsumer();
+        AsyncSamplingConsumer c = new AsyncSamplingConsumer(bsc);
+
+        assertEquals(0L, c.getMaxLagNanoAndReset());
+
+        c.consume(samplingInterval(1000L));
+        assertTrue(bsc.consuming.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(50L);
+
+        bsc.release.countDown();
+
+        c.stop();
+
+        long lagNano = c.getMaxLagNanoAndReset();
+
+        log.info("lag " + lagNano + " ns");
+
+        assertTrue(lagNano >= TimeUnit.MILLISECONDS.toNanos(50L));
+
+        // read and reset
+        assertEquals(0L, c.getMaxLagNanoAndReset());
+    }
+
+    @Test
+    public void droppedIntervalCountAndLag_NotSharedAcrossInstances() throws Exception {
+
+        BlockingSamplingConsumer bsc = new BlockingSamplingConsumer();
+        AsyncSamplingConsumer c = new AsyncSamplingConsumer(bsc, 1);
+
+        MockSamplingConsumer msc = new MockSamplingConsumer();
+        AsyncSamplingConsumer c2 = new AsyncSamplingConsumer(msc, 1);
+
+        c.consume(samplingInterval(1000L));
+        assertTrue(bsc.consuming.await(5, TimeUnit.SECONDS));
+        c.consume(samplingInterval(2000L));
+
+        // dropped
+        c.consume(samplingInterval(3000L));
+
+        assertEquals(1L, c.getDroppedIntervalCount());
+        assertEquals(0L, c2.getDroppedIntervalCount());
+
+        Thread.sleep(20L);
+
+        bsc.release.countDown();
+
+        c.stop();
+
+        c2.consume(samplingInterval(1000L));
+        c2.stop();
+
+        assertEquals(1, msc.getSamplingIntervals().size());
+
+        long lagNano = c.getMaxLagNanoAndReset();
+        long lagNano2 = c2.getMaxLagNanoAndReset();
+
+        log.info("lag " + lagNano + " ns, " + lagNano2 + " ns");
+
+        assertTrue(lagNano >= TimeUnit.MILLISECONDS.toNanos(20L));
+        assertTrue(lagNano2 < lagNano);
+    }
+
+    @Test
+    public void failingDelegate_DoesNotStopTheDelivery() throws Exception {
+
+        final MockSamplingConsumer msc = new MockSamplingConsumer();
+
+        SamplingConsumer failing = new SamplingConsumer() {
+
+            private boolean failed;
+
+            @Override
+            public void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+                if (!failed) {
+
+                    failed = true;
+                    throw new Exception("SYNTHETIC");
+                }
+
+                msc.consume(samplingIntervals);
+            }
+
+            @Override
+            public void stop() {
+
+                msc.stop();
+            }
+        };
+
+        AsyncSamplingConsumer c = new AsyncSamplingConsumer(failing);
+
+        c.consume(samplingInterval(1000L));
+        c.consume(samplingInterval(2000L));
+
+        c.stop();
+
+        assertEquals(1, msc.getSamplingIntervals().size());
+        assertEquals(2000L, msc.getSamplingIntervals().get(0).getStartMs());
+        assertTrue(msc.wasStopped());
+    }
+
+    @Test
+    public void stop_Timeout() throws Exception {
+
+        BlockingSamplingConsumer bsc = new BlockingSamplingConsumer();
+        AsyncSamplingConsumer c = new AsyncSamplingConsumer(bsc);
+        c.setStopTimeoutMs(100L);
+
+        c.consume(samplingInterval(1000L));
+        c.consume(samplingInterval(2000L));
+
+        assertTrue(bsc.consuming.await(5, TimeUnit.SECONDS));
+
+        long t0 = System.currentTimeMillis();
+
+        // the delegate never completes, the stop must not block indefinitely
+        c.stop();
+
+        assertTrue(System.currentTimeMillis() - t0 < 5000L);
+        assertTrue(bsc.stopped);
+        assertTrue(bsc.consumed.isEmpty());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static SamplingInterval samplingInterval(long startMs) {
+
+        return new SamplingIntervalImpl(
+                startMs, 1000L, Collections.<Class<? extends Operation>>singleton(MockSamplerOperation.class));
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    /**
+     * Blocks in consume() until released.
+     */
+    private static class BlockingSamplingConsumer implements SamplingConsumer {
+
+        private final CountDownLatch consuming = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<SamplingInterval> consumed = new CopyOnWriteArrayList<>();
+        private volatile boolean stopped;
+
+        @Override
+        public void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+            consuming.countDown();
+
+            try {
+
+                release.await();
+            }
+            catch(InterruptedException e) {
+
+                return;
+            }
+
+            Collections.addAll(consumed, samplingIntervals);
+        }
+
+        @Override
+        public void stop() {
+
+            stopped = true;
+        }
+    }
+}
@@ -24,7 +24,10 @@ import org.slf4j.LoggerFactory;
 
 import java.net.BindException;
 import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -269,6 +272,235 @@ public abstract class CounterTest
         assertEquals(2L, cv.getSuccessCumulatedDurationNano());
     }
 
+    // coordinated omission correction --------------------------------------------------------------------------------
+
+    @Test
+    public void t0PrecedesIntendedT0() throws Exception {
+
+        Counter c = getCounterToTest(MockOperation.class);
+
+        try {
+            c.update(0L, 10L, 9L, 11L);
+            fail("should fail because t0 precedes the intended t0");
+        }
+        catch(IllegalArgumentException e) {
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void responseTime_ClosedLoop() throws Exception {
+
+        Counter c = getCounterToTest(MockOperation.class);
+
+        c.update(0L, 10L, 11L);
+        c.update(1L, 10L, 12L);
+
+        CounterValues cv = c.getCounterValuesAndReset();
+
+        assertEquals(2, cv.getSuccessCount());
+        assertEquals(3L, cv.getSuccessCumulatedDurationNano());
+        assertEquals(3L, cv.getSuccessCumulatedResponseTimeNano());
+    }
+
+    @Test
+    public void responseTime_OpenLoop() throws Exception {
+
+        Counter c = getCounterToTest(MockOperation.class);
+
+        //
+        // the first operation started on time and stalled for 100 ns, the next two were scheduled during the
+        // stall and they were started late
+        //
+
+        c.update(0L, 0L, 0L, 100L);
+        c.update(0L, 10L, 100L, 101L);
+        c.update(0L, 20L, 101L, 102L);
+
+        CounterValues cv = c.getCounterValuesAndReset();
+
+        assertEquals(3, cv.getSuccessCount());
+        assertEquals(100L + 1L + 1L, cv.getSuccessCumulatedDurationNano());
+        assertEquals(100L + 91L + 82L, cv.getSuccessCumulatedResponseTimeNano());
+
+        CounterValues cv2 = c.getCounterValuesAndReset();
+
+        assertEquals(0, cv2.getSuccessCount());
+        assertEquals(0L, cv2.getSuccessCumulatedDurationNano());
+        assertEquals(0L, cv2.getSuccessCumulatedResponseTimeNano());
+    }
+
+    // key count -------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void keyCount() throws Exception {
+
+        Counter c = getCounterToTest(MockOperation.class);
+
+        //
+        // a single-key operation, two bulk operations and a failed bulk operation, whose keys are not counted
+        //
+
+        c.update(0L, 0L, 0L, 1L);
+        c.update(0L, 0L, 0L, 1L, 10);
+        c.update(0L, 0L, 0L, 1L, 5);
+        c.update(0L, 0L, 0L, 1L, 20, new SocketException());
+
+        CounterValues cv = c.getCounterValuesAndReset();
+
+        assertEquals(3L, cv.getSuccessCount());
+        assertEquals(16L, cv.getSuccessKeyCount());
+        assertEquals(1L, cv.getFailureCount());
+
+        CounterValues cv2 = c.getCounterValuesAndReset();
+
+        assertEquals(0L, cv2.getSuccessCount());
+        assertEquals(0L, cv2.getSuccessKeyCount());
+    }
+
+    @Test
+    public void keyCount_SingleKeyOperations() throws Exception {
+
+        Counter c = getCounterToTest(MockOperation.class);
+
+        c.update(0L, 0L, 1L);
+        c.update(0L, 0L, 0L, 1L, 1);
+
+        CounterValues cv = c.getCounterValuesAndReset();
+
+        assertEquals(2L, cv.getSuccessCount());
+        assertEquals(2L, cv.getSuccessKeyCount());
+    }
+
+    @Test
+    public void keyCount_Invalid() throws Exception {
+
+        Counter c = getCounterToTest(MockOperation.class);
+
+        try {
+
+            c.update(0L, 0L, 0L, 1L, 0);
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid key count 0", msg);
+        }
+    }
+
+    // latency distribution -------------------------------------------------------------------------------------------
+
+    @Test
+    public void responseTimePercentiles() throws Exception {
+
+        Counter c = getCounterToTest(MockOperation.class);
+
+        for(long i = 1; i <= 100; i ++) {
+
+            c.update(0L, 0L, 0L, i * 1000L);
+        }
+
+        // failures do not count towards the distribution
+        c.update(0L, 0L, 0L, 1000000000L, new SocketException());
+
+        CounterValues cv = c.getCounterValuesAndReset();
+
+        assertEquals(100, cv.getSuccessCount());
+        assertEquals(50000d, cv.getSuccessResponseTimePercentileNano(50), 500d);
+        assertEquals(99000d, cv.getSuccessResponseTimePercentileNano(99), 990d);
+        assertEquals(100000L, cv.getSuccessMaxResponseTimeNano());
+
+        CounterValues cv2 = c.getCounterValuesAndReset();
+
+        assertEquals(0L, cv2.getSuccessResponseTimePercentileNano(50));
+        assertEquals(0L, cv2.getSuccessMaxResponseTimeNano());
+    }
+
+    // concurrency -----------------------------------------------------------------------------------------------------
+
+    @Test
+    public void concurrentUpdates_NoUpdateIsLost() throws Exception {
+
+        final Counter c = getCounterToTest(MockOperation.class);
+
+        int threadCount = 16;
+        final int updatesPerThread = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+
+        for(int i = 0; i < threadCount; i ++) {
+
+            Thread t = new Thread(() -> {
+
+                try {
+
+                    start.await();
+                }
+                catch(InterruptedException e) {
+
+                    return;
+                }
+
+                for(int j = 0; j < updatesPerThread; j ++) {
+
+                    if (j % 10 == 0) {
+
+                        c.update(0L, 0L, 0L, 3L, new SocketException());
+                    }
+                    else {
+
+                        c.update(0L, 0L, 1L, 3L);
+                    }
+                }
+            });
+
+            threads.add(t);
+            t.start();
+        }
+
+        start.countDown();
+
+        //
+        // read concurrently with the updates, the values read must add up
+        //
+
+        long successes = 0L;
+        long successDuration = 0L;
+        long successResponseTime = 0L;
+        long failures = 0L;
+
+        while(threads.stream().anyMatch(Thread::isAlive)) {
+
+            CounterValues cv = c.getCounterValuesAndReset();
+            successes += cv.getSuccessCount();
+            successDuration += cv.getSuccessCumulatedDurationNano();
+            successResponseTime += cv.getSuccessCumulatedResponseTimeNano();
+            failures += cv.getFailureCount();
+        }
+
+        for(Thread t: threads) {
+
+            t.join();
+        }
+
+        CounterValues cv = c.getCounterValuesAndReset();
+        successes += cv.getSuccessCount();
+        successDuration += cv.getSuccessCumulatedDurationNano();
+        successResponseTime += cv.getSuccessCumulatedResponseTimeNano();
+        failures += cv.getFailureCount();
+
+        long expectedSuccesses = threadCount * updatesPerThread * 9L / 10;
+        long expectedFailures = threadCount * updatesPerThread / 10L;
+
+        assertEquals(expectedSuccesses, successes);
+        assertEquals(expectedSuccesses * 2, successDuration);
+        assertEquals(expectedSuccesses * 3, successResponseTime);
+        assertEquals(expectedFailures, failures);
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
@@ -26,7 +26,10 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class CounterValuesImplTest extends CounterValuesTest
 {
@@ -71,6 +74,82 @@ public class CounterValuesImplTest extends CounterValuesTest
         assertEquals(0L, cv.getFailureCumulatedDurationNano(IOException.class));
     }
 
+    @Test
+    public void noHistogram() throws Exception
+    {
+        CounterValuesImpl cv = new CounterValuesImpl(1L, 2L);
+
+        assertNull(cv.getSuccessResponseTimeHistogram());
+        assertEquals(0L, cv.getSuccessResponseTimePercentileNano(99));
+        assertEquals(0L, cv.getSuccessMaxResponseTimeNano());
+    }
+
+    @Test
+    public void keyCount_DefaultsToSuccessCount() throws Exception
+    {
+        CounterValuesImpl cv = new CounterValuesImpl(3L, 4L);
+
+        assertEquals(3L, cv.getSuccessKeyCount());
+    }
+
+    @Test
+    public void keyCount() throws Exception
+    {
+        CounterValuesImpl cv = new CounterValuesImpl(3L, 30L, 4L, 5L, null, null);
+
+        assertEquals(3L, cv.getSuccessCount());
+        assertEquals(30L, cv.getSuccessKeyCount());
+
+        cv.incrementWith(new CounterValuesImpl(2L, 6L));
+
+        assertEquals(5L, cv.getSuccessCount());
+        assertEquals(32L, cv.getSuccessKeyCount());
+    }
+
+    @Test
+    public void keyCount_SmallerThanSuccessCount() throws Exception
+    {
+        try
+        {
+            new CounterValuesImpl(3L, 2L, 4L, 5L, null, null);
+            fail("should throw exception");
+        }
+        catch(IllegalArgumentException e)
+        {
+            String msg = e.getMessage();
+            assertEquals("key count 2 smaller than success count 3", msg);
+        }
+    }
+
+    @Test
+    public void incrementWith_Histograms() throws Exception
+    {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(10L);
+
+        CounterValuesImpl cv = new CounterValuesImpl();
+        cv.incrementWith(new CounterValuesImpl(1L, 10L, 10L, h, null));
+
+        assertEquals(10L, cv.getSuccessMaxResponseTimeNano());
+
+        // the argument's histogram is not shared
+        assertNotSame(h, cv.getSuccessResponseTimeHistogram());
+
+        LatencyHistogram h2 = new LatencyHistogram();
+        h2.record(20L);
+        h2.record(30L);
+
+        cv.incrementWith(new CounterValuesImpl(2L, 50L, 50L, h2, null));
+
+        assertEquals(3L, cv.getSuccessCount());
+        assertEquals(60L, cv.getSuccessCumulatedResponseTimeNano());
+        assertEquals(3L, cv.getSuccessResponseTimeHistogram().getTotalCount());
+        assertEquals(20L, cv.getSuccessResponseTimePercentileNano(50));
+        assertEquals(30L, cv.getSuccessMaxResponseTimeNano());
+
+        assertEquals(1L, h.getTotalCount());
+    }
+
     @Test
     public void aggregatedValues() throws Exception
     {
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.novaordis.gld.api.sampler;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/11/17
+ */
+public class LatencyHistogramTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyHistogramTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void empty() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        assertEquals(0L, h.getTotalCount());
+        assertEquals(0L, h.getMaxValue());
+        assertEquals(0L, h.getValueAtPercentile(50));
+        assertEquals(0L, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void invalidPercentile() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        try {
+
+            h.getValueAtPercentile(100.1);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void countsIndex_LowestAndHighestEquivalentValues() throws Exception {
+
+        //
+        // small values are tracked exactly
+        //
+
+        for(long v = 0; v < LatencyHistogram.SUB_BUCKET_COUNT; v ++) {
+
+            int i = LatencyHistogram.countsIndex(v);
+            assertEquals(v, LatencyHistogram.lowestEquivalentValue(i));
+            assertEquals(v, LatencyHistogram.highestEquivalentValue(i));
+        }
+
+        //
+        // large values are tracked within 1/64
+        //
+
+        Random r = new Random(17L);
+
+        for(int j = 0; j < 100000; j ++) {
+
+            long v = (long)(r.nextDouble() * LatencyHistogram.HIGHEST_TRACKABLE_VALUE);
+
+            int i = LatencyHistogram.countsIndex(v);
+            long lowest = LatencyHistogram.lowestEquivalentValue(i);
+            long highest = LatencyHistogram.highestEquivalentValue(i);
+
+            assertTrue(lowest <= v);
+            assertTrue(v <= highest);
+            assertTrue((double)(highest - lowest) / v < 1d / 64);
+        }
+    }
+
+    @Test
+    public void percentiles() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        for(long i = 1; i <= 10000; i ++) {
+
+            h.record(i * 1000L);
+        }
+
+        assertEquals(10000L, h.getTotalCount());
+        assertEquals(10000L * 1000L, h.getMaxValue());
+
+        assertEquals(5000000d, h.getValueAtPercentile(50), 5000000d / 64);
+        assertEquals(9000000d, h.getValueAtPercentile(90), 9000000d / 64);
+        assertEquals(9900000d, h.getValueAtPercentile(99), 9900000d / 64);
+        assertEquals(9990000d, h.getValueAtPercentile(99.9), 9990000d / 64);
+        assertEquals(10000000L, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void percentile_NeverExceedsMax() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        h.record(1000001L);
+
+        assertEquals(1000001L, h.getValueAtPercentile(50));
+        assertEquals(1000001L, h.getMaxValue());
+    }
+
+    @Test
+    public void valuesLargerThanTheHighestTrackableValue() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        long v = LatencyHistogram.HIGHEST_TRACKABLE_VALUE * 2;
+
+        h.record(v);
+
+        assertEquals(1L, h.getTotalCount());
+        assertEquals(v, h.getMaxValue());
+        assertTrue(h.getValueAtPercentile(50) <= v);
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        h.record(-1L);
+
+        assertEquals(1L, h.getTotalCount());
+        assertEquals(0L, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void addCopyAndReset() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(10L);
+        h.record(20L);
+
+        LatencyHistogram h2 = new LatencyHistogram();
+        h2.record(30L);
+
+        h.add(h2);
+
+        assertEquals(3L, h.getTotalCount());
+        assertEquals(30L, h.getMaxValue());
+        assertEquals(20L, h.getValueAtPercentile(50));
+
+        // the argument was not modified
+        assertEquals(1L, h2.getTotalCount());
+
+        LatencyHistogram copy = h.copy();
+
+        h.reset();
+
+        assertEquals(0L, h.getTotalCount());
+        assertEquals(0L, h.getMaxValue());
+        assertEquals(0L, h.getValueAtPercentile(99));
+
+        assertEquals(3L, copy.getTotalCount());
+        assertEquals(30L, copy.getMaxValue());
+    }
+
+    @Test
+    public void totalValue() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0L, h.getTotalValue());
+
+        //
+        // the sum is exact, regardless of the sub-bucket precision
+        //
+
+        h.record(1000001L);
+        h.record(2000003L);
+        assertEquals(3000004L, h.getTotalValue());
+
+        LatencyHistogram h2 = new LatencyHistogram();
+        h2.record(5L);
+        h.add(h2);
+        assertEquals(3000009L, h.getTotalValue());
+        assertEquals(3000009L, h.copy().getTotalValue());
+
+        h.reset();
+        assertEquals(0L, h.getTotalValue());
+    }
+
+    @Test
+    public void bucketIterationAndFromBucketCounts() throws Exception {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        assertEquals(-1, h.nextNonZeroIndex(0));
+        assertEquals(0, h.getNonZeroBucketCount());
+
+        Random r = new Random(7L);
+
+        for(int i = 0; i < 10000; i ++) {
+
+            h.record(1000L + (long)(r.nextDouble() * 10000000L));
+        }
+
+        int n = h.getNonZeroBucketCount();
+        int[] indexes = new int[n];
+        long[] counts = new long[n];
+        int k = 0;
+
+        for(int i = h.nextNonZeroIndex(0); i != -1; i = h.nextNonZeroIndex(i + 1)) {
+
+            indexes[k] = i;
+            counts[k] = h.getCountAtIndex(i);
+            k ++;
+        }
+
+        assertEquals(n, k);
+
+        LatencyHistogram h2 = LatencyHistogram.fromBucketCounts(indexes, counts, n, h.getTotalValue(), h.getMaxValue());
+
+        assertEquals(h.getTotalCount(), h2.getTotalCount());
+        assertEquals(h.getTotalValue(), h2.getTotalValue());
+        assertEquals(h.getMaxValue(), h2.getMaxValue());
+
+        for(double p: new double[] { 0d, 50d, 90d, 99d, 99.9d, 100d }) {
+
+            assertEquals(h.getValueAtPercentile(p), h2.getValueAtPercentile(p));
+        }
+    }
+
+    @Test
+    public void fromBucketCounts_InvalidIndex() throws Exception {
+
+        try {
+
+            LatencyHistogram.fromBucketCounts(new int[] { -1 }, new long[] { 1L }, 1, 0L, 0L);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
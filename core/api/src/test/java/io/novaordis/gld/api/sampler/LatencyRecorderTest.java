@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.novaordis.gld.api.sampler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/11/17
+ */
+public class LatencyRecorderTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void slotCountFor() throws Exception {
+
+        assertEquals(4, LatencyRecorder.slotCountFor(1));
+        assertEquals(8, LatencyRecorder.slotCountFor(2));
+        assertEquals(16, LatencyRecorder.slotCountFor(3));
+        assertEquals(16, LatencyRecorder.slotCountFor(4));
+    }
+
+    @Test
+    public void invalidSlotCount() throws Exception {
+
+        try {
+
+            new LatencyRecorder(3);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            assertTrue(e.getMessage().contains("power of two"));
+        }
+    }
+
+    @Test
+    public void moreThreadsThanSlots_NoValueIsLost() throws Exception {
+
+        final LatencyRecorder r = new LatencyRecorder(1);
+
+        List<Thread> threads = new ArrayList<>();
+
+        for(int i = 0; i < 100; i ++) {
+
+            Thread t = new Thread(() -> {
+
+                for(int j = 0; j < 1000; j ++) {
+
+                    r.record(j);
+                }
+            });
+
+            threads.add(t);
+            t.start();
+        }
+
+        for(Thread t: threads) {
+
+            t.join();
+        }
+
+        assertEquals(100000L, r.getIntervalHistogramAndReset().getTotalCount());
+    }
+
+    @Test
+    public void cumulatedDuration() throws Exception {
+
+        LatencyRecorder r = new LatencyRecorder();
+
+        r.record(10L, 7L);
+        r.record(20L, 11L);
+        r.record(30L);
+
+        LatencyRecorder.Interval i = r.getIntervalAndReset();
+
+        assertEquals(3L, i.getHistogram().getTotalCount());
+        assertEquals(60L, i.getHistogram().getTotalValue());
+        assertEquals(18L, i.getCumulatedDurationNano());
+
+        LatencyRecorder.Interval i2 = r.getIntervalAndReset();
+
+        assertEquals(0L, i2.getHistogram().getTotalCount());
+        assertEquals(0L, i2.getCumulatedDurationNano());
+    }
+
+    @Test
+    public void singleThread() throws Exception {
+
+        LatencyRecorder r = new LatencyRecorder();
+
+        r.record(10L);
+        r.record(20L);
+
+        LatencyHistogram h = r.getIntervalHistogramAndReset();
+
+        assertEquals(2L, h.getTotalCount());
+        assertEquals(20L, h.getMaxValue());
+
+        LatencyHistogram h2 = r.getIntervalHistogramAndReset();
+
+        assertEquals(0L, h2.getTotalCount());
+
+        r.record(30L);
+
+        LatencyHistogram h3 = r.getIntervalHistogramAndReset();
+
+        assertEquals(1L, h3.getTotalCount());
+        assertEquals(30L, h3.getMaxValue());
+
+        // the interval histograms are not affected by subsequent recordings
+        assertEquals(2L, h.getTotalCount());
+    }
+
+    @Test
+    public void concurrentWritersAndReader_NoValueIsLost() throws Exception {
+
+        final LatencyRecorder r = new LatencyRecorder();
+
+        final int threadCount = 8;
+        final int valuesPerThread = 200000;
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        List<Thread> threads = new ArrayList<>();
+
+        for(int i = 0; i < threadCount; i ++) {
+
+            Thread t = new Thread(() -> {
+
+                try {
+
+                    start.await();
+                }
+                catch(InterruptedException e) {
+
+                    return;
+                }
+
+                for(int j = 0; j < valuesPerThread; j ++) {
+
+                    r.record(j);
+                }
+            });
+
+            threads.add(t);
+            t.start();
+        }
+
+        start.countDown();
+
+        long total = 0L;
+
+        while(!done.get()) {
+
+            boolean alive = false;
+
+            for(Thread t: threads) {
+
+                alive = alive || t.isAlive();
+            }
+
+            if (!alive) {
+
+                done.set(true);
+            }
+
+            total += r.getIntervalHistogramAndReset().getTotalCount();
+        }
+
+        total += r.getIntervalHistogramAndReset().getTotalCount();
+
+        assertEquals((long)threadCount * valuesPerThread, total);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -40,6 +40,7 @@ public class MockSamplerConfiguration extends LowLevelConfigurationBase implemen
     private int samplingTaskRunInterval;
     private File file;
     private List<String> metrics;
+    private String format;
 
     // Constructors ----------------------------------------------------------------------------------------------------
 
@@ -54,6 +55,7 @@ public class MockSamplerConfiguration extends LowLevelConfigurationBase implemen
 
         this.samplingTaskRunInterval = 1;
         this.samplingInterval = 2;
+        this.format = DEFAULT_FORMAT;
     }
 
     // SamplerConfiguration implementation -----------------------------------------------------------------------------
@@ -61,7 +63,7 @@ public class MockSamplerConfiguration extends LowLevelConfigurationBase implemen
     @Override
     public String getFormat() {
 
-        return "csv";
+        return format;
     }
 
     @Override
@@ -110,6 +112,11 @@ public class MockSamplerConfiguration extends LowLevelConfigurationBase implemen
         this.metrics = ms;
     }
 
+    public void setFormat(String format) {
+
+        this.format = format;
+    }
+
     // Package protected -----------------------------------------------------------------------------------------------
 
     // Protected -------------------------------------------------------------------------------------------------------
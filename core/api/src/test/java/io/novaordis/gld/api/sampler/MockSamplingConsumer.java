@@ -19,8 +19,8 @@ package io.novaordis.gld.api.sampler;
 import io.novaordis.gld.api.sampler.SamplingConsumer;
 import io.novaordis.gld.api.sampler.SamplingInterval;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MockSamplingConsumer implements SamplingConsumer
 {
@@ -39,7 +39,8 @@ public class MockSamplingConsumer implements SamplingConsumer
 
     public MockSamplingConsumer()
     {
-        this.samplingIntervals = new ArrayList<>();
+        // the intervals may be delivered on a consumer thread
+        this.samplingIntervals = new CopyOnWriteArrayList<>();
         this.wasStopped = false;
     }
 
@@ -18,6 +18,8 @@ package io.novaordis.gld.api.sampler;
 
 import io.novaordis.gld.api.MockSamplerOperation;
 import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.metrics.DroppedSamplingIntervals;
+import io.novaordis.gld.api.sampler.metrics.Metric;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,11 +28,13 @@ import java.net.ConnectException;
 import java.net.SocketException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class SamplerImplTest extends SamplerTest {
 
@@ -99,6 +103,146 @@ public class SamplerImplTest extends SamplerTest {
         log.info("the sampler stopped, it took " + (t1 - t0) + " ms to stop the sampler");
     }
 
+    // consumer dispatch -----------------------------------------------------------------------------------------------
+
+    @Test
+    public void consumerQueueCapacity() throws Exception {
+
+        SamplerImpl si = new SamplerImpl(0L, 1000L);
+
+        assertEquals(AsyncSamplingConsumer.DEFAULT_QUEUE_CAPACITY, si.getConsumerQueueCapacity());
+
+        try {
+
+            si.setConsumerQueueCapacity(-1);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+
+        si.setConsumerQueueCapacity(0);
+        assertEquals(0, si.getConsumerQueueCapacity());
+
+        si.registerOperation(MockSamplerOperation.class);
+        si.start();
+
+        try {
+
+            si.setConsumerQueueCapacity(10);
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            log.info(e.getMessage());
+        }
+
+        si.stop();
+    }
+
+    @Test
+    public void consumerMetrics_NotSharedAcrossSamplers() throws Exception {
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        SamplerImpl s = new SamplerImpl(0L, 1L);
+        s.setConsumerQueueCapacity(1);
+        s.registerOperation(MockSamplerOperation.class);
+        s.registerConsumer(new SamplingConsumer() {
+
+            @Override
+            public void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+                release.await();
+            }
+
+            @Override
+            public void stop() {
+            }
+        });
+
+        s.start();
+
+        //
+        // each run wraps up at least one sampling interval; the first hand-off holds the consumer thread, the second
+        // one fills the queue, the rest are dropped
+        //
+
+        for(int i = 0; i < 5; i ++) {
+
+            Thread.sleep(5L);
+            s.run();
+        }
+
+        assertTrue(s.getDroppedIntervalCount() > 0);
+
+        SamplerImpl s2 = new SamplerImpl(0L, 1L);
+        s2.registerOperation(MockSamplerOperation.class);
+        s2.registerMetric(DroppedSamplingIntervals.class);
+        MockSamplingConsumer msc = new MockSamplingConsumer();
+        s2.registerConsumer(msc);
+
+        s2.start();
+
+        Thread.sleep(5L);
+        s2.run();
+
+        assertEquals(0L, s2.getDroppedIntervalCount());
+
+        release.countDown();
+        s.stop();
+        s2.stop();
+
+        List<SamplingInterval> sis = msc.getSamplingIntervals();
+        assertFalse(sis.isEmpty());
+
+        for(SamplingInterval si: sis) {
+
+            Set<Metric> metrics = si.getMetrics();
+            assertEquals(1, metrics.size());
+            Metric m = metrics.iterator().next();
+            assertTrue(m instanceof DroppedSamplingIntervals);
+            assertEquals(0L, m.getValue().longValue());
+        }
+    }
+
+    @Test
+    public void asynchronousDispatch() throws Exception {
+
+        SamplerImpl s = new SamplerImpl(0L, 1000L);
+        s.registerOperation(MockSamplerOperation.class);
+
+        MockSamplingConsumer msc = new MockSamplingConsumer();
+        s.registerConsumer(msc);
+
+        s.start();
+
+        // the registered consumers are exposed, not their dispatchers
+        List<SamplingConsumer> consumers = s.getConsumers();
+        assertEquals(1, consumers.size());
+        assertEquals(msc, consumers.get(0));
+
+        s.record(System.currentTimeMillis(), 0L, 1L, new MockSamplerOperation());
+
+        // the final run hands the last interval over, and the stop waits until the consumer is done with it
+        s.stop();
+
+        assertTrue(msc.wasStopped());
+
+        List<SamplingInterval> sil = msc.getSamplingIntervals();
+        assertFalse(sil.isEmpty());
+
+        long successCount = 0L;
+
+        for(SamplingInterval i: sil) {
+
+            successCount += i.getCounterValues(MockSamplerOperation.class).getSuccessCount();
+        }
+
+        assertEquals(1L, successCount);
+    }
+
     // simulated runs --------------------------------------------------------------------------------------------------
 
     /**
@@ -115,6 +259,10 @@ public class SamplerImplTest extends SamplerTest {
         SamplerImpl s = new SamplerImpl(0L, samplingInterval);
         s.registerOperation(MockSamplerOperation.class);
 
+        // step-by-step verification, deliver the sampling intervals on the sampling thread
+        s.setConsumerQueueCapacity(0);
+
+
         MockSamplingConsumer msc = new MockSamplingConsumer();
         s.registerConsumer(msc);
 
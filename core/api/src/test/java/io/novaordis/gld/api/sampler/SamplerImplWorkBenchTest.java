@@ -59,6 +59,10 @@ public class SamplerImplWorkBenchTest {
         // the sampling task run interval is 0, meaning no timer task will be registered
         SamplerImpl s = new SamplerImpl(0L, samplingIntervalMs);
         s.registerOperation(MockSamplerOperation.class);
+
+        // step-by-step verification, deliver the sampling intervals on the sampling thread
+        s.setConsumerQueueCapacity(0);
+
         MockSamplingConsumer msc = new MockSamplingConsumer();
         s.registerConsumer(msc);
 
@@ -315,6 +319,10 @@ public class SamplerImplWorkBenchTest {
         // the sampling task run interval is 0, meaning no timer task will be registered
         SamplerImpl s = new SamplerImpl(0L, samplingIntervalMs);
         s.registerOperation(MockSamplerOperation.class);
+
+        // step-by-step verification, deliver the sampling intervals on the sampling thread
+        s.setConsumerQueueCapacity(0);
+
         MockSamplingConsumer msc = new MockSamplingConsumer();
         s.registerConsumer(msc);
 
@@ -417,6 +425,10 @@ public class SamplerImplWorkBenchTest {
         // the sampling task run interval is 0, meaning no timer task will be registered
         SamplerImpl s = new SamplerImpl(0L, samplingIntervalMs);
         s.registerOperation(MockSamplerOperation.class);
+
+        // step-by-step verification, deliver the sampling intervals on the sampling thread
+        s.setConsumerQueueCapacity(0);
+
         s.registerMetric(SystemLoadAverage.class);
         MockSamplingConsumer msc = new MockSamplingConsumer();
         s.registerConsumer(msc);
@@ -23,6 +23,7 @@ import io.novaordis.gld.api.sampler.metrics.Metric;
 import io.novaordis.gld.api.sampler.metrics.SystemCpuLoad;
 import io.novaordis.gld.api.sampler.metrics.SystemLoadAverage;
 import io.novaordis.gld.api.sampler.metrics.TotalPhysicalMemorySize;
+import io.novaordis.gld.api.statistics.BinaryFormatter;
 import io.novaordis.gld.api.statistics.CSVFormatter;
 import io.novaordis.utilities.UserErrorException;
 import org.junit.After;
@@ -517,6 +518,31 @@ public abstract class SamplerTest {
         assertNotNull(c);
     }
 
+    @Test
+    public void configure_BinaryFormat() throws Exception {
+
+        Sampler s = getSamplerToTest();
+
+        File file = new File(scratchDirectory, "test.bin");
+
+        MockSamplerConfiguration mc = new MockSamplerConfiguration();
+        mc.setSamplingInterval(2222);
+        mc.setSamplingTaskRunInterval(333);
+        mc.setFile(file);
+        mc.setMetrics(Collections.<String>emptyList());
+        mc.setFormat(SamplerConfiguration.BINARY_FORMAT);
+
+        s.configure(mc);
+
+        assertTrue(file.isFile());
+
+        List<SamplingConsumer> consumers = s.getConsumers();
+        assertEquals(1, consumers.size());
+        assertTrue(consumers.get(0) instanceof BinaryFormatter);
+
+        consumers.get(0).stop();
+    }
+
     @Test
     public void configure_InvalidMetric() throws Exception {
 
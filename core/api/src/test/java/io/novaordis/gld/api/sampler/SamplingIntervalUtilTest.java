@@ -269,6 +269,31 @@ public class SamplingIntervalUtilTest
         }
     }
 
+    @Test
+    public void extrapolate_KeyCount() throws Exception {
+
+        Set<Class<? extends Operation>> operationTypes = new HashSet<>();
+        operationTypes.add(MockSamplerOperation.class);
+        SamplingIntervalImpl si = new SamplingIntervalImpl(1L, 5L, operationTypes);
+        si.setCounterValues(MockSamplerOperation.class, new CounterValuesImpl(5L, 52L, 6L, 6L, null, null));
+        si.setMetrics(new HashSet<>());
+
+        SamplingInterval[] result = SamplingIntervalUtil.extrapolate(si, 2);
+
+        assertEquals(3, result.length);
+
+        //
+        // the keys are distributed the same way as the operations, the last interval gets the remainder
+        //
+
+        assertEquals(1L, result[0].getCounterValues(MockSamplerOperation.class).getSuccessCount());
+        assertEquals(17L, result[0].getCounterValues(MockSamplerOperation.class).getSuccessKeyCount());
+        assertEquals(1L, result[1].getCounterValues(MockSamplerOperation.class).getSuccessCount());
+        assertEquals(17L, result[1].getCounterValues(MockSamplerOperation.class).getSuccessKeyCount());
+        assertEquals(3L, result[2].getCounterValues(MockSamplerOperation.class).getSuccessCount());
+        assertEquals(18L, result[2].getCounterValues(MockSamplerOperation.class).getSuccessKeyCount());
+    }
+
     @Test
     public void extrapolate_extraSamples_is_1_twoOperations() throws Exception {
 
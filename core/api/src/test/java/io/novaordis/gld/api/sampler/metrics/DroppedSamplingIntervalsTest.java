@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler.metrics;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class DroppedSamplingIntervalsTest extends MetricTest
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(DroppedSamplingIntervalsTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void value() throws Exception
+    {
+        // the value belongs to a sampler, the generic instance does not report it
+        DroppedSamplingIntervals m = new DroppedSamplingIntervals();
+        assertEquals(0L, m.getValue().longValue());
+    }
+
+    @Test
+    public void explicitValue() throws Exception
+    {
+        DroppedSamplingIntervals m = new DroppedSamplingIntervals(7L);
+        assertEquals(7L, m.getValue().longValue());
+        assertEquals("Dropped Sampling Intervals", m.getLabel());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    protected Metric getMetricToTest() throws Exception
+    {
+        // build the new instance the way client code does it
+        return DroppedSamplingIntervals.class.newInstance();
+
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
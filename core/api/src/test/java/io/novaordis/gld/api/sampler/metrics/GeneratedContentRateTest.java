@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler.metrics;
+
+import io.novaordis.gld.api.RandomContentGenerator;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+public class GeneratedContentRateTest extends MetricTest
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(GeneratedContentRateTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void rate() throws Exception
+    {
+        // reset the snapshot
+        new GeneratedContentRate();
+
+        new RandomContentGenerator().getRandomBytes(new Random(), 1000000);
+
+        GeneratedContentRate m = new GeneratedContentRate();
+
+        double rate = m.getValue().doubleValue();
+        log.info(rate + " bytes/sec");
+        assertTrue(rate > 0);
+    }
+
+    @Test
+    public void explicitValue() throws Exception
+    {
+        GeneratedContentRate m = new GeneratedContentRate(10d);
+        assertEquals(10d, m.getValue().doubleValue(), 0d);
+        assertEquals("Generated Content (bytes/sec)", m.getLabel());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    protected Metric getMetricToTest() throws Exception
+    {
+        // build the new instance the way client code does it
+        return GeneratedContentRate.class.newInstance();
+
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.sampler.metrics;
+
+import io.novaordis.gld.api.sampler.AsyncSamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class SamplingConsumerLagTest extends MetricTest
+{
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(SamplingConsumerLagTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void lag_NotReportedByTheGenericInstance() throws Exception
+    {
+        AsyncSamplingConsumer c = new AsyncSamplingConsumer(new SamplingConsumer()
+        {
+            @Override
+            public void consume(SamplingInterval... samplingIntervals) throws Exception
+            {
+                Thread.sleep(20L);
+            }
+
+            @Override
+            public void stop()
+            {
+            }
+        });
+
+        c.consume(new SamplingInterval[] { null });
+        c.stop();
+
+        //
+        // the lag belongs to the consumer and to its sampler, the generic instance neither reports nor resets it
+        //
+
+        assertEquals(0d, new SamplingConsumerLag().getValue().doubleValue(), 0d);
+
+        double lag = c.getMaxLagNanoAndReset() / 1000000d;
+        log.info(lag + " ms");
+        assertTrue(lag >= 20d);
+    }
+
+    @Test
+    public void explicitValue() throws Exception
+    {
+        SamplingConsumerLag m = new SamplingConsumerLag(10d);
+        assertEquals(10d, m.getValue().doubleValue(), 0d);
+        assertEquals("Sampling Consumer Lag (ms)", m.getLabel());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    protected Metric getMetricToTest() throws Exception
+    {
+        // build the new instance the way client code does it
+        return SamplingConsumerLag.class.newInstance();
+
+    }
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.statistics;
+
+import io.novaordis.gld.api.AnotherTypeOfMockSamplerOperation;
+import io.novaordis.gld.api.MockSamplerOperation;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.CounterValues;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.ImmutableFailureCounter;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.gld.api.sampler.SamplingIntervalImpl;
+import io.novaordis.gld.api.sampler.metrics.FreePhysicalMemorySize;
+import io.novaordis.gld.api.sampler.metrics.MeasureUnit;
+import io.novaordis.gld.api.sampler.metrics.Metric;
+import io.novaordis.gld.api.sampler.metrics.MetricType;
+import io.novaordis.gld.api.sampler.metrics.SystemCpuLoad;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests both the BinaryFormatter and the BinaryLogReader.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class BinaryFormatterTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryFormatterTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_NullStream() throws Exception {
+
+        try {
+
+            new BinaryFormatter(null);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+
+        SamplingIntervalImpl si = samplingInterval(1505000000000L);
+
+        SamplingIntervalImpl si2 = samplingInterval(1505000001000L);
+        si2.setMetrics(null);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        BinaryFormatter f = new BinaryFormatter(baos);
+
+        f.consume(si);
+        f.consume(si2);
+        f.stop();
+
+        byte[] content = baos.toByteArray();
+        log.info(content.length + " bytes");
+
+        BinaryLogReader r = new BinaryLogReader(new ByteArrayInputStream(content));
+
+        SamplingInterval read = r.next();
+        assertNotNull(read);
+        assertIntervalsEqual(si, read);
+
+        Set<Metric> metrics = read.getMetrics();
+        assertEquals(2, metrics.size());
+
+        for(Metric m: metrics) {
+
+            RecordedMetric rm = (RecordedMetric)m;
+
+            if (FreePhysicalMemorySize.class.getName().equals(rm.getMetricClassName())) {
+
+                assertEquals(2L * 1024 * 1024 * 1024, rm.getValue().longValue());
+                assertEquals(new FreePhysicalMemorySize(0L).getLabel(), rm.getLabel());
+                assertEquals(MeasureUnit.BYTE, rm.getMeasureUnit());
+                assertEquals(MetricType.MEMORY, rm.getMetricType());
+            }
+            else {
+
+                assertEquals(SystemCpuLoad.class.getName(), rm.getMetricClassName());
+                assertEquals(50.5d, rm.getValue().doubleValue(), 0d);
+                assertEquals(new SystemCpuLoad(0d).getDisplayRank(), rm.getDisplayRank());
+                assertEquals(MeasureUnit.PERCENTAGE, rm.getMeasureUnit());
+            }
+        }
+
+        assertEquals(Arrays.asList("annotation 1", "annotation 2"), read.getAnnotations());
+
+        SamplingInterval read2 = r.next();
+        assertNotNull(read2);
+        assertIntervalsEqual(si2, read2);
+        assertNull(read2.getMetrics());
+
+        assertNull(r.next());
+
+        r.close();
+    }
+
+    @Test
+    public void roundTrip_ConvertedToCSV_SameAsTheOriginal() throws Exception {
+
+        SamplingIntervalImpl si = samplingInterval(1505000000000L);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        BinaryFormatter f = new BinaryFormatter(baos);
+        f.consume(si);
+        f.stop();
+
+        BinaryLogReader r = new BinaryLogReader(new ByteArrayInputStream(baos.toByteArray()));
+        SamplingInterval read = r.next();
+
+        CSVFormat csvFormat = new CSVFormat();
+
+        assertEquals(CSVFormatter.toLine(si, csvFormat, true), CSVFormatter.toLine(read, csvFormat, true));
+        assertEquals(CSVFormatter.toLine(si, csvFormat, false), CSVFormatter.toLine(read, csvFormat, false));
+    }
+
+    @Test
+    public void truncatedLastRecord() throws Exception {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        BinaryFormatter f = new BinaryFormatter(baos);
+        f.consume(samplingInterval(1000L), samplingInterval(2000L));
+        f.stop();
+
+        byte[] content = baos.toByteArray();
+        byte[] truncated = Arrays.copyOf(content, content.length - 5);
+
+        BinaryLogReader r = new BinaryLogReader(new ByteArrayInputStream(truncated));
+
+        SamplingInterval read = r.next();
+        assertEquals(1000L, read.getStartMs());
+
+        // the second interval is truncated
+        assertNull(r.next());
+    }
+
+    @Test
+    public void reader_NotABinaryLog() throws Exception {
+
+        try {
+
+            new BinaryLogReader(new ByteArrayInputStream("Time, Something, Notes\n".getBytes()));
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void reader_EmptyStream() throws Exception {
+
+        try {
+
+            new BinaryLogReader(new ByteArrayInputStream(new byte[0]));
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void reader_UndefinedType() throws Exception {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        BinaryFormatter f = new BinaryFormatter(baos);
+        f.consume(samplingInterval(1000L));
+        f.stop();
+
+        //
+        // drop the definition records, keep the header and the interval record
+        //
+
+        byte[] content = baos.toByteArray();
+        ByteArrayOutputStream stripped = new ByteArrayOutputStream();
+        stripped.write(content, 0, 6);
+
+        int i = 6;
+
+        while(i < content.length) {
+
+            byte type = content[i];
+            int length = 0;
+            int shift = 0;
+            int j = i + 1;
+
+            while(true) {
+
+                byte b = content[j ++];
+                length |= (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+
+                    break;
+                }
+
+                shift += 7;
+            }
+
+            if (type == BinaryFormat.INTERVAL_RECORD) {
+
+                stripped.write(content, i, j - i + length);
+            }
+
+            i = j + length;
+        }
+
+        BinaryLogReader r = new BinaryLogReader(new ByteArrayInputStream(stripped.toByteArray()));
+
+        try {
+
+            r.next();
+            fail("should have thrown exception");
+        }
+        catch(IOException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void varLong() throws Exception {
+
+        long[] values = { 0L, 1L, 127L, 128L, 300L, Integer.MAX_VALUE, Long.MAX_VALUE, -1L, Long.MIN_VALUE };
+
+        for(long v: values) {
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(baos);
+            BinaryFormat.writeVarLong(dos, v);
+            BinaryFormat.writeZigZagLong(dos, v);
+            dos.flush();
+
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+            assertEquals(v, BinaryFormat.readVarLong(dis));
+            assertEquals(v, BinaryFormat.readZigZagLong(dis));
+        }
+    }
+
+    @Test
+    public void compactness() throws Exception {
+
+        //
+        // 1,000 intervals with two operation types, without histograms: the binary log carries the raw counters and
+        // the metrics, and it must be significantly smaller than the corresponding CSV output
+        //
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinaryFormatter f = new BinaryFormatter(binary);
+
+        StringBuilder csv = new StringBuilder();
+        CSVFormat csvFormat = new CSVFormat();
+
+        for(int i = 0; i < 1000; i ++) {
+
+            SamplingIntervalImpl si = samplingInterval(1505000000000L + i * 100L);
+            si.setCounterValues(MockSamplerOperation.class, new CounterValuesImpl(1000L + i, 2000000L + i));
+            f.consume(si);
+            csv.append(CSVFormatter.toLine(si, csvFormat, false)).append('\n');
+        }
+
+        f.stop();
+
+        log.info("binary: " + binary.size() + " bytes, CSV: " + csv.length() + " bytes");
+
+        assertTrue(binary.size() * 2 < csv.length());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static SamplingIntervalImpl samplingInterval(long startMs) {
+
+        Set<Class<? extends Operation>> operationTypes = new HashSet<>();
+        operationTypes.add(MockSamplerOperation.class);
+        operationTypes.add(AnotherTypeOfMockSamplerOperation.class);
+
+        SamplingIntervalImpl si = new SamplingIntervalImpl(startMs, 1000L, operationTypes);
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        for(long v = 1000L; v < 5000000L; v = v * 11 / 10) {
+
+            h.record(v);
+        }
+
+        Map<Class<? extends Throwable>, ImmutableFailureCounter> failures = new HashMap<>();
+        failures.put(SocketException.class, new ImmutableFailureCounter(3L, 300L));
+        failures.put(ConnectException.class, new ImmutableFailureCounter(1L, 50L));
+
+        si.setCounterValues(MockSamplerOperation.class, new CounterValuesImpl(
+                h.getTotalCount(), h.getTotalValue() / 2, h.getTotalValue(), h, failures));
+        si.setCounterValues(
+                AnotherTypeOfMockSamplerOperation.class, new CounterValuesImpl(10L, 35L, 1000L, 1000L, null, null));
+
+        Set<Metric> metrics = new HashSet<>();
+        metrics.add(new FreePhysicalMemorySize(2L * 1024 * 1024 * 1024));
+        metrics.add(new SystemCpuLoad(50.5));
+        si.setMetrics(metrics);
+
+        si.addAnnotation("annotation 1");
+        si.addAnnotation("annotation 2");
+
+        return si;
+    }
+
+    private static void assertIntervalsEqual(SamplingInterval expected, SamplingInterval actual) {
+
+        assertEquals(expected.getStartMs(), actual.getStartMs());
+        assertEquals(expected.getDurationMs(), actual.getDurationMs());
+        assertEquals(expected.getOperationTypes(), actual.getOperationTypes());
+
+        for(Class<? extends Operation> ot: expected.getOperationTypes()) {
+
+            CounterValues e = expected.getCounterValues(ot);
+            CounterValues a = actual.getCounterValues(ot);
+
+            assertEquals(e.getSuccessCount(), a.getSuccessCount());
+            assertEquals(e.getSuccessKeyCount(), a.getSuccessKeyCount());
+            assertEquals(e.getSuccessCumulatedDurationNano(), a.getSuccessCumulatedDurationNano());
+            assertEquals(e.getSuccessCumulatedResponseTimeNano(), a.getSuccessCumulatedResponseTimeNano());
+            assertEquals(e.getSuccessMaxResponseTimeNano(), a.getSuccessMaxResponseTimeNano());
+
+            for(double p: new double[] { 50d, 90d, 99d, 99.9d, 100d }) {
+
+                assertEquals(e.getSuccessResponseTimePercentileNano(p), a.getSuccessResponseTimePercentileNano(p));
+            }
+
+            if (e.getSuccessResponseTimeHistogram() == null) {
+
+                assertNull(a.getSuccessResponseTimeHistogram());
+            }
+            else {
+
+                LatencyHistogram eh = e.getSuccessResponseTimeHistogram();
+                LatencyHistogram ah = a.getSuccessResponseTimeHistogram();
+                assertEquals(eh.getTotalCount(), ah.getTotalCount());
+                assertEquals(eh.getTotalValue(), ah.getTotalValue());
+                assertEquals(eh.getNonZeroBucketCount(), ah.getNonZeroBucketCount());
+            }
+
+            assertEquals(e.getFailureTypes(), a.getFailureTypes());
+            assertEquals(e.getFailureCount(), a.getFailureCount());
+            assertEquals(e.getFailureCumulatedDurationNano(), a.getFailureCumulatedDurationNano());
+
+            for(Class<? extends Throwable> ft: e.getFailureTypes()) {
+
+                assertEquals(e.getFailureCount(ft), a.getFailureCount(ft));
+                assertEquals(e.getFailureCumulatedDurationNano(ft), a.getFailureCumulatedDurationNano(ft));
+            }
+        }
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -19,7 +19,9 @@ package io.novaordis.gld.api.statistics;
 import io.novaordis.gld.api.AnotherTypeOfMockSamplerOperation;
 import io.novaordis.gld.api.MockSamplerOperation;
 import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.operation.BulkRead;
 import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
 import io.novaordis.gld.api.sampler.SamplingIntervalImpl;
 import io.novaordis.gld.api.sampler.metrics.FreePhysicalMemorySize;
 import io.novaordis.gld.api.sampler.metrics.MeasureUnit;
@@ -35,8 +37,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.StringTokenizer;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
@@ -80,6 +84,12 @@ public class CSVFormatterTest
             "Time, " +
                 "MockSamplerOperation Success Rate (ops/sec), " +
                 "MockSamplerOperation Average Duration (ms), " +
+                "MockSamplerOperation Average Response Time (ms), " +
+                "MockSamplerOperation Response Time p50 (ms), " +
+                "MockSamplerOperation Response Time p90 (ms), " +
+                "MockSamplerOperation Response Time p99 (ms), " +
+                "MockSamplerOperation Response Time p99.9 (ms), " +
+                "MockSamplerOperation Response Time Max (ms), " +
                 "MockSamplerOperation Failure Rate (ops/sec), " +
                 "System Load Average, " +
                 "System CPU Load (%), " +
@@ -104,6 +114,12 @@ public class CSVFormatterTest
             CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", " +
                 "777, " +
                 "0.22, " +
+                "0.22, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
                 "0, " +
                 "4.4, " +
                 "50.5, " +
@@ -117,6 +133,40 @@ public class CSVFormatterTest
         assertEquals(expected, line);
     }
 
+    @Test
+    public void toLine_BatchOperation() throws Exception
+    {
+        Set<Class<? extends Operation>> operationTypes = new HashSet<>();
+        operationTypes.add(BulkRead.class);
+
+        SamplingIntervalImpl si = new SamplingIntervalImpl(0L, 1000L, operationTypes);
+        si.setCounterValues(BulkRead.class, new CounterValuesImpl(10L, 150L, 20000000L, 20000000L, null, null));
+
+        CSVFormat csvFormat = new CSVFormat();
+
+        String headers = CSVFormatter.toLine(si, csvFormat, true);
+
+        log.info(headers);
+
+        //
+        // batch operations get an extra keys per second column
+        //
+
+        assertTrue(headers.startsWith(
+            "Time, " +
+                "BulkRead Success Rate (ops/sec), " +
+                "BulkRead Success Rate (keys/sec), " +
+                "BulkRead Average Duration (ms), "));
+
+        String line = CSVFormatter.toLine(si, csvFormat, false);
+
+        log.info(line);
+
+        String[] tokens = line.split(", ");
+        assertEquals("10", tokens[1]);
+        assertEquals("150", tokens[2]);
+    }
+
     // @Test
     public void toLine_OneOperation_ThereAreFailures_FailureKindVariesOverTime() throws Exception
     {
@@ -137,7 +187,7 @@ public class CSVFormatterTest
 
         CSVFormat csvFormat = new CSVFormat();
         String line = CSVFormatter.toLine(si, csvFormat, false);
-        String expected = CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", 1, 0.0, 0";
+        String expected = CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", 1, 0.0, 0.0, 0";
 
         log.info(expected);
         log.info(line);
@@ -159,7 +209,8 @@ public class CSVFormatterTest
 
         CSVFormat csvFormat = new CSVFormat();
         String line = CSVFormatter.toLine(si, csvFormat, false);
-        String expected = CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", 1, 0.0, 0, ANNOTATION 1; ANNOTATION 2";
+        String expected =
+            CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", 1, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0, ANNOTATION 1; ANNOTATION 2";
 
         log.info("expected: " + expected);
         log.info("produced: " + line);
@@ -180,7 +231,9 @@ public class CSVFormatterTest
 
         CSVFormat csvFormat = new CSVFormat();
         String line = CSVFormatter.toLine(si, csvFormat, false);
-        String expected = CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", 1, 0.0, 0, \"ANNOTATION 1, ANNOTATION 2\"";
+        String expected =
+            CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", 1, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0, " +
+                "\"ANNOTATION 1, ANNOTATION 2\"";
 
         log.info("expected: " + expected);
         log.info("produced: " + line);
@@ -214,9 +267,21 @@ public class CSVFormatterTest
             "Time, " +
                 "AnotherTypeOfMockSamplerOperation Success Rate (ops/sec), " +
                 "AnotherTypeOfMockSamplerOperation Average Duration (ms), " +
+                "AnotherTypeOfMockSamplerOperation Average Response Time (ms), " +
+                "AnotherTypeOfMockSamplerOperation Response Time p50 (ms), " +
+                "AnotherTypeOfMockSamplerOperation Response Time p90 (ms), " +
+                "AnotherTypeOfMockSamplerOperation Response Time p99 (ms), " +
+                "AnotherTypeOfMockSamplerOperation Response Time p99.9 (ms), " +
+                "AnotherTypeOfMockSamplerOperation Response Time Max (ms), " +
                 "AnotherTypeOfMockSamplerOperation Failure Rate (ops/sec), " +
                 "MockSamplerOperation Success Rate (ops/sec), " +
                 "MockSamplerOperation Average Duration (ms), " +
+                "MockSamplerOperation Average Response Time (ms), " +
+                "MockSamplerOperation Response Time p50 (ms), " +
+                "MockSamplerOperation Response Time p90 (ms), " +
+                "MockSamplerOperation Response Time p99 (ms), " +
+                "MockSamplerOperation Response Time p99.9 (ms), " +
+                "MockSamplerOperation Response Time Max (ms), " +
                 "MockSamplerOperation Failure Rate (ops/sec), " +
                 "System Load Average, " +
                 "System CPU Load (%), " +
@@ -241,9 +306,21 @@ public class CSVFormatterTest
             CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", " +
                 "19, " +
                 "0.6, " +
+                "0.6, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
                 "0, " +
                 "17, " +
                 "0.5, " +
+                "0.5, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
                 "0, " +
                 "4.4, " +
                 "50.5, " +
@@ -290,9 +367,21 @@ public class CSVFormatterTest
             "Time, " +
                 "AnotherTypeOfMockSamplerOperation Success Rate (ops/sec), " +
                 "AnotherTypeOfMockSamplerOperation Average Duration (s), " +
+                "AnotherTypeOfMockSamplerOperation Average Response Time (s), " +
+                "AnotherTypeOfMockSamplerOperation Response Time p50 (s), " +
+                "AnotherTypeOfMockSamplerOperation Response Time p90 (s), " +
+                "AnotherTypeOfMockSamplerOperation Response Time p99 (s), " +
+                "AnotherTypeOfMockSamplerOperation Response Time p99.9 (s), " +
+                "AnotherTypeOfMockSamplerOperation Response Time Max (s), " +
                 "AnotherTypeOfMockSamplerOperation Failure Rate (ops/sec), " +
                 "MockSamplerOperation Success Rate (ops/sec), " +
                 "MockSamplerOperation Average Duration (s), " +
+                "MockSamplerOperation Average Response Time (s), " +
+                "MockSamplerOperation Response Time p50 (s), " +
+                "MockSamplerOperation Response Time p90 (s), " +
+                "MockSamplerOperation Response Time p99 (s), " +
+                "MockSamplerOperation Response Time p99.9 (s), " +
+                "MockSamplerOperation Response Time Max (s), " +
                 "MockSamplerOperation Failure Rate (ops/sec), " +
                 "some memory metric (KB), " +
                 "Notes";
@@ -323,6 +412,12 @@ public class CSVFormatterTest
             CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", " +
                 "0, " +
                 "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
                 "0, " +
                 "this is an annotation";
 
@@ -353,6 +448,12 @@ public class CSVFormatterTest
             CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", " +
                 "10, " +
                 "2.0, " +
+                "2.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
                 "0, ";
 
         CSVFormat format = new CSVFormat();
@@ -364,6 +465,108 @@ public class CSVFormatterTest
         assertEquals(expected, line);
     }
 
+    @Test
+    public void toCsvLine_ResponseTimeDiffersFromServiceTime() throws Exception
+    {
+        long ts = 20000L;
+        long durationMs = 1000L;
+        Set<Class<? extends Operation>> operationTypes = new HashSet<>();
+        operationTypes.add(MockSamplerOperation.class);
+
+        SamplingIntervalImpl si = new SamplingIntervalImpl(ts, durationMs, operationTypes);
+
+        //
+        // the operations were delayed behind a stall, they waited 8 ms on average before being started
+        //
+
+        si.setCounterValues(MockSamplerOperation.class,
+            new CounterValuesImpl(
+                10L, 20L * Statistics.NANOSECONDS_IN_A_MILLISECOND, 100L * Statistics.NANOSECONDS_IN_A_MILLISECOND,
+                null));
+
+        String expected =
+            CSVFormat.TIMESTAMP_FORMAT.format(ts) + ", " +
+                "10, " +
+                "2.0, " +
+                "10.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0.0, " +
+                "0, ";
+
+        CSVFormat format = new CSVFormat();
+        String line = CSVFormatter.toLine(si, format, false);
+
+        log.info(expected);
+        log.info(line);
+
+        assertEquals(expected, line);
+    }
+
+    @Test
+    public void toCsvLine_ResponseTimePercentiles() throws Exception
+    {
+        long ts = 20000L;
+        long durationMs = 1000L;
+        Set<Class<? extends Operation>> operationTypes = new HashSet<>();
+        operationTypes.add(MockSamplerOperation.class);
+
+        SamplingIntervalImpl si = new SamplingIntervalImpl(ts, durationMs, operationTypes);
+
+        //
+        // 1000 operations: 1, 2, ... 1000 ms
+        //
+
+        LatencyHistogram h = new LatencyHistogram();
+        long cumulated = 0L;
+
+        for(long i = 1; i <= 1000; i ++)
+        {
+            long v = i * Statistics.NANOSECONDS_IN_A_MILLISECOND;
+            h.record(v);
+            cumulated += v;
+        }
+
+        si.setCounterValues(MockSamplerOperation.class, new CounterValuesImpl(1000L, cumulated, cumulated, h, null));
+
+        CSVFormat format = new CSVFormat();
+        format.setResponseTimePercentiles(Arrays.asList(50d, 99.9d));
+
+        String headers = CSVFormatter.toLine(si, format, true);
+
+        String expected =
+            "Time, " +
+                "MockSamplerOperation Success Rate (ops/sec), " +
+                "MockSamplerOperation Average Duration (ms), " +
+                "MockSamplerOperation Average Response Time (ms), " +
+                "MockSamplerOperation Response Time p50 (ms), " +
+                "MockSamplerOperation Response Time p99.9 (ms), " +
+                "MockSamplerOperation Response Time Max (ms), " +
+                "MockSamplerOperation Failure Rate (ops/sec), " +
+                "Notes";
+
+        assertEquals(expected, headers);
+
+        String line = CSVFormatter.toLine(si, format, false);
+
+        log.info(line);
+
+        StringTokenizer st = new StringTokenizer(line, ",");
+        st.nextToken();
+        assertEquals("1000", st.nextToken().trim());
+        assertEquals("500.5", st.nextToken().trim());
+        assertEquals("500.5", st.nextToken().trim());
+
+        // within the histogram precision
+        double p50 = Double.parseDouble(st.nextToken().trim());
+        assertEquals(500d, p50, 5d);
+        double p999 = Double.parseDouble(st.nextToken().trim());
+        assertEquals(999d, p999, 10d);
+        assertEquals("1000.0", st.nextToken().trim());
+    }
+
     // stop() ----------------------------------------------------------------------------------------------------------
 
     @Test
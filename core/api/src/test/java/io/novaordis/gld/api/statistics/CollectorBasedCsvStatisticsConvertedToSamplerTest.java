@@ -117,6 +117,30 @@ public class CollectorBasedCsvStatisticsConvertedToSamplerTest {
         token = lineTokenizer.nextToken().trim();
         assertEquals("MockSamplerOperation Average Duration (ms)", token);
 
+        assertTrue(lineTokenizer.hasMoreTokens());
+        token = lineTokenizer.nextToken().trim();
+        assertEquals("MockSamplerOperation Average Response Time (ms)", token);
+
+        assertTrue(lineTokenizer.hasMoreTokens());
+        token = lineTokenizer.nextToken().trim();
+        assertEquals("MockSamplerOperation Response Time p50 (ms)", token);
+
+        assertTrue(lineTokenizer.hasMoreTokens());
+        token = lineTokenizer.nextToken().trim();
+        assertEquals("MockSamplerOperation Response Time p90 (ms)", token);
+
+        assertTrue(lineTokenizer.hasMoreTokens());
+        token = lineTokenizer.nextToken().trim();
+        assertEquals("MockSamplerOperation Response Time p99 (ms)", token);
+
+        assertTrue(lineTokenizer.hasMoreTokens());
+        token = lineTokenizer.nextToken().trim();
+        assertEquals("MockSamplerOperation Response Time p99.9 (ms)", token);
+
+        assertTrue(lineTokenizer.hasMoreTokens());
+        token = lineTokenizer.nextToken().trim();
+        assertEquals("MockSamplerOperation Response Time Max (ms)", token);
+
         assertTrue(lineTokenizer.hasMoreTokens());
         token = lineTokenizer.nextToken().trim();
         assertEquals("MockSamplerOperation Failure Rate (ops/sec)", token);
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.statistics;
+
+import io.novaordis.gld.api.MockSamplerOperation;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.ImmutableFailureCounter;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import io.novaordis.gld.api.sampler.SamplingIntervalImpl;
+import io.novaordis.gld.api.sampler.metrics.Metric;
+import io.novaordis.gld.api.sampler.metrics.SystemCpuLoad;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.StringWriter;
+import java.net.SocketException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class JSONFormatterTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(JSONFormatterTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_NullWriter() throws Exception {
+
+        try {
+
+            new JSONFormatter(null);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void toLine() throws Exception {
+
+        Set<Class<? extends Operation>> operationTypes = Collections.singleton(MockSamplerOperation.class);
+        SamplingIntervalImpl si = new SamplingIntervalImpl(20000L, 1000L, operationTypes);
+
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(100L);
+        h.record(100L);
+
+        Map<Class<? extends Throwable>, ImmutableFailureCounter> failures = new HashMap<>();
+        failures.put(SocketException.class, new ImmutableFailureCounter(1L, 7L));
+
+        si.setCounterValues(MockSamplerOperation.class, new CounterValuesImpl(2L, 150L, 200L, h, failures));
+
+        Set<Metric> metrics = new HashSet<>();
+        metrics.add(new SystemCpuLoad(50.5));
+        si.setMetrics(metrics);
+
+        si.addAnnotation("a \"quoted\" note");
+
+        String line = JSONFormatter.toLine(si);
+
+        log.info(line);
+
+        String expected =
+                "{\"start\": 20000, \"duration\": 1000, \"operations\": {\"MockSamplerOperation\": {" +
+                        "\"success-count\": 2, " +
+                        "\"success-cumulated-duration\": 150, " +
+                        "\"success-cumulated-response-time\": 200, " +
+                        "\"success-response-time-percentiles\": " +
+                        "{\"50.0\": 100, \"90.0\": 100, \"99.0\": 100, \"99.9\": 100}, " +
+                        "\"success-max-response-time\": 100, " +
+                        "\"failure-count\": 1, " +
+                        "\"failure-cumulated-duration\": 7, " +
+                        "\"failures\": {\"java.net.SocketException\": {\"count\": 1, \"cumulated-duration\": 7}}}}, " +
+                        "\"metrics\": {\"System CPU Load\": 50.5}, " +
+                        "\"annotations\": [\"a \\\"quoted\\\" note\"]}";
+
+        assertEquals(expected, line);
+    }
+
+    @Test
+    public void consume() throws Exception {
+
+        Set<Class<? extends Operation>> operationTypes = Collections.singleton(MockSamplerOperation.class);
+
+        StringWriter sw = new StringWriter();
+        JSONFormatter f = new JSONFormatter(sw);
+
+        f.consume(
+                new SamplingIntervalImpl(1000L, 1000L, operationTypes),
+                new SamplingIntervalImpl(2000L, 1000L, operationTypes));
+        f.stop();
+
+        String[] lines = sw.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(
+                "{\"start\": 1000, \"duration\": 1000, \"operations\": {\"MockSamplerOperation\": {" +
+                        "\"success-count\": 0, \"success-cumulated-duration\": 0, " +
+                        "\"success-cumulated-response-time\": 0, \"failure-count\": 0, " +
+                        "\"failure-cumulated-duration\": 0, \"failures\": {}}}, \"metrics\": {}, \"annotations\": []}",
+                lines[0]);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.store;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class OffHeapKeyIndexTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void putAndGet() throws Exception {
+
+        MapResolver resolver = new MapResolver();
+        OffHeapKeyIndex index = new OffHeapKeyIndex(resolver);
+
+        byte[] key = resolver.key(1L, "a");
+
+        assertEquals(0L, index.get(key, OffHeapKeyIndex.hash(key)));
+
+        assertTrue(index.put(key, OffHeapKeyIndex.hash(key), 1L));
+        assertEquals(1L, index.get(key, OffHeapKeyIndex.hash(key)));
+        assertEquals(1L, index.size());
+
+        //
+        // a new record for the same key
+        //
+
+        resolver.key(2L, "a");
+        assertFalse(index.put(key, OffHeapKeyIndex.hash(key), 2L));
+        assertEquals(2L, index.get(key, OffHeapKeyIndex.hash(key)));
+        assertEquals(1L, index.size());
+    }
+
+    @Test
+    public void hashCollision() throws Exception {
+
+        MapResolver resolver = new MapResolver();
+        OffHeapKeyIndex index = new OffHeapKeyIndex(resolver);
+
+        byte[] a = resolver.key(1L, "a");
+        byte[] b = resolver.key(2L, "b");
+
+        //
+        // force the same hash, the keys must be told apart by content
+        //
+
+        assertTrue(index.put(a, 7, 1L));
+        assertTrue(index.put(b, 7, 2L));
+
+        assertEquals(1L, index.get(a, 7));
+        assertEquals(2L, index.get(b, 7));
+        assertEquals(2L, index.size());
+    }
+
+    @Test
+    public void grow() throws Exception {
+
+        MapResolver resolver = new MapResolver();
+        OffHeapKeyIndex index = new OffHeapKeyIndex(resolver);
+
+        long initialFootprint = index.getMemoryFootprint();
+
+        int keyCount = OffHeapKeyIndex.STRIPE_COUNT * OffHeapKeyIndex.INITIAL_STRIPE_CAPACITY * 2;
+
+        for(int i = 1; i <= keyCount; i ++) {
+
+            byte[] key = resolver.key(i, "key-" + i);
+            assertTrue(index.put(key, OffHeapKeyIndex.hash(key), i));
+        }
+
+        assertEquals(keyCount, index.size());
+        assertTrue(index.getMemoryFootprint() > initialFootprint);
+
+        for(int i = 1; i <= keyCount; i ++) {
+
+            byte[] key = ("key-" + i).getBytes(StandardCharsets.UTF_8);
+            assertEquals(i, index.get(key, OffHeapKeyIndex.hash(key)));
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    private static class MapResolver implements OffHeapKeyIndex.LocationResolver {
+
+        private Map<Long, String> keys = new HashMap<>();
+
+        byte[] key(long location, String key) {
+
+            keys.put(location, key);
+            return key.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean keyEquals(long location, byte[] key) {
+
+            return keys.get(location).equals(new String(key, StandardCharsets.UTF_8));
+        }
+    }
+}
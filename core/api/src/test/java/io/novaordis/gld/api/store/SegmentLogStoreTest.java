@@ -0,0 +1,528 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.store;
+
+import io.novaordis.gld.api.KeyStore;
+import io.novaordis.gld.api.KeyStoreTest;
+import io.novaordis.gld.api.configuration.MockStoreConfiguration;
+import io.novaordis.utilities.Files;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/15/17
+ */
+public class SegmentLogStoreTest extends KeyStoreTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentLogStoreTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    // KeyStoreFactory.build() -----------------------------------------------------------------------------------------
+
+    @Test
+    public void KeyStoreFactory_build_NoDirectoryInConfiguration() throws Exception {
+
+        MockStoreConfiguration mc = new MockStoreConfiguration();
+        mc.setStoreType(SegmentLogStore.STORY_TYPE_LABEL);
+
+        try {
+
+            KeyStoreFactory.build(mc);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("missing \"" + SegmentLogStore.DIRECTORY_CONFIGURATION_LABEL +
+                    "\" segment log key store configuration element", msg);
+        }
+    }
+
+    @Test
+    public void KeyStoreFactory_build() throws Exception {
+
+        MockStoreConfiguration mc = new MockStoreConfiguration();
+        mc.setStoreType(SegmentLogStore.STORY_TYPE_LABEL);
+        mc.setPath(SegmentLogStore.DIRECTORY_CONFIGURATION_LABEL, new File("a/directory/that/does/not/exist"));
+
+        SegmentLogStore s = (SegmentLogStore)KeyStoreFactory.build(mc);
+
+        assertEquals(new File("a/directory/that/does/not/exist"), s.getDirectory());
+        assertEquals(SegmentLogStore.DEFAULT_SEGMENT_SIZE, s.getSegmentSize());
+        assertFalse(s.isStarted());
+    }
+
+    @Test
+    public void KeyStoreFactory_build_SegmentSize() throws Exception {
+
+        MockStoreConfiguration mc = new MockStoreConfiguration();
+        mc.setStoreType(SegmentLogStore.STORY_TYPE_LABEL);
+        mc.setPath(SegmentLogStore.DIRECTORY_CONFIGURATION_LABEL, new File("."));
+        mc.setPath(SegmentLogStore.SEGMENT_SIZE_CONFIGURATION_LABEL, 1024);
+
+        SegmentLogStore s = (SegmentLogStore)KeyStoreFactory.build(mc);
+
+        assertEquals(1024, s.getSegmentSize());
+    }
+
+    @Test
+    public void KeyStoreFactory_build_InvalidSegmentSize() throws Exception {
+
+        MockStoreConfiguration mc = new MockStoreConfiguration();
+        mc.setStoreType(SegmentLogStore.STORY_TYPE_LABEL);
+        mc.setPath(SegmentLogStore.DIRECTORY_CONFIGURATION_LABEL, new File("."));
+        mc.setPath(SegmentLogStore.SEGMENT_SIZE_CONFIGURATION_LABEL, 1);
+
+        try {
+
+            KeyStoreFactory.build(mc);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid 'segment-size' value: 1", msg);
+        }
+    }
+
+    // constructors ----------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_NullDirectory() throws Exception {
+
+        try {
+
+            new SegmentLogStore(null);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    // location --------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void location() throws Exception {
+
+        long l = SegmentLogStore.toLocation(0, 0);
+        assertTrue(l != 0L);
+        assertEquals(0, SegmentLogStore.toSegmentIndex(l));
+        assertEquals(0, SegmentLogStore.toOffset(l));
+
+        l = SegmentLogStore.toLocation(12345, Integer.MAX_VALUE);
+        assertEquals(12345, SegmentLogStore.toSegmentIndex(l));
+        assertEquals(Integer.MAX_VALUE, SegmentLogStore.toOffset(l));
+    }
+
+    // start() ---------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void start_File() throws Exception {
+
+        File f  = new File(scratchDirectory, "test");
+        assertTrue(Files.write(f, "..."));
+
+        SegmentLogStore s = new SegmentLogStore(f);
+
+        try {
+
+            s.start();
+            fail("should have thrown exception");
+        }
+        catch(KeyStoreException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals(f + " is a file, it should have been a directory", msg);
+        }
+    }
+
+    @Test
+    public void start_ParentDoesNotExist() throws Exception {
+
+        File d  = new File(scratchDirectory, "parent/test-segment-log-store");
+
+        SegmentLogStore s = new SegmentLogStore(d);
+
+        try {
+
+            s.start();
+            fail("should have thrown exception");
+        }
+        catch(KeyStoreException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("parent directory " + d.getParentFile() + " does not exist", msg);
+        }
+    }
+
+    @Test
+    public void start_CreatesDirectoryAndFirstSegment() throws Exception {
+
+        File d  = new File(scratchDirectory, "test-segment-log-store");
+        assertFalse(d.isDirectory());
+
+        SegmentLogStore s = new SegmentLogStore(d, 1024);
+
+        s.start();
+
+        assertTrue(d.isDirectory());
+        assertEquals(1, s.getSegmentCount());
+
+        File segment = new File(d, SegmentLogStore.getSegmentFileName(0));
+        assertTrue(segment.isFile());
+        assertEquals(1024, segment.length());
+
+        s.stop();
+
+        assertEquals(0, s.getSegmentCount());
+        assertTrue(segment.isFile());
+    }
+
+    @Test
+    public void getSegmentFiles_MissingSegment() throws Exception {
+
+        File d  = new File(scratchDirectory, "test-segment-log-store");
+        assertTrue(d.mkdir());
+        assertTrue(Files.write(new File(d, SegmentLogStore.getSegmentFileName(0)), ""));
+        assertTrue(Files.write(new File(d, SegmentLogStore.getSegmentFileName(2)), ""));
+
+        try {
+
+            SegmentLogStore.getSegmentFiles(d);
+            fail("should have thrown exception");
+        }
+        catch(KeyStoreException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains(SegmentLogStore.getSegmentFileName(1)));
+        }
+    }
+
+    // store() and retrieve() ------------------------------------------------------------------------------------------
+
+    @Test
+    public void store_NotStarted() throws Exception {
+
+        SegmentLogStore s = (SegmentLogStore)getKeyStoreToTest();
+
+        try {
+
+            s.store("test-key");
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void store_RecordLargerThanSegment() throws Exception {
+
+        SegmentLogStore s = new SegmentLogStore(new File(scratchDirectory, "test-segment-log-store"), 64);
+
+        s.start();
+
+        try {
+
+            s.store("test-key", new byte[64]);
+            fail("should have thrown exception");
+        }
+        catch(KeyStoreException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("does not fit"));
+        }
+        finally {
+
+            s.stop();
+        }
+    }
+
+    @Test
+    public void retrieve_KeyNotStored() throws Exception {
+
+        KeyStore s = getKeyStoreToTest();
+
+        s.start();
+
+        assertTrue(s.retrieve("no-such-key").isNull());
+
+        s.stop();
+    }
+
+    @Test
+    public void store_SameKey_LatestValueWins() throws Exception {
+
+        KeyStore s = getKeyStoreToTest();
+
+        s.start();
+
+        s.store("test-key", "value-1".getBytes());
+        s.store("test-key", "value-2".getBytes());
+
+        assertEquals("value-2", new String(s.retrieve("test-key").getBytes()));
+        assertEquals(1, s.getKeyCount());
+        assertEquals(1, s.getKeys().size());
+
+        s.store("test-key");
+
+        assertTrue(s.retrieve("test-key").notStored());
+
+        s.stop();
+    }
+
+    @Test
+    public void store_EmptyValue() throws Exception {
+
+        KeyStore s = getKeyStoreToTest();
+
+        s.start();
+
+        s.store("test-key", new byte[0]);
+
+        StoredValue v = s.retrieve("test-key");
+        assertFalse(v.isNull());
+        assertFalse(v.notStored());
+        assertEquals(0, v.getBytes().length);
+
+        s.stop();
+    }
+
+    @Test
+    public void store_SegmentRoll() throws Exception {
+
+        //
+        // each record takes 12 + 6 + 8 = 26 bytes, a 100 byte segment accommodates 3 records
+        //
+
+        SegmentLogStore s = new SegmentLogStore(new File(scratchDirectory, "test-segment-log-store"), 100);
+
+        s.start();
+
+        for(int i = 0; i < 10; i ++) {
+
+            s.store("key-0" + i, ("value-0" + i).getBytes());
+        }
+
+        assertEquals(4, s.getSegmentCount());
+        assertEquals(10, s.getKeyCount());
+
+        for(int i = 0; i < 10; i ++) {
+
+            assertEquals("value-0" + i, new String(s.retrieve("key-0" + i).getBytes()));
+        }
+
+        s.stop();
+    }
+
+    @Test
+    public void store_Concurrent() throws Exception {
+
+        final SegmentLogStore s =
+                new SegmentLogStore(new File(scratchDirectory, "test-segment-log-store"), 64 * 1024);
+
+        s.start();
+
+        final int threadCount = 8;
+        final int keysPerThread = 5000;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for(int t = 0; t < threadCount; t ++) {
+
+            final int threadIndex = t;
+
+            Thread thread = new Thread(() -> {
+
+                try {
+
+                    for(int i = 0; i < keysPerThread; i ++) {
+
+                        String key = "key-" + threadIndex + "-" + i;
+                        s.store(key, key.getBytes());
+                    }
+                }
+                catch(Throwable e) {
+
+                    failure.set(e);
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for(Thread t: threads) {
+
+            t.join();
+        }
+
+        assertNull(failure.get());
+
+        assertEquals(threadCount * keysPerThread, s.getKeyCount());
+        assertTrue(s.getSegmentCount() > 1);
+
+        Set<String> keys = s.getKeys();
+        assertEquals(threadCount * keysPerThread, keys.size());
+
+        for(int t = 0; t < threadCount; t ++) {
+
+            for(int i = 0; i < keysPerThread; i ++) {
+
+                String key = "key-" + t + "-" + i;
+                assertTrue(keys.contains(key));
+                assertEquals(key, new String(s.retrieve(key).getBytes()));
+            }
+        }
+
+        s.stop();
+    }
+
+    // restart ---------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void restart_IndexIsRebuilt() throws Exception {
+
+        File d = new File(scratchDirectory, "test-segment-log-store");
+
+        SegmentLogStore s = new SegmentLogStore(d, 100);
+        s.start();
+
+        for(int i = 0; i < 10; i ++) {
+
+            s.store("key-0" + i, ("value-0" + i).getBytes());
+        }
+
+        //noinspection NullArgumentToVariableArgMethod
+        s.store("null-key", null);
+        s.store("not-stored-key");
+        s.store("key-00", "value-XX".getBytes());
+
+        s.stop();
+
+        SegmentLogStore s2 = new SegmentLogStore(d, 100);
+
+        //
+        // the keys can be read without starting the store
+        //
+
+        assertEquals(12, s2.getKeyCount());
+
+        s2.start();
+
+        assertEquals(12, s2.getKeyCount());
+        assertEquals("value-XX", new String(s2.retrieve("key-00").getBytes()));
+        assertEquals("value-09", new String(s2.retrieve("key-09").getBytes()));
+        assertTrue(s2.retrieve("null-key").isNull());
+        assertTrue(s2.retrieve("not-stored-key").notStored());
+
+        //
+        // new records are appended
+        //
+
+        s2.store("key-10", "value-10".getBytes());
+
+        s2.stop();
+
+        SegmentLogStore s3 = new SegmentLogStore(d, 100);
+        Set<String> keys = s3.getKeys();
+        assertEquals(13, keys.size());
+        assertTrue(keys.contains("key-10"));
+    }
+
+    @Test
+    public void restart_Overwrite() throws Exception {
+
+        File d = new File(scratchDirectory, "test-segment-log-store");
+
+        SegmentLogStore s = new SegmentLogStore(d, 100);
+        s.start();
+
+        for(int i = 0; i < 10; i ++) {
+
+            s.store("key-0" + i);
+        }
+
+        s.stop();
+
+        SegmentLogStore s2 = new SegmentLogStore(d, 100);
+        s2.setOverwrite(true);
+        s2.start();
+
+        assertEquals(0, s2.getKeyCount());
+        assertEquals(1, s2.getSegmentCount());
+
+        s2.stop();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    @Override
+    protected KeyStore getKeyStoreToTest() throws Exception {
+
+        File dir = new File(scratchDirectory, "test-segment-log-store");
+
+        //
+        // the implementation will create the directory
+        //
+        assertFalse(dir.isDirectory());
+
+        return new SegmentLogStore(dir, 1024 * 1024);
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.benchmarks;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The entry point of the benchmark uber-jar. Delegates to the JMH command line runner, but unless the result format or
+ * the result file are explicitly specified on the command line, it instructs JMH to write the results in JSON format
+ * into a timestamped file in the current directory, so results of successive runs can be collected and compared to
+ * detect regressions.
+ *
+ * All JMH command line options are supported, use -h for the full list.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+public class BenchmarkRunner {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String RESULT_FILE_PREFIX = "gld-benchmarks-";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    public static void main(String[] args) throws Exception {
+
+        org.openjdk.jmh.Main.main(withDefaultResultFile(args, new Date()));
+    }
+
+    /**
+     * @return the arguments, prepended with JSON result format and timestamped result file options, unless either of
+     * those is already present.
+     */
+    static String[] withDefaultResultFile(String[] args, Date timestamp) {
+
+        for(String a: args) {
+
+            if ("-rf".equals(a) || "-rff".equals(a)) {
+
+                return args;
+            }
+        }
+
+        String fileName = RESULT_FILE_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss").format(timestamp) + ".json";
+
+        List<String> result = new ArrayList<>(Arrays.asList("-rf", "json", "-rff", fileName));
+        result.addAll(Arrays.asList(args));
+        return result.toArray(new String[result.size()]);
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.benchmarks;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.operation.Read;
+import io.novaordis.gld.api.cache.operation.Write;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.ImmutableFailureCounter;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import io.novaordis.gld.api.sampler.SamplingIntervalImpl;
+import io.novaordis.gld.api.sampler.metrics.FreePhysicalMemorySize;
+import io.novaordis.gld.api.sampler.metrics.Metric;
+import io.novaordis.gld.api.sampler.metrics.SystemCpuLoad;
+import io.novaordis.gld.api.sampler.metrics.SystemLoadAverage;
+import io.novaordis.gld.api.sampler.metrics.TotalPhysicalMemorySize;
+import io.novaordis.gld.api.statistics.CSVFormat;
+import io.novaordis.gld.api.statistics.CSVFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.SocketException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of rendering a sampling interval as a CSV line. The interval contains two operation types, each with a
+ * populated response time histogram, so the line includes the percentile columns, a failure type, the system metrics
+ * and an annotation.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSVFormatterBenchmark {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private SamplingIntervalImpl samplingInterval;
+    private CSVFormat format;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() {
+
+        Set<Class<? extends Operation>> operationTypes = new HashSet<>();
+        operationTypes.add(Read.class);
+        operationTypes.add(Write.class);
+
+        samplingInterval = new SamplingIntervalImpl(System.currentTimeMillis(), 1000L, operationTypes);
+
+        Random random = new Random(0L);
+
+        for(Class<? extends Operation> c: operationTypes) {
+
+            LatencyHistogram h = new LatencyHistogram();
+
+            for(int i = 0; i < 10000; i ++) {
+
+                //
+                // log-normally distributed values around 200 us
+                //
+
+                h.record((long)(200000d * Math.exp(random.nextGaussian())));
+            }
+
+            Map<Class<? extends Throwable>, ImmutableFailureCounter> failures = new HashMap<>();
+            failures.put(SocketException.class, new ImmutableFailureCounter(10L, 10L * 1000000L));
+
+            samplingInterval.setCounterValues(
+                    c, new CounterValuesImpl(
+                            h.getTotalCount(), h.getTotalValue() / 2, h.getTotalValue(), h, failures));
+        }
+
+        Set<Metric> metrics = new HashSet<>();
+        metrics.add(new FreePhysicalMemorySize(2L * 1024 * 1024 * 1024));
+        metrics.add(new TotalPhysicalMemorySize(8L * 1024 * 1024 * 1024));
+        metrics.add(new SystemCpuLoad(50.5));
+        metrics.add(new SystemLoadAverage(4.4));
+        samplingInterval.setMetrics(metrics);
+        samplingInterval.addAnnotation("benchmark annotation");
+
+        format = new CSVFormat();
+    }
+
+    @Benchmark
+    public String toLine() {
+
+        return CSVFormatter.toLine(samplingInterval, format, false);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.benchmarks;
+
+import io.novaordis.gld.api.RandomContentGenerator;
+import io.novaordis.gld.api.store.HierarchicalStore;
+import io.novaordis.gld.api.store.StoredValue;
+import io.novaordis.utilities.Files;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of storing and retrieving keys into/from a HierarchicalStore, which is the store used to record the keys
+ * written during a load run. The store lives in a temporary directory that is removed when the trial completes. The
+ * benchmarks write over and read from a fixed pool of keys, so the number of files on disk stays bounded.
+ *
+ * The results depend heavily on the underlying filesystem and its caching, so they should only be compared between
+ * runs on the same host.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierarchicalStoreBenchmark {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final int KEY_COUNT = 1000;
+    public static final int KEY_SIZE = 32;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    @Param({"1024"})
+    public int valueSize;
+
+    private File directory;
+    private HierarchicalStore store;
+    private String[] keys;
+    private byte[] value;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() throws Exception {
+
+        File tempFile = File.createTempFile("gld-hierarchical-store-benchmark-", "");
+
+        if (!tempFile.delete() || !tempFile.mkdir()) {
+
+            throw new IllegalStateException("failed to create temporary directory " + tempFile);
+        }
+
+        directory = tempFile;
+
+        store = new HierarchicalStore(new File(directory, "store"));
+        store.start();
+
+        RandomContentGenerator generator = new RandomContentGenerator();
+        Random random = new Random(0L);
+
+        value = generator.getRandomString(random, valueSize).getBytes();
+        keys = new String[KEY_COUNT];
+
+        for(int i = 0; i < KEY_COUNT; i ++) {
+
+            keys[i] = generator.getRandomString(random, KEY_SIZE, KEY_SIZE);
+            store.store(keys[i], value);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+
+        store.stop();
+
+        if (!Files.rmdir(directory, false)) {
+
+            throw new IllegalStateException("failed to remove temporary directory " + directory);
+        }
+    }
+
+    @Benchmark
+    public void store() throws Exception {
+
+        store.store(randomKey(), value);
+    }
+
+    @Benchmark
+    public StoredValue retrieve() throws Exception {
+
+        return store.retrieve(randomKey());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private String randomKey() {
+
+        return keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)];
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
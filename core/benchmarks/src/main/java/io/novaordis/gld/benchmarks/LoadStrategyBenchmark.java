@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.benchmarks;
+
+import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
+import io.novaordis.gld.api.LoadStrategyFactory;
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.CacheServiceConfigurationImpl;
+import io.novaordis.gld.api.cache.load.CacheLoadStrategyFactory;
+import io.novaordis.gld.api.configuration.LoadConfiguration;
+import io.novaordis.gld.api.configuration.LoadConfigurationImpl;
+import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.jms.JMSServiceConfigurationImpl;
+import io.novaordis.gld.api.jms.load.JMSLoadStrategy;
+import io.novaordis.gld.api.jms.load.JMSLoadStrategyFactory;
+import io.novaordis.gld.api.service.ServiceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of producing the next operation, for each cache and JMS load strategy. The strategies are built from
+ * configuration, as the load driver builds them, with an unlimited number of operations. The operations are not
+ * executed, so the benchmark measures only the load strategy and operation instantiation overhead. Each benchmark
+ * thread uses its own load strategy context, as the runners do.
+ *
+ * The strategy parameter is "<service-type>:<load-strategy-name>".
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadStrategyBenchmark {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    @Param({
+            "cache:write-then-read",
+            "cache:read-then-write-on-miss",
+            "cache:delete",
+            "cache:bulk",
+            "cache:mix",
+            "jms:send",
+            "jms:receive"
+    })
+    public String strategy;
+
+    private LoadStrategy loadStrategy;
+
+    private LoadStrategyContext context;
+
+    private Operation last;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() throws Exception {
+
+        int i = strategy.indexOf(':');
+        ServiceType serviceType = ServiceType.valueOf(strategy.substring(0, i));
+        String name = strategy.substring(i + 1);
+
+        File configurationDirectory = new File(System.getProperty("java.io.tmpdir"));
+
+        Map<String, Object> implementation = new HashMap<>();
+        implementation.put("name", "benchmark");
+
+        Map<String, Object> loadStrategyRaw = new HashMap<>();
+        loadStrategyRaw.put(LoadStrategy.NAME_LABEL, name);
+
+        Map<String, Object> serviceRaw = new HashMap<>();
+        serviceRaw.put(ServiceConfiguration.TYPE_LABEL, serviceType.name());
+        serviceRaw.put(ServiceConfiguration.IMPLEMENTATION_CONFIGURATION_LABEL, implementation);
+        serviceRaw.put(ServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL, loadStrategyRaw);
+
+        LoadConfiguration lc = new LoadConfigurationImpl(serviceType, new HashMap<>(), configurationDirectory);
+
+        LoadStrategyFactory factory;
+        ServiceConfiguration sc;
+
+        if (ServiceType.cache.equals(serviceType)) {
+
+            sc = new CacheServiceConfigurationImpl(serviceRaw, configurationDirectory);
+            factory = new CacheLoadStrategyFactory();
+        }
+        else if (ServiceType.jms.equals(serviceType)) {
+
+            loadStrategyRaw.put(JMSLoadStrategy.QUEUE_LABEL, "/queue/benchmark");
+            loadStrategyRaw.put(JMSLoadStrategy.CONNECTION_FACTORY_LABEL, "/ConnectionFactory");
+            sc = new JMSServiceConfigurationImpl(serviceRaw, configurationDirectory);
+            factory = new JMSLoadStrategyFactory();
+        }
+        else {
+
+            throw new IllegalArgumentException("unsupported service type " + serviceType);
+        }
+
+        loadStrategy = factory.buildInstance(sc, lc);
+        context = loadStrategy.newContext();
+        last = null;
+    }
+
+    @Benchmark
+    public Operation next() throws Exception {
+
+        Operation o = loadStrategy.next(context, last, null, false);
+        last = o;
+        return o;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.benchmarks;
+
+import io.novaordis.gld.api.cache.operation.Write;
+import io.novaordis.gld.api.sampler.NonBlockingCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a NonBlockingCounter update in isolation, without the sampler's operation type lookup, for successes
+ * and failures and at various degrees of contention. The counter values are not collected while the benchmark runs,
+ * see SamplerRecordBenchmark for the cost in the presence of a sampling task.
+ *
+ * @see SamplerRecordBenchmark
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NonBlockingCounterBenchmark {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private NonBlockingCounter counter;
+    private SocketException failure;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() {
+
+        counter = new NonBlockingCounter(Write.class);
+        failure = new SocketException();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void updateSuccess_01_Thread() {
+
+        updateSuccess();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void updateSuccess_16_Threads() {
+
+        updateSuccess();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void updateFailure_01_Thread() {
+
+        updateFailure();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void updateFailure_16_Threads() {
+
+        updateFailure();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private void updateSuccess() {
+
+        long t0 = System.nanoTime();
+        counter.update(System.currentTimeMillis(), t0, t0 + 1000L);
+    }
+
+    private void updateFailure() {
+
+        long t0 = System.nanoTime();
+        counter.update(System.currentTimeMillis(), t0, t0 + 1000L, failure);
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
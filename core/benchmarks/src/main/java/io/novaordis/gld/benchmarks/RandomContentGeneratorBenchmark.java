@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.benchmarks;
+
+import io.novaordis.gld.api.RandomContentGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of generating a random key or value, as the cache load strategies do for each operation. getRandomString()
+ * measures the default behavior, where a short random section is repeated up to the requested length, while
+ * getRandomString_FullyRandom() generates the entire content randomly. fill_Bytes() generates the default content into
+ * a reused byte buffer, which is allocation-free.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomContentGeneratorBenchmark {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    @Param({"10", "1024", "10240"})
+    public int length;
+
+    private RandomContentGenerator generator;
+    private byte[] buffer;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() {
+
+        generator = new RandomContentGenerator();
+        buffer = new byte[length];
+    }
+
+    @Benchmark
+    public String getRandomString() {
+
+        return generator.getRandomString(ThreadLocalRandom.current(), length);
+    }
+
+    @Benchmark
+    public String getRandomString_FullyRandom() {
+
+        return generator.getRandomString(ThreadLocalRandom.current(), length, length);
+    }
+
+    @Benchmark
+    public byte[] fill_Bytes() {
+
+        generator.fill(ThreadLocalRandom.current(), buffer, 0, length,
+                RandomContentGenerator.getDefaultRandomSequenceLength(length));
+        return buffer;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
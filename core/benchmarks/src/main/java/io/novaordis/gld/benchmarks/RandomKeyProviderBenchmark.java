@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.benchmarks;
+
+import io.novaordis.gld.api.provider.RandomKeyProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of RandomKeyProvider.next(), with an unlimited and with a limited key count. The limited key count is large
+ * enough to not be exhausted during the run, but it forces the provider to decrement the shared remaining key counter
+ * on each invocation, so the multi-threaded benchmarks measure the contention on that counter.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomKeyProviderBenchmark {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    @Param({"10", "64"})
+    public int keySize;
+
+    private RandomKeyProvider unlimited;
+    private RandomKeyProvider limited;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() throws Exception {
+
+        unlimited = new RandomKeyProvider(keySize);
+        unlimited.start();
+
+        limited = new RandomKeyProvider(keySize);
+        limited.setKeyCount(Long.MAX_VALUE);
+        limited.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        unlimited.stop();
+        limited.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String next_UnlimitedKeyCount_01_Thread() {
+
+        return unlimited.next();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String next_UnlimitedKeyCount_16_Threads() {
+
+        return unlimited.next();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String next_LimitedKeyCount_01_Thread() {
+
+        return limited.next();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String next_LimitedKeyCount_16_Threads() {
+
+        return limited.next();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
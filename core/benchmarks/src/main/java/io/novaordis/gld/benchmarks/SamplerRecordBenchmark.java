@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.benchmarks;
+
+import io.novaordis.gld.api.cache.operation.Write;
+import io.novaordis.gld.api.sampler.SamplerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of Sampler.record() - the only sampler code that executes on the runner threads - as a function of the
+ * number of threads concurrently recording into the same sampler. The sampler is started, so its sampling task
+ * periodically collects the counter values while the benchmark threads record, as it does during a real run.
+ *
+ * With contention-free counters, the average time per invocation should stay approximately constant as the thread
+ * count increases (as long as the thread count does not exceed the number of cores).
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/14/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SamplerRecordBenchmark {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private SamplerImpl sampler;
+    private Write operation;
+    private SocketException failure;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Setup
+    public void setUp() throws Exception {
+
+        sampler = new SamplerImpl();
+        sampler.registerOperation(Write.class);
+        sampler.start();
+
+        operation = new Write("benchmark-key", "benchmark-value");
+        failure = new SocketException();
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        sampler.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordSuccess_01_Thread() {
+
+        recordSuccess();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordSuccess_04_Threads() {
+
+        recordSuccess();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void recordSuccess_16_Threads() {
+
+        recordSuccess();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void recordSuccess_64_Threads() {
+
+        recordSuccess();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordFailure_01_Thread() {
+
+        recordFailure();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void recordFailure_64_Threads() {
+
+        recordFailure();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private void recordSuccess() {
+
+        long t0 = System.nanoTime();
+        sampler.record(System.currentTimeMillis(), t0, t0 + 1000L, operation);
+    }
+
+    private void recordFailure() {
+
+        long t0 = System.nanoTime();
+        sampler.record(System.currentTimeMillis(), t0, t0 + 1000L, operation, failure);
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -21,6 +21,8 @@ import io.novaordis.gld.api.configuration.YamlBasedConfiguration;
 import io.novaordis.gld.command.Command;
 import io.novaordis.gld.driver.LoadDriverImpl;
 import io.novaordis.gld.driver.Util;
+import io.novaordis.gld.driver.capacity.CapacitySearch;
+import io.novaordis.gld.driver.cluster.Coordinator;
 import io.novaordis.utilities.UserErrorException;
 import io.novaordis.utilities.env.EnvironmentVariableProvider;
 import io.novaordis.utilities.logging.StderrVerboseLogging;
@@ -95,6 +97,45 @@ public class Main {
 
             log.debug("configuration file " + configurationFile + " is syntactically correct");
 
+            Coordinator coordinator = Coordinator.fromArguments(arguments);
+
+            if (c.getLoadConfiguration().getCapacitySearch() != null) {
+
+                if (coordinator != null) {
+
+                    throw new UserErrorException("the capacity search cannot be run in cluster mode");
+                }
+
+                //
+                // capacity search mode, the load driver runs a sequence of trials
+                //
+
+                CapacitySearch search = new CapacitySearch(c);
+
+                search.run();
+
+                log.debug(search + " completed successfully");
+
+                System.out.println(search.getReport());
+
+                return 0;
+            }
+
+            if (coordinator != null) {
+
+                //
+                // cluster mode, the load is generated by the agents
+                //
+
+                coordinator.run(configurationFile, c);
+
+                log.debug(coordinator + " executed scenario successfully");
+
+                System.out.println(coordinator.getSummary());
+
+                return 0;
+            }
+
             ld = new LoadDriverImpl("0", background);
 
             ld.init(c);
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.command;
+
+import io.novaordis.gld.driver.Util;
+import io.novaordis.gld.driver.cluster.AgentServer;
+import io.novaordis.utilities.UserErrorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the load driver as a cluster agent: the agent listens for coordinator connections, and receives its
+ * configuration and its start signal from the coordinator.
+ *
+ * gld agent [--port=<port>] [--bind=<address>]
+ *
+ * The agent listens on the loopback interface unless --bind specifies another address (0.0.0.0 means all interfaces).
+ * The configuration sent by the coordinator may name arbitrary classes to instantiate, so anyone who can connect to
+ * the agent can run code on this host. An agent bound to a non-loopback address should require authentication: set
+ * the GLD_CLUSTER_SECRET environment variable, to the same value, for the agent and for the coordinator. The traffic
+ * is not encrypted, so the agent port should still only be reachable from a trusted network.
+ *
+ * @see io.novaordis.gld.driver.cluster.Coordinator
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class Agent implements Command {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String LITERAL = "agent";
+
+    public static final String PORT_OPTION = "--port=";
+    public static final String BIND_OPTION = "--bind=";
+
+    private static final Logger log = LoggerFactory.getLogger(Agent.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private List<String> arguments;
+
+    private int port;
+
+    private InetAddress bindAddress;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param arguments the command line arguments that follow the command literal.
+     */
+    public Agent(List<String> arguments) {
+
+        this.arguments = new ArrayList<>(arguments);
+    }
+
+    // Command implementation ------------------------------------------------------------------------------------------
+
+    @Override
+    public void execute() {
+
+        try {
+
+            parseArguments();
+
+            AgentServer server = new AgentServer(bindAddress, port);
+            server.setSecret(System.getenv(AgentServer.SECRET_ENVIRONMENT_VARIABLE));
+            server.start();
+
+            System.out.println(
+                    "agent listening on " + bindAddress.getHostAddress() + ":" + server.getPort() +
+                            (server.isAuthenticationRequired() ? ", coordinators must authenticate" : ""));
+
+            if (!server.isAuthenticationRequired() && !bindAddress.isLoopbackAddress()) {
+
+                System.out.println(
+                        "WARNING: the agent accepts unauthenticated connections, anyone who can reach it can run " +
+                                "code on this host. Set " + AgentServer.SECRET_ENVIRONMENT_VARIABLE +
+                                " for the agent and for the coordinator.");
+            }
+
+            server.serve();
+        }
+        catch(Throwable t) {
+
+            log.debug("agent failure: " + t.getMessage(), t);
+            System.out.println(Util.formatErrorMessage(t));
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public int getPort() {
+
+        return port;
+    }
+
+    public InetAddress getBindAddress() {
+
+        return bindAddress;
+    }
+
+    @Override
+    public String toString() {
+
+        return LITERAL + " :" + port;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    void parseArguments() throws UserErrorException {
+
+        port = AgentServer.DEFAULT_PORT;
+        bindAddress = InetAddress.getLoopbackAddress();
+
+        for(String a: arguments) {
+
+            if (a.startsWith(PORT_OPTION)) {
+
+                String s = a.substring(PORT_OPTION.length());
+
+                try {
+
+                    port = Integer.parseInt(s);
+                }
+                catch(NumberFormatException e) {
+
+                    throw new UserErrorException("invalid port: " + s);
+                }
+
+                if (port <= 0 || port > 65535) {
+
+                    throw new UserErrorException("invalid port: " + s);
+                }
+            }
+            else if (a.startsWith(BIND_OPTION)) {
+
+                String s = a.substring(BIND_OPTION.length());
+
+                if (s.isEmpty()) {
+
+                    throw new UserErrorException("missing bind address");
+                }
+
+                try {
+
+                    bindAddress = InetAddress.getByName(s);
+                }
+                catch(UnknownHostException e) {
+
+                    throw new UserErrorException("invalid bind address: " + s);
+                }
+            }
+            else {
+
+                throw new UserErrorException("unexpected argument " + a);
+            }
+        }
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -36,7 +36,9 @@ public interface Command {
      */
     static Command toCommand(List<String> commandLineArguments) {
 
-        for(String s: commandLineArguments) {
+        for(int i = 0; i < commandLineArguments.size(); i ++) {
+
+            String s = commandLineArguments.get(i);
 
             if (Version.LITERAL.equals(s)) {
 
@@ -46,7 +48,14 @@ public interface Command {
 
                 return new Extensions();
             }
+            else if (Convert.LITERAL.equals(s)) {
+
+                return new Convert(commandLineArguments.subList(i + 1, commandLineArguments.size()));
+            }
+            else if (Agent.LITERAL.equals(s)) {
 
+                return new Agent(commandLineArguments.subList(i + 1, commandLineArguments.size()));
+            }
         }
 
         return null;
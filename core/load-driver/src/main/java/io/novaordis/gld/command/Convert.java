@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.command;
+
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.gld.api.statistics.BinaryLogReader;
+import io.novaordis.gld.api.statistics.CSVFormatter;
+import io.novaordis.gld.api.statistics.JSONFormatter;
+import io.novaordis.gld.driver.Util;
+import io.novaordis.utilities.UserErrorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a binary sampling log into CSV or JSON (one JSON object per line).
+ *
+ * gld convert <binary-sampling-log> [--format=csv|json] [--output=<file>]
+ *
+ * The default format is CSV. If no output file is specified, the output is written next to the binary log, in a file
+ * with the same name and a ".csv" or ".json" extension.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class Convert implements Command {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    public static final String LITERAL = "convert";
+
+    public static final String FORMAT_OPTION = "--format=";
+    public static final String OUTPUT_OPTION = "--output=";
+
+    public static final String CSV_FORMAT = "csv";
+    public static final String JSON_FORMAT = "json";
+
+    private static final Logger log = LoggerFactory.getLogger(Convert.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private List<String> arguments;
+
+    private File inputFile;
+    private File outputFile;
+    private String format;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param arguments the command line arguments that follow the command literal.
+     */
+    public Convert(List<String> arguments) {
+
+        this.arguments = new ArrayList<>(arguments);
+    }
+
+    // Command implementation ------------------------------------------------------------------------------------------
+
+    @Override
+    public void execute() {
+
+        try {
+
+            parseArguments();
+
+            int count = convert();
+
+            System.out.println(count + " sampling interval(s) written to " + outputFile);
+        }
+        catch(Throwable t) {
+
+            log.debug("conversion failed: " + t.getMessage(), t);
+            System.out.println(Util.formatErrorMessage(t));
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public File getInputFile() {
+
+        return inputFile;
+    }
+
+    public File getOutputFile() {
+
+        return outputFile;
+    }
+
+    public String getFormat() {
+
+        return format;
+    }
+
+    @Override
+    public String toString() {
+
+        return LITERAL + " " + inputFile + " -> " + outputFile + " (" + format + ")";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    void parseArguments() throws UserErrorException {
+
+        format = CSV_FORMAT;
+
+        for(String a: arguments) {
+
+            if (a.startsWith(FORMAT_OPTION)) {
+
+                format = a.substring(FORMAT_OPTION.length());
+
+                if (!CSV_FORMAT.equals(format) && !JSON_FORMAT.equals(format)) {
+
+                    throw new UserErrorException("invalid conversion format: " + format);
+                }
+            }
+            else if (a.startsWith(OUTPUT_OPTION)) {
+
+                String s = a.substring(OUTPUT_OPTION.length());
+
+                if (s.isEmpty()) {
+
+                    throw new UserErrorException("missing output file name");
+                }
+
+                outputFile = new File(s);
+            }
+            else if (a.startsWith("--")) {
+
+                throw new UserErrorException("unknown option " + a);
+            }
+            else if (inputFile == null) {
+
+                inputFile = new File(a);
+            }
+            else {
+
+                throw new UserErrorException("unexpected argument " + a);
+            }
+        }
+
+        if (inputFile == null) {
+
+            throw new UserErrorException("no binary sampling log specified");
+        }
+
+        if (!inputFile.isFile()) {
+
+            throw new UserErrorException("the binary sampling log " + inputFile.getAbsolutePath() + " does not exist");
+        }
+
+        if (outputFile == null) {
+
+            String name = inputFile.getName();
+            int i = name.lastIndexOf('.');
+            name = (i > 0 ? name.substring(0, i) : name) + "." + format;
+            outputFile = new File(inputFile.getAbsoluteFile().getParentFile(), name);
+        }
+
+        if (outputFile.getAbsoluteFile().equals(inputFile.getAbsoluteFile())) {
+
+            throw new UserErrorException("the output file cannot be the binary sampling log itself");
+        }
+    }
+
+    /**
+     * @return the number of converted sampling intervals.
+     */
+    int convert() throws Exception {
+
+        log.debug("converting " + inputFile + " into " + outputFile);
+
+        SamplingConsumer formatter;
+
+        try {
+
+            BufferedWriter w = new BufferedWriter(new FileWriter(outputFile));
+            formatter = JSON_FORMAT.equals(format) ? new JSONFormatter(w) : new CSVFormatter(w);
+        }
+        catch(IOException e) {
+
+            throw new UserErrorException("cannot write file " + outputFile, e);
+        }
+
+        int count = 0;
+
+        try (BinaryLogReader reader = new BinaryLogReader(new BufferedInputStream(new FileInputStream(inputFile)))) {
+
+            SamplingInterval si;
+
+            while((si = reader.next()) != null) {
+
+                //
+                // one interval per hand-off: the consumer contract only allows multiple intervals per invocation if
+                // they are successive identical intervals
+                //
+
+                formatter.consume(si);
+                count ++;
+            }
+        }
+        finally {
+
+            formatter.stop();
+        }
+
+        return count;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
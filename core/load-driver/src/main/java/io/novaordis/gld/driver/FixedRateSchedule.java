@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver;
+
+/**
+ * The open-loop timeline of a single SingleThreadedRunner: the intended start times of the operations the runner
+ * issues, expressed in System.nanoTime() units.
+ *
+ * Each runner thread owns its own schedule, so there is no shared scheduler thread and no contention between runners
+ * regardless of the aggregated rate. For N threads and an aggregated rate R, each thread gets an interval of N/R
+ * seconds and an offset of i/R seconds, so the threads interleave evenly on the common timeline.
+ *
+ * The intended start times are computed from the schedule origin and the slot index, not by incrementally adding the
+ * interval, so rounding errors do not accumulate over long runs. If the runner falls behind (the target service
+ * responds slower than the arrival rate), the subsequent slots are already in the past and the runner issues the
+ * operations back-to-back until it catches up - the schedule does not stretch to accommodate a slow target.
+ *
+ * Not thread-safe, it is supposed to be accessed only from its runner thread.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/10/17
+ */
+public class FixedRateSchedule implements Schedule {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param rate the aggregated rate, in operations per second, across all threads.
+     * @param threadCount the number of threads that share the rate.
+     * @param threadIndex the 0-based index of the thread the schedule is built for.
+     * @param originNano the common origin of all threads' timelines, in System.nanoTime() units.
+     */
+    public static FixedRateSchedule forThread(double rate, int threadCount, int threadIndex, long originNano) {
+
+        if (rate <= 0) {
+
+            throw new IllegalArgumentException("invalid rate " + rate);
+        }
+
+        if (threadCount <= 0) {
+
+            throw new IllegalArgumentException("invalid thread count " + threadCount);
+        }
+
+        if (threadIndex < 0 || threadIndex >= threadCount) {
+
+            throw new IllegalArgumentException("invalid thread index " + threadIndex);
+        }
+
+        double aggregatedIntervalNano = 1000000000d / rate;
+
+        long offset = Math.round(threadIndex * aggregatedIntervalNano);
+
+        return new FixedRateSchedule(originNano + offset, threadCount * aggregatedIntervalNano);
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private long originNano;
+    private double intervalNano;
+
+    // the index of the next slot to be handed over
+    private long slot;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param originNano the intended start time of the first operation, in System.nanoTime() units.
+     * @param intervalNano the interval between consecutive intended start times, in nanoseconds. Must be positive.
+     */
+    public FixedRateSchedule(long originNano, double intervalNano) {
+
+        if (intervalNano <= 0) {
+
+            throw new IllegalArgumentException("invalid interval " + intervalNano);
+        }
+
+        this.originNano = originNano;
+        this.intervalNano = intervalNano;
+        this.slot = 0L;
+    }
+
+    // Schedule implementation -----------------------------------------------------------------------------------------
+
+    @Override
+    public long next(long nowNano) {
+
+        return next();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the intended start time of the next operation, in System.nanoTime() units, and advances the schedule.
+     * The returned value may be in the past, if the runner fell behind.
+     */
+    public long next() {
+
+        return originNano + Math.round((slot ++) * intervalNano);
+    }
+
+    public long getOriginNano() {
+
+        return originNano;
+    }
+
+    public double getIntervalNano() {
+
+        return intervalNano;
+    }
+
+    @Override
+    public String toString() {
+
+        return "FixedRateSchedule[origin=" + originNano + ", interval=" + intervalNano + " ns]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -33,6 +33,8 @@ import io.novaordis.gld.api.configuration.StoreConfiguration;
 import io.novaordis.gld.api.store.KeyStoreFactory;
 import io.novaordis.gld.api.sampler.Sampler;
 import io.novaordis.gld.api.sampler.SamplerImpl;
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.utilities.UserErrorException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,6 +72,8 @@ public class LoadDriverImpl implements LoadDriver {
 
     private MultiThreadedRunner runner;
 
+    private SamplingConsumer samplingConsumer;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     /**
@@ -129,7 +133,24 @@ public class LoadDriverImpl implements LoadDriver {
         SamplerConfiguration sc =
                 outputConfiguration == null ? null : outputConfiguration.getSamplerConfiguration();
 
-        if (sc != null) {
+        if (samplingConsumer != null) {
+
+            //
+            // the statistics go to the given consumer and not to the configured output; only the configured sampling
+            // intervals, if any, apply
+            //
+
+            this.sampler = new SamplerImpl();
+
+            if (sc != null) {
+
+                sampler.setSamplingTaskRunIntervalMs(sc.getSamplingTaskRunInterval());
+                sampler.setSamplingIntervalMs(sc.getSamplingInterval());
+            }
+
+            sampler.registerConsumer(samplingConsumer);
+        }
+        else if (sc != null) {
 
             //
             // there is configuration, it means we want statistics
@@ -142,6 +163,9 @@ public class LoadDriverImpl implements LoadDriver {
             //
 
             this.sampler.configure(sc);
+        }
+
+        if (sampler != null) {
 
             //
             // register operations to be sampled
@@ -166,6 +190,32 @@ public class LoadDriverImpl implements LoadDriver {
                         loadConfiguration.getThreadCount(),
                         background,
                         singleThreadedRunnerSleepMs);
+
+        //
+        // null rate means closed-loop mode
+        //
+
+        runner.setRate(loadConfiguration.getRate());
+
+        if (loadConfiguration.isVirtualThreads()) {
+
+            if (!VirtualThreadFactory.isSupported()) {
+
+                throw new UserErrorException(
+                        "'" + LoadConfiguration.VIRTUAL_THREADS_LABEL + "' requires Java 21 or newer, but the load " +
+                                "driver runs on Java " + System.getProperty("java.version"));
+            }
+
+            runner.setVirtualThreads(true);
+        }
+
+        runner.setInFlight(loadConfiguration.getInFlight());
+
+        //
+        // an empty profile means the load is applied uniformly for the whole run
+        //
+
+        runner.setProfile(loadConfiguration.getProfile());
     }
 
     @Override
@@ -187,49 +237,58 @@ public class LoadDriverImpl implements LoadDriver {
         }
         finally {
 
-            //
-            // execute the init() operations in reverse order and stops lifecycle-enabled components. The sequence must
-            // be invoked in a finally block, to leave the driver and associated components in a clean state,
-            // irrespective of whether the driver completed the run cleanly, or existed because of an exception. If it
-            // cannot complete, must log and exit. Failure to stop one component must not prevent other components to
-            // stop.
-            //
+            stop();
+        }
+    }
+
+    /**
+     * Stops the lifecycle components created by init(). Invoked by run() on exit, and it must be invoked explicitly if
+     * the load driver was initialized, but it is not going to run.
+     */
+    public void stop() {
+
+        //
+        // execute the init() operations in reverse order and stops lifecycle-enabled components. The sequence must
+        // be invoked in a finally block, to leave the driver and associated components in a clean state,
+        // irrespective of whether the driver completed the run cleanly, or existed because of an exception. If it
+        // cannot complete, must log and exit. Failure to stop one component must not prevent other components to
+        // stop.
+        //
 
-            if (keyStore != null) {
+        if (keyStore != null) {
 
-                try {
+            try {
 
-                    keyStore.stop();
+                keyStore.stop();
 
-                } catch (Throwable e) {
+            } catch (Throwable e) {
 
-                    log.warn("failed to stop the key store: " + e.getMessage());
-                }
+                log.warn("failed to stop the key store: " + e.getMessage());
             }
+        }
 
-            if (sampler != null) {
+        if (sampler != null) {
 
-                try {
+            try {
 
-                    sampler.stop();
+                sampler.stop();
 
-                } catch (Throwable e) {
+            } catch (Throwable e) {
 
-                    log.warn("failed to stop the sampler: " + e.getMessage());
-                }
+                log.warn("failed to stop the sampler: " + e.getMessage());
             }
+        }
 
-            if (service != null) {
+        if (service != null) {
 
-                try {
+            try {
 
-                    service.stop(); // this will stop internal lifecycle components, recursively.
+                service.stop(); // this will stop internal lifecycle components, recursively.
 
-                }
-                catch(Throwable e) {
+            }
+            catch(Throwable e) {
 
-                    log.warn("failed to stop service: " + e.getMessage());
-                }
+                log.warn("failed to stop service: " + e.getMessage());
             }
         }
     }
@@ -286,6 +345,20 @@ public class LoadDriverImpl implements LoadDriver {
 
     // Public ----------------------------------------------------------------------------------------------------------
 
+    /**
+     * Sends the sampling intervals to the given consumer instead of the configured statistics output. Must be invoked
+     * before init(). Used by cluster agents, which stream their statistics to the coordinator.
+     */
+    public void setSamplingConsumer(SamplingConsumer c) {
+
+        if (runner != null) {
+
+            throw new IllegalStateException(this + " already initialized");
+        }
+
+        this.samplingConsumer = c;
+    }
+
     @Override
     public String toString() {
 
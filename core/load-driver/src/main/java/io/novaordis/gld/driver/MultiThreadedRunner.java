@@ -17,8 +17,11 @@
 package io.novaordis.gld.driver;
 
 import io.novaordis.gld.api.Runner;
+import io.novaordis.gld.api.configuration.LoadStage;
 import io.novaordis.utilities.time.Duration;
 
+import java.util.List;
+
 public interface MultiThreadedRunner extends Runner {
 
     /**
@@ -30,6 +33,59 @@ public interface MultiThreadedRunner extends Runner {
 
     void setDuration(Duration d);
 
+    /**
+     * @return the aggregated target rate (operations per second, across all threads) if the runner operates in
+     * open-loop mode, or null if the runner operates in closed-loop mode (each thread issues a new operation as soon as
+     * the previous one completes).
+     */
+    Double getRate();
+
+    /**
+     * @param rate the aggregated target rate, in operations per second. null means closed-loop mode.
+     */
+    void setRate(Double rate);
+
+    /**
+     * @return true if the runner generates load with virtual threads instead of platform threads.
+     */
+    boolean isVirtualThreads();
+
+    /**
+     * @throws IllegalStateException if virtual threads are requested, but the runtime does not support them.
+     *
+     * @see VirtualThreadFactory#isSupported()
+     */
+    void setVirtualThreads(boolean b);
+
+    /**
+     * @return the maximum number of asynchronous operations each thread keeps in flight. 1 means synchronous
+     * operations.
+     */
+    int getInFlight();
+
+    /**
+     * @throws IllegalArgumentException on values smaller than 1.
+     *
+     * @see SingleThreadedRunner#setInFlight(int)
+     */
+    void setInFlight(int inFlight);
+
+    /**
+     * @return the staged load profile the runner drives, or an empty list if the load is applied uniformly for the
+     * whole run.
+     */
+    List<LoadStage> getProfile();
+
+    /**
+     * @param profile the stages, in order. null or an empty list means no profile. A profile cannot be combined with
+     *                a rate. The run ends when the last stage ends, unless a shorter duration is set.
+     *
+     * @throws IllegalArgumentException if the profile is not empty and a rate is set.
+     *
+     * @see StagedSchedule
+     */
+    void setProfile(List<LoadStage> profile);
+
     boolean isWaitForConsoleQuit();
 
     void setWaitForConsoleQuit(boolean b);
@@ -18,6 +18,7 @@ package io.novaordis.gld.driver;
 
 import io.novaordis.gld.api.KeyStore;
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.configuration.LoadStage;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.driver.console.CommandLineConsole;
 import io.novaordis.gld.api.sampler.Sampler;
@@ -26,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -48,6 +50,17 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
     private long singleThreadedRunnerSleepMs;
     private Duration duration;
 
+    // null means closed-loop mode
+    private Double rate;
+
+    // null means platform threads
+    private VirtualThreadFactory virtualThreadFactory;
+
+    private int inFlight;
+
+    // empty means no staged load profile
+    private List<LoadStage> profile;
+
     private List<SingleThreadedRunner> singleThreadedRunners;
 
     private Service service;
@@ -91,6 +104,9 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
         this.running = false;
 
         this.duration = null; // run indefinitiely
+        this.rate = null; // closed-loop
+        this.inFlight = 1; // synchronous operations
+        this.profile = Collections.emptyList();
     }
 
     // MultiThreadRunner implementation --------------------------------------------------------------------------------
@@ -106,6 +122,8 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
 
         running = true;
 
+        Timer profileTimer = null;
+
         try {
 
             checkPreconditions();
@@ -149,6 +167,35 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
                 log.debug("duration timer task scheduled, it will fire after " + d);
             }
 
+            //
+            // in open-loop mode, all threads share a common timeline origin and each thread maintains its own
+            // schedule, so no single scheduler thread becomes a bottleneck at high rates
+            //
+
+            long scheduleOriginNano = System.nanoTime();
+
+            if (!profile.isEmpty()) {
+
+                log.debug("staged load profile, " + profile.size() + " stage(s) over " + threadCount + " thread(s)");
+
+                profileTimer = startProfileTimer(durationExpired);
+            }
+            else if (rate != null) {
+
+                log.debug("open-loop mode, aggregated rate " + rate + " operations/sec over " + threadCount +
+                        " thread(s)");
+            }
+
+            if (virtualThreadFactory != null) {
+
+                log.debug("generating load with " + threadCount + " virtual thread(s)");
+            }
+
+            if (inFlight > 1) {
+
+                log.debug("each thread keeps up to " + inFlight + " asynchronous operations in flight");
+            }
+
             //
             // start the threads
             //
@@ -157,9 +204,22 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
 
                 String name = "GLD Runner " + i;
 
+                Schedule schedule = null;
+
+                if (!profile.isEmpty()) {
+
+                    schedule = new StagedSchedule(profile, threadCount, i, scheduleOriginNano);
+                }
+                else if (rate != null) {
+
+                    schedule = FixedRateSchedule.forThread(rate, threadCount, i, scheduleOriginNano);
+                }
+
                 SingleThreadedRunner r = new SingleThreadedRunner(
                         name, service, loadStrategy, sampler, barrier, durationExpired,
-                        singleThreadedRunnerSleepMs, keyStore);
+                        singleThreadedRunnerSleepMs, keyStore, schedule, virtualThreadFactory);
+
+                r.setInFlight(inFlight);
 
                 singleThreadedRunners.add(r);
 
@@ -193,6 +253,11 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
         }
         finally {
 
+            if (profileTimer != null) {
+
+                profileTimer.cancel();
+            }
+
             //
             // stopping the lifecycle components is the caller's responsibility, but we need to mark this runner
             // as "not running", irrespective of how we leave the function
@@ -226,6 +291,75 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
         this.duration = d;
     }
 
+    @Override
+    public Double getRate() {
+
+        return rate;
+    }
+
+    @Override
+    public void setRate(Double rate) {
+
+        if (rate != null && rate <= 0) {
+
+            throw new IllegalArgumentException("invalid rate " + rate);
+        }
+
+        this.rate = rate;
+    }
+
+    @Override
+    public boolean isVirtualThreads() {
+
+        return virtualThreadFactory != null;
+    }
+
+    @Override
+    public void setVirtualThreads(boolean b) {
+
+        this.virtualThreadFactory = b ? new VirtualThreadFactory() : null;
+    }
+
+    @Override
+    public int getInFlight() {
+
+        return inFlight;
+    }
+
+    @Override
+    public void setInFlight(int inFlight) {
+
+        if (inFlight < 1) {
+
+            throw new IllegalArgumentException("invalid in-flight operation count " + inFlight);
+        }
+
+        this.inFlight = inFlight;
+    }
+
+    @Override
+    public List<LoadStage> getProfile() {
+
+        return profile;
+    }
+
+    @Override
+    public void setProfile(List<LoadStage> profile) {
+
+        if (profile == null || profile.isEmpty()) {
+
+            this.profile = Collections.emptyList();
+            return;
+        }
+
+        if (rate != null) {
+
+            throw new IllegalArgumentException("a staged load profile cannot be combined with a rate");
+        }
+
+        this.profile = Collections.unmodifiableList(new ArrayList<>(profile));
+    }
+
     @Override
     public boolean isWaitForConsoleQuit() {
 
@@ -281,6 +415,31 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
         }
     }
 
+    /**
+     * Schedules a task for each stage boundary: the beginning of each stage is written as a sampler annotation, and the
+     * end of the last stage ends the run.
+     */
+    private Timer startProfileTimer(AtomicBoolean durationExpired) {
+
+        Timer timer = new Timer("Multi-threaded runner profile thread", true);
+
+        long delayMs = 0L;
+
+        for(int i = 0; i < profile.size(); i ++) {
+
+            LoadStage stage = profile.get(i);
+            String annotation = "stage " + (i + 1) + "/" + profile.size() + " started, " + stage;
+            timer.schedule(new StageBoundaryTimerTask(annotation, null), delayMs);
+            delayMs += stage.getDurationMs();
+        }
+
+        timer.schedule(new StageBoundaryTimerTask("load profile completed", durationExpired), delayMs);
+
+        log.debug("profile timer tasks scheduled, the profile will complete after " + delayMs + " ms");
+
+        return timer;
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
     /**
@@ -304,4 +463,37 @@ public class MultiThreadedRunnerImpl implements MultiThreadedRunner {
             durationExpired.set(true);
         }
     }
+
+    /**
+     * A class that annotates the sampler at a stage boundary and, optionally, stops the multi-threaded runner.
+     */
+    private class StageBoundaryTimerTask extends TimerTask {
+
+        private String annotation;
+
+        // null if the task does not stop the runner
+        private AtomicBoolean durationExpired;
+
+        private StageBoundaryTimerTask(String annotation, AtomicBoolean durationExpired) {
+
+            this.annotation = annotation;
+            this.durationExpired = durationExpired;
+        }
+
+        @Override
+        public void run() {
+
+            log.debug(annotation);
+
+            if (sampler != null) {
+
+                sampler.annotate(annotation);
+            }
+
+            if (durationExpired != null) {
+
+                durationExpired.set(true);
+            }
+        }
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver;
+
+/**
+ * The open-loop timeline of a single SingleThreadedRunner: hands over the intended start times of the operations the
+ * runner issues, expressed in System.nanoTime() units.
+ *
+ * Implementations are not required to be thread-safe, a schedule is accessed only from its runner thread.
+ *
+ * @see FixedRateSchedule
+ * @see StagedSchedule
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public interface Schedule {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returned by next() when the next operation is not scheduled, and it should be issued immediately, in closed-loop
+     * fashion.
+     */
+    long UNSCHEDULED = Long.MIN_VALUE;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param nowNano the current System.nanoTime() value.
+     *
+     * @return the intended start time of the next operation, in System.nanoTime() units, and advances the schedule. The
+     * returned value may be in the past, if the runner fell behind. Long.MAX_VALUE means that no more operations are
+     * scheduled. UNSCHEDULED means that the next operation should be issued immediately.
+     */
+    long next(long nowNano);
+
+}
@@ -16,16 +16,26 @@
 
 package io.novaordis.gld.driver;
 
+import io.novaordis.gld.api.AsyncOperation;
 import io.novaordis.gld.api.KeyStore;
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.TimestampedOperation;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.api.sampler.Sampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 public class SingleThreadedRunner implements Runnable {
 
@@ -34,6 +44,17 @@ public class SingleThreadedRunner implements Runnable {
     private static final Logger log = LoggerFactory.getLogger(SingleThreadedRunner.class);
     private static final boolean debug = log.isDebugEnabled();
 
+    //
+    // the maximum amount of time a runner parks in one go while waiting for its next scheduled operation, so it stays
+    // responsive to stop() and to duration expiration when the rate is low
+    //
+    public static final long MAX_SCHEDULE_PARK_NANOS = 100L * 1000 * 1000;
+
+    //
+    // how long a runner waits, on exit, for its in-flight asynchronous operations to complete
+    //
+    public static final long IN_FLIGHT_DRAIN_TIMEOUT_MS = 10000L;
+
     // Static ----------------------------------------------------------------------------------------------------------
 
     // Attributes ------------------------------------------------------------------------------------------------------
@@ -53,6 +74,18 @@ public class SingleThreadedRunner implements Runnable {
 
     private AtomicBoolean durationExpired;
 
+    // null in closed-loop mode
+    private Schedule schedule;
+
+    // the maximum number of asynchronous operations in flight, 1 means synchronous operations
+    private int inFlight;
+
+    // asynchronous mode only: in-flight operation permits and the operations that completed since the last
+    // loadStrategy.next() invocation
+    private Semaphore inFlightPermits;
+    private ConcurrentLinkedQueue<Operation> completedOperations;
+    private volatile String lastAsynchronouslyHandledKey;
+
     // Constructors ----------------------------------------------------------------------------------------------------
 
     /**
@@ -69,6 +102,37 @@ public class SingleThreadedRunner implements Runnable {
                                 Sampler sampler, CyclicBarrier barrier, AtomicBoolean durationExpired,
                                 long singleThreadedRunnerSleepMs, KeyStore keyStore) {
 
+        this(name, service, loadStrategy, sampler, barrier, durationExpired, singleThreadedRunnerSleepMs, keyStore, null);
+    }
+
+    /**
+     * @param schedule the open-loop schedule the runner issues operations on. null means closed-loop mode: the runner
+     *                 issues a new operation as soon as the previous one completes (possibly after sleeping
+     *                 singleThreadedRunnerSleepMs). If not null, singleThreadedRunnerSleepMs is ignored.
+     *
+     * @see SingleThreadedRunner#SingleThreadedRunner(String, Service, LoadStrategy, Sampler, CyclicBarrier,
+     * AtomicBoolean, long, KeyStore)
+     */
+    public SingleThreadedRunner(String name, Service service, LoadStrategy loadStrategy,
+                                Sampler sampler, CyclicBarrier barrier, AtomicBoolean durationExpired,
+                                long singleThreadedRunnerSleepMs, KeyStore keyStore, Schedule schedule) {
+
+        this(name, service, loadStrategy, sampler, barrier, durationExpired, singleThreadedRunnerSleepMs, keyStore,
+                schedule, null);
+    }
+
+    /**
+     * @param threadFactory the factory to create the runner's thread with (for example, a VirtualThreadFactory). null
+     *                      means a platform thread.
+     *
+     * @see SingleThreadedRunner#SingleThreadedRunner(String, Service, LoadStrategy, Sampler, CyclicBarrier,
+     * AtomicBoolean, long, KeyStore, Schedule)
+     */
+    public SingleThreadedRunner(String name, Service service, LoadStrategy loadStrategy,
+                                Sampler sampler, CyclicBarrier barrier, AtomicBoolean durationExpired,
+                                long singleThreadedRunnerSleepMs, KeyStore keyStore, Schedule schedule,
+                                ThreadFactory threadFactory) {
+
         if (service == null) {
             throw new IllegalArgumentException("null service");
         }
@@ -89,8 +153,18 @@ public class SingleThreadedRunner implements Runnable {
         this.keyStore = keyStore;
         this.allSingleThreadedRunnersBarrier = barrier;
         this.durationExpired = durationExpired;
+        this.schedule = schedule;
+        this.inFlight = 1;
+
+        if (threadFactory == null) {
 
-        thread = new Thread(this, name + " Thread");
+            thread = new Thread(this, name + " Thread");
+        }
+        else {
+
+            thread = threadFactory.newThread(this);
+            thread.setName(name + " Thread");
+        }
     }
 
     // Runnable implementation -----------------------------------------------------------------------------------------
@@ -107,6 +181,11 @@ public class SingleThreadedRunner implements Runnable {
         }
         finally {
 
+            if (inFlightPermits != null) {
+
+                waitForInFlightOperations();
+            }
+
             try {
 
                 allSingleThreadedRunnersBarrier.await();
@@ -125,6 +204,47 @@ public class SingleThreadedRunner implements Runnable {
         return name;
     }
 
+    /**
+     * @return the maximum number of asynchronous operations this runner keeps in flight. 1 means the runner performs
+     * its operations synchronously.
+     */
+    public int getInFlight() {
+
+        return inFlight;
+    }
+
+    /**
+     * If larger than 1, the runner performs the operations that support it asynchronously, without waiting for the
+     * previous operations to complete, as long as no more than 'inFlight' operations are incomplete. The operations
+     * that do not support asynchronous execution against the runner's service are performed synchronously. Must be
+     * invoked before the runner is started.
+     *
+     * In asynchronous mode, the load strategy is not handed over the last issued operation, which may be incomplete,
+     * but one of the operations that completed since the previous invocation, or null if none completed.
+     *
+     * @see AsyncOperation
+     */
+    public void setInFlight(int inFlight) {
+
+        if (inFlight < 1) {
+
+            throw new IllegalArgumentException("invalid in-flight operation count " + inFlight);
+        }
+
+        this.inFlight = inFlight;
+
+        if (inFlight == 1) {
+
+            this.inFlightPermits = null;
+            this.completedOperations = null;
+        }
+        else {
+
+            this.inFlightPermits = new Semaphore(inFlight);
+            this.completedOperations = new ConcurrentLinkedQueue<>();
+        }
+    }
+
     public void start() {
 
         log.debug(this + " starting ...");
@@ -153,6 +273,14 @@ public class SingleThreadedRunner implements Runnable {
         return sampler;
     }
 
+    /**
+     * @return the open-loop schedule, or null if the runner operates in closed-loop mode.
+     */
+    Schedule getSchedule() {
+
+        return schedule;
+    }
+
     // Protected -------------------------------------------------------------------------------------------------------
 
     // Private ---------------------------------------------------------------------------------------------------------
@@ -162,6 +290,34 @@ public class SingleThreadedRunner implements Runnable {
         return durationExpired.get();
     }
 
+    /**
+     * Parks the current thread until the given System.nanoTime() moment. Returns immediately if the moment is in the
+     * past. Parks in chunks not longer than MAX_SCHEDULE_PARK_NANOS, so it can return early if the runner is stopped
+     * or the duration expires.
+     *
+     * @return true if the moment was reached, false if the wait was cut short because the runner was stopped or the
+     * duration expired.
+     */
+    private boolean waitUntil(long intendedStartNano) {
+
+        while(true) {
+
+            long delta = intendedStartNano - System.nanoTime();
+
+            if (delta <= 0) {
+
+                return true;
+            }
+
+            if (!running || runnerIsShuttingDown()) {
+
+                return false;
+            }
+
+            LockSupport.parkNanos(Math.min(delta, MAX_SCHEDULE_PARK_NANOS));
+        }
+    }
+
     @SuppressWarnings("ConstantConditions")
     private void loopUntilStoppedOrOutOfOperationsOrDurationExpired() throws Exception {
 
@@ -169,15 +325,33 @@ public class SingleThreadedRunner implements Runnable {
         String lastSuccessfullyHandledKey = null;
         Operation lastOperation = null;
 
+        //
+        // the load strategy is shared with the other runners, its per-thread state lives in a context owned by this
+        // thread
+        //
+
+        LoadStrategyContext loadStrategyContext = loadStrategy.newContext();
+
         while (running) {
 
+            if (inFlightPermits != null) {
+
+                //
+                // asynchronous mode: the strategy gets to see a completed operation, if any, not the last issued one
+                //
+
+                lastOperation = completedOperations.poll();
+                lastSuccessfullyHandledKey = lastAsynchronouslyHandledKey;
+            }
+
             //
             // if the runner is shutting down, let the strategy know but keep spinning, as we may need
             // multiple operations to clean up the state. Let the strategy return null when it decides it issued
             // enough cleanup operations
             //
 
-            Operation op = loadStrategy.next(lastOperation, lastSuccessfullyHandledKey, runnerIsShuttingDown());
+            Operation op = loadStrategy.next(
+                    loadStrategyContext, lastOperation, lastSuccessfullyHandledKey, runnerIsShuttingDown());
 
             if (op == null) {
 
@@ -191,6 +365,53 @@ public class SingleThreadedRunner implements Runnable {
                 return;
             }
 
+            //
+            // the moment the operation is intended to start; in closed-loop mode, it is the moment it actually starts
+            //
+
+            long intendedT0 = 0L;
+            boolean onSchedule = false;
+
+            if (schedule != null) {
+
+                //
+                // open-loop mode: wait for the operation's slot on the timeline, irrespective of how long the previous
+                // operation took. If we're behind schedule, we don't wait at all
+                //
+
+                intendedT0 = schedule.next(System.nanoTime());
+
+                //
+                // a staged schedule may leave operations unscheduled (closed-loop stages), those are issued right away
+                //
+
+                onSchedule = intendedT0 != Schedule.UNSCHEDULED && waitUntil(intendedT0);
+
+                //
+                // if the duration expired while we were waiting, the operation is started ahead of its slot, and it
+                // will be recorded as if it started on time
+                //
+
+                if (!onSchedule && !running) {
+
+                    log.debug(Thread.currentThread().getName() + " stopped while waiting for the next scheduled " +
+                            "operation, " + operationCounter + " operations processed by this thread, exiting");
+
+                    return;
+                }
+            }
+
+            boolean async = inFlightPermits != null &&
+                    op instanceof AsyncOperation && ((AsyncOperation)op).supportsAsync(service);
+
+            if (async && !acquireInFlightPermit()) {
+
+                log.debug(Thread.currentThread().getName() + " stopped while waiting for an in-flight operation " +
+                        "to complete, " + operationCounter + " operations processed by this thread, exiting");
+
+                return;
+            }
+
             lastOperation = op;
             operationCounter ++;
 
@@ -199,6 +420,18 @@ public class SingleThreadedRunner implements Runnable {
             long t0 = System.nanoTime();
             long t0Ms = System.currentTimeMillis();
 
+            if (!onSchedule) {
+
+                intendedT0 = t0;
+            }
+
+            if (async) {
+
+                performAsynchronously((AsyncOperation)op, t0Ms, intendedT0, t0);
+                sleepIfNecessary();
+                continue;
+            }
+
             try  {
 
                 op.perform(service);
@@ -236,21 +469,155 @@ public class SingleThreadedRunner implements Runnable {
 
                 if (sampler != null) {
 
-                    sampler.record(t0Ms, t0, t1, op, ex);
-                }
+                    if (op instanceof TimestampedOperation) {
 
-                if (singleThreadedRunnerSleepMs > 0) {
+                        //
+                        // the operation's response time is measured from its own origin. The origin is derived from
+                        // a millisecond wall clock, so a message sent while the operation was blocked waiting for it,
+                        // or one that arrived in less than a millisecond, may carry an origin that is later than t0;
+                        // the origin cannot be later than the moment the operation started waiting
+                        //
 
-                    try {
+                        Long originNano = ((TimestampedOperation)op).getOriginNano();
 
-                        Thread.sleep(singleThreadedRunnerSleepMs);
-                    }
-                    catch (InterruptedException e) {
+                        if (originNano != null) {
 
-                        log.warn("interrupted while sleeping");
+                            intendedT0 = Math.min(originNano, t0);
+                        }
                     }
+
+                    sampler.record(t0Ms, intendedT0, t0, t1, op, ex);
+                }
+
+                sleepIfNecessary();
+            }
+        }
+    }
+
+    private void sleepIfNecessary() {
+
+        if (schedule == null && singleThreadedRunnerSleepMs > 0) {
+
+            try {
+
+                Thread.sleep(singleThreadedRunnerSleepMs);
+            }
+            catch (InterruptedException e) {
+
+                log.warn("interrupted while sleeping");
+            }
+        }
+    }
+
+    /**
+     * Blocks until the number of in-flight operations drops under the limit.
+     *
+     * @return false if the wait was cut short because the runner was stopped.
+     */
+    private boolean acquireInFlightPermit() throws InterruptedException {
+
+        while(true) {
+
+            if (inFlightPermits.tryAcquire(MAX_SCHEDULE_PARK_NANOS, TimeUnit.NANOSECONDS)) {
+
+                return true;
+            }
+
+            if (!running) {
+
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Initiates the operation and returns without waiting for it to complete. The completion is handled on the thread
+     * that completes the operation's future, usually a client library I/O thread. The caller must hold an in-flight
+     * permit, which is released when the operation completes.
+     */
+    private void performAsynchronously(AsyncOperation op, long t0Ms, long intendedT0, long t0) {
+
+        CompletableFuture<Void> f;
+
+        try {
+
+            f = op.performAsync(service);
+        }
+        catch(Throwable t) {
+
+            f = new CompletableFuture<>();
+            f.completeExceptionally(t);
+        }
+
+        f.whenComplete((v, t) -> asynchronousOperationCompleted(op, t0Ms, intendedT0, t0, System.nanoTime(), t));
+    }
+
+    private void asynchronousOperationCompleted(
+            Operation op, long t0Ms, long intendedT0, long t0, long t1, Throwable t) {
+
+        try {
+
+            if (t instanceof CompletionException && t.getCause() != null) {
+
+                t = t.getCause();
+            }
+
+            if (t != null) {
+
+                log.info("operation failed: " + t.getMessage(), t);
+            }
+            else {
+
+                if (debug) {
+
+                    log.debug(op + " executed asynchronously against " + service);
+                }
+
+                if (keyStore != null) {
+
+                    String key = op.getKey();
+                    keyStore.store(key);
+                    lastAsynchronouslyHandledKey = key;
                 }
             }
+
+            if (sampler != null) {
+
+                sampler.record(t0Ms, intendedT0, t0, t1, op, t);
+            }
+        }
+        catch(Throwable e) {
+
+            log.error(this + " failed to handle the completion of " + op, e);
+        }
+        finally {
+
+            completedOperations.add(op);
+            inFlightPermits.release();
+        }
+    }
+
+    /**
+     * Gives the in-flight asynchronous operations a chance to complete, so they are accounted for, before the runner
+     * exits.
+     */
+    private void waitForInFlightOperations() {
+
+        try {
+
+            if (inFlightPermits.tryAcquire(inFlight, IN_FLIGHT_DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+
+                inFlightPermits.release(inFlight);
+            }
+            else {
+
+                log.warn(this + ": " + (inFlight - inFlightPermits.availablePermits()) +
+                        " operation(s) still in flight after " + IN_FLIGHT_DRAIN_TIMEOUT_MS + " ms, exiting");
+            }
+        }
+        catch(InterruptedException e) {
+
+            log.warn(this + " interrupted while waiting for in-flight operations to complete");
         }
     }
 
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver;
+
+import io.novaordis.gld.api.configuration.LoadStage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The timeline of a single SingleThreadedRunner driven by a staged load profile. The stages are walked in order, on a
+ * timeline shared by all threads and anchored at a common origin.
+ *
+ * In an open-loop stage, the stage's arrival rate is spread over the stage's active threads: the k-th operation of the
+ * stage (counting across all active threads) is intended to start at the moment t(k) at which the cumulative number of
+ * arrivals C(t) reaches k. For a linear ramp from r0 to r1 over D seconds, C(t) = r0*t + (r1 - r0)*t^2/(2D), and t(k)
+ * is obtained by inverting C. Active thread i owns the slots i, i + n, i + 2n, ..., where n is the stage's active
+ * thread count, so the threads interleave evenly. As in FixedRateSchedule, the slot times are computed from the stage
+ * start and the slot index, so rounding errors do not accumulate, and a runner that falls behind issues its late slots
+ * back-to-back until it catches up.
+ *
+ * In a closed-loop stage, the operations are not scheduled: the runner issues them back-to-back until the stage ends.
+ *
+ * A thread whose index is larger than or equal to a stage's active thread count sits the stage out, waiting for the
+ * first subsequent stage it is active in. After the last stage, no more operations are scheduled.
+ *
+ * Not thread-safe, it is supposed to be accessed only from its runner thread.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class StagedSchedule implements Schedule {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the offset, in seconds, relative to the stage start, of the k-th arrival of an open-loop stage.
+     */
+    static double slotTime(LoadStage stage, long k) {
+
+        if (k == 0) {
+
+            return 0d;
+        }
+
+        double r0 = stage.getRate();
+        double r1 = stage.getTargetRate();
+        double a = (r1 - r0) / (2 * stage.getDurationMs() / 1000d);
+
+        if (a == 0d) {
+
+            return k / r0;
+        }
+
+        //
+        // numerically stable form of the positive root of a*t^2 + r0*t - k = 0
+        //
+
+        return 2 * k / (r0 + Math.sqrt(r0 * r0 + 4 * a * k));
+    }
+
+    /**
+     * @return the number of arrivals in an open-loop stage.
+     */
+    static double slotCount(LoadStage stage) {
+
+        return (stage.getRate() + stage.getTargetRate()) / 2 * stage.getDurationMs() / 1000d;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private List<LoadStage> stages;
+    private int threadCount;
+    private int threadIndex;
+
+    // the stage boundaries, in System.nanoTime() units; stage i spans [boundaries[i], boundaries[i + 1])
+    private long[] boundaries;
+
+    // the index of the current stage
+    private int stage;
+
+    // the index of the next slot, within the current stage, to be handed over by this thread
+    private long slot;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param stages the stages, in order. Must not be empty.
+     * @param threadCount the total number of threads. A stage that does not specify its active thread count uses all
+     *                    threads.
+     * @param threadIndex the 0-based index of the thread the schedule is built for.
+     * @param originNano the common origin of all threads' timelines (the start of the first stage), in
+     *                   System.nanoTime() units.
+     */
+    public StagedSchedule(List<LoadStage> stages, int threadCount, int threadIndex, long originNano) {
+
+        if (stages == null || stages.isEmpty()) {
+
+            throw new IllegalArgumentException("null or empty stage list");
+        }
+
+        if (threadCount <= 0) {
+
+            throw new IllegalArgumentException("invalid thread count " + threadCount);
+        }
+
+        if (threadIndex < 0 || threadIndex >= threadCount) {
+
+            throw new IllegalArgumentException("invalid thread index " + threadIndex);
+        }
+
+        this.stages = new ArrayList<>(stages);
+        this.threadCount = threadCount;
+        this.threadIndex = threadIndex;
+        this.boundaries = new long[stages.size() + 1];
+
+        long t = originNano;
+
+        for(int i = 0; i < stages.size(); i ++) {
+
+            boundaries[i] = t;
+            t += stages.get(i).getDurationMs() * 1000000L;
+        }
+
+        boundaries[stages.size()] = t;
+    }
+
+    // Schedule implementation -----------------------------------------------------------------------------------------
+
+    @Override
+    public long next(long nowNano) {
+
+        while(stage < stages.size()) {
+
+            LoadStage s = stages.get(stage);
+            int activeThreadCount = getActiveThreadCount(s);
+
+            if (threadIndex >= activeThreadCount) {
+
+                advance();
+                continue;
+            }
+
+            long start = boundaries[stage];
+
+            if (s.getRate() == null) {
+
+                //
+                // closed-loop stage
+                //
+
+                if (nowNano - boundaries[stage + 1] >= 0) {
+
+                    advance();
+                    continue;
+                }
+
+                return nowNano - start < 0 ? start : UNSCHEDULED;
+            }
+
+            long k = threadIndex + slot * activeThreadCount;
+
+            if (k >= slotCount(s)) {
+
+                advance();
+                continue;
+            }
+
+            slot ++;
+
+            return start + Math.round(slotTime(s, k) * 1000000000d);
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public long getOriginNano() {
+
+        return boundaries[0];
+    }
+
+    /**
+     * @return the moment the last stage ends, in System.nanoTime() units.
+     */
+    public long getEndNano() {
+
+        return boundaries[stages.size()];
+    }
+
+    @Override
+    public String toString() {
+
+        return "StagedSchedule[thread " + threadIndex + "/" + threadCount + ", " + stages.size() + " stage(s)]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private int getActiveThreadCount(LoadStage s) {
+
+        Integer i = s.getThreadCount();
+
+        return i == null ? threadCount : Math.min(i, threadCount);
+    }
+
+    private void advance() {
+
+        stage ++;
+        slot = 0L;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
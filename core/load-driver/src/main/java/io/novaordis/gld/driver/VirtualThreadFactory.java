@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads, if the runtime supports them (Java 21 or newer). Virtual threads are cheap to create and
+ * to block, so a single load driver instance can run hundreds of thousands of concurrent SingleThreadedRunners.
+ *
+ * The load driver is built for Java 8, so the virtual thread API is accessed reflectively. Use isSupported() to find
+ * out whether the current runtime supports virtual threads.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/12/17
+ */
+public class VirtualThreadFactory implements ThreadFactory {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadFactory.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Thread.ofVirtual(), null if virtual threads are not supported
+    private static final Method OF_VIRTUAL;
+
+    // Thread.Builder.unstarted(Runnable)
+    private static final Method UNSTARTED;
+
+    static {
+
+        Method ofVirtual = null;
+        Method unstarted = null;
+
+        try {
+
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            unstarted = builderClass.getMethod("unstarted", Runnable.class);
+
+            //
+            // on runtimes where virtual threads are a preview feature, the invocation fails unless preview features
+            // are enabled
+            //
+
+            ofVirtual.invoke(null);
+        }
+        catch(Throwable t) {
+
+            log.debug("virtual threads not supported by the current runtime: " + t);
+
+            ofVirtual = null;
+            unstarted = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        UNSTARTED = unstarted;
+    }
+
+    public static boolean isSupported() {
+
+        return OF_VIRTUAL != null;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @throws IllegalStateException if the current runtime does not support virtual threads.
+     */
+    public VirtualThreadFactory() {
+
+        if (!isSupported()) {
+
+            throw new IllegalStateException(
+                    "virtual threads are not supported by the current runtime (" +
+                            System.getProperty("java.version") + ")");
+        }
+    }
+
+    // ThreadFactory implementation ------------------------------------------------------------------------------------
+
+    /**
+     * @return a new, unstarted virtual thread.
+     */
+    @Override
+    public Thread newThread(Runnable r) {
+
+        try {
+
+            Object builder = OF_VIRTUAL.invoke(null);
+            return (Thread)UNSTARTED.invoke(builder, r);
+        }
+        catch(InvocationTargetException e) {
+
+            throw new IllegalStateException("failed to create a virtual thread", e.getCause());
+        }
+        catch(IllegalAccessException e) {
+
+            throw new IllegalStateException("failed to create a virtual thread", e);
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "VirtualThreadFactory";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.capacity;
+
+import io.novaordis.gld.api.configuration.CapacitySearchConfiguration;
+import io.novaordis.gld.api.configuration.Configuration;
+import io.novaordis.utilities.UserErrorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Searches for the maximum sustainable throughput of the target service: the highest arrival rate at which the
+ * service complies with the configured SLA.
+ *
+ * The search runs a sequence of short open-loop trials. Starting from the initial rate, the rate is doubled after each
+ * compliant trial, until a trial breaches the SLA or the maximum rate is reached. The interval between the highest
+ * compliant rate and the lowest non-compliant rate is then bisected until its width drops below the configured
+ * resolution, or the maximum number of trials is reached.
+ *
+ * A trial breaches the SLA if any of the configured response time percentiles exceeds its threshold, if the error rate
+ * exceeds the maximum error rate, or if the achieved rate falls short of the target rate by more than
+ * MIN_ACHIEVED_RATE_RATIO. The response times are measured from the intended start of the operations, so a target
+ * service that cannot keep up with the arrival rate shows up as growing response times.
+ *
+ * @see CapacitySearchConfiguration
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class CapacitySearch {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(CapacitySearch.class);
+
+    //
+    // a trial whose achieved rate is lower than this fraction of the target rate does not comply with the SLA
+    //
+    public static final double MIN_ACHIEVED_RATE_RATIO = 0.95d;
+
+    public static final double RATE_GROWTH_FACTOR = 2d;
+
+    public static final double[] REPORTED_PERCENTILES = new double[] { 50d, 90d, 99d, 99.9d };
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private CapacitySearchConfiguration configuration;
+
+    private TrialExecutor executor;
+
+    private List<TrialResult> trials;
+
+    // null if no trial complied with the SLA
+    private TrialResult highestCompliant;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param c the load driver configuration, each trial is run with it.
+     *
+     * @exception UserErrorException if the configuration does not contain a capacity search configuration.
+     */
+    public CapacitySearch(Configuration c) throws UserErrorException {
+
+        this(getCapacitySearchConfiguration(c), null);
+
+        this.executor = new LoadDriverTrialExecutor(
+                c, configuration.getTrialDurationMs(), configuration.getWarmUpMs());
+    }
+
+    /**
+     * Testing.
+     */
+    CapacitySearch(CapacitySearchConfiguration configuration, TrialExecutor executor) {
+
+        this.configuration = configuration;
+        this.executor = executor;
+        this.trials = new ArrayList<>();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Runs the search, and blocks until it completes. If a curve file is configured, the latency-versus-throughput curve
+     * is written into it at the end of the search.
+     */
+    public void run() throws Exception {
+
+        log.debug(this + " running, SLA: " + configuration);
+
+        Double maxRate = configuration.getMaxRate();
+        double initialRate = configuration.getInitialRate();
+
+        //
+        // the highest compliant rate and the lowest non-compliant rate found so far
+        //
+
+        double low = 0d;
+        double high = Double.POSITIVE_INFINITY;
+
+        double rate = initialRate;
+
+        while(trials.size() < configuration.getMaxTrials()) {
+
+            //
+            // phase one: grow the rate until the SLA is breached
+            //
+
+            if (runTrial(rate).isCompliant()) {
+
+                low = rate;
+
+                if (maxRate != null && rate >= maxRate) {
+
+                    log.debug("the maximum rate " + maxRate + " complies with the SLA");
+                    break;
+                }
+
+                rate = maxRate == null ? rate * RATE_GROWTH_FACTOR : Math.min(rate * RATE_GROWTH_FACTOR, maxRate);
+            }
+            else {
+
+                high = rate;
+                break;
+            }
+        }
+
+        while(high != Double.POSITIVE_INFINITY && trials.size() < configuration.getMaxTrials()) {
+
+            //
+            // phase two: bisect the interval between the highest compliant rate and the lowest non-compliant rate
+            //
+
+            if (high - low <= configuration.getResolution() * high) {
+
+                break;
+            }
+
+            if (low == 0d && high < initialRate * configuration.getResolution()) {
+
+                log.debug("no compliant rate found above " + high + " operations/sec, giving up");
+                break;
+            }
+
+            rate = (low + high) / 2;
+
+            if (runTrial(rate).isCompliant()) {
+
+                low = rate;
+            }
+            else {
+
+                high = rate;
+            }
+        }
+
+        log.debug(this + " completed after " + trials.size() + " trial(s)");
+
+        File curveFile = configuration.getCurveFile();
+
+        if (curveFile != null) {
+
+            writeCurve(curveFile);
+        }
+    }
+
+    /**
+     * @return the highest compliant rate, in operations per second, or null if no trial complied with the SLA.
+     */
+    public Double getHighestCompliantRate() {
+
+        return highestCompliant == null ? null : highestCompliant.getTargetRate();
+    }
+
+    /**
+     * @return the trials, in the order of their target rates.
+     */
+    public List<TrialResult> getTrials() {
+
+        List<TrialResult> result = new ArrayList<>(trials);
+        result.sort(Comparator.comparingDouble(TrialResult::getTargetRate));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return the search result and the latency-versus-throughput curve, in a human readable format.
+     */
+    public String getReport() {
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("capacity search, SLA: ").append(configuration).append(", ").
+                append(trials.size()).append(" trial(s)\n");
+
+        if (highestCompliant == null) {
+
+            sb.append("no trial complied with the SLA\n");
+        }
+        else {
+
+            sb.append(String.format("highest compliant rate: %.1f ops/s (achieved %.1f ops/s)\n",
+                    highestCompliant.getTargetRate(), highestCompliant.getAchievedRate()));
+        }
+
+        sb.append(String.format("%14s %14s", "target ops/s", "achieved ops/s"));
+
+        for(double p: REPORTED_PERCENTILES) {
+
+            sb.append(String.format(" %10s", "p" + formatPercentile(p) + " ms"));
+        }
+
+        sb.append(String.format(" %10s %10s  %s", "max ms", "errors", "SLA"));
+
+        for(TrialResult t: getTrials()) {
+
+            sb.append("\n").append(String.format("%14.1f %14.1f", t.getTargetRate(), t.getAchievedRate()));
+
+            for(double p: REPORTED_PERCENTILES) {
+
+                sb.append(String.format(" %10.3f", t.getResponseTimePercentileNano(p) / 1000000d));
+            }
+
+            sb.append(String.format(" %10.3f %9.3f%%  %s", t.getMaxResponseTimeNano() / 1000000d,
+                    t.getErrorRate() * 100, t.isCompliant() ? "met" : t.getSlaViolation()));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Writes the latency-versus-throughput curve in CSV format, one line per trial, in the order of the target rates.
+     */
+    public void writeCurve(File f) throws UserErrorException {
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(f))) {
+
+            StringBuilder sb = new StringBuilder("target rate (ops/s), achieved rate (ops/s)");
+
+            for(double p: REPORTED_PERCENTILES) {
+
+                sb.append(", p").append(formatPercentile(p)).append(" (ms)");
+            }
+
+            sb.append(", max (ms), error rate, SLA met");
+
+            pw.println(sb);
+
+            for(TrialResult t: getTrials()) {
+
+                sb.setLength(0);
+                sb.append(t.getTargetRate()).append(", ").append(t.getAchievedRate());
+
+                for(double p: REPORTED_PERCENTILES) {
+
+                    sb.append(", ").append(t.getResponseTimePercentileNano(p) / 1000000d);
+                }
+
+                sb.append(", ").append(t.getMaxResponseTimeNano() / 1000000d).append(", ").
+                        append(t.getErrorRate()).append(", ").append(t.isCompliant());
+
+                pw.println(sb);
+            }
+        }
+        catch(IOException e) {
+
+            throw new UserErrorException("failed to write the capacity curve into " + f, e);
+        }
+
+        log.debug("capacity curve written into " + f);
+    }
+
+    @Override
+    public String toString() {
+
+        return "CapacitySearch[" + configuration.getInitialRate() + " ops/s initial rate]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * @return a human readable description of the SLA violation, or null if the trial complies with the SLA.
+     */
+    String evaluate(TrialResult t) {
+
+        if (t.getSuccessCount() + t.getFailureCount() == 0) {
+
+            return "no operations performed";
+        }
+
+        for(Map.Entry<Double, Long> e: configuration.getLatencyThresholdsNano().entrySet()) {
+
+            long value = t.getResponseTimePercentileNano(e.getKey());
+
+            if (value > e.getValue()) {
+
+                return String.format("p%s %.3f ms > %.3f ms",
+                        formatPercentile(e.getKey()), value / 1000000d, e.getValue() / 1000000d);
+            }
+        }
+
+        Double maxErrorRate = configuration.getMaxErrorRate();
+
+        if (maxErrorRate != null && t.getErrorRate() > maxErrorRate) {
+
+            return String.format("error rate %.3f%% > %.3f%%", t.getErrorRate() * 100, maxErrorRate * 100);
+        }
+
+        if (t.getAchievedRate() < t.getTargetRate() * MIN_ACHIEVED_RATE_RATIO) {
+
+            return String.format("achieved rate %.1f ops/s < %.0f%% of target",
+                    t.getAchievedRate(), MIN_ACHIEVED_RATE_RATIO * 100);
+        }
+
+        return null;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static CapacitySearchConfiguration getCapacitySearchConfiguration(Configuration c)
+            throws UserErrorException {
+
+        CapacitySearchConfiguration csc = c.getLoadConfiguration().getCapacitySearch();
+
+        if (csc == null) {
+
+            throw new UserErrorException("no capacity search configuration");
+        }
+
+        return csc;
+    }
+
+    private static String formatPercentile(double p) {
+
+        return p == Math.rint(p) ? Long.toString((long)p) : Double.toString(p);
+    }
+
+    private TrialResult runTrial(double rate) throws Exception {
+
+        TrialResult t = executor.execute(rate);
+
+        t.setSlaViolation(evaluate(t));
+
+        trials.add(t);
+
+        if (t.isCompliant() && (highestCompliant == null || t.getTargetRate() > highestCompliant.getTargetRate())) {
+
+            highestCompliant = t;
+        }
+
+        log.debug("trial " + trials.size() + ": " + t);
+
+        return t;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
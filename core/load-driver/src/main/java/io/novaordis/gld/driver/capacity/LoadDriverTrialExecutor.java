@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.capacity;
+
+import io.novaordis.gld.api.configuration.Configuration;
+import io.novaordis.gld.driver.LoadDriverImpl;
+import io.novaordis.gld.driver.MultiThreadedRunner;
+import io.novaordis.utilities.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs each trial with a new, background, load driver instance, initialized with the search configuration. The
+ * instance's arrival rate and duration are set by the search, and its statistics are collected in memory instead of
+ * being sent to the configured output.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+class LoadDriverTrialExecutor implements TrialExecutor {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriverTrialExecutor.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private Configuration configuration;
+    private long trialDurationMs;
+    private long warmUpMs;
+
+    private int trialCount;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    LoadDriverTrialExecutor(Configuration configuration, long trialDurationMs, long warmUpMs) {
+
+        this.configuration = configuration;
+        this.trialDurationMs = trialDurationMs;
+        this.warmUpMs = warmUpMs;
+    }
+
+    // TrialExecutor implementation ------------------------------------------------------------------------------------
+
+    @Override
+    public TrialResult execute(double rate) throws Exception {
+
+        String id = "trial-" + (trialCount ++);
+
+        TrialCollector collector = new TrialCollector(warmUpMs);
+
+        LoadDriverImpl ld = new LoadDriverImpl(id, true);
+        ld.setSamplingConsumer(collector);
+        ld.init(configuration);
+
+        MultiThreadedRunner runner = (MultiThreadedRunner)ld.getRunner();
+        runner.setRate(rate);
+        runner.setDuration(new Duration(trialDurationMs));
+
+        log.debug(id + " starting at " + rate + " operations/sec for " + trialDurationMs + " ms");
+
+        collector.trialStarted(System.currentTimeMillis());
+
+        //
+        // blocks until the trial completes; the sampler is stopped, and the last interval delivered, on exit
+        //
+
+        ld.run();
+
+        return collector.getResult(rate);
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "LoadDriverTrialExecutor[" + trialDurationMs + " ms trials]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
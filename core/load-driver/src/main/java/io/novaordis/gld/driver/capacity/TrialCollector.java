@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.capacity;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.CounterValues;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+
+/**
+ * Accumulates a trial's sampling intervals, for all operation types. The intervals that start before the end of the
+ * warm-up are discarded.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+class TrialCollector implements SamplingConsumer {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private long warmUpMs;
+
+    // the intervals that start before this moment are discarded, -1 means the trial did not start yet
+    private long measurementStartMs;
+
+    private long successCount;
+    private long failureCount;
+    private long measuredDurationMs;
+    private LatencyHistogram responseTimes;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    TrialCollector(long warmUpMs) {
+
+        this.warmUpMs = warmUpMs;
+        this.measurementStartMs = -1L;
+        this.responseTimes = new LatencyHistogram();
+    }
+
+    // SamplingConsumer implementation ---------------------------------------------------------------------------------
+
+    @Override
+    public synchronized void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+        for(SamplingInterval si: samplingIntervals) {
+
+            if (measurementStartMs < 0 || si.getStartMs() < measurementStartMs) {
+
+                continue;
+            }
+
+            measuredDurationMs += si.getDurationMs();
+
+            for(Class<? extends Operation> ot: si.getOperationTypes()) {
+
+                CounterValues cv = si.getCounterValues(ot);
+
+                successCount += cv.getSuccessCount();
+                failureCount += cv.getFailureCount();
+
+                LatencyHistogram h = cv.getSuccessResponseTimeHistogram();
+
+                if (h != null) {
+
+                    responseTimes.add(h);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+
+        //
+        // noop
+        //
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "TrialCollector";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * Marks the beginning of the trial, the warm-up is counted from this moment.
+     */
+    synchronized void trialStarted(long startMs) {
+
+        this.measurementStartMs = startMs + warmUpMs;
+    }
+
+    synchronized TrialResult getResult(double targetRate) {
+
+        return new TrialResult(targetRate, successCount, failureCount, measuredDurationMs, responseTimes.copy());
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.capacity;
+
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+
+/**
+ * The measurements of a capacity search trial: a load run at a fixed target arrival rate. Only the part of the trial
+ * that follows the warm-up is measured.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class TrialResult {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private double targetRate;
+    private long successCount;
+    private long failureCount;
+    private long measuredDurationMs;
+
+    // the successful operations' response time distribution
+    private LatencyHistogram responseTimes;
+
+    // null if the trial complies with the SLA
+    private String slaViolation;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param responseTimes the successful operations' response time distribution, in nanoseconds. null is equivalent
+     *                      with an empty distribution.
+     */
+    public TrialResult(double targetRate, long successCount, long failureCount, long measuredDurationMs,
+                       LatencyHistogram responseTimes) {
+
+        this.targetRate = targetRate;
+        this.successCount = successCount;
+        this.failureCount = failureCount;
+        this.measuredDurationMs = measuredDurationMs;
+        this.responseTimes = responseTimes == null ? new LatencyHistogram() : responseTimes;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the arrival rate the trial was run with, in operations per second.
+     */
+    public double getTargetRate() {
+
+        return targetRate;
+    }
+
+    /**
+     * @return the rate at which the operations (successful and failed) were actually performed, in operations per
+     * second.
+     */
+    public double getAchievedRate() {
+
+        if (measuredDurationMs <= 0) {
+
+            return 0d;
+        }
+
+        return (successCount + failureCount) * 1000d / measuredDurationMs;
+    }
+
+    public long getSuccessCount() {
+
+        return successCount;
+    }
+
+    public long getFailureCount() {
+
+        return failureCount;
+    }
+
+    /**
+     * @return the fraction of failed operations, 0 if no operation was performed.
+     */
+    public double getErrorRate() {
+
+        long total = successCount + failureCount;
+
+        return total == 0 ? 0d : (double)failureCount / total;
+    }
+
+    public long getMeasuredDurationMs() {
+
+        return measuredDurationMs;
+    }
+
+    /**
+     * @return the successful operations' response time at the given percentile, in nanoseconds.
+     */
+    public long getResponseTimePercentileNano(double percentile) {
+
+        return responseTimes.getValueAtPercentile(percentile);
+    }
+
+    public long getMaxResponseTimeNano() {
+
+        return responseTimes.getMaxValue();
+    }
+
+    /**
+     * @return true if the trial complies with the SLA.
+     */
+    public boolean isCompliant() {
+
+        return slaViolation == null;
+    }
+
+    /**
+     * @return a human readable description of the SLA violation, or null if the trial complies with the SLA.
+     */
+    public String getSlaViolation() {
+
+        return slaViolation;
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("%.1f ops/s target, %.1f ops/s achieved", targetRate, getAchievedRate()) +
+                (slaViolation == null ? ", SLA met" : ", " + slaViolation);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    void setSlaViolation(String s) {
+
+        this.slaViolation = s;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
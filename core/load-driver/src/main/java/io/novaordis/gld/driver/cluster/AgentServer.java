@@ -0,0 +1,446 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.cluster;
+
+import io.novaordis.gld.api.configuration.YamlBasedConfiguration;
+import io.novaordis.gld.driver.LoadDriverImpl;
+import io.novaordis.gld.driver.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.MessageDigest;
+
+/**
+ * The agent side of a load driver cluster. Listens for coordinator connections and serves them one at a time. For
+ * each session, the agent receives the YAML configuration, initializes a load driver, reports READY, waits for the
+ * coordinator's START, runs the load driver and streams its sampling intervals back to the coordinator. The statistics
+ * output configured in the YAML file is not written by the agent, only the sampling intervals configured there apply.
+ *
+ * Relative paths in the configuration (key store files, etc.) are resolved against the agent's working directory.
+ *
+ * Security: the configuration may name arbitrary classes to instantiate (service and store implementations, for
+ * example), so anyone who can send the agent a configuration can run code on the agent's host, with the agent's
+ * privileges. For that reason the agent listens on the loopback interface by default. When it is bound to an
+ * address that is reachable from other hosts, a secret should be configured, on the agent and on the coordinator
+ * (the GLD_CLUSTER_SECRET environment variable): the agent then serves a session only if the coordinator proves it
+ * knows the same secret. The traffic is not encrypted, so the agents should still be only reachable from a trusted
+ * network.
+ *
+ * The agent serves one session at a time, so it does not wait indefinitely for a coordinator: the handshake and the
+ * configuration must arrive within the handshake timeout, and START must arrive within the start timeout after READY.
+ * Otherwise, the agent drops the connection, releases the load driver it initialized, if any, and accepts the next
+ * coordinator.
+ *
+ * @see Coordinator
+ * @see Protocol
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class AgentServer {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(AgentServer.class);
+
+    public static final int DEFAULT_PORT = 7171;
+
+    public static final String SECRET_ENVIRONMENT_VARIABLE = "GLD_CLUSTER_SECRET";
+
+    public static final int DEFAULT_HANDSHAKE_TIMEOUT_MS = 30000;
+
+    //
+    // the coordinator only sends START after all agents are READY, and some of them may be slower to initialize
+    //
+    public static final int DEFAULT_START_TIMEOUT_MS = 300000;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private InetAddress bindAddress;
+
+    private int port;
+
+    // null means the coordinators are not authenticated
+    private String secret;
+
+    private int handshakeTimeoutMs;
+    private int startTimeoutMs;
+
+    private volatile ServerSocket serverSocket;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Listens on the loopback interface.
+     *
+     * @param port 0 means an ephemeral port, use getPort() after start() to find out which.
+     */
+    public AgentServer(int port) {
+
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * @param bindAddress the address to listen on. The wildcard address (0.0.0.0) means all interfaces.
+     * @param port 0 means an ephemeral port, use getPort() after start() to find out which.
+     */
+    public AgentServer(InetAddress bindAddress, int port) {
+
+        if (bindAddress == null) {
+
+            throw new IllegalArgumentException("null bind address");
+        }
+
+        if (port < 0 || port > 65535) {
+
+            throw new IllegalArgumentException("invalid port " + port);
+        }
+
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.handshakeTimeoutMs = DEFAULT_HANDSHAKE_TIMEOUT_MS;
+        this.startTimeoutMs = DEFAULT_START_TIMEOUT_MS;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Binds the listening socket.
+     */
+    public void start() throws IOException {
+
+        if (serverSocket != null) {
+
+            throw new IllegalStateException(this + " already started");
+        }
+
+        serverSocket = new ServerSocket(port, 0, bindAddress);
+        port = serverSocket.getLocalPort();
+
+        if (secret == null && !bindAddress.isLoopbackAddress()) {
+
+            log.warn(this + " accepts unauthenticated connections on a non-loopback address; anyone who can reach " +
+                    "it can run code on this host. Set " + SECRET_ENVIRONMENT_VARIABLE + " on the agent and on the " +
+                    "coordinator");
+        }
+
+        log.debug(this + " started");
+    }
+
+    /**
+     * Serves coordinator sessions, one at a time, until stop() is invoked.
+     */
+    public void serve() throws IOException {
+
+        while(serveSession()) {
+
+            log.debug(this + " ready for the next session");
+        }
+    }
+
+    /**
+     * Accepts a coordinator connection and serves the session.
+     *
+     * @return false if the agent was stopped while waiting for a connection.
+     */
+    public boolean serveSession() throws IOException {
+
+        ServerSocket ss = serverSocket;
+
+        if (ss == null) {
+
+            throw new IllegalStateException(this + " not started");
+        }
+
+        Socket s;
+
+        try {
+
+            s = ss.accept();
+        }
+        catch(SocketException e) {
+
+            if (ss.isClosed()) {
+
+                return false;
+            }
+
+            throw e;
+        }
+
+        try {
+
+            handle(s);
+        }
+        catch(IOException e) {
+
+            //
+            // the coordinator went away, we're ready for the next one
+            //
+
+            log.warn(this + " lost the connection to coordinator " + s.getRemoteSocketAddress() + ": " + e);
+        }
+        finally {
+
+            s.close();
+        }
+
+        return true;
+    }
+
+    public void stop() {
+
+        ServerSocket ss = serverSocket;
+
+        if (ss == null) {
+
+            return;
+        }
+
+        try {
+
+            ss.close();
+        }
+        catch(IOException e) {
+
+            log.warn("failed to close " + ss, e);
+        }
+
+        log.debug(this + " stopped");
+    }
+
+    public int getPort() {
+
+        return port;
+    }
+
+    public InetAddress getBindAddress() {
+
+        return bindAddress;
+    }
+
+    /**
+     * @param secret the secret the coordinators must prove they know. Null or empty means the coordinators are not
+     *               authenticated.
+     */
+    public void setSecret(String secret) {
+
+        this.secret = secret == null || secret.isEmpty() ? null : secret;
+    }
+
+    public boolean isAuthenticationRequired() {
+
+        return secret != null;
+    }
+
+    /**
+     * @param ms the time the agent waits for each coordinator message, from connection until the configuration was
+     *           received.
+     */
+    public void setHandshakeTimeoutMs(int ms) {
+
+        if (ms <= 0) {
+
+            throw new IllegalArgumentException("invalid handshake timeout " + ms);
+        }
+
+        this.handshakeTimeoutMs = ms;
+    }
+
+    public int getHandshakeTimeoutMs() {
+
+        return handshakeTimeoutMs;
+    }
+
+    /**
+     * @param ms the time the agent waits for START after it reported READY.
+     */
+    public void setStartTimeoutMs(int ms) {
+
+        if (ms <= 0) {
+
+            throw new IllegalArgumentException("invalid start timeout " + ms);
+        }
+
+        this.startTimeoutMs = ms;
+    }
+
+    public int getStartTimeoutMs() {
+
+        return startTimeoutMs;
+    }
+
+    @Override
+    public String toString() {
+
+        return "agent " + bindAddress.getHostAddress() + ":" + port;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    /**
+     * @return true if the load driver ran to completion.
+     */
+    boolean handle(Socket s) throws IOException {
+
+        log.debug(this + " accepted coordinator connection from " + s.getRemoteSocketAddress());
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+
+        s.setSoTimeout(handshakeTimeoutMs);
+
+        byte[] challenge = Protocol.writeChallenge(out);
+
+        byte type = in.readByte();
+
+        if (type != Protocol.AUTHENTICATION) {
+
+            throw new IOException("expected authentication, got message type " + type);
+        }
+
+        byte[] response = Protocol.readBytes(in);
+
+        if (secret != null && !MessageDigest.isEqual(Protocol.authenticate(secret, challenge), response)) {
+
+            log.warn(this + " rejected unauthenticated coordinator connection from " + s.getRemoteSocketAddress());
+            Protocol.writeFailure(out, "authentication failed");
+            return false;
+        }
+
+        Protocol.writeSignal(out, Protocol.AUTHENTICATED);
+
+        type = in.readByte();
+
+        if (type != Protocol.CONFIGURATION) {
+
+            throw new IOException("expected configuration, got message type " + type);
+        }
+
+        String agentId = in.readUTF();
+        byte[] configuration = Protocol.readBytes(in);
+
+        LoadDriverImpl ld = null;
+
+        try {
+
+            YamlBasedConfiguration c = new YamlBasedConfiguration();
+            c.load(new ByteArrayInputStream(configuration), new File("."));
+
+            ld = newLoadDriver(agentId);
+            ld.setSamplingConsumer(new StreamingSamplingConsumer(out));
+            ld.init(c);
+        }
+        catch(Exception e) {
+
+            log.debug(agentId + " failed to initialize: " + e.getMessage(), e);
+
+            if (ld != null) {
+
+                ld.stop();
+            }
+
+            Protocol.writeFailure(out, Util.formatErrorMessage(e));
+            return false;
+        }
+
+        Protocol.writeSignal(out, Protocol.READY);
+
+        log.debug(ld + " ready, waiting for the coordinator to start the run");
+
+        s.setSoTimeout(startTimeoutMs);
+
+        try {
+
+            type = in.readByte();
+
+            if (type != Protocol.START) {
+
+                throw new IOException("expected start, got message type " + type);
+            }
+        }
+        catch(IOException e) {
+
+            //
+            // the run is not going to happen, release what init() acquired
+            //
+
+            ld.stop();
+            throw e;
+        }
+
+        //
+        // the coordinator does not send anything else during the run
+        //
+
+        s.setSoTimeout(0);
+
+        try {
+
+            ld.run();
+        }
+        catch(Exception e) {
+
+            log.debug(agentId + " failed: " + e.getMessage(), e);
+
+            synchronized (out) {
+
+                Protocol.writeFailure(out, Util.formatErrorMessage(e));
+            }
+
+            return false;
+        }
+
+        //
+        // the sampler was stopped by run(), all sampling intervals have been sent
+        //
+
+        synchronized (out) {
+
+            Protocol.writeSignal(out, Protocol.DONE);
+        }
+
+        log.debug(ld + " done");
+
+        return true;
+    }
+
+    LoadDriverImpl newLoadDriver(String agentId) {
+
+        return new LoadDriverImpl(agentId, true);
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,677 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.cluster;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.configuration.Configuration;
+import io.novaordis.gld.api.configuration.OutputConfiguration;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.SamplerConfiguration;
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.statistics.BinaryFormatter;
+import io.novaordis.gld.api.statistics.CSVFormatter;
+import io.novaordis.gld.command.Agent;
+import io.novaordis.utilities.UserErrorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a load driver cluster: connects to the agents, distributes the YAML configuration, waits until all agents
+ * initialized their load drivers, then starts them at the same time (the common barrier), and merges the sampling
+ * intervals streamed back by the agents into time-aligned, cluster-wide sampling intervals. The cluster intervals are
+ * written to the statistics output configured in the YAML file, in the configured format.
+ *
+ * The agents are either already running (gld agent --port=<port>) on the hosts specified with --agents, or they are
+ * started by the coordinator as local processes (--local-agents), which is mostly useful for testing.
+ *
+ * If the GLD_CLUSTER_SECRET environment variable is set, the coordinator authenticates itself to the agents with it.
+ * The local agents inherit the coordinator's environment, so they require the same secret.
+ *
+ * gld -c <config-file> --agents=<host>:<port>[,<host>:<port>...]
+ * gld -c <config-file> --local-agents=<count>
+ *
+ * @see AgentServer
+ * @see IntervalAggregator
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class Coordinator {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(Coordinator.class);
+
+    public static final String AGENTS_OPTION = "--agents=";
+    public static final String LOCAL_AGENTS_OPTION = "--local-agents=";
+
+    public static final long DEFAULT_CONNECT_TIMEOUT_MS = 30000L;
+
+    private static final String MAIN_CLASS = "io.novaordis.gld.Main";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Extracts the cluster options from the argument list, removing the related elements from the list.
+     *
+     * @return null if the argument list does not contain cluster options.
+     *
+     * @exception UserErrorException on invalid options.
+     */
+    public static Coordinator fromArguments(List<String> arguments) throws UserErrorException {
+
+        List<InetSocketAddress> agents = new ArrayList<>();
+        int localAgentCount = 0;
+        boolean cluster = false;
+
+        for(Iterator<String> i = arguments.iterator(); i.hasNext(); ) {
+
+            String crt = i.next();
+
+            if (crt.startsWith(AGENTS_OPTION)) {
+
+                i.remove();
+                cluster = true;
+
+                for(String s: crt.substring(AGENTS_OPTION.length()).split(",")) {
+
+                    agents.add(parseAddress(s.trim()));
+                }
+            }
+            else if (crt.startsWith(LOCAL_AGENTS_OPTION)) {
+
+                i.remove();
+                cluster = true;
+
+                String s = crt.substring(LOCAL_AGENTS_OPTION.length());
+
+                try {
+
+                    localAgentCount = Integer.parseInt(s);
+                }
+                catch(NumberFormatException e) {
+
+                    throw new UserErrorException("invalid local agent count: " + s);
+                }
+
+                if (localAgentCount <= 0) {
+
+                    throw new UserErrorException("invalid local agent count: " + s);
+                }
+            }
+        }
+
+        if (!cluster) {
+
+            return null;
+        }
+
+        Coordinator c = new Coordinator(agents, localAgentCount);
+        c.setSecret(System.getenv(AgentServer.SECRET_ENVIRONMENT_VARIABLE));
+        return c;
+    }
+
+    /**
+     * @param s host:port
+     */
+    static InetSocketAddress parseAddress(String s) throws UserErrorException {
+
+        int i = s.lastIndexOf(':');
+
+        if (i <= 0 || i == s.length() - 1) {
+
+            throw new UserErrorException("invalid agent address '" + s + "', expected <host>:<port>");
+        }
+
+        String host = s.substring(0, i);
+        String ps = s.substring(i + 1);
+        int port;
+
+        try {
+
+            port = Integer.parseInt(ps);
+        }
+        catch(NumberFormatException e) {
+
+            throw new UserErrorException("invalid agent port '" + ps + "'");
+        }
+
+        if (port <= 0 || port > 65535) {
+
+            throw new UserErrorException("invalid agent port '" + ps + "'");
+        }
+
+        return InetSocketAddress.createUnresolved(host, port);
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private List<InetSocketAddress> agents;
+
+    private int localAgentCount;
+
+    private long connectTimeoutMs;
+
+    // null means the coordinator does not authenticate itself to the agents
+    private String secret;
+
+    private List<Process> localAgents;
+
+    private IntervalAggregator aggregator;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param agents the addresses of already running agents. May be empty if local agents are used.
+     * @param localAgentCount the number of agents to start as local processes.
+     */
+    public Coordinator(List<InetSocketAddress> agents, int localAgentCount) {
+
+        if (localAgentCount < 0) {
+
+            throw new IllegalArgumentException("negative local agent count");
+        }
+
+        if (agents.isEmpty() && localAgentCount == 0) {
+
+            throw new IllegalArgumentException("no agents");
+        }
+
+        this.agents = new ArrayList<>(agents);
+        this.localAgentCount = localAgentCount;
+        this.connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+        this.localAgents = new ArrayList<>();
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Runs the configured scenario on the cluster, and returns when all agents completed their run.
+     *
+     * @param configurationFile the content of the file is sent to the agents, as is.
+     * @param c the parsed configuration, used by the coordinator to configure its statistics output.
+     *
+     * @exception UserErrorException if an agent cannot be reached, or fails to initialize or to run.
+     */
+    public void run(File configurationFile, Configuration c) throws Exception {
+
+        String yaml = new String(Files.readAllBytes(configurationFile.toPath()), "UTF-8");
+
+        OutputConfiguration oc = c.getOutputConfiguration();
+        SamplerConfiguration sc = oc == null ? null : oc.getSamplerConfiguration();
+
+        long intervalMs = sc == null ? SamplerConfiguration.DEFAULT_SAMPLING_INTERVAL_MS : sc.getSamplingInterval();
+        SamplingConsumer output = sc == null ? null : createOutput(sc);
+
+        run(yaml, intervalMs, output);
+    }
+
+    /**
+     * @return a human readable summary of the cluster-wide statistics, or null if the coordinator did not run.
+     */
+    public String getSummary() {
+
+        if (aggregator == null) {
+
+            return null;
+        }
+
+        long durationMs = aggregator.getTotalDurationMs();
+        Map<Class<? extends Operation>, CounterValuesImpl> totals = aggregator.getTotals();
+
+        List<Class<? extends Operation>> operationTypes = new ArrayList<>(totals.keySet());
+        operationTypes.sort((a, b) -> a.getSimpleName().compareTo(b.getSimpleName()));
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(getAgentCount()).append(" agent(s), ").
+                append(aggregator.getIntervalCount()).append(" sampling interval(s), ").
+                append(durationMs).append(" ms");
+
+        for(Class<? extends Operation> ot: operationTypes) {
+
+            CounterValuesImpl cv = totals.get(ot);
+            long successCount = cv.getSuccessCount();
+            double throughput = durationMs == 0 ? 0d : successCount * 1000d / durationMs;
+
+            sb.append("\n").append(ot.getSimpleName()).append(": ").
+                    append(successCount).append(" successful, ").
+                    append(cv.getFailureCount()).append(" failed, ").
+                    append(String.format("%.1f", throughput)).append(" ops/s");
+
+            if (successCount > 0) {
+
+                sb.append(", average ").
+                        append(toMs(cv.getSuccessCumulatedResponseTimeNano() / successCount)).append(" ms, p99 ").
+                        append(toMs(cv.getSuccessResponseTimePercentileNano(99d))).append(" ms, max ").
+                        append(toMs(cv.getSuccessMaxResponseTimeNano())).append(" ms");
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @return the total number of agents: remote and local.
+     */
+    public int getAgentCount() {
+
+        return agents.size() + localAgentCount;
+    }
+
+    public List<InetSocketAddress> getAgents() {
+
+        return Collections.unmodifiableList(agents);
+    }
+
+    public int getLocalAgentCount() {
+
+        return localAgentCount;
+    }
+
+    /**
+     * @param secret the secret the coordinator authenticates itself with to the agents. Null or empty means no
+     *               authentication, which only agents that do not have a secret accept.
+     */
+    public void setSecret(String secret) {
+
+        this.secret = secret == null || secret.isEmpty() ? null : secret;
+    }
+
+    @Override
+    public String toString() {
+
+        return "Coordinator[" + getAgentCount() + " agent(s)]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    void setConnectTimeoutMs(long ms) {
+
+        this.connectTimeoutMs = ms;
+    }
+
+    /**
+     * @param output may be null.
+     */
+    void run(String yaml, long intervalMs, SamplingConsumer output) throws Exception {
+
+        List<AgentConnection> connections = new ArrayList<>();
+
+        try {
+
+            List<InetSocketAddress> addresses = new ArrayList<>(agents);
+            addresses.addAll(startLocalAgents());
+
+            for(int i = 0; i < addresses.size(); i ++) {
+
+                AgentConnection ac = connect("agent-" + i, addresses.get(i));
+                connections.add(ac);
+                ac.authenticate(secret);
+            }
+
+            //
+            // distribute the configuration, then wait until all agents are ready
+            //
+
+            for(AgentConnection ac: connections) {
+
+                Protocol.writeConfiguration(ac.out, ac.id, yaml);
+            }
+
+            List<String> ids = new ArrayList<>();
+
+            for(AgentConnection ac: connections) {
+
+                ac.awaitReady();
+                ids.add(ac.id);
+            }
+
+            log.info("all " + connections.size() + " agent(s) ready, starting the run");
+
+            IntervalAggregator a = new IntervalAggregator(intervalMs, ids, output);
+
+            //
+            // the barrier: the agents start only after all of them initialized
+            //
+
+            for(AgentConnection ac: connections) {
+
+                Protocol.writeSignal(ac.out, Protocol.START);
+            }
+
+            List<Thread> readers = new ArrayList<>();
+
+            for(AgentConnection ac: connections) {
+
+                Thread t = new Thread(() -> ac.receive(a), "Coordinator Reader " + ac.id);
+                t.setDaemon(true);
+                t.start();
+                readers.add(t);
+            }
+
+            for(Thread t: readers) {
+
+                t.join();
+            }
+
+            a.flush();
+
+            this.aggregator = a;
+
+            StringBuilder failures = new StringBuilder();
+
+            for(AgentConnection ac: connections) {
+
+                if (ac.failure != null) {
+
+                    failures.append(failures.length() == 0 ? "" : ", ").append(ac).append(": ").append(ac.failure);
+                }
+            }
+
+            if (failures.length() > 0) {
+
+                throw new UserErrorException("agent failure(s): " + failures);
+            }
+        }
+        finally {
+
+            for(AgentConnection ac: connections) {
+
+                ac.close();
+            }
+
+            if (output != null) {
+
+                output.stop();
+            }
+
+            stopLocalAgents();
+        }
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static SamplingConsumer createOutput(SamplerConfiguration sc) throws UserErrorException {
+
+        File f = sc.getFile();
+
+        try {
+
+            if (SamplerConfiguration.BINARY_FORMAT.equals(sc.getFormat())) {
+
+                return new BinaryFormatter(new BufferedOutputStream(new FileOutputStream(f)));
+            }
+
+            return new CSVFormatter(new PrintWriter(new FileWriter(f)));
+        }
+        catch(IOException e) {
+
+            throw new UserErrorException(
+                    "cannot write file " + f + ", it is either a directory or wrong permissions are in place", e);
+        }
+    }
+
+    private static String toMs(long nano) {
+
+        return String.format("%.3f", nano / 1000000d);
+    }
+
+    /**
+     * Retries until the connect timeout expires, the agents may still be starting.
+     */
+    private AgentConnection connect(String id, InetSocketAddress unresolved) throws Exception {
+
+        long deadline = System.currentTimeMillis() + connectTimeoutMs;
+
+        while(true) {
+
+            InetSocketAddress address = new InetSocketAddress(unresolved.getHostString(), unresolved.getPort());
+            Socket s = new Socket();
+
+            try {
+
+                s.connect(address, (int)connectTimeoutMs);
+                log.debug(id + " connected to " + address);
+                return new AgentConnection(id, s);
+            }
+            catch(IOException e) {
+
+                s.close();
+
+                if (System.currentTimeMillis() >= deadline) {
+
+                    throw new UserErrorException(
+                            "cannot connect to agent " + unresolved.getHostString() + ":" + unresolved.getPort(), e);
+                }
+
+                Thread.sleep(200L);
+            }
+        }
+    }
+
+    /**
+     * @return the addresses of the local agents.
+     */
+    private List<InetSocketAddress> startLocalAgents() throws IOException {
+
+        List<InetSocketAddress> addresses = new ArrayList<>();
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        for(int i = 0; i < localAgentCount; i ++) {
+
+            int port;
+
+            try (ServerSocket ss = new ServerSocket(0)) {
+
+                port = ss.getLocalPort();
+            }
+
+            ProcessBuilder pb = new ProcessBuilder(
+                    java, "-cp", System.getProperty("java.class.path"), MAIN_CLASS,
+                    Agent.LITERAL, Agent.PORT_OPTION + port);
+
+            pb.inheritIO();
+
+            localAgents.add(pb.start());
+            //
+            // the local agents listen on the loopback interface
+            //
+
+            addresses.add(InetSocketAddress.createUnresolved(InetAddress.getLoopbackAddress().getHostAddress(), port));
+
+            log.debug("started local agent on port " + port);
+        }
+
+        return addresses;
+    }
+
+    private void stopLocalAgents() {
+
+        for(Process p: localAgents) {
+
+            p.destroy();
+
+            try {
+
+                if (!p.waitFor(5, TimeUnit.SECONDS)) {
+
+                    p.destroyForcibly();
+                }
+            }
+            catch(InterruptedException e) {
+
+                p.destroyForcibly();
+            }
+        }
+
+        localAgents.clear();
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    private static class AgentConnection {
+
+        private final String id;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        // written by the reader thread, read after join()
+        private String failure;
+
+        AgentConnection(String id, Socket socket) throws IOException {
+
+            this.id = id;
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        /**
+         * Answers the agent's challenge.
+         *
+         * @param secret may be null.
+         *
+         * @exception UserErrorException if the agent does not accept the coordinator.
+         */
+        void authenticate(String secret) throws Exception {
+
+            byte type = in.readByte();
+
+            if (type != Protocol.CHALLENGE) {
+
+                throw new IOException(this + " sent unexpected message type " + type);
+            }
+
+            Protocol.writeAuthentication(out, secret, Protocol.readBytes(in));
+
+            type = in.readByte();
+
+            if (type == Protocol.FAILED) {
+
+                throw new UserErrorException(this + " rejected the coordinator: " + in.readUTF());
+            }
+
+            if (type != Protocol.AUTHENTICATED) {
+
+                throw new IOException(this + " sent unexpected message type " + type);
+            }
+        }
+
+        void awaitReady() throws Exception {
+
+            byte type = in.readByte();
+
+            if (type == Protocol.FAILED) {
+
+                throw new UserErrorException(this + " failed to initialize: " + in.readUTF());
+            }
+
+            if (type != Protocol.READY) {
+
+                throw new IOException(this + " sent unexpected message type " + type);
+            }
+        }
+
+        /**
+         * Reads the agent's sampling intervals until the agent completes its run, fails or goes away.
+         */
+        void receive(IntervalAggregator aggregator) {
+
+            try {
+
+                while(true) {
+
+                    byte type = in.readByte();
+
+                    if (type == Protocol.INTERVAL) {
+
+                        aggregator.add(id, Protocol.readInterval(in));
+                    }
+                    else if (type == Protocol.DONE) {
+
+                        log.debug(this + " done");
+                        return;
+                    }
+                    else if (type == Protocol.FAILED) {
+
+                        failure = in.readUTF();
+                        return;
+                    }
+                    else {
+
+                        failure = "unexpected message type " + type;
+                        return;
+                    }
+                }
+            }
+            catch(Exception e) {
+
+                log.debug(this + " stream failure", e);
+                failure = "lost connection (" + e.getMessage() + ")";
+            }
+            finally {
+
+                aggregator.agentDone(id);
+            }
+        }
+
+        void close() {
+
+            try {
+
+                socket.close();
+            }
+            catch(IOException e) {
+
+                log.debug("failed to close " + socket, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+
+            return id + " (" + socket.getRemoteSocketAddress() + ")";
+        }
+    }
+
+}
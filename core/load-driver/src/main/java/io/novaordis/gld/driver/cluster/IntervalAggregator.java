@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.cluster;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.sampler.CounterValues;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.gld.api.sampler.SamplingIntervalImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Merges the sampling intervals streamed by the agents into cluster-wide sampling intervals.
+ *
+ * The agents' samplers are not synchronized, so their intervals start at arbitrary offsets. The aggregator aligns them
+ * on a common grid: an interval is merged into the cluster interval that contains its start timestamp. The counters
+ * are summed and the latency histograms are merged, so the cluster-wide percentiles are exact (within the histogram
+ * precision), not averages of the agents' percentiles. Metrics are agent-local (CPU, memory, etc.) and are not merged.
+ * Annotations are carried over, prefixed with the ID of the agent that issued them.
+ *
+ * A cluster interval is handed over to the output consumer once all agents that are still running have reported a
+ * later interval, so the output is produced while the cluster is running, in order.
+ *
+ * Thread safe, the agents' streams are read on different threads.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+class IntervalAggregator {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(IntervalAggregator.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final long intervalMs;
+
+    // may be null
+    private final SamplingConsumer output;
+
+    // aligned start timestamp -> the agents' intervals that fall into it, not yet handed over
+    private final TreeMap<Long, List<AgentInterval>> pending;
+
+    // the aligned start timestamp of the latest interval reported by each agent that is still running; null values for
+    // agents that did not report yet
+    private final Map<String, Long> running;
+
+    // cumulated over all handed over intervals
+    private final Map<Class<? extends Operation>, CounterValuesImpl> totals;
+    private long firstStartMs;
+    private long lastEndMs;
+    private int intervalCount;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param output may be null, in which case only the totals are maintained.
+     */
+    IntervalAggregator(long intervalMs, Collection<String> agentIds, SamplingConsumer output) {
+
+        if (intervalMs <= 0) {
+
+            throw new IllegalArgumentException("invalid interval " + intervalMs + " ms");
+        }
+
+        this.intervalMs = intervalMs;
+        this.output = output;
+        this.pending = new TreeMap<>();
+        this.running = new HashMap<>();
+        this.totals = new HashMap<>();
+        this.firstStartMs = -1L;
+        this.lastEndMs = -1L;
+
+        for(String id: agentIds) {
+
+            running.put(id, null);
+        }
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "IntervalAggregator[" + intervalMs + " ms]";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    synchronized void add(String agentId, SamplingInterval si) {
+
+        long alignedStartMs = Math.floorDiv(si.getStartMs(), intervalMs) * intervalMs;
+
+        List<AgentInterval> l = pending.get(alignedStartMs);
+
+        if (l == null) {
+
+            l = new ArrayList<>();
+            pending.put(alignedStartMs, l);
+        }
+
+        l.add(new AgentInterval(agentId, si));
+
+        if (running.containsKey(agentId)) {
+
+            running.put(agentId, alignedStartMs);
+        }
+
+        handOver(false);
+    }
+
+    /**
+     * The agent completed its run, it will not report any more intervals.
+     */
+    synchronized void agentDone(String agentId) {
+
+        running.remove(agentId);
+
+        handOver(false);
+    }
+
+    /**
+     * Hands over all pending intervals, irrespective of the agents' state.
+     */
+    synchronized void flush() {
+
+        handOver(true);
+    }
+
+    /**
+     * @return the cluster-wide counter values, cumulated over all handed over intervals.
+     */
+    synchronized Map<Class<? extends Operation>, CounterValuesImpl> getTotals() {
+
+        return new HashMap<>(totals);
+    }
+
+    /**
+     * @return the time span covered by the handed over intervals, or 0 if no interval was handed over.
+     */
+    synchronized long getTotalDurationMs() {
+
+        return intervalCount == 0 ? 0L : lastEndMs - firstStartMs;
+    }
+
+    synchronized int getIntervalCount() {
+
+        return intervalCount;
+    }
+
+    /**
+     * @param alignedStartMs the start of the cluster interval.
+     * @param intervals must not be empty.
+     */
+    static SamplingIntervalImpl merge(long alignedStartMs, long durationMs, List<AgentInterval> intervals) {
+
+        Set<Class<? extends Operation>> operationTypes = new HashSet<>();
+
+        for(AgentInterval ai: intervals) {
+
+            operationTypes.addAll(ai.interval.getOperationTypes());
+        }
+
+        SamplingIntervalImpl merged = new SamplingIntervalImpl(alignedStartMs, durationMs, operationTypes);
+
+        for(AgentInterval ai: intervals) {
+
+            for(Class<? extends Operation> ot: ai.interval.getOperationTypes()) {
+
+                CounterValues cv = ai.interval.getCounterValues(ot);
+
+                if (cv != null) {
+
+                    merged.incrementCounterValues(ot, cv);
+                }
+            }
+
+            List<String> annotations = ai.interval.getAnnotations();
+
+            if (annotations != null) {
+
+                for(String a: annotations) {
+
+                    merged.addAnnotation(ai.agentId + ": " + a);
+                }
+            }
+        }
+
+        return merged;
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param all if false, hands over only the intervals that precede the earliest latest interval of the running
+     *            agents.
+     */
+    private void handOver(boolean all) {
+
+        long watermark = Long.MAX_VALUE;
+
+        if (!all) {
+
+            for(Long latest: running.values()) {
+
+                if (latest == null) {
+
+                    //
+                    // we have a running agent that did not report anything yet
+                    //
+
+                    return;
+                }
+
+                watermark = Math.min(watermark, latest);
+            }
+        }
+
+        List<SamplingInterval> ready = new ArrayList<>();
+
+        for(Iterator<Map.Entry<Long, List<AgentInterval>>> i = pending.entrySet().iterator(); i.hasNext(); ) {
+
+            Map.Entry<Long, List<AgentInterval>> e = i.next();
+
+            if (!all && e.getKey() >= watermark) {
+
+                break;
+            }
+
+            i.remove();
+
+            SamplingIntervalImpl merged = merge(e.getKey(), intervalMs, e.getValue());
+            cumulate(merged);
+            ready.add(merged);
+        }
+
+        if (ready.isEmpty() || output == null) {
+
+            return;
+        }
+
+        //
+        // one interval per hand-off: the consumer contract only allows multiple intervals per invocation if they are
+        // successive identical intervals
+        //
+
+        for(SamplingInterval si: ready) {
+
+            try {
+
+                output.consume(si);
+            }
+            catch(Exception e) {
+
+                log.warn(output + " failed to consume cluster sampling interval " + si, e);
+            }
+        }
+    }
+
+    private void cumulate(SamplingInterval si) {
+
+        if (intervalCount == 0) {
+
+            firstStartMs = si.getStartMs();
+        }
+
+        lastEndMs = si.getEndMs();
+        intervalCount ++;
+
+        for(Class<? extends Operation> ot: si.getOperationTypes()) {
+
+            CounterValuesImpl total = totals.get(ot);
+
+            if (total == null) {
+
+                total = new CounterValuesImpl();
+                totals.put(ot, total);
+            }
+
+            total.incrementWith(si.getCounterValues(ot));
+        }
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    static class AgentInterval {
+
+        final String agentId;
+        final SamplingInterval interval;
+
+        AgentInterval(String agentId, SamplingInterval interval) {
+
+            this.agentId = agentId;
+            this.interval = interval;
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.cluster;
+
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.gld.api.statistics.BinaryFormatter;
+import io.novaordis.gld.api.statistics.BinaryLogReader;
+import io.novaordis.utilities.UserErrorException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * The coordinator - agent wire protocol. Each message starts with a one-byte type, followed by a type-specific
+ * payload:
+ *
+ * CHALLENGE (agent to coordinator): the first message of a session, a random nonce (int length, bytes).
+ * AUTHENTICATION (coordinator to agent): the HMAC-SHA256 of the nonce, keyed with the cluster secret (int length,
+ * bytes), or an empty byte array if the coordinator has no secret.
+ * AUTHENTICATED (agent to coordinator): the agent accepted the coordinator. No payload. An agent that does not accept
+ * the coordinator sends FAILED instead, and closes the connection.
+ * CONFIGURATION (coordinator to agent): the agent ID (UTF), the YAML configuration content (int length, UTF-8 bytes).
+ * READY (agent to coordinator): the agent initialized its load driver and waits for START. No payload.
+ * START (coordinator to agent): sent to all agents once all of them are READY. No payload.
+ * INTERVAL (agent to coordinator): a sampling interval, as a self-contained binary sampling log (int length, bytes).
+ * DONE (agent to coordinator): the agent completed its run. No payload.
+ * FAILED (agent to coordinator): the agent failed to initialize or to run, the error message (UTF) follows.
+ *
+ * Sampling intervals are serialized with the binary sampling log format, one self-contained log per interval. This
+ * repeats the header and the definitions in every message, but an agent sends an interval per sampling interval (one
+ * per second by default), so the overhead is irrelevant, and the messages can be decoded independently.
+ *
+ * The configuration an agent receives may name arbitrary classes to instantiate, so whoever can send an agent a
+ * configuration can run code on the agent's host. An agent that has a secret serves a session only if the coordinator
+ * proves it knows the same secret, by authenticating the agent's nonce. The secret itself is never sent on the wire.
+ *
+ * @see BinaryFormatter
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+final class Protocol {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    static final byte CONFIGURATION = 1;
+    static final byte READY = 2;
+    static final byte START = 3;
+    static final byte INTERVAL = 4;
+    static final byte DONE = 5;
+    static final byte FAILED = 6;
+    static final byte CHALLENGE = 7;
+    static final byte AUTHENTICATION = 8;
+    static final byte AUTHENTICATED = 9;
+
+    static final int CHALLENGE_LENGTH = 32;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    // protects against garbage on the wire
+    static final int MAX_PAYLOAD_LENGTH = 64 * 1024 * 1024;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Generates a random nonce and sends it as a CHALLENGE message.
+     *
+     * @return the nonce.
+     */
+    static byte[] writeChallenge(DataOutputStream out) throws IOException {
+
+        byte[] challenge = new byte[CHALLENGE_LENGTH];
+        new SecureRandom().nextBytes(challenge);
+
+        out.writeByte(CHALLENGE);
+        out.writeInt(challenge.length);
+        out.write(challenge);
+        out.flush();
+
+        return challenge;
+    }
+
+    /**
+     * @param secret may be null, in which case an empty response is sent.
+     */
+    static void writeAuthentication(DataOutputStream out, String secret, byte[] challenge) throws IOException {
+
+        byte[] response = secret == null ? new byte[0] : authenticate(secret, challenge);
+
+        out.writeByte(AUTHENTICATION);
+        out.writeInt(response.length);
+        out.write(response);
+        out.flush();
+    }
+
+    /**
+     * @return the HMAC-SHA256 of the challenge, keyed with the secret.
+     */
+    static byte[] authenticate(String secret, byte[] challenge) {
+
+        if (secret == null || secret.isEmpty()) {
+
+            throw new IllegalArgumentException("null or empty secret");
+        }
+
+        try {
+
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM));
+            return mac.doFinal(challenge);
+        }
+        catch(GeneralSecurityException e) {
+
+            //
+            // HmacSHA256 is required to be supported by every Java platform implementation
+            //
+
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void writeConfiguration(DataOutputStream out, String agentId, String yaml) throws IOException {
+
+        byte[] content = yaml.getBytes("UTF-8");
+
+        out.writeByte(CONFIGURATION);
+        out.writeUTF(agentId);
+        out.writeInt(content.length);
+        out.write(content);
+        out.flush();
+    }
+
+    /**
+     * Writes a message with no payload.
+     */
+    static void writeSignal(DataOutputStream out, byte type) throws IOException {
+
+        out.writeByte(type);
+        out.flush();
+    }
+
+    static void writeInterval(DataOutputStream out, SamplingInterval si) throws Exception {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+        BinaryFormatter f = new BinaryFormatter(baos);
+        f.consume(si);
+        f.stop();
+
+        byte[] bytes = baos.toByteArray();
+
+        out.writeByte(INTERVAL);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.flush();
+    }
+
+    static void writeFailure(DataOutputStream out, String message) throws IOException {
+
+        out.writeByte(FAILED);
+        out.writeUTF(message == null ? "" : message);
+        out.flush();
+    }
+
+    /**
+     * Reads the payload of an INTERVAL message, after the type byte.
+     */
+    static SamplingInterval readInterval(DataInputStream in) throws IOException, UserErrorException {
+
+        byte[] bytes = readBytes(in);
+
+        try (BinaryLogReader r = new BinaryLogReader(new ByteArrayInputStream(bytes))) {
+
+            SamplingInterval si = r.next();
+
+            if (si == null) {
+
+                throw new IOException("truncated sampling interval");
+            }
+
+            return si;
+        }
+    }
+
+    /**
+     * Reads a length-prefixed byte array.
+     */
+    static byte[] readBytes(DataInputStream in) throws IOException {
+
+        int length = in.readInt();
+
+        if (length < 0 || length > MAX_PAYLOAD_LENGTH) {
+
+            throw new IOException("invalid payload length " + length);
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    private Protocol() {
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.cluster;
+
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+
+import java.io.DataOutputStream;
+
+/**
+ * Sends an agent's sampling intervals to the coordinator, over the coordinator connection. Does not own the
+ * connection, stop() does not close it.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+class StreamingSamplingConsumer implements SamplingConsumer {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private final DataOutputStream out;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @param out the writes are synchronized on this instance.
+     */
+    StreamingSamplingConsumer(DataOutputStream out) {
+
+        this.out = out;
+    }
+
+    // SamplingConsumer implementation ---------------------------------------------------------------------------------
+
+    @Override
+    public void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+        synchronized (out) {
+
+            for(SamplingInterval si: samplingIntervals) {
+
+                Protocol.writeInterval(out, si);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+
+        //
+        // noop, the connection is owned by the agent
+        //
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Override
+    public String toString() {
+
+        return "StreamingSamplingConsumer";
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
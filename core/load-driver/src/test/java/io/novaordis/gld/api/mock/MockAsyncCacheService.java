@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.novaordis.gld.api.mock;
+
+import io.novaordis.gld.api.cache.AsyncCacheService;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completes the asynchronous operations on a separate thread, after a configurable delay, and keeps track of the
+ * maximum number of concurrently incomplete operations.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/13/17
+ */
+public class MockAsyncCacheService extends MockCacheService implements AsyncCacheService {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private long delayMs;
+    private ScheduledExecutorService completionExecutor;
+    private AtomicInteger inFlight;
+    private volatile int maxInFlight;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public MockAsyncCacheService(long delayMs) {
+
+        this.delayMs = delayMs;
+        this.completionExecutor = Executors.newSingleThreadScheduledExecutor();
+        this.inFlight = new AtomicInteger(0);
+    }
+
+    // AsyncCacheService implementation --------------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) throws Exception {
+
+        return complete(() -> get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String value) throws Exception {
+
+        return complete(() -> {
+
+            put(key, value);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAsync(String key) throws Exception {
+
+        return complete(() -> {
+
+            remove(key);
+            return null;
+        });
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public int getMaxInFlight() {
+
+        return maxInFlight;
+    }
+
+    public void shutdown() {
+
+        completionExecutor.shutdownNow();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private <T> CompletableFuture<T> complete(Callable<T> c) {
+
+        int current = inFlight.incrementAndGet();
+
+        synchronized (this) {
+
+            if (current > maxInFlight) {
+
+                maxInFlight = current;
+            }
+        }
+
+        CompletableFuture<T> f = new CompletableFuture<>();
+
+        completionExecutor.schedule(() -> {
+
+            inFlight.decrementAndGet();
+
+            try {
+
+                f.complete(c.call());
+            }
+            catch(Throwable t) {
+
+                f.completeExceptionally(t);
+            }
+
+        }, delayMs, TimeUnit.MILLISECONDS);
+
+        return f;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.api.mock;
+
+import io.novaordis.gld.api.sampler.SamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class MockSamplingConsumer implements SamplingConsumer {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private List<SamplingInterval> samplingIntervals;
+
+    private volatile boolean wasStopped;
+
+    // the largest number of intervals handed over in a single consume() invocation
+    private volatile int maxHandOffSize;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    public MockSamplingConsumer() {
+
+        // the intervals may be delivered on different threads
+        this.samplingIntervals = new CopyOnWriteArrayList<>();
+    }
+
+    // SamplingConsumer implementation ---------------------------------------------------------------------------------
+
+    @Override
+    public void consume(SamplingInterval... samplingIntervals) throws Exception {
+
+        maxHandOffSize = Math.max(maxHandOffSize, samplingIntervals.length);
+
+        for(SamplingInterval si: samplingIntervals) {
+
+            this.samplingIntervals.add(si);
+        }
+    }
+
+    @Override
+    public void stop() {
+
+        wasStopped = true;
+    }
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    public List<SamplingInterval> getSamplingIntervals() {
+
+        return samplingIntervals;
+    }
+
+    public boolean wasStopped() {
+
+        return wasStopped;
+    }
+
+    public int getMaxHandOffSize() {
+
+        return maxHandOffSize;
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
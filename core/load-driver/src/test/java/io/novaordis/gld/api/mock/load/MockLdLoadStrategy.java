@@ -20,6 +20,7 @@ import io.novaordis.gld.api.KeyProvider;
 import io.novaordis.gld.api.service.Service;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
 import io.novaordis.gld.api.service.ServiceType;
@@ -191,6 +192,19 @@ public class MockLdLoadStrategy implements LoadStrategy {
         }
     }
 
+    @Override
+    public LoadStrategyContext newContext() {
+
+        return new LoadStrategyContext(this);
+    }
+
+    @Override
+    public Operation next(LoadStrategyContext context, Operation last, String lastWrittenKey,
+                          boolean runtimeShuttingDown) throws Exception {
+
+        return next(last, lastWrittenKey, runtimeShuttingDown);
+    }
+
     @Override
     public Operation next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown) throws Exception {
 
@@ -282,6 +296,11 @@ public class MockLdLoadStrategy implements LoadStrategy {
         throw new RuntimeException("computeValue() NOT YET IMPLEMENTED");
     }
 
+    @Override
+    public byte[] computeValueBytes() {
+        throw new RuntimeException("computeValueBytes() NOT YET IMPLEMENTED");
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
 //    public int getRemainingOperations() {
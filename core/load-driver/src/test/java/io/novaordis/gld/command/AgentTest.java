@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.command;
+
+import io.novaordis.gld.driver.cluster.AgentServer;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class AgentTest extends CommandTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(AgentTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Test ------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void toCommand() throws Exception {
+
+        Agent a = (Agent)Command.toCommand(Arrays.asList("agent", "--port=7777"));
+
+        a.parseArguments();
+
+        assertEquals(7777, a.getPort());
+    }
+
+    // parseArguments() ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parseArguments_DefaultPort() throws Exception {
+
+        Agent a = getCommandToTest();
+
+        a.parseArguments();
+
+        assertEquals(AgentServer.DEFAULT_PORT, a.getPort());
+        assertTrue(a.getBindAddress().isLoopbackAddress());
+    }
+
+    @Test
+    public void parseArguments_BindAddress() throws Exception {
+
+        Agent a = new Agent(Arrays.asList("--port=7777", "--bind=0.0.0.0"));
+
+        a.parseArguments();
+
+        assertEquals(7777, a.getPort());
+        assertTrue(a.getBindAddress().isAnyLocalAddress());
+    }
+
+    @Test
+    public void parseArguments_InvalidArguments() throws Exception {
+
+        for(String s: Arrays.asList("--port=blah", "--port=0", "--port=70000", "--bind=", "something")) {
+
+            Agent a = new Agent(Collections.singletonList(s));
+
+            try {
+
+                a.parseArguments();
+                fail("should have thrown exception");
+            }
+            catch(UserErrorException e) {
+
+                log.info(e.getMessage());
+            }
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    @Override
+    protected Agent getCommandToTest() throws Exception {
+
+        return new Agent(Collections.<String>emptyList());
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
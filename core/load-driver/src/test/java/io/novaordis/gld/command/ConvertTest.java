@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.command;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.operation.Read;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.SamplingIntervalImpl;
+import io.novaordis.gld.api.statistics.BinaryFormatter;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class ConvertTest extends CommandTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(ConvertTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private File scratchDirectory;
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Before
+    public void before() throws Exception {
+
+        String projectBaseDirName = System.getProperty("basedir");
+        scratchDirectory = new File(projectBaseDirName, "target/test-scratch");
+        assertTrue(scratchDirectory.isDirectory());
+    }
+
+    @After
+    public void after() throws Exception {
+
+        //
+        // scratch directory cleanup
+        //
+        assertTrue(io.novaordis.utilities.Files.rmdir(scratchDirectory, false));
+    }
+
+    // Test ------------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void toCommand() throws Exception {
+
+        Convert c = (Convert)Command.toCommand(Arrays.asList("convert", "something.bin", "--format=json"));
+        assertNotNull(c);
+    }
+
+    // parseArguments() ------------------------------------------------------------------------------------------------
+
+    @Test
+    public void parseArguments_NoInputFile() throws Exception {
+
+        Convert c = new Convert(Collections.<String>emptyList());
+
+        try {
+
+            c.parseArguments();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseArguments_NoSuchInputFile() throws Exception {
+
+        Convert c = new Convert(Collections.singletonList("/no/such/file.bin"));
+
+        try {
+
+            c.parseArguments();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseArguments_InvalidFormat() throws Exception {
+
+        File input = writeBinaryLog("test.bin");
+
+        Convert c = new Convert(Arrays.asList(input.getPath(), "--format=xml"));
+
+        try {
+
+            c.parseArguments();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseArguments_UnknownOption() throws Exception {
+
+        File input = writeBinaryLog("test.bin");
+
+        Convert c = new Convert(Arrays.asList(input.getPath(), "--blah"));
+
+        try {
+
+            c.parseArguments();
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseArguments_Defaults() throws Exception {
+
+        File input = writeBinaryLog("test.bin");
+
+        Convert c = new Convert(Collections.singletonList(input.getPath()));
+        c.parseArguments();
+
+        assertEquals(input, c.getInputFile());
+        assertEquals(Convert.CSV_FORMAT, c.getFormat());
+        assertEquals(new File(scratchDirectory, "test.csv").getAbsoluteFile(), c.getOutputFile());
+    }
+
+    // convert() -------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void convert_CSV() throws Exception {
+
+        File input = writeBinaryLog("test.bin");
+        File output = new File(scratchDirectory, "output.csv");
+
+        Convert c = new Convert(Arrays.asList(input.getPath(), "--output=" + output.getPath()));
+        c.parseArguments();
+
+        assertEquals(3, c.convert());
+
+        List<String> lines = Files.readAllLines(output.toPath());
+
+        // headers and one line per interval
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).startsWith("Time, Read Success Rate (ops/sec)"));
+    }
+
+    @Test
+    public void convert_JSON() throws Exception {
+
+        File input = writeBinaryLog("test.bin");
+
+        Convert c = new Convert(Arrays.asList(input.getPath(), "--format=json"));
+        c.parseArguments();
+
+        assertEquals(3, c.convert());
+
+        List<String> lines = Files.readAllLines(new File(scratchDirectory, "test.json").toPath());
+
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"start\": 1000, \"duration\": 1000, \"operations\": {\"Read\": {"));
+    }
+
+    @Test
+    public void execute_FailureIsNotPropagated() throws Exception {
+
+        new Convert(Collections.singletonList("/no/such/file.bin")).execute();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    @Override
+    protected Convert getCommandToTest() throws Exception {
+
+        return new Convert(Collections.<String>emptyList());
+    }
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private File writeBinaryLog(String name) throws Exception {
+
+        File f = new File(scratchDirectory, name);
+
+        Set<Class<? extends Operation>> operationTypes = Collections.singleton(Read.class);
+
+        BinaryFormatter bf = new BinaryFormatter(new BufferedOutputStream(new FileOutputStream(f)));
+
+        for(int i = 1; i <= 3; i ++) {
+
+            SamplingIntervalImpl si = new SamplingIntervalImpl(i * 1000L, 1000L, operationTypes);
+            si.setCounterValues(Read.class, new CounterValuesImpl(i * 10L, i * 1000L));
+            bf.consume(si);
+        }
+
+        bf.stop();
+
+        return f;
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/10/17
+ */
+public class FixedRateScheduleTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(FixedRateScheduleTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidInterval() throws Exception {
+
+        try {
+
+            new FixedRateSchedule(0L, 0d);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void next() throws Exception {
+
+        FixedRateSchedule s = new FixedRateSchedule(1000L, 10d);
+
+        assertEquals(1000L, s.next());
+        assertEquals(1010L, s.next());
+        assertEquals(1020L, s.next());
+    }
+
+    @Test
+    public void next_FractionalInterval_NoDrift() throws Exception {
+
+        //
+        // 3 operations per 10 ns - incrementally adding a rounded interval would drift
+        //
+
+        FixedRateSchedule s = new FixedRateSchedule(0L, 10d / 3);
+
+        long last = -1L;
+
+        for(int i = 0; i < 3000000; i ++) {
+
+            last = s.next();
+        }
+
+        assertEquals(Math.round(2999999 * 10d / 3), last);
+    }
+
+    @Test
+    public void forThread_InvalidArguments() throws Exception {
+
+        try {
+
+            FixedRateSchedule.forThread(0d, 1, 0, 0L);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+
+        try {
+
+            FixedRateSchedule.forThread(1d, 0, 0, 0L);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+
+        try {
+
+            FixedRateSchedule.forThread(1d, 2, 2, 0L);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void forThread_ThreadsInterleaveEvenly() throws Exception {
+
+        //
+        // 100,000 operations/sec over 4 threads: the merged timeline must have exactly one operation every 10 us
+        //
+
+        double rate = 100000d;
+        int threadCount = 4;
+        long origin = 5000L;
+
+        List<Long> merged = new ArrayList<>();
+
+        for(int i = 0; i < threadCount; i ++) {
+
+            FixedRateSchedule s = FixedRateSchedule.forThread(rate, threadCount, i, origin);
+
+            assertEquals(origin + i * 10000L, s.getOriginNano());
+            assertEquals(40000d, s.getIntervalNano(), 0.0d);
+
+            for(int j = 0; j < 1000; j ++) {
+
+                merged.add(s.next());
+            }
+        }
+
+        Collections.sort(merged);
+
+        for(int k = 0; k < merged.size(); k ++) {
+
+            assertEquals(origin + k * 10000L, merged.get(k).longValue());
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,567 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.embedded.EmbeddedCacheService;
+import io.novaordis.gld.api.cache.operation.Write;
+import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.mock.MockOperation;
+import io.novaordis.gld.api.mock.MockSamplingConsumer;
+import io.novaordis.gld.api.mock.configuration.MockCacheServiceConfiguration;
+import io.novaordis.gld.api.mock.load.MockLdLoadStrategy;
+import io.novaordis.gld.api.sampler.CounterValues;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.ImmutableFailureCounter;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import io.novaordis.gld.api.sampler.SamplerImpl;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.utilities.time.Duration;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Validates the numbers the load driver reports, by running the real MultiThreadedRunnerImpl and SamplerImpl against
+ * an embedded cache service with a known latency and throughput profile, and checking the reported rates, averages and
+ * percentiles against the profile.
+ *
+ * The host may be slow and have a single CPU, so the tolerances only account for the scheduling overhead, which adds
+ * to the injected latency and never subtracts from it. Every performance change to the sampler or the runners must
+ * keep this suite green.
+ *
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class MeasurementAccuracyTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementAccuracyTest.class);
+
+    private static final long MS = 1000000L;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void closedLoop_AveragesPercentilesAndRates() throws Exception {
+
+        int threads = 4;
+        long latencyNano = 5 * MS;
+
+        Measurement m = measure(threads, null, 3500L, "5ms", null, null);
+
+        CounterValues total = m.getTotal();
+
+        double averageNano = (double)total.getSuccessCumulatedDurationNano() / total.getSuccessCount();
+
+        log.info("average duration " + averageNano + " ns");
+
+        assertEquals(m.getIssued(), total.getSuccessCount());
+        assertEquals(0L, total.getFailureCount());
+        assertWithin("average duration", latencyNano, averageNano, 1.3d);
+
+        //
+        // in closed-loop mode, the operations are never late, so the response time is the duration
+        //
+
+        assertEquals(total.getSuccessCumulatedDurationNano(), total.getSuccessCumulatedResponseTimeNano());
+
+        List<SamplingInterval> full = m.getFullIntervals();
+
+        assertTrue(full.size() >= 2);
+
+        for(SamplingInterval si: full) {
+
+            CounterValues cv = si.getCounterValues(Write.class);
+
+            long p50 = cv.getSuccessResponseTimePercentileNano(50);
+            long p99 = cv.getSuccessResponseTimePercentileNano(99);
+            long max = cv.getSuccessMaxResponseTimeNano();
+
+            log.info(si + ": " + cv.getSuccessCount() + " operations, p50 " + p50 + " ns, p99 " + p99 + " ns");
+
+            assertWithin("p50", latencyNano, p50, 1.3d);
+            assertTrue(p50 <= p99);
+            assertTrue(p99 <= max);
+
+            //
+            // each thread completes one operation per average duration
+            //
+
+            double intervalAverageNano = (double)cv.getSuccessCumulatedDurationNano() / cv.getSuccessCount();
+            double expectedRate = threads * 1000000000d / intervalAverageNano;
+            double actualRate = cv.getSuccessCount() * 1000d / si.getDurationMs();
+
+            assertEquals(si.toString(), expectedRate, actualRate, expectedRate * 0.1d);
+        }
+    }
+
+    @Test
+    public void openLoop_RateIsHonored() throws Exception {
+
+        double rate = 400d;
+
+        Measurement m = measure(2, rate, 3500L, "1ms", null, null);
+
+        CounterValues total = m.getTotal();
+
+        assertEquals(m.getIssued(), total.getSuccessCount());
+
+        List<SamplingInterval> full = m.getFullIntervals();
+
+        assertTrue(full.size() >= 2);
+
+        for(SamplingInterval si: full) {
+
+            CounterValues cv = si.getCounterValues(Write.class);
+
+            double actualRate = cv.getSuccessCount() * 1000d / si.getDurationMs();
+
+            log.info(si + ": " + actualRate + " operations/sec");
+
+            assertEquals(si.toString(), rate, actualRate, rate * 0.05d);
+        }
+
+        //
+        // the service keeps up with the rate, so the operations start on time and the response time is close to the
+        // duration
+        //
+
+        double averageDurationNano = (double)total.getSuccessCumulatedDurationNano() / total.getSuccessCount();
+        double averageResponseTimeNano =
+                (double)total.getSuccessCumulatedResponseTimeNano() / total.getSuccessCount();
+
+        assertWithin("average duration", MS, averageDurationNano, 1.5d);
+        assertTrue(averageResponseTimeNano >= averageDurationNano);
+        assertTrue(averageResponseTimeNano - averageDurationNano < 2 * MS);
+    }
+
+    @Test
+    public void intervalBoundaries() throws Exception {
+
+        Measurement m = measure(3, null, 3200L, "2ms", null, null);
+
+        List<SamplingInterval> intervals = m.getIntervals();
+
+        assertTrue(intervals.size() >= 3);
+
+        SamplingInterval previous = null;
+
+        for(SamplingInterval si: intervals) {
+
+            //
+            // the intervals are aligned on round second marks, have the same duration and leave no gaps
+            //
+
+            assertEquals(1000L, si.getDurationMs());
+            assertEquals(0L, si.getStartMs() % 1000L);
+
+            if (previous != null) {
+
+                assertEquals(previous.getEndMs(), si.getStartMs());
+            }
+
+            //
+            // no interval may report more operations than the threads can complete in its duration
+            //
+
+            long maxPossible = 3 * si.getDurationMs() / 2;
+            assertTrue(si.getCounterValues(Write.class).getSuccessCount() <= maxPossible);
+
+            previous = si;
+        }
+
+        //
+        // no operation is lost or counted twice at the interval boundaries
+        //
+
+        assertEquals(m.getIssued(), m.getTotal().getSuccessCount());
+    }
+
+    @Test
+    public void lateSamplingTaskRun_IsExtrapolated() throws Exception {
+
+        long samplingIntervalMs = 100L;
+
+        //
+        // no sampling task runs are scheduled, we run the sampling task by hand, late
+        //
+
+        SamplerImpl sampler = new SamplerImpl(0L, samplingIntervalMs);
+        sampler.setConsumerQueueCapacity(0);
+        sampler.registerOperation(MockOperation.class);
+        MockSamplingConsumer consumer = new MockSamplingConsumer();
+        sampler.registerConsumer(consumer);
+
+        sampler.start();
+
+        int successes = 1000;
+        int failures = 10;
+        long durationNano = 3 * MS;
+
+        for(int i = 0; i < successes; i ++) {
+
+            long t0 = System.nanoTime();
+            sampler.record(System.currentTimeMillis(), t0, t0 + durationNano, new MockOperation());
+        }
+
+        for(int i = 0; i < failures; i ++) {
+
+            long t0 = System.nanoTime();
+            sampler.record(System.currentTimeMillis(), t0, t0 + durationNano, new MockOperation(),
+                    new RuntimeException());
+        }
+
+        int before = consumer.getSamplingIntervals().size();
+
+        Thread.sleep(3 * samplingIntervalMs + samplingIntervalMs / 2);
+
+        sampler.run();
+
+        List<SamplingInterval> all = consumer.getSamplingIntervals();
+        List<SamplingInterval> extrapolated = new ArrayList<>(all.subList(before, all.size()));
+
+        sampler.stop();
+
+        int n = extrapolated.size();
+
+        log.info(successes + " operations extrapolated over " + n + " sampling intervals");
+
+        assertTrue(n >= 3);
+
+        long successCount = 0L;
+        long failureCount = 0L;
+        long cumulatedDuration = 0L;
+
+        for(int i = 0; i < n; i ++) {
+
+            SamplingInterval si = extrapolated.get(i);
+
+            assertEquals(samplingIntervalMs, si.getDurationMs());
+
+            if (i > 0) {
+
+                assertEquals(extrapolated.get(i - 1).getEndMs(), si.getStartMs());
+            }
+
+            CounterValues cv = si.getCounterValues(MockOperation.class);
+
+            //
+            // the operations are spread evenly, the last interval absorbs the rounding remainder
+            //
+
+            long expected = i < n - 1 ? successes / n : successes - (n - 1) * (successes / n);
+            assertEquals(expected, cv.getSuccessCount());
+
+            //
+            // the cumulated duration is split independently of the count, so the per-interval average may fall on
+            // either side of the recorded duration by the rounding remainder
+            //
+
+            assertEquals(durationNano, (double)cv.getSuccessCumulatedDurationNano() / cv.getSuccessCount(),
+                    durationNano * 0.01d);
+
+            //
+            // the percentiles cannot be split, each interval carries the whole distribution
+            //
+
+            assertWithin("p99", durationNano, cv.getSuccessResponseTimePercentileNano(99), 1.02d);
+
+            successCount += cv.getSuccessCount();
+            failureCount += cv.getFailureCount();
+            cumulatedDuration += cv.getSuccessCumulatedDurationNano();
+        }
+
+        assertEquals(successes, successCount);
+        assertEquals(failures, failureCount);
+        assertEquals(successes * durationNano, cumulatedDuration);
+    }
+
+    @Test
+    public void openLoop_StallsAreNotHidden() throws Exception {
+
+        double rate = 200d;
+        long durationMs = 3500L;
+
+        Measurement m = measure(2, rate, durationMs, "1ms", "1s", "300ms");
+
+        CounterValues total = m.getTotal();
+
+        assertEquals(m.getIssued(), total.getSuccessCount());
+
+        //
+        // the runners catch up with the schedule after each stall, so the rate is still honored overall
+        //
+
+        assertEquals(rate * durationMs / 1000d, total.getSuccessCount(), rate * durationMs / 1000d * 0.1d);
+
+        //
+        // the operations that were scheduled during a stall are reported with the time they spent waiting
+        //
+
+        int intervalsWithStalls = 0;
+
+        for(SamplingInterval si: m.getIntervals()) {
+
+            CounterValues cv = si.getCounterValues(Write.class);
+
+            log.info(si + ": maximum response time " + cv.getSuccessMaxResponseTimeNano() + " ns");
+
+            if (cv.getSuccessMaxResponseTimeNano() >= 200 * MS) {
+
+                intervalsWithStalls ++;
+            }
+        }
+
+        assertTrue(intervalsWithStalls >= 2);
+
+        //
+        // had the response time been measured from the moment the operations actually started, the waiting would
+        // have been omitted
+        //
+
+        assertTrue(total.getSuccessCumulatedResponseTimeNano() > 2 * total.getSuccessCumulatedDurationNano());
+    }
+
+    @Test
+    public void thousandsOfThreads() throws Exception {
+
+        int threads = 2000;
+        long latencyNano = 200 * MS;
+
+        Measurement m = measure(threads, null, 2500L, "200ms", null, null);
+
+        CounterValues total = m.getTotal();
+
+        log.info(total.getSuccessCount() + " operations over " + threads + " threads");
+
+        //
+        // no update is lost under contention
+        //
+
+        assertEquals(m.getIssued(), total.getSuccessCount());
+        assertTrue(total.getSuccessCount() >= threads);
+
+        double averageNano = (double)total.getSuccessCumulatedDurationNano() / total.getSuccessCount();
+
+        assertWithin("average duration", latencyNano, averageNano, 1.5d);
+        assertWithin("p50", latencyNano, total.getSuccessResponseTimePercentileNano(50), 1.5d);
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Fails unless expected <= actual <= expected * factor: the scheduling overhead adds to the known latency.
+     */
+    private static void assertWithin(String what, double expected, double actual, double factor) {
+
+        assertTrue(what + " " + actual + " is smaller than " + expected, actual >= expected);
+        assertTrue(what + " " + actual + " is larger than " + expected * factor, actual <= expected * factor);
+    }
+
+    /**
+     * Runs the load against an embedded cache service with the given latency and stalls.
+     *
+     * @param rate null means closed-loop.
+     * @param stallInterval null means no stalls.
+     */
+    private static Measurement measure(int threads, Double rate, long durationMs, String latency,
+                                       String stallInterval, String stallDuration) throws Exception {
+
+        Map<String, Object> implementation = new HashMap<>();
+        implementation.put(EmbeddedCacheService.LATENCY_LABEL, latency);
+
+        if (stallInterval != null) {
+
+            implementation.put(EmbeddedCacheService.STALL_INTERVAL_LABEL, stallInterval);
+            implementation.put(EmbeddedCacheService.STALL_DURATION_LABEL, stallDuration);
+        }
+
+        MockCacheServiceConfiguration msc = new MockCacheServiceConfiguration();
+        msc.set(implementation, ServiceConfiguration.IMPLEMENTATION_CONFIGURATION_LABEL);
+
+        WriteLoadStrategy loadStrategy = new WriteLoadStrategy();
+
+        EmbeddedCacheService service = new EmbeddedCacheService();
+        service.configure(msc);
+        service.setLoadStrategy(loadStrategy);
+        loadStrategy.setService(service);
+
+        SamplerImpl sampler = new SamplerImpl(250L, 1000L);
+        sampler.registerOperation(Write.class);
+        MockSamplingConsumer consumer = new MockSamplingConsumer();
+        sampler.registerConsumer(consumer);
+
+        MultiThreadedRunnerImpl runner = new MultiThreadedRunnerImpl(service, sampler, null, threads, true, -1L);
+        runner.setRate(rate);
+        runner.setDuration(new Duration(durationMs));
+
+        service.start();
+        sampler.start();
+
+        long runStartMs = System.currentTimeMillis();
+        long runEndMs;
+
+        try {
+
+            runner.run();
+        }
+        finally {
+
+            runEndMs = System.currentTimeMillis();
+
+            sampler.stop();
+            service.stop();
+        }
+
+        log.info("ran " + threads + " thread(s) for " + (runEndMs - runStartMs) + " ms");
+
+        return new Measurement(consumer.getSamplingIntervals(), runStartMs, runEndMs, loadStrategy.getIssued());
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    /**
+     * Writes the same key over and over, and counts the operations it issues, independently of the sampler.
+     */
+    private static class WriteLoadStrategy extends MockLdLoadStrategy {
+
+        private final LongAdder issued = new LongAdder();
+
+        @Override
+        public Operation next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown) {
+
+            if (runtimeShuttingDown) {
+
+                return null;
+            }
+
+            issued.increment();
+
+            return new Write("calibration", "value");
+        }
+
+        long getIssued() {
+
+            return issued.sum();
+        }
+    }
+
+    private static class Measurement {
+
+        private final List<SamplingInterval> intervals;
+        private final long runStartMs;
+        private final long runEndMs;
+        private final long issued;
+
+        private Measurement(List<SamplingInterval> intervals, long runStartMs, long runEndMs, long issued) {
+
+            this.intervals = intervals;
+            this.runStartMs = runStartMs;
+            this.runEndMs = runEndMs;
+            this.issued = issued;
+        }
+
+        List<SamplingInterval> getIntervals() {
+
+            return intervals;
+        }
+
+        /**
+         * @return the intervals that lie entirely within the run, and were neither ramping up nor winding down.
+         */
+        List<SamplingInterval> getFullIntervals() {
+
+            List<SamplingInterval> result = new ArrayList<>();
+
+            for(SamplingInterval si: intervals) {
+
+                if (si.getStartMs() >= runStartMs && si.getEndMs() <= runEndMs) {
+
+                    result.add(si);
+                }
+            }
+
+            return result;
+        }
+
+        long getIssued() {
+
+            return issued;
+        }
+
+        /**
+         * @return the values accumulated over all the intervals. The percentiles are computed over the merged
+         * distribution.
+         */
+        CounterValues getTotal() {
+
+            long successCount = 0L;
+            long successDuration = 0L;
+            long successResponseTime = 0L;
+            long failureCount = 0L;
+            LatencyHistogram histogram = new LatencyHistogram();
+
+            for(SamplingInterval si: intervals) {
+
+                CounterValues cv = si.getCounterValues(Write.class);
+
+                successCount += cv.getSuccessCount();
+                successDuration += cv.getSuccessCumulatedDurationNano();
+                successResponseTime += cv.getSuccessCumulatedResponseTimeNano();
+                failureCount += cv.getFailureCount();
+
+                if (cv.getSuccessResponseTimeHistogram() != null) {
+
+                    histogram.add(cv.getSuccessResponseTimeHistogram());
+                }
+            }
+
+            Map<Class<? extends Throwable>, ImmutableFailureCounter> failures = new HashMap<>();
+
+            if (failureCount > 0) {
+
+                failures.put(Throwable.class, new ImmutableFailureCounter(failureCount, 0L));
+            }
+
+            return new CounterValuesImpl(successCount, successDuration, successResponseTime, histogram, failures);
+        }
+    }
+
+}
@@ -16,8 +16,10 @@
 
 package io.novaordis.gld.driver;
 
+import io.novaordis.gld.api.configuration.LoadStage;
 import io.novaordis.utilities.time.Duration;
 
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 
@@ -83,6 +85,46 @@ public class MockMultiThreadRunner implements MultiThreadedRunner {
         throw new RuntimeException("setDuration() NOT YET IMPLEMENTED");
     }
 
+    @Override
+    public Double getRate() {
+        throw new RuntimeException("getRate() NOT YET IMPLEMENTED");
+    }
+
+    @Override
+    public void setRate(Double rate) {
+        throw new RuntimeException("setRate() NOT YET IMPLEMENTED");
+    }
+
+    @Override
+    public boolean isVirtualThreads() {
+        throw new RuntimeException("isVirtualThreads() NOT YET IMPLEMENTED");
+    }
+
+    @Override
+    public void setVirtualThreads(boolean b) {
+        throw new RuntimeException("setVirtualThreads() NOT YET IMPLEMENTED");
+    }
+
+    @Override
+    public int getInFlight() {
+        throw new RuntimeException("getInFlight() NOT YET IMPLEMENTED");
+    }
+
+    @Override
+    public void setInFlight(int inFlight) {
+        throw new RuntimeException("setInFlight() NOT YET IMPLEMENTED");
+    }
+
+    @Override
+    public List<LoadStage> getProfile() {
+        throw new RuntimeException("getProfile() NOT YET IMPLEMENTED");
+    }
+
+    @Override
+    public void setProfile(List<LoadStage> profile) {
+        throw new RuntimeException("setProfile() NOT YET IMPLEMENTED");
+    }
+
     @Override
     public boolean isWaitForConsoleQuit() {
         throw new RuntimeException("isWaitForConsoleQuit() NOT YET IMPLEMENTED");
@@ -44,6 +44,9 @@ public class MockSampler implements Sampler {
 
     private List<OperationThrowablePair> recorded;
 
+    // the intended start time of each recorded operation, in the order of recording
+    private List<Long> intendedStartTimesNano;
+
     private Set<Class<? extends Operation>> operations;
 
     private boolean started;
@@ -55,6 +58,7 @@ public class MockSampler implements Sampler {
     public MockSampler() {
 
         this.recorded = new ArrayList<>();
+        this.intendedStartTimesNano = new ArrayList<>();
         this.operations = new HashSet<>();
         this.started = false;
         this.wasStarted = false;
@@ -136,7 +140,14 @@ public class MockSampler implements Sampler {
 
     @Override
     public synchronized void record(long t0Ms, long t0Nano, long t1Nano, Operation op, Throwable... t) {
+        record(t0Ms, t0Nano, t0Nano, t1Nano, op, t);
+    }
+
+    @Override
+    public synchronized void record(
+            long t0Ms, long intendedT0Nano, long t0Nano, long t1Nano, Operation op, Throwable... t) {
         recorded.add(new OperationThrowablePair(op, t.length == 0 ? null : t[0]));
+        intendedStartTimesNano.add(intendedT0Nano);
     }
 
     @Override
@@ -158,6 +169,10 @@ public class MockSampler implements Sampler {
         return recorded;
     }
 
+    public List<Long> getIntendedStartTimesNano() {
+        return intendedStartTimesNano;
+    }
+
     /**
      * @return true if start() method was called at least once
      */
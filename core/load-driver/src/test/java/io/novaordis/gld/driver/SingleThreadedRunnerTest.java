@@ -23,17 +23,26 @@ import io.novaordis.gld.api.cache.load.WriteThenReadLoadStrategy;
 import io.novaordis.gld.api.cache.operation.Write;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
+import io.novaordis.gld.api.jms.Listener;
+import io.novaordis.gld.api.jms.embedded.EmbeddedTextMessage;
+import io.novaordis.gld.api.jms.load.ReceiveLoadStrategy;
+import io.novaordis.gld.api.jms.operation.Deliver;
+import io.novaordis.gld.api.jms.operation.Send;
 import io.novaordis.gld.api.service.ServiceType;
+import io.novaordis.gld.api.mock.MockAsyncCacheService;
 import io.novaordis.gld.api.mock.MockCacheService;
 import io.novaordis.gld.api.mock.MockCleanupOperation;
 import io.novaordis.gld.api.mock.MockKeyStore;
 import io.novaordis.gld.api.mock.MockOperation;
 import io.novaordis.gld.api.mock.MockService;
+import io.novaordis.gld.api.mock.MockTimestampedOperation;
 import io.novaordis.gld.api.mock.configuration.MockCacheServiceConfiguration;
 import io.novaordis.gld.api.mock.configuration.MockLoadConfiguration;
 import io.novaordis.gld.api.mock.load.MockLdLoadStrategy;
+import io.novaordis.gld.api.sampler.CounterValues;
 import io.novaordis.gld.api.sampler.Sampler;
 import io.novaordis.gld.api.sampler.SamplerImpl;
 import io.novaordis.gld.api.store.InMemoryStore;
@@ -42,9 +51,13 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.jms.Session;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static junit.framework.TestCase.assertFalse;
@@ -182,6 +195,29 @@ public class SingleThreadedRunnerTest {
         assertEquals(0, cb.getNumberWaiting());
     }
 
+    @Test
+    public void threadFactory() throws Exception {
+
+        final List<Runnable> runnables = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        ThreadFactory tf = r -> {
+
+            runnables.add(r);
+            Thread t = new Thread(r);
+            threads.add(t);
+            return t;
+        };
+
+        SingleThreadedRunner st = new SingleThreadedRunner(
+                "TEST", new MockService(), new MockLdLoadStrategy(1), new MockSampler(), new CyclicBarrier(1),
+                new AtomicBoolean(false), -1L, new MockKeyStore(), null, tf);
+
+        assertEquals(1, runnables.size());
+        assertEquals(st, runnables.get(0));
+        assertEquals("TEST Thread", threads.get(0).getName());
+    }
+
 //    @Test
 //    public void insureThatKeyStoreIsClosedOnExit() throws Exception {
 //
@@ -241,6 +277,224 @@ public class SingleThreadedRunnerTest {
         assertTrue(t1 - t0 >= sleepMs);
     }
 
+    @Test
+    public void openLoop_OperationsAreIssuedOnSchedule() throws Exception {
+
+        long intervalMs = 50L;
+
+        MockService ms = new MockService();
+
+        MockSampler mockSampler = new MockSampler();
+        MockLdLoadStrategy mockLoadStrategy = new MockLdLoadStrategy(5);
+
+        CyclicBarrier barrier = new CyclicBarrier(1);
+
+        long t0 = System.nanoTime();
+
+        FixedRateSchedule schedule = new FixedRateSchedule(t0, intervalMs * 1000000d);
+
+        //
+        // the sleep is ignored in open-loop mode
+        //
+
+        SingleThreadedRunner st = new SingleThreadedRunner(
+                "TEST", ms, mockLoadStrategy, mockSampler, barrier, new AtomicBoolean(false),
+                10000L, new MockKeyStore(), schedule);
+
+        assertEquals(schedule, st.getSchedule());
+
+        setRunning(st);
+
+        st.run();
+
+        long t1 = System.nanoTime();
+
+        assertEquals(5, ms.getExecutedOperations().size());
+
+        //
+        // five operations, the last one is scheduled four intervals after the origin
+        //
+
+        long elapsedMs = (t1 - t0) / 1000000L;
+        assertTrue(elapsedMs >= 4 * intervalMs);
+        assertTrue(elapsedMs < 10000L);
+    }
+
+    @Test
+    public void openLoop_IntendedStartTimeIsRecorded() throws Exception {
+
+        MockService ms = new MockService();
+
+        MockSampler mockSampler = new MockSampler();
+        MockLdLoadStrategy mockLoadStrategy = new MockLdLoadStrategy(3);
+
+        CyclicBarrier barrier = new CyclicBarrier(1);
+
+        //
+        // the schedule started one second ago, so the runner is behind and it must not wait, but it must record the
+        // operations against their intended start time
+        //
+
+        long origin = System.nanoTime() - 1000L * 1000000L;
+
+        FixedRateSchedule schedule = new FixedRateSchedule(origin, 1000000d);
+
+        SingleThreadedRunner st = new SingleThreadedRunner(
+                "TEST", ms, mockLoadStrategy, mockSampler, barrier, new AtomicBoolean(false),
+                -1L, new MockKeyStore(), schedule);
+
+        setRunning(st);
+
+        st.run();
+
+        List<Long> intended = mockSampler.getIntendedStartTimesNano();
+
+        assertEquals(3, intended.size());
+        assertEquals(origin, intended.get(0).longValue());
+        assertEquals(origin + 1000000L, intended.get(1).longValue());
+        assertEquals(origin + 2000000L, intended.get(2).longValue());
+    }
+
+    @Test
+    public void timestampedOperation_OriginIsRecordedAsIntendedStartTime() throws Exception {
+
+        MockService ms = new MockService();
+
+        MockSampler mockSampler = new MockSampler();
+
+        long origin = System.nanoTime() - 1000L * 1000000L;
+
+        //
+        // the first operation carries an origin, the second does not
+        //
+
+        MockLdLoadStrategy mockLoadStrategy = new MockLdLoadStrategy(2) {
+
+            private int count;
+
+            @Override
+            public Operation next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+                    throws Exception {
+
+                Operation o = super.next(last, lastWrittenKey, runtimeShuttingDown);
+
+                return o == null ? null : new MockTimestampedOperation(count ++ == 0 ? origin : null);
+            }
+        };
+
+        SingleThreadedRunner st = new SingleThreadedRunner(
+                "TEST", ms, mockLoadStrategy, mockSampler, new CyclicBarrier(1), new AtomicBoolean(false),
+                -1L, new MockKeyStore());
+
+        setRunning(st);
+
+        long t0 = System.nanoTime();
+
+        st.run();
+
+        List<Long> intended = mockSampler.getIntendedStartTimesNano();
+
+        assertEquals(2, intended.size());
+        assertEquals(origin, intended.get(0).longValue());
+        assertTrue(intended.get(1) - t0 >= 0);
+    }
+
+    @Test
+    public void timestampedOperation_MessageSentWhileTheRunnerIsWaitingForIt() throws Exception {
+
+        //
+        // a real sampler, whose counter rejects intended start times that are later than the operation start
+        //
+
+        Sampler s = new SamplerImpl(0L, 1000L);
+        s.registerOperation(ListenerDeliver.class);
+        s.start();
+
+        ReceiveLoadStrategy receiveLoadStrategy = new ReceiveLoadStrategy();
+        receiveLoadStrategy.setTimeoutMs(5000L);
+
+        Listener listener = new Listener(null, null, null, 10, Session.AUTO_ACKNOWLEDGE, 1);
+
+        MockLdLoadStrategy mockLoadStrategy = new MockLdLoadStrategy(1) {
+
+            @Override
+            public Operation next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown)
+                    throws Exception {
+
+                Operation o = super.next(last, lastWrittenKey, runtimeShuttingDown);
+
+                return o == null ? null : new ListenerDeliver(receiveLoadStrategy, listener);
+            }
+        };
+
+        SingleThreadedRunner st = new SingleThreadedRunner(
+                "TEST", new MockService(), mockLoadStrategy, s, new CyclicBarrier(1), new AtomicBoolean(false),
+                -1L, null);
+
+        setRunning(st);
+
+        Thread t = new Thread(st::run);
+        t.start();
+
+        //
+        // the message is sent after the runner started waiting for it, so its origin is later than the runner's t0
+        //
+
+        Thread.sleep(200L);
+
+        EmbeddedTextMessage m = new EmbeddedTextMessage("test");
+        m.setLongProperty(Send.SEND_TIME_PROPERTY, System.currentTimeMillis());
+        listener.onMessage(m);
+
+        t.join(5000L);
+        assertFalse(t.isAlive());
+
+        CounterValues values = s.getCounter(ListenerDeliver.class).getCounterValuesAndReset();
+
+        s.stop();
+
+        assertEquals(1L, values.getSuccessCount());
+        assertEquals(0L, values.getFailureCount());
+    }
+
+    @Test
+    public void openLoop_DurationExpiresWhileWaitingForTheNextSlot() throws Exception {
+
+        MockService ms = new MockService();
+
+        MockSampler mockSampler = new MockSampler();
+        MockLdLoadStrategy mockLoadStrategy = new MockLdLoadStrategy(2);
+
+        CyclicBarrier barrier = new CyclicBarrier(1);
+
+        //
+        // the second slot is one hour away, but the duration expired, so the runner must not wait for it
+        //
+
+        FixedRateSchedule schedule = new FixedRateSchedule(System.nanoTime(), 3600 * 1000000000d);
+
+        AtomicBoolean durationExpired = new AtomicBoolean(false);
+
+        SingleThreadedRunner st = new SingleThreadedRunner(
+                "TEST", ms, mockLoadStrategy, mockSampler, barrier, durationExpired,
+                -1L, new MockKeyStore(), schedule);
+
+        setRunning(st);
+
+        Thread t = new Thread(st::run);
+        t.start();
+
+        Thread.sleep(200L);
+
+        assertTrue(t.isAlive());
+
+        durationExpired.set(true);
+
+        t.join(5000L);
+
+        assertFalse(t.isAlive());
+    }
+
     @Test
     public void run_RuntimeIsShuttingDown() throws Exception {
 
@@ -294,6 +548,17 @@ public class SingleThreadedRunnerTest {
                 throw new RuntimeException("stop() NOT YET IMPLEMENTED");
             }
 
+            @Override
+            public LoadStrategyContext newContext() {
+                return new LoadStrategyContext(this);
+            }
+
+            @Override
+            public Operation next(LoadStrategyContext context, Operation last, String lastWrittenKey,
+                                  boolean runtimeShuttingDown) throws Exception {
+                return next(last, lastWrittenKey, runtimeShuttingDown);
+            }
+
             @Override
             public Operation next(Operation last, String lastWrittenKey, boolean runtimeShuttingDown) throws Exception {
 
@@ -353,6 +618,11 @@ public class SingleThreadedRunnerTest {
             public String computeValue() {
                 throw new RuntimeException("computeValue() NOT YET IMPLEMENTED");
             }
+
+            @Override
+            public byte[] computeValueBytes() {
+                throw new RuntimeException("computeValueBytes() NOT YET IMPLEMENTED");
+            }
         };
 
         MockService ms = new MockService();
@@ -387,6 +657,113 @@ public class SingleThreadedRunnerTest {
         assertTrue(o2 instanceof MockCleanupOperation);
     }
 
+    @Test
+    public void setInFlight_InvalidValue() throws Exception {
+
+        SingleThreadedRunner st = new SingleThreadedRunner(
+                "TEST", new MockService(), new MockLdLoadStrategy(1), new MockSampler(), new CyclicBarrier(1),
+                new AtomicBoolean(false), -1L, new MockKeyStore());
+
+        assertEquals(1, st.getInFlight());
+
+        try {
+
+            st.setInFlight(0);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void asynchronous_OperationsAreKeptInFlight() throws Exception {
+
+        int operations = 100;
+        int inFlight = 10;
+        long delayMs = 20L;
+
+        MockAsyncCacheService mcs = new MockAsyncCacheService(delayMs);
+
+        try {
+
+            MockSampler ms = new MockSampler();
+            InMemoryStore ks = new InMemoryStore();
+            ks.start();
+
+            SingleThreadedRunner st = new SingleThreadedRunner(
+                    "TEST", mcs, writeOnlyLoadStrategy(operations), ms, new CyclicBarrier(1),
+                    new AtomicBoolean(false), 0L, ks);
+
+            st.setInFlight(inFlight);
+
+            setRunning(st);
+
+            long t0 = System.currentTimeMillis();
+
+            st.run();
+
+            long t1 = System.currentTimeMillis();
+
+            //
+            // all operations completed and were recorded before run() returned
+            //
+
+            List<OperationThrowablePair> recorded = ms.getRecorded();
+            assertEquals(operations, recorded.size());
+
+            for(OperationThrowablePair p: recorded) {
+
+                assertNull(p.throwable);
+                Write w = (Write)p.operation;
+                assertTrue(w.wasSuccessful());
+                assertEquals(w.getValue(), mcs.get(w.getKey()));
+                assertNotNull(ks.retrieve(w.getKey()));
+            }
+
+            assertTrue(mcs.getMaxInFlight() > 1);
+            assertTrue(mcs.getMaxInFlight() <= inFlight);
+
+            //
+            // synchronous execution would have taken at least operations * delayMs
+            //
+
+            assertTrue(t1 - t0 < operations * delayMs);
+        }
+        finally {
+
+            mcs.shutdown();
+        }
+    }
+
+    @Test
+    public void asynchronous_ServiceDoesNotSupportAsynchronousOperations() throws Exception {
+
+        int operations = 5;
+
+        MockCacheService mcs = new MockCacheService();
+        MockSampler ms = new MockSampler();
+
+        SingleThreadedRunner st = new SingleThreadedRunner(
+                "TEST", mcs, writeOnlyLoadStrategy(operations), ms, new CyclicBarrier(1),
+                new AtomicBoolean(false), 0L, null);
+
+        st.setInFlight(10);
+
+        setRunning(st);
+
+        st.run();
+
+        //
+        // the operations were performed synchronously
+        //
+
+        List<OperationThrowablePair> recorded = ms.getRecorded();
+        assertEquals(operations, recorded.size());
+        assertEquals(operations, mcs.getStorage().size());
+    }
+
     // WriteThenReadLoadStrategy - SingleThreadedRunner integration ----------------------------------------------------
 
     @Test
@@ -496,6 +873,51 @@ public class SingleThreadedRunnerTest {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    private static WriteThenReadLoadStrategy writeOnlyLoadStrategy(int operations) throws Exception {
+
+        MockCacheServiceConfiguration msc = new MockCacheServiceConfiguration();
+
+        msc.set(WriteThenReadLoadStrategy.NAME,
+                CacheServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL,
+                LoadStrategy.NAME_LABEL);
+
+        msc.set(0,
+                CacheServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL,
+                WriteThenReadLoadStrategy.READ_TO_WRITE_LABEL);
+
+        msc.remove(CacheServiceConfiguration.LOAD_STRATEGY_CONFIGURATION_LABEL,
+                LoadStrategy.FACTORY_CLASS_LABEL);
+
+        MockLoadConfiguration mlc = new MockLoadConfiguration(ServiceType.cache);
+        mlc.setOperations(operations);
+        mlc.setKeySize(3);
+        mlc.setValueSize(7);
+
+        WriteThenReadLoadStrategy wtr = new WriteThenReadLoadStrategy();
+        wtr.init(msc, mlc);
+        return wtr;
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
+    /**
+     * A Deliver that takes its messages from a given listener, without going through a JMS service.
+     */
+    private static class ListenerDeliver extends Deliver {
+
+        private Listener listener;
+
+        ListenerDeliver(ReceiveLoadStrategy ls, Listener listener) {
+
+            super(ls);
+            this.listener = listener;
+        }
+
+        @Override
+        public void perform(Service s) throws Exception {
+
+            perform(listener);
+        }
+    }
+
 }
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver;
+
+import io.novaordis.gld.api.configuration.LoadStage;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class StagedScheduleTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(StagedScheduleTest.class);
+
+    private static final long MS = 1000000L;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidArguments() throws Exception {
+
+        List<LoadStage> stages = Collections.singletonList(new LoadStage("test", 1000, 10d, null, null));
+
+        try {
+
+            new StagedSchedule(Collections.emptyList(), 1, 0, 0L);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+
+        try {
+
+            new StagedSchedule(stages, 0, 0, 0L);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+
+        try {
+
+            new StagedSchedule(stages, 2, 2, 0L);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void boundaries() throws Exception {
+
+        List<LoadStage> stages = Arrays.asList(
+                new LoadStage("one", 1000, 10d, null, null),
+                new LoadStage("two", 500, null, null, null));
+
+        StagedSchedule s = new StagedSchedule(stages, 1, 0, 7L);
+
+        assertEquals(7L, s.getOriginNano());
+        assertEquals(7L + 1500 * MS, s.getEndNano());
+    }
+
+    @Test
+    public void constantRate_ThreadsInterleaveEvenly() throws Exception {
+
+        //
+        // 10 operations/sec for one second over 2 threads: one operation every 100 ms, then nothing
+        //
+
+        List<LoadStage> stages = Collections.singletonList(new LoadStage("constant", 1000, 10d, null, null));
+
+        long origin = 5000L;
+
+        List<Long> merged = new ArrayList<>();
+
+        for(int i = 0; i < 2; i ++) {
+
+            StagedSchedule s = new StagedSchedule(stages, 2, i, origin);
+
+            for(int j = 0; j < 5; j ++) {
+
+                merged.add(s.next(origin));
+            }
+
+            assertEquals(Long.MAX_VALUE, s.next(origin));
+        }
+
+        Collections.sort(merged);
+
+        assertEquals(10, merged.size());
+
+        for(int k = 0; k < merged.size(); k ++) {
+
+            assertEquals(origin + k * 100 * MS, merged.get(k).longValue());
+        }
+    }
+
+    @Test
+    public void slotTime_RampUp() throws Exception {
+
+        //
+        // 10 -> 30 operations/sec over one second: 20 operations, C(t) = 10t + 10t^2
+        //
+
+        LoadStage ramp = new LoadStage("ramp-up", 1000, 10d, 30d, null);
+
+        assertEquals(20d, StagedSchedule.slotCount(ramp), 0.0000001d);
+        assertEquals(0d, StagedSchedule.slotTime(ramp, 0), 0.0d);
+        assertEquals(1d, StagedSchedule.slotTime(ramp, 20), 0.0000001d);
+
+        for(int k = 1; k <= 20; k ++) {
+
+            double t = StagedSchedule.slotTime(ramp, k);
+            assertEquals(k, 10 * t + 10 * t * t, 0.0000001d);
+        }
+    }
+
+    @Test
+    public void slotTime_RampDown() throws Exception {
+
+        //
+        // 30 -> 10 operations/sec over one second: 20 operations, C(t) = 30t - 10t^2
+        //
+
+        LoadStage ramp = new LoadStage("ramp-down", 1000, 30d, 10d, null);
+
+        assertEquals(20d, StagedSchedule.slotCount(ramp), 0.0000001d);
+        assertEquals(1d, StagedSchedule.slotTime(ramp, 20), 0.0000001d);
+
+        for(int k = 1; k <= 20; k ++) {
+
+            double t = StagedSchedule.slotTime(ramp, k);
+            assertEquals(k, 30 * t - 10 * t * t, 0.0000001d);
+        }
+    }
+
+    @Test
+    public void ramp_IntervalsShrink() throws Exception {
+
+        List<LoadStage> stages = Collections.singletonList(new LoadStage("ramp-up", 1000, 10d, 30d, null));
+
+        StagedSchedule s = new StagedSchedule(stages, 1, 0, 0L);
+
+        long previous = s.next(0L);
+        long previousInterval = Long.MAX_VALUE;
+
+        for(int i = 1; i < 20; i ++) {
+
+            long t = s.next(0L);
+            long interval = t - previous;
+            assertTrue(interval < previousInterval);
+            previous = t;
+            previousInterval = interval;
+        }
+
+        assertEquals(Long.MAX_VALUE, s.next(0L));
+    }
+
+    @Test
+    public void inactiveThreadSitsTheStageOut() throws Exception {
+
+        List<LoadStage> stages = Arrays.asList(
+                new LoadStage("one thread", 1000, 10d, null, 1),
+                new LoadStage("two threads", 1000, 10d, null, null));
+
+        long origin = 0L;
+
+        StagedSchedule s0 = new StagedSchedule(stages, 2, 0, origin);
+        StagedSchedule s1 = new StagedSchedule(stages, 2, 1, origin);
+
+        //
+        // thread 0 gets all ten slots of the first stage
+        //
+
+        for(int i = 0; i < 10; i ++) {
+
+            assertEquals(origin + i * 100 * MS, s0.next(origin));
+        }
+
+        assertEquals(origin + 1000 * MS, s0.next(origin));
+
+        //
+        // thread 1 waits for the second stage, and gets the odd slots
+        //
+
+        assertEquals(origin + 1100 * MS, s1.next(origin));
+        assertEquals(origin + 1300 * MS, s1.next(origin));
+    }
+
+    @Test
+    public void closedLoopStage() throws Exception {
+
+        List<LoadStage> stages = Arrays.asList(
+                new LoadStage("warm-up", 1000, 10d, null, null),
+                new LoadStage("closed-loop", 1000, null, null, null),
+                new LoadStage("cool-down", 1000, 10d, null, null));
+
+        long origin = 0L;
+
+        StagedSchedule s = new StagedSchedule(stages, 1, 0, origin);
+
+        for(int i = 0; i < 10; i ++) {
+
+            assertEquals(origin + i * 100 * MS, s.next(origin));
+        }
+
+        //
+        // the runner caught up early, it must wait for the closed-loop stage to start
+        //
+
+        assertEquals(origin + 1000 * MS, s.next(origin + 950 * MS));
+
+        //
+        // inside the closed-loop stage, the operations are not scheduled
+        //
+
+        assertEquals(Schedule.UNSCHEDULED, s.next(origin + 1000 * MS));
+        assertEquals(Schedule.UNSCHEDULED, s.next(origin + 1999 * MS));
+
+        //
+        // past the closed-loop stage
+        //
+
+        assertEquals(origin + 2000 * MS, s.next(origin + 2000 * MS));
+    }
+
+    @Test
+    public void closedLoopLastStage() throws Exception {
+
+        List<LoadStage> stages = Collections.singletonList(new LoadStage("closed-loop", 1000, null, null, 1));
+
+        StagedSchedule s0 = new StagedSchedule(stages, 2, 0, 0L);
+
+        assertEquals(Schedule.UNSCHEDULED, s0.next(0L));
+        assertEquals(Long.MAX_VALUE, s0.next(1000 * MS));
+
+        StagedSchedule s1 = new StagedSchedule(stages, 2, 1, 0L);
+
+        assertEquals(Long.MAX_VALUE, s1.next(0L));
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
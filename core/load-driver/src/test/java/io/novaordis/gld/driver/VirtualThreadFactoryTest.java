@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/12/17
+ */
+public class VirtualThreadFactoryTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadFactoryTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_NotSupported() throws Exception {
+
+        if (VirtualThreadFactory.isSupported()) {
+
+            log.info("virtual threads supported by the current runtime, skipping test");
+            return;
+        }
+
+        try {
+
+            new VirtualThreadFactory();
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void newThread() throws Exception {
+
+        if (!VirtualThreadFactory.isSupported()) {
+
+            log.info("virtual threads not supported by the current runtime, skipping test");
+            return;
+        }
+
+        VirtualThreadFactory f = new VirtualThreadFactory();
+
+        int threadCount = 10000;
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger executions = new AtomicInteger();
+
+        for(int i = 0; i < threadCount; i ++) {
+
+            Thread t = f.newThread(() -> {
+
+                executions.incrementAndGet();
+                latch.countDown();
+            });
+
+            assertFalse(t.isAlive());
+            t.start();
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(threadCount, executions.get());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
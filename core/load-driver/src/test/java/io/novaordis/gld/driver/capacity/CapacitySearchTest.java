@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.capacity;
+
+import io.novaordis.gld.api.configuration.CapacitySearchConfiguration;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class CapacitySearchTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(CapacitySearchTest.class);
+
+    private static final long MS = 1000000L;
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * A simulated target service that responds in 1 ms up to its capacity, and in 50 ms above it.
+     */
+    private static TrialResult simulate(double rate, double capacity, double errorRate) {
+
+        LatencyHistogram h = new LatencyHistogram();
+
+        long latency = rate <= capacity ? MS : 50 * MS;
+
+        for(int i = 0; i < 100; i ++) {
+
+            h.record(latency);
+        }
+
+        long total = Math.round(rate * 10);
+        long failures = Math.round(total * errorRate);
+
+        return new TrialResult(rate, total - failures, failures, 10000L, h);
+    }
+
+    private static CapacitySearchConfiguration configuration(
+            double initialRate, Double maxRate, int maxTrials, Double maxErrorRate, File curveFile) {
+
+        Map<Double, Long> thresholds = Collections.singletonMap(99d, 5 * MS);
+
+        return new CapacitySearchConfiguration(
+                initialRate, maxRate, 1000L, 0L, 0.02d, maxTrials, curveFile, thresholds, maxErrorRate);
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void search() throws Exception {
+
+        double capacity = 7300d;
+
+        CapacitySearch s = new CapacitySearch(
+                configuration(1000d, null, 50, null, null), rate -> simulate(rate, capacity, 0d));
+
+        s.run();
+
+        double found = s.getHighestCompliantRate();
+
+        log.info(s.getReport());
+
+        assertTrue(found <= capacity);
+        assertTrue(found >= capacity * 0.98);
+
+        //
+        // 1000, 2000, 4000, 8000, then bisection
+        //
+
+        List<TrialResult> trials = s.getTrials();
+
+        assertTrue(trials.size() > 4);
+        assertEquals(1000d, trials.get(0).getTargetRate(), 0.0001d);
+        assertTrue(trials.get(0).isCompliant());
+
+        TrialResult last = trials.get(trials.size() - 1);
+        assertEquals(8000d, last.getTargetRate(), 0.0001d);
+        assertFalse(last.isCompliant());
+        assertTrue(last.getSlaViolation().contains("p99"));
+
+        for(int i = 1; i < trials.size(); i ++) {
+
+            assertTrue(trials.get(i - 1).getTargetRate() < trials.get(i).getTargetRate());
+        }
+    }
+
+    @Test
+    public void search_MaximumRateComplies() throws Exception {
+
+        CapacitySearch s = new CapacitySearch(
+                configuration(1000d, 3000d, 50, null, null), rate -> simulate(rate, 1000000d, 0d));
+
+        s.run();
+
+        assertEquals(3000d, s.getHighestCompliantRate(), 0.0001d);
+
+        List<TrialResult> trials = s.getTrials();
+
+        assertEquals(3, trials.size());
+        assertEquals(1000d, trials.get(0).getTargetRate(), 0.0001d);
+        assertEquals(2000d, trials.get(1).getTargetRate(), 0.0001d);
+        assertEquals(3000d, trials.get(2).getTargetRate(), 0.0001d);
+    }
+
+    @Test
+    public void search_MaximumTrialCount() throws Exception {
+
+        CapacitySearch s = new CapacitySearch(
+                configuration(1000d, null, 3, null, null), rate -> simulate(rate, 1000000d, 0d));
+
+        s.run();
+
+        assertEquals(3, s.getTrials().size());
+        assertEquals(4000d, s.getHighestCompliantRate(), 0.0001d);
+    }
+
+    @Test
+    public void search_InitialRateDoesNotComply() throws Exception {
+
+        double capacity = 300d;
+
+        CapacitySearch s = new CapacitySearch(
+                configuration(1000d, null, 50, null, null), rate -> simulate(rate, capacity, 0d));
+
+        s.run();
+
+        double found = s.getHighestCompliantRate();
+
+        assertTrue(found <= capacity);
+        assertTrue(found >= capacity * 0.98);
+    }
+
+    @Test
+    public void search_NoCompliantRate() throws Exception {
+
+        CapacitySearch s = new CapacitySearch(
+                configuration(1000d, null, 50, 0.001d, null), rate -> simulate(rate, 1000000d, 0.01d));
+
+        s.run();
+
+        assertNull(s.getHighestCompliantRate());
+
+        //
+        // the search gives up after the rate drops below initial rate * resolution
+        //
+
+        assertTrue(s.getTrials().size() < 50);
+
+        String report = s.getReport();
+        log.info(report);
+        assertTrue(report.contains("no trial complied with the SLA"));
+    }
+
+    @Test
+    public void evaluate() throws Exception {
+
+        CapacitySearch s = new CapacitySearch(configuration(1000d, null, 50, 0.001d, null), null);
+
+        assertNull(s.evaluate(simulate(1000d, 2000d, 0d)));
+
+        String violation = s.evaluate(simulate(1000d, 500d, 0d));
+        log.info(violation);
+        assertTrue(violation.startsWith("p99 "));
+
+        violation = s.evaluate(simulate(1000d, 2000d, 0.01d));
+        log.info(violation);
+        assertTrue(violation.startsWith("error rate "));
+
+        violation = s.evaluate(new TrialResult(1000d, 0L, 0L, 10000L, null));
+        log.info(violation);
+        assertEquals("no operations performed", violation);
+
+        //
+        // the target service could only absorb 800 ops/s out of 1000 ops/s
+        //
+
+        TrialResult t = simulate(800d, 2000d, 0d);
+        violation = s.evaluate(new TrialResult(1000d, t.getSuccessCount(), 0L, 10000L, null));
+        log.info(violation);
+        assertTrue(violation.startsWith("achieved rate "));
+    }
+
+    @Test
+    public void writeCurve() throws Exception {
+
+        File curve = File.createTempFile("capacity-curve", ".csv");
+        curve.deleteOnExit();
+
+        CapacitySearch s = new CapacitySearch(
+                configuration(1000d, 2000d, 50, null, curve), rate -> simulate(rate, 1500d, 0d));
+
+        s.run();
+
+        List<String> lines = Files.readAllLines(curve.toPath());
+
+        assertEquals(1 + s.getTrials().size(), lines.size());
+        assertEquals("target rate (ops/s), achieved rate (ops/s), p50 (ms), p90 (ms), p99 (ms), p99.9 (ms), " +
+                "max (ms), error rate, SLA met", lines.get(0));
+        assertTrue(lines.get(1).startsWith("1000.0, 1000.0, "));
+        assertTrue(lines.get(1).endsWith(", true"));
+        assertTrue(lines.get(lines.size() - 1).startsWith("2000.0, 2000.0, "));
+        assertTrue(lines.get(lines.size() - 1).endsWith(", false"));
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.cluster;
+
+import io.novaordis.gld.driver.LoadDriverImpl;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class AgentServerTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(AgentServerTest.class);
+
+    private static final String VALID_CONFIGURATION =
+            "service:\n" +
+                    "  type: cache\n" +
+                    "  implementation:\n" +
+                    "    name: embedded\n" +
+                    "  load-strategy:\n" +
+                    "    name: read-then-write-on-miss\n" +
+                    "load:\n" +
+                    "  threads: 1\n" +
+                    "  operations: 1\n";
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidPort() throws Exception {
+
+        try {
+
+            new AgentServer(-1);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_NullBindAddress() throws Exception {
+
+        try {
+
+            new AgentServer(null, 0);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("null bind address", msg);
+        }
+    }
+
+    @Test
+    public void listensOnLoopbackByDefault() throws Exception {
+
+        AgentServer server = new AgentServer(0);
+
+        assertTrue(server.getBindAddress().isLoopbackAddress());
+        assertFalse(server.isAuthenticationRequired());
+
+        server.start();
+
+        try {
+
+            assertTrue(server.getBindAddress().isLoopbackAddress());
+        }
+        finally {
+
+            server.stop();
+        }
+    }
+
+    @Test
+    public void setSecret_Empty() throws Exception {
+
+        AgentServer server = new AgentServer(0);
+
+        server.setSecret("");
+        assertFalse(server.isAuthenticationRequired());
+
+        server.setSecret("test-secret");
+        assertTrue(server.isAuthenticationRequired());
+
+        server.setSecret(null);
+        assertFalse(server.isAuthenticationRequired());
+    }
+
+    @Test
+    public void serveSession_NotStarted() throws Exception {
+
+        try {
+
+            new AgentServer(0).serveSession();
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void invalidConfiguration() throws Exception {
+
+        AgentServer server = new AgentServer(0);
+        server.start();
+
+        assertTrue(server.getPort() > 0);
+
+        AtomicBoolean sessionResult = new AtomicBoolean(true);
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                sessionResult.set(server.serveSession());
+            }
+            catch(Exception e) {
+
+                log.error("session failed", e);
+            }
+        });
+
+        t.start();
+
+        try (Socket s = new Socket(server.getBindAddress(), server.getPort())) {
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+
+            authenticate(in, out, null);
+
+            assertEquals(Protocol.AUTHENTICATED, in.readByte());
+
+            Protocol.writeConfiguration(out, "agent-0", "some random content\n");
+
+            assertEquals(Protocol.FAILED, in.readByte());
+
+            String msg = in.readUTF();
+            log.info(msg);
+            assertEquals("invalid configuration", msg);
+        }
+
+        t.join(10000L);
+
+        //
+        // the session was served, the agent is ready for the next one
+        //
+
+        assertTrue(sessionResult.get());
+
+        server.stop();
+        assertFalse(server.serveSession());
+    }
+
+    @Test
+    public void authentication() throws Exception {
+
+        AgentServer server = new AgentServer(0);
+        server.setSecret("test-secret");
+        server.start();
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                server.serveSession();
+            }
+            catch(Exception e) {
+
+                log.error("session failed", e);
+            }
+        });
+
+        t.start();
+
+        try (Socket s = new Socket(server.getBindAddress(), server.getPort())) {
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+
+            authenticate(in, out, "test-secret");
+
+            assertEquals(Protocol.AUTHENTICATED, in.readByte());
+
+            //
+            // the agent proceeds with the session
+            //
+
+            Protocol.writeConfiguration(out, "agent-0", "some random content\n");
+
+            assertEquals(Protocol.FAILED, in.readByte());
+            assertEquals("invalid configuration", in.readUTF());
+        }
+
+        t.join(10000L);
+
+        server.stop();
+    }
+
+    @Test
+    public void authentication_WrongSecret() throws Exception {
+
+        authenticationFails("some other secret");
+    }
+
+    @Test
+    public void authentication_NoSecret() throws Exception {
+
+        authenticationFails(null);
+    }
+
+    @Test
+    public void setHandshakeTimeoutMs_Invalid() throws Exception {
+
+        AgentServer server = new AgentServer(0);
+
+        assertEquals(AgentServer.DEFAULT_HANDSHAKE_TIMEOUT_MS, server.getHandshakeTimeoutMs());
+        assertEquals(AgentServer.DEFAULT_START_TIMEOUT_MS, server.getStartTimeoutMs());
+
+        try {
+
+            server.setHandshakeTimeoutMs(0);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertEquals("invalid handshake timeout 0", msg);
+        }
+    }
+
+    @Test
+    public void handshakeTimeout_SilentCoordinatorDoesNotHangTheAgent() throws Exception {
+
+        AgentServer server = new AgentServer(0);
+        server.setHandshakeTimeoutMs(200);
+        server.start();
+
+        AtomicBoolean sessionResult = new AtomicBoolean(false);
+        Thread t = serveSession(server, sessionResult);
+
+        try (Socket s = new Socket(server.getBindAddress(), server.getPort())) {
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+
+            assertEquals(Protocol.CHALLENGE, in.readByte());
+            Protocol.readBytes(in);
+
+            //
+            // we never answer, the agent gives up and closes the connection
+            //
+
+            s.setSoTimeout(10000);
+            assertEquals(-1, in.read());
+        }
+
+        t.join(10000L);
+
+        assertFalse(t.isAlive());
+        assertTrue(sessionResult.get());
+
+        server.stop();
+    }
+
+    @Test
+    public void startTimeout_TheLoadDriverIsReleased() throws Exception {
+
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        AgentServer server = new StopTrackingAgentServer(stopped);
+        server.setStartTimeoutMs(200);
+        server.start();
+
+        AtomicBoolean sessionResult = new AtomicBoolean(false);
+        Thread t = serveSession(server, sessionResult);
+
+        try (Socket s = new Socket(server.getBindAddress(), server.getPort())) {
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+
+            authenticate(in, out, null);
+
+            assertEquals(Protocol.AUTHENTICATED, in.readByte());
+
+            Protocol.writeConfiguration(out, "agent-0", VALID_CONFIGURATION);
+
+            assertEquals(Protocol.READY, in.readByte());
+
+            //
+            // we never send START
+            //
+
+            s.setSoTimeout(10000);
+            assertEquals(-1, in.read());
+        }
+
+        t.join(10000L);
+
+        assertFalse(t.isAlive());
+        assertTrue(sessionResult.get());
+        assertTrue(stopped.await(0L, TimeUnit.MILLISECONDS));
+
+        server.stop();
+    }
+
+    @Test
+    public void initFailure_TheLoadDriverIsReleased() throws Exception {
+
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        AgentServer server = new StopTrackingAgentServer(stopped);
+        server.start();
+
+        AtomicBoolean sessionResult = new AtomicBoolean(false);
+        Thread t = serveSession(server, sessionResult);
+
+        try (Socket s = new Socket(server.getBindAddress(), server.getPort())) {
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+
+            authenticate(in, out, null);
+
+            assertEquals(Protocol.AUTHENTICATED, in.readByte());
+
+            Protocol.writeConfiguration(
+                    out, "agent-0", VALID_CONFIGURATION.replace("read-then-write-on-miss", "no-such-strategy"));
+
+            assertEquals(Protocol.FAILED, in.readByte());
+            log.info(in.readUTF());
+        }
+
+        t.join(10000L);
+
+        assertTrue(sessionResult.get());
+        assertTrue(stopped.await(0L, TimeUnit.MILLISECONDS));
+
+        server.stop();
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    private static Thread serveSession(AgentServer server, AtomicBoolean sessionResult) {
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                sessionResult.set(server.serveSession());
+            }
+            catch(Exception e) {
+
+                log.error("session failed", e);
+            }
+        });
+
+        t.start();
+
+        return t;
+    }
+
+    /**
+     * Answers the agent's challenge, as the coordinator would.
+     */
+    private static void authenticate(DataInputStream in, DataOutputStream out, String secret) throws Exception {
+
+        assertEquals(Protocol.CHALLENGE, in.readByte());
+
+        byte[] challenge = Protocol.readBytes(in);
+        assertEquals(Protocol.CHALLENGE_LENGTH, challenge.length);
+
+        Protocol.writeAuthentication(out, secret, challenge);
+    }
+
+    private void authenticationFails(String coordinatorSecret) throws Exception {
+
+        AgentServer server = new AgentServer(0);
+        server.setSecret("test-secret");
+        server.start();
+
+        AtomicBoolean sessionResult = new AtomicBoolean(false);
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                sessionResult.set(server.serveSession());
+            }
+            catch(Exception e) {
+
+                log.error("session failed", e);
+            }
+        });
+
+        t.start();
+
+        try (Socket s = new Socket(server.getBindAddress(), server.getPort())) {
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+
+            authenticate(in, out, coordinatorSecret);
+
+            assertEquals(Protocol.FAILED, in.readByte());
+
+            String msg = in.readUTF();
+            log.info(msg);
+            assertEquals("authentication failed", msg);
+
+            //
+            // the agent closed the connection without reading a configuration
+            //
+
+            assertEquals(-1, in.read());
+        }
+
+        t.join(10000L);
+
+        //
+        // the agent is ready for the next session
+        //
+
+        assertTrue(sessionResult.get());
+
+        server.stop();
+    }
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    private static class StopTrackingAgentServer extends AgentServer {
+
+        private final CountDownLatch stopped;
+
+        StopTrackingAgentServer(CountDownLatch stopped) {
+
+            super(0);
+            this.stopped = stopped;
+        }
+
+        @Override
+        LoadDriverImpl newLoadDriver(String agentId) {
+
+            return new LoadDriverImpl(agentId, true) {
+
+                @Override
+                public void stop() {
+
+                    stopped.countDown();
+                    super.stop();
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.cluster;
+
+import io.novaordis.gld.api.cache.operation.Read;
+import io.novaordis.gld.api.sampler.CounterValues;
+import io.novaordis.gld.api.mock.MockSamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.utilities.UserErrorException;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class CoordinatorTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(CoordinatorTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    private List<FakeAgent> agents = new ArrayList<>();
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    @After
+    public void after() throws Exception {
+
+        for(FakeAgent a: agents) {
+
+            a.close();
+        }
+    }
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    // fromArguments() -------------------------------------------------------------------------------------------------
+
+    @Test
+    public void fromArguments_NoClusterOptions() throws Exception {
+
+        List<String> args = new ArrayList<>(Arrays.asList("-c", "something.yml"));
+
+        assertNull(Coordinator.fromArguments(args));
+        assertEquals(2, args.size());
+    }
+
+    @Test
+    public void fromArguments_Agents() throws Exception {
+
+        List<String> args = new ArrayList<>(Arrays.asList("--agents=host1:7171,host2:7172", "--local-agents=2"));
+
+        Coordinator c = Coordinator.fromArguments(args);
+
+        assertNotNull(c);
+        assertTrue(args.isEmpty());
+
+        List<InetSocketAddress> agents = c.getAgents();
+        assertEquals(2, agents.size());
+        assertEquals("host1", agents.get(0).getHostString());
+        assertEquals(7171, agents.get(0).getPort());
+        assertEquals("host2", agents.get(1).getHostString());
+        assertEquals(7172, agents.get(1).getPort());
+        assertEquals(2, c.getLocalAgentCount());
+        assertEquals(4, c.getAgentCount());
+    }
+
+    @Test
+    public void fromArguments_InvalidAddress() throws Exception {
+
+        for(String s: Arrays.asList("--agents=host1", "--agents=host1:", "--agents=host1:blah", "--agents=:7171",
+                "--local-agents=0", "--local-agents=blah")) {
+
+            try {
+
+                Coordinator.fromArguments(new ArrayList<>(Collections.singletonList(s)));
+                fail("should have thrown exception");
+            }
+            catch(UserErrorException e) {
+
+                log.info(e.getMessage());
+            }
+        }
+    }
+
+    // run() -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void run() throws Exception {
+
+        FakeAgent a = new FakeAgent(10200L, 11200L);
+        FakeAgent b = new FakeAgent(10700L, 11700L);
+
+        Coordinator c = new Coordinator(Arrays.asList(a.getAddress(), b.getAddress()), 0);
+
+        MockSamplingConsumer output = new MockSamplingConsumer();
+
+        c.run("test: configuration", 1000L, output);
+
+        //
+        // the configuration was distributed and both agents were started
+        //
+
+        assertEquals("test: configuration", a.configuration);
+        assertEquals("test: configuration", b.configuration);
+        assertEquals("agent-0", a.agentId);
+        assertEquals("agent-1", b.agentId);
+
+        assertTrue(output.wasStopped());
+
+        List<SamplingInterval> intervals = output.getSamplingIntervals();
+
+        assertEquals(2, intervals.size());
+
+        assertEquals(10000L, intervals.get(0).getStartMs());
+        CounterValues cv = intervals.get(0).getCounterValues(Read.class);
+        assertEquals(2L, cv.getSuccessCount());
+        assertEquals(2L, cv.getSuccessResponseTimeHistogram().getTotalCount());
+
+        assertEquals(11000L, intervals.get(1).getStartMs());
+        assertEquals(2L, intervals.get(1).getCounterValues(Read.class).getSuccessCount());
+
+        String summary = c.getSummary();
+        log.info(summary);
+        assertTrue(summary.startsWith("2 agent(s), 2 sampling interval(s), 2000 ms"));
+        assertTrue(summary.contains("Read: 4 successful, 0 failed, 2.0 ops/s"));
+    }
+
+    @Test
+    public void run_AgentsStartOnlyAfterAllAreReady() throws Exception {
+
+        FakeAgent a = new FakeAgent(1000L);
+        FakeAgent b = new FakeAgent(1000L);
+
+        //
+        // b does not report READY until we allow it
+        //
+
+        b.readyLatch = new CountDownLatch(1);
+
+        Coordinator c = new Coordinator(Arrays.asList(a.getAddress(), b.getAddress()), 0);
+
+        Thread t = new Thread(() -> {
+
+            try {
+
+                c.run("test: configuration", 1000L, null);
+            }
+            catch(Exception e) {
+
+                log.error("coordinator failed", e);
+            }
+        });
+
+        t.start();
+
+        assertTrue(a.configurationReceived.await(10, TimeUnit.SECONDS));
+
+        //
+        // a is ready, but it must not be started
+        //
+
+        assertEquals(1L, a.startReceived.getCount());
+        Thread.sleep(200L);
+        assertEquals(1L, a.startReceived.getCount());
+
+        b.readyLatch.countDown();
+
+        assertTrue(a.startReceived.await(10, TimeUnit.SECONDS));
+        assertTrue(b.startReceived.await(10, TimeUnit.SECONDS));
+
+        t.join(10000L);
+        assertTrue(c.getSummary().contains("Read: 2 successful"));
+    }
+
+    @Test
+    public void run_AgentFailsToInitialize() throws Exception {
+
+        FakeAgent a = new FakeAgent(1000L);
+        FakeAgent b = new FakeAgent(1000L);
+        b.initializationFailure = "SYNTHETIC";
+
+        Coordinator c = new Coordinator(Arrays.asList(a.getAddress(), b.getAddress()), 0);
+        MockSamplingConsumer output = new MockSamplingConsumer();
+
+        try {
+
+            c.run("test: configuration", 1000L, output);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("agent-1"));
+            assertTrue(msg.contains("failed to initialize: SYNTHETIC"));
+        }
+
+        assertEquals(1L, a.startReceived.getCount());
+        assertTrue(output.wasStopped());
+    }
+
+    @Test
+    public void run_AgentFailsWhileRunning() throws Exception {
+
+        FakeAgent a = new FakeAgent(1000L);
+        FakeAgent b = new FakeAgent(1000L);
+        b.runFailure = "SYNTHETIC";
+
+        Coordinator c = new Coordinator(Arrays.asList(a.getAddress(), b.getAddress()), 0);
+        MockSamplingConsumer output = new MockSamplingConsumer();
+
+        try {
+
+            c.run("test: configuration", 1000L, output);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("agent-1"));
+            assertTrue(msg.contains("SYNTHETIC"));
+        }
+
+        //
+        // the intervals sent before the failure are not lost
+        //
+
+        assertEquals(1, output.getSamplingIntervals().size());
+        assertEquals(2L, output.getSamplingIntervals().get(0).getCounterValues(Read.class).getSuccessCount());
+    }
+
+    @Test
+    public void run_Authentication() throws Exception {
+
+        FakeAgent a = new FakeAgent(1000L);
+        a.secret = "test-secret";
+
+        Coordinator c = new Coordinator(Collections.singletonList(a.getAddress()), 0);
+        c.setSecret("test-secret");
+
+        c.run("test: configuration", 1000L, null);
+
+        assertEquals("test: configuration", a.configuration);
+        assertEquals(32, a.authenticationResponse.length);
+    }
+
+    @Test
+    public void run_AuthenticationFails() throws Exception {
+
+        FakeAgent a = new FakeAgent(1000L);
+        a.secret = "test-secret";
+
+        Coordinator c = new Coordinator(Collections.singletonList(a.getAddress()), 0);
+        c.setSecret("some other secret");
+
+        try {
+
+            c.run("test: configuration", 1000L, null);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("rejected the coordinator: authentication failed"));
+        }
+
+        assertNull(a.configuration);
+    }
+
+    @Test
+    public void run_NoSecret() throws Exception {
+
+        FakeAgent a = new FakeAgent(1000L);
+        a.secret = "test-secret";
+
+        Coordinator c = new Coordinator(Collections.singletonList(a.getAddress()), 0);
+
+        try {
+
+            c.run("test: configuration", 1000L, null);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+            assertTrue(msg.contains("rejected the coordinator: authentication failed"));
+        }
+
+        assertEquals(0, a.authenticationResponse.length);
+    }
+
+    @Test
+    public void run_CannotConnect() throws Exception {
+
+        int port;
+
+        try (ServerSocket ss = new ServerSocket(0)) {
+
+            port = ss.getLocalPort();
+        }
+
+        Coordinator c = new Coordinator(
+                Collections.singletonList(InetSocketAddress.createUnresolved("localhost", port)), 0);
+
+        c.setConnectTimeoutMs(300L);
+
+        try {
+
+            c.run("test: configuration", 1000L, null);
+            fail("should have thrown exception");
+        }
+        catch(UserErrorException e) {
+
+            log.info(e.getMessage());
+            assertTrue(e.getMessage().startsWith("cannot connect to agent localhost:" + port));
+        }
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+    /**
+     * Speaks the agent side of the protocol, and sends one Read sampling interval per given start timestamp.
+     */
+    private class FakeAgent implements Runnable {
+
+        private final ServerSocket serverSocket;
+        private final long[] intervalStarts;
+
+        private volatile String agentId;
+        private volatile String configuration;
+        private volatile String initializationFailure;
+        private volatile String runFailure;
+        private volatile CountDownLatch readyLatch;
+
+        // the secret the coordinator must authenticate with, null if authentication is not required
+        private volatile String secret;
+        private volatile byte[] authenticationResponse;
+
+        private final CountDownLatch configurationReceived = new CountDownLatch(1);
+        private final CountDownLatch startReceived = new CountDownLatch(1);
+
+        FakeAgent(long... intervalStarts) throws Exception {
+
+            this.serverSocket = new ServerSocket(0);
+            this.intervalStarts = intervalStarts;
+
+            agents.add(this);
+
+            Thread t = new Thread(this, "Fake Agent " + serverSocket.getLocalPort());
+            t.setDaemon(true);
+            t.start();
+        }
+
+        InetSocketAddress getAddress() {
+
+            return InetSocketAddress.createUnresolved("localhost", serverSocket.getLocalPort());
+        }
+
+        @Override
+        public void run() {
+
+            try (Socket s = serverSocket.accept()) {
+
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+
+                byte[] challenge = Protocol.writeChallenge(out);
+
+                assertEquals(Protocol.AUTHENTICATION, in.readByte());
+                authenticationResponse = Protocol.readBytes(in);
+
+                if (secret != null &&
+                        !Arrays.equals(Protocol.authenticate(secret, challenge), authenticationResponse)) {
+
+                    Protocol.writeFailure(out, "authentication failed");
+                    return;
+                }
+
+                Protocol.writeSignal(out, Protocol.AUTHENTICATED);
+
+                assertEquals(Protocol.CONFIGURATION, in.readByte());
+                agentId = in.readUTF();
+                configuration = new String(Protocol.readBytes(in), "UTF-8");
+                configurationReceived.countDown();
+
+                if (initializationFailure != null) {
+
+                    Protocol.writeFailure(out, initializationFailure);
+                    return;
+                }
+
+                if (readyLatch != null) {
+
+                    readyLatch.await();
+                }
+
+                Protocol.writeSignal(out, Protocol.READY);
+
+                assertEquals(Protocol.START, in.readByte());
+                startReceived.countDown();
+
+                for(long start: intervalStarts) {
+
+                    Protocol.writeInterval(out, IntervalAggregatorTest.interval(start, Read.class, 1000L));
+                }
+
+                if (runFailure != null) {
+
+                    Protocol.writeFailure(out, runFailure);
+                }
+                else {
+
+                    Protocol.writeSignal(out, Protocol.DONE);
+                }
+
+                //
+                // wait for the coordinator to close the connection
+                //
+
+                //noinspection StatementWithEmptyBody
+                while(in.read() != -1) {
+                }
+            }
+            catch(Exception e) {
+
+                log.debug("fake agent failure", e);
+            }
+        }
+
+        void close() throws Exception {
+
+            serverSocket.close();
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2017 Nova Ordis LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.novaordis.gld.driver.cluster;
+
+import io.novaordis.gld.api.Operation;
+import io.novaordis.gld.api.cache.operation.Read;
+import io.novaordis.gld.api.cache.operation.Write;
+import io.novaordis.gld.api.sampler.CounterValues;
+import io.novaordis.gld.api.sampler.CounterValuesImpl;
+import io.novaordis.gld.api.sampler.LatencyHistogram;
+import io.novaordis.gld.api.mock.MockSamplingConsumer;
+import io.novaordis.gld.api.sampler.SamplingInterval;
+import io.novaordis.gld.api.sampler.SamplingIntervalImpl;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ovidiu Feodorov <ovidiu@novaordis.com>
+ * @since 9/16/17
+ */
+public class IntervalAggregatorTest {
+
+    // Constants -------------------------------------------------------------------------------------------------------
+
+    private static final Logger log = LoggerFactory.getLogger(IntervalAggregatorTest.class);
+
+    // Static ----------------------------------------------------------------------------------------------------------
+
+    static SamplingIntervalImpl interval(long startMs, Class<? extends Operation> ot, long... responseTimesNano) {
+
+        Set<Class<? extends Operation>> ots = Collections.singleton(ot);
+        SamplingIntervalImpl si = new SamplingIntervalImpl(startMs, 1000L, ots);
+
+        LatencyHistogram h = new LatencyHistogram();
+        long total = 0L;
+
+        for(long rt: responseTimesNano) {
+
+            h.record(rt);
+            total += rt;
+        }
+
+        si.setCounterValues(ot, new CounterValuesImpl(responseTimesNano.length, total, total, h, null));
+        return si;
+    }
+
+    // Attributes ------------------------------------------------------------------------------------------------------
+
+    // Constructors ----------------------------------------------------------------------------------------------------
+
+    // Public ----------------------------------------------------------------------------------------------------------
+
+    // Tests -----------------------------------------------------------------------------------------------------------
+
+    @Test
+    public void constructor_InvalidInterval() throws Exception {
+
+        try {
+
+            new IntervalAggregator(0L, Collections.singletonList("a"), null);
+            fail("should have thrown exception");
+        }
+        catch(IllegalArgumentException e) {
+
+            log.info(e.getMessage());
+        }
+    }
+
+    @Test
+    public void merge() throws Exception {
+
+        SamplingIntervalImpl si = interval(1000L, Read.class, 1000L, 2000L);
+        si.addAnnotation("something");
+        SamplingIntervalImpl si2 = interval(1300L, Read.class, 3000L);
+        SamplingIntervalImpl si3 = interval(1500L, Write.class, 4000L);
+
+        SamplingIntervalImpl merged = IntervalAggregator.merge(1000L, 1000L, Arrays.asList(
+                new IntervalAggregator.AgentInterval("a", si),
+                new IntervalAggregator.AgentInterval("b", si2),
+                new IntervalAggregator.AgentInterval("c", si3)));
+
+        assertEquals(1000L, merged.getStartMs());
+        assertEquals(1000L, merged.getDurationMs());
+        assertEquals(2, merged.getOperationTypes().size());
+
+        CounterValues cv = merged.getCounterValues(Read.class);
+        assertEquals(3L, cv.getSuccessCount());
+        assertEquals(6000L, cv.getSuccessCumulatedDurationNano());
+
+        //
+        // the histograms are merged, the percentiles are cluster-wide
+        //
+
+        assertEquals(3L, cv.getSuccessResponseTimeHistogram().getTotalCount());
+        assertEquals(3000L, cv.getSuccessMaxResponseTimeNano());
+
+        assertEquals(1L, merged.getCounterValues(Write.class).getSuccessCount());
+
+        assertEquals(Collections.singletonList("a: something"), merged.getAnnotations());
+        assertNull(merged.getMetrics());
+    }
+
+    @Test
+    public void intervalsAreAlignedAndHandedOverWhenAllAgentsMovedOn() throws Exception {
+
+        MockSamplingConsumer output = new MockSamplingConsumer();
+        IntervalAggregator a = new IntervalAggregator(1000L, Arrays.asList("a", "b"), output);
+
+        a.add("a", interval(10200L, Read.class, 10L));
+        a.add("a", interval(11200L, Read.class, 10L));
+
+        //
+        // "b" did not report anything yet
+        //
+
+        assertTrue(output.getSamplingIntervals().isEmpty());
+
+        a.add("b", interval(10700L, Read.class, 10L, 10L));
+
+        //
+        // "b" is still at 10000, nothing can be handed over
+        //
+
+        assertTrue(output.getSamplingIntervals().isEmpty());
+
+        a.add("b", interval(11700L, Read.class, 10L));
+
+        List<SamplingInterval> intervals = output.getSamplingIntervals();
+        assertEquals(1, intervals.size());
+        assertEquals(10000L, intervals.get(0).getStartMs());
+        assertEquals(3L, intervals.get(0).getCounterValues(Read.class).getSuccessCount());
+
+        //
+        // "a" completes, 11000 can be handed over when "b" moves on
+        //
+
+        a.agentDone("a");
+        assertEquals(1, output.getSamplingIntervals().size());
+
+        a.add("b", interval(12700L, Read.class, 10L));
+
+        intervals = output.getSamplingIntervals();
+        assertEquals(2, intervals.size());
+        assertEquals(11000L, intervals.get(1).getStartMs());
+        assertEquals(2L, intervals.get(1).getCounterValues(Read.class).getSuccessCount());
+
+        a.agentDone("b");
+
+        intervals = output.getSamplingIntervals();
+        assertEquals(3, intervals.size());
+        assertEquals(12000L, intervals.get(2).getStartMs());
+
+        assertEquals(3, a.getIntervalCount());
+        assertEquals(3000L, a.getTotalDurationMs());
+        assertEquals(6L, a.getTotals().get(Read.class).getSuccessCount());
+    }
+
+    @Test
+    public void flush() throws Exception {
+
+        MockSamplingConsumer output = new MockSamplingConsumer();
+        IntervalAggregator a = new IntervalAggregator(1000L, Arrays.asList("a", "b"), output);
+
+        a.add("a", interval(1000L, Read.class, 10L));
+        assertTrue(output.getSamplingIntervals().isEmpty());
+
+        a.flush();
+
+        assertEquals(1, output.getSamplingIntervals().size());
+        assertEquals(1L, a.getTotals().get(Read.class).getSuccessCount());
+    }
+
+    @Test
+    public void flush_OneIntervalPerHandOff() throws Exception {
+
+        MockSamplingConsumer output = new MockSamplingConsumer();
+        IntervalAggregator a = new IntervalAggregator(1000L, Arrays.asList("a", "b"), output);
+
+        a.add("a", interval(1000L, Read.class, 10L));
+        a.add("a", interval(2000L, Read.class, 10L));
+        a.add("a", interval(3000L, Read.class, 10L));
+
+        a.flush();
+
+        //
+        // distinct intervals are not handed over together
+        //
+
+        assertEquals(3, output.getSamplingIntervals().size());
+        assertEquals(1, output.getMaxHandOffSize());
+    }
+
+    // Package protected -----------------------------------------------------------------------------------------------
+
+    // Protected -------------------------------------------------------------------------------------------------------
+
+    // Private ---------------------------------------------------------------------------------------------------------
+
+    // Inner classes ---------------------------------------------------------------------------------------------------
+
+}
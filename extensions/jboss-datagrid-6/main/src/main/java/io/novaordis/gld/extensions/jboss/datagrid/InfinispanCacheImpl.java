@@ -18,8 +18,13 @@ package io.novaordis.gld.extensions.jboss.datagrid;
 
 import io.novaordis.gld.extensions.jboss.datagrid.common.InfinispanCache;
 import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -80,6 +85,54 @@ public class InfinispanCacheImpl implements InfinispanCache {
         return delegate.keySet();
     }
 
+    /**
+     * The Hot Rod protocol version supported by the JDG 6 client has no bulk get operation, so the keys are read one by
+     * one. The operation counts as one bulk read, but it costs as many round trips as keys.
+     */
+    @Override
+    public Map<String, String> getAll(Set<String> keys) throws Exception {
+
+        Map<String, String> result = new HashMap<>();
+
+        for(String key: keys) {
+
+            String value = (String)delegate.get(key);
+
+            if (value != null) {
+
+                result.put(key, value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) throws Exception {
+
+        //noinspection unchecked
+        delegate.putAll(entries);
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) throws Exception {
+
+        return toCompletableFuture(delegate.getAsync(key)).thenApply(o -> (String)o);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String value) throws Exception {
+
+        //noinspection unchecked
+        return toCompletableFuture(delegate.putAsync(key, value)).thenApply(o -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAsync(String key) throws Exception {
+
+        return toCompletableFuture(delegate.removeAsync(key)).thenApply(o -> null);
+    }
+
     @Override
     public Object getDelegate() {
 
@@ -94,6 +147,33 @@ public class InfinispanCacheImpl implements InfinispanCache {
 
     // Private ---------------------------------------------------------------------------------------------------------
 
+    /**
+     * The JDG 6 client API returns NotifyingFutures, we adapt them to CompletableFutures by attaching a listener.
+     */
+    private static CompletableFuture<Object> toCompletableFuture(NotifyingFuture<?> nf) {
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+
+        //noinspection unchecked
+        ((NotifyingFuture<Object>)nf).attachListener(f -> {
+
+            try {
+
+                result.complete(f.get());
+            }
+            catch(ExecutionException e) {
+
+                result.completeExceptionally(e.getCause());
+            }
+            catch(Throwable t) {
+
+                result.completeExceptionally(t);
+            }
+        });
+
+        return result;
+    }
+
     // Inner classes ---------------------------------------------------------------------------------------------------
 
 }
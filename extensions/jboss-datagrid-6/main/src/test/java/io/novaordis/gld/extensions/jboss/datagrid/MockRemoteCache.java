@@ -340,7 +340,9 @@ public class MockRemoteCache implements RemoteCache {
 
     @Override
     public void putAll(Map m) {
-        throw new NotYetImplementedException("putAll() NOT YET IMPLEMENTED");
+
+        //noinspection unchecked
+        storage.putAll(m);
     }
 
     @Override
@@ -19,7 +19,9 @@ package io.novaordis.gld.extensions.jboss.datagrid;
 import io.novaordis.gld.extensions.jboss.datagrid.common.InfinispanCache;
 import org.infinispan.client.hotrod.RemoteCache;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -80,6 +82,41 @@ public class InfinispanCacheImpl implements InfinispanCache {
         return delegate.keySet();
     }
 
+    @Override
+    public Map<String, String> getAll(Set<String> keys) throws Exception {
+
+        //noinspection unchecked
+        return (Map<String, String>)delegate.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) throws Exception {
+
+        //noinspection unchecked
+        delegate.putAll(entries);
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) throws Exception {
+
+        //noinspection unchecked
+        return ((CompletableFuture<Object>)delegate.getAsync(key)).thenApply(o -> (String)o);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String value) throws Exception {
+
+        //noinspection unchecked
+        return ((CompletableFuture<Object>)delegate.putAsync(key, value)).thenApply(o -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAsync(String key) throws Exception {
+
+        //noinspection unchecked
+        return ((CompletableFuture<Object>)delegate.removeAsync(key)).thenApply(o -> null);
+    }
+
     @Override
     public Object getDelegate() {
 
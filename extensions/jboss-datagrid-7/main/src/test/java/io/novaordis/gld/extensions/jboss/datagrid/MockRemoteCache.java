@@ -246,7 +246,8 @@ public class MockRemoteCache implements RemoteCache {
 
     @Override
     public CompletableFuture putAsync(Object key, Object value) {
-        throw new NotYetImplementedException("putAsync() NOT YET IMPLEMENTED");
+        //noinspection unchecked
+        return CompletableFuture.completedFuture(storage.put(key, value));
     }
 
     @Override
@@ -296,7 +297,7 @@ public class MockRemoteCache implements RemoteCache {
 
     @Override
     public CompletableFuture removeAsync(Object key) {
-        throw new NotYetImplementedException("removeAsync() NOT YET IMPLEMENTED");
+        return CompletableFuture.completedFuture(storage.remove(key));
     }
 
     @Override
@@ -336,12 +337,14 @@ public class MockRemoteCache implements RemoteCache {
 
     @Override
     public CompletableFuture getAsync(Object key) {
-        throw new NotYetImplementedException("getAsync() NOT YET IMPLEMENTED");
+        return CompletableFuture.completedFuture(storage.get(key));
     }
 
     @Override
     public void putAll(Map m) {
-        throw new NotYetImplementedException("putAll() NOT YET IMPLEMENTED");
+
+        //noinspection unchecked
+        storage.putAll(m);
     }
 
     @Override
@@ -377,7 +380,21 @@ public class MockRemoteCache implements RemoteCache {
 
     @Override
     public Map getAll(Set keys) {
-        throw new NotYetImplementedException("getAll() NOT YET IMPLEMENTED");
+
+        Map result = new HashMap();
+
+        for(Object key: keys) {
+
+            Object value = storage.get(key);
+
+            if (value != null) {
+
+                //noinspection unchecked
+                result.put(key, value);
+            }
+        }
+
+        return result;
     }
 
     @Override
@@ -16,7 +16,9 @@
 
 package io.novaordis.gld.extensions.jboss.datagrid.common;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -40,6 +42,31 @@ public interface InfinispanCache {
 
     Set<String> keys() throws Exception;
 
+    /**
+     * Bulk get. The keys that are not present in the cache are not present in the returned map either.
+     */
+    Map<String, String> getAll(Set<String> keys) throws Exception;
+
+    /**
+     * Bulk put.
+     */
+    void putAll(Map<String, String> entries) throws Exception;
+
+    /**
+     * Asynchronous get, wired to the client library's asynchronous API.
+     */
+    CompletableFuture<String> getAsync(String key) throws Exception;
+
+    /**
+     * Asynchronous put, wired to the client library's asynchronous API.
+     */
+    CompletableFuture<Void> putAsync(String key, String value) throws Exception;
+
+    /**
+     * Asynchronous remove, wired to the client library's asynchronous API.
+     */
+    CompletableFuture<Void> removeAsync(String key) throws Exception;
+
     /**
      * Give de-typed access to the underlying delegate. Usually a RemoteCache. We don't type the access to avoid
      * declaring a dependency on client libraries. The implementation modules, which have access to the actual types,
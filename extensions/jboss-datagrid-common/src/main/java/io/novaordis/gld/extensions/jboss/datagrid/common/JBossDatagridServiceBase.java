@@ -16,6 +16,8 @@
 
 package io.novaordis.gld.extensions.jboss.datagrid.common;
 
+import io.novaordis.gld.api.cache.AsyncCacheService;
+import io.novaordis.gld.api.cache.BulkCacheService;
 import io.novaordis.gld.api.cache.CacheServiceBase;
 import io.novaordis.gld.api.configuration.ImplementationConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
@@ -27,13 +29,16 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
  * @since 1/19/17
  */
-public abstract class JBossDatagridServiceBase extends CacheServiceBase {
+public abstract class JBossDatagridServiceBase extends CacheServiceBase
+        implements AsyncCacheService, BulkCacheService {
 
     // Constants -------------------------------------------------------------------------------------------------------
 
@@ -203,6 +208,50 @@ public abstract class JBossDatagridServiceBase extends CacheServiceBase {
         return cache.keys();
     }
 
+    // BulkCacheService implementation ---------------------------------------------------------------------------------
+
+    @Override
+    public Map<String, String> getAll(Set<String> keys) throws Exception {
+
+        checkStarted();
+
+        return cache.getAll(keys);
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) throws Exception {
+
+        checkStarted();
+
+        cache.putAll(entries);
+    }
+
+    // AsyncCacheService implementation --------------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) throws Exception {
+
+        checkStarted();
+
+        return cache.getAsync(key);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String value) throws Exception {
+
+        checkStarted();
+
+        return cache.putAsync(key, value);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAsync(String key) throws Exception {
+
+        checkStarted();
+
+        return cache.removeAsync(key);
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     /**
@@ -24,7 +24,10 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
@@ -512,6 +515,100 @@ public abstract class JBossDatagridServiceBaseTest {
         s.stop();
     }
 
+    @Test
+    public void getAsync_NotStarted() throws Exception {
+
+        JBossDatagridServiceBase s = getJBossDatagridServiceBaseToTest();
+        s.addNode(new HotRodEndpointAddress("mock-host"));
+
+        assertFalse(s.isStarted());
+
+        try {
+
+            s.getAsync("test-key");
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+        }
+    }
+
+    @Test
+    public void asyncCacheOperations() throws Exception {
+
+        JBossDatagridServiceBase s = getJBossDatagridServiceBaseToTest();
+        s.addNode(new HotRodEndpointAddress("mock-host"));
+        s.setLoadStrategy(new MockLoadStrategy());
+
+        s.start();
+
+        assertNull(s.getAsync("test-key").get());
+
+        s.putAsync("test-key", "test-value").get();
+        assertEquals("test-value", s.getAsync("test-key").get());
+        assertEquals("test-value", s.get("test-key"));
+
+        s.removeAsync("test-key").get();
+        assertNull(s.getAsync("test-key").get());
+        assertEquals(0, s.keys().size());
+
+        s.stop();
+    }
+
+    @Test
+    public void getAll_NotStarted() throws Exception {
+
+        JBossDatagridServiceBase s = getJBossDatagridServiceBaseToTest();
+        s.addNode(new HotRodEndpointAddress("mock-host"));
+
+        assertFalse(s.isStarted());
+
+        try {
+
+            s.getAll(Collections.singleton("test-key"));
+            fail("should have thrown exception");
+        }
+        catch(IllegalStateException e) {
+
+            String msg = e.getMessage();
+            log.info(msg);
+        }
+    }
+
+    @Test
+    public void bulkCacheOperations() throws Exception {
+
+        JBossDatagridServiceBase s = getJBossDatagridServiceBaseToTest();
+        s.addNode(new HotRodEndpointAddress("mock-host"));
+        s.setLoadStrategy(new MockLoadStrategy());
+
+        s.start();
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("test-key-1", "test-value-1");
+        entries.put("test-key-2", "test-value-2");
+
+        s.putAll(entries);
+
+        assertEquals("test-value-1", s.get("test-key-1"));
+        assertEquals("test-value-2", s.get("test-key-2"));
+
+        Map<String, String> values =
+                s.getAll(new HashSet<>(Arrays.asList("test-key-1", "test-key-2", "test-key-3")));
+
+        //
+        // the missing keys are not present in the result
+        //
+
+        assertEquals(2, values.size());
+        assertEquals("test-value-1", values.get("test-key-1"));
+        assertEquals("test-value-2", values.get("test-key-2"));
+
+        s.stop();
+    }
+
     // extensionNameToExtensionServiceFullyQualifiedClassName() --------------------------------------------------------
 
     @Test
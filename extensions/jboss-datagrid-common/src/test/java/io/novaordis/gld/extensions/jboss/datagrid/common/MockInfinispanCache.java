@@ -19,6 +19,7 @@ package io.novaordis.gld.extensions.jboss.datagrid.common;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Ovidiu Feodorov <ovidiu@novaordis.com>
@@ -83,6 +84,50 @@ public class MockInfinispanCache implements InfinispanCache {
         return storage.keySet();
     }
 
+    @Override
+    public Map<String, String> getAll(Set<String> keys) throws Exception {
+
+        Map<String, String> result = new HashMap<>();
+
+        for(String key: keys) {
+
+            String value = storage.get(key);
+
+            if (value != null) {
+
+                result.put(key, value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries) throws Exception {
+
+        storage.putAll(entries);
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) throws Exception {
+
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String value) throws Exception {
+
+        put(key, value);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAsync(String key) throws Exception {
+
+        remove(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
     @Override
     public Object getDelegate() {
 
@@ -18,6 +18,7 @@ package io.novaordis.gld.extensions.jboss.datagrid.common;
 
 import io.novaordis.gld.api.KeyProvider;
 import io.novaordis.gld.api.LoadStrategy;
+import io.novaordis.gld.api.LoadStrategyContext;
 import io.novaordis.gld.api.Operation;
 import io.novaordis.gld.api.configuration.LoadConfiguration;
 import io.novaordis.gld.api.configuration.ServiceConfiguration;
@@ -94,6 +95,19 @@ public class MockLoadStrategy implements LoadStrategy {
         throw new NotYetImplementedException("setService() NOT YET IMPLEMENTED");
     }
 
+    @Override
+    public LoadStrategyContext newContext() {
+
+        return new LoadStrategyContext(this);
+    }
+
+    @Override
+    public Operation next(LoadStrategyContext context, Operation last, String lastWrittenKey, boolean shuttingDown)
+            throws Exception {
+
+        return next(last, lastWrittenKey, shuttingDown);
+    }
+
     @Override
     public Operation next(Operation last, String lastWrittenKey, boolean shuttingDown) throws Exception {
         throw new NotYetImplementedException("next() NOT YET IMPLEMENTED");
@@ -134,6 +148,11 @@ public class MockLoadStrategy implements LoadStrategy {
         throw new RuntimeException("computeValue() NOT YET IMPLEMENTED");
     }
 
+    @Override
+    public byte[] computeValueBytes() {
+        throw new RuntimeException("computeValueBytes() NOT YET IMPLEMENTED");
+    }
+
     // Public ----------------------------------------------------------------------------------------------------------
 
     // Package protected -----------------------------------------------------------------------------------------------